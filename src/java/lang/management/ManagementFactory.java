@@ -172,6 +172,10 @@ import sun.management.ExtendedPlatformComponent;
  * <td> {@link java.util.logging.LogManager#LOGGING_MXBEAN_NAME
  * java.util.logging:type=Logging}</td>
  * </tr>
+ * <tr>
+ * <td> {@link java.util.concurrent.ConcurrentHashMapMXBean} </td>
+ * <td> {@code java.util.concurrent:type=ConcurrentHashMap}</td>
+ * </tr>
  * </table>
  * </blockquote>
  *
@@ -32,6 +32,8 @@ import java.util.HashSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentHashMapMXBean;
 import javax.management.MBeanServerConnection;
 import javax.management.ObjectName;
 
@@ -216,6 +218,19 @@ enum PlatformComponent {
         }
       }),
 
+  /**
+   * Statistics of ConcurrentHashMap resizing and contention.
+   */
+  CONCURRENT_HASH_MAP(
+      "java.util.concurrent.ConcurrentHashMapMXBean",
+      "java.util.concurrent", "ConcurrentHashMap", defaultKeyProperties(),
+      true, // singleton
+      new MXBeanFetcher<ConcurrentHashMapMXBean>() {
+        public List<ConcurrentHashMapMXBean> getMXBeans() {
+          return Collections.singletonList(ConcurrentHashMap.getStatisticsMXBean());
+        }
+      }),
+
   // Sun Platform Extension
 
   /**
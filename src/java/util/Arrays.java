@@ -36,6 +36,9 @@ import java.util.function.IntToDoubleFunction;
 import java.util.function.IntToLongFunction;
 import java.util.function.IntUnaryOperator;
 import java.util.function.LongBinaryOperator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.function.UnaryOperator;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
@@ -631,6 +634,11 @@ public class Arrays {
     if (n <= MIN_ARRAY_SORT_GRAN ||
         (p = ForkJoinPool.getCommonPoolParallelism()) == 1) {
       DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+    } else if (n >= DualPivotQuicksort.RADIX_SORT_THRESHOLD &&
+        !DualPivotQuicksort.isHighlyStructured(a, 0, n - 1)) {
+      new ArraysParallelSortHelpers.FJInt.RadixSorter
+          (a, new int[n], 0, n, 0,
+              Math.max(n / (p << 2), MIN_ARRAY_SORT_GRAN)).invoke();
     } else {
       new ArraysParallelSortHelpers.FJInt.Sorter
           (null, a, new int[n], 0, n, 0,
@@ -666,6 +674,11 @@ public class Arrays {
     if (n <= MIN_ARRAY_SORT_GRAN ||
         (p = ForkJoinPool.getCommonPoolParallelism()) == 1) {
       DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+    } else if (n >= DualPivotQuicksort.RADIX_SORT_THRESHOLD &&
+        !DualPivotQuicksort.isHighlyStructured(a, fromIndex, toIndex - 1)) {
+      new ArraysParallelSortHelpers.FJInt.RadixSorter
+          (a, new int[n], fromIndex, n, 0,
+              Math.max(n / (p << 2), MIN_ARRAY_SORT_GRAN)).invoke();
     } else {
       new ArraysParallelSortHelpers.FJInt.Sorter
           (null, a, new int[n], fromIndex, n, 0,
@@ -692,6 +705,11 @@ public class Arrays {
     if (n <= MIN_ARRAY_SORT_GRAN ||
         (p = ForkJoinPool.getCommonPoolParallelism()) == 1) {
       DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+    } else if (n >= DualPivotQuicksort.RADIX_SORT_THRESHOLD &&
+        !DualPivotQuicksort.isHighlyStructured(a, 0, n - 1)) {
+      new ArraysParallelSortHelpers.FJLong.RadixSorter
+          (a, new long[n], 0, n, 0,
+              Math.max(n / (p << 2), MIN_ARRAY_SORT_GRAN)).invoke();
     } else {
       new ArraysParallelSortHelpers.FJLong.Sorter
           (null, a, new long[n], 0, n, 0,
@@ -727,6 +745,11 @@ public class Arrays {
     if (n <= MIN_ARRAY_SORT_GRAN ||
         (p = ForkJoinPool.getCommonPoolParallelism()) == 1) {
       DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+    } else if (n >= DualPivotQuicksort.RADIX_SORT_THRESHOLD &&
+        !DualPivotQuicksort.isHighlyStructured(a, fromIndex, toIndex - 1)) {
+      new ArraysParallelSortHelpers.FJLong.RadixSorter
+          (a, new long[n], fromIndex, n, 0,
+              Math.max(n / (p << 2), MIN_ARRAY_SORT_GRAN)).invoke();
     } else {
       new ArraysParallelSortHelpers.FJLong.Sorter
           (null, a, new long[n], fromIndex, n, 0,
@@ -761,6 +784,11 @@ public class Arrays {
     if (n <= MIN_ARRAY_SORT_GRAN ||
         (p = ForkJoinPool.getCommonPoolParallelism()) == 1) {
       DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+    } else if (n >= DualPivotQuicksort.RADIX_SORT_THRESHOLD &&
+        !DualPivotQuicksort.isHighlyStructured(a, 0, n - 1)) {
+      new ArraysParallelSortHelpers.FJFloat.RadixSorter
+          (a, new float[n], 0, n, 0,
+              Math.max(n / (p << 2), MIN_ARRAY_SORT_GRAN)).invoke();
     } else {
       new ArraysParallelSortHelpers.FJFloat.Sorter
           (null, a, new float[n], 0, n, 0,
@@ -804,6 +832,11 @@ public class Arrays {
     if (n <= MIN_ARRAY_SORT_GRAN ||
         (p = ForkJoinPool.getCommonPoolParallelism()) == 1) {
       DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+    } else if (n >= DualPivotQuicksort.RADIX_SORT_THRESHOLD &&
+        !DualPivotQuicksort.isHighlyStructured(a, fromIndex, toIndex - 1)) {
+      new ArraysParallelSortHelpers.FJFloat.RadixSorter
+          (a, new float[n], fromIndex, n, 0,
+              Math.max(n / (p << 2), MIN_ARRAY_SORT_GRAN)).invoke();
     } else {
       new ArraysParallelSortHelpers.FJFloat.Sorter
           (null, a, new float[n], fromIndex, n, 0,
@@ -838,6 +871,11 @@ public class Arrays {
     if (n <= MIN_ARRAY_SORT_GRAN ||
         (p = ForkJoinPool.getCommonPoolParallelism()) == 1) {
       DualPivotQuicksort.sort(a, 0, n - 1, null, 0, 0);
+    } else if (n >= DualPivotQuicksort.RADIX_SORT_THRESHOLD &&
+        !DualPivotQuicksort.isHighlyStructured(a, 0, n - 1)) {
+      new ArraysParallelSortHelpers.FJDouble.RadixSorter
+          (a, new double[n], 0, n, 0,
+              Math.max(n / (p << 2), MIN_ARRAY_SORT_GRAN)).invoke();
     } else {
       new ArraysParallelSortHelpers.FJDouble.Sorter
           (null, a, new double[n], 0, n, 0,
@@ -881,6 +919,11 @@ public class Arrays {
     if (n <= MIN_ARRAY_SORT_GRAN ||
         (p = ForkJoinPool.getCommonPoolParallelism()) == 1) {
       DualPivotQuicksort.sort(a, fromIndex, toIndex - 1, null, 0, 0);
+    } else if (n >= DualPivotQuicksort.RADIX_SORT_THRESHOLD &&
+        !DualPivotQuicksort.isHighlyStructured(a, fromIndex, toIndex - 1)) {
+      new ArraysParallelSortHelpers.FJDouble.RadixSorter
+          (a, new double[n], fromIndex, n, 0,
+              Math.max(n / (p << 2), MIN_ARRAY_SORT_GRAN)).invoke();
     } else {
       new ArraysParallelSortHelpers.FJDouble.Sorter
           (null, a, new double[n], fromIndex, n, 0,
@@ -1484,6 +1527,500 @@ public class Arrays {
     }
   }
 
+  // Sorting by primitive key
+
+  /**
+   * Sorts the specified array of objects into ascending order of the
+   * {@code int} keys extracted from its elements by the specified function.
+   * This sort is guaranteed to be <i>stable</i>: elements with equal keys
+   * will not be reordered as a result of the sort.
+   *
+   * <p>Unlike {@link #sort(Object[], Comparator)} with a comparator from
+   * {@link Comparator#comparingInt(ToIntFunction)}, the key extractor is
+   * applied exactly once to each element.
+   *
+   * @implNote Each key is packed together with the index of its element into
+   * a {@code long}, the resulting array is sorted with {@link #sort(long[])},
+   * and the elements are then permuted into place. The packed values are
+   * distinct, which makes the sort stable. The algorithm requires working
+   * space for one {@code long} and one reference per element.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void sortByInt(T[] a, ToIntFunction<? super T> keyExtractor) {
+    sortByInt(a, 0, a.length, keyExtractor, false);
+  }
+
+  /**
+   * Sorts the specified range of the specified array of objects into
+   * ascending order of the {@code int} keys extracted from its elements by
+   * the specified function. The range to be sorted extends from index
+   * {@code fromIndex}, inclusive, to index {@code toIndex}, exclusive. (If
+   * {@code fromIndex==toIndex}, the range to be sorted is empty.) This sort
+   * is guaranteed to be <i>stable</i>: elements with equal keys will not be
+   * reordered as a result of the sort.
+   *
+   * @implNote See {@link #sortByInt(Object[], ToIntFunction)}.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param fromIndex the index of the first element (inclusive) to be sorted
+   * @param toIndex the index of the last element (exclusive) to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or {@code toIndex > a.length}
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void sortByInt(T[] a, int fromIndex, int toIndex,
+      ToIntFunction<? super T> keyExtractor) {
+    rangeCheck(a.length, fromIndex, toIndex);
+    sortByInt(a, fromIndex, toIndex, keyExtractor, false);
+  }
+
+  /**
+   * Sorts the specified array of objects into ascending order of the
+   * {@code long} keys extracted from its elements by the specified function.
+   * This sort is guaranteed to be <i>stable</i>: elements with equal keys
+   * will not be reordered as a result of the sort.
+   *
+   * <p>Unlike {@link #sort(Object[], Comparator)} with a comparator from
+   * {@link Comparator#comparingLong(ToLongFunction)}, the key extractor is
+   * applied exactly once to each element.
+   *
+   * @implNote The keys are extracted into a {@code long} array. If they
+   * span fewer than 2<sup>31</sup> values, each key is offset by the
+   * smallest one and packed together with the index of its element into a
+   * {@code long}, the packed array is sorted with {@link #sort(long[])}, and
+   * the elements are then permuted into place. The packed values are
+   * distinct, which makes the sort stable. Keys spanning a wider range are
+   * sorted together with their indices by a stable LSD radix sort.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void sortByLong(T[] a, ToLongFunction<? super T> keyExtractor) {
+    sortByLong(a, 0, a.length, keyExtractor, false);
+  }
+
+  /**
+   * Sorts the specified range of the specified array of objects into
+   * ascending order of the {@code long} keys extracted from its elements by
+   * the specified function. The range to be sorted extends from index
+   * {@code fromIndex}, inclusive, to index {@code toIndex}, exclusive. (If
+   * {@code fromIndex==toIndex}, the range to be sorted is empty.) This sort
+   * is guaranteed to be <i>stable</i>: elements with equal keys will not be
+   * reordered as a result of the sort.
+   *
+   * @implNote See {@link #sortByLong(Object[], ToLongFunction)}.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param fromIndex the index of the first element (inclusive) to be sorted
+   * @param toIndex the index of the last element (exclusive) to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or {@code toIndex > a.length}
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void sortByLong(T[] a, int fromIndex, int toIndex,
+      ToLongFunction<? super T> keyExtractor) {
+    rangeCheck(a.length, fromIndex, toIndex);
+    sortByLong(a, fromIndex, toIndex, keyExtractor, false);
+  }
+
+  /**
+   * Sorts the specified array of objects into ascending order of the
+   * {@code double} keys extracted from its elements by the specified
+   * function. Keys are ordered as by {@link Double#compare}: {@code -0.0d}
+   * is treated as less than {@code 0.0d} and {@code Double.NaN} is treated
+   * as greater than any other value, all NaN keys being equal. This sort is
+   * guaranteed to be <i>stable</i>: elements with equal keys will not be
+   * reordered as a result of the sort.
+   *
+   * @implNote The keys are mapped to {@code long} values with the same
+   * order and then sorted as by {@link #sortByLong(Object[], ToLongFunction)}.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void sortByDouble(T[] a, ToDoubleFunction<? super T> keyExtractor) {
+    sortByDouble(a, 0, a.length, keyExtractor, false);
+  }
+
+  /**
+   * Sorts the specified range of the specified array of objects into
+   * ascending order of the {@code double} keys extracted from its elements
+   * by the specified function, as by
+   * {@link #sortByDouble(Object[], ToDoubleFunction)}. The range to be
+   * sorted extends from index {@code fromIndex}, inclusive, to index
+   * {@code toIndex}, exclusive. (If {@code fromIndex==toIndex}, the range
+   * to be sorted is empty.) This sort is guaranteed to be <i>stable</i>.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param fromIndex the index of the first element (inclusive) to be sorted
+   * @param toIndex the index of the last element (exclusive) to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or {@code toIndex > a.length}
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void sortByDouble(T[] a, int fromIndex, int toIndex,
+      ToDoubleFunction<? super T> keyExtractor) {
+    rangeCheck(a.length, fromIndex, toIndex);
+    sortByDouble(a, fromIndex, toIndex, keyExtractor, false);
+  }
+
+  /**
+   * Sorts the specified array of objects into ascending order of the
+   * {@code int} keys extracted from its elements by the specified function,
+   * as by {@link #sortByInt(Object[], ToIntFunction)}. This sort is
+   * guaranteed to be <i>stable</i>.
+   *
+   * @implNote Key extraction, packing and the final permutation are run as
+   * parallel streams, and the packed keys are sorted with
+   * {@link #parallelSort(long[])}. If the length of the specified array is
+   * less than the minimum granularity, or the {@link ForkJoinPool#commonPool()
+   * ForkJoin common pool} has a parallelism of one, it is sorted sequentially.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void parallelSortByInt(T[] a, ToIntFunction<? super T> keyExtractor) {
+    sortByInt(a, 0, a.length, keyExtractor, true);
+  }
+
+  /**
+   * Sorts the specified range of the specified array of objects into
+   * ascending order of the {@code int} keys extracted from its elements by
+   * the specified function, as by
+   * {@link #parallelSortByInt(Object[], ToIntFunction)}. The range to be
+   * sorted extends from index {@code fromIndex}, inclusive, to index
+   * {@code toIndex}, exclusive. This sort is guaranteed to be
+   * <i>stable</i>.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param fromIndex the index of the first element (inclusive) to be sorted
+   * @param toIndex the index of the last element (exclusive) to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or {@code toIndex > a.length}
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void parallelSortByInt(T[] a, int fromIndex, int toIndex,
+      ToIntFunction<? super T> keyExtractor) {
+    rangeCheck(a.length, fromIndex, toIndex);
+    sortByInt(a, fromIndex, toIndex, keyExtractor, true);
+  }
+
+  /**
+   * Sorts the specified array of objects into ascending order of the
+   * {@code long} keys extracted from its elements by the specified function,
+   * as by {@link #sortByLong(Object[], ToLongFunction)}. This sort is
+   * guaranteed to be <i>stable</i>.
+   *
+   * @implNote See {@link #parallelSortByInt(Object[], ToIntFunction)}.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void parallelSortByLong(T[] a, ToLongFunction<? super T> keyExtractor) {
+    sortByLong(a, 0, a.length, keyExtractor, true);
+  }
+
+  /**
+   * Sorts the specified range of the specified array of objects into
+   * ascending order of the {@code long} keys extracted from its elements by
+   * the specified function, as by
+   * {@link #parallelSortByLong(Object[], ToLongFunction)}. The range to be
+   * sorted extends from index {@code fromIndex}, inclusive, to index
+   * {@code toIndex}, exclusive. This sort is guaranteed to be
+   * <i>stable</i>.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param fromIndex the index of the first element (inclusive) to be sorted
+   * @param toIndex the index of the last element (exclusive) to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or {@code toIndex > a.length}
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void parallelSortByLong(T[] a, int fromIndex, int toIndex,
+      ToLongFunction<? super T> keyExtractor) {
+    rangeCheck(a.length, fromIndex, toIndex);
+    sortByLong(a, fromIndex, toIndex, keyExtractor, true);
+  }
+
+  /**
+   * Sorts the specified array of objects into ascending order of the
+   * {@code double} keys extracted from its elements by the specified
+   * function, as by {@link #sortByDouble(Object[], ToDoubleFunction)}. This
+   * sort is guaranteed to be <i>stable</i>.
+   *
+   * @implNote See {@link #parallelSortByInt(Object[], ToIntFunction)}.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void parallelSortByDouble(T[] a,
+      ToDoubleFunction<? super T> keyExtractor) {
+    sortByDouble(a, 0, a.length, keyExtractor, true);
+  }
+
+  /**
+   * Sorts the specified range of the specified array of objects into
+   * ascending order of the {@code double} keys extracted from its elements
+   * by the specified function, as by
+   * {@link #parallelSortByDouble(Object[], ToDoubleFunction)}. The range to
+   * be sorted extends from index {@code fromIndex}, inclusive, to index
+   * {@code toIndex}, exclusive. This sort is guaranteed to be
+   * <i>stable</i>.
+   *
+   * @param <T> the class of the objects to be sorted
+   * @param a the array to be sorted
+   * @param fromIndex the index of the first element (inclusive) to be sorted
+   * @param toIndex the index of the last element (exclusive) to be sorted
+   * @param keyExtractor the function used to extract the sort key
+   * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code fromIndex < 0} or {@code toIndex > a.length}
+   * @throws NullPointerException if the array or the key extractor is null
+   * @since 1.8
+   */
+  public static <T> void parallelSortByDouble(T[] a, int fromIndex, int toIndex,
+      ToDoubleFunction<? super T> keyExtractor) {
+    rangeCheck(a.length, fromIndex, toIndex);
+    sortByDouble(a, fromIndex, toIndex, keyExtractor, true);
+  }
+
+  /*
+   * The key sorts below pack each key (or, for wide long keys in the
+   * parallel sorts, its rank among the distinct keys) into the high half
+   * of a long and the index of its element relative to fromIndex into the
+   * low half. Sorting the packed values orders the elements by key and,
+   * since the values are distinct, by original position among equal keys.
+   */
+
+  private static <T> void sortByInt(T[] a, int fromIndex, int toIndex,
+      ToIntFunction<? super T> keyExtractor, boolean parallel) {
+    Objects.requireNonNull(keyExtractor);
+    int n = toIndex - fromIndex;
+    if (n < 2) {
+      return;
+    }
+    parallel = parallel && n > MIN_ARRAY_SORT_GRAN &&
+        ForkJoinPool.getCommonPoolParallelism() > 1;
+    long[] packed = new long[n];
+    if (parallel) {
+      IntStream.range(0, n).parallel().forEach(i -> {
+        packed[i] = ((long) keyExtractor.applyAsInt(a[fromIndex + i]) << 32) | i;
+      });
+    } else {
+      for (int i = 0; i < n; i++) {
+        packed[i] = ((long) keyExtractor.applyAsInt(a[fromIndex + i]) << 32) | i;
+      }
+    }
+    sortPacked(a, fromIndex, packed, parallel);
+  }
+
+  private static <T> void sortByLong(T[] a, int fromIndex, int toIndex,
+      ToLongFunction<? super T> keyExtractor, boolean parallel) {
+    Objects.requireNonNull(keyExtractor);
+    int n = toIndex - fromIndex;
+    if (n < 2) {
+      return;
+    }
+    parallel = parallel && n > MIN_ARRAY_SORT_GRAN &&
+        ForkJoinPool.getCommonPoolParallelism() > 1;
+    long[] keys = new long[n];
+    if (parallel) {
+      IntStream.range(0, n).parallel().forEach(i -> {
+        keys[i] = keyExtractor.applyAsLong(a[fromIndex + i]);
+      });
+    } else {
+      for (int i = 0; i < n; i++) {
+        keys[i] = keyExtractor.applyAsLong(a[fromIndex + i]);
+      }
+    }
+    sortByKeys(a, fromIndex, keys, parallel);
+  }
+
+  private static <T> void sortByDouble(T[] a, int fromIndex, int toIndex,
+      ToDoubleFunction<? super T> keyExtractor, boolean parallel) {
+    Objects.requireNonNull(keyExtractor);
+    int n = toIndex - fromIndex;
+    if (n < 2) {
+      return;
+    }
+    parallel = parallel && n > MIN_ARRAY_SORT_GRAN &&
+        ForkJoinPool.getCommonPoolParallelism() > 1;
+    long[] keys = new long[n];
+    if (parallel) {
+      IntStream.range(0, n).parallel().forEach(i -> {
+        keys[i] = doubleKey(keyExtractor.applyAsDouble(a[fromIndex + i]));
+      });
+    } else {
+      for (int i = 0; i < n; i++) {
+        keys[i] = doubleKey(keyExtractor.applyAsDouble(a[fromIndex + i]));
+      }
+    }
+    sortByKeys(a, fromIndex, keys, parallel);
+  }
+
+  /**
+   * Returns a long whose signed order is the order of {@link Double#compare}.
+   */
+  private static long doubleKey(double d) {
+    long bits = Double.doubleToLongBits(d);
+    return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+  }
+
+  /**
+   * Sorts a[fromIndex, fromIndex + keys.length) by the given keys, reusing
+   * the keys array for the packed values.
+   */
+  private static <T> void sortByKeys(T[] a, int fromIndex, long[] keys,
+      boolean parallel) {
+    int n = keys.length;
+    long min = keys[0], max = min;
+    for (int i = 1; i < n; i++) {
+      long k = keys[i];
+      if (k < min) {
+        min = k;
+      } else if (k > max) {
+        max = k;
+      }
+    }
+    long base = min;
+    if (max - base >= 0 && max - base <= Integer.MAX_VALUE) {
+      // Keys fit in the high half once offset by the smallest one
+      if (parallel) {
+        IntStream.range(0, n).parallel().forEach(i -> {
+          keys[i] = ((keys[i] - base) << 32) | i;
+        });
+      } else {
+        for (int i = 0; i < n; i++) {
+          keys[i] = ((keys[i] - base) << 32) | i;
+        }
+      }
+    } else if (!parallel) {
+      // Sort the indices by key directly; LSD radix sort is stable
+      int[] order = radixSortIndices(keys);
+      T[] src = copyOfRange(a, fromIndex, fromIndex + n);
+      for (int i = 0; i < n; i++) {
+        a[fromIndex + i] = src[order[i]];
+      }
+      return;
+    } else {
+      // Replace each key by its rank among the distinct keys
+      long[] sorted = keys.clone();
+      parallelSort(sorted);
+      int m = 1;
+      for (int i = 1; i < n; i++) {
+        if (sorted[i] != sorted[m - 1]) {
+          sorted[m++] = sorted[i];
+        }
+      }
+      int distinct = m;
+      IntStream.range(0, n).parallel().forEach(i -> {
+        keys[i] = ((long) binarySearch0(sorted, 0, distinct, keys[i]) << 32) | i;
+      });
+    }
+    sortPacked(a, fromIndex, keys, parallel);
+  }
+
+  /**
+   * Returns the indices of the given keys in ascending signed key order,
+   * equal keys keeping their relative order. The keys array is used as
+   * scratch space.
+   */
+  private static int[] radixSortIndices(long[] keys) {
+    int n = keys.length, passes = Long.SIZE / 8;
+    int[] count = new int[passes << 8];
+    for (int i = 0; i < n; i++) {
+      long k = keys[i] ^ Long.MIN_VALUE;
+      keys[i] = k;
+      for (int p = 0; p < passes; p++) {
+        ++count[(p << 8) + (int) ((k >>> (p << 3)) & 0xFF)];
+      }
+    }
+    long[] k1 = keys, k2 = new long[n];
+    int[] i1 = new int[n], i2 = new int[n];
+    for (int i = 0; i < n; i++) {
+      i1[i] = i;
+    }
+    for (int p = 0; p < passes; p++) {
+      int c = p << 8, shift = p << 3;
+      if (count[c + (int) ((k1[0] >>> shift) & 0xFF)] == n) {
+        continue; // all keys share this byte
+      }
+      for (int d = 0, sum = 0; d < 256; d++) {
+        int t = count[c + d];
+        count[c + d] = sum;
+        sum += t;
+      }
+      for (int i = 0; i < n; i++) {
+        long k = k1[i];
+        int j = count[c + (int) ((k >>> shift) & 0xFF)]++;
+        k2[j] = k;
+        i2[j] = i1[i];
+      }
+      long[] tk = k1;
+      k1 = k2;
+      k2 = tk;
+      int[] ti = i1;
+      i1 = i2;
+      i2 = ti;
+    }
+    return i1;
+  }
+
+  /**
+   * Sorts the packed key/index values and moves each element of
+   * a[fromIndex, fromIndex + packed.length) to its sorted position.
+   */
+  private static <T> void sortPacked(T[] a, int fromIndex, long[] packed,
+      boolean parallel) {
+    int n = packed.length;
+    T[] src = copyOfRange(a, fromIndex, fromIndex + n);
+    if (parallel) {
+      parallelSort(packed);
+      IntStream.range(0, n).parallel().forEach(i -> {
+        a[fromIndex + i] = src[(int) packed[i]];
+      });
+    } else {
+      sort(packed);
+      for (int i = 0; i < n; i++) {
+        a[fromIndex + i] = src[(int) packed[i]];
+      }
+    }
+  }
+
   // Parallel prefix
 
   /**
@@ -2422,13 +2959,7 @@ public class Arrays {
       return false;
     }
 
-    for (int i = 0; i < length; i++) {
-      if (a[i] != a2[i]) {
-        return false;
-      }
-    }
-
-    return true;
+    return ArraysSupport.mismatch(a, 0, a2, 0, length) < 0;
   }
 
   /**
@@ -2456,267 +2987,1835 @@ public class Arrays {
       return false;
     }
 
-    for (int i = 0; i < length; i++) {
-      if (a[i] != a2[i]) {
-        return false;
-      }
+    return ArraysSupport.mismatch(a, 0, a2, 0, length) < 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if the two specified arrays of shorts are
+   * <i>equal</i> to one another.  Two arrays are considered equal if both
+   * arrays contain the same number of elements, and all corresponding pairs
+   * of elements in the two arrays are equal.  In other words, two arrays
+   * are equal if they contain the same elements in the same order.  Also,
+   * two array references are considered equal if both are <tt>null</tt>.<p>
+   *
+   * @param a one array to be tested for equality
+   * @param a2 the other array to be tested for equality
+   * @return <tt>true</tt> if the two arrays are equal
+   */
+  public static boolean equals(short[] a, short a2[]) {
+    if (a == a2) {
+      return true;
+    }
+    if (a == null || a2 == null) {
+      return false;
+    }
+
+    int length = a.length;
+    if (a2.length != length) {
+      return false;
+    }
+
+    return ArraysSupport.mismatch(a, 0, a2, 0, length) < 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if the two specified arrays of chars are
+   * <i>equal</i> to one another.  Two arrays are considered equal if both
+   * arrays contain the same number of elements, and all corresponding pairs
+   * of elements in the two arrays are equal.  In other words, two arrays
+   * are equal if they contain the same elements in the same order.  Also,
+   * two array references are considered equal if both are <tt>null</tt>.<p>
+   *
+   * @param a one array to be tested for equality
+   * @param a2 the other array to be tested for equality
+   * @return <tt>true</tt> if the two arrays are equal
+   */
+  public static boolean equals(char[] a, char[] a2) {
+    if (a == a2) {
+      return true;
+    }
+    if (a == null || a2 == null) {
+      return false;
+    }
+
+    int length = a.length;
+    if (a2.length != length) {
+      return false;
+    }
+
+    return ArraysSupport.mismatch(a, 0, a2, 0, length) < 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if the two specified arrays of bytes are
+   * <i>equal</i> to one another.  Two arrays are considered equal if both
+   * arrays contain the same number of elements, and all corresponding pairs
+   * of elements in the two arrays are equal.  In other words, two arrays
+   * are equal if they contain the same elements in the same order.  Also,
+   * two array references are considered equal if both are <tt>null</tt>.<p>
+   *
+   * @param a one array to be tested for equality
+   * @param a2 the other array to be tested for equality
+   * @return <tt>true</tt> if the two arrays are equal
+   */
+  public static boolean equals(byte[] a, byte[] a2) {
+    if (a == a2) {
+      return true;
+    }
+    if (a == null || a2 == null) {
+      return false;
+    }
+
+    int length = a.length;
+    if (a2.length != length) {
+      return false;
+    }
+
+    return ArraysSupport.mismatch(a, 0, a2, 0, length) < 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if the two specified arrays of booleans are
+   * <i>equal</i> to one another.  Two arrays are considered equal if both
+   * arrays contain the same number of elements, and all corresponding pairs
+   * of elements in the two arrays are equal.  In other words, two arrays
+   * are equal if they contain the same elements in the same order.  Also,
+   * two array references are considered equal if both are <tt>null</tt>.<p>
+   *
+   * @param a one array to be tested for equality
+   * @param a2 the other array to be tested for equality
+   * @return <tt>true</tt> if the two arrays are equal
+   */
+  public static boolean equals(boolean[] a, boolean[] a2) {
+    if (a == a2) {
+      return true;
+    }
+    if (a == null || a2 == null) {
+      return false;
+    }
+
+    int length = a.length;
+    if (a2.length != length) {
+      return false;
+    }
+
+    return ArraysSupport.mismatch(a, 0, a2, 0, length) < 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if the two specified arrays of doubles are
+   * <i>equal</i> to one another.  Two arrays are considered equal if both
+   * arrays contain the same number of elements, and all corresponding pairs
+   * of elements in the two arrays are equal.  In other words, two arrays
+   * are equal if they contain the same elements in the same order.  Also,
+   * two array references are considered equal if both are <tt>null</tt>.<p>
+   *
+   * Two doubles <tt>d1</tt> and <tt>d2</tt> are considered equal if:
+   * <pre>    <tt>new Double(d1).equals(new Double(d2))</tt></pre>
+   * (Unlike the <tt>==</tt> operator, this method considers
+   * <tt>NaN</tt> equals to itself, and 0.0d unequal to -0.0d.)
+   *
+   * @param a one array to be tested for equality
+   * @param a2 the other array to be tested for equality
+   * @return <tt>true</tt> if the two arrays are equal
+   * @see Double#equals(Object)
+   */
+  public static boolean equals(double[] a, double[] a2) {
+    if (a == a2) {
+      return true;
+    }
+    if (a == null || a2 == null) {
+      return false;
+    }
+
+    int length = a.length;
+    if (a2.length != length) {
+      return false;
+    }
+
+    return ArraysSupport.mismatch(a, 0, a2, 0, length) < 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if the two specified arrays of floats are
+   * <i>equal</i> to one another.  Two arrays are considered equal if both
+   * arrays contain the same number of elements, and all corresponding pairs
+   * of elements in the two arrays are equal.  In other words, two arrays
+   * are equal if they contain the same elements in the same order.  Also,
+   * two array references are considered equal if both are <tt>null</tt>.<p>
+   *
+   * Two floats <tt>f1</tt> and <tt>f2</tt> are considered equal if:
+   * <pre>    <tt>new Float(f1).equals(new Float(f2))</tt></pre>
+   * (Unlike the <tt>==</tt> operator, this method considers
+   * <tt>NaN</tt> equals to itself, and 0.0f unequal to -0.0f.)
+   *
+   * @param a one array to be tested for equality
+   * @param a2 the other array to be tested for equality
+   * @return <tt>true</tt> if the two arrays are equal
+   * @see Float#equals(Object)
+   */
+  public static boolean equals(float[] a, float[] a2) {
+    if (a == a2) {
+      return true;
+    }
+    if (a == null || a2 == null) {
+      return false;
+    }
+
+    int length = a.length;
+    if (a2.length != length) {
+      return false;
+    }
+
+    return ArraysSupport.mismatch(a, 0, a2, 0, length) < 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if the two specified arrays of Objects are
+   * <i>equal</i> to one another.  The two arrays are considered equal if
+   * both arrays contain the same number of elements, and all corresponding
+   * pairs of elements in the two arrays are equal.  Two objects <tt>e1</tt>
+   * and <tt>e2</tt> are considered <i>equal</i> if <tt>(e1==null ? e2==null
+   * : e1.equals(e2))</tt>.  In other words, the two arrays are equal if
+   * they contain the same elements in the same order.  Also, two array
+   * references are considered equal if both are <tt>null</tt>.<p>
+   *
+   * @param a one array to be tested for equality
+   * @param a2 the other array to be tested for equality
+   * @return <tt>true</tt> if the two arrays are equal
+   */
+  public static boolean equals(Object[] a, Object[] a2) {
+    if (a == a2) {
+      return true;
+    }
+    if (a == null || a2 == null) {
+      return false;
+    }
+
+    int length = a.length;
+    if (a2.length != length) {
+      return false;
+    }
+
+    for (int i = 0; i < length; i++) {
+      Object o1 = a[i];
+      Object o2 = a2[i];
+      if (!(o1 == null ? o2 == null : o1.equals(o2))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  // Comparison and mismatch
+
+  /**
+   * Finds and returns the index of the first mismatch between two
+   * {@code boolean} arrays, otherwise returns -1 if no mismatch is found. The
+   * index will be in the range of 0 (inclusive) up to the length (inclusive)
+   * of the smaller array.
+   *
+   * <p>If the two arrays share a common prefix then the returned index is
+   * the length of the common prefix and it follows that there is a mismatch
+   * between the two elements at that index within the respective arrays.
+   * If one array is a proper prefix of the other then the returned index is
+   * the length of the smaller array and it follows that the index is only
+   * valid for the larger array. Otherwise, there is no mismatch.
+   *
+   * @implNote Elements are compared eight bytes at a time where the two
+   * ranges can be read as aligned words.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param b the second array to be tested for a mismatch
+   * @return the index of the first mismatch between the two arrays,
+   * otherwise {@code -1}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(boolean[] a, boolean[] b) {
+    int length = Math.min(a.length, b.length); // Check null array refs
+    if (a == b) {
+      return -1;
+    }
+    int i = ArraysSupport.mismatch(a, 0, b, 0, length);
+    return (i < 0 && a.length != b.length) ? length : i;
+  }
+
+  /**
+   * Finds and returns the relative index of the first mismatch between two
+   * {@code boolean} arrays over the specified ranges, otherwise returns -1 if
+   * no mismatch is found. The index will be in the range of 0 (inclusive)
+   * up to the length (inclusive) of the smaller range.
+   *
+   * <p>If the two ranges share a common prefix then the returned relative
+   * index is the length of the common prefix. If one range is a proper
+   * prefix of the other then the returned relative index is the length of
+   * the smaller range. Otherwise, there is no mismatch.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be tested
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be tested
+   * @param b the second array to be tested for a mismatch
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be tested
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be tested
+   * @return the relative index of the first mismatch between the two arrays
+   * over the specified ranges, otherwise {@code -1}
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(boolean[] a, int aFromIndex, int aToIndex,
+      boolean[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int length = Math.min(aLength, bLength);
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex, length);
+    return (i < 0 && aLength != bLength) ? length : i;
+  }
+
+  /**
+   * Compares two {@code boolean} arrays lexicographically.
+   *
+   * <p>If the two arrays share a common prefix then the lexicographic
+   * comparison is the result of comparing two elements at the index of the
+   * first mismatch, as if by {@link #mismatch(boolean[], boolean[])}. Otherwise,
+   * one array is a proper prefix of the other and the lexicographic
+   * comparison is the result of comparing the two array lengths.
+   *
+   * <p>Elements are compared as if by {@link Boolean#compare(boolean, boolean)}.
+   *
+   * <p>A {@code null} array reference is considered lexicographically less
+   * than a non-{@code null} array reference. Two {@code null} array
+   * references are considered equal.
+   *
+   * <p>The comparison is consistent with {@link #equals(boolean[], boolean[])
+   * equals}.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
+   */
+  public static int compare(boolean[] a, boolean[] b) {
+    if (a == b) {
+      return 0;
+    }
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
+    }
+
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Boolean.compare(a[i], b[i]);
+    }
+
+    return a.length - b.length;
+  }
+
+  /**
+   * Compares two {@code boolean} arrays lexicographically over the specified
+   * ranges, as if by {@link #compare(boolean[], boolean[])} on copies of the
+   * ranges.
+   *
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int compare(boolean[] a, int aFromIndex, int aToIndex,
+      boolean[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Boolean.compare(a[aFromIndex + i], b[bFromIndex + i]);
+    }
+
+    return aLength - bLength;
+  }
+
+  /**
+   * Finds and returns the index of the first mismatch between two
+   * {@code byte} arrays, otherwise returns -1 if no mismatch is found. The
+   * index will be in the range of 0 (inclusive) up to the length (inclusive)
+   * of the smaller array.
+   *
+   * <p>If the two arrays share a common prefix then the returned index is
+   * the length of the common prefix and it follows that there is a mismatch
+   * between the two elements at that index within the respective arrays.
+   * If one array is a proper prefix of the other then the returned index is
+   * the length of the smaller array and it follows that the index is only
+   * valid for the larger array. Otherwise, there is no mismatch.
+   *
+   * @implNote Elements are compared eight bytes at a time where the two
+   * ranges can be read as aligned words.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param b the second array to be tested for a mismatch
+   * @return the index of the first mismatch between the two arrays,
+   * otherwise {@code -1}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(byte[] a, byte[] b) {
+    int length = Math.min(a.length, b.length); // Check null array refs
+    if (a == b) {
+      return -1;
+    }
+    int i = ArraysSupport.mismatch(a, 0, b, 0, length);
+    return (i < 0 && a.length != b.length) ? length : i;
+  }
+
+  /**
+   * Finds and returns the relative index of the first mismatch between two
+   * {@code byte} arrays over the specified ranges, otherwise returns -1 if
+   * no mismatch is found. The index will be in the range of 0 (inclusive)
+   * up to the length (inclusive) of the smaller range.
+   *
+   * <p>If the two ranges share a common prefix then the returned relative
+   * index is the length of the common prefix. If one range is a proper
+   * prefix of the other then the returned relative index is the length of
+   * the smaller range. Otherwise, there is no mismatch.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be tested
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be tested
+   * @param b the second array to be tested for a mismatch
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be tested
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be tested
+   * @return the relative index of the first mismatch between the two arrays
+   * over the specified ranges, otherwise {@code -1}
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(byte[] a, int aFromIndex, int aToIndex,
+      byte[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int length = Math.min(aLength, bLength);
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex, length);
+    return (i < 0 && aLength != bLength) ? length : i;
+  }
+
+  /**
+   * Compares two {@code byte} arrays lexicographically.
+   *
+   * <p>If the two arrays share a common prefix then the lexicographic
+   * comparison is the result of comparing two elements at the index of the
+   * first mismatch, as if by {@link #mismatch(byte[], byte[])}. Otherwise,
+   * one array is a proper prefix of the other and the lexicographic
+   * comparison is the result of comparing the two array lengths.
+   *
+   * <p>Elements are compared as if by {@link Byte#compare(byte, byte)}.
+   *
+   * <p>A {@code null} array reference is considered lexicographically less
+   * than a non-{@code null} array reference. Two {@code null} array
+   * references are considered equal.
+   *
+   * <p>The comparison is consistent with {@link #equals(byte[], byte[])
+   * equals}.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
+   */
+  public static int compare(byte[] a, byte[] b) {
+    if (a == b) {
+      return 0;
+    }
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
+    }
+
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Byte.compare(a[i], b[i]);
+    }
+
+    return a.length - b.length;
+  }
+
+  /**
+   * Compares two {@code byte} arrays lexicographically over the specified
+   * ranges, as if by {@link #compare(byte[], byte[])} on copies of the
+   * ranges.
+   *
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int compare(byte[] a, int aFromIndex, int aToIndex,
+      byte[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Byte.compare(a[aFromIndex + i], b[bFromIndex + i]);
+    }
+
+    return aLength - bLength;
+  }
+
+  /**
+   * Compares two {@code byte} arrays lexicographically, numerically
+   * treating elements as unsigned.
+   *
+   * <p>This behaves as {@link #compare(byte[], byte[])} except that
+   * mismatching elements are compared as unsigned values, which makes it
+   * suitable for ordering binary keys.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
+   */
+  public static int compareUnsigned(byte[] a, byte[] b) {
+    if (a == b) {
+      return 0;
+    }
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
+    }
+
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Integer.compare(Byte.toUnsignedInt(a[i]), Byte.toUnsignedInt(b[i]));
+    }
+
+    return a.length - b.length;
+  }
+
+  /**
+   * Compares two {@code byte} arrays lexicographically over the specified
+   * ranges, numerically treating elements as unsigned, as if by
+   * {@link #compareUnsigned(byte[], byte[])} on copies of the ranges.
+   *
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int compareUnsigned(byte[] a, int aFromIndex, int aToIndex,
+      byte[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Integer.compare(Byte.toUnsignedInt(a[aFromIndex + i]), Byte.toUnsignedInt(b[bFromIndex + i]));
+    }
+
+    return aLength - bLength;
+  }
+
+  /**
+   * Finds and returns the index of the first mismatch between two
+   * {@code char} arrays, otherwise returns -1 if no mismatch is found. The
+   * index will be in the range of 0 (inclusive) up to the length (inclusive)
+   * of the smaller array.
+   *
+   * <p>If the two arrays share a common prefix then the returned index is
+   * the length of the common prefix and it follows that there is a mismatch
+   * between the two elements at that index within the respective arrays.
+   * If one array is a proper prefix of the other then the returned index is
+   * the length of the smaller array and it follows that the index is only
+   * valid for the larger array. Otherwise, there is no mismatch.
+   *
+   * @implNote Elements are compared eight bytes at a time where the two
+   * ranges can be read as aligned words.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param b the second array to be tested for a mismatch
+   * @return the index of the first mismatch between the two arrays,
+   * otherwise {@code -1}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(char[] a, char[] b) {
+    int length = Math.min(a.length, b.length); // Check null array refs
+    if (a == b) {
+      return -1;
+    }
+    int i = ArraysSupport.mismatch(a, 0, b, 0, length);
+    return (i < 0 && a.length != b.length) ? length : i;
+  }
+
+  /**
+   * Finds and returns the relative index of the first mismatch between two
+   * {@code char} arrays over the specified ranges, otherwise returns -1 if
+   * no mismatch is found. The index will be in the range of 0 (inclusive)
+   * up to the length (inclusive) of the smaller range.
+   *
+   * <p>If the two ranges share a common prefix then the returned relative
+   * index is the length of the common prefix. If one range is a proper
+   * prefix of the other then the returned relative index is the length of
+   * the smaller range. Otherwise, there is no mismatch.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be tested
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be tested
+   * @param b the second array to be tested for a mismatch
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be tested
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be tested
+   * @return the relative index of the first mismatch between the two arrays
+   * over the specified ranges, otherwise {@code -1}
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(char[] a, int aFromIndex, int aToIndex,
+      char[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int length = Math.min(aLength, bLength);
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex, length);
+    return (i < 0 && aLength != bLength) ? length : i;
+  }
+
+  /**
+   * Compares two {@code char} arrays lexicographically.
+   *
+   * <p>If the two arrays share a common prefix then the lexicographic
+   * comparison is the result of comparing two elements at the index of the
+   * first mismatch, as if by {@link #mismatch(char[], char[])}. Otherwise,
+   * one array is a proper prefix of the other and the lexicographic
+   * comparison is the result of comparing the two array lengths.
+   *
+   * <p>Elements are compared as if by {@link Character#compare(char, char)}.
+   *
+   * <p>A {@code null} array reference is considered lexicographically less
+   * than a non-{@code null} array reference. Two {@code null} array
+   * references are considered equal.
+   *
+   * <p>The comparison is consistent with {@link #equals(char[], char[])
+   * equals}.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
+   */
+  public static int compare(char[] a, char[] b) {
+    if (a == b) {
+      return 0;
+    }
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
+    }
+
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Character.compare(a[i], b[i]);
+    }
+
+    return a.length - b.length;
+  }
+
+  /**
+   * Compares two {@code char} arrays lexicographically over the specified
+   * ranges, as if by {@link #compare(char[], char[])} on copies of the
+   * ranges.
+   *
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int compare(char[] a, int aFromIndex, int aToIndex,
+      char[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Character.compare(a[aFromIndex + i], b[bFromIndex + i]);
+    }
+
+    return aLength - bLength;
+  }
+
+  /**
+   * Finds and returns the index of the first mismatch between two
+   * {@code short} arrays, otherwise returns -1 if no mismatch is found. The
+   * index will be in the range of 0 (inclusive) up to the length (inclusive)
+   * of the smaller array.
+   *
+   * <p>If the two arrays share a common prefix then the returned index is
+   * the length of the common prefix and it follows that there is a mismatch
+   * between the two elements at that index within the respective arrays.
+   * If one array is a proper prefix of the other then the returned index is
+   * the length of the smaller array and it follows that the index is only
+   * valid for the larger array. Otherwise, there is no mismatch.
+   *
+   * @implNote Elements are compared eight bytes at a time where the two
+   * ranges can be read as aligned words.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param b the second array to be tested for a mismatch
+   * @return the index of the first mismatch between the two arrays,
+   * otherwise {@code -1}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(short[] a, short[] b) {
+    int length = Math.min(a.length, b.length); // Check null array refs
+    if (a == b) {
+      return -1;
+    }
+    int i = ArraysSupport.mismatch(a, 0, b, 0, length);
+    return (i < 0 && a.length != b.length) ? length : i;
+  }
+
+  /**
+   * Finds and returns the relative index of the first mismatch between two
+   * {@code short} arrays over the specified ranges, otherwise returns -1 if
+   * no mismatch is found. The index will be in the range of 0 (inclusive)
+   * up to the length (inclusive) of the smaller range.
+   *
+   * <p>If the two ranges share a common prefix then the returned relative
+   * index is the length of the common prefix. If one range is a proper
+   * prefix of the other then the returned relative index is the length of
+   * the smaller range. Otherwise, there is no mismatch.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be tested
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be tested
+   * @param b the second array to be tested for a mismatch
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be tested
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be tested
+   * @return the relative index of the first mismatch between the two arrays
+   * over the specified ranges, otherwise {@code -1}
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(short[] a, int aFromIndex, int aToIndex,
+      short[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int length = Math.min(aLength, bLength);
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex, length);
+    return (i < 0 && aLength != bLength) ? length : i;
+  }
+
+  /**
+   * Compares two {@code short} arrays lexicographically.
+   *
+   * <p>If the two arrays share a common prefix then the lexicographic
+   * comparison is the result of comparing two elements at the index of the
+   * first mismatch, as if by {@link #mismatch(short[], short[])}. Otherwise,
+   * one array is a proper prefix of the other and the lexicographic
+   * comparison is the result of comparing the two array lengths.
+   *
+   * <p>Elements are compared as if by {@link Short#compare(short, short)}.
+   *
+   * <p>A {@code null} array reference is considered lexicographically less
+   * than a non-{@code null} array reference. Two {@code null} array
+   * references are considered equal.
+   *
+   * <p>The comparison is consistent with {@link #equals(short[], short[])
+   * equals}.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
+   */
+  public static int compare(short[] a, short[] b) {
+    if (a == b) {
+      return 0;
+    }
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
+    }
+
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Short.compare(a[i], b[i]);
+    }
+
+    return a.length - b.length;
+  }
+
+  /**
+   * Compares two {@code short} arrays lexicographically over the specified
+   * ranges, as if by {@link #compare(short[], short[])} on copies of the
+   * ranges.
+   *
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int compare(short[] a, int aFromIndex, int aToIndex,
+      short[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Short.compare(a[aFromIndex + i], b[bFromIndex + i]);
+    }
+
+    return aLength - bLength;
+  }
+
+  /**
+   * Compares two {@code short} arrays lexicographically, numerically
+   * treating elements as unsigned.
+   *
+   * <p>This behaves as {@link #compare(short[], short[])} except that
+   * mismatching elements are compared as unsigned values, which makes it
+   * suitable for ordering binary keys.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
+   */
+  public static int compareUnsigned(short[] a, short[] b) {
+    if (a == b) {
+      return 0;
+    }
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
+    }
+
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Integer.compare(Short.toUnsignedInt(a[i]), Short.toUnsignedInt(b[i]));
+    }
+
+    return a.length - b.length;
+  }
+
+  /**
+   * Compares two {@code short} arrays lexicographically over the specified
+   * ranges, numerically treating elements as unsigned, as if by
+   * {@link #compareUnsigned(short[], short[])} on copies of the ranges.
+   *
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int compareUnsigned(short[] a, int aFromIndex, int aToIndex,
+      short[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Integer.compare(Short.toUnsignedInt(a[aFromIndex + i]), Short.toUnsignedInt(b[bFromIndex + i]));
+    }
+
+    return aLength - bLength;
+  }
+
+  /**
+   * Finds and returns the index of the first mismatch between two
+   * {@code int} arrays, otherwise returns -1 if no mismatch is found. The
+   * index will be in the range of 0 (inclusive) up to the length (inclusive)
+   * of the smaller array.
+   *
+   * <p>If the two arrays share a common prefix then the returned index is
+   * the length of the common prefix and it follows that there is a mismatch
+   * between the two elements at that index within the respective arrays.
+   * If one array is a proper prefix of the other then the returned index is
+   * the length of the smaller array and it follows that the index is only
+   * valid for the larger array. Otherwise, there is no mismatch.
+   *
+   * @implNote Elements are compared eight bytes at a time where the two
+   * ranges can be read as aligned words.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param b the second array to be tested for a mismatch
+   * @return the index of the first mismatch between the two arrays,
+   * otherwise {@code -1}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(int[] a, int[] b) {
+    int length = Math.min(a.length, b.length); // Check null array refs
+    if (a == b) {
+      return -1;
+    }
+    int i = ArraysSupport.mismatch(a, 0, b, 0, length);
+    return (i < 0 && a.length != b.length) ? length : i;
+  }
+
+  /**
+   * Finds and returns the relative index of the first mismatch between two
+   * {@code int} arrays over the specified ranges, otherwise returns -1 if
+   * no mismatch is found. The index will be in the range of 0 (inclusive)
+   * up to the length (inclusive) of the smaller range.
+   *
+   * <p>If the two ranges share a common prefix then the returned relative
+   * index is the length of the common prefix. If one range is a proper
+   * prefix of the other then the returned relative index is the length of
+   * the smaller range. Otherwise, there is no mismatch.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be tested
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be tested
+   * @param b the second array to be tested for a mismatch
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be tested
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be tested
+   * @return the relative index of the first mismatch between the two arrays
+   * over the specified ranges, otherwise {@code -1}
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(int[] a, int aFromIndex, int aToIndex,
+      int[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int length = Math.min(aLength, bLength);
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex, length);
+    return (i < 0 && aLength != bLength) ? length : i;
+  }
+
+  /**
+   * Compares two {@code int} arrays lexicographically.
+   *
+   * <p>If the two arrays share a common prefix then the lexicographic
+   * comparison is the result of comparing two elements at the index of the
+   * first mismatch, as if by {@link #mismatch(int[], int[])}. Otherwise,
+   * one array is a proper prefix of the other and the lexicographic
+   * comparison is the result of comparing the two array lengths.
+   *
+   * <p>Elements are compared as if by {@link Integer#compare(int, int)}.
+   *
+   * <p>A {@code null} array reference is considered lexicographically less
+   * than a non-{@code null} array reference. Two {@code null} array
+   * references are considered equal.
+   *
+   * <p>The comparison is consistent with {@link #equals(int[], int[])
+   * equals}.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
+   */
+  public static int compare(int[] a, int[] b) {
+    if (a == b) {
+      return 0;
+    }
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
+    }
+
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Integer.compare(a[i], b[i]);
+    }
+
+    return a.length - b.length;
+  }
+
+  /**
+   * Compares two {@code int} arrays lexicographically over the specified
+   * ranges, as if by {@link #compare(int[], int[])} on copies of the
+   * ranges.
+   *
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int compare(int[] a, int aFromIndex, int aToIndex,
+      int[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Integer.compare(a[aFromIndex + i], b[bFromIndex + i]);
+    }
+
+    return aLength - bLength;
+  }
+
+  /**
+   * Compares two {@code int} arrays lexicographically, numerically
+   * treating elements as unsigned.
+   *
+   * <p>This behaves as {@link #compare(int[], int[])} except that
+   * mismatching elements are compared as unsigned values, which makes it
+   * suitable for ordering binary keys.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
+   */
+  public static int compareUnsigned(int[] a, int[] b) {
+    if (a == b) {
+      return 0;
+    }
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
     }
 
-    return true;
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Integer.compareUnsigned(a[i], b[i]);
+    }
+
+    return a.length - b.length;
   }
 
   /**
-   * Returns <tt>true</tt> if the two specified arrays of shorts are
-   * <i>equal</i> to one another.  Two arrays are considered equal if both
-   * arrays contain the same number of elements, and all corresponding pairs
-   * of elements in the two arrays are equal.  In other words, two arrays
-   * are equal if they contain the same elements in the same order.  Also,
-   * two array references are considered equal if both are <tt>null</tt>.<p>
+   * Compares two {@code int} arrays lexicographically over the specified
+   * ranges, numerically treating elements as unsigned, as if by
+   * {@link #compareUnsigned(int[], int[])} on copies of the ranges.
    *
-   * @param a one array to be tested for equality
-   * @param a2 the other array to be tested for equality
-   * @return <tt>true</tt> if the two arrays are equal
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
    */
-  public static boolean equals(short[] a, short a2[]) {
-    if (a == a2) {
-      return true;
-    }
-    if (a == null || a2 == null) {
-      return false;
-    }
+  public static int compareUnsigned(int[] a, int aFromIndex, int aToIndex,
+      int[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
 
-    int length = a.length;
-    if (a2.length != length) {
-      return false;
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Integer.compareUnsigned(a[aFromIndex + i], b[bFromIndex + i]);
     }
 
-    for (int i = 0; i < length; i++) {
-      if (a[i] != a2[i]) {
-        return false;
-      }
+    return aLength - bLength;
+  }
+
+  /**
+   * Finds and returns the index of the first mismatch between two
+   * {@code long} arrays, otherwise returns -1 if no mismatch is found. The
+   * index will be in the range of 0 (inclusive) up to the length (inclusive)
+   * of the smaller array.
+   *
+   * <p>If the two arrays share a common prefix then the returned index is
+   * the length of the common prefix and it follows that there is a mismatch
+   * between the two elements at that index within the respective arrays.
+   * If one array is a proper prefix of the other then the returned index is
+   * the length of the smaller array and it follows that the index is only
+   * valid for the larger array. Otherwise, there is no mismatch.
+   *
+   * @implNote Elements are compared eight bytes at a time where the two
+   * ranges can be read as aligned words.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param b the second array to be tested for a mismatch
+   * @return the index of the first mismatch between the two arrays,
+   * otherwise {@code -1}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(long[] a, long[] b) {
+    int length = Math.min(a.length, b.length); // Check null array refs
+    if (a == b) {
+      return -1;
     }
+    int i = ArraysSupport.mismatch(a, 0, b, 0, length);
+    return (i < 0 && a.length != b.length) ? length : i;
+  }
+
+  /**
+   * Finds and returns the relative index of the first mismatch between two
+   * {@code long} arrays over the specified ranges, otherwise returns -1 if
+   * no mismatch is found. The index will be in the range of 0 (inclusive)
+   * up to the length (inclusive) of the smaller range.
+   *
+   * <p>If the two ranges share a common prefix then the returned relative
+   * index is the length of the common prefix. If one range is a proper
+   * prefix of the other then the returned relative index is the length of
+   * the smaller range. Otherwise, there is no mismatch.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be tested
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be tested
+   * @param b the second array to be tested for a mismatch
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be tested
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be tested
+   * @return the relative index of the first mismatch between the two arrays
+   * over the specified ranges, otherwise {@code -1}
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(long[] a, int aFromIndex, int aToIndex,
+      long[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
 
-    return true;
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int length = Math.min(aLength, bLength);
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex, length);
+    return (i < 0 && aLength != bLength) ? length : i;
   }
 
   /**
-   * Returns <tt>true</tt> if the two specified arrays of chars are
-   * <i>equal</i> to one another.  Two arrays are considered equal if both
-   * arrays contain the same number of elements, and all corresponding pairs
-   * of elements in the two arrays are equal.  In other words, two arrays
-   * are equal if they contain the same elements in the same order.  Also,
-   * two array references are considered equal if both are <tt>null</tt>.<p>
+   * Compares two {@code long} arrays lexicographically.
    *
-   * @param a one array to be tested for equality
-   * @param a2 the other array to be tested for equality
-   * @return <tt>true</tt> if the two arrays are equal
+   * <p>If the two arrays share a common prefix then the lexicographic
+   * comparison is the result of comparing two elements at the index of the
+   * first mismatch, as if by {@link #mismatch(long[], long[])}. Otherwise,
+   * one array is a proper prefix of the other and the lexicographic
+   * comparison is the result of comparing the two array lengths.
+   *
+   * <p>Elements are compared as if by {@link Long#compare(long, long)}.
+   *
+   * <p>A {@code null} array reference is considered lexicographically less
+   * than a non-{@code null} array reference. Two {@code null} array
+   * references are considered equal.
+   *
+   * <p>The comparison is consistent with {@link #equals(long[], long[])
+   * equals}.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
    */
-  public static boolean equals(char[] a, char[] a2) {
-    if (a == a2) {
-      return true;
+  public static int compare(long[] a, long[] b) {
+    if (a == b) {
+      return 0;
     }
-    if (a == null || a2 == null) {
-      return false;
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
     }
 
-    int length = a.length;
-    if (a2.length != length) {
-      return false;
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Long.compare(a[i], b[i]);
     }
 
-    for (int i = 0; i < length; i++) {
-      if (a[i] != a2[i]) {
-        return false;
-      }
+    return a.length - b.length;
+  }
+
+  /**
+   * Compares two {@code long} arrays lexicographically over the specified
+   * ranges, as if by {@link #compare(long[], long[])} on copies of the
+   * ranges.
+   *
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int compare(long[] a, int aFromIndex, int aToIndex,
+      long[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Long.compare(a[aFromIndex + i], b[bFromIndex + i]);
     }
 
-    return true;
+    return aLength - bLength;
   }
 
   /**
-   * Returns <tt>true</tt> if the two specified arrays of bytes are
-   * <i>equal</i> to one another.  Two arrays are considered equal if both
-   * arrays contain the same number of elements, and all corresponding pairs
-   * of elements in the two arrays are equal.  In other words, two arrays
-   * are equal if they contain the same elements in the same order.  Also,
-   * two array references are considered equal if both are <tt>null</tt>.<p>
+   * Compares two {@code long} arrays lexicographically, numerically
+   * treating elements as unsigned.
    *
-   * @param a one array to be tested for equality
-   * @param a2 the other array to be tested for equality
-   * @return <tt>true</tt> if the two arrays are equal
+   * <p>This behaves as {@link #compare(long[], long[])} except that
+   * mismatching elements are compared as unsigned values, which makes it
+   * suitable for ordering binary keys.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
    */
-  public static boolean equals(byte[] a, byte[] a2) {
-    if (a == a2) {
-      return true;
-    }
-    if (a == null || a2 == null) {
-      return false;
+  public static int compareUnsigned(long[] a, long[] b) {
+    if (a == b) {
+      return 0;
     }
-
-    int length = a.length;
-    if (a2.length != length) {
-      return false;
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
     }
 
-    for (int i = 0; i < length; i++) {
-      if (a[i] != a2[i]) {
-        return false;
-      }
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Long.compareUnsigned(a[i], b[i]);
     }
 
-    return true;
+    return a.length - b.length;
   }
 
   /**
-   * Returns <tt>true</tt> if the two specified arrays of booleans are
-   * <i>equal</i> to one another.  Two arrays are considered equal if both
-   * arrays contain the same number of elements, and all corresponding pairs
-   * of elements in the two arrays are equal.  In other words, two arrays
-   * are equal if they contain the same elements in the same order.  Also,
-   * two array references are considered equal if both are <tt>null</tt>.<p>
+   * Compares two {@code long} arrays lexicographically over the specified
+   * ranges, numerically treating elements as unsigned, as if by
+   * {@link #compareUnsigned(long[], long[])} on copies of the ranges.
    *
-   * @param a one array to be tested for equality
-   * @param a2 the other array to be tested for equality
-   * @return <tt>true</tt> if the two arrays are equal
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
    */
-  public static boolean equals(boolean[] a, boolean[] a2) {
-    if (a == a2) {
-      return true;
-    }
-    if (a == null || a2 == null) {
-      return false;
-    }
+  public static int compareUnsigned(long[] a, int aFromIndex, int aToIndex,
+      long[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
 
-    int length = a.length;
-    if (a2.length != length) {
-      return false;
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Long.compareUnsigned(a[aFromIndex + i], b[bFromIndex + i]);
     }
 
-    for (int i = 0; i < length; i++) {
-      if (a[i] != a2[i]) {
-        return false;
-      }
+    return aLength - bLength;
+  }
+
+  /**
+   * Finds and returns the index of the first mismatch between two
+   * {@code float} arrays, otherwise returns -1 if no mismatch is found. The
+   * index will be in the range of 0 (inclusive) up to the length (inclusive)
+   * of the smaller array.
+   *
+   * <p>If the two arrays share a common prefix then the returned index is
+   * the length of the common prefix and it follows that there is a mismatch
+   * between the two elements at that index within the respective arrays.
+   * If one array is a proper prefix of the other then the returned index is
+   * the length of the smaller array and it follows that the index is only
+   * valid for the larger array. Otherwise, there is no mismatch.
+   *
+   * <p>Two {@code float} elements are considered equal as by
+   * {@link #equals(float[], float[])}: NaN matches NaN, and {@code 0.0} does not
+   * match {@code -0.0}.
+   *
+   * @implNote Elements are compared eight bytes at a time where the two
+   * ranges can be read as aligned words.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param b the second array to be tested for a mismatch
+   * @return the index of the first mismatch between the two arrays,
+   * otherwise {@code -1}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(float[] a, float[] b) {
+    int length = Math.min(a.length, b.length); // Check null array refs
+    if (a == b) {
+      return -1;
     }
+    int i = ArraysSupport.mismatch(a, 0, b, 0, length);
+    return (i < 0 && a.length != b.length) ? length : i;
+  }
+
+  /**
+   * Finds and returns the relative index of the first mismatch between two
+   * {@code float} arrays over the specified ranges, otherwise returns -1 if
+   * no mismatch is found. The index will be in the range of 0 (inclusive)
+   * up to the length (inclusive) of the smaller range.
+   *
+   * <p>If the two ranges share a common prefix then the returned relative
+   * index is the length of the common prefix. If one range is a proper
+   * prefix of the other then the returned relative index is the length of
+   * the smaller range. Otherwise, there is no mismatch.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be tested
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be tested
+   * @param b the second array to be tested for a mismatch
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be tested
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be tested
+   * @return the relative index of the first mismatch between the two arrays
+   * over the specified ranges, otherwise {@code -1}
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(float[] a, int aFromIndex, int aToIndex,
+      float[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
 
-    return true;
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int length = Math.min(aLength, bLength);
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex, length);
+    return (i < 0 && aLength != bLength) ? length : i;
   }
 
   /**
-   * Returns <tt>true</tt> if the two specified arrays of doubles are
-   * <i>equal</i> to one another.  Two arrays are considered equal if both
-   * arrays contain the same number of elements, and all corresponding pairs
-   * of elements in the two arrays are equal.  In other words, two arrays
-   * are equal if they contain the same elements in the same order.  Also,
-   * two array references are considered equal if both are <tt>null</tt>.<p>
+   * Compares two {@code float} arrays lexicographically.
    *
-   * Two doubles <tt>d1</tt> and <tt>d2</tt> are considered equal if:
-   * <pre>    <tt>new Double(d1).equals(new Double(d2))</tt></pre>
-   * (Unlike the <tt>==</tt> operator, this method considers
-   * <tt>NaN</tt> equals to itself, and 0.0d unequal to -0.0d.)
+   * <p>If the two arrays share a common prefix then the lexicographic
+   * comparison is the result of comparing two elements at the index of the
+   * first mismatch, as if by {@link #mismatch(float[], float[])}. Otherwise,
+   * one array is a proper prefix of the other and the lexicographic
+   * comparison is the result of comparing the two array lengths.
    *
-   * @param a one array to be tested for equality
-   * @param a2 the other array to be tested for equality
-   * @return <tt>true</tt> if the two arrays are equal
-   * @see Double#equals(Object)
+   * <p>Elements are compared as if by {@link Float#compare(float, float)}, so
+   * {@code -0.0} is less than {@code 0.0} and NaN is equal to itself and
+   * greater than any other value.
+   *
+   * <p>A {@code null} array reference is considered lexicographically less
+   * than a non-{@code null} array reference. Two {@code null} array
+   * references are considered equal.
+   *
+   * <p>The comparison is consistent with {@link #equals(float[], float[])
+   * equals}.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
    */
-  public static boolean equals(double[] a, double[] a2) {
-    if (a == a2) {
-      return true;
-    }
-    if (a == null || a2 == null) {
-      return false;
+  public static int compare(float[] a, float[] b) {
+    if (a == b) {
+      return 0;
     }
-
-    int length = a.length;
-    if (a2.length != length) {
-      return false;
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
     }
 
-    for (int i = 0; i < length; i++) {
-      if (Double.doubleToLongBits(a[i]) != Double.doubleToLongBits(a2[i])) {
-        return false;
-      }
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Float.compare(a[i], b[i]);
     }
 
-    return true;
+    return a.length - b.length;
   }
 
   /**
-   * Returns <tt>true</tt> if the two specified arrays of floats are
-   * <i>equal</i> to one another.  Two arrays are considered equal if both
-   * arrays contain the same number of elements, and all corresponding pairs
-   * of elements in the two arrays are equal.  In other words, two arrays
-   * are equal if they contain the same elements in the same order.  Also,
-   * two array references are considered equal if both are <tt>null</tt>.<p>
-   *
-   * Two floats <tt>f1</tt> and <tt>f2</tt> are considered equal if:
-   * <pre>    <tt>new Float(f1).equals(new Float(f2))</tt></pre>
-   * (Unlike the <tt>==</tt> operator, this method considers
-   * <tt>NaN</tt> equals to itself, and 0.0f unequal to -0.0f.)
+   * Compares two {@code float} arrays lexicographically over the specified
+   * ranges, as if by {@link #compare(float[], float[])} on copies of the
+   * ranges.
    *
-   * @param a one array to be tested for equality
-   * @param a2 the other array to be tested for equality
-   * @return <tt>true</tt> if the two arrays are equal
-   * @see Float#equals(Object)
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
    */
-  public static boolean equals(float[] a, float[] a2) {
-    if (a == a2) {
-      return true;
-    }
-    if (a == null || a2 == null) {
-      return false;
-    }
+  public static int compare(float[] a, int aFromIndex, int aToIndex,
+      float[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
 
-    int length = a.length;
-    if (a2.length != length) {
-      return false;
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Float.compare(a[aFromIndex + i], b[bFromIndex + i]);
     }
 
-    for (int i = 0; i < length; i++) {
-      if (Float.floatToIntBits(a[i]) != Float.floatToIntBits(a2[i])) {
-        return false;
-      }
+    return aLength - bLength;
+  }
+
+  /**
+   * Finds and returns the index of the first mismatch between two
+   * {@code double} arrays, otherwise returns -1 if no mismatch is found. The
+   * index will be in the range of 0 (inclusive) up to the length (inclusive)
+   * of the smaller array.
+   *
+   * <p>If the two arrays share a common prefix then the returned index is
+   * the length of the common prefix and it follows that there is a mismatch
+   * between the two elements at that index within the respective arrays.
+   * If one array is a proper prefix of the other then the returned index is
+   * the length of the smaller array and it follows that the index is only
+   * valid for the larger array. Otherwise, there is no mismatch.
+   *
+   * <p>Two {@code double} elements are considered equal as by
+   * {@link #equals(double[], double[])}: NaN matches NaN, and {@code 0.0} does not
+   * match {@code -0.0}.
+   *
+   * @implNote Elements are compared eight bytes at a time where the two
+   * ranges can be read as aligned words.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param b the second array to be tested for a mismatch
+   * @return the index of the first mismatch between the two arrays,
+   * otherwise {@code -1}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(double[] a, double[] b) {
+    int length = Math.min(a.length, b.length); // Check null array refs
+    if (a == b) {
+      return -1;
     }
+    int i = ArraysSupport.mismatch(a, 0, b, 0, length);
+    return (i < 0 && a.length != b.length) ? length : i;
+  }
+
+  /**
+   * Finds and returns the relative index of the first mismatch between two
+   * {@code double} arrays over the specified ranges, otherwise returns -1 if
+   * no mismatch is found. The index will be in the range of 0 (inclusive)
+   * up to the length (inclusive) of the smaller range.
+   *
+   * <p>If the two ranges share a common prefix then the returned relative
+   * index is the length of the common prefix. If one range is a proper
+   * prefix of the other then the returned relative index is the length of
+   * the smaller range. Otherwise, there is no mismatch.
+   *
+   * @param a the first array to be tested for a mismatch
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be tested
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be tested
+   * @param b the second array to be tested for a mismatch
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be tested
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be tested
+   * @return the relative index of the first mismatch between the two arrays
+   * over the specified ranges, otherwise {@code -1}
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int mismatch(double[] a, int aFromIndex, int aToIndex,
+      double[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
 
-    return true;
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int length = Math.min(aLength, bLength);
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex, length);
+    return (i < 0 && aLength != bLength) ? length : i;
   }
 
   /**
-   * Returns <tt>true</tt> if the two specified arrays of Objects are
-   * <i>equal</i> to one another.  The two arrays are considered equal if
-   * both arrays contain the same number of elements, and all corresponding
-   * pairs of elements in the two arrays are equal.  Two objects <tt>e1</tt>
-   * and <tt>e2</tt> are considered <i>equal</i> if <tt>(e1==null ? e2==null
-   * : e1.equals(e2))</tt>.  In other words, the two arrays are equal if
-   * they contain the same elements in the same order.  Also, two array
-   * references are considered equal if both are <tt>null</tt>.<p>
+   * Compares two {@code double} arrays lexicographically.
    *
-   * @param a one array to be tested for equality
-   * @param a2 the other array to be tested for equality
-   * @return <tt>true</tt> if the two arrays are equal
+   * <p>If the two arrays share a common prefix then the lexicographic
+   * comparison is the result of comparing two elements at the index of the
+   * first mismatch, as if by {@link #mismatch(double[], double[])}. Otherwise,
+   * one array is a proper prefix of the other and the lexicographic
+   * comparison is the result of comparing the two array lengths.
+   *
+   * <p>Elements are compared as if by {@link Double#compare(double, double)}, so
+   * {@code -0.0} is less than {@code 0.0} and NaN is equal to itself and
+   * greater than any other value.
+   *
+   * <p>A {@code null} array reference is considered lexicographically less
+   * than a non-{@code null} array reference. Two {@code null} array
+   * references are considered equal.
+   *
+   * <p>The comparison is consistent with {@link #equals(double[], double[])
+   * equals}.
+   *
+   * @param a the first array to compare
+   * @param b the second array to compare
+   * @return the value {@code 0} if the first and second array are equal and
+   * contain the same elements in the same order; a value less than
+   * {@code 0} if the first array is lexicographically less than the second
+   * array; and a value greater than {@code 0} if the first array is
+   * lexicographically greater than the second array
+   * @since 1.8
    */
-  public static boolean equals(Object[] a, Object[] a2) {
-    if (a == a2) {
-      return true;
+  public static int compare(double[] a, double[] b) {
+    if (a == b) {
+      return 0;
     }
-    if (a == null || a2 == null) {
-      return false;
+    if (a == null || b == null) {
+      return a == null ? -1 : 1;
     }
 
-    int length = a.length;
-    if (a2.length != length) {
-      return false;
+    int i = ArraysSupport.mismatch(a, 0, b, 0, Math.min(a.length, b.length));
+    if (i >= 0) {
+      return Double.compare(a[i], b[i]);
     }
 
-    for (int i = 0; i < length; i++) {
-      Object o1 = a[i];
-      Object o2 = a2[i];
-      if (!(o1 == null ? o2 == null : o1.equals(o2))) {
-        return false;
-      }
+    return a.length - b.length;
+  }
+
+  /**
+   * Compares two {@code double} arrays lexicographically over the specified
+   * ranges, as if by {@link #compare(double[], double[])} on copies of the
+   * ranges.
+   *
+   * @param a the first array to compare
+   * @param aFromIndex the index (inclusive) of the first element in the
+   * first array to be compared
+   * @param aToIndex the index (exclusive) of the last element in the first
+   * array to be compared
+   * @param b the second array to compare
+   * @param bFromIndex the index (inclusive) of the first element in the
+   * second array to be compared
+   * @param bToIndex the index (exclusive) of the last element in the second
+   * array to be compared
+   * @return the value {@code 0} if, over the specified ranges, the first and
+   * second array are equal and contain the same elements in the same order;
+   * a value less than {@code 0} if, over the specified ranges, the first
+   * array is lexicographically less than the second array; and a value
+   * greater than {@code 0} if, over the specified ranges, the first array is
+   * lexicographically greater than the second array
+   * @throws IllegalArgumentException if {@code aFromIndex > aToIndex} or
+   * if {@code bFromIndex > bToIndex}
+   * @throws ArrayIndexOutOfBoundsException if {@code aFromIndex < 0 or
+   * aToIndex > a.length} or if {@code bFromIndex < 0 or bToIndex > b.length}
+   * @throws NullPointerException if either array is {@code null}
+   * @since 1.8
+   */
+  public static int compare(double[] a, int aFromIndex, int aToIndex,
+      double[] b, int bFromIndex, int bToIndex) {
+    rangeCheck(a.length, aFromIndex, aToIndex);
+    rangeCheck(b.length, bFromIndex, bToIndex);
+
+    int aLength = aToIndex - aFromIndex;
+    int bLength = bToIndex - bFromIndex;
+    int i = ArraysSupport.mismatch(a, aFromIndex, b, bFromIndex,
+        Math.min(aLength, bLength));
+    if (i >= 0) {
+      return Double.compare(a[aFromIndex + i], b[bFromIndex + i]);
     }
 
-    return true;
+    return aLength - bLength;
   }
 
   // Filling
@@ -3846,9 +5945,14 @@ public class Arrays {
       return 0;
     }
 
-    int result = 1;
-    for (int element : a) {
-      result = 31 * result + element;
+    int result = 1, i = 0;
+    // Four elements per step: 31^4 * h + 31^3 * e0 + 31^2 * e1 + 31 * e2 + e3
+    for (int end = a.length - 3; i < end; i += 4) {
+      result = 923521 * result + 29791 * a[i] + 961 * a[i + 1] +
+          31 * a[i + 2] + a[i + 3];
+    }
+    for (; i < a.length; i++) {
+      result = 31 * result + a[i];
     }
 
     return result;
@@ -3875,9 +5979,14 @@ public class Arrays {
       return 0;
     }
 
-    int result = 1;
-    for (short element : a) {
-      result = 31 * result + element;
+    int result = 1, i = 0;
+    // Four elements per step: 31^4 * h + 31^3 * e0 + 31^2 * e1 + 31 * e2 + e3
+    for (int end = a.length - 3; i < end; i += 4) {
+      result = 923521 * result + 29791 * a[i] + 961 * a[i + 1] +
+          31 * a[i + 2] + a[i + 3];
+    }
+    for (; i < a.length; i++) {
+      result = 31 * result + a[i];
     }
 
     return result;
@@ -3904,9 +6013,14 @@ public class Arrays {
       return 0;
     }
 
-    int result = 1;
-    for (char element : a) {
-      result = 31 * result + element;
+    int result = 1, i = 0;
+    // Four elements per step: 31^4 * h + 31^3 * e0 + 31^2 * e1 + 31 * e2 + e3
+    for (int end = a.length - 3; i < end; i += 4) {
+      result = 923521 * result + 29791 * a[i] + 961 * a[i + 1] +
+          31 * a[i + 2] + a[i + 3];
+    }
+    for (; i < a.length; i++) {
+      result = 31 * result + a[i];
     }
 
     return result;
@@ -3933,9 +6047,14 @@ public class Arrays {
       return 0;
     }
 
-    int result = 1;
-    for (byte element : a) {
-      result = 31 * result + element;
+    int result = 1, i = 0;
+    // Four elements per step: 31^4 * h + 31^3 * e0 + 31^2 * e1 + 31 * e2 + e3
+    for (int end = a.length - 3; i < end; i += 4) {
+      result = 923521 * result + 29791 * a[i] + 961 * a[i + 1] +
+          31 * a[i + 2] + a[i + 3];
+    }
+    for (; i < a.length; i++) {
+      result = 31 * result + a[i];
     }
 
     return result;
@@ -27,6 +27,9 @@ package java.util;
 import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.CountedCompleter;
 
+import static java.util.DualPivotQuicksort.RADIX;
+import static java.util.DualPivotQuicksort.RADIX_BITS;
+
 /**
  * Helper utilities for the parallel sort methods in Arrays.parallelSort.
  *
@@ -798,6 +801,119 @@ import java.util.concurrent.CountedCompleter;
         tryComplete();
       }
     }
+
+    /**
+     * Parallel LSD radix sort, used in place of Sorter for large
+     * arrays. Each pass counts the digits of each block of gran
+     * elements in parallel, turns the counts into per-block bucket
+     * offsets, and scatters the blocks in parallel into the other array.
+     * Passes over digits shared by all elements are skipped.
+     */
+    static final class RadixSorter extends RecursiveAction {
+
+      static final long serialVersionUID = 2446542900576103244L;
+      final int[] a, w;
+      final int base, size, wbase, gran;
+
+      RadixSorter(int[] a, int[] w, int base, int size, int wbase,
+          int gran) {
+        this.a = a;
+        this.w = w;
+        this.base = base;
+        this.size = size;
+        this.wbase = wbase;
+        this.gran = gran;
+      }
+
+      protected final void compute() {
+        int[] a = this.a, src = a, dst = this.w; // localize all params
+        int b = this.base, n = this.size, so = b, dso = this.wbase,
+            g = this.gran, nb = (n + g - 1) / g;
+        int[][] counts = new int[nb][RADIX];
+        RadixPass[] tasks = new RadixPass[nb];
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+          for (int i = 0; i < nb; i++) {
+            int lo = so + i * g;
+            Arrays.fill(counts[i], 0);
+            tasks[i] = new RadixPass(src, null, lo, Math.min(lo + g, so + n),
+                shift, counts[i]);
+          }
+          invokeAll(tasks);
+          boolean trivial = false;
+          for (int d = 0, sum = dso; d < RADIX; d++) {
+            int start = sum;
+            for (int i = 0; i < nb; i++) {
+              int t = counts[i][d];
+              counts[i][d] = sum;
+              sum += t;
+            }
+            if (sum - start == n) {
+              trivial = true; // all elements share this digit
+            }
+          }
+          if (trivial) {
+            continue;
+          }
+          for (int i = 0; i < nb; i++) {
+            int lo = so + i * g;
+            tasks[i] = new RadixPass(src, dst, lo, Math.min(lo + g, so + n),
+                shift, counts[i]);
+          }
+          invokeAll(tasks);
+          int[] t = src;
+          src = dst;
+          dst = t;
+          int o = so;
+          so = dso;
+          dso = o;
+        }
+        if (src != a) {
+          System.arraycopy(src, so, a, b, n);
+        }
+      }
+    }
+
+    /**
+     * One block of a radix sort pass: counts the digits of
+     * src[lo, hi) if dst is null, else moves each element to
+     * dst[count[digit]++].
+     */
+    static final class RadixPass extends RecursiveAction {
+
+      static final long serialVersionUID = 2446542900576103244L;
+      final int[] src, dst;
+      final int lo, hi, shift;
+      final int[] count;
+
+      RadixPass(int[] src, int[] dst, int lo, int hi, int shift,
+          int[] count) {
+        this.src = src;
+        this.dst = dst;
+        this.lo = lo;
+        this.hi = hi;
+        this.shift = shift;
+        this.count = count;
+      }
+
+      protected final void compute() {
+        int[] src = this.src, dst = this.dst; // localize all params
+        int[] count = this.count;
+        int shift = this.shift;
+        if (dst == null) {
+          for (int i = lo, e = hi; i < e; i++) {
+            int v = src[i];
+            int k = v ^ Integer.MIN_VALUE;
+            ++count[(k >>> shift) & (RADIX - 1)];
+          }
+        } else {
+          for (int i = lo, e = hi; i < e; i++) {
+            int v = src[i];
+            int k = v ^ Integer.MIN_VALUE;
+            dst[count[(k >>> shift) & (RADIX - 1)]++] = v;
+          }
+        }
+      }
+    }
   } // FJInt
 
   /**
@@ -932,6 +1048,119 @@ import java.util.concurrent.CountedCompleter;
         tryComplete();
       }
     }
+
+    /**
+     * Parallel LSD radix sort, used in place of Sorter for large
+     * arrays. Each pass counts the digits of each block of gran
+     * elements in parallel, turns the counts into per-block bucket
+     * offsets, and scatters the blocks in parallel into the other array.
+     * Passes over digits shared by all elements are skipped.
+     */
+    static final class RadixSorter extends RecursiveAction {
+
+      static final long serialVersionUID = 2446542900576103244L;
+      final long[] a, w;
+      final int base, size, wbase, gran;
+
+      RadixSorter(long[] a, long[] w, int base, int size, int wbase,
+          int gran) {
+        this.a = a;
+        this.w = w;
+        this.base = base;
+        this.size = size;
+        this.wbase = wbase;
+        this.gran = gran;
+      }
+
+      protected final void compute() {
+        long[] a = this.a, src = a, dst = this.w; // localize all params
+        int b = this.base, n = this.size, so = b, dso = this.wbase,
+            g = this.gran, nb = (n + g - 1) / g;
+        int[][] counts = new int[nb][RADIX];
+        RadixPass[] tasks = new RadixPass[nb];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+          for (int i = 0; i < nb; i++) {
+            int lo = so + i * g;
+            Arrays.fill(counts[i], 0);
+            tasks[i] = new RadixPass(src, null, lo, Math.min(lo + g, so + n),
+                shift, counts[i]);
+          }
+          invokeAll(tasks);
+          boolean trivial = false;
+          for (int d = 0, sum = dso; d < RADIX; d++) {
+            int start = sum;
+            for (int i = 0; i < nb; i++) {
+              int t = counts[i][d];
+              counts[i][d] = sum;
+              sum += t;
+            }
+            if (sum - start == n) {
+              trivial = true; // all elements share this digit
+            }
+          }
+          if (trivial) {
+            continue;
+          }
+          for (int i = 0; i < nb; i++) {
+            int lo = so + i * g;
+            tasks[i] = new RadixPass(src, dst, lo, Math.min(lo + g, so + n),
+                shift, counts[i]);
+          }
+          invokeAll(tasks);
+          long[] t = src;
+          src = dst;
+          dst = t;
+          int o = so;
+          so = dso;
+          dso = o;
+        }
+        if (src != a) {
+          System.arraycopy(src, so, a, b, n);
+        }
+      }
+    }
+
+    /**
+     * One block of a radix sort pass: counts the digits of
+     * src[lo, hi) if dst is null, else moves each element to
+     * dst[count[digit]++].
+     */
+    static final class RadixPass extends RecursiveAction {
+
+      static final long serialVersionUID = 2446542900576103244L;
+      final long[] src, dst;
+      final int lo, hi, shift;
+      final int[] count;
+
+      RadixPass(long[] src, long[] dst, int lo, int hi, int shift,
+          int[] count) {
+        this.src = src;
+        this.dst = dst;
+        this.lo = lo;
+        this.hi = hi;
+        this.shift = shift;
+        this.count = count;
+      }
+
+      protected final void compute() {
+        long[] src = this.src, dst = this.dst; // localize all params
+        int[] count = this.count;
+        int shift = this.shift;
+        if (dst == null) {
+          for (int i = lo, e = hi; i < e; i++) {
+            long v = src[i];
+            long k = v ^ Long.MIN_VALUE;
+            ++count[(int) ((k >>> shift) & (RADIX - 1))];
+          }
+        } else {
+          for (int i = lo, e = hi; i < e; i++) {
+            long v = src[i];
+            long k = v ^ Long.MIN_VALUE;
+            dst[count[(int) ((k >>> shift) & (RADIX - 1))]++] = v;
+          }
+        }
+      }
+    }
   } // FJLong
 
   /**
@@ -1066,6 +1295,129 @@ import java.util.concurrent.CountedCompleter;
         tryComplete();
       }
     }
+
+    /**
+     * Parallel LSD radix sort, used in place of Sorter for large
+     * arrays. Each pass counts the digits of each block of gran
+     * elements in parallel, turns the counts into per-block bucket
+     * offsets, and scatters the blocks in parallel into the other array.
+     * Passes over digits shared by all elements are skipped.
+     */
+    static final class RadixSorter extends RecursiveAction {
+
+      static final long serialVersionUID = 2446542900576103244L;
+      final float[] a, w;
+      final int base, size, wbase, gran;
+
+      RadixSorter(float[] a, float[] w, int base, int size, int wbase,
+          int gran) {
+        this.a = a;
+        this.w = w;
+        this.base = base;
+        this.size = size;
+        this.wbase = wbase;
+        this.gran = gran;
+      }
+
+      protected final void compute() {
+        float[] a = this.a, src = a, dst = this.w; // localize all params
+        int b = this.base, n = this.size, so = b, dso = this.wbase,
+            g = this.gran, nb = (n + g - 1) / g;
+        int[][] counts = new int[nb][RADIX];
+        RadixPass[] tasks = new RadixPass[nb];
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+          for (int i = 0; i < nb; i++) {
+            int lo = so + i * g;
+            Arrays.fill(counts[i], 0);
+            tasks[i] = new RadixPass(src, null, lo, Math.min(lo + g, so + n),
+                shift, counts[i]);
+          }
+          invokeAll(tasks);
+          boolean trivial = false;
+          for (int d = 0, sum = dso; d < RADIX; d++) {
+            int start = sum;
+            for (int i = 0; i < nb; i++) {
+              int t = counts[i][d];
+              counts[i][d] = sum;
+              sum += t;
+            }
+            if (sum - start == n) {
+              trivial = true; // all elements share this digit
+            }
+          }
+          if (trivial) {
+            continue;
+          }
+          for (int i = 0; i < nb; i++) {
+            int lo = so + i * g;
+            tasks[i] = new RadixPass(src, dst, lo, Math.min(lo + g, so + n),
+                shift, counts[i]);
+          }
+          invokeAll(tasks);
+          float[] t = src;
+          src = dst;
+          dst = t;
+          int o = so;
+          so = dso;
+          dso = o;
+        }
+        if (src != a) {
+          System.arraycopy(src, so, a, b, n);
+        }
+      }
+    }
+
+    /**
+     * One block of a radix sort pass: counts the digits of
+     * src[lo, hi) if dst is null, else moves each element to
+     * dst[count[digit]++].
+     */
+    static final class RadixPass extends RecursiveAction {
+
+      static final long serialVersionUID = 2446542900576103244L;
+      final float[] src, dst;
+      final int lo, hi, shift;
+      final int[] count;
+
+      RadixPass(float[] src, float[] dst, int lo, int hi, int shift,
+          int[] count) {
+        this.src = src;
+        this.dst = dst;
+        this.lo = lo;
+        this.hi = hi;
+        this.shift = shift;
+        this.count = count;
+      }
+
+      protected final void compute() {
+        float[] src = this.src, dst = this.dst; // localize all params
+        int[] count = this.count;
+        int shift = this.shift;
+        if (dst == null) {
+          for (int i = lo, e = hi; i < e; i++) {
+            float v = src[i];
+            int k = totalKey(v);
+            ++count[(k >>> shift) & (RADIX - 1)];
+          }
+        } else {
+          for (int i = lo, e = hi; i < e; i++) {
+            float v = src[i];
+            int k = totalKey(v);
+            dst[count[(k >>> shift) & (RADIX - 1)]++] = v;
+          }
+        }
+      }
+    }
+
+    /**
+     * Returns a key whose unsigned order is the total order of
+     * Arrays.sort(float[]): -0.0f below 0.0f, and NaNs, which all have
+     * the same key, above positive infinity.
+     */
+    static int totalKey(float f) {
+      int bits = Float.floatToIntBits(f);
+      return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+    }
   } // FJFloat
 
   /**
@@ -1200,6 +1552,129 @@ import java.util.concurrent.CountedCompleter;
         tryComplete();
       }
     }
+
+    /**
+     * Parallel LSD radix sort, used in place of Sorter for large
+     * arrays. Each pass counts the digits of each block of gran
+     * elements in parallel, turns the counts into per-block bucket
+     * offsets, and scatters the blocks in parallel into the other array.
+     * Passes over digits shared by all elements are skipped.
+     */
+    static final class RadixSorter extends RecursiveAction {
+
+      static final long serialVersionUID = 2446542900576103244L;
+      final double[] a, w;
+      final int base, size, wbase, gran;
+
+      RadixSorter(double[] a, double[] w, int base, int size, int wbase,
+          int gran) {
+        this.a = a;
+        this.w = w;
+        this.base = base;
+        this.size = size;
+        this.wbase = wbase;
+        this.gran = gran;
+      }
+
+      protected final void compute() {
+        double[] a = this.a, src = a, dst = this.w; // localize all params
+        int b = this.base, n = this.size, so = b, dso = this.wbase,
+            g = this.gran, nb = (n + g - 1) / g;
+        int[][] counts = new int[nb][RADIX];
+        RadixPass[] tasks = new RadixPass[nb];
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+          for (int i = 0; i < nb; i++) {
+            int lo = so + i * g;
+            Arrays.fill(counts[i], 0);
+            tasks[i] = new RadixPass(src, null, lo, Math.min(lo + g, so + n),
+                shift, counts[i]);
+          }
+          invokeAll(tasks);
+          boolean trivial = false;
+          for (int d = 0, sum = dso; d < RADIX; d++) {
+            int start = sum;
+            for (int i = 0; i < nb; i++) {
+              int t = counts[i][d];
+              counts[i][d] = sum;
+              sum += t;
+            }
+            if (sum - start == n) {
+              trivial = true; // all elements share this digit
+            }
+          }
+          if (trivial) {
+            continue;
+          }
+          for (int i = 0; i < nb; i++) {
+            int lo = so + i * g;
+            tasks[i] = new RadixPass(src, dst, lo, Math.min(lo + g, so + n),
+                shift, counts[i]);
+          }
+          invokeAll(tasks);
+          double[] t = src;
+          src = dst;
+          dst = t;
+          int o = so;
+          so = dso;
+          dso = o;
+        }
+        if (src != a) {
+          System.arraycopy(src, so, a, b, n);
+        }
+      }
+    }
+
+    /**
+     * One block of a radix sort pass: counts the digits of
+     * src[lo, hi) if dst is null, else moves each element to
+     * dst[count[digit]++].
+     */
+    static final class RadixPass extends RecursiveAction {
+
+      static final long serialVersionUID = 2446542900576103244L;
+      final double[] src, dst;
+      final int lo, hi, shift;
+      final int[] count;
+
+      RadixPass(double[] src, double[] dst, int lo, int hi, int shift,
+          int[] count) {
+        this.src = src;
+        this.dst = dst;
+        this.lo = lo;
+        this.hi = hi;
+        this.shift = shift;
+        this.count = count;
+      }
+
+      protected final void compute() {
+        double[] src = this.src, dst = this.dst; // localize all params
+        int[] count = this.count;
+        int shift = this.shift;
+        if (dst == null) {
+          for (int i = lo, e = hi; i < e; i++) {
+            double v = src[i];
+            long k = totalKey(v);
+            ++count[(int) ((k >>> shift) & (RADIX - 1))];
+          }
+        } else {
+          for (int i = lo, e = hi; i < e; i++) {
+            double v = src[i];
+            long k = totalKey(v);
+            dst[count[(int) ((k >>> shift) & (RADIX - 1))]++] = v;
+          }
+        }
+      }
+    }
+
+    /**
+     * Returns a key whose unsigned order is the total order of
+     * Arrays.sort(double[]): -0.0d below 0.0d, and NaNs, which all have
+     * the same key, above positive infinity.
+     */
+    static long totalKey(double d) {
+      long bits = Double.doubleToLongBits(d);
+      return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
   } // FJDouble
 
 }
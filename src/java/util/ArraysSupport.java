@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import sun.misc.Unsafe;
+
+/**
+ * Word-at-a-time helpers for {@link Arrays#mismatch}, {@link Arrays#compare}
+ * and {@link Arrays#equals}. Elements are compared eight bytes at a time by
+ * reading aligned {@code long}s from both arrays, in the manner of the bulk
+ * copy routines of {@code java.nio.Bits}, and the first differing element
+ * is located from the bit position of the difference.
+ *
+ * <p>All methods assume that their indices have already been checked.
+ *
+ * @since 1.8
+ */
+final class ArraysSupport {
+
+  private ArraysSupport() {
+  }
+
+  private static final Unsafe U = Unsafe.getUnsafe();
+
+  /**
+   * Whether the bytes of a long are stored most significant first.
+   */
+  private static final boolean BIG_ENDIAN;
+
+  static {
+    byte[] b = new byte[8];
+    U.putLong(b, (long) Unsafe.ARRAY_BYTE_BASE_OFFSET, 0x0102030405060708L);
+    BIG_ENDIAN = b[0] == 0x01;
+  }
+
+  static final int LOG2_BOOLEAN_SCALE = 0;
+  static final int LOG2_BYTE_SCALE = 0;
+  static final int LOG2_CHAR_SCALE = 1;
+  static final int LOG2_SHORT_SCALE = 1;
+  static final int LOG2_INT_SCALE = 2;
+  static final int LOG2_FLOAT_SCALE = 2;
+  static final int LOG2_LONG_SCALE = 3;
+  static final int LOG2_DOUBLE_SCALE = 3;
+
+  /**
+   * Finds the first differing element of two ranges of {@code length}
+   * elements of size {@code 1 << log2Scale} bytes, starting at the given
+   * offsets from the bases of {@code a} and {@code b}. The comparison is
+   * on raw bits.
+   *
+   * <p>Only whole aligned words are read. A tail of fewer than eight
+   * bytes is left to the caller, as are ranges whose offsets cannot be
+   * aligned at the same time.
+   *
+   * @return the index of the first differing element, or the bitwise
+   * complement of the number of trailing elements left unchecked
+   */
+  static int vectorizedMismatch(Object a, long aOffset, Object b, long bOffset,
+      int length, int log2Scale) {
+    long bytes = (long) length << log2Scale;
+    if (bytes < Long.BYTES || ((aOffset ^ bOffset) & (Long.BYTES - 1)) != 0) {
+      return ~length;
+    }
+    long i = 0;
+    // Bytes before the first aligned word; a multiple of the element size
+    long head = -aOffset & (Long.BYTES - 1);
+    for (; i < head; i++) {
+      if (U.getByte(a, aOffset + i) != U.getByte(b, bOffset + i)) {
+        return (int) (i >> log2Scale);
+      }
+    }
+    for (long end = bytes - Long.BYTES; i <= end; i += Long.BYTES) {
+      long x = U.getLong(a, aOffset + i) ^ U.getLong(b, bOffset + i);
+      if (x != 0) {
+        int bit = BIG_ENDIAN ? Long.numberOfLeadingZeros(x)
+            : Long.numberOfTrailingZeros(x);
+        return (int) ((i + (bit >> 3)) >> log2Scale);
+      }
+    }
+    return ~(int) ((bytes - i) >> log2Scale);
+  }
+
+  // Typed mismatch; return the relative index of the first differing
+  // element of the ranges, or -1 if there is none
+
+  static int mismatch(boolean[] a, int aFromIndex, boolean[] b, int bFromIndex,
+      int length) {
+    int i = vectorizedMismatch(
+        a, Unsafe.ARRAY_BOOLEAN_BASE_OFFSET + aFromIndex,
+        b, Unsafe.ARRAY_BOOLEAN_BASE_OFFSET + bFromIndex,
+        length, LOG2_BOOLEAN_SCALE);
+    if (i >= 0) {
+      return i;
+    }
+    for (i = length - ~i; i < length; i++) {
+      if (a[aFromIndex + i] != b[bFromIndex + i]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  static int mismatch(byte[] a, int aFromIndex, byte[] b, int bFromIndex,
+      int length) {
+    int i = vectorizedMismatch(
+        a, Unsafe.ARRAY_BYTE_BASE_OFFSET + aFromIndex,
+        b, Unsafe.ARRAY_BYTE_BASE_OFFSET + bFromIndex,
+        length, LOG2_BYTE_SCALE);
+    if (i >= 0) {
+      return i;
+    }
+    for (i = length - ~i; i < length; i++) {
+      if (a[aFromIndex + i] != b[bFromIndex + i]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  static int mismatch(char[] a, int aFromIndex, char[] b, int bFromIndex,
+      int length) {
+    int i = vectorizedMismatch(
+        a, Unsafe.ARRAY_CHAR_BASE_OFFSET + ((long) aFromIndex << LOG2_CHAR_SCALE),
+        b, Unsafe.ARRAY_CHAR_BASE_OFFSET + ((long) bFromIndex << LOG2_CHAR_SCALE),
+        length, LOG2_CHAR_SCALE);
+    if (i >= 0) {
+      return i;
+    }
+    for (i = length - ~i; i < length; i++) {
+      if (a[aFromIndex + i] != b[bFromIndex + i]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  static int mismatch(short[] a, int aFromIndex, short[] b, int bFromIndex,
+      int length) {
+    int i = vectorizedMismatch(
+        a, Unsafe.ARRAY_SHORT_BASE_OFFSET + ((long) aFromIndex << LOG2_SHORT_SCALE),
+        b, Unsafe.ARRAY_SHORT_BASE_OFFSET + ((long) bFromIndex << LOG2_SHORT_SCALE),
+        length, LOG2_SHORT_SCALE);
+    if (i >= 0) {
+      return i;
+    }
+    for (i = length - ~i; i < length; i++) {
+      if (a[aFromIndex + i] != b[bFromIndex + i]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  static int mismatch(int[] a, int aFromIndex, int[] b, int bFromIndex,
+      int length) {
+    int i = vectorizedMismatch(
+        a, Unsafe.ARRAY_INT_BASE_OFFSET + ((long) aFromIndex << LOG2_INT_SCALE),
+        b, Unsafe.ARRAY_INT_BASE_OFFSET + ((long) bFromIndex << LOG2_INT_SCALE),
+        length, LOG2_INT_SCALE);
+    if (i >= 0) {
+      return i;
+    }
+    for (i = length - ~i; i < length; i++) {
+      if (a[aFromIndex + i] != b[bFromIndex + i]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  static int mismatch(long[] a, int aFromIndex, long[] b, int bFromIndex,
+      int length) {
+    int i = vectorizedMismatch(
+        a, Unsafe.ARRAY_LONG_BASE_OFFSET + ((long) aFromIndex << LOG2_LONG_SCALE),
+        b, Unsafe.ARRAY_LONG_BASE_OFFSET + ((long) bFromIndex << LOG2_LONG_SCALE),
+        length, LOG2_LONG_SCALE);
+    if (i >= 0) {
+      return i;
+    }
+    for (i = length - ~i; i < length; i++) {
+      if (a[aFromIndex + i] != b[bFromIndex + i]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Float elements are equal if their {@link Float#floatToIntBits} are, so
+   * a raw bit difference only counts if the elements are not both NaN.
+   */
+  static int mismatch(float[] a, int aFromIndex, float[] b, int bFromIndex,
+      int length) {
+    int i = 0;
+    while (i < length) {
+      int r = vectorizedMismatch(
+          a, Unsafe.ARRAY_FLOAT_BASE_OFFSET + ((long) (aFromIndex + i) << LOG2_FLOAT_SCALE),
+          b, Unsafe.ARRAY_FLOAT_BASE_OFFSET + ((long) (bFromIndex + i) << LOG2_FLOAT_SCALE),
+          length - i, LOG2_FLOAT_SCALE);
+      if (r < 0) {
+        i = length - ~r;
+        break;
+      }
+      i += r;
+      if (!Float.isNaN(a[aFromIndex + i]) || !Float.isNaN(b[bFromIndex + i])) {
+        return i;
+      }
+      i++;
+    }
+    for (; i < length; i++) {
+      if (Float.floatToIntBits(a[aFromIndex + i]) !=
+          Float.floatToIntBits(b[bFromIndex + i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Double elements are equal if their {@link Double#doubleToLongBits} are,
+   * so a raw bit difference only counts if the elements are not both NaN.
+   */
+  static int mismatch(double[] a, int aFromIndex, double[] b, int bFromIndex,
+      int length) {
+    int i = 0;
+    while (i < length) {
+      int r = vectorizedMismatch(
+          a, Unsafe.ARRAY_DOUBLE_BASE_OFFSET + ((long) (aFromIndex + i) << LOG2_DOUBLE_SCALE),
+          b, Unsafe.ARRAY_DOUBLE_BASE_OFFSET + ((long) (bFromIndex + i) << LOG2_DOUBLE_SCALE),
+          length - i, LOG2_DOUBLE_SCALE);
+      if (r < 0) {
+        i = length - ~r;
+        break;
+      }
+      i += r;
+      if (!Double.isNaN(a[aFromIndex + i]) || !Double.isNaN(b[bFromIndex + i])) {
+        return i;
+      }
+      i++;
+    }
+    for (; i < length; i++) {
+      if (Double.doubleToLongBits(a[aFromIndex + i]) !=
+          Double.doubleToLongBits(b[bFromIndex + i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,2482 @@
+/*
+ * Copyright (c) 1997, 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.Serializable;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * A B+-tree based {@link NavigableMap} implementation.
+ * The map is sorted according to the {@linkplain Comparable natural
+ * ordering} of its keys, or by a {@link Comparator} provided at map
+ * creation time, depending on which constructor is used.
+ *
+ * <p>Unlike {@link TreeMap}, which allocates one node with parent, left
+ * and right links per mapping, this class keeps up to
+ * {@value #NODE_CAPACITY} keys and values per node in contiguous arrays.
+ * Lookups therefore follow only about log<sub>64</sub>(n) node
+ * references, and all leaves are chained in key order, so that range
+ * scans such as iterating over a {@link #subMap subMap} walk arrays
+ * rather than chasing pointers.  Per-mapping memory overhead is a small
+ * fraction of that of {@code TreeMap}.
+ *
+ * <p>This implementation provides guaranteed log(n) time cost for the
+ * {@code containsKey}, {@code get}, {@code put} and {@code remove}
+ * operations.  In addition, every interior node records the number of
+ * mappings below each of its children, so that the order-statistics
+ * methods {@link #rank rank} and {@link #select select}, as well as
+ * {@code size()} of submaps, also run in log(n) time, and the
+ * spliterators of the collection views split into exactly balanced
+ * halves.  Maps constructed from a {@link SortedMap}, and
+ * {@code putAll} of a {@code SortedMap} with the same ordering into an
+ * empty map, bulk-load the tree bottom-up in linear time.
+ *
+ * <p>This map does not permit {@code null} keys.  Note that the ordering
+ * maintained by a B-tree map, like any sorted map, must be <em>consistent
+ * with {@code equals}</em> if this sorted map is to correctly implement the
+ * {@code Map} interface; see {@link TreeMap} for details.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a map concurrently, and at least one of the
+ * threads modifies the map structurally, it <em>must</em> be synchronized
+ * externally.
+ *
+ * <p>The iterators returned by the {@code iterator} method of the collections
+ * returned by all of this class's "collection view methods" are
+ * <em>fail-fast</em>, in the same way as those of {@code TreeMap}.
+ *
+ * <p>All {@code Map.Entry} pairs returned by the navigation methods of this
+ * class and its views represent snapshots of mappings at the time they were
+ * produced, and do not support the {@code Entry.setValue} method.  Entries
+ * returned by entry set iterators write through to the map.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @see TreeMap
+ * @see BTreeSet
+ * @since 1.8
+ */
+public class BTreeMap<K, V>
+    extends AbstractMap<K, V>
+    implements NavigableMap<K, V>, Cloneable, Serializable {
+
+  private static final long serialVersionUID = 4409231207785628412L;
+
+  /*
+   * Implementation notes.
+   *
+   * This is a B+-tree: all mappings live in Leaf nodes, which are
+   * doubly linked in key order (fields head and tail hold the ends of
+   * the chain). Inner nodes hold n children and n-1 separator keys,
+   * where keys[i] is greater than every key in kids[i] and less than or
+   * equal to every key in kids[i+1]. Separators are not required to be
+   * present in the map; a removal may leave a stale separator behind
+   * that still satisfies this invariant. Every inner node additionally
+   * holds counts[i], the number of mappings below kids[i], which
+   * supports rank/select and O(log n) submap sizes.
+   *
+   * All nodes except the root hold between MIN_OCCUPANCY and
+   * NODE_CAPACITY keys (leaves) or children (inner nodes). Node arrays
+   * have one slot of slack, so that an insertion is always performed
+   * first and an overfull node is split afterwards, and similarly a
+   * removal is performed first and an underfull node then borrows
+   * from or is merged with an adjacent sibling.
+   *
+   * Lookups descend iteratively. Updates record the descent in the
+   * reusable arrays pathNodes and pathIndex so that counts can be
+   * adjusted and splits and merges propagated upwards without
+   * recursion or parent links.
+   *
+   * Positions in the leaf chain are represented by Cursors (a leaf
+   * and an index), which are produced by findNear, firstCursor,
+   * lastCursor and cursorAt. Iterators re-seek by key after
+   * Iterator.remove, since rebalancing may move mappings across
+   * leaves.
+   */
+
+  /**
+   * The maximum number of keys in a leaf and of children of an inner
+   * node.  Must be even and at least 4.
+   */
+  static final int NODE_CAPACITY = 64;
+
+  /**
+   * The minimum number of keys or children of a non-root node.
+   */
+  static final int MIN_OCCUPANCY = NODE_CAPACITY / 2;
+
+  /**
+   * The comparator used to maintain order in this map, or
+   * null if it uses the natural ordering of its keys.
+   *
+   * @serial
+   */
+  final Comparator<? super K> comparator;
+
+  /**
+   * The root node, or null if the map is empty.
+   */
+  transient Node root;
+
+  /**
+   * The first and last leaves of the leaf chain.
+   */
+  transient Leaf head, tail;
+
+  /**
+   * The number of inner levels above the leaves.
+   */
+  transient int height;
+
+  /**
+   * The number of entries in the tree.
+   */
+  transient int size;
+
+  /**
+   * The number of structural modifications to the tree.
+   */
+  transient int modCount;
+
+  /**
+   * Scratch space recording the inner nodes and child indices visited
+   * by an update.  Lazily (re)allocated to hold at least height + 1
+   * elements.
+   */
+  private transient Inner[] pathNodes;
+  private transient int[] pathIndex;
+
+  // views
+  private transient EntrySet entrySet;
+  private transient KeySet<K> navigableKeySet;
+  private transient NavigableMap<K, V> descendingMap;
+
+  /* ---------------- Nodes -------------- */
+
+  /**
+   * Base class of tree nodes.
+   */
+  abstract static class Node {
+    /** Number of keys (leaves) or children (inner nodes). */
+    int n;
+    final Object[] keys;
+
+    Node(int keyCapacity) {
+      keys = new Object[keyCapacity];
+    }
+  }
+
+  /**
+   * Leaf nodes, holding keys and values in parallel arrays.
+   */
+  static final class Leaf extends Node {
+    final Object[] vals;
+    Leaf prev, next;
+
+    Leaf() {
+      super(NODE_CAPACITY + 1);
+      vals = new Object[NODE_CAPACITY + 1];
+    }
+  }
+
+  /**
+   * Inner nodes, holding children, separators and subtree sizes.
+   */
+  static final class Inner extends Node {
+    final Node[] kids;
+    final int[] counts;
+
+    Inner() {
+      super(NODE_CAPACITY);
+      kids = new Node[NODE_CAPACITY + 1];
+      counts = new int[NODE_CAPACITY + 1];
+    }
+  }
+
+  /**
+   * A position in the leaf chain.
+   */
+  static final class Cursor {
+    final Leaf leaf;
+    final int index;
+
+    Cursor(Leaf leaf, int index) {
+      this.leaf = leaf;
+      this.index = index;
+    }
+
+    Object key() {
+      return leaf.keys[index];
+    }
+
+    Object value() {
+      return leaf.vals[index];
+    }
+  }
+
+  /* ---------------- Constructors -------------- */
+
+  /**
+   * Constructs a new, empty map, using the natural ordering of its
+   * keys.  All keys inserted into the map must implement the {@link
+   * Comparable} interface and be mutually comparable.
+   */
+  public BTreeMap() {
+    comparator = null;
+  }
+
+  /**
+   * Constructs a new, empty map, ordered according to the given
+   * comparator.
+   *
+   * @param comparator the comparator that will be used to order this map. If {@code null}, the
+   * {@linkplain Comparable natural ordering} of the keys will be used.
+   */
+  public BTreeMap(Comparator<? super K> comparator) {
+    this.comparator = comparator;
+  }
+
+  /**
+   * Constructs a new map containing the same mappings as the given
+   * map, ordered according to the <em>natural ordering</em> of its keys.
+   * This method runs in n*log(n) time, or in linear time if the given
+   * map is a {@link SortedMap} using natural ordering.
+   *
+   * @param m the map whose mappings are to be placed in this map
+   * @throws ClassCastException if the keys in m are not {@link Comparable}, or are not mutually
+   * comparable
+   * @throws NullPointerException if the specified map is null or contains a null key
+   */
+  public BTreeMap(Map<? extends K, ? extends V> m) {
+    comparator = null;
+    putAll(m);
+  }
+
+  /**
+   * Constructs a new map containing the same mappings and using the
+   * same ordering as the specified sorted map.  The tree is bulk-loaded
+   * bottom-up with fully packed nodes, so this method runs in linear
+   * time.
+   *
+   * @param m the sorted map whose mappings are to be placed in this map, and whose comparator is to
+   * be used to sort this map
+   * @throws NullPointerException if the specified map is null or contains a null key
+   */
+  public BTreeMap(SortedMap<K, ? extends V> m) {
+    comparator = m.comparator();
+    try {
+      buildFromSorted(m.size(), m.entrySet().iterator(), null, null);
+    } catch (java.io.IOException cannotHappen) {
+    } catch (ClassNotFoundException cannotHappen) {
+    }
+  }
+
+  /* ---------------- Searching -------------- */
+
+  /**
+   * Relation bits for findNear, as in ConcurrentSkipListMap.
+   */
+  static final int EQ = 1;
+  static final int LT = 2;
+  static final int GT = 0; // Actually checked as !LT
+
+  /**
+   * Compares using comparator or natural ordering if null.
+   * Called only by methods that have performed required type checks.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static final int cpr(Comparator c, Object x, Object y) {
+    return (c != null) ? c.compare(x, y) : ((Comparable) x).compareTo(y);
+  }
+
+  /**
+   * Returns the index of the child of x that may contain key, that is,
+   * the number of separators of x less than or equal to key.
+   */
+  static int childIndex(Inner x, Object key, Comparator<?> cmp) {
+    Object[] ks = x.keys;
+    int lo = 0, hi = x.n - 1;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (cpr(cmp, key, ks[mid]) >= 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Binary search of a leaf, with the same result convention as
+   * {@link Arrays#binarySearch(Object[], Object)}.
+   */
+  static int search(Leaf x, Object key, Comparator<?> cmp) {
+    Object[] ks = x.keys;
+    int lo = 0, hi = x.n - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1, c = cpr(cmp, ks[mid], key);
+      if (c < 0) {
+        lo = mid + 1;
+      } else if (c > 0) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(lo + 1);
+  }
+
+  /**
+   * Returns the leaf that may contain key, or null if empty.
+   */
+  final Leaf leafFor(Object key) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    Comparator<? super K> cmp = comparator;
+    Node x = root;
+    while (x instanceof Inner) {
+      Inner in = (Inner) x;
+      x = in.kids[childIndex(in, key, cmp)];
+    }
+    return (Leaf) x;
+  }
+
+  /**
+   * Returns the position of the mapping for key, or null if none.
+   */
+  final Cursor findCursor(Object key) {
+    Leaf leaf = leafFor(key);
+    int j;
+    return (leaf == null || (j = search(leaf, key, comparator)) < 0) ?
+        null : new Cursor(leaf, j);
+  }
+
+  /**
+   * Utility for ceiling, floor, lower, higher methods.
+   *
+   * @param key the key
+   * @param rel the relation -- OR'ed combination of EQ, LT, GT
+   * @return the position of the nearest mapping fitting relation, or null if no such
+   */
+  final Cursor findNear(Object key, int rel) {
+    Leaf leaf = leafFor(key);
+    if (leaf == null) {
+      return null;
+    }
+    int j = search(leaf, key, comparator), i;
+    if (j >= 0) {
+      i = ((rel & EQ) != 0) ? j : ((rel & LT) != 0) ? j - 1 : j + 1;
+    } else {
+      i = ((rel & LT) != 0) ? -(j + 1) - 1 : -(j + 1);
+    }
+    if (i < 0) {
+      if ((leaf = leaf.prev) == null) {
+        return null;
+      }
+      i = leaf.n - 1;
+    } else if (i >= leaf.n) {
+      if ((leaf = leaf.next) == null) {
+        return null;
+      }
+      i = 0;
+    }
+    return new Cursor(leaf, i);
+  }
+
+  final Cursor firstCursor() {
+    Leaf h = head;
+    return (h == null) ? null : new Cursor(h, 0);
+  }
+
+  final Cursor lastCursor() {
+    Leaf t = tail;
+    return (t == null) ? null : new Cursor(t, t.n - 1);
+  }
+
+  /**
+   * Returns the position of the mapping with the given rank.
+   */
+  final Cursor cursorAt(int index) {
+    Node x = root;
+    while (x instanceof Inner) {
+      Inner in = (Inner) x;
+      int[] cs = in.counts;
+      int i = 0;
+      while (index >= cs[i]) {
+        index -= cs[i++];
+      }
+      x = in.kids[i];
+    }
+    return new Cursor((Leaf) x, index);
+  }
+
+  /**
+   * Returns the number of keys less than (or, if inclusive, less than
+   * or equal to) the given key.
+   */
+  final int countBelow(Object key, boolean inclusive) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    Comparator<? super K> cmp = comparator;
+    Node x = root;
+    if (x == null) {
+      return 0;
+    }
+    int r = 0;
+    while (x instanceof Inner) {
+      Inner in = (Inner) x;
+      int i = childIndex(in, key, cmp);
+      int[] cs = in.counts;
+      for (int k = 0; k < i; ++k) {
+        r += cs[k];
+      }
+      x = in.kids[i];
+    }
+    int j = search((Leaf) x, key, cmp);
+    return r + ((j < 0) ? -(j + 1) : inclusive ? j + 1 : j);
+  }
+
+  /**
+   * Returns the scratch path arrays, grown to the current height.
+   */
+  private Inner[] path() {
+    Inner[] p = pathNodes;
+    if (p == null || p.length <= height) {
+      pathIndex = new int[height + 4];
+      p = pathNodes = new Inner[height + 4];
+    }
+    return p;
+  }
+
+  /* ---------------- Query Operations -------------- */
+
+  /**
+   * Returns the number of key-value mappings in this map.
+   *
+   * @return the number of key-value mappings in this map
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns {@code true} if this map contains a mapping for the specified
+   * key.
+   *
+   * @param key key whose presence in this map is to be tested
+   * @return {@code true} if this map contains a mapping for the specified key
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   * the map
+   * @throws NullPointerException if the specified key is null
+   */
+  public boolean containsKey(Object key) {
+    return findCursor(key) != null;
+  }
+
+  /**
+   * Returns {@code true} if this map maps one or more keys to the
+   * specified value.  This operation scans the leaf arrays in linear
+   * time.
+   *
+   * @param value value whose presence in this map is to be tested
+   * @return {@code true} if a mapping to {@code value} exists; {@code false} otherwise
+   */
+  public boolean containsValue(Object value) {
+    for (Leaf l = head; l != null; l = l.next) {
+      Object[] vs = l.vals;
+      for (int i = 0, n = l.n; i < n; ++i) {
+        if (Objects.equals(value, vs[i])) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the value to which the specified key is mapped,
+   * or {@code null} if this map contains no mapping for the key.
+   *
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   * the map
+   * @throws NullPointerException if the specified key is null
+   */
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    Leaf leaf = leafFor(key);
+    int j;
+    return (leaf == null || (j = search(leaf, key, comparator)) < 0) ?
+        null : (V) leaf.vals[j];
+  }
+
+  public Comparator<? super K> comparator() {
+    return comparator;
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  public K firstKey() {
+    return key(firstCursor());
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  public K lastKey() {
+    return key(lastCursor());
+  }
+
+  /**
+   * Returns the number of keys in this map strictly less than the given
+   * key, which is also the index the key has or would have in the
+   * iteration order of this map.  This method runs in log(n) time.
+   *
+   * @param key the key
+   * @return the number of keys less than {@code key}
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   * the map
+   * @throws NullPointerException if the specified key is null
+   */
+  public int rank(Object key) {
+    return countBelow(key, false);
+  }
+
+  /**
+   * Returns the key at the given index in the iteration order of this
+   * map, that is, the key whose {@link #rank rank} is {@code index}.
+   * This method runs in log(n) time.
+   *
+   * @param index the index of the key to return
+   * @return the key at the given index
+   * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@code size()}
+   */
+  @SuppressWarnings("unchecked")
+  public K select(int index) {
+    checkIndex(index);
+    return (K) cursorAt(index).key();
+  }
+
+  /**
+   * Returns a key-value mapping associated with the key at the given
+   * index in the iteration order of this map.
+   *
+   * @param index the index of the mapping to return
+   * @return a snapshot of the mapping at the given index
+   * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@code size()}
+   */
+  public Map.Entry<K, V> selectEntry(int index) {
+    checkIndex(index);
+    return exportEntry(cursorAt(index));
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  /* ---------------- Modification Operations -------------- */
+
+  /**
+   * Copies all of the mappings from the specified map to this map.
+   * If this map is empty and the specified map is a sorted map with the
+   * same ordering, the tree is bulk-loaded in linear time.
+   *
+   * @param map mappings to be stored in this map
+   * @throws ClassCastException if the class of a key or value in the specified map prevents it from
+   * being stored in this map
+   * @throws NullPointerException if the specified map is null or the specified map contains a null
+   * key
+   */
+  public void putAll(Map<? extends K, ? extends V> map) {
+    int mapSize = map.size();
+    if (size == 0 && mapSize != 0 && map instanceof SortedMap) {
+      Comparator<?> c = ((SortedMap<?, ?>) map).comparator();
+      if (c == comparator || (c != null && c.equals(comparator))) {
+        ++modCount;
+        try {
+          buildFromSorted(mapSize, map.entrySet().iterator(),
+              null, null);
+        } catch (java.io.IOException cannotHappen) {
+        } catch (ClassNotFoundException cannotHappen) {
+        }
+        return;
+      }
+    }
+    super.putAll(map);
+  }
+
+  /**
+   * Associates the specified value with the specified key in this map.
+   * If the map previously contained a mapping for the key, the old
+   * value is replaced.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return the previous value associated with {@code key}, or {@code null} if there was no
+   * mapping for {@code key}.
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   * the map
+   * @throws NullPointerException if the specified key is null
+   */
+  public V put(K key, V value) {
+    return putVal(key, value, false);
+  }
+
+  @Override
+  public V putIfAbsent(K key, V value) {
+    return putVal(key, value, true);
+  }
+
+  /**
+   * Implements put and putIfAbsent.
+   */
+  @SuppressWarnings("unchecked")
+  final V putVal(K key, V value, boolean onlyIfAbsent) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    Comparator<? super K> cmp = comparator;
+    Node x = root;
+    if (x == null) {
+      cpr(cmp, key, key); // type check
+      Leaf l = new Leaf();
+      l.keys[0] = key;
+      l.vals[0] = value;
+      l.n = 1;
+      root = head = tail = l;
+      height = 0;
+      size = 1;
+      ++modCount;
+      return null;
+    }
+    Inner[] path = path();
+    int[] pidx = pathIndex;
+    int d = 0;
+    while (x instanceof Inner) {
+      Inner in = (Inner) x;
+      int i = childIndex(in, key, cmp);
+      path[d] = in;
+      pidx[d++] = i;
+      x = in.kids[i];
+    }
+    Leaf leaf = (Leaf) x;
+    int j = search(leaf, key, cmp);
+    if (j >= 0) {
+      V old = (V) leaf.vals[j];
+      if (!onlyIfAbsent || old == null) {
+        leaf.vals[j] = value;
+      }
+      return old;
+    }
+    j = -(j + 1);
+    for (int k = 0; k < d; ++k) {
+      path[k].counts[pidx[k]]++;
+    }
+    int n = leaf.n;
+    System.arraycopy(leaf.keys, j, leaf.keys, j + 1, n - j);
+    System.arraycopy(leaf.vals, j, leaf.vals, j + 1, n - j);
+    leaf.keys[j] = key;
+    leaf.vals[j] = value;
+    leaf.n = n + 1;
+    ++size;
+    ++modCount;
+    if (n + 1 > NODE_CAPACITY) {
+      splitUpwards(leaf, d);
+    }
+    return null;
+  }
+
+  /**
+   * Splits the overfull node x, found at depth d of the recorded path,
+   * and propagates the split towards the root as far as needed.
+   */
+  private void splitUpwards(Node x, int d) {
+    for (; ; ) {
+      Node right;
+      Object sep;
+      int leftCount, rightCount;
+      int n = x.n, m = n >>> 1;
+      if (x instanceof Leaf) {
+        Leaf l = (Leaf) x, r = new Leaf();
+        System.arraycopy(l.keys, m, r.keys, 0, n - m);
+        System.arraycopy(l.vals, m, r.vals, 0, n - m);
+        Arrays.fill(l.keys, m, n, null);
+        Arrays.fill(l.vals, m, n, null);
+        l.n = m;
+        r.n = n - m;
+        if ((r.next = l.next) != null) {
+          r.next.prev = r;
+        } else {
+          tail = r;
+        }
+        r.prev = l;
+        l.next = r;
+        right = r;
+        sep = r.keys[0];
+        leftCount = m;
+        rightCount = n - m;
+      } else {
+        Inner l = (Inner) x, r = new Inner();
+        sep = l.keys[m - 1];
+        System.arraycopy(l.keys, m, r.keys, 0, n - m - 1);
+        System.arraycopy(l.kids, m, r.kids, 0, n - m);
+        System.arraycopy(l.counts, m, r.counts, 0, n - m);
+        Arrays.fill(l.keys, m - 1, n - 1, null);
+        Arrays.fill(l.kids, m, n, null);
+        leftCount = rightCount = 0;
+        for (int k = 0; k < m; ++k) {
+          leftCount += l.counts[k];
+        }
+        for (int k = m; k < n; ++k) {
+          rightCount += l.counts[k];
+          l.counts[k] = 0;
+        }
+        l.n = m;
+        r.n = n - m;
+        right = r;
+      }
+      if (d == 0) {
+        Inner nr = new Inner();
+        nr.kids[0] = x;
+        nr.kids[1] = right;
+        nr.keys[0] = sep;
+        nr.counts[0] = leftCount;
+        nr.counts[1] = rightCount;
+        nr.n = 2;
+        root = nr;
+        ++height;
+        return;
+      }
+      Inner p = pathNodes[--d];
+      int i = pathIndex[d], pn = p.n;
+      System.arraycopy(p.keys, i, p.keys, i + 1, pn - 1 - i);
+      System.arraycopy(p.kids, i + 1, p.kids, i + 2, pn - 1 - i);
+      System.arraycopy(p.counts, i + 1, p.counts, i + 2, pn - 1 - i);
+      p.keys[i] = sep;
+      p.kids[i + 1] = right;
+      p.counts[i] = leftCount;
+      p.counts[i + 1] = rightCount;
+      if ((p.n = pn + 1) <= NODE_CAPACITY) {
+        return;
+      }
+      x = p;
+    }
+  }
+
+  /**
+   * Removes the mapping for this key from this map if present.
+   *
+   * @param key key for which mapping should be removed
+   * @return the previous value associated with {@code key}, or {@code null} if there was no
+   * mapping for {@code key}.
+   * @throws ClassCastException if the specified key cannot be compared with the keys currently in
+   * the map
+   * @throws NullPointerException if the specified key is null
+   */
+  public V remove(Object key) {
+    return removeKey(key);
+  }
+
+  /**
+   * Removes the mapping for key, rebalancing as needed.
+   *
+   * @return the previous value, or null if none
+   */
+  @SuppressWarnings("unchecked")
+  final V removeKey(Object key) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    Comparator<? super K> cmp = comparator;
+    Node x = root;
+    if (x == null) {
+      return null;
+    }
+    Inner[] path = path();
+    int[] pidx = pathIndex;
+    int d = 0;
+    while (x instanceof Inner) {
+      Inner in = (Inner) x;
+      int i = childIndex(in, key, cmp);
+      path[d] = in;
+      pidx[d++] = i;
+      x = in.kids[i];
+    }
+    Leaf leaf = (Leaf) x;
+    int j = search(leaf, key, cmp);
+    if (j < 0) {
+      return null;
+    }
+    V old = (V) leaf.vals[j];
+    for (int k = 0; k < d; ++k) {
+      path[k].counts[pidx[k]]--;
+    }
+    int n = leaf.n - 1;
+    System.arraycopy(leaf.keys, j + 1, leaf.keys, j, n - j);
+    System.arraycopy(leaf.vals, j + 1, leaf.vals, j, n - j);
+    leaf.keys[n] = null;
+    leaf.vals[n] = null;
+    leaf.n = n;
+    --size;
+    ++modCount;
+    if (d == 0) {
+      if (n == 0) {
+        root = head = tail = null;
+      }
+    } else if (n < MIN_OCCUPANCY) {
+      rebalance(leaf, d);
+    }
+    return old;
+  }
+
+  /**
+   * Restores minimum occupancy of node x, found at depth d > 0 of the
+   * recorded path, by borrowing from or merging with a sibling, and
+   * propagates merges towards the root as far as needed.
+   */
+  private void rebalance(Node x, int d) {
+    while (d > 0 && x.n < MIN_OCCUPANCY) {
+      Inner p = pathNodes[--d];
+      int i = pathIndex[d];
+      if (i > 0 && p.kids[i - 1].n > MIN_OCCUPANCY) {
+        borrowFromLeft(p, i);
+        return;
+      }
+      if (i < p.n - 1 && p.kids[i + 1].n > MIN_OCCUPANCY) {
+        borrowFromRight(p, i);
+        return;
+      }
+      merge(p, (i > 0) ? i - 1 : i);
+      x = p;
+    }
+    Node r = root;
+    if (r instanceof Inner && r.n == 1) {
+      root = ((Inner) r).kids[0];
+      --height;
+    }
+  }
+
+  /**
+   * Moves the last mapping or child of p.kids[i-1] to p.kids[i].
+   */
+  private static void borrowFromLeft(Inner p, int i) {
+    Node x = p.kids[i], l = p.kids[i - 1];
+    int xn = x.n, ln = l.n;
+    if (x instanceof Leaf) {
+      Leaf lx = (Leaf) x, ll = (Leaf) l;
+      System.arraycopy(lx.keys, 0, lx.keys, 1, xn);
+      System.arraycopy(lx.vals, 0, lx.vals, 1, xn);
+      lx.keys[0] = ll.keys[ln - 1];
+      lx.vals[0] = ll.vals[ln - 1];
+      ll.keys[ln - 1] = null;
+      ll.vals[ln - 1] = null;
+      p.keys[i - 1] = lx.keys[0];
+      p.counts[i - 1]--;
+      p.counts[i]++;
+    } else {
+      Inner ix = (Inner) x, il = (Inner) l;
+      int c = il.counts[ln - 1];
+      System.arraycopy(ix.keys, 0, ix.keys, 1, xn - 1);
+      System.arraycopy(ix.kids, 0, ix.kids, 1, xn);
+      System.arraycopy(ix.counts, 0, ix.counts, 1, xn);
+      ix.keys[0] = p.keys[i - 1];
+      ix.kids[0] = il.kids[ln - 1];
+      ix.counts[0] = c;
+      p.keys[i - 1] = il.keys[ln - 2];
+      il.keys[ln - 2] = null;
+      il.kids[ln - 1] = null;
+      il.counts[ln - 1] = 0;
+      p.counts[i - 1] -= c;
+      p.counts[i] += c;
+    }
+    x.n = xn + 1;
+    l.n = ln - 1;
+  }
+
+  /**
+   * Moves the first mapping or child of p.kids[i+1] to p.kids[i].
+   */
+  private static void borrowFromRight(Inner p, int i) {
+    Node x = p.kids[i], r = p.kids[i + 1];
+    int xn = x.n, rn = r.n;
+    if (x instanceof Leaf) {
+      Leaf lx = (Leaf) x, lr = (Leaf) r;
+      lx.keys[xn] = lr.keys[0];
+      lx.vals[xn] = lr.vals[0];
+      System.arraycopy(lr.keys, 1, lr.keys, 0, rn - 1);
+      System.arraycopy(lr.vals, 1, lr.vals, 0, rn - 1);
+      lr.keys[rn - 1] = null;
+      lr.vals[rn - 1] = null;
+      p.keys[i] = lr.keys[0];
+      p.counts[i]++;
+      p.counts[i + 1]--;
+    } else {
+      Inner ix = (Inner) x, ir = (Inner) r;
+      int c = ir.counts[0];
+      ix.keys[xn - 1] = p.keys[i];
+      ix.kids[xn] = ir.kids[0];
+      ix.counts[xn] = c;
+      p.keys[i] = ir.keys[0];
+      System.arraycopy(ir.keys, 1, ir.keys, 0, rn - 2);
+      System.arraycopy(ir.kids, 1, ir.kids, 0, rn - 1);
+      System.arraycopy(ir.counts, 1, ir.counts, 0, rn - 1);
+      ir.keys[rn - 2] = null;
+      ir.kids[rn - 1] = null;
+      ir.counts[rn - 1] = 0;
+      p.counts[i] += c;
+      p.counts[i + 1] -= c;
+    }
+    x.n = xn + 1;
+    r.n = rn - 1;
+  }
+
+  /**
+   * Merges p.kids[k+1] into p.kids[k] and removes it from p.
+   */
+  private void merge(Inner p, int k) {
+    Node a = p.kids[k], b = p.kids[k + 1];
+    int an = a.n, bn = b.n;
+    if (a instanceof Leaf) {
+      Leaf la = (Leaf) a, lb = (Leaf) b;
+      System.arraycopy(lb.keys, 0, la.keys, an, bn);
+      System.arraycopy(lb.vals, 0, la.vals, an, bn);
+      if ((la.next = lb.next) != null) {
+        la.next.prev = la;
+      } else {
+        tail = la;
+      }
+    } else {
+      Inner ia = (Inner) a, ib = (Inner) b;
+      ia.keys[an - 1] = p.keys[k];
+      System.arraycopy(ib.keys, 0, ia.keys, an, bn - 1);
+      System.arraycopy(ib.kids, 0, ia.kids, an, bn);
+      System.arraycopy(ib.counts, 0, ia.counts, an, bn);
+    }
+    a.n = an + bn;
+    int pn = p.n;
+    p.counts[k] += p.counts[k + 1];
+    System.arraycopy(p.keys, k + 1, p.keys, k, pn - 2 - k);
+    System.arraycopy(p.kids, k + 2, p.kids, k + 1, pn - 2 - k);
+    System.arraycopy(p.counts, k + 2, p.counts, k + 1, pn - 2 - k);
+    p.keys[pn - 2] = null;
+    p.kids[pn - 1] = null;
+    p.counts[pn - 1] = 0;
+    p.n = pn - 1;
+  }
+
+  /**
+   * Removes all of the mappings from this map.
+   * The map will be empty after this call returns.
+   */
+  public void clear() {
+    modCount++;
+    size = 0;
+    height = 0;
+    root = head = tail = null;
+  }
+
+  /**
+   * Returns a shallow copy of this {@code BTreeMap} instance. (The keys and
+   * values themselves are not cloned.)
+   *
+   * @return a shallow copy of this map
+   */
+  public Object clone() {
+    BTreeMap<?, ?> clone;
+    try {
+      clone = (BTreeMap<?, ?>) super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new InternalError(e);
+    }
+
+    // Put clone into "virgin" state (except for comparator)
+    clone.root = clone.head = clone.tail = null;
+    clone.size = clone.height = clone.modCount = 0;
+    clone.pathNodes = null;
+    clone.pathIndex = null;
+    clone.entrySet = null;
+    clone.navigableKeySet = null;
+    clone.descendingMap = null;
+
+    // Initialize clone with our mappings
+    try {
+      clone.buildFromSorted(size, entrySet().iterator(), null, null);
+    } catch (java.io.IOException cannotHappen) {
+    } catch (ClassNotFoundException cannotHappen) {
+    }
+
+    return clone;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    Objects.requireNonNull(action);
+    int expectedModCount = modCount;
+    for (Leaf l = head; l != null; l = l.next) {
+      Object[] ks = l.keys, vs = l.vals;
+      for (int i = 0; i < l.n; ++i) {
+        action.accept((K) ks[i], (V) vs[i]);
+        if (expectedModCount != modCount) {
+          throw new ConcurrentModificationException();
+        }
+      }
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+    Objects.requireNonNull(function);
+    int expectedModCount = modCount;
+    for (Leaf l = head; l != null; l = l.next) {
+      Object[] ks = l.keys, vs = l.vals;
+      for (int i = 0; i < l.n; ++i) {
+        vs[i] = function.apply((K) ks[i], (V) vs[i]);
+        if (expectedModCount != modCount) {
+          throw new ConcurrentModificationException();
+        }
+      }
+    }
+  }
+
+  /* ---------------- NavigableMap API methods -------------- */
+
+  public Map.Entry<K, V> firstEntry() {
+    return exportEntry(firstCursor());
+  }
+
+  public Map.Entry<K, V> lastEntry() {
+    return exportEntry(lastCursor());
+  }
+
+  public Map.Entry<K, V> pollFirstEntry() {
+    Map.Entry<K, V> result = exportEntry(firstCursor());
+    if (result != null) {
+      removeKey(result.getKey());
+    }
+    return result;
+  }
+
+  public Map.Entry<K, V> pollLastEntry() {
+    Map.Entry<K, V> result = exportEntry(lastCursor());
+    if (result != null) {
+      removeKey(result.getKey());
+    }
+    return result;
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  public Map.Entry<K, V> lowerEntry(K key) {
+    return exportEntry(findNear(key, LT));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  public K lowerKey(K key) {
+    return keyOrNull(findNear(key, LT));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  public Map.Entry<K, V> floorEntry(K key) {
+    return exportEntry(findNear(key, LT | EQ));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  public K floorKey(K key) {
+    return keyOrNull(findNear(key, LT | EQ));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  public Map.Entry<K, V> ceilingEntry(K key) {
+    return exportEntry(findNear(key, GT | EQ));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  public K ceilingKey(K key) {
+    return keyOrNull(findNear(key, GT | EQ));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  public Map.Entry<K, V> higherEntry(K key) {
+    return exportEntry(findNear(key, GT));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified key is null
+   */
+  public K higherKey(K key) {
+    return keyOrNull(findNear(key, GT));
+  }
+
+  /* ---------------- Views -------------- */
+
+  /**
+   * Returns a {@link Set} view of the keys contained in this map, in
+   * ascending order.  The set is backed by the map, so changes to the
+   * map are reflected in the set, and vice-versa.
+   */
+  public Set<K> keySet() {
+    return navigableKeySet();
+  }
+
+  public NavigableSet<K> navigableKeySet() {
+    KeySet<K> nks = navigableKeySet;
+    return (nks != null) ? nks : (navigableKeySet = new KeySet<>(this));
+  }
+
+  public NavigableSet<K> descendingKeySet() {
+    return descendingMap().navigableKeySet();
+  }
+
+  /**
+   * Returns a {@link Collection} view of the values contained in this map,
+   * in the ascending order of the corresponding keys.
+   */
+  public Collection<V> values() {
+    Collection<V> vs = values;
+    return (vs != null) ? vs : (values = new Values<>(this));
+  }
+
+  /**
+   * Returns a {@link Set} view of the mappings contained in this map, in
+   * ascending key order.
+   */
+  public Set<Map.Entry<K, V>> entrySet() {
+    EntrySet es = entrySet;
+    return (es != null) ? es : (entrySet = new EntrySet());
+  }
+
+  public NavigableMap<K, V> descendingMap() {
+    NavigableMap<K, V> km = descendingMap;
+    return (km != null) ? km :
+        (descendingMap = new SubMap<>(this, null, false, null, false, true));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromKey} or {@code toKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive,
+      K toKey, boolean toInclusive) {
+    if (fromKey == null || toKey == null) {
+      throw new NullPointerException();
+    }
+    return new SubMap<>(this, fromKey, fromInclusive, toKey, toInclusive,
+        false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code toKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+    if (toKey == null) {
+      throw new NullPointerException();
+    }
+    return new SubMap<>(this, null, false, toKey, inclusive, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+    if (fromKey == null) {
+      throw new NullPointerException();
+    }
+    return new SubMap<>(this, fromKey, inclusive, null, false, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromKey} or {@code toKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public SortedMap<K, V> subMap(K fromKey, K toKey) {
+    return subMap(fromKey, true, toKey, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code toKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public SortedMap<K, V> headMap(K toKey) {
+    return headMap(toKey, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromKey} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public SortedMap<K, V> tailMap(K fromKey) {
+    return tailMap(fromKey, true);
+  }
+
+  // Factory methods for iterators and spliterators, shared with SubMap
+
+  Iterator<K> keyIterator() {
+    return new KeyIterator(firstCursor(), null, false);
+  }
+
+  Iterator<V> valueIterator() {
+    return new ValueIterator(firstCursor(), null, false);
+  }
+
+  Iterator<Map.Entry<K, V>> entryIterator() {
+    return new EntryIterator(firstCursor(), null, false);
+  }
+
+  class Values<E> extends AbstractCollection<V> {
+
+    final NavigableMap<?, V> m;
+
+    Values(NavigableMap<?, V> m) {
+      this.m = m;
+    }
+
+    public Iterator<V> iterator() {
+      return (m == BTreeMap.this) ? valueIterator() :
+          ((SubMap<?, V>) m).valueIterator();
+    }
+
+    public int size() {
+      return m.size();
+    }
+
+    public boolean contains(Object o) {
+      return m.containsValue(o);
+    }
+
+    public void clear() {
+      m.clear();
+    }
+
+    public Spliterator<V> spliterator() {
+      return (m == BTreeMap.this) ?
+          new BTreeSpliterator<>(BTreeMap.this, 0, -1, VALUES) :
+          ((SubMap<?, V>) m).valueSpliterator();
+    }
+  }
+
+  class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+    public Iterator<Map.Entry<K, V>> iterator() {
+      return entryIterator();
+    }
+
+    public boolean contains(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+      Cursor c = findCursor(entry.getKey());
+      return c != null && Objects.equals(c.value(), entry.getValue());
+    }
+
+    public boolean remove(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+      Cursor c = findCursor(entry.getKey());
+      if (c != null && Objects.equals(c.value(), entry.getValue())) {
+        removeKey(entry.getKey());
+        return true;
+      }
+      return false;
+    }
+
+    public int size() {
+      return BTreeMap.this.size();
+    }
+
+    public void clear() {
+      BTreeMap.this.clear();
+    }
+
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+      return new BTreeSpliterator<>(BTreeMap.this, 0, -1, ENTRIES);
+    }
+  }
+
+  static final class KeySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+
+    final NavigableMap<E, ?> m;
+
+    KeySet(NavigableMap<E, ?> map) {
+      m = map;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+      if (m instanceof BTreeMap) {
+        return ((BTreeMap<E, ?>) m).keyIterator();
+      } else {
+        return ((BTreeMap.SubMap<E, ?>) m).keyIterator();
+      }
+    }
+
+    public Iterator<E> descendingIterator() {
+      return descendingSet().iterator();
+    }
+
+    public int size() {
+      return m.size();
+    }
+
+    public boolean isEmpty() {
+      return m.isEmpty();
+    }
+
+    public boolean contains(Object o) {
+      return m.containsKey(o);
+    }
+
+    public void clear() {
+      m.clear();
+    }
+
+    public E lower(E e) {
+      return m.lowerKey(e);
+    }
+
+    public E floor(E e) {
+      return m.floorKey(e);
+    }
+
+    public E ceiling(E e) {
+      return m.ceilingKey(e);
+    }
+
+    public E higher(E e) {
+      return m.higherKey(e);
+    }
+
+    public E first() {
+      return m.firstKey();
+    }
+
+    public E last() {
+      return m.lastKey();
+    }
+
+    public Comparator<? super E> comparator() {
+      return m.comparator();
+    }
+
+    public E pollFirst() {
+      Map.Entry<E, ?> e = m.pollFirstEntry();
+      return (e == null) ? null : e.getKey();
+    }
+
+    public E pollLast() {
+      Map.Entry<E, ?> e = m.pollLastEntry();
+      return (e == null) ? null : e.getKey();
+    }
+
+    public boolean remove(Object o) {
+      int oldSize = size();
+      m.remove(o);
+      return size() != oldSize;
+    }
+
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive,
+        E toElement, boolean toInclusive) {
+      return new KeySet<>(m.subMap(fromElement, fromInclusive,
+          toElement, toInclusive));
+    }
+
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+      return new KeySet<>(m.headMap(toElement, inclusive));
+    }
+
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+      return new KeySet<>(m.tailMap(fromElement, inclusive));
+    }
+
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+      return subSet(fromElement, true, toElement, false);
+    }
+
+    public SortedSet<E> headSet(E toElement) {
+      return headSet(toElement, false);
+    }
+
+    public SortedSet<E> tailSet(E fromElement) {
+      return tailSet(fromElement, true);
+    }
+
+    public NavigableSet<E> descendingSet() {
+      return new KeySet<>(m.descendingMap());
+    }
+
+    @SuppressWarnings("unchecked")
+    public Spliterator<E> spliterator() {
+      if (m instanceof BTreeMap) {
+        BTreeMap<E, ?> bm = (BTreeMap<E, ?>) m;
+        return new BTreeSpliterator<>(bm, 0, -1, KEYS);
+      } else {
+        return ((BTreeMap.SubMap<E, ?>) m).keySpliterator();
+      }
+    }
+  }
+
+  /**
+   * Base class for iterators over the leaf chain, optionally limited to
+   * the range of a submap, in either direction.
+   */
+  abstract class Iter<T> implements Iterator<T> {
+
+    /**
+     * The leaf holding the next mapping, or null at the end
+     */
+    Leaf next;
+    int nextIndex;
+    /**
+     * The key last returned by next(), for remove()
+     */
+    Object lastKey;
+    boolean canRemove;
+    int expectedModCount;
+    final SubMap<K, V> range;
+    final boolean descending;
+
+    Iter(Cursor first, SubMap<K, V> range, boolean descending) {
+      this.range = range;
+      this.descending = descending;
+      expectedModCount = modCount;
+      setNext(first);
+    }
+
+    private void setNext(Cursor c) {
+      if (c == null || (range != null && pastEnd(c.key()))) {
+        next = null;
+      } else {
+        next = c.leaf;
+        nextIndex = c.index;
+      }
+    }
+
+    private boolean pastEnd(Object key) {
+      Comparator<? super K> cmp = comparator;
+      return descending ? range.tooLow(key, cmp) : range.tooHigh(key, cmp);
+    }
+
+    public final boolean hasNext() {
+      return next != null;
+    }
+
+    /**
+     * Moves to the following position, recording the current one.
+     */
+    final void advance() {
+      Leaf l = next;
+      if (l == null) {
+        throw new NoSuchElementException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      int i = nextIndex;
+      lastKey = l.keys[i];
+      canRemove = true;
+      if (descending) {
+        if (--i < 0 && (l = l.prev) != null) {
+          i = l.n - 1;
+        }
+      } else if (++i >= l.n) {
+        l = l.next;
+        i = 0;
+      }
+      if (l != null && range != null && pastEnd(l.keys[i])) {
+        l = null;
+      }
+      next = l;
+      nextIndex = i;
+    }
+
+    public void remove() {
+      if (!canRemove) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      canRemove = false;
+      removeKey(lastKey);
+      expectedModCount = modCount;
+      if (next != null) { // mappings may have moved between leaves
+        setNext(findNear(lastKey, descending ? LT : GT));
+      }
+    }
+  }
+
+  final class KeyIterator extends Iter<K> {
+
+    KeyIterator(Cursor first, SubMap<K, V> range, boolean descending) {
+      super(first, range, descending);
+    }
+
+    @SuppressWarnings("unchecked")
+    public K next() {
+      Leaf l = next;
+      int i = nextIndex;
+      advance();
+      return (K) l.keys[i];
+    }
+  }
+
+  final class ValueIterator extends Iter<V> {
+
+    ValueIterator(Cursor first, SubMap<K, V> range, boolean descending) {
+      super(first, range, descending);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V next() {
+      Leaf l = next;
+      int i = nextIndex;
+      advance();
+      return (V) l.vals[i];
+    }
+  }
+
+  final class EntryIterator extends Iter<Map.Entry<K, V>> {
+
+    EntryIterator(Cursor first, SubMap<K, V> range, boolean descending) {
+      super(first, range, descending);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map.Entry<K, V> next() {
+      Leaf l = next;
+      int i = nextIndex;
+      advance();
+      return new WriteThroughEntry<>(BTreeMap.this, (K) l.keys[i], (V) l.vals[i]);
+    }
+  }
+
+  /**
+   * Entry returned by entry iterators; setValue also updates the map.
+   */
+  static final class WriteThroughEntry<K, V> extends AbstractMap.SimpleEntry<K, V> {
+
+    private static final long serialVersionUID = -1581739917416024357L;
+
+    final transient BTreeMap<K, V> map;
+
+    WriteThroughEntry(BTreeMap<K, V> map, K key, V value) {
+      super(key, value);
+      this.map = map;
+    }
+
+    public V setValue(V value) {
+      map.put(getKey(), value);
+      return super.setValue(value);
+    }
+  }
+
+  /**
+   * Return SimpleImmutableEntry for position, or null if null
+   */
+  @SuppressWarnings("unchecked")
+  final Map.Entry<K, V> exportEntry(Cursor c) {
+    return (c == null) ? null :
+        new AbstractMap.SimpleImmutableEntry<>((K) c.key(), (V) c.value());
+  }
+
+  /**
+   * Return key for position, or null if null
+   */
+  @SuppressWarnings("unchecked")
+  static <K> K keyOrNull(Cursor c) {
+    return (c == null) ? null : (K) c.key();
+  }
+
+  /**
+   * Returns the key corresponding to the specified position.
+   *
+   * @throws NoSuchElementException if the position is null
+   */
+  @SuppressWarnings("unchecked")
+  static <K> K key(Cursor c) {
+    if (c == null) {
+      throw new NoSuchElementException();
+    }
+    return (K) c.key();
+  }
+
+  /* ---------------- SubMaps -------------- */
+
+  /**
+   * Submaps returned by {@link BTreeMap} submap operations represent a
+   * subrange of mappings of their underlying maps, in either direction.
+   * Since the underlying map maintains subtree sizes, {@code size()}
+   * runs in log(n) time, and ascending submaps report exactly sized,
+   * balanced spliterators.
+   *
+   * @serial include
+   */
+  static final class SubMap<K, V> extends AbstractMap<K, V>
+      implements NavigableMap<K, V>, Serializable {
+
+    private static final long serialVersionUID = -2102997345730753016L;
+
+    /**
+     * Underlying map
+     */
+    final BTreeMap<K, V> m;
+    /**
+     * lower bound key, or null if from start
+     */
+    final K lo;
+    /**
+     * upper bound key, or null if to end
+     */
+    final K hi;
+    /**
+     * inclusion flag for lo
+     */
+    final boolean loInclusive;
+    /**
+     * inclusion flag for hi
+     */
+    final boolean hiInclusive;
+    /**
+     * direction
+     */
+    final boolean isDescending;
+
+    // Lazily initialized view holders
+    private transient KeySet<K> keySetView;
+    private transient Set<Map.Entry<K, V>> entrySetView;
+    private transient Collection<V> valuesView;
+
+    SubMap(BTreeMap<K, V> map,
+        K fromKey, boolean fromInclusive,
+        K toKey, boolean toInclusive,
+        boolean isDescending) {
+      Comparator<? super K> cmp = map.comparator;
+      if (fromKey != null && toKey != null &&
+          cpr(cmp, fromKey, toKey) > 0) {
+        throw new IllegalArgumentException("fromKey > toKey");
+      }
+      this.m = map;
+      this.lo = fromKey;
+      this.hi = toKey;
+      this.loInclusive = fromInclusive;
+      this.hiInclusive = toInclusive;
+      this.isDescending = isDescending;
+    }
+
+        /* ----------------  Utilities -------------- */
+
+    boolean tooLow(Object key, Comparator<? super K> cmp) {
+      int c;
+      return (lo != null && ((c = cpr(cmp, key, lo)) < 0 ||
+          (c == 0 && !loInclusive)));
+    }
+
+    boolean tooHigh(Object key, Comparator<? super K> cmp) {
+      int c;
+      return (hi != null && ((c = cpr(cmp, key, hi)) > 0 ||
+          (c == 0 && !hiInclusive)));
+    }
+
+    boolean inBounds(Object key, Comparator<? super K> cmp) {
+      return !tooLow(key, cmp) && !tooHigh(key, cmp);
+    }
+
+    void checkKeyBounds(K key, Comparator<? super K> cmp) {
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      if (!inBounds(key, cmp)) {
+        throw new IllegalArgumentException("key out of range");
+      }
+    }
+
+    /**
+     * Returns the lowest position in range, or null.
+     */
+    Cursor loCursor() {
+      Cursor c = (lo == null) ? m.firstCursor() :
+          m.findNear(lo, loInclusive ? GT | EQ : GT);
+      return (c == null || tooHigh(c.key(), m.comparator)) ? null : c;
+    }
+
+    /**
+     * Returns the highest position in range, or null.
+     */
+    Cursor hiCursor() {
+      Cursor c = (hi == null) ? m.lastCursor() :
+          m.findNear(hi, hiInclusive ? LT | EQ : LT);
+      return (c == null || tooLow(c.key(), m.comparator)) ? null : c;
+    }
+
+    /**
+     * Returns the rank of the first mapping in range.
+     */
+    int loRank() {
+      return (lo == null) ? 0 : m.countBelow(lo, !loInclusive);
+    }
+
+    /**
+     * Returns one past the rank of the last mapping in range.
+     */
+    int hiRank() {
+      return (hi == null) ? m.size : m.countBelow(hi, hiInclusive);
+    }
+
+    /**
+     * Returns the number of keys of this submap that precede key in
+     * its iteration order.
+     */
+    int rank(Object key) {
+      int lr = loRank(), hr = hiRank();
+      if (isDescending) {
+        return hr - Math.min(Math.max(m.countBelow(key, true), lr), hr);
+      } else {
+        return Math.min(Math.max(m.countBelow(key, false), lr), hr) - lr;
+      }
+    }
+
+    /**
+     * Returns the key at the given index in the iteration order of
+     * this submap.
+     */
+    K select(int index) {
+      int lr = loRank(), hr = hiRank();
+      if (index < 0 || index >= hr - lr) {
+        throw new IndexOutOfBoundsException("Index: " + index +
+            ", Size: " + Math.max(hr - lr, 0));
+      }
+      return key(m.cursorAt(isDescending ? hr - 1 - index : lr + index));
+    }
+
+    Cursor firstCursor() {
+      return isDescending ? hiCursor() : loCursor();
+    }
+
+    Cursor lastCursor() {
+      return isDescending ? loCursor() : hiCursor();
+    }
+
+    Map.Entry<K, V> removeAt(Cursor c) {
+      Map.Entry<K, V> e = m.exportEntry(c);
+      if (e != null) {
+        m.removeKey(e.getKey());
+      }
+      return e;
+    }
+
+    /**
+     * Submap version of findNear.
+     */
+    Cursor findNear(K key, int rel) {
+      Comparator<? super K> cmp = m.comparator;
+      if (isDescending) { // adjust relation for direction
+        if ((rel & LT) == 0) {
+          rel |= LT;
+        } else {
+          rel &= ~LT;
+        }
+      }
+      if (tooLow(key, cmp)) {
+        return ((rel & LT) != 0) ? null : loCursor();
+      }
+      if (tooHigh(key, cmp)) {
+        return ((rel & LT) != 0) ? hiCursor() : null;
+      }
+      Cursor c = m.findNear(key, rel);
+      return (c == null || !inBounds(c.key(), cmp)) ? null : c;
+    }
+
+        /* ----------------  Map API methods -------------- */
+
+    public boolean containsKey(Object key) {
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      return inBounds(key, m.comparator) && m.containsKey(key);
+    }
+
+    public V get(Object key) {
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      return (!inBounds(key, m.comparator)) ? null : m.get(key);
+    }
+
+    public V put(K key, V value) {
+      checkKeyBounds(key, m.comparator);
+      return m.put(key, value);
+    }
+
+    public V remove(Object key) {
+      if (key == null) {
+        throw new NullPointerException();
+      }
+      return (!inBounds(key, m.comparator)) ? null : m.removeKey(key);
+    }
+
+    public int size() {
+      return Math.max(hiRank() - loRank(), 0);
+    }
+
+    public boolean isEmpty() {
+      return loCursor() == null;
+    }
+
+    public boolean containsValue(Object value) {
+      for (Iterator<V> it = valueIterator(); it.hasNext(); ) {
+        if (Objects.equals(value, it.next())) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    public void clear() {
+      for (Iterator<K> it = keyIterator(); it.hasNext(); ) {
+        it.next();
+        it.remove();
+      }
+    }
+
+        /* ----------------  SortedMap API methods -------------- */
+
+    public Comparator<? super K> comparator() {
+      Comparator<? super K> cmp = m.comparator();
+      if (isDescending) {
+        return Collections.reverseOrder(cmp);
+      } else {
+        return cmp;
+      }
+    }
+
+    /**
+     * Utility to create submaps, where given bounds override
+     * unbounded(null) ones and/or are checked against bounded ones.
+     */
+    SubMap<K, V> newSubMap(K fromKey, boolean fromInclusive,
+        K toKey, boolean toInclusive) {
+      Comparator<? super K> cmp = m.comparator;
+      if (isDescending) { // flip senses
+        K tk = fromKey;
+        fromKey = toKey;
+        toKey = tk;
+        boolean ti = fromInclusive;
+        fromInclusive = toInclusive;
+        toInclusive = ti;
+      }
+      if (lo != null) {
+        if (fromKey == null) {
+          fromKey = lo;
+          fromInclusive = loInclusive;
+        } else {
+          int c = cpr(cmp, fromKey, lo);
+          if (c < 0 || (c == 0 && !loInclusive && fromInclusive)) {
+            throw new IllegalArgumentException("key out of range");
+          }
+        }
+      }
+      if (hi != null) {
+        if (toKey == null) {
+          toKey = hi;
+          toInclusive = hiInclusive;
+        } else {
+          int c = cpr(cmp, toKey, hi);
+          if (c > 0 || (c == 0 && !hiInclusive && toInclusive)) {
+            throw new IllegalArgumentException("key out of range");
+          }
+        }
+      }
+      return new SubMap<>(m, fromKey, fromInclusive,
+          toKey, toInclusive, isDescending);
+    }
+
+    public SubMap<K, V> subMap(K fromKey, boolean fromInclusive,
+        K toKey, boolean toInclusive) {
+      if (fromKey == null || toKey == null) {
+        throw new NullPointerException();
+      }
+      return newSubMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    public SubMap<K, V> headMap(K toKey, boolean inclusive) {
+      if (toKey == null) {
+        throw new NullPointerException();
+      }
+      return newSubMap(null, false, toKey, inclusive);
+    }
+
+    public SubMap<K, V> tailMap(K fromKey, boolean inclusive) {
+      if (fromKey == null) {
+        throw new NullPointerException();
+      }
+      return newSubMap(fromKey, inclusive, null, false);
+    }
+
+    public SubMap<K, V> subMap(K fromKey, K toKey) {
+      return subMap(fromKey, true, toKey, false);
+    }
+
+    public SubMap<K, V> headMap(K toKey) {
+      return headMap(toKey, false);
+    }
+
+    public SubMap<K, V> tailMap(K fromKey) {
+      return tailMap(fromKey, true);
+    }
+
+    public SubMap<K, V> descendingMap() {
+      return new SubMap<>(m, lo, loInclusive,
+          hi, hiInclusive, !isDescending);
+    }
+
+        /* ----------------  Relational methods -------------- */
+
+    public Map.Entry<K, V> ceilingEntry(K key) {
+      return m.exportEntry(findNear(key, GT | EQ));
+    }
+
+    public K ceilingKey(K key) {
+      return keyOrNull(findNear(key, GT | EQ));
+    }
+
+    public Map.Entry<K, V> lowerEntry(K key) {
+      return m.exportEntry(findNear(key, LT));
+    }
+
+    public K lowerKey(K key) {
+      return keyOrNull(findNear(key, LT));
+    }
+
+    public Map.Entry<K, V> floorEntry(K key) {
+      return m.exportEntry(findNear(key, LT | EQ));
+    }
+
+    public K floorKey(K key) {
+      return keyOrNull(findNear(key, LT | EQ));
+    }
+
+    public Map.Entry<K, V> higherEntry(K key) {
+      return m.exportEntry(findNear(key, GT));
+    }
+
+    public K higherKey(K key) {
+      return keyOrNull(findNear(key, GT));
+    }
+
+    public K firstKey() {
+      return key(firstCursor());
+    }
+
+    public K lastKey() {
+      return key(lastCursor());
+    }
+
+    public Map.Entry<K, V> firstEntry() {
+      return m.exportEntry(firstCursor());
+    }
+
+    public Map.Entry<K, V> lastEntry() {
+      return m.exportEntry(lastCursor());
+    }
+
+    public Map.Entry<K, V> pollFirstEntry() {
+      return removeAt(firstCursor());
+    }
+
+    public Map.Entry<K, V> pollLastEntry() {
+      return removeAt(lastCursor());
+    }
+
+        /* ---------------- Submap Views -------------- */
+
+    public NavigableSet<K> keySet() {
+      return navigableKeySet();
+    }
+
+    public NavigableSet<K> navigableKeySet() {
+      KeySet<K> ks = keySetView;
+      return (ks != null) ? ks : (keySetView = new KeySet<>(this));
+    }
+
+    public Collection<V> values() {
+      Collection<V> vs = valuesView;
+      return (vs != null) ? vs : (valuesView = m.new Values<K>(this));
+    }
+
+    public Set<Map.Entry<K, V>> entrySet() {
+      Set<Map.Entry<K, V>> es = entrySetView;
+      return (es != null) ? es : (entrySetView = new SubMapEntrySet());
+    }
+
+    public NavigableSet<K> descendingKeySet() {
+      return descendingMap().navigableKeySet();
+    }
+
+    Iterator<K> keyIterator() {
+      return m.new KeyIterator(firstCursor(), this, isDescending);
+    }
+
+    Iterator<V> valueIterator() {
+      return m.new ValueIterator(firstCursor(), this, isDescending);
+    }
+
+    Iterator<Map.Entry<K, V>> entryIterator() {
+      return m.new EntryIterator(firstCursor(), this, isDescending);
+    }
+
+    Spliterator<K> keySpliterator() {
+      return isDescending ?
+          Spliterators.spliterator(keyIterator(), size(),
+              Spliterator.ORDERED | Spliterator.DISTINCT |
+                  Spliterator.NONNULL) :
+          new BTreeSpliterator<>(m, loRank(), hiRank(), KEYS);
+    }
+
+    Spliterator<V> valueSpliterator() {
+      return isDescending ?
+          Spliterators.spliterator(valueIterator(), size(),
+              Spliterator.ORDERED) :
+          new BTreeSpliterator<>(m, loRank(), hiRank(), VALUES);
+    }
+
+    Spliterator<Map.Entry<K, V>> entrySpliterator() {
+      return isDescending ?
+          Spliterators.spliterator(entryIterator(), size(),
+              Spliterator.ORDERED | Spliterator.DISTINCT |
+                  Spliterator.NONNULL) :
+          new BTreeSpliterator<>(m, loRank(), hiRank(), ENTRIES);
+    }
+
+    final class SubMapEntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return entryIterator();
+      }
+
+      public boolean contains(Object o) {
+        if (!(o instanceof Map.Entry)) {
+          return false;
+        }
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+        Object key = entry.getKey();
+        return inBounds(key, m.comparator) &&
+            m.entrySet().contains(entry);
+      }
+
+      public boolean remove(Object o) {
+        if (!(o instanceof Map.Entry)) {
+          return false;
+        }
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+        Object key = entry.getKey();
+        return inBounds(key, m.comparator) &&
+            m.entrySet().remove(entry);
+      }
+
+      public int size() {
+        return SubMap.this.size();
+      }
+
+      public boolean isEmpty() {
+        return SubMap.this.isEmpty();
+      }
+
+      public void clear() {
+        SubMap.this.clear();
+      }
+
+      public Spliterator<Map.Entry<K, V>> spliterator() {
+        return entrySpliterator();
+      }
+    }
+  }
+
+  /* ---------------- Spliterators -------------- */
+
+  static final int KEYS = 0, VALUES = 1, ENTRIES = 2;
+
+  /**
+   * Spliterator over a range of ranks [index, fence) of the map. Since
+   * subtree sizes are known, splitting selects the exact middle rank,
+   * so that all splits are balanced and sizes are exact. The position
+   * of the first element is located lazily, by rank, on first
+   * traversal; thereafter traversal follows the leaf chain.
+   */
+  static final class BTreeSpliterator<K, V, T> implements Spliterator<T> {
+
+    final BTreeMap<K, V> map;
+    final int kind;           // KEYS, VALUES or ENTRIES
+    int index;                // current rank, modified on advance/split
+    int fence;                // one past last rank, or -1 until first use
+    int expectedModCount;     // for comodification checks
+    Leaf leaf;                // leaf holding rank index, or null if not located
+    int pos;                  // index within leaf
+
+    BTreeSpliterator(BTreeMap<K, V> map, int origin, int fence, int kind) {
+      this.map = map;
+      this.index = origin;
+      this.fence = fence;
+      this.kind = kind;
+      this.expectedModCount = map.modCount;
+    }
+
+    final int getFence() { // initialize fence to size on first use
+      int hi;
+      if ((hi = fence) < 0) {
+        expectedModCount = map.modCount;
+        hi = fence = map.size;
+      }
+      return hi;
+    }
+
+    public BTreeSpliterator<K, V, T> trySplit() {
+      int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+      if (lo >= mid) {
+        return null;
+      }
+      BTreeSpliterator<K, V, T> prefix =
+          new BTreeSpliterator<>(map, lo, mid, kind);
+      prefix.expectedModCount = expectedModCount;
+      prefix.leaf = leaf;
+      prefix.pos = pos;
+      index = mid;
+      leaf = null;
+      return prefix;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T element(Leaf l, int i) {
+      switch (kind) {
+        case KEYS:
+          return (T) l.keys[i];
+        case VALUES:
+          return (T) l.vals[i];
+        default:
+          return (T) new AbstractMap.SimpleImmutableEntry<>(l.keys[i], l.vals[i]);
+      }
+    }
+
+    private void locate() {
+      if (map.modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      Cursor c = map.cursorAt(index);
+      leaf = c.leaf;
+      pos = c.index;
+    }
+
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      if (index >= getFence()) {
+        return false;
+      }
+      if (leaf == null) {
+        locate();
+      }
+      T t = element(leaf, pos);
+      if (++pos >= leaf.n) {
+        leaf = leaf.next;
+        pos = 0;
+      }
+      ++index;
+      action.accept(t);
+      if (map.modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      return true;
+    }
+
+    public void forEachRemaining(Consumer<? super T> action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      int hi = getFence(), i = index;
+      if (i >= hi) {
+        return;
+      }
+      if (leaf == null) {
+        locate();
+      }
+      Leaf l = leaf;
+      int p = pos;
+      index = hi;
+      leaf = null;
+      while (i < hi) {
+        int end = Math.min(l.n, p + (hi - i));
+        i += end - p;
+        for (; p < end; ++p) {
+          action.accept(element(l, p));
+        }
+        l = l.next;
+        p = 0;
+      }
+      if (map.modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    public long estimateSize() {
+      return (long) (getFence() - index);
+    }
+
+    public int characteristics() {
+      return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED |
+          ((kind == VALUES) ? 0 :
+              Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Comparator<? super T> getComparator() {
+      if (kind == KEYS) {
+        return (Comparator<? super T>) map.comparator;
+      } else if (kind == ENTRIES) {
+        Comparator<? super K> cmp = map.comparator;
+        return (Comparator<? super T>) ((cmp != null) ?
+            Map.Entry.comparingByKey(cmp) :
+            (Comparator<Map.Entry<K, V>>) (e1, e2) -> {
+              Comparable<? super K> k1 = (Comparable<? super K>) e1.getKey();
+              return k1.compareTo(e2.getKey());
+            });
+      }
+      throw new IllegalStateException();
+    }
+  }
+
+  /* ---------------- Serialization and bulk loading -------------- */
+
+  /**
+   * Save the state of the {@code BTreeMap} instance to a stream (i.e.,
+   * serialize it).
+   *
+   * @serialData The <em>size</em> of the BTreeMap (the number of key-value mappings) is emitted
+   * (int), followed by the key (Object) and value (Object) for each key-value mapping represented
+   * by the BTreeMap. The key-value mappings are emitted in key-order.
+   */
+  private void writeObject(java.io.ObjectOutputStream s)
+      throws java.io.IOException {
+    // Write out the Comparator and any hidden stuff
+    s.defaultWriteObject();
+
+    // Write out size (number of Mappings)
+    s.writeInt(size);
+
+    // Write out keys and values (alternating)
+    for (Leaf l = head; l != null; l = l.next) {
+      for (int i = 0; i < l.n; ++i) {
+        s.writeObject(l.keys[i]);
+        s.writeObject(l.vals[i]);
+      }
+    }
+  }
+
+  /**
+   * Reconstitute the {@code BTreeMap} instance from a stream (i.e.,
+   * deserialize it).
+   */
+  private void readObject(final java.io.ObjectInputStream s)
+      throws java.io.IOException, ClassNotFoundException {
+    // Read in the Comparator and any hidden stuff
+    s.defaultReadObject();
+
+    // Read in size
+    int size = s.readInt();
+    if (size < 0) {
+      throw new java.io.InvalidObjectException("Illegal size: " + size);
+    }
+
+    buildFromSorted(size, null, s, null);
+  }
+
+  /**
+   * Intended to be called only from BTreeSet.readObject
+   */
+  void readBTreeSet(int size, java.io.ObjectInputStream s, V defaultVal)
+      throws java.io.IOException, ClassNotFoundException {
+    buildFromSorted(size, null, s, defaultVal);
+  }
+
+  /**
+   * Intended to be called only from BTreeSet.addAll
+   */
+  void addAllForBTreeSet(SortedSet<? extends K> set, V defaultVal) {
+    try {
+      buildFromSorted(set.size(), set.iterator(), null, defaultVal);
+    } catch (java.io.IOException cannotHappen) {
+    } catch (ClassNotFoundException cannotHappen) {
+    }
+  }
+
+  /**
+   * Linear time bottom-up tree building algorithm from sorted data,
+   * accepting the same four input formats as TreeMap.buildFromSorted:
+   *
+   * 1) An iterator of Map.Entries.  (it != null, defaultVal == null).
+   * 2) An iterator of keys.         (it != null, defaultVal != null).
+   * 3) A stream of alternating serialized keys and values.
+   * (it == null, defaultVal == null).
+   * 4) A stream of serialized keys. (it == null, defaultVal != null).
+   *
+   * Leaves are filled as evenly as possible using the fewest leaves of
+   * at most NODE_CAPACITY keys, which leaves every node at least half
+   * full; each inner level is then built the same way over the level
+   * below. Any previous contents of the map are discarded.
+   *
+   * @param size the number of keys (or key-value pairs) to be read from the iterator or stream
+   * @param it If non-null, new entries are created from entries or keys read from this iterator.
+   * @param str If non-null, new entries are created from keys and possibly values read from this
+   * stream in serialized form. Exactly one of it and str should be non-null.
+   * @param defaultVal if non-null, this default value is used for each value in the map.  If null,
+   * each value is read from iterator or stream, as described above.
+   * @throws java.io.IOException propagated from stream reads. This cannot occur if str is null.
+   * @throws ClassNotFoundException propagated from readObject. This cannot occur if str is null.
+   */
+  @SuppressWarnings("unchecked")
+  private void buildFromSorted(int size, Iterator<?> it,
+      java.io.ObjectInputStream str,
+      V defaultVal)
+      throws java.io.IOException, ClassNotFoundException {
+    root = head = tail = null;
+    this.size = height = 0;
+    if (size <= 0) {
+      return;
+    }
+    int n = (size + NODE_CAPACITY - 1) / NODE_CAPACITY;
+    Node[] level = new Node[n];
+    Object[] mins = new Object[n];
+    int[] counts = new int[n];
+    Leaf prev = null;
+    for (int li = 0, remaining = size; li < n; ++li) {
+      int take = remaining / (n - li);
+      Leaf l = new Leaf();
+      for (int t = 0; t < take; ++t) {
+        Object key, value;
+        if (it != null) {
+          if (defaultVal == null) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) it.next();
+            key = entry.getKey();
+            value = entry.getValue();
+          } else {
+            key = it.next();
+            value = defaultVal;
+          }
+        } else { // use stream
+          key = str.readObject();
+          value = (defaultVal != null ? defaultVal : str.readObject());
+        }
+        if (key == null) {
+          throw new NullPointerException();
+        }
+        l.keys[t] = key;
+        l.vals[t] = value;
+      }
+      l.n = take;
+      remaining -= take;
+      if ((l.prev = prev) == null) {
+        head = l;
+      } else {
+        prev.next = l;
+      }
+      prev = l;
+      level[li] = l;
+      mins[li] = l.keys[0];
+      counts[li] = take;
+    }
+    tail = prev;
+    int h = 0;
+    while (n > 1) {
+      int np = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+      Node[] up = new Node[np];
+      Object[] upMins = new Object[np];
+      int[] upCounts = new int[np];
+      for (int pi = 0, src = 0; pi < np; ++pi) {
+        int take = (n - src) / (np - pi), sum = 0;
+        Inner in = new Inner();
+        upMins[pi] = mins[src];
+        for (int t = 0; t < take; ++t, ++src) {
+          in.kids[t] = level[src];
+          in.counts[t] = counts[src];
+          sum += counts[src];
+          if (t > 0) {
+            in.keys[t - 1] = mins[src];
+          }
+        }
+        in.n = take;
+        up[pi] = in;
+        upCounts[pi] = sum;
+      }
+      level = up;
+      mins = upMins;
+      counts = upCounts;
+      n = np;
+      ++h;
+    }
+    root = level[0];
+    height = h;
+    this.size = size;
+  }
+}
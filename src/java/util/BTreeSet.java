@@ -0,0 +1,519 @@
+/*
+ * Copyright (c) 1998, 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+/**
+ * A {@link NavigableSet} implementation based on a {@link BTreeMap}.
+ * The elements are ordered using their {@linkplain Comparable natural
+ * ordering}, or by a {@link Comparator} provided at set creation
+ * time, depending on which constructor is used.
+ *
+ * <p>This implementation provides guaranteed log(n) time cost for the basic
+ * operations ({@code add}, {@code remove} and {@code contains}), as well
+ * as for the order-statistics operations {@link #rank rank} and
+ * {@link #select select}.  Compared to {@link BTreeSet}, elements are
+ * stored in contiguous per-node arrays, which reduces memory overhead
+ * and speeds up in-order traversal and range scans.  Sets constructed
+ * from a {@link SortedSet}, and {@code addAll} of a {@code SortedSet}
+ * with the same ordering into an empty set, run in linear time.
+ *
+ * <p>This set does not permit {@code null} elements.  Note that the
+ * ordering maintained by a set (whether or not an explicit comparator is
+ * provided) must be <i>consistent with equals</i> if it is to correctly
+ * implement the {@code Set} interface; see {@link BTreeSet} for details.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access a set concurrently, and at least one
+ * of the threads modifies the set, it <i>must</i> be synchronized
+ * externally.
+ *
+ * <p>The iterators returned by this class's {@code iterator} method are
+ * <i>fail-fast</i>, in the same way as those of {@code BTreeSet}.
+ *
+ * @param <E> the type of elements maintained by this set
+ * @see BTreeSet
+ * @see BTreeMap
+ * @since 1.8
+ */
+
+public class BTreeSet<E> extends AbstractSet<E>
+    implements NavigableSet<E>, Cloneable, java.io.Serializable {
+
+  /**
+   * The backing map.
+   */
+  private transient NavigableMap<E, Object> m;
+
+  // Dummy value to associate with an Object in the backing Map
+  private static final Object PRESENT = new Object();
+
+  /**
+   * Constructs a set backed by the specified navigable map.
+   */
+  BTreeSet(NavigableMap<E, Object> m) {
+    this.m = m;
+  }
+
+  /**
+   * Constructs a new, empty set, sorted according to the
+   * natural ordering of its elements.  All elements inserted into
+   * the set must implement the {@link Comparable} interface.
+   * Furthermore, all such elements must be <i>mutually
+   * comparable</i>: {@code e1.compareTo(e2)} must not throw a
+   * {@code ClassCastException} for any elements {@code e1} and
+   * {@code e2} in the set.  If the user attempts to add an element
+   * to the set that violates this constraint (for example, the user
+   * attempts to add a string element to a set whose elements are
+   * integers), the {@code add} call will throw a
+   * {@code ClassCastException}.
+   */
+  public BTreeSet() {
+    this(new BTreeMap<E, Object>());
+  }
+
+  /**
+   * Constructs a new, empty set, sorted according to the specified
+   * comparator.  All elements inserted into the set must be <i>mutually
+   * comparable</i> by the specified comparator: {@code comparator.compare(e1,
+   * e2)} must not throw a {@code ClassCastException} for any elements
+   * {@code e1} and {@code e2} in the set.  If the user attempts to add
+   * an element to the set that violates this constraint, the
+   * {@code add} call will throw a {@code ClassCastException}.
+   *
+   * @param comparator the comparator that will be used to order this set. If {@code null}, the
+   * {@linkplain Comparable natural ordering} of the elements will be used.
+   */
+  public BTreeSet(Comparator<? super E> comparator) {
+    this(new BTreeMap<>(comparator));
+  }
+
+  /**
+   * Constructs a new set containing the elements in the specified
+   * collection, sorted according to the <i>natural ordering</i> of its
+   * elements.  All elements inserted into the set must implement the
+   * {@link Comparable} interface.  Furthermore, all such elements must be
+   * <i>mutually comparable</i>: {@code e1.compareTo(e2)} must not throw a
+   * {@code ClassCastException} for any elements {@code e1} and
+   * {@code e2} in the set.
+   *
+   * @param c collection whose elements will comprise the new set
+   * @throws ClassCastException if the elements in {@code c} are not {@link Comparable}, or are not
+   * mutually comparable
+   * @throws NullPointerException if the specified collection is null
+   */
+  public BTreeSet(Collection<? extends E> c) {
+    this();
+    addAll(c);
+  }
+
+  /**
+   * Constructs a new set containing the same elements and
+   * using the same ordering as the specified sorted set.
+   *
+   * @param s sorted set whose elements will comprise the new set
+   * @throws NullPointerException if the specified sorted set is null
+   */
+  public BTreeSet(SortedSet<E> s) {
+    this(s.comparator());
+    addAll(s);
+  }
+
+  /**
+   * Returns an iterator over the elements in this set in ascending order.
+   *
+   * @return an iterator over the elements in this set in ascending order
+   */
+  public Iterator<E> iterator() {
+    return m.navigableKeySet().iterator();
+  }
+
+  /**
+   * Returns an iterator over the elements in this set in descending order.
+   *
+   * @return an iterator over the elements in this set in descending order
+   */
+  public Iterator<E> descendingIterator() {
+    return m.descendingKeySet().iterator();
+  }
+
+  public NavigableSet<E> descendingSet() {
+    return new BTreeSet<>(m.descendingMap());
+  }
+
+  /**
+   * Returns the number of elements in this set (its cardinality).
+   *
+   * @return the number of elements in this set (its cardinality)
+   */
+  public int size() {
+    return m.size();
+  }
+
+  /**
+   * Returns {@code true} if this set contains no elements.
+   *
+   * @return {@code true} if this set contains no elements
+   */
+  public boolean isEmpty() {
+    return m.isEmpty();
+  }
+
+  /**
+   * Returns {@code true} if this set contains the specified element.
+   * More formally, returns {@code true} if and only if this set
+   * contains an element {@code e} such that
+   * <tt>(o==null&nbsp;?&nbsp;e==null&nbsp;:&nbsp;o.equals(e))</tt>.
+   *
+   * @param o object to be checked for containment in this set
+   * @return {@code true} if this set contains the specified element
+   * @throws ClassCastException if the specified object cannot be compared with the elements
+   * currently in the set
+   * @throws NullPointerException if the specified element is null
+   */
+  public boolean contains(Object o) {
+    return m.containsKey(o);
+  }
+
+  /**
+   * Adds the specified element to this set if it is not already present.
+   * More formally, adds the specified element {@code e} to this set if
+   * the set contains no element {@code e2} such that
+   * <tt>(e==null&nbsp;?&nbsp;e2==null&nbsp;:&nbsp;e.equals(e2))</tt>.
+   * If this set already contains the element, the call leaves the set
+   * unchanged and returns {@code false}.
+   *
+   * @param e element to be added to this set
+   * @return {@code true} if this set did not already contain the specified element
+   * @throws ClassCastException if the specified object cannot be compared with the elements
+   * currently in this set
+   * @throws NullPointerException if the specified element is null
+   */
+  public boolean add(E e) {
+    return m.put(e, PRESENT) == null;
+  }
+
+  /**
+   * Removes the specified element from this set if it is present.
+   * More formally, removes an element {@code e} such that
+   * <tt>(o==null&nbsp;?&nbsp;e==null&nbsp;:&nbsp;o.equals(e))</tt>,
+   * if this set contains such an element.  Returns {@code true} if
+   * this set contained the element (or equivalently, if this set
+   * changed as a result of the call).  (This set will not contain the
+   * element once the call returns.)
+   *
+   * @param o object to be removed from this set, if present
+   * @return {@code true} if this set contained the specified element
+   * @throws ClassCastException if the specified object cannot be compared with the elements
+   * currently in this set
+   * @throws NullPointerException if the specified element is null
+   */
+  public boolean remove(Object o) {
+    return m.remove(o) == PRESENT;
+  }
+
+  /**
+   * Removes all of the elements from this set.
+   * The set will be empty after this call returns.
+   */
+  public void clear() {
+    m.clear();
+  }
+
+  /**
+   * Adds all of the elements in the specified collection to this set.
+   *
+   * @param c collection containing elements to be added to this set
+   * @return {@code true} if this set changed as a result of the call
+   * @throws ClassCastException if the elements provided cannot be compared with the elements
+   * currently in the set
+   * @throws NullPointerException if the specified collection is null or if any element is null
+   */
+  public boolean addAll(Collection<? extends E> c) {
+    // Use linear-time version if applicable
+    if (m.size() == 0 && c.size() > 0 &&
+        c instanceof SortedSet &&
+        m instanceof BTreeMap) {
+      SortedSet<? extends E> set = (SortedSet<? extends E>) c;
+      BTreeMap<E, Object> map = (BTreeMap<E, Object>) m;
+      Comparator<?> cc = set.comparator();
+      Comparator<? super E> mc = map.comparator();
+      if (cc == mc || (cc != null && cc.equals(mc))) {
+        map.addAllForBTreeSet(set, PRESENT);
+        return true;
+      }
+    }
+    return super.addAll(c);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromElement} or {@code toElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public NavigableSet<E> subSet(E fromElement, boolean fromInclusive,
+      E toElement, boolean toInclusive) {
+    return new BTreeSet<>(m.subMap(fromElement, fromInclusive,
+        toElement, toInclusive));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code toElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+    return new BTreeSet<>(m.headMap(toElement, inclusive));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+    return new BTreeSet<>(m.tailMap(fromElement, inclusive));
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromElement} or {@code toElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public SortedSet<E> subSet(E fromElement, E toElement) {
+    return subSet(fromElement, true, toElement, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code toElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public SortedSet<E> headSet(E toElement) {
+    return headSet(toElement, false);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if {@code fromElement} is null
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public SortedSet<E> tailSet(E fromElement) {
+    return tailSet(fromElement, true);
+  }
+
+  public Comparator<? super E> comparator() {
+    return m.comparator();
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  public E first() {
+    return m.firstKey();
+  }
+
+  /**
+   * @throws NoSuchElementException {@inheritDoc}
+   */
+  public E last() {
+    return m.lastKey();
+  }
+
+  // NavigableSet API methods
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified element is null
+   */
+  public E lower(E e) {
+    return m.lowerKey(e);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified element is null
+   */
+  public E floor(E e) {
+    return m.floorKey(e);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified element is null
+   */
+  public E ceiling(E e) {
+    return m.ceilingKey(e);
+  }
+
+  /**
+   * @throws ClassCastException {@inheritDoc}
+   * @throws NullPointerException if the specified element is null
+   */
+  public E higher(E e) {
+    return m.higherKey(e);
+  }
+
+  public E pollFirst() {
+    Map.Entry<E, ?> e = m.pollFirstEntry();
+    return (e == null) ? null : e.getKey();
+  }
+
+  public E pollLast() {
+    Map.Entry<E, ?> e = m.pollLastEntry();
+    return (e == null) ? null : e.getKey();
+  }
+
+  /**
+   * Returns the number of elements in this set that precede the given
+   * element in its iteration order, which is also the index the element
+   * has or would have in that order.  This method runs in log(n) time.
+   *
+   * @param o the element
+   * @return the number of elements preceding {@code o}
+   * @throws ClassCastException if the specified object cannot be compared with the elements
+   * currently in the set
+   * @throws NullPointerException if the specified element is null
+   */
+  @SuppressWarnings("unchecked")
+  public int rank(Object o) {
+    if (m instanceof BTreeMap) {
+      return ((BTreeMap<E, Object>) m).rank(o);
+    } else {
+      return ((BTreeMap.SubMap<E, Object>) m).rank(o);
+    }
+  }
+
+  /**
+   * Returns the element at the given index in the iteration order of
+   * this set.  This method runs in log(n) time.
+   *
+   * @param index the index of the element to return
+   * @return the element at the given index
+   * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@code size()}
+   */
+  @SuppressWarnings("unchecked")
+  public E select(int index) {
+    if (m instanceof BTreeMap) {
+      return ((BTreeMap<E, Object>) m).select(index);
+    } else {
+      return ((BTreeMap.SubMap<E, Object>) m).select(index);
+    }
+  }
+
+  /**
+   * Returns a shallow copy of this {@code BTreeSet} instance. (The elements
+   * themselves are not cloned.)
+   *
+   * @return a shallow copy of this set
+   */
+  @SuppressWarnings("unchecked")
+  public Object clone() {
+    BTreeSet<E> clone;
+    try {
+      clone = (BTreeSet<E>) super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new InternalError(e);
+    }
+
+    clone.m = new BTreeMap<>(m);
+    return clone;
+  }
+
+  /**
+   * Save the state of the {@code BTreeSet} instance to a stream (that is,
+   * serialize it).
+   *
+   * @serialData Emits the comparator used to order this set, or {@code null} if it obeys its
+   * elements' natural ordering (Object), followed by the size of the set (the number of elements it
+   * contains) (int), followed by all of its elements (each an Object) in order (as determined by
+   * the set's Comparator, or by the elements' natural ordering if the set has no Comparator).
+   */
+  private void writeObject(java.io.ObjectOutputStream s)
+      throws java.io.IOException {
+    // Write out any hidden stuff
+    s.defaultWriteObject();
+
+    // Write out Comparator
+    s.writeObject(m.comparator());
+
+    // Write out size
+    s.writeInt(m.size());
+
+    // Write out all elements in the proper order.
+    for (E e : m.keySet()) {
+      s.writeObject(e);
+    }
+  }
+
+  /**
+   * Reconstitute the {@code BTreeSet} instance from a stream (that is,
+   * deserialize it).
+   */
+  private void readObject(java.io.ObjectInputStream s)
+      throws java.io.IOException, ClassNotFoundException {
+    // Read in any hidden stuff
+    s.defaultReadObject();
+
+    // Read in Comparator
+    @SuppressWarnings("unchecked")
+    Comparator<? super E> c = (Comparator<? super E>) s.readObject();
+
+    // Create backing BTreeMap
+    BTreeMap<E, Object> tm = new BTreeMap<>(c);
+    m = tm;
+
+    // Read in size
+    int size = s.readInt();
+
+    tm.readBTreeSet(size, s, PRESENT);
+  }
+
+  /**
+   * Creates a <em><a href="Spliterator.html#binding">late-binding</a></em>
+   * and <em>fail-fast</em> {@link Spliterator} over the elements in this
+   * set.
+   *
+   * <p>The {@code Spliterator} reports {@link Spliterator#SIZED},
+   * {@link Spliterator#DISTINCT}, {@link Spliterator#SORTED}, and
+   * {@link Spliterator#ORDERED}.  Spliterators over ascending sets also
+   * report {@link Spliterator#SUBSIZED} and split into halves of exactly
+   * equal size.  Overriding implementations should document the
+   * reporting of additional characteristic values.
+   *
+   * <p>The spliterator's comparator (see
+   * {@link java.util.Spliterator#getComparator()}) is {@code null} if
+   * the set's comparator (see {@link #comparator()}) is {@code null}.
+   * Otherwise, the spliterator's comparator is the same as or imposes the
+   * same total ordering as the set's comparator.
+   *
+   * @return a {@code Spliterator} over the elements in this set
+   */
+  public Spliterator<E> spliterator() {
+    return m.navigableKeySet().spliterator();
+  }
+
+  private static final long serialVersionUID = -6339502446871356183L;
+}
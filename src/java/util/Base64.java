@@ -380,6 +380,19 @@ public class Base64 {
       return new Encoder(isURL, newline, linemax, false);
     }
 
+    /**
+     * Returns a new stateful encoder that encodes equivalently to this
+     * one, from and into caller-supplied byte buffers, and that may be fed
+     * its input in several parts.
+     *
+     * @return a new buffer encoder
+     * @since 1.8
+     */
+    public BufferEncoder newBufferEncoder() {
+      return new BufferEncoder(isURL ? toBase64URL : toBase64, newline,
+          linemax, doPadding);
+    }
+
     private int encode0(byte[] src, int off, int end, byte[] dst) {
       char[] base64 = isURL ? toBase64URL : toBase64;
       int sp = off;
@@ -391,15 +404,7 @@ public class Base64 {
       int dp = 0;
       while (sp < sl) {
         int sl0 = Math.min(sp + slen, sl);
-        for (int sp0 = sp, dp0 = dp; sp0 < sl0; ) {
-          int bits = (src[sp0++] & 0xff) << 16 |
-              (src[sp0++] & 0xff) << 8 |
-              (src[sp0++] & 0xff);
-          dst[dp0++] = (byte) base64[(bits >>> 18) & 0x3f];
-          dst[dp0++] = (byte) base64[(bits >>> 12) & 0x3f];
-          dst[dp0++] = (byte) base64[(bits >>> 6) & 0x3f];
-          dst[dp0++] = (byte) base64[bits & 0x3f];
-        }
+        encodeBlock(src, sp, sl0, dst, dp, base64);
         int dlen = (sl0 - sp) / 3 * 4;
         dp += dlen;
         sp = sl0;
@@ -429,6 +434,44 @@ public class Base64 {
       }
       return dp;
     }
+
+    /**
+     * Encodes the whole 3-byte groups of {@code src[sp, sl)} into {@code
+     * dst} starting at {@code dp}, without line separators, and returns
+     * the index following the last byte written.  Pairs of groups are
+     * packed into one long, so that eight output characters are taken
+     * from a single load of six input bytes.
+     */
+    static int encodeBlock(byte[] src, int sp, int sl, byte[] dst, int dp,
+        char[] base64) {
+      for (int sl6 = sp + (sl - sp) / 6 * 6; sp < sl6; sp += 6) {
+        long bits = (src[sp] & 0xffL) << 40 |
+            (src[sp + 1] & 0xffL) << 32 |
+            (src[sp + 2] & 0xffL) << 24 |
+            (src[sp + 3] & 0xffL) << 16 |
+            (src[sp + 4] & 0xffL) << 8 |
+            (src[sp + 5] & 0xffL);
+        dst[dp] = (byte) base64[(int) (bits >>> 42) & 0x3f];
+        dst[dp + 1] = (byte) base64[(int) (bits >>> 36) & 0x3f];
+        dst[dp + 2] = (byte) base64[(int) (bits >>> 30) & 0x3f];
+        dst[dp + 3] = (byte) base64[(int) (bits >>> 24) & 0x3f];
+        dst[dp + 4] = (byte) base64[(int) (bits >>> 18) & 0x3f];
+        dst[dp + 5] = (byte) base64[(int) (bits >>> 12) & 0x3f];
+        dst[dp + 6] = (byte) base64[(int) (bits >>> 6) & 0x3f];
+        dst[dp + 7] = (byte) base64[(int) bits & 0x3f];
+        dp += 8;
+      }
+      if (sp < sl) {
+        int bits = (src[sp] & 0xff) << 16 |
+            (src[sp + 1] & 0xff) << 8 |
+            (src[sp + 2] & 0xff);
+        dst[dp++] = (byte) base64[(bits >>> 18) & 0x3f];
+        dst[dp++] = (byte) base64[(bits >>> 12) & 0x3f];
+        dst[dp++] = (byte) base64[(bits >>> 6) & 0x3f];
+        dst[dp++] = (byte) base64[bits & 0x3f];
+      }
+      return dp;
+    }
   }
 
   /**
@@ -623,6 +666,50 @@ public class Base64 {
       return new DecInputStream(is, isURL ? fromBase64URL : fromBase64, isMIME);
     }
 
+    /**
+     * Returns a new stateful decoder that decodes equivalently to this
+     * one, from and into caller-supplied byte buffers, and that may be fed
+     * its input in several parts.
+     *
+     * @return a new buffer decoder
+     * @since 1.8
+     */
+    public BufferDecoder newBufferDecoder() {
+      return new BufferDecoder(isURL ? fromBase64URL : fromBase64, isMIME);
+    }
+
+    /**
+     * Decodes all remaining bytes of the specified byte buffer using the
+     * {@link Base64} encoding scheme, writing the results over the encoded
+     * bytes of the same buffer, starting at its position.  Since each
+     * decoded byte is written only after the encoded bytes it was decoded
+     * from have been read, no additional buffer is needed; this suits, for
+     * example, MIME bodies that have been read into a buffer and are not
+     * needed in encoded form afterwards.
+     *
+     * <p> Upon return, the buffer's position is unchanged and its limit is
+     * set to the position plus the number of decoded bytes.  If the bytes
+     * are not in valid Base64 encoding scheme, {@code
+     * IllegalArgumentException} is thrown, the position and limit of the
+     * buffer are unchanged, and the part of its contents that had been
+     * decoded is overwritten.
+     *
+     * @param buffer the byte buffer to decode in place
+     * @return The number of decoded bytes
+     * @throws IllegalArgumentException if the buffer is not in valid Base64
+     * scheme
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+     * @since 1.8
+     */
+    public int decodeInPlace(ByteBuffer buffer) {
+      ByteBuffer src = buffer.duplicate();
+      ByteBuffer dst = buffer.duplicate();
+      newBufferDecoder().decode(src, dst, true);
+      int n = dst.position() - buffer.position();
+      buffer.limit(dst.position());
+      return n;
+    }
+
     private int outLength(byte[] src, int sp, int sl) {
       int[] base64 = isURL ? fromBase64URL : fromBase64;
       int paddings = 0;
@@ -672,6 +759,14 @@ public class Base64 {
       int bits = 0;
       int shiftto = 18;       // pos of first byte of 4-byte atom
       while (sp < sl) {
+        if (shiftto == 18) {    // at an atom boundary, decode whole atoms
+          int n = decodeBlock(src, sp, sl, dst, dp, dst.length, base64);
+          sp += n;
+          dp += n / 4 * 3;
+          if (sp == sl) {
+            break;
+          }
+        }
         int b = src[sp++] & 0xff;
         if ((b = base64[b]) < 0) {
           if (b == -2) {         // padding byte '='
@@ -728,6 +823,617 @@ public class Base64 {
       }
       return dp;
     }
+
+    /**
+     * Decodes whole 4-byte atoms of {@code src[sp, sl)} into {@code
+     * dst[dp, dl)}, stopping at the first atom that contains a padding
+     * or non-alphabet character, or when the input or output runs out, and
+     * returns the number of input bytes decoded, a multiple of 4.  Pairs
+     * of atoms are decoded into one long, with a single sign test of their
+     * combined values for the characters needing slower handling.
+     */
+    static int decodeBlock(byte[] src, int sp, int sl, byte[] dst, int dp,
+        int dl, int[] base64) {
+      int sp0 = sp;
+      while (sl - sp >= 8 && dl - dp >= 6) {
+        int b0 = base64[src[sp] & 0xff];
+        int b1 = base64[src[sp + 1] & 0xff];
+        int b2 = base64[src[sp + 2] & 0xff];
+        int b3 = base64[src[sp + 3] & 0xff];
+        int b4 = base64[src[sp + 4] & 0xff];
+        int b5 = base64[src[sp + 5] & 0xff];
+        int b6 = base64[src[sp + 6] & 0xff];
+        int b7 = base64[src[sp + 7] & 0xff];
+        if ((b0 | b1 | b2 | b3 | b4 | b5 | b6 | b7) < 0) {
+          break;
+        }
+        long bits = (long) b0 << 42 | (long) b1 << 36 | (long) b2 << 30 |
+            (long) b3 << 24 | (long) b4 << 18 | (long) b5 << 12 |
+            (long) b6 << 6 | (long) b7;
+        dst[dp] = (byte) (bits >> 40);
+        dst[dp + 1] = (byte) (bits >> 32);
+        dst[dp + 2] = (byte) (bits >> 24);
+        dst[dp + 3] = (byte) (bits >> 16);
+        dst[dp + 4] = (byte) (bits >> 8);
+        dst[dp + 5] = (byte) bits;
+        sp += 8;
+        dp += 6;
+      }
+      if (sl - sp >= 4 && dl - dp >= 3) {
+        int b0 = base64[src[sp] & 0xff];
+        int b1 = base64[src[sp + 1] & 0xff];
+        int b2 = base64[src[sp + 2] & 0xff];
+        int b3 = base64[src[sp + 3] & 0xff];
+        if ((b0 | b1 | b2 | b3) >= 0) {
+          int bits = b0 << 18 | b1 << 12 | b2 << 6 | b3;
+          dst[dp] = (byte) (bits >> 16);
+          dst[dp + 1] = (byte) (bits >> 8);
+          dst[dp + 2] = (byte) bits;
+          sp += 4;
+        }
+      }
+      return sp - sp0;
+    }
+  }
+
+  /**
+   * A stateful Base64 encoder that reads its input from, and writes its
+   * output into, caller-supplied byte buffers, either heap or direct.
+   * It is obtained from {@link Encoder#newBufferEncoder} and encodes as
+   * that {@code Encoder} does.
+   *
+   * <p> The input may be supplied in any number of parts by successive
+   * invocations of {@link #encode encode}; bytes that do not yet complete
+   * a 3-byte group, and output that did not fit into the output buffer,
+   * are retained between invocations.  Buffers with backing arrays are
+   * encoded directly in their arrays; other buffers are transferred in
+   * bulk through a buffer owned by the encoder, so that no memory is
+   * allocated once the encoder is in use.
+   *
+   * <p> Instances of this class are <em>not</em> safe for use by multiple
+   * concurrent threads.
+   *
+   * @see Encoder#newBufferEncoder
+   * @since 1.8
+   */
+  public static class BufferEncoder {
+
+    private static final int SCRATCH_SIZE = 3 * 1024;
+
+    private final char[] base64;
+    private final byte[] newline;
+    private final int linemax;
+    private final boolean doPadding;
+
+    // Input bytes of an incomplete group, and their number
+    private final byte[] leftover = new byte[3];
+    private int nleft;
+
+    // Characters written to the current line
+    private int linepos;
+
+    // Output of one group that did not fit into the output buffer
+    private final byte[] pending;
+    private int pendingPos;
+    private int pendingEnd;
+
+    // Transfer buffers for buffers without accessible arrays
+    private byte[] srcScratch;
+    private byte[] dstScratch;
+
+    // Input and output indices reached by encodeGroups
+    private int sp;
+    private int dp;
+
+    private BufferEncoder(char[] base64, byte[] newline, int linemax,
+        boolean doPadding) {
+      this.base64 = base64;
+      this.newline = newline;
+      this.linemax = linemax;
+      this.doPadding = doPadding;
+      this.pending = new byte[4 + (linemax > 0 ? newline.length : 0)];
+    }
+
+    /**
+     * Encodes as many bytes as possible from the input buffer, writing the
+     * results to the output buffer.
+     *
+     * <p> The input buffer's position is advanced past every byte read,
+     * including bytes retained as part of a group to be completed by the
+     * next invocation, and the output buffer's position past every byte
+     * written.  If {@code endOfInput} is {@code true}, the input buffer
+     * holds the last part of the input, and the final incomplete group,
+     * if any, is encoded with padding as specified by the {@code Encoder}.
+     *
+     * <p> If this method returns {@code false} the output buffer is full
+     * and the invocation must be repeated, with the same {@code
+     * endOfInput}, once space is available.  When an invocation with
+     * {@code endOfInput} set returns {@code true} the encoding is complete
+     * and this encoder may be used to encode new input.
+     *
+     * @param src the input byte buffer
+     * @param dst the output byte buffer
+     * @param endOfInput {@code true} if, and only if, no input remains
+     * beyond that in {@code src}
+     * @return {@code true} if all input has been consumed and all
+     * resulting output written, {@code false} if the output buffer is full
+     * @throws java.nio.ReadOnlyBufferException if {@code dst} is read-only
+     */
+    public boolean encode(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+      if (!drain(dst)) {
+        return false;
+      }
+      if (nleft > 0) {
+        while (nleft < 3 && src.hasRemaining()) {
+          leftover[nleft++] = src.get();
+        }
+        if (nleft < 3) {
+          return finish(dst, endOfInput);
+        }
+        pendingGroup(leftover[0], leftover[1], leftover[2]);
+        nleft = 0;
+        if (!drain(dst)) {
+          return false;
+        }
+      }
+      while (src.remaining() >= 3) {
+        int consumed = encodeBuffers(src, dst);
+        if (consumed == 0) {
+          // Not enough room for a whole group; write what fits of one
+          pendingGroup(src.get(), src.get(), src.get());
+          if (!drain(dst)) {
+            return false;
+          }
+        }
+      }
+      while (src.hasRemaining()) {
+        leftover[nleft++] = src.get();
+      }
+      return finish(dst, endOfInput);
+    }
+
+    /**
+     * Resets this encoder, discarding any retained input and output.
+     */
+    public void reset() {
+      nleft = 0;
+      linepos = 0;
+      pendingPos = pendingEnd = 0;
+    }
+
+    /*
+     * Encodes whole groups from src to dst as far as both allow, and
+     * returns the number of input bytes consumed.
+     */
+    private int encodeBuffers(ByteBuffer src, ByteBuffer dst) {
+      int n = src.remaining() / 3 * 3;
+      byte[] sa;
+      int so;
+      if (src.hasArray()) {
+        sa = src.array();
+        so = src.arrayOffset() + src.position();
+      } else {
+        if (srcScratch == null) {
+          srcScratch = new byte[SCRATCH_SIZE];
+        }
+        sa = srcScratch;
+        so = 0;
+        n = Math.min(n, SCRATCH_SIZE);
+        src.get(sa, 0, n);
+        src.position(src.position() - n);
+      }
+      if (dst.hasArray()) {
+        int dpos = dst.arrayOffset() + dst.position();
+        encodeGroups(sa, so, so + n, dst.array(), dpos, dpos + dst.remaining());
+        dst.position(dst.position() + (dp - dpos));
+      } else {
+        if (dstScratch == null) {
+          dstScratch = new byte[SCRATCH_SIZE / 3 * 4
+              + (linemax > 0 ? (SCRATCH_SIZE / 3 * 4 / linemax + 1) * newline.length : 0)];
+        }
+        encodeGroups(sa, so, so + n, dstScratch, 0,
+            Math.min(dst.remaining(), dstScratch.length));
+        dst.put(dstScratch, 0, dp);
+      }
+      int consumed = sp - so;
+      src.position(src.position() + consumed);
+      return consumed;
+    }
+
+    /*
+     * Encodes whole groups of sa[sp, sl) into da[dp, dl), inserting line
+     * separators, while whole groups fit, leaving the indices reached in
+     * the sp and dp fields.
+     */
+    private void encodeGroups(byte[] sa, int sp, int sl, byte[] da, int dp, int dl) {
+      while (sp < sl) {
+        if (linemax > 0 && linepos == linemax) {
+          if (dl - dp < newline.length + 4) {
+            break;
+          }
+          for (byte b : newline) {
+            da[dp++] = b;
+          }
+          linepos = 0;
+        }
+        int groups = Math.min((sl - sp) / 3, (dl - dp) / 4);
+        if (linemax > 0) {
+          groups = Math.min(groups, (linemax - linepos) / 4);
+        }
+        if (groups == 0) {
+          break;
+        }
+        int n = groups * 3;
+        dp = Encoder.encodeBlock(sa, sp, sp + n, da, dp, base64);
+        sp += n;
+        linepos += groups * 4;
+      }
+      this.sp = sp;
+      this.dp = dp;
+    }
+
+    /*
+     * Encodes one whole group into the pending output.
+     */
+    private void pendingGroup(byte b0, byte b1, byte b2) {
+      int bits = (b0 & 0xff) << 16 | (b1 & 0xff) << 8 | (b2 & 0xff);
+      int p = startPending();
+      pending[p++] = (byte) base64[(bits >>> 18) & 0x3f];
+      pending[p++] = (byte) base64[(bits >>> 12) & 0x3f];
+      pending[p++] = (byte) base64[(bits >>> 6) & 0x3f];
+      pending[p++] = (byte) base64[bits & 0x3f];
+      pendingEnd = p;
+      linepos += 4;
+    }
+
+    /*
+     * Starts a pending unit of output with a line separator, if one is
+     * due, and returns the index at which its characters follow.
+     */
+    private int startPending() {
+      int p = 0;
+      if (linemax > 0 && linepos == linemax) {
+        for (byte b : newline) {
+          pending[p++] = b;
+        }
+        linepos = 0;
+      }
+      pendingPos = 0;
+      return p;
+    }
+
+    /*
+     * At the end of the input, encodes the final incomplete group; then
+     * writes what remains pending.
+     */
+    private boolean finish(ByteBuffer dst, boolean endOfInput) {
+      if (endOfInput && nleft > 0) {
+        int b0 = leftover[0] & 0xff;
+        int p = startPending();
+        pending[p++] = (byte) base64[b0 >> 2];
+        if (nleft == 1) {
+          pending[p++] = (byte) base64[(b0 << 4) & 0x3f];
+          if (doPadding) {
+            pending[p++] = '=';
+            pending[p++] = '=';
+          }
+        } else {
+          int b1 = leftover[1] & 0xff;
+          pending[p++] = (byte) base64[(b0 << 4) & 0x3f | (b1 >> 4)];
+          pending[p++] = (byte) base64[(b1 << 2) & 0x3f];
+          if (doPadding) {
+            pending[p++] = '=';
+          }
+        }
+        pendingEnd = p;
+        nleft = 0;
+      }
+      if (!drain(dst)) {
+        return false;
+      }
+      if (endOfInput) {
+        linepos = 0;
+      }
+      return true;
+    }
+
+    /*
+     * Writes as much pending output as fits, returning true if none
+     * remains.
+     */
+    private boolean drain(ByteBuffer dst) {
+      int n = Math.min(pendingEnd - pendingPos, dst.remaining());
+      if (n > 0) {
+        dst.put(pending, pendingPos, n);
+        pendingPos += n;
+      }
+      return pendingPos == pendingEnd;
+    }
+  }
+
+  /**
+   * A stateful Base64 decoder that reads its input from, and writes its
+   * output into, caller-supplied byte buffers, either heap or direct.
+   * It is obtained from {@link Decoder#newBufferDecoder} and decodes as
+   * that {@code Decoder} does.
+   *
+   * <p> The input may be supplied in any number of parts by successive
+   * invocations of {@link #decode decode}, split at any byte; the bits
+   * of an incomplete 4-byte atom, and output that did not fit into the
+   * output buffer, are retained between invocations.  Buffers with
+   * backing arrays are decoded directly in their arrays; other buffers
+   * are transferred in bulk through a buffer owned by the decoder, so
+   * that no memory is allocated once the decoder is in use.  The output
+   * buffer may share its contents with the input buffer provided its
+   * position does not exceed that of the input buffer, as is the case
+   * for {@link Decoder#decodeInPlace}.
+   *
+   * <p> Instances of this class are <em>not</em> safe for use by multiple
+   * concurrent threads.
+   *
+   * @see Decoder#newBufferDecoder
+   * @since 1.8
+   */
+  public static class BufferDecoder {
+
+    private static final int SCRATCH_SIZE = 4 * 1024;
+
+    private final int[] base64;
+    private final boolean isMIME;
+
+    // Bits of the current atom, and the position of its next character
+    private int bits;
+    private int shiftto = 18;
+
+    // Whether the second padding character of "xx==" is expected, and
+    // whether the padding is complete
+    private boolean padding;
+    private boolean padded;
+
+    // Final output that did not fit into the output buffer
+    private final byte[] pending = new byte[3];
+    private int pendingPos;
+    private int pendingEnd;
+
+    // Transfer buffers for buffers without accessible arrays
+    private byte[] srcScratch;
+    private byte[] dstScratch;
+
+    // Input and output indices reached by decodeBytes
+    private int sp;
+    private int dp;
+
+    private BufferDecoder(int[] base64, boolean isMIME) {
+      this.base64 = base64;
+      this.isMIME = isMIME;
+    }
+
+    /**
+     * Decodes as many bytes as possible from the input buffer, writing the
+     * results to the output buffer.
+     *
+     * <p> The input buffer's position is advanced past every byte read,
+     * including the characters of an atom to be completed by the next
+     * invocation, and the output buffer's position past every byte
+     * written.  If {@code endOfInput} is {@code true}, the input buffer
+     * holds the last part of the input, and a final atom without padding
+     * is decoded as {@link Decoder} specifies.
+     *
+     * <p> If this method returns {@code false} the output buffer is full
+     * and the invocation must be repeated, with the same {@code
+     * endOfInput}, once space is available.  When an invocation with
+     * {@code endOfInput} set returns {@code true} the decoding is complete
+     * and this decoder may be used to decode new input.
+     *
+     * <p> If the input is not in valid Base64 encoding scheme {@code
+     * IllegalArgumentException} is thrown; the positions of the buffers
+     * are then unspecified, and the decoder must be {@linkplain #reset
+     * reset} before it is used again.
+     *
+     * @param src the input byte buffer
+     * @param dst the output byte buffer
+     * @param endOfInput {@code true} if, and only if, no input remains
+     * beyond that in {@code src}
+     * @return {@code true} if all input has been consumed and all
+     * resulting output written, {@code false} if the output buffer is full
+     * @throws IllegalArgumentException if the input is not in valid Base64
+     * scheme
+     * @throws java.nio.ReadOnlyBufferException if {@code dst} is read-only
+     */
+    public boolean decode(ByteBuffer src, ByteBuffer dst, boolean endOfInput) {
+      if (!drain(dst)) {
+        return false;
+      }
+      while (src.hasRemaining()) {
+        decodeBuffers(src, dst);
+        if (!drain(dst)) {
+          return false;
+        }
+      }
+      if (endOfInput) {
+        if (!padded) {
+          if (padding) {
+            throw new IllegalArgumentException(
+                "Input byte array has wrong 4-byte ending unit");
+          }
+          if (shiftto == 12) {
+            throw new IllegalArgumentException(
+                "Last unit does not have enough valid bits");
+          }
+          finishAtom();
+        }
+        if (!drain(dst)) {
+          return false;
+        }
+        resetAtom();
+      }
+      return true;
+    }
+
+    /**
+     * Resets this decoder, discarding any retained input and output.
+     */
+    public void reset() {
+      resetAtom();
+      pendingPos = pendingEnd = 0;
+    }
+
+    private void resetAtom() {
+      bits = 0;
+      shiftto = 18;
+      padding = false;
+      padded = false;
+    }
+
+    /*
+     * Decodes from src to dst as far as both allow.
+     */
+    private void decodeBuffers(ByteBuffer src, ByteBuffer dst) {
+      int n = src.remaining();
+      byte[] sa;
+      int so;
+      if (src.hasArray()) {
+        sa = src.array();
+        so = src.arrayOffset() + src.position();
+      } else {
+        if (srcScratch == null) {
+          srcScratch = new byte[SCRATCH_SIZE];
+        }
+        sa = srcScratch;
+        so = 0;
+        n = Math.min(n, SCRATCH_SIZE);
+        src.get(sa, 0, n);
+        src.position(src.position() - n);
+      }
+      if (dst.hasArray()) {
+        int dpos = dst.arrayOffset() + dst.position();
+        decodeBytes(sa, so, so + n, dst.array(), dpos, dpos + dst.remaining());
+        dst.position(dst.position() + (dp - dpos));
+      } else {
+        if (dstScratch == null) {
+          dstScratch = new byte[SCRATCH_SIZE / 4 * 3];
+        }
+        decodeBytes(sa, so, so + n, dstScratch, 0,
+            Math.min(dst.remaining(), dstScratch.length));
+        dst.put(dstScratch, 0, dp);
+      }
+      src.position(src.position() + (sp - so));
+    }
+
+    /*
+     * Decodes sa[sp, sl) into da[dp, dl), stopping after the character
+     * that completes an atom for which there is no room, whose bytes are
+     * then left pending, and leaving the
+     * indices reached in the sp and dp fields.  The cases of padding are
+     * those of Decoder.decode0.
+     */
+    private void decodeBytes(byte[] sa, int sp, int sl, byte[] da, int dp, int dl) {
+      int[] base64 = this.base64;
+      while (sp < sl) {
+        if (shiftto == 18 && !padded) {
+          int n = Decoder.decodeBlock(sa, sp, sl, da, dp, dl, base64);
+          sp += n;
+          dp += n / 4 * 3;
+          if (sp == sl) {
+            break;
+          }
+        }
+        int b = base64[sa[sp] & 0xff];
+        if (padded) {
+          // anything left is invalid, if is not MIME.
+          if (isMIME && b < 0) {
+            sp++;
+            continue;
+          }
+          throw new IllegalArgumentException(
+              "Input byte array has incorrect ending byte");
+        }
+        if (padding && b != -2) {
+          // xx=y, or xx= followed by a character to be skipped
+          throw new IllegalArgumentException(
+              "Input byte array has wrong 4-byte ending unit");
+        }
+        if (b >= 0) {
+          sp++;
+          if (shiftto == 0 && dl - dp < 3) {
+            // No room for the atom; write what fits of it later
+            bits |= b;
+            pending[0] = (byte) (bits >> 16);
+            pending[1] = (byte) (bits >> 8);
+            pending[2] = (byte) bits;
+            pendingPos = 0;
+            pendingEnd = 3;
+            shiftto = 18;
+            bits = 0;
+            break;
+          }
+          bits |= b << shiftto;
+          shiftto -= 6;
+          if (shiftto < 0) {
+            da[dp++] = (byte) (bits >> 16);
+            da[dp++] = (byte) (bits >> 8);
+            da[dp++] = (byte) bits;
+            shiftto = 18;
+            bits = 0;
+          }
+        } else if (b == -2) {
+          sp++;
+          if (padding) {
+            padding = false;
+            padded = true;
+            finishAtom();
+          } else if (shiftto == 18) {
+            throw new IllegalArgumentException(
+                "Input byte array has wrong 4-byte ending unit");
+          } else if (shiftto == 12) {
+            throw new IllegalArgumentException(
+                "Last unit does not have enough valid bits");
+          } else if (shiftto == 6) {
+            padding = true;
+          } else {
+            padded = true;
+            finishAtom();
+          }
+        } else if (isMIME) {
+          sp++;
+        } else {
+          throw new IllegalArgumentException(
+              "Illegal base64 character " + Integer.toString(sa[sp], 16));
+        }
+      }
+      this.sp = sp;
+      this.dp = dp;
+    }
+
+    /*
+     * Makes the bytes of a final atom of two or three characters pending.
+     */
+    private void finishAtom() {
+      int p = 0;
+      if (shiftto == 6) {
+        pending[p++] = (byte) (bits >> 16);
+      } else if (shiftto == 0) {
+        pending[p++] = (byte) (bits >> 16);
+        pending[p++] = (byte) (bits >> 8);
+      }
+      pendingPos = 0;
+      pendingEnd = p;
+      shiftto = 18;
+      bits = 0;
+    }
+
+    /*
+     * Writes as much pending output as fits, returning true if none
+     * remains.
+     */
+    private boolean drain(ByteBuffer dst) {
+      int n = Math.min(pendingEnd - pendingPos, dst.remaining());
+      if (n > 0) {
+        dst.put(pending, pendingPos, n);
+        pendingPos += n;
+      }
+      return pendingPos == pendingEnd;
+    }
   }
 
   /*
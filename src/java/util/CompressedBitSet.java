@@ -0,0 +1,2208 @@
+/*
+ * Copyright (c) 1995, 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A compressed set of bits, indexed by nonnegative {@code int} values,
+ * with the same operations as {@link BitSet}.  Where a {@code BitSet}
+ * always stores one bit per index up to its highest set bit, this class
+ * partitions the index space into chunks of 2<sup>16</sup> bits and
+ * stores only the chunks that contain set bits, each in whichever of
+ * three forms is smallest:
+ *
+ * <ul>
+ * <li>a sorted array of 16-bit offsets, for chunks with at most 4096
+ * set bits;
+ * <li>a bitmap of 1024 {@code long} words, as in {@code BitSet}, for
+ * denser chunks;
+ * <li>a sorted list of runs of consecutive set bits, for chunks
+ * consisting of long runs.  Runs are created by the range operations,
+ * such as {@link #set(int, int)}, and by {@link #runOptimize}.
+ * </ul>
+ *
+ * <p>This layout, popularized as "Roaring" bitmaps, makes sets that are
+ * sparse or clustered over a large index range much smaller than the
+ * corresponding {@code BitSet} or {@code HashSet<Integer>}, while the
+ * logical operations {@link #and and}, {@link #or or}, {@link #xor xor}
+ * and {@link #andNot andNot} process whole chunks at a time, word by
+ * word on dense chunks, and skip chunks absent from either operand.
+ * All of these operations update this set in place.
+ *
+ * <p>The serialized form of this class stores each chunk in its
+ * compressed form.
+ *
+ * <p>Unless otherwise noted, passing a null parameter to any of the
+ * methods in a {@code CompressedBitSet} will result in a
+ * {@code NullPointerException}.
+ *
+ * <p>A {@code CompressedBitSet} is not safe for multithreaded use
+ * without external synchronization.
+ *
+ * @see BitSet
+ * @since 1.8
+ */
+public class CompressedBitSet implements Cloneable, java.io.Serializable {
+
+  private static final long serialVersionUID = -4628196355312358462L;
+
+  /*
+   * Implementation notes.
+   *
+   * The set is a sorted array of 16-bit chunk keys (the high halves of
+   * the indices), in field keys, with a parallel array of Containers
+   * holding the low halves. Only non-empty containers are stored.
+   *
+   * Each container is an ArrayContainer (sorted char[] of at most
+   * ARRAY_MAX values), a BitmapContainer (1024 words, always with more
+   * than ARRAY_MAX bits set) or a RunContainer (sorted, disjoint,
+   * non-adjacent runs, stored as (start, length - 1) pairs of chars).
+   * Container mutators return the container to use from then on,
+   * which is either the receiver or a converted copy, or null if the
+   * container became empty.
+   *
+   * The static binary operations of Container take ownership of their
+   * first operand, which they may update in place and return, and never
+   * return or modify their second operand. Array operands are handled
+   * by merging or probing, pairs of run containers by sweeping their
+   * run boundaries, and everything else by word-at-a-time operations
+   * on 1024-word bitmaps.
+   */
+
+  /**
+   * Containers with at most this many values are stored as arrays.
+   */
+  static final int ARRAY_MAX = 4096;
+
+  /**
+   * Number of words in a bitmap container.
+   */
+  static final int BITMAP_WORDS = 1 << 10;
+
+  private static final char[] EMPTY_KEYS = {};
+  private static final Container[] EMPTY_CONTAINERS = {};
+
+  /**
+   * The sorted chunk keys.
+   */
+  private transient char[] keys;
+
+  /**
+   * The containers, parallel to keys.
+   */
+  private transient Container[] containers;
+
+  /**
+   * The number of chunks in use.
+   */
+  private transient int size;
+
+  /**
+   * Creates a new, empty compressed bit set.
+   */
+  public CompressedBitSet() {
+    keys = EMPTY_KEYS;
+    containers = EMPTY_CONTAINERS;
+  }
+
+  /**
+   * Returns a new compressed bit set containing all the bits set in the
+   * given bit set.
+   *
+   * @param bs a bit set
+   * @return a {@code CompressedBitSet} containing the bits of {@code bs}
+   */
+  public static CompressedBitSet valueOf(BitSet bs) {
+    CompressedBitSet result = new CompressedBitSet();
+    long[] words = bs.toLongArray();
+    int n = (words.length + BITMAP_WORDS - 1) / BITMAP_WORDS;
+    result.ensureCapacity(n);
+    for (int hb = 0; hb < n; hb++) {
+      int from = hb * BITMAP_WORDS;
+      long[] w = Arrays.copyOfRange(words, from, from + BITMAP_WORDS);
+      Container c = Container.fromWords(w);
+      if (c != null) {
+        result.keys[result.size] = (char) hb;
+        result.containers[result.size++] = c;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns a new bit set containing all the bits set in this set.
+   *
+   * @return a {@code BitSet} containing the bits of this set
+   */
+  public BitSet toBitSet() {
+    if (size == 0) {
+      return new BitSet();
+    }
+    int nwords = ((length() - 1) >>> 6) + 1;
+    long[] words = new long[nwords];
+    for (int i = 0; i < size; i++) {
+      int off = keys[i] * BITMAP_WORDS;
+      long[] w = containers[i].toWords(false);
+      System.arraycopy(w, 0, words, off, Math.min(BITMAP_WORDS, nwords - off));
+    }
+    return BitSet.valueOf(words);
+  }
+
+  /* ---------------- Chunk table -------------- */
+
+  private static int highBits(int bitIndex) {
+    return bitIndex >>> 16;
+  }
+
+  private static int lowBits(int bitIndex) {
+    return bitIndex & 0xFFFF;
+  }
+
+  /**
+   * Binary search for a chunk key, with the result convention of
+   * Arrays.binarySearch.
+   */
+  private int indexOfKey(int hb) {
+    char[] ks = keys;
+    int lo = 0, hi = size - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1, k = ks[mid];
+      if (k < hb) {
+        lo = mid + 1;
+      } else if (k > hb) {
+        hi = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(lo + 1);
+  }
+
+  private void ensureCapacity(int n) {
+    if (n > keys.length) {
+      int newCapacity = Math.max(n, Math.min(keys.length * 2 + 4, 1 << 15));
+      keys = Arrays.copyOf(keys, newCapacity);
+      containers = Arrays.copyOf(containers, newCapacity);
+    }
+  }
+
+  private void insertAt(int i, int hb, Container c) {
+    ensureCapacity(size + 1);
+    System.arraycopy(keys, i, keys, i + 1, size - i);
+    System.arraycopy(containers, i, containers, i + 1, size - i);
+    keys[i] = (char) hb;
+    containers[i] = c;
+    size++;
+  }
+
+  private void removeAt(int i) {
+    System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+    System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+    containers[--size] = null;
+  }
+
+  /**
+   * Stores container c at index i, removing the chunk if c is null.
+   */
+  private void setAt(int i, Container c) {
+    if (c == null) {
+      removeAt(i);
+    } else {
+      containers[i] = c;
+    }
+  }
+
+  /**
+   * Checks that fromIndex ... toIndex is a valid range of bit indices.
+   */
+  private static void checkRange(int fromIndex, int toIndex) {
+    if (fromIndex < 0) {
+      throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+    }
+    if (toIndex < 0) {
+      throw new IndexOutOfBoundsException("toIndex < 0: " + toIndex);
+    }
+    if (fromIndex > toIndex) {
+      throw new IndexOutOfBoundsException("fromIndex: " + fromIndex +
+          " > toIndex: " + toIndex);
+    }
+  }
+
+  /* ---------------- Single bits -------------- */
+
+  /**
+   * Returns the value of the bit with the specified index.
+   *
+   * @param bitIndex the bit index
+   * @return the value of the bit with the specified index
+   * @throws IndexOutOfBoundsException if the specified index is negative
+   */
+  public boolean get(int bitIndex) {
+    if (bitIndex < 0) {
+      throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+    }
+    int i = indexOfKey(highBits(bitIndex));
+    return i >= 0 && containers[i].contains(lowBits(bitIndex));
+  }
+
+  /**
+   * Sets the bit at the specified index to {@code true}.
+   *
+   * @param bitIndex a bit index
+   * @throws IndexOutOfBoundsException if the specified index is negative
+   */
+  public void set(int bitIndex) {
+    if (bitIndex < 0) {
+      throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+    }
+    int hb = highBits(bitIndex), i = indexOfKey(hb);
+    if (i >= 0) {
+      containers[i] = containers[i].add(lowBits(bitIndex));
+    } else {
+      ArrayContainer c = new ArrayContainer(4);
+      c.content[0] = (char) lowBits(bitIndex);
+      c.card = 1;
+      insertAt(-(i + 1), hb, c);
+    }
+  }
+
+  /**
+   * Sets the bit at the specified index to the specified value.
+   *
+   * @param bitIndex a bit index
+   * @param value a boolean value to set
+   * @throws IndexOutOfBoundsException if the specified index is negative
+   */
+  public void set(int bitIndex, boolean value) {
+    if (value) {
+      set(bitIndex);
+    } else {
+      clear(bitIndex);
+    }
+  }
+
+  /**
+   * Sets the bit specified by the index to {@code false}.
+   *
+   * @param bitIndex the index of the bit to be cleared
+   * @throws IndexOutOfBoundsException if the specified index is negative
+   */
+  public void clear(int bitIndex) {
+    if (bitIndex < 0) {
+      throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+    }
+    int i = indexOfKey(highBits(bitIndex));
+    if (i >= 0) {
+      setAt(i, containers[i].remove(lowBits(bitIndex)));
+    }
+  }
+
+  /**
+   * Sets the bit at the specified index to the complement of its
+   * current value.
+   *
+   * @param bitIndex the index of the bit to flip
+   * @throws IndexOutOfBoundsException if the specified index is negative
+   */
+  public void flip(int bitIndex) {
+    if (get(bitIndex)) {
+      clear(bitIndex);
+    } else {
+      set(bitIndex);
+    }
+  }
+
+  /* ---------------- Ranges -------------- */
+
+  private static final int SET = 0, CLEAR = 1, FLIP = 2;
+
+  /**
+   * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+   * specified {@code toIndex} (exclusive) to {@code true}.  Chunks that
+   * become fully set are stored as single runs.
+   *
+   * @param fromIndex index of the first bit to be set
+   * @param toIndex index after the last bit to be set
+   * @throws IndexOutOfBoundsException if {@code fromIndex} is negative, or {@code toIndex} is
+   * negative, or {@code fromIndex} is larger than {@code toIndex}
+   */
+  public void set(int fromIndex, int toIndex) {
+    rangeOp(fromIndex, toIndex, SET);
+  }
+
+  /**
+   * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+   * specified {@code toIndex} (exclusive) to the specified value.
+   *
+   * @param fromIndex index of the first bit to be set
+   * @param toIndex index after the last bit to be set
+   * @param value value to set the selected bits to
+   * @throws IndexOutOfBoundsException if {@code fromIndex} is negative, or {@code toIndex} is
+   * negative, or {@code fromIndex} is larger than {@code toIndex}
+   */
+  public void set(int fromIndex, int toIndex, boolean value) {
+    rangeOp(fromIndex, toIndex, value ? SET : CLEAR);
+  }
+
+  /**
+   * Sets the bits from the specified {@code fromIndex} (inclusive) to the
+   * specified {@code toIndex} (exclusive) to {@code false}.
+   *
+   * @param fromIndex index of the first bit to be cleared
+   * @param toIndex index after the last bit to be cleared
+   * @throws IndexOutOfBoundsException if {@code fromIndex} is negative, or {@code toIndex} is
+   * negative, or {@code fromIndex} is larger than {@code toIndex}
+   */
+  public void clear(int fromIndex, int toIndex) {
+    rangeOp(fromIndex, toIndex, CLEAR);
+  }
+
+  /**
+   * Sets each bit from the specified {@code fromIndex} (inclusive) to the
+   * specified {@code toIndex} (exclusive) to the complement of its current
+   * value.
+   *
+   * @param fromIndex index of the first bit to flip
+   * @param toIndex index after the last bit to flip
+   * @throws IndexOutOfBoundsException if {@code fromIndex} is negative, or {@code toIndex} is
+   * negative, or {@code fromIndex} is larger than {@code toIndex}
+   */
+  public void flip(int fromIndex, int toIndex) {
+    rangeOp(fromIndex, toIndex, FLIP);
+  }
+
+  /**
+   * Applies a range operation to all chunks overlapping the range.
+   */
+  private void rangeOp(int fromIndex, int toIndex, int op) {
+    checkRange(fromIndex, toIndex);
+    if (fromIndex == toIndex) {
+      return;
+    }
+    int hbFrom = highBits(fromIndex), hbTo = highBits(toIndex - 1);
+    int loFrom = lowBits(fromIndex), hiTo = lowBits(toIndex - 1) + 1;
+    int i0 = indexOfKey(hbFrom), i1 = indexOfKey(hbTo);
+    i0 = (i0 < 0) ? -(i0 + 1) : i0;
+    i1 = (i1 < 0) ? -(i1 + 1) : i1 + 1;
+    if (op == CLEAR || i1 - i0 == hbTo - hbFrom + 1) {
+      // all affected chunks present: update in place, dropping empties
+      int w = i0;
+      for (int i = i0; i < i1; i++) {
+        int hb = keys[i];
+        int lo = (hb == hbFrom) ? loFrom : 0;
+        int hi = (hb == hbTo) ? hiTo : 1 << 16;
+        Container c = containers[i];
+        c = (op == SET) ? c.addRange(lo, hi) :
+            (op == CLEAR) ? c.removeRange(lo, hi) : c.flipRange(lo, hi);
+        if (c != null) {
+          keys[w] = (char) hb;
+          containers[w++] = c;
+        }
+      }
+      if (w != i1) {
+        System.arraycopy(keys, i1, keys, w, size - i1);
+        System.arraycopy(containers, i1, containers, w, size - i1);
+        int newSize = size - (i1 - w);
+        Arrays.fill(containers, newSize, size, null);
+        size = newSize;
+      }
+    } else {
+      // merge the full key range into new tables
+      int span = hbTo - hbFrom + 1, n = i0;
+      char[] nk = new char[size - (i1 - i0) + span];
+      Container[] nc = new Container[nk.length];
+      System.arraycopy(keys, 0, nk, 0, i0);
+      System.arraycopy(containers, 0, nc, 0, i0);
+      for (int hb = hbFrom, i = i0; hb <= hbTo; hb++) {
+        int lo = (hb == hbFrom) ? loFrom : 0;
+        int hi = (hb == hbTo) ? hiTo : 1 << 16;
+        Container c;
+        if (i < i1 && keys[i] == hb) {
+          c = containers[i++];
+          c = (op == SET) ? c.addRange(lo, hi) : c.flipRange(lo, hi);
+        } else {
+          c = RunContainer.range(lo, hi);
+        }
+        if (c != null) {
+          nk[n] = (char) hb;
+          nc[n++] = c;
+        }
+      }
+      System.arraycopy(keys, i1, nk, n, size - i1);
+      System.arraycopy(containers, i1, nc, n, size - i1);
+      keys = nk;
+      containers = nc;
+      size = n + size - i1;
+    }
+  }
+
+  /**
+   * Sets all of the bits in this set to {@code false}.
+   */
+  public void clear() {
+    Arrays.fill(containers, 0, size, null);
+    size = 0;
+  }
+
+  /* ---------------- Searching -------------- */
+
+  /**
+   * Returns the index of the first bit that is set to {@code true}
+   * that occurs on or after the specified starting index. If no such
+   * bit exists then {@code -1} is returned.
+   *
+   * @param fromIndex the index to start checking from (inclusive)
+   * @return the index of the next set bit, or {@code -1} if there is no such bit
+   * @throws IndexOutOfBoundsException if the specified index is negative
+   */
+  public int nextSetBit(int fromIndex) {
+    if (fromIndex < 0) {
+      throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+    }
+    int hb = highBits(fromIndex), i = indexOfKey(hb);
+    if (i >= 0) {
+      int v = containers[i].next(lowBits(fromIndex));
+      if (v >= 0) {
+        return (hb << 16) | v;
+      }
+      i++;
+    } else {
+      i = -(i + 1);
+    }
+    return (i < size) ? (keys[i] << 16) | containers[i].next(0) : -1;
+  }
+
+  /**
+   * Returns the index of the first bit that is set to {@code false}
+   * that occurs on or after the specified starting index.  If all bits
+   * from the starting index up to {@code Integer.MAX_VALUE} are set,
+   * {@code -1} is returned.
+   *
+   * @param fromIndex the index to start checking from (inclusive)
+   * @return the index of the next clear bit, or {@code -1} if there is no such bit
+   * @throws IndexOutOfBoundsException if the specified index is negative
+   */
+  public int nextClearBit(int fromIndex) {
+    if (fromIndex < 0) {
+      throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+    }
+    int hb = highBits(fromIndex), i = indexOfKey(hb);
+    if (i < 0) {
+      return fromIndex;
+    }
+    int v = containers[i].nextAbsent(lowBits(fromIndex));
+    while (v > 0xFFFF) {
+      if (++hb > 0x7FFF) {
+        return -1;
+      }
+      if (++i >= size || keys[i] != hb) {
+        return hb << 16;
+      }
+      v = containers[i].nextAbsent(0);
+    }
+    return (hb << 16) | v;
+  }
+
+  /**
+   * Returns the index of the nearest bit that is set to {@code true}
+   * that occurs on or before the specified starting index.
+   * If no such bit exists, or if {@code -1} is given as the
+   * starting index, then {@code -1} is returned.
+   *
+   * @param fromIndex the index to start checking from (inclusive)
+   * @return the index of the previous set bit, or {@code -1} if there is no such bit
+   * @throws IndexOutOfBoundsException if the specified index is less than {@code -1}
+   */
+  public int previousSetBit(int fromIndex) {
+    if (fromIndex < 0) {
+      if (fromIndex == -1) {
+        return -1;
+      }
+      throw new IndexOutOfBoundsException(
+          "fromIndex < -1: " + fromIndex);
+    }
+    int hb = highBits(fromIndex), i = indexOfKey(hb);
+    if (i >= 0) {
+      int v = containers[i].prev(lowBits(fromIndex));
+      if (v >= 0) {
+        return (hb << 16) | v;
+      }
+    } else {
+      i = -(i + 1);
+    }
+    return (--i >= 0) ? (keys[i] << 16) | containers[i].prev(0xFFFF) : -1;
+  }
+
+  /**
+   * Returns the index of the nearest bit that is set to {@code false}
+   * that occurs on or before the specified starting index.
+   * If no such bit exists, or if {@code -1} is given as the
+   * starting index, then {@code -1} is returned.
+   *
+   * @param fromIndex the index to start checking from (inclusive)
+   * @return the index of the previous clear bit, or {@code -1} if there is no such bit
+   * @throws IndexOutOfBoundsException if the specified index is less than {@code -1}
+   */
+  public int previousClearBit(int fromIndex) {
+    if (fromIndex < 0) {
+      if (fromIndex == -1) {
+        return -1;
+      }
+      throw new IndexOutOfBoundsException(
+          "fromIndex < -1: " + fromIndex);
+    }
+    int hb = highBits(fromIndex), i = indexOfKey(hb);
+    if (i < 0) {
+      return fromIndex;
+    }
+    int v = containers[i].prevAbsent(lowBits(fromIndex));
+    while (v < 0) {
+      if (--hb < 0) {
+        return -1;
+      }
+      if (--i < 0 || keys[i] != hb) {
+        return (hb << 16) | 0xFFFF;
+      }
+      v = containers[i].prevAbsent(0xFFFF);
+    }
+    return (hb << 16) | v;
+  }
+
+  /**
+   * Returns the "logical size" of this set: the index of the highest
+   * set bit plus one, or zero if the set contains no set bits.
+   *
+   * @return the logical size of this set
+   */
+  public int length() {
+    if (size == 0) {
+      return 0;
+    }
+    return ((keys[size - 1] << 16) | containers[size - 1].prev(0xFFFF)) + 1;
+  }
+
+  /**
+   * Returns true if this set contains no bits that are set to
+   * {@code true}.
+   *
+   * @return boolean indicating whether this set is empty
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the number of bits set to {@code true} in this set.
+   *
+   * @return the number of bits set to {@code true} in this set
+   */
+  public int cardinality() {
+    int sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += containers[i].cardinality();
+    }
+    return sum;
+  }
+
+  /* ---------------- Set algebra -------------- */
+
+  /**
+   * Returns true if the specified set has any bits set to {@code true}
+   * that are also set to {@code true} in this set.
+   *
+   * @param set a set to intersect with
+   * @return boolean indicating whether this set intersects the specified set
+   */
+  public boolean intersects(CompressedBitSet set) {
+    for (int i = 0, j = 0; i < size && j < set.size; ) {
+      int ki = keys[i], kj = set.keys[j];
+      if (ki < kj) {
+        i++;
+      } else if (ki > kj) {
+        j++;
+      } else if (Container.intersects(containers[i++], set.containers[j++])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Performs a logical <b>AND</b> of this target set with the argument
+   * set.  This set is modified so that each bit in it has the value
+   * {@code true} if and only if it both initially had the value
+   * {@code true} and the corresponding bit in the set argument also had
+   * the value {@code true}.
+   *
+   * @param set a set
+   */
+  public void and(CompressedBitSet set) {
+    if (this == set) {
+      return;
+    }
+    int w = 0;
+    for (int i = 0, j = 0; i < size && j < set.size; ) {
+      int ki = keys[i], kj = set.keys[j];
+      if (ki < kj) {
+        i++;
+      } else if (ki > kj) {
+        j++;
+      } else {
+        Container c = Container.and(containers[i++], set.containers[j++]);
+        if (c != null) {
+          keys[w] = (char) ki;
+          containers[w++] = c;
+        }
+      }
+    }
+    Arrays.fill(containers, w, size, null);
+    size = w;
+  }
+
+  /**
+   * Performs a logical <b>OR</b> of this set with the set argument.
+   * This set is modified so that a bit in it has the value {@code true}
+   * if and only if it either already had the value {@code true} or the
+   * corresponding bit in the set argument has the value {@code true}.
+   *
+   * @param set a set
+   */
+  public void or(CompressedBitSet set) {
+    if (this != set) {
+      merge(set, false);
+    }
+  }
+
+  /**
+   * Performs a logical <b>XOR</b> of this set with the set argument.
+   * This set is modified so that a bit in it has the value {@code true}
+   * if and only if exactly one of the corresponding bits in this set and
+   * in the set argument has the value {@code true}.
+   *
+   * @param set a set
+   */
+  public void xor(CompressedBitSet set) {
+    if (this == set) {
+      clear();
+    } else {
+      merge(set, true);
+    }
+  }
+
+  /**
+   * Implements or and xor, whose results contain all chunks present
+   * in only one of the operands.
+   */
+  private void merge(CompressedBitSet set, boolean xor) {
+    int n = size, m = set.size;
+    if (m == 0) {
+      return;
+    }
+    char[] ks = keys, oks = set.keys;
+    Container[] cs = containers, ocs = set.containers;
+    char[] nk = new char[n + m];
+    Container[] nc = new Container[n + m];
+    int i = 0, j = 0, w = 0;
+    while (i < n && j < m) {
+      int ki = ks[i], kj = oks[j];
+      if (ki < kj) {
+        nk[w] = (char) ki;
+        nc[w++] = cs[i++];
+      } else if (ki > kj) {
+        nk[w] = (char) kj;
+        nc[w++] = ocs[j++].copy();
+      } else {
+        Container c = xor ? Container.xor(cs[i++], ocs[j++]) :
+            Container.or(cs[i++], ocs[j++]);
+        if (c != null) {
+          nk[w] = (char) ki;
+          nc[w++] = c;
+        }
+      }
+    }
+    for (; i < n; i++, w++) {
+      nk[w] = ks[i];
+      nc[w] = cs[i];
+    }
+    for (; j < m; j++, w++) {
+      nk[w] = oks[j];
+      nc[w] = ocs[j].copy();
+    }
+    keys = nk;
+    containers = nc;
+    size = w;
+  }
+
+  /**
+   * Clears all of the bits in this set whose corresponding bit is set
+   * in the specified set.
+   *
+   * @param set the set with which to mask this set
+   */
+  public void andNot(CompressedBitSet set) {
+    if (this == set) {
+      clear();
+      return;
+    }
+    int w = 0, i = 0;
+    for (int j = 0; i < size; ) {
+      int ki = keys[i];
+      while (j < set.size && set.keys[j] < ki) {
+        j++;
+      }
+      Container c = containers[i++];
+      if (j < set.size && set.keys[j] == ki) {
+        c = Container.andNot(c, set.containers[j++]);
+      }
+      if (c != null) {
+        keys[w] = (char) ki;
+        containers[w++] = c;
+      }
+    }
+    Arrays.fill(containers, w, size, null);
+    size = w;
+  }
+
+  /**
+   * Converts chunks to run-length encoded form wherever that form is
+   * smaller than the current one, and array or bitmap chunks back from
+   * run form where it is not.  Run form is chosen automatically only by
+   * range operations; calling this method after populating a set bit by
+   * bit can considerably reduce its size if the set bits are clustered.
+   *
+   * @return {@code true} if any chunk is stored as runs after the call
+   */
+  public boolean runOptimize() {
+    boolean runs = false;
+    for (int i = 0; i < size; i++) {
+      Container c = containers[i] = containers[i].optimize();
+      runs |= c instanceof RunContainer;
+    }
+    return runs;
+  }
+
+  /* ---------------- Object methods -------------- */
+
+  /**
+   * Returns the hash code value for this set.  The hash code depends
+   * only on which bits are set, not on how they are stored.
+   *
+   * @return the hash code value for this set
+   */
+  public int hashCode() {
+    long h = 1234;
+    for (int i = 0; i < size; i++) {
+      h = h * 31 + keys[i];
+      h = h * 31 + containers[i].wordHash();
+    }
+    return (int) ((h >> 32) ^ h);
+  }
+
+  /**
+   * Compares this object against the specified object.  The result is
+   * {@code true} if and only if the argument is a
+   * {@code CompressedBitSet} in which exactly the same bits are set as
+   * in this set.
+   *
+   * @param obj the object to compare with
+   * @return {@code true} if the objects are the same; {@code false} otherwise
+   */
+  public boolean equals(Object obj) {
+    if (!(obj instanceof CompressedBitSet)) {
+      return false;
+    }
+    if (this == obj) {
+      return true;
+    }
+    CompressedBitSet set = (CompressedBitSet) obj;
+    if (size != set.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (keys[i] != set.keys[i] ||
+          !Container.contentEquals(containers[i], set.containers[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Cloning this {@code CompressedBitSet} produces a new set that is
+   * equal to it.
+   *
+   * @return a clone of this set
+   */
+  public Object clone() {
+    try {
+      CompressedBitSet result = (CompressedBitSet) super.clone();
+      result.keys = Arrays.copyOf(keys, size);
+      result.containers = new Container[size];
+      for (int i = 0; i < size; i++) {
+        result.containers[i] = containers[i].copy();
+      }
+      return result;
+    } catch (CloneNotSupportedException e) {
+      throw new InternalError(e);
+    }
+  }
+
+  /**
+   * Returns a string representation of this set, listing the indices
+   * of the set bits in the same format as {@link BitSet#toString()}.
+   *
+   * @return a string representation of this set
+   */
+  public String toString() {
+    StringBuilder b = new StringBuilder("{");
+    for (int i = 0; i < size; i++) {
+      final int base = keys[i] << 16;
+      containers[i].forEach(0, base, v -> {
+        if (b.length() > 1) {
+          b.append(", ");
+        }
+        b.append(v);
+      });
+    }
+    return b.append('}').toString();
+  }
+
+  /**
+   * Returns a stream of indices for which this set contains a bit in
+   * the set state.  The indices are returned in order, from lowest to
+   * highest.  The size of the stream is the number of bits in the set
+   * state, equal to the value returned by the {@link #cardinality()}
+   * method.  The stream splits at chunk boundaries, and so can be
+   * processed efficiently in parallel.
+   *
+   * <p>The set must remain constant during the execution of the
+   * terminal stream operation.  Otherwise, the result of the terminal
+   * stream operation is undefined.
+   *
+   * @return a stream of integers representing set indices
+   */
+  public IntStream stream() {
+    return StreamSupport.intStream(
+        () -> new BitsSpliterator(keys, containers, 0, size, 0, -1L),
+        BitsSpliterator.CHARACTERISTICS, false);
+  }
+
+  /**
+   * Spliterator over the chunks [index, fence) of a set, starting at
+   * offset from within chunk index.
+   */
+  static final class BitsSpliterator implements Spliterator.OfInt {
+
+    static final int CHARACTERISTICS = Spliterator.ORDERED |
+        Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL |
+        Spliterator.SIZED | Spliterator.SUBSIZED;
+
+    final char[] keys;
+    final Container[] containers;
+    int index;
+    final int fence;
+    int from;
+    long remaining;        // -1 until first use
+
+    BitsSpliterator(char[] keys, Container[] containers, int index,
+        int fence, int from, long remaining) {
+      this.keys = keys;
+      this.containers = containers;
+      this.index = index;
+      this.fence = fence;
+      this.from = from;
+      this.remaining = remaining;
+    }
+
+    private long count(int lo, int hi) {
+      long n = 0;
+      for (int i = lo; i < hi; i++) {
+        n += containers[i].cardinality();
+      }
+      return n;
+    }
+
+    private long getRemaining() {
+      long r = remaining;
+      if (r < 0) {
+        r = remaining = count(index, fence);
+      }
+      return r;
+    }
+
+    public Spliterator.OfInt trySplit() {
+      int lo = index, mid = (lo + fence) >>> 1;
+      if (mid <= lo) {
+        return null;
+      }
+      long suffix = count(mid, fence), prefix = getRemaining() - suffix;
+      BitsSpliterator s = new BitsSpliterator(keys, containers, lo, mid,
+          from, prefix);
+      index = mid;
+      from = 0;
+      remaining = suffix;
+      return s;
+    }
+
+    public boolean tryAdvance(IntConsumer action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      getRemaining();
+      for (; index < fence; index++, from = 0) {
+        int v = (from > 0xFFFF) ? -1 : containers[index].next(from);
+        if (v >= 0) {
+          from = v + 1;
+          remaining--;
+          action.accept((keys[index] << 16) | v);
+          return true;
+        }
+      }
+      return false;
+    }
+
+    public void forEachRemaining(IntConsumer action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      int i = index, hi = fence, f = from;
+      index = hi;
+      remaining = 0;
+      for (; i < hi; i++, f = 0) {
+        if (f <= 0xFFFF) {
+          containers[i].forEach(f, keys[i] << 16, action);
+        }
+      }
+    }
+
+    public long estimateSize() {
+      return getRemaining();
+    }
+
+    public int characteristics() {
+      return CHARACTERISTICS;
+    }
+
+    public Comparator<? super Integer> getComparator() {
+      return null;
+    }
+  }
+
+  /* ---------------- Serialization -------------- */
+
+  /**
+   * Save the state of the {@code CompressedBitSet} instance to a stream
+   * (i.e., serialize it).
+   *
+   * @serialData The number of chunks (int), followed, for each chunk in ascending order, by its key
+   * (char) and its container: a type tag (byte), then for array containers the number of values
+   * (char) and the values (each a char), for bitmap containers 1024 words (each a long), and for
+   * run containers the number of runs (char) followed by the start (char) and length minus one
+   * (char) of each run.
+   */
+  private void writeObject(ObjectOutputStream s) throws IOException {
+    s.defaultWriteObject();
+    s.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      s.writeChar(keys[i]);
+      containers[i].write(s);
+    }
+  }
+
+  /**
+   * Reconstitute the {@code CompressedBitSet} instance from a stream
+   * (i.e., deserialize it).
+   */
+  private void readObject(ObjectInputStream s)
+      throws IOException, ClassNotFoundException {
+    s.defaultReadObject();
+    int n = s.readInt();
+    if (n < 0 || n > 1 << 15) {
+      throw new InvalidObjectException("Illegal size: " + n);
+    }
+    keys = new char[n];
+    containers = new Container[n];
+    for (int i = 0; i < n; i++) {
+      char key = s.readChar();
+      if (key > 0x7FFF || (i > 0 && key <= keys[i - 1])) {
+        throw new InvalidObjectException("Illegal key: " + (int) key);
+      }
+      keys[i] = key;
+      containers[i] = Container.read(s);
+    }
+    size = n;
+  }
+
+  /* ---------------- Word range utilities -------------- */
+
+  /* Used to shift left or right for a partial word mask */
+  private static final long WORD_MASK = 0xffffffffffffffffL;
+
+  static final int OP_SET = 0, OP_CLEAR = 1, OP_FLIP = 2;
+
+  /**
+   * Sets, clears or flips bits lo (inclusive) to hi (exclusive) of the
+   * words, lo < hi.
+   *
+   * @return the change in the number of set bits
+   */
+  static int wordRange(long[] words, int lo, int hi, int op) {
+    int startWord = lo >>> 6, endWord = (hi - 1) >>> 6, delta = 0;
+    for (int i = startWord; i <= endWord; i++) {
+      long mask = WORD_MASK;
+      if (i == startWord) {
+        mask &= WORD_MASK << lo;
+      }
+      if (i == endWord) {
+        mask &= WORD_MASK >>> -hi;
+      }
+      long w = words[i];
+      if (op == OP_SET) {
+        delta += Long.bitCount(mask & ~w);
+        words[i] = w | mask;
+      } else if (op == OP_CLEAR) {
+        delta -= Long.bitCount(mask & w);
+        words[i] = w & ~mask;
+      } else {
+        delta += Long.bitCount(mask) - 2 * Long.bitCount(mask & w);
+        words[i] = w ^ mask;
+      }
+    }
+    return delta;
+  }
+
+  /**
+   * Returns the index of the first element of a[0..n) that is not less
+   * than key.
+   */
+  static int lowerBound(char[] a, int n, int key) {
+    int lo = 0, hi = n;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (a[mid] < key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /* ---------------- Containers -------------- */
+
+  static final byte ARRAY = 0, BITMAP = 1, RUN = 2;
+
+  /**
+   * Base class of the chunk representations, holding values in the
+   * range [0, 65536).
+   */
+  abstract static class Container {
+
+    abstract int cardinality();
+
+    abstract boolean contains(int x);
+
+    /** Adds x; never returns null. */
+    abstract Container add(int x);
+
+    /** Removes x; returns null if empty. */
+    abstract Container remove(int x);
+
+    /** Adds [lo, hi), lo < hi; never returns null. */
+    abstract Container addRange(int lo, int hi);
+
+    /** Removes [lo, hi), lo < hi; returns null if empty. */
+    abstract Container removeRange(int lo, int hi);
+
+    /** Flips [lo, hi), lo < hi; returns null if empty. */
+    abstract Container flipRange(int lo, int hi);
+
+    /** Returns the least value >= from, or -1. */
+    abstract int next(int from);
+
+    /** Returns the greatest value <= from, or -1. */
+    abstract int prev(int from);
+
+    /** Returns the least absent value >= from, or 65536. */
+    abstract int nextAbsent(int from);
+
+    /** Returns the greatest absent value <= from, or -1. */
+    abstract int prevAbsent(int from);
+
+    /** Applies an OP_ operation to words for each run of values. */
+    abstract void applyTo(long[] words, int op);
+
+    /** Intersects words with this container. */
+    abstract void andInto(long[] words);
+
+    /**
+     * Returns this container as 1024 words; a fresh array if copy is
+     * true, otherwise possibly the internal array of a bitmap.
+     */
+    abstract long[] toWords(boolean copy);
+
+    abstract int runCount();
+
+    abstract void forEach(int from, int base, IntConsumer action);
+
+    abstract Container copy();
+
+    abstract void write(DataOutput out) throws IOException;
+
+    /**
+     * Returns a representation-independent hash of the values,
+     * defined in terms of the words of the equivalent bitmap.
+     */
+    abstract long wordHash();
+
+    static long wordHash(long h, int i, long w) {
+      return h ^ (w * (i + 1));
+    }
+
+    /**
+     * Returns the smallest representation of this container's values.
+     */
+    Container optimize() {
+      int card = cardinality(), runs = runCount();
+      int size = (card <= ARRAY_MAX) ? 2 * card : 8 * BITMAP_WORDS;
+      if (4 * runs < size) {
+        return (this instanceof RunContainer) ? this : RunContainer.fromContainer(this, runs);
+      }
+      if (this instanceof RunContainer) {
+        return fromWords(toWords(true));
+      }
+      return this;
+    }
+
+    /**
+     * Returns an array or bitmap container for the given words, which
+     * it may use, or null if all are zero.
+     */
+    static Container fromWords(long[] words) {
+      int card = 0;
+      for (long w : words) {
+        card += Long.bitCount(w);
+      }
+      return fromWords(words, card);
+    }
+
+    static Container fromWords(long[] words, int card) {
+      if (card == 0) {
+        return null;
+      }
+      if (card > ARRAY_MAX) {
+        return new BitmapContainer(words, card);
+      }
+      char[] content = new char[card];
+      for (int i = 0, k = 0; k < card; i++) {
+        long w = words[i];
+        while (w != 0) {
+          content[k++] = (char) ((i << 6) + Long.numberOfTrailingZeros(w));
+          w &= w - 1;
+        }
+      }
+      return new ArrayContainer(content, card);
+    }
+
+    static Container read(DataInput in) throws IOException {
+      byte type = in.readByte();
+      if (type == ARRAY) {
+        int card = in.readChar();
+        if (card == 0 || card > ARRAY_MAX) {
+          throw new InvalidObjectException("Illegal cardinality: " + card);
+        }
+        char[] content = new char[card];
+        for (int i = 0; i < card; i++) {
+          content[i] = in.readChar();
+          if (i > 0 && content[i] <= content[i - 1]) {
+            throw new InvalidObjectException("Unsorted values");
+          }
+        }
+        return new ArrayContainer(content, card);
+      } else if (type == BITMAP) {
+        long[] words = new long[BITMAP_WORDS];
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+          words[i] = in.readLong();
+        }
+        Container c = fromWords(words);
+        if (c == null) {
+          throw new InvalidObjectException("Empty bitmap");
+        }
+        return c;
+      } else if (type == RUN) {
+        int n = in.readChar();
+        if (n == 0) {
+          throw new InvalidObjectException("Empty runs");
+        }
+        RunContainer c = new RunContainer(n);
+        for (int k = 0; k < n; k++) {
+          int start = in.readChar(), end = start + in.readChar();
+          if (end > 0xFFFF || (k > 0 && start <= c.end(k - 1) + 1)) {
+            throw new InvalidObjectException("Illegal run");
+          }
+          c.appendRun(start, end);
+        }
+        return c;
+      }
+      throw new InvalidObjectException("Illegal container type: " + type);
+    }
+
+    /* Binary operations: a is owned, b is not. */
+
+    static Container and(Container a, Container b) {
+      if (a instanceof ArrayContainer) {
+        return ((ArrayContainer) a).filter(b, true);
+      }
+      if (b instanceof ArrayContainer) {
+        return ((ArrayContainer) b.copy()).filter(a, true);
+      }
+      if (a instanceof RunContainer && b instanceof RunContainer) {
+        return RunContainer.sweep((RunContainer) a, (RunContainer) b, OP_AND);
+      }
+      if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+        return ((BitmapContainer) a).combine(((BitmapContainer) b).words, OP_AND);
+      }
+      long[] words = a.toWords(false);
+      b.andInto(words);
+      return fromWords(words);
+    }
+
+    static Container or(Container a, Container b) {
+      if (a instanceof ArrayContainer && b instanceof ArrayContainer &&
+          a.cardinality() + b.cardinality() <= ARRAY_MAX) {
+        return ArrayContainer.merge((ArrayContainer) a, (ArrayContainer) b, OP_OR);
+      }
+      if (a instanceof RunContainer && b instanceof RunContainer) {
+        return RunContainer.sweep((RunContainer) a, (RunContainer) b, OP_OR);
+      }
+      if (b.cardinality() == 1 << 16) {
+        return b.copy();
+      }
+      if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+        return ((BitmapContainer) a).combine(((BitmapContainer) b).words, OP_OR);
+      }
+      long[] words = a.toWords(false);
+      b.applyTo(words, OP_SET);
+      return fromWords(words);
+    }
+
+    static Container andNot(Container a, Container b) {
+      if (a instanceof ArrayContainer) {
+        return ((ArrayContainer) a).filter(b, false);
+      }
+      if (a instanceof RunContainer && b instanceof RunContainer) {
+        return RunContainer.sweep((RunContainer) a, (RunContainer) b, OP_ANDNOT);
+      }
+      if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+        return ((BitmapContainer) a).combine(((BitmapContainer) b).words, OP_ANDNOT);
+      }
+      long[] words = a.toWords(false);
+      b.applyTo(words, OP_CLEAR);
+      return fromWords(words);
+    }
+
+    static Container xor(Container a, Container b) {
+      if (a instanceof ArrayContainer && b instanceof ArrayContainer &&
+          a.cardinality() + b.cardinality() <= ARRAY_MAX) {
+        return ArrayContainer.merge((ArrayContainer) a, (ArrayContainer) b, OP_XOR);
+      }
+      if (a instanceof RunContainer && b instanceof RunContainer) {
+        return RunContainer.sweep((RunContainer) a, (RunContainer) b, OP_XOR);
+      }
+      if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+        return ((BitmapContainer) a).combine(((BitmapContainer) b).words, OP_XOR);
+      }
+      long[] words = a.toWords(false);
+      b.applyTo(words, OP_FLIP);
+      return fromWords(words);
+    }
+
+    static boolean intersects(Container a, Container b) {
+      if (b instanceof ArrayContainer) {
+        Container t = a;
+        a = b;
+        b = t;
+      }
+      if (a instanceof ArrayContainer) {
+        ArrayContainer x = (ArrayContainer) a;
+        for (int i = 0; i < x.card; i++) {
+          if (b.contains(x.content[i])) {
+            return true;
+          }
+        }
+        return false;
+      }
+      if (a instanceof RunContainer && b instanceof RunContainer) {
+        return RunContainer.sweep((RunContainer) a, (RunContainer) b, OP_AND) != null;
+      }
+      long[] wa = a.toWords(false), wb = b.toWords(false);
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        if ((wa[i] & wb[i]) != 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    static boolean contentEquals(Container a, Container b) {
+      if (a.cardinality() != b.cardinality()) {
+        return false;
+      }
+      if (b instanceof ArrayContainer) {
+        Container t = a;
+        a = b;
+        b = t;
+      }
+      if (a instanceof ArrayContainer) {
+        ArrayContainer x = (ArrayContainer) a;
+        for (int i = 0; i < x.card; i++) {
+          if (!b.contains(x.content[i])) {
+            return false;
+          }
+        }
+        return true;
+      }
+      return Arrays.equals(a.toWords(false), b.toWords(false));
+    }
+  }
+
+  /* Additional operation codes for binary operations */
+  static final int OP_AND = 3, OP_OR = 4, OP_ANDNOT = 5, OP_XOR = 6;
+
+  /**
+   * A sorted array of at most ARRAY_MAX values.
+   */
+  static final class ArrayContainer extends Container {
+
+    char[] content;
+    int card;
+
+    ArrayContainer(int capacity) {
+      content = new char[capacity];
+    }
+
+    ArrayContainer(char[] content, int card) {
+      this.content = content;
+      this.card = card;
+    }
+
+    int cardinality() {
+      return card;
+    }
+
+    boolean contains(int x) {
+      int i = lowerBound(content, card, x);
+      return i < card && content[i] == x;
+    }
+
+    Container add(int x) {
+      int i = lowerBound(content, card, x);
+      if (i < card && content[i] == x) {
+        return this;
+      }
+      if (card >= ARRAY_MAX) {
+        return toBitmap().add(x);
+      }
+      if (card == content.length) {
+        int newCapacity = (card < 64) ? card * 2 + 4 :
+            (card < 1024) ? card + (card >>> 1) : card + (card >>> 2);
+        content = Arrays.copyOf(content, Math.min(newCapacity, ARRAY_MAX));
+      }
+      System.arraycopy(content, i, content, i + 1, card - i);
+      content[i] = (char) x;
+      card++;
+      return this;
+    }
+
+    Container remove(int x) {
+      int i = lowerBound(content, card, x);
+      if (i < card && content[i] == x) {
+        System.arraycopy(content, i + 1, content, i, card - i - 1);
+        if (--card == 0) {
+          return null;
+        }
+      }
+      return this;
+    }
+
+    Container addRange(int lo, int hi) {
+      int i = lowerBound(content, card, lo), j = lowerBound(content, card, hi);
+      int newCard = i + (hi - lo) + (card - j);
+      if (newCard > ARRAY_MAX) {
+        return RunContainer.fromContainer(this, runCount()).addRange(lo, hi);
+      }
+      if (newCard > content.length) {
+        content = Arrays.copyOf(content, newCard);
+      }
+      System.arraycopy(content, j, content, i + (hi - lo), card - j);
+      for (int v = lo, k = i; v < hi; v++, k++) {
+        content[k] = (char) v;
+      }
+      card = newCard;
+      return this;
+    }
+
+    Container removeRange(int lo, int hi) {
+      int i = lowerBound(content, card, lo), j = lowerBound(content, card, hi);
+      System.arraycopy(content, j, content, i, card - j);
+      card -= j - i;
+      return (card == 0) ? null : this;
+    }
+
+    Container flipRange(int lo, int hi) {
+      int i = lowerBound(content, card, lo), j = lowerBound(content, card, hi);
+      int newCard = card - (j - i) + (hi - lo - (j - i));
+      if (newCard == 0) {
+        return null;
+      }
+      if (newCard > ARRAY_MAX) {
+        long[] words = toWords(true);
+        wordRange(words, lo, hi, OP_FLIP);
+        return fromWords(words, newCard);
+      }
+      char[] a = new char[newCard];
+      System.arraycopy(content, 0, a, 0, i);
+      int k = i;
+      for (int v = lo, p = i; v < hi; v++) {
+        if (p < j && content[p] == v) {
+          p++;
+        } else {
+          a[k++] = (char) v;
+        }
+      }
+      System.arraycopy(content, j, a, k, card - j);
+      content = a;
+      card = newCard;
+      return this;
+    }
+
+    int next(int from) {
+      int i = lowerBound(content, card, from);
+      return (i < card) ? content[i] : -1;
+    }
+
+    int prev(int from) {
+      int i = lowerBound(content, card, from + 1) - 1;
+      return (i >= 0) ? content[i] : -1;
+    }
+
+    int nextAbsent(int from) {
+      int i = lowerBound(content, card, from);
+      if (i >= card || content[i] != from) {
+        return from;
+      }
+      // find the last m with content[m] - m == from - i
+      int lo = i, hi = card - 1;
+      while (lo < hi) {
+        int mid = (lo + hi + 1) >>> 1;
+        if (content[mid] - mid == from - i) {
+          lo = mid;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return content[lo] + 1;
+    }
+
+    int prevAbsent(int from) {
+      int i = lowerBound(content, card, from + 1) - 1;
+      if (i < 0 || content[i] != from) {
+        return from;
+      }
+      // find the first m with content[m] - m == from - i
+      int lo = 0, hi = i;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (content[mid] - mid == from - i) {
+          hi = mid;
+        } else {
+          lo = mid + 1;
+        }
+      }
+      return content[lo] - 1;
+    }
+
+    void applyTo(long[] words, int op) {
+      char[] a = content;
+      for (int i = 0, n = card; i < n; i++) {
+        int v = a[i];
+        if (op == OP_SET) {
+          words[v >>> 6] |= 1L << v;
+        } else if (op == OP_CLEAR) {
+          words[v >>> 6] &= ~(1L << v);
+        } else {
+          words[v >>> 6] ^= 1L << v;
+        }
+      }
+    }
+
+    void andInto(long[] words) {
+      long[] own = toWords(true);
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        words[i] &= own[i];
+      }
+    }
+
+    long[] toWords(boolean copy) {
+      long[] words = new long[BITMAP_WORDS];
+      applyTo(words, OP_SET);
+      return words;
+    }
+
+    int runCount() {
+      int runs = 0;
+      for (int i = 0, prev = -2; i < card; i++) {
+        int v = content[i];
+        if (v != prev + 1) {
+          runs++;
+        }
+        prev = v;
+      }
+      return runs;
+    }
+
+    void forEach(int from, int base, IntConsumer action) {
+      char[] a = content;
+      for (int i = lowerBound(a, card, from), n = card; i < n; i++) {
+        action.accept(base | a[i]);
+      }
+    }
+
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(content, card), card);
+    }
+
+    BitmapContainer toBitmap() {
+      return new BitmapContainer(toWords(true), card);
+    }
+
+    /**
+     * Retains the values whose presence in b equals keep.
+     */
+    Container filter(Container b, boolean keep) {
+      char[] a = content;
+      int k = 0;
+      for (int i = 0, n = card; i < n; i++) {
+        char v = a[i];
+        if (b.contains(v) == keep) {
+          a[k++] = v;
+        }
+      }
+      card = k;
+      return (k == 0) ? null : this;
+    }
+
+    /**
+     * Merges two arrays whose total cardinality is at most ARRAY_MAX.
+     */
+    static Container merge(ArrayContainer a, ArrayContainer b, int op) {
+      char[] x = a.content, y = b.content, r = new char[a.card + b.card];
+      int i = 0, j = 0, k = 0, n = a.card, m = b.card;
+      while (i < n && j < m) {
+        char u = x[i], v = y[j];
+        if (u < v) {
+          r[k++] = u;
+          i++;
+        } else if (u > v) {
+          r[k++] = v;
+          j++;
+        } else {
+          if (op == OP_OR) {
+            r[k++] = u;
+          }
+          i++;
+          j++;
+        }
+      }
+      System.arraycopy(x, i, r, k, n - i);
+      k += n - i;
+      System.arraycopy(y, j, r, k, m - j);
+      k += m - j;
+      if (k == 0) {
+        return null;
+      }
+      a.content = r;
+      a.card = k;
+      return a;
+    }
+
+    void write(DataOutput out) throws IOException {
+      out.writeByte(ARRAY);
+      out.writeChar(card);
+      for (int i = 0; i < card; i++) {
+        out.writeChar(content[i]);
+      }
+    }
+
+    long wordHash() {
+      long h = 0, cur = 0;
+      int ci = -1;
+      for (int i = 0; i < card; i++) {
+        int v = content[i], wi = v >>> 6;
+        if (wi != ci) {
+          if (ci >= 0) {
+            h = wordHash(h, ci, cur);
+          }
+          ci = wi;
+          cur = 0;
+        }
+        cur |= 1L << v;
+      }
+      return (ci >= 0) ? wordHash(h, ci, cur) : h;
+    }
+  }
+
+  /**
+   * A bitmap of 1024 words, with more than ARRAY_MAX bits set.
+   */
+  static final class BitmapContainer extends Container {
+
+    final long[] words;
+    int card;
+
+    BitmapContainer(long[] words, int card) {
+      this.words = words;
+      this.card = card;
+    }
+
+    int cardinality() {
+      return card;
+    }
+
+    boolean contains(int x) {
+      return (words[x >>> 6] & (1L << x)) != 0;
+    }
+
+    Container add(int x) {
+      long w = words[x >>> 6], nw = w | (1L << x);
+      if (nw != w) {
+        words[x >>> 6] = nw;
+        card++;
+      }
+      return this;
+    }
+
+    Container remove(int x) {
+      long w = words[x >>> 6], nw = w & ~(1L << x);
+      if (nw != w) {
+        words[x >>> 6] = nw;
+        if (--card <= ARRAY_MAX) {
+          return fromWords(words, card);
+        }
+      }
+      return this;
+    }
+
+    Container addRange(int lo, int hi) {
+      card += wordRange(words, lo, hi, OP_SET);
+      return this;
+    }
+
+    Container removeRange(int lo, int hi) {
+      card += wordRange(words, lo, hi, OP_CLEAR);
+      return (card <= ARRAY_MAX) ? fromWords(words, card) : this;
+    }
+
+    Container flipRange(int lo, int hi) {
+      card += wordRange(words, lo, hi, OP_FLIP);
+      return (card <= ARRAY_MAX) ? fromWords(words, card) : this;
+    }
+
+    int next(int from) {
+      int u = from >>> 6;
+      long word = words[u] & (WORD_MASK << from);
+      while (true) {
+        if (word != 0) {
+          return (u << 6) + Long.numberOfTrailingZeros(word);
+        }
+        if (++u == BITMAP_WORDS) {
+          return -1;
+        }
+        word = words[u];
+      }
+    }
+
+    int prev(int from) {
+      int u = from >>> 6;
+      long word = words[u] & (WORD_MASK >>> -(from + 1));
+      while (true) {
+        if (word != 0) {
+          return ((u + 1) << 6) - 1 - Long.numberOfLeadingZeros(word);
+        }
+        if (u-- == 0) {
+          return -1;
+        }
+        word = words[u];
+      }
+    }
+
+    int nextAbsent(int from) {
+      int u = from >>> 6;
+      long word = ~words[u] & (WORD_MASK << from);
+      while (true) {
+        if (word != 0) {
+          return (u << 6) + Long.numberOfTrailingZeros(word);
+        }
+        if (++u == BITMAP_WORDS) {
+          return 1 << 16;
+        }
+        word = ~words[u];
+      }
+    }
+
+    int prevAbsent(int from) {
+      int u = from >>> 6;
+      long word = ~words[u] & (WORD_MASK >>> -(from + 1));
+      while (true) {
+        if (word != 0) {
+          return ((u + 1) << 6) - 1 - Long.numberOfLeadingZeros(word);
+        }
+        if (u-- == 0) {
+          return -1;
+        }
+        word = ~words[u];
+      }
+    }
+
+    void applyTo(long[] ws, int op) {
+      long[] w = words;
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        if (op == OP_SET) {
+          ws[i] |= w[i];
+        } else if (op == OP_CLEAR) {
+          ws[i] &= ~w[i];
+        } else {
+          ws[i] ^= w[i];
+        }
+      }
+    }
+
+    void andInto(long[] ws) {
+      long[] w = words;
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        ws[i] &= w[i];
+      }
+    }
+
+    /**
+     * Combines the words of another bitmap into this one in place,
+     * counting the result in the same pass.
+     */
+    Container combine(long[] other, int op) {
+      long[] w = words;
+      int c = 0;
+      switch (op) {
+        case OP_AND:
+          for (int i = 0; i < BITMAP_WORDS; i++) {
+            c += Long.bitCount(w[i] &= other[i]);
+          }
+          break;
+        case OP_OR:
+          for (int i = 0; i < BITMAP_WORDS; i++) {
+            c += Long.bitCount(w[i] |= other[i]);
+          }
+          break;
+        case OP_ANDNOT:
+          for (int i = 0; i < BITMAP_WORDS; i++) {
+            c += Long.bitCount(w[i] &= ~other[i]);
+          }
+          break;
+        default:
+          for (int i = 0; i < BITMAP_WORDS; i++) {
+            c += Long.bitCount(w[i] ^= other[i]);
+          }
+      }
+      card = c;
+      return (c <= ARRAY_MAX) ? fromWords(w, c) : this;
+    }
+
+    long[] toWords(boolean copy) {
+      return copy ? words.clone() : words;
+    }
+
+    int runCount() {
+      int runs = 0;
+      long prev = 0;
+      for (long w : words) {
+        runs += Long.bitCount(w & ~((w << 1) | (prev >>> 63)));
+        prev = w;
+      }
+      return runs;
+    }
+
+    void forEach(int from, int base, IntConsumer action) {
+      int u = from >>> 6;
+      long word = words[u] & (WORD_MASK << from);
+      for (; ; ) {
+        while (word != 0) {
+          action.accept(base | ((u << 6) + Long.numberOfTrailingZeros(word)));
+          word &= word - 1;
+        }
+        if (++u == BITMAP_WORDS) {
+          return;
+        }
+        word = words[u];
+      }
+    }
+
+    Container copy() {
+      return new BitmapContainer(words.clone(), card);
+    }
+
+    void write(DataOutput out) throws IOException {
+      out.writeByte(BITMAP);
+      for (long w : words) {
+        out.writeLong(w);
+      }
+    }
+
+    long wordHash() {
+      long h = 0;
+      for (int i = 0; i < BITMAP_WORDS; i++) {
+        if (words[i] != 0) {
+          h = wordHash(h, i, words[i]);
+        }
+      }
+      return h;
+    }
+  }
+
+  /**
+   * A sorted list of disjoint, non-adjacent runs, stored in runs as
+   * (start, length - 1) pairs.
+   */
+  static final class RunContainer extends Container {
+
+    char[] runs;
+    int nruns;
+    int card;
+
+    RunContainer(int capacity) {
+      runs = new char[2 * Math.max(capacity, 1)];
+    }
+
+    static RunContainer range(int lo, int hi) {
+      RunContainer c = new RunContainer(1);
+      c.appendRun(lo, hi - 1);
+      return c;
+    }
+
+    static RunContainer fromContainer(Container x, int runCount) {
+      RunContainer c = new RunContainer(runCount);
+      for (int v = x.next(0); v >= 0; ) {
+        int end = x.nextAbsent(v) - 1;
+        c.appendRun(v, end);
+        v = (end < 0xFFFF) ? x.next(end + 1) : -1;
+      }
+      return c;
+    }
+
+    int start(int k) {
+      return runs[2 * k];
+    }
+
+    int end(int k) {
+      return runs[2 * k] + runs[2 * k + 1];
+    }
+
+    void appendRun(int start, int end) {
+      if (2 * nruns == runs.length) {
+        runs = Arrays.copyOf(runs, 4 * nruns + 4);
+      }
+      runs[2 * nruns] = (char) start;
+      runs[2 * nruns + 1] = (char) (end - start);
+      nruns++;
+      card += end - start + 1;
+    }
+
+    /**
+     * Returns the index of the last run starting at or before x, or -1.
+     */
+    int findRun(int x) {
+      int lo = 0, hi = nruns - 1;
+      while (lo <= hi) {
+        int mid = (lo + hi) >>> 1;
+        if (runs[2 * mid] <= x) {
+          lo = mid + 1;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return lo - 1;
+    }
+
+    /**
+     * Replaces runs [from, to) by n uninitialized runs.
+     */
+    private void splice(int from, int to, int n) {
+      int newRuns = nruns - (to - from) + n;
+      if (2 * newRuns > runs.length) {
+        runs = Arrays.copyOf(runs, Math.max(2 * newRuns, 2 * runs.length));
+      }
+      System.arraycopy(runs, 2 * to, runs, 2 * (from + n), 2 * (nruns - to));
+      nruns = newRuns;
+    }
+
+    private void setRun(int k, int start, int end) {
+      runs[2 * k] = (char) start;
+      runs[2 * k + 1] = (char) (end - start);
+    }
+
+    int cardinality() {
+      return card;
+    }
+
+    boolean contains(int x) {
+      int k = findRun(x);
+      return k >= 0 && x <= end(k);
+    }
+
+    Container add(int x) {
+      return addRange(x, x + 1);
+    }
+
+    Container remove(int x) {
+      return removeRange(x, x + 1);
+    }
+
+    Container addRange(int lo, int hi) {
+      int k = findRun(lo - 1);
+      int first = (k >= 0 && end(k) >= lo - 1) ? k : k + 1;
+      int last = findRun(hi);
+      if (first > last) {
+        splice(first, first, 1);
+        setRun(first, lo, hi - 1);
+        card += hi - lo;
+      } else {
+        int s = Math.min(lo, start(first)), e = Math.max(hi - 1, end(last));
+        int covered = 0;
+        for (int j = first; j <= last; j++) {
+          covered += runs[2 * j + 1] + 1;
+        }
+        splice(first, last + 1, 1);
+        setRun(first, s, e);
+        card += e - s + 1 - covered;
+      }
+      return shrink();
+    }
+
+    Container removeRange(int lo, int hi) {
+      int k = findRun(lo);
+      int first = (k >= 0 && end(k) >= lo) ? k : k + 1;
+      int last = findRun(hi - 1);
+      if (first > last) {
+        return this;
+      }
+      int s = start(first), e = end(last), covered = 0;
+      for (int j = first; j <= last; j++) {
+        covered += runs[2 * j + 1] + 1;
+      }
+      int n = ((s < lo) ? 1 : 0) + ((e >= hi) ? 1 : 0), j = first;
+      splice(first, last + 1, n);
+      if (s < lo) {
+        setRun(j++, s, lo - 1);
+        covered -= lo - s;
+      }
+      if (e >= hi) {
+        setRun(j, hi, e);
+        covered -= e - hi + 1;
+      }
+      card -= covered;
+      return (card == 0) ? null : shrink();
+    }
+
+    Container flipRange(int lo, int hi) {
+      return sweep(this, range(lo, hi), OP_XOR);
+    }
+
+    /**
+     * Returns an array or bitmap container if smaller than this one.
+     */
+    Container shrink() {
+      int runBytes = 4 * nruns;
+      if (card <= ARRAY_MAX) {
+        if (2 * card < runBytes) {
+          return fromWords(toWords(true), card);
+        }
+      } else if (8 * BITMAP_WORDS < runBytes) {
+        return new BitmapContainer(toWords(true), card);
+      }
+      return this;
+    }
+
+    int next(int from) {
+      int k = findRun(from);
+      if (k >= 0 && from <= end(k)) {
+        return from;
+      }
+      return (k + 1 < nruns) ? start(k + 1) : -1;
+    }
+
+    int prev(int from) {
+      int k = findRun(from);
+      return (k < 0) ? -1 : Math.min(from, end(k));
+    }
+
+    int nextAbsent(int from) {
+      int k = findRun(from);
+      return (k >= 0 && from <= end(k)) ? end(k) + 1 : from;
+    }
+
+    int prevAbsent(int from) {
+      int k = findRun(from);
+      return (k >= 0 && from <= end(k)) ? start(k) - 1 : from;
+    }
+
+    void applyTo(long[] words, int op) {
+      for (int k = 0; k < nruns; k++) {
+        wordRange(words, start(k), end(k) + 1, op);
+      }
+    }
+
+    void andInto(long[] words) {
+      int prevEnd = -1;
+      for (int k = 0; k < nruns; k++) {
+        if (start(k) > prevEnd + 1) {
+          wordRange(words, prevEnd + 1, start(k), OP_CLEAR);
+        }
+        prevEnd = end(k);
+      }
+      if (prevEnd < 0xFFFF) {
+        wordRange(words, prevEnd + 1, 1 << 16, OP_CLEAR);
+      }
+    }
+
+    long[] toWords(boolean copy) {
+      long[] words = new long[BITMAP_WORDS];
+      applyTo(words, OP_SET);
+      return words;
+    }
+
+    int runCount() {
+      return nruns;
+    }
+
+    void forEach(int from, int base, IntConsumer action) {
+      int k = Math.max(findRun(from), 0);
+      for (; k < nruns; k++) {
+        for (int v = Math.max(start(k), from), e = end(k); v <= e; v++) {
+          action.accept(base | v);
+        }
+      }
+    }
+
+    Container copy() {
+      RunContainer c = new RunContainer(nruns);
+      System.arraycopy(runs, 0, c.runs, 0, 2 * nruns);
+      c.nruns = nruns;
+      c.card = card;
+      return c;
+    }
+
+    /**
+     * Combines two run containers by sweeping their run boundaries in
+     * order: for run k, the boundary at index 2k of runs is its start,
+     * and that at 2k + 1 is one past its end.  The result contains the
+     * positions at which op holds for the membership flags of a and b.
+     */
+    static Container sweep(RunContainer a, RunContainer b, int op) {
+      char[] ra = a.runs, rb = b.runs;
+      int na = 2 * a.nruns, nb = 2 * b.nruns, i = 0, j = 0, start = 0;
+      boolean inA = false, inB = false, in = false;
+      RunContainer r = new RunContainer(a.nruns + b.nruns);
+      while (i < na || j < nb) {
+        int pa = (i >= na) ? Integer.MAX_VALUE :
+            ((i & 1) == 0) ? ra[i] : ra[i - 1] + ra[i] + 1;
+        int pb = (j >= nb) ? Integer.MAX_VALUE :
+            ((j & 1) == 0) ? rb[j] : rb[j - 1] + rb[j] + 1;
+        int pos = Math.min(pa, pb);
+        if (pa == pos) {
+          inA = !inA;
+          i++;
+        }
+        if (pb == pos) {
+          inB = !inB;
+          j++;
+        }
+        boolean f = (op == OP_AND) ? inA & inB :
+            (op == OP_OR) ? inA | inB :
+                (op == OP_ANDNOT) ? inA & !inB : inA ^ inB;
+        if (f != in) {
+          if (f) {
+            start = pos;
+          } else {
+            r.appendRun(start, pos - 1);
+          }
+          in = f;
+        }
+      }
+      return (r.nruns == 0) ? null : r.shrink();
+    }
+
+    void write(DataOutput out) throws IOException {
+      out.writeByte(RUN);
+      out.writeChar(nruns);
+      for (int i = 0; i < 2 * nruns; i++) {
+        out.writeChar(runs[i]);
+      }
+    }
+
+    long wordHash() {
+      long h = 0, cur = 0;
+      int ci = -1;
+      for (int k = 0; k < nruns; k++) {
+        int s = start(k), e = end(k);
+        for (int wi = s >>> 6, we = e >>> 6; wi <= we; wi++) {
+          long mask = WORD_MASK;
+          if (wi == s >>> 6) {
+            mask &= WORD_MASK << s;
+          }
+          if (wi == we) {
+            mask &= WORD_MASK >>> (63 - (e & 63));
+          }
+          if (wi != ci) {
+            if (ci >= 0) {
+              h = wordHash(h, ci, cur);
+            }
+            ci = wi;
+            cur = 0;
+          }
+          cur |= mask;
+        }
+      }
+      return (ci >= 0) ? wordHash(h, ci, cur) : h;
+    }
+  }
+}
@@ -89,6 +89,24 @@ final class DualPivotQuicksort {
    */
   private static final int COUNTING_SORT_THRESHOLD_FOR_SHORT_OR_CHAR = 3200;
 
+  /**
+   * If the length of an int, long, float or double array to be sorted
+   * is at least this constant, and the array is not highly structured,
+   * LSD radix sort is used in preference to Quicksort.  Radix sort needs
+   * a workspace as large as the range to be sorted, like merge sort.
+   */
+  static final int RADIX_SORT_THRESHOLD = 1 << 20;
+
+  /**
+   * The number of bits of the key examined by each pass of radix sort.
+   */
+  static final int RADIX_BITS = 8;
+
+  /**
+   * The number of buckets of each pass of radix sort.
+   */
+  static final int RADIX = 1 << RADIX_BITS;
+
     /*
      * Sorting methods for seven primitive types.
      */
@@ -138,7 +156,7 @@ final class DualPivotQuicksort {
       } else { // equal
         for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
           if (--m == 0) {
-            sort(a, left, right, true);
+            sortUnstructured(a, left, right, work, workBase, workLen);
             return;
           }
         }
@@ -149,7 +167,7 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
       if (++count == MAX_RUN_COUNT) {
-        sort(a, left, right, true);
+        sortUnstructured(a, left, right, work, workBase, workLen);
         return;
       }
     }
@@ -218,6 +236,121 @@ final class DualPivotQuicksort {
     }
   }
 
+  /**
+   * Sorts the specified range of an array that is not highly structured,
+   * by radix sort if it is large and otherwise by Dual-Pivot Quicksort.
+   *
+   * @param a the array to be sorted
+   * @param left the index of the first element, inclusive, to be sorted
+   * @param right the index of the last element, inclusive, to be sorted
+   * @param work a workspace array (slice)
+   * @param workBase origin of usable space in work array
+   * @param workLen usable size of work array
+   */
+  private static void sortUnstructured(int[] a, int left, int right,
+      int[] work, int workBase, int workLen) {
+    if (right - left + 1 >= RADIX_SORT_THRESHOLD) {
+      radixSort(a, left, right, work, workBase, workLen);
+    } else {
+      sort(a, left, right, true);
+    }
+  }
+
+  /**
+   * Returns true if the specified range of the array is highly
+   * structured, that is, if the sort methods would merge its runs rather
+   * than pass it to {@code sortUnstructured}.  The range is not modified.
+   *
+   * @param a the array to be checked
+   * @param left the index of the first element, inclusive, to be checked
+   * @param right the index of the last element, inclusive, to be checked
+   */
+  static boolean isHighlyStructured(int[] a, int left, int right) {
+    int count = 0;
+    for (int k = left; k < right; ) {
+      if (a[k] < a[k + 1]) { // ascending
+        while (++k <= right && a[k - 1] <= a[k]) {
+          ;
+        }
+      } else if (a[k] > a[k + 1]) { // descending
+        while (++k <= right && a[k - 1] >= a[k]) {
+          ;
+        }
+      } else { // equal
+        for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
+          if (--m == 0) {
+            return false;
+          }
+        }
+      }
+      if (++count == MAX_RUN_COUNT) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sorts the specified range of the array by LSD radix sort, using the
+   * given workspace array slice if it is large enough.
+   *
+   * Each pass distributes the elements by one RADIX_BITS digit of
+   * their key, from the least significant upwards, alternating between
+   * the array and the workspace. The histograms of all digits are
+   * counted in a single initial scan, and passes over digits shared by
+   * all elements are skipped.
+   *
+   * @param a the array to be sorted
+   * @param left the index of the first element, inclusive, to be sorted
+   * @param right the index of the last element, inclusive, to be sorted
+   * @param work a workspace array (slice)
+   * @param workBase origin of usable space in work array
+   * @param workLen usable size of work array
+   */
+  static void radixSort(int[] a, int left, int right,
+      int[] work, int workBase, int workLen) {
+    int n = right - left + 1, passes = Integer.SIZE / RADIX_BITS;
+    if (work == null || workLen < n || workBase + n > work.length) {
+      work = new int[n];
+      workBase = 0;
+    }
+    int[] count = new int[passes << RADIX_BITS];
+    for (int i = left; i <= right; ++i) {
+      int k = a[i] ^ Integer.MIN_VALUE;
+      for (int p = 0, shift = 0; p < passes; ++p, shift += RADIX_BITS) {
+        ++count[(p << RADIX_BITS) + ((k >>> shift) & (RADIX - 1))];
+      }
+    }
+    int[] src = a, dst = work;
+    int so = left, dso = workBase;
+    for (int p = 0, shift = 0; p < passes; ++p, shift += RADIX_BITS) {
+      int c = p << RADIX_BITS;
+      int k = src[so] ^ Integer.MIN_VALUE;
+      if (count[c + ((k >>> shift) & (RADIX - 1))] == n) {
+        continue; // all elements share this digit
+      }
+      for (int d = 0, sum = dso; d < RADIX; ++d) {
+        int t = count[c + d];
+        count[c + d] = sum;
+        sum += t;
+      }
+      for (int i = so, end = so + n; i < end; ++i) {
+        int v = src[i];
+        k = v ^ Integer.MIN_VALUE;
+        dst[count[c + ((k >>> shift) & (RADIX - 1))]++] = v;
+      }
+      int[] t = src;
+      src = dst;
+      dst = t;
+      int o = so;
+      so = dso;
+      dso = o;
+    }
+    if (src != a) {
+      System.arraycopy(src, so, a, left, n);
+    }
+  }
+
   /**
    * Sorts the specified range of the array by Dual-Pivot Quicksort.
    *
@@ -636,7 +769,7 @@ final class DualPivotQuicksort {
       } else { // equal
         for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
           if (--m == 0) {
-            sort(a, left, right, true);
+            sortUnstructured(a, left, right, work, workBase, workLen);
             return;
           }
         }
@@ -647,7 +780,7 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
       if (++count == MAX_RUN_COUNT) {
-        sort(a, left, right, true);
+        sortUnstructured(a, left, right, work, workBase, workLen);
         return;
       }
     }
@@ -716,6 +849,121 @@ final class DualPivotQuicksort {
     }
   }
 
+  /**
+   * Sorts the specified range of an array that is not highly structured,
+   * by radix sort if it is large and otherwise by Dual-Pivot Quicksort.
+   *
+   * @param a the array to be sorted
+   * @param left the index of the first element, inclusive, to be sorted
+   * @param right the index of the last element, inclusive, to be sorted
+   * @param work a workspace array (slice)
+   * @param workBase origin of usable space in work array
+   * @param workLen usable size of work array
+   */
+  private static void sortUnstructured(long[] a, int left, int right,
+      long[] work, int workBase, int workLen) {
+    if (right - left + 1 >= RADIX_SORT_THRESHOLD) {
+      radixSort(a, left, right, work, workBase, workLen);
+    } else {
+      sort(a, left, right, true);
+    }
+  }
+
+  /**
+   * Returns true if the specified range of the array is highly
+   * structured, that is, if the sort methods would merge its runs rather
+   * than pass it to {@code sortUnstructured}.  The range is not modified.
+   *
+   * @param a the array to be checked
+   * @param left the index of the first element, inclusive, to be checked
+   * @param right the index of the last element, inclusive, to be checked
+   */
+  static boolean isHighlyStructured(long[] a, int left, int right) {
+    int count = 0;
+    for (int k = left; k < right; ) {
+      if (a[k] < a[k + 1]) { // ascending
+        while (++k <= right && a[k - 1] <= a[k]) {
+          ;
+        }
+      } else if (a[k] > a[k + 1]) { // descending
+        while (++k <= right && a[k - 1] >= a[k]) {
+          ;
+        }
+      } else { // equal
+        for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
+          if (--m == 0) {
+            return false;
+          }
+        }
+      }
+      if (++count == MAX_RUN_COUNT) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sorts the specified range of the array by LSD radix sort, using the
+   * given workspace array slice if it is large enough.
+   *
+   * Each pass distributes the elements by one RADIX_BITS digit of
+   * their key, from the least significant upwards, alternating between
+   * the array and the workspace. The histograms of all digits are
+   * counted in a single initial scan, and passes over digits shared by
+   * all elements are skipped.
+   *
+   * @param a the array to be sorted
+   * @param left the index of the first element, inclusive, to be sorted
+   * @param right the index of the last element, inclusive, to be sorted
+   * @param work a workspace array (slice)
+   * @param workBase origin of usable space in work array
+   * @param workLen usable size of work array
+   */
+  static void radixSort(long[] a, int left, int right,
+      long[] work, int workBase, int workLen) {
+    int n = right - left + 1, passes = Long.SIZE / RADIX_BITS;
+    if (work == null || workLen < n || workBase + n > work.length) {
+      work = new long[n];
+      workBase = 0;
+    }
+    int[] count = new int[passes << RADIX_BITS];
+    for (int i = left; i <= right; ++i) {
+      long k = a[i] ^ Long.MIN_VALUE;
+      for (int p = 0, shift = 0; p < passes; ++p, shift += RADIX_BITS) {
+        ++count[(p << RADIX_BITS) + (int) ((k >>> shift) & (RADIX - 1))];
+      }
+    }
+    long[] src = a, dst = work;
+    int so = left, dso = workBase;
+    for (int p = 0, shift = 0; p < passes; ++p, shift += RADIX_BITS) {
+      int c = p << RADIX_BITS;
+      long k = src[so] ^ Long.MIN_VALUE;
+      if (count[c + (int) ((k >>> shift) & (RADIX - 1))] == n) {
+        continue; // all elements share this digit
+      }
+      for (int d = 0, sum = dso; d < RADIX; ++d) {
+        int t = count[c + d];
+        count[c + d] = sum;
+        sum += t;
+      }
+      for (int i = so, end = so + n; i < end; ++i) {
+        long v = src[i];
+        k = v ^ Long.MIN_VALUE;
+        dst[count[c + (int) ((k >>> shift) & (RADIX - 1))]++] = v;
+      }
+      long[] t = src;
+      src = dst;
+      dst = t;
+      int o = so;
+      so = dso;
+      dso = o;
+    }
+    if (src != a) {
+      System.arraycopy(src, so, a, left, n);
+    }
+  }
+
   /**
    * Sorts the specified range of the array by Dual-Pivot Quicksort.
    *
@@ -2352,7 +2600,7 @@ final class DualPivotQuicksort {
       } else { // equal
         for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
           if (--m == 0) {
-            sort(a, left, right, true);
+            sortUnstructured(a, left, right, work, workBase, workLen);
             return;
           }
         }
@@ -2363,7 +2611,7 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
       if (++count == MAX_RUN_COUNT) {
-        sort(a, left, right, true);
+        sortUnstructured(a, left, right, work, workBase, workLen);
         return;
       }
     }
@@ -2432,6 +2680,131 @@ final class DualPivotQuicksort {
     }
   }
 
+  /**
+   * Sorts the specified range of an array that is not highly structured,
+   * by radix sort if it is large and otherwise by Dual-Pivot Quicksort.
+   *
+   * @param a the array to be sorted
+   * @param left the index of the first element, inclusive, to be sorted
+   * @param right the index of the last element, inclusive, to be sorted
+   * @param work a workspace array (slice)
+   * @param workBase origin of usable space in work array
+   * @param workLen usable size of work array
+   */
+  private static void sortUnstructured(float[] a, int left, int right,
+      float[] work, int workBase, int workLen) {
+    if (right - left + 1 >= RADIX_SORT_THRESHOLD) {
+      radixSort(a, left, right, work, workBase, workLen);
+    } else {
+      sort(a, left, right, true);
+    }
+  }
+
+  /**
+   * Returns true if the specified range of the array is highly
+   * structured, that is, if the sort methods would merge its runs rather
+   * than pass it to {@code sortUnstructured}.  The range is not modified.
+   *
+   * @param a the array to be checked
+   * @param left the index of the first element, inclusive, to be checked
+   * @param right the index of the last element, inclusive, to be checked
+   */
+  static boolean isHighlyStructured(float[] a, int left, int right) {
+    int count = 0;
+    for (int k = left; k < right; ) {
+      if (a[k] < a[k + 1]) { // ascending
+        while (++k <= right && a[k - 1] <= a[k]) {
+          ;
+        }
+      } else if (a[k] > a[k + 1]) { // descending
+        while (++k <= right && a[k - 1] >= a[k]) {
+          ;
+        }
+      } else { // equal
+        for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
+          if (--m == 0) {
+            return false;
+          }
+        }
+      }
+      if (++count == MAX_RUN_COUNT) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sorts the specified range of the array by LSD radix sort, using the
+   * given workspace array slice if it is large enough.
+   * The range must not contain NaNs.
+   *
+   * Each pass distributes the elements by one RADIX_BITS digit of
+   * their key, from the least significant upwards, alternating between
+   * the array and the workspace. The histograms of all digits are
+   * counted in a single initial scan, and passes over digits shared by
+   * all elements are skipped.
+   *
+   * @param a the array to be sorted
+   * @param left the index of the first element, inclusive, to be sorted
+   * @param right the index of the last element, inclusive, to be sorted
+   * @param work a workspace array (slice)
+   * @param workBase origin of usable space in work array
+   * @param workLen usable size of work array
+   */
+  static void radixSort(float[] a, int left, int right,
+      float[] work, int workBase, int workLen) {
+    int n = right - left + 1, passes = Integer.SIZE / RADIX_BITS;
+    if (work == null || workLen < n || workBase + n > work.length) {
+      work = new float[n];
+      workBase = 0;
+    }
+    int[] count = new int[passes << RADIX_BITS];
+    for (int i = left; i <= right; ++i) {
+      int k = floatKey(a[i]);
+      for (int p = 0, shift = 0; p < passes; ++p, shift += RADIX_BITS) {
+        ++count[(p << RADIX_BITS) + ((k >>> shift) & (RADIX - 1))];
+      }
+    }
+    float[] src = a, dst = work;
+    int so = left, dso = workBase;
+    for (int p = 0, shift = 0; p < passes; ++p, shift += RADIX_BITS) {
+      int c = p << RADIX_BITS;
+      int k = floatKey(src[so]);
+      if (count[c + ((k >>> shift) & (RADIX - 1))] == n) {
+        continue; // all elements share this digit
+      }
+      for (int d = 0, sum = dso; d < RADIX; ++d) {
+        int t = count[c + d];
+        count[c + d] = sum;
+        sum += t;
+      }
+      for (int i = so, end = so + n; i < end; ++i) {
+        float v = src[i];
+        k = floatKey(v);
+        dst[count[c + ((k >>> shift) & (RADIX - 1))]++] = v;
+      }
+      float[] t = src;
+      src = dst;
+      dst = t;
+      int o = so;
+      so = dso;
+      dso = o;
+    }
+    if (src != a) {
+      System.arraycopy(src, so, a, left, n);
+    }
+  }
+
+  /**
+   * Returns a key whose unsigned order is the numerical order of the
+   * specified non-NaN float, with -0.0f below 0.0f.
+   */
+  static int floatKey(float f) {
+    int bits = Float.floatToRawIntBits(f);
+    return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+  }
+
   /**
    * Sorts the specified range of the array by Dual-Pivot Quicksort.
    *
@@ -2941,7 +3314,7 @@ final class DualPivotQuicksort {
       } else { // equal
         for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
           if (--m == 0) {
-            sort(a, left, right, true);
+            sortUnstructured(a, left, right, work, workBase, workLen);
             return;
           }
         }
@@ -2952,7 +3325,7 @@ final class DualPivotQuicksort {
              * use Quicksort instead of merge sort.
              */
       if (++count == MAX_RUN_COUNT) {
-        sort(a, left, right, true);
+        sortUnstructured(a, left, right, work, workBase, workLen);
         return;
       }
     }
@@ -3021,6 +3394,131 @@ final class DualPivotQuicksort {
     }
   }
 
+  /**
+   * Sorts the specified range of an array that is not highly structured,
+   * by radix sort if it is large and otherwise by Dual-Pivot Quicksort.
+   *
+   * @param a the array to be sorted
+   * @param left the index of the first element, inclusive, to be sorted
+   * @param right the index of the last element, inclusive, to be sorted
+   * @param work a workspace array (slice)
+   * @param workBase origin of usable space in work array
+   * @param workLen usable size of work array
+   */
+  private static void sortUnstructured(double[] a, int left, int right,
+      double[] work, int workBase, int workLen) {
+    if (right - left + 1 >= RADIX_SORT_THRESHOLD) {
+      radixSort(a, left, right, work, workBase, workLen);
+    } else {
+      sort(a, left, right, true);
+    }
+  }
+
+  /**
+   * Returns true if the specified range of the array is highly
+   * structured, that is, if the sort methods would merge its runs rather
+   * than pass it to {@code sortUnstructured}.  The range is not modified.
+   *
+   * @param a the array to be checked
+   * @param left the index of the first element, inclusive, to be checked
+   * @param right the index of the last element, inclusive, to be checked
+   */
+  static boolean isHighlyStructured(double[] a, int left, int right) {
+    int count = 0;
+    for (int k = left; k < right; ) {
+      if (a[k] < a[k + 1]) { // ascending
+        while (++k <= right && a[k - 1] <= a[k]) {
+          ;
+        }
+      } else if (a[k] > a[k + 1]) { // descending
+        while (++k <= right && a[k - 1] >= a[k]) {
+          ;
+        }
+      } else { // equal
+        for (int m = MAX_RUN_LENGTH; ++k <= right && a[k - 1] == a[k]; ) {
+          if (--m == 0) {
+            return false;
+          }
+        }
+      }
+      if (++count == MAX_RUN_COUNT) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sorts the specified range of the array by LSD radix sort, using the
+   * given workspace array slice if it is large enough.
+   * The range must not contain NaNs.
+   *
+   * Each pass distributes the elements by one RADIX_BITS digit of
+   * their key, from the least significant upwards, alternating between
+   * the array and the workspace. The histograms of all digits are
+   * counted in a single initial scan, and passes over digits shared by
+   * all elements are skipped.
+   *
+   * @param a the array to be sorted
+   * @param left the index of the first element, inclusive, to be sorted
+   * @param right the index of the last element, inclusive, to be sorted
+   * @param work a workspace array (slice)
+   * @param workBase origin of usable space in work array
+   * @param workLen usable size of work array
+   */
+  static void radixSort(double[] a, int left, int right,
+      double[] work, int workBase, int workLen) {
+    int n = right - left + 1, passes = Long.SIZE / RADIX_BITS;
+    if (work == null || workLen < n || workBase + n > work.length) {
+      work = new double[n];
+      workBase = 0;
+    }
+    int[] count = new int[passes << RADIX_BITS];
+    for (int i = left; i <= right; ++i) {
+      long k = doubleKey(a[i]);
+      for (int p = 0, shift = 0; p < passes; ++p, shift += RADIX_BITS) {
+        ++count[(p << RADIX_BITS) + (int) ((k >>> shift) & (RADIX - 1))];
+      }
+    }
+    double[] src = a, dst = work;
+    int so = left, dso = workBase;
+    for (int p = 0, shift = 0; p < passes; ++p, shift += RADIX_BITS) {
+      int c = p << RADIX_BITS;
+      long k = doubleKey(src[so]);
+      if (count[c + (int) ((k >>> shift) & (RADIX - 1))] == n) {
+        continue; // all elements share this digit
+      }
+      for (int d = 0, sum = dso; d < RADIX; ++d) {
+        int t = count[c + d];
+        count[c + d] = sum;
+        sum += t;
+      }
+      for (int i = so, end = so + n; i < end; ++i) {
+        double v = src[i];
+        k = doubleKey(v);
+        dst[count[c + (int) ((k >>> shift) & (RADIX - 1))]++] = v;
+      }
+      double[] t = src;
+      src = dst;
+      dst = t;
+      int o = so;
+      so = dso;
+      dso = o;
+    }
+    if (src != a) {
+      System.arraycopy(src, so, a, left, n);
+    }
+  }
+
+  /**
+   * Returns a key whose unsigned order is the numerical order of the
+   * specified non-NaN double, with -0.0d below 0.0d.
+   */
+  static long doubleKey(double d) {
+    long bits = Double.doubleToRawLongBits(d);
+    return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+  }
+
   /**
    * Sorts the specified range of the array by Dual-Pivot Quicksort.
    *
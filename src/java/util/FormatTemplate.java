@@ -0,0 +1,709 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A format string of the kind accepted by {@link Formatter}, parsed once so
+ * that it can be applied any number of times.  {@link
+ * Formatter#format(String, Object...) Formatter.format} and {@link
+ * String#format(String, Object...) String.format} parse their format string
+ * on every call; a template does the work once, when it is compiled, and
+ * is then safe for use by multiple concurrent threads.
+ *
+ * <p>The output of {@link #format(Object...) format} and {@link
+ * #formatTo(Appendable, Object...) formatTo} is the same as that of a
+ * {@code Formatter} with the template's locale, and so are the exceptions
+ * thrown for arguments that do not suit their conversion:
+ *
+ * <pre>{@code
+ *     FormatTemplate t = FormatTemplate.compile("%-10s %8d %6.2f%n");
+ *     for (Item i : items) {
+ *         t.formatTo(out, i.name(), i.count(), i.price());
+ *     }
+ * }</pre>
+ *
+ * <p>Some common conversions are printed without going through a {@code
+ * Formatter}: {@code 'd'} and {@code 'x'} of integral arguments with no
+ * flags other than {@code '-'} and {@code '0'}, and {@code 's'} of
+ * arguments that are not {@link Formattable} with no flags other than
+ * {@code '-'}.  Where the locale's zero digit is not {@code '0'}, {@code
+ * 'd'} is always localized by a {@code Formatter}.
+ *
+ * <p>The {@link Appender} of a template takes its arguments one at a
+ * time, so that primitive values may be formatted without being boxed:
+ *
+ * <pre>{@code
+ *     t.appender(out).add(i.name()).add(i.count()).add(i.price()).done();
+ * }</pre>
+ *
+ * @see Formatter
+ * @since 1.8
+ */
+public final class FormatTemplate {
+
+  // Kinds of part; a TEXT part is a String, all others are specifiers
+  private static final byte TEXT = 0;
+  private static final byte GENERAL = 1;
+  private static final byte DECIMAL = 2;
+  private static final byte HEX = 3;
+  private static final byte STRING = 4;
+  private static final byte FLOAT = 5;
+
+  private final String format;
+  private final Locale locale;
+  private final char zero;
+
+  /**
+   * The parts of the format string, each a {@code String} or a {@code
+   * Formatter.TemplateSpecifier}, and the kind of each.
+   */
+  private final Object[] parts;
+  private final byte[] kinds;
+
+  /**
+   * Whether every specifier takes the next argument in order, so that
+   * arguments can be printed as they are given.
+   */
+  private final boolean sequential;
+
+  private FormatTemplate(Locale l, String format) {
+    this.format = format;
+    this.locale = l;
+    this.zero = Formatter.zeroDigit(l);
+    Object[] ps = Formatter.parseTemplate(format);
+    ArrayList<Object> list = new ArrayList<>(ps.length);
+    StringBuilder text = null;
+    boolean seq = true;
+    for (Object p : ps) {
+      String s = fixedText(p);
+      if (s != null) {
+        if (text == null) {
+          text = new StringBuilder();
+        }
+        text.append(s);
+        continue;
+      }
+      if (text != null) {
+        list.add(text.toString());
+        text = null;
+      }
+      list.add(p);
+      int index = ((Formatter.TemplateSpecifier) p).index;
+      if (index != 0 && index != -2) {
+        seq = false;
+      }
+    }
+    if (text != null) {
+      list.add(text.toString());
+    }
+    parts = list.toArray();
+    kinds = new byte[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      kinds[i] = (parts[i] instanceof String) ? TEXT
+          : kindOf((Formatter.TemplateSpecifier) parts[i]);
+    }
+    sequential = seq;
+  }
+
+  /*
+   * Returns the text of a part that prints the same text every time, or
+   * null for a specifier that depends on its argument.
+   */
+  private static String fixedText(Object part) {
+    if (part instanceof String) {
+      return (String) part;
+    }
+    Formatter.TemplateSpecifier s = (Formatter.TemplateSpecifier) part;
+    if (s.index != -2 || s.width != -1) {
+      return null;
+    }
+    if (s.conversion == 'n') {
+      return System.lineSeparator();
+    }
+    return (s.conversion == '%') ? "%" : null;
+  }
+
+  private byte kindOf(Formatter.TemplateSpecifier s) {
+    if (s.index == -2 || s.dateTime) {
+      return GENERAL;
+    }
+    switch (s.conversion) {
+      case 'd':
+        return (zero == '0' && !s.otherFlags) ? DECIMAL : GENERAL;
+      case 'x':
+        return s.otherFlags ? GENERAL : HEX;
+      case 's':
+        return (s.otherFlags || s.upperCase) ? GENERAL : STRING;
+      case 'e':
+      case 'f':
+      case 'g':
+      case 'a':
+        return FLOAT;
+      default:
+        return GENERAL;
+    }
+  }
+
+  /**
+   * Compiles a format string, using the locale returned by {@link
+   * Locale#getDefault(Locale.Category) Locale.getDefault(Locale.Category.FORMAT)}
+   * at the time of the call.
+   *
+   * @param format a format string, as described in <a
+   * href="Formatter.html#syntax">Format string syntax</a>
+   * @return the template
+   * @throws IllegalFormatException If the format string contains an illegal
+   * syntax, or a format specifier that is incompatible with its flags
+   * @throws NullPointerException if {@code format} is {@code null}
+   */
+  public static FormatTemplate compile(String format) {
+    return compile(Locale.getDefault(Locale.Category.FORMAT), format);
+  }
+
+  /**
+   * Compiles a format string for use with the given locale.
+   *
+   * @param l the {@linkplain java.util.Locale locale} to apply during
+   * formatting; if {@code null} then no localization is applied
+   * @param format a format string, as described in <a
+   * href="Formatter.html#syntax">Format string syntax</a>
+   * @return the template
+   * @throws IllegalFormatException If the format string contains an illegal
+   * syntax, or a format specifier that is incompatible with its flags
+   * @throws NullPointerException if {@code format} is {@code null}
+   */
+  public static FormatTemplate compile(Locale l, String format) {
+    return new FormatTemplate(l, Objects.requireNonNull(format));
+  }
+
+  /**
+   * Returns the locale applied by this template.
+   *
+   * @return the locale, or {@code null} if no localization is applied
+   */
+  public Locale locale() {
+    return locale;
+  }
+
+  /**
+   * Formats the arguments with this template.
+   *
+   * @param args the arguments referenced by the format specifiers of this
+   * template, as for {@link Formatter#format(String, Object...)}
+   * @return the formatted string
+   * @throws IllegalFormatException If an argument does not suit its format
+   * specifier, or there are too few arguments
+   */
+  public String format(Object... args) {
+    return formatTo(new StringBuilder(), args).toString();
+  }
+
+  /**
+   * Formats the arguments with this template, appending the result to the
+   * given destination.
+   *
+   * @param <A> the type of the destination
+   * @param a the destination
+   * @param args the arguments referenced by the format specifiers of this
+   * template, as for {@link Formatter#format(String, Object...)}
+   * @return the destination
+   * @throws IllegalFormatException If an argument does not suit its format
+   * specifier, or there are too few arguments
+   * @throws UncheckedIOException If the destination throws an {@code
+   * IOException}
+   * @throws NullPointerException if {@code a} is {@code null}
+   */
+  public <A extends Appendable> A formatTo(A a, Object... args) {
+    Appender app = new Appender(Objects.requireNonNull(a));
+    try {
+      app.print(args);
+    } catch (IOException x) {
+      throw new UncheckedIOException(x);
+    }
+    return a;
+  }
+
+  /**
+   * Returns an appender that formats arguments with this template, one at
+   * a time, to the given destination.
+   *
+   * @param a the destination
+   * @return the appender
+   * @throws NullPointerException if {@code a} is {@code null}
+   */
+  public Appender appender(Appendable a) {
+    return new Appender(Objects.requireNonNull(a));
+  }
+
+  /**
+   * Returns the format string of this template.
+   *
+   * @return the format string
+   */
+  public String toString() {
+    return format;
+  }
+
+  /**
+   * Formats the arguments of one application of a {@link FormatTemplate},
+   * given one at a time.  Where each format specifier of the template takes
+   * the next argument in order, the output for an argument, and any fixed
+   * text before it, is written as soon as the argument is added; otherwise
+   * the arguments are kept until {@link #done} is called.  Arguments beyond
+   * those the template uses are ignored.
+   *
+   * <p>An appender is not safe for use by multiple concurrent threads.
+   *
+   * @since 1.8
+   */
+  public final class Appender {
+
+    private final Appendable a;
+
+    // The formatter for specifiers not printed directly, created on demand
+    private Formatter fmt;
+
+    // The next part to print, for a sequential template
+    private int next;
+
+    // The arguments added so far, for a template that is not sequential
+    private Object[] args;
+    private int count;
+
+    private boolean done;
+
+    private Appender(Appendable a) {
+      this.a = a;
+    }
+
+    /**
+     * Adds an {@code int} argument.
+     *
+     * @param value the argument
+     * @return this appender
+     * @throws IllegalFormatException If the argument does not suit its
+     * format specifier
+     * @throws UncheckedIOException If the destination throws an {@code
+     * IOException}
+     * @throws IllegalStateException if {@link #done} has been called
+     */
+    public Appender add(int value) {
+      if (!sequential) {
+        return keep(value);
+      }
+      try {
+        int i = nextSpecifier();
+        if (i >= 0) {
+          Formatter.TemplateSpecifier s = (Formatter.TemplateSpecifier) parts[i];
+          if (kinds[i] == DECIMAL) {
+            appendDecimal(s, value);
+          } else if (kinds[i] == HEX) {
+            appendHex(s, value & 0xffffffffL);
+          } else {
+            s.print(formatter(), (Object) value, locale);
+          }
+        }
+      } catch (IOException x) {
+        throw new UncheckedIOException(x);
+      }
+      return this;
+    }
+
+    /**
+     * Adds a {@code long} argument.
+     *
+     * @param value the argument
+     * @return this appender
+     * @throws IllegalFormatException If the argument does not suit its
+     * format specifier
+     * @throws UncheckedIOException If the destination throws an {@code
+     * IOException}
+     * @throws IllegalStateException if {@link #done} has been called
+     */
+    public Appender add(long value) {
+      if (!sequential) {
+        return keep(value);
+      }
+      try {
+        int i = nextSpecifier();
+        if (i >= 0) {
+          Formatter.TemplateSpecifier s = (Formatter.TemplateSpecifier) parts[i];
+          if (kinds[i] == DECIMAL) {
+            appendDecimal(s, value);
+          } else if (kinds[i] == HEX) {
+            appendHex(s, value);
+          } else {
+            s.print(formatter(), (Object) value, locale);
+          }
+        }
+      } catch (IOException x) {
+        throw new UncheckedIOException(x);
+      }
+      return this;
+    }
+
+    /**
+     * Adds a {@code double} argument.
+     *
+     * @param value the argument
+     * @return this appender
+     * @throws IllegalFormatException If the argument does not suit its
+     * format specifier
+     * @throws UncheckedIOException If the destination throws an {@code
+     * IOException}
+     * @throws IllegalStateException if {@link #done} has been called
+     */
+    public Appender add(double value) {
+      if (!sequential) {
+        return keep(value);
+      }
+      try {
+        int i = nextSpecifier();
+        if (i >= 0) {
+          Formatter.TemplateSpecifier s = (Formatter.TemplateSpecifier) parts[i];
+          if (kinds[i] == FLOAT) {
+            s.print(formatter(), value, locale);
+          } else {
+            s.print(formatter(), (Object) value, locale);
+          }
+        }
+      } catch (IOException x) {
+        throw new UncheckedIOException(x);
+      }
+      return this;
+    }
+
+    /**
+     * Adds an argument.
+     *
+     * @param arg the argument, which may be {@code null}
+     * @return this appender
+     * @throws IllegalFormatException If the argument does not suit its
+     * format specifier
+     * @throws UncheckedIOException If the destination throws an {@code
+     * IOException}
+     * @throws IllegalStateException if {@link #done} has been called
+     */
+    public Appender add(Object arg) {
+      if (!sequential) {
+        return keep(arg);
+      }
+      try {
+        int i = nextSpecifier();
+        if (i >= 0) {
+          print(i, arg);
+        }
+      } catch (IOException x) {
+        throw new UncheckedIOException(x);
+      }
+      return this;
+    }
+
+    /**
+     * Completes the output, writing whatever remains of the template.
+     *
+     * @return the destination
+     * @throws IllegalFormatException If an argument does not suit its
+     * format specifier, or too few arguments were added
+     * @throws UncheckedIOException If the destination throws an {@code
+     * IOException}
+     * @throws IllegalStateException if {@link #done} has already been
+     * called
+     */
+    public Appendable done() {
+      ensureNotDone();
+      try {
+        if (sequential) {
+          int i = nextSpecifier();
+          done = true;
+          if (i >= 0) {
+            throw new MissingFormatArgumentException(parts[i].toString());
+          }
+        } else {
+          print((args == null) ? new Object[0] : Arrays.copyOf(args, count));
+        }
+      } catch (IOException x) {
+        throw new UncheckedIOException(x);
+      }
+      return a;
+    }
+
+    private void ensureNotDone() {
+      if (done) {
+        throw new IllegalStateException();
+      }
+    }
+
+    private Appender keep(Object arg) {
+      ensureNotDone();
+      if (args == null) {
+        args = new Object[8];
+      } else if (count == args.length) {
+        args = Arrays.copyOf(args, count * 2);
+      }
+      args[count++] = arg;
+      return this;
+    }
+
+    /*
+     * Writes the parts up to the next specifier that takes an argument,
+     * returning its index, or -1 if the end of the template is reached.
+     */
+    private int nextSpecifier() throws IOException {
+      ensureNotDone();
+      while (next < parts.length) {
+        int i = next++;
+        if (kinds[i] == TEXT) {
+          a.append((String) parts[i]);
+        } else {
+          Formatter.TemplateSpecifier s = (Formatter.TemplateSpecifier) parts[i];
+          if (s.index != -2) {
+            return i;
+          }
+          s.print(formatter(), null, locale);
+        }
+      }
+      return -1;
+    }
+
+    private Formatter formatter() {
+      Formatter f = fmt;
+      if (f == null) {
+        fmt = f = Formatter.TemplateSpecifier.formatter(locale, a, zero);
+      }
+      return f;
+    }
+
+    /*
+     * Prints all of the arguments, following Formatter.format.
+     */
+    void print(Object... args) throws IOException {
+      if (sequential && args != null) {
+        for (Object arg : args) {
+          int i = nextSpecifier();
+          if (i < 0) {
+            break;
+          }
+          print(i, arg);
+        }
+        done();
+        return;
+      }
+      done = true;
+      // index of last argument referenced
+      int last = -1;
+      // last ordinary index
+      int lasto = -1;
+      for (int i = 0; i < parts.length; i++) {
+        if (kinds[i] == TEXT) {
+          a.append((String) parts[i]);
+          continue;
+        }
+        Formatter.TemplateSpecifier s = (Formatter.TemplateSpecifier) parts[i];
+        int index = s.index;
+        switch (index) {
+          case -2:  // fixed string, "%n", or "%%"
+            s.print(formatter(), null, locale);
+            break;
+          case -1:  // relative index
+            if (last < 0 || (args != null && last > args.length - 1)) {
+              throw new MissingFormatArgumentException(s.toString());
+            }
+            print(i, (args == null ? null : args[last]));
+            break;
+          case 0:  // ordinary index
+            lasto++;
+            last = lasto;
+            if (args != null && lasto > args.length - 1) {
+              throw new MissingFormatArgumentException(s.toString());
+            }
+            print(i, (args == null ? null : args[lasto]));
+            break;
+          default:  // explicit index
+            last = index - 1;
+            if (args != null && last > args.length - 1) {
+              throw new MissingFormatArgumentException(s.toString());
+            }
+            print(i, (args == null ? null : args[last]));
+            break;
+        }
+      }
+    }
+
+    private void print(int i, Object arg) throws IOException {
+      Formatter.TemplateSpecifier s = (Formatter.TemplateSpecifier) parts[i];
+      switch (kinds[i]) {
+        case DECIMAL:
+          if (arg instanceof Integer || arg instanceof Long
+              || arg instanceof Short || arg instanceof Byte) {
+            appendDecimal(s, ((Number) arg).longValue());
+            return;
+          }
+          break;
+        case HEX:
+          if (arg instanceof Integer) {
+            appendHex(s, ((Integer) arg) & 0xffffffffL);
+            return;
+          } else if (arg instanceof Long) {
+            appendHex(s, (Long) arg);
+            return;
+          } else if (arg instanceof Short) {
+            appendHex(s, ((Short) arg) & 0xffffL);
+            return;
+          } else if (arg instanceof Byte) {
+            appendHex(s, ((Byte) arg) & 0xffL);
+            return;
+          }
+          break;
+        case STRING:
+          if (!(arg instanceof Formattable)) {
+            appendString(s, arg);
+            return;
+          }
+          break;
+        case FLOAT:
+          if (arg instanceof Double) {
+            s.print(formatter(), ((Double) arg).doubleValue(), locale);
+            return;
+          } else if (arg instanceof Float) {
+            s.print(formatter(), ((Float) arg).doubleValue(), locale);
+            return;
+          }
+          break;
+      }
+      s.print(formatter(), arg, locale);
+    }
+
+    // Direct printing of DECIMAL, HEX and STRING specifiers
+
+    private void appendDecimal(Formatter.TemplateSpecifier s, long value)
+        throws IOException {
+      int pad = s.width - decimalLength(value);
+      if (pad <= 0) {
+        appendLong(value);
+      } else if (s.leftJustify) {
+        appendLong(value);
+        appendRepeated(' ', pad);
+      } else if (!s.zeroPad) {
+        appendRepeated(' ', pad);
+        appendLong(value);
+      } else if (value >= 0) {
+        appendRepeated('0', pad);
+        appendLong(value);
+      } else {
+        // The zeros go between the sign and the digits
+        a.append('-');
+        appendRepeated('0', pad);
+        if (value == Long.MIN_VALUE) {
+          a.append("9223372036854775808");
+        } else {
+          appendLong(-value);
+        }
+      }
+    }
+
+    private void appendLong(long value) throws IOException {
+      if (a instanceof StringBuilder) {
+        ((StringBuilder) a).append(value);
+      } else {
+        a.append(Long.toString(value));
+      }
+    }
+
+    private void appendHex(Formatter.TemplateSpecifier s, long bits)
+        throws IOException {
+      char[] digits = s.upperCase ? UPPER_HEX_DIGITS : LOWER_HEX_DIGITS;
+      int len = Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(bits) + 3) >> 2);
+      char[] buf = new char[len];
+      for (int j = len - 1; j >= 0; j--) {
+        buf[j] = digits[(int) bits & 0xf];
+        bits >>>= 4;
+      }
+      int pad = s.width - len;
+      if (pad > 0 && !s.leftJustify) {
+        appendRepeated(s.zeroPad ? '0' : ' ', pad);
+      }
+      appendChars(buf);
+      if (pad > 0 && s.leftJustify) {
+        appendRepeated(' ', pad);
+      }
+    }
+
+    private void appendChars(char[] buf) throws IOException {
+      if (a instanceof StringBuilder) {
+        ((StringBuilder) a).append(buf);
+      } else {
+        a.append(new String(buf));
+      }
+    }
+
+    private void appendString(Formatter.TemplateSpecifier s, Object arg)
+        throws IOException {
+      String str = (arg == null) ? "null" : arg.toString();
+      int len = str.length();
+      if (s.precision != -1 && s.precision < len) {
+        len = s.precision;
+      }
+      int pad = s.width - len;
+      if (pad > 0 && !s.leftJustify) {
+        appendRepeated(' ', pad);
+      }
+      a.append(str, 0, len);
+      if (pad > 0 && s.leftJustify) {
+        appendRepeated(' ', pad);
+      }
+    }
+
+    private void appendRepeated(char c, int n) throws IOException {
+      for (int j = 0; j < n; j++) {
+        a.append(c);
+      }
+    }
+  }
+
+  private static final char[] LOWER_HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final char[] UPPER_HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+  /*
+   * Returns the number of characters of the decimal form of a value,
+   * including any sign.
+   */
+  private static int decimalLength(long value) {
+    int n = 1;
+    // Work with the negated magnitude, which holds Long.MIN_VALUE
+    long v = (value < 0) ? value : -value;
+    if (value < 0) {
+      n++;
+    }
+    while (v <= -10) {
+      v /= 10;
+      n++;
+    }
+    return n;
+  }
+}
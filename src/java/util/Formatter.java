@@ -2438,6 +2438,99 @@ public final class Formatter implements Closeable, Flushable {
     return al.toArray(new FormatString[al.size()]);
   }
 
+  // Support for FormatTemplate
+
+  /*
+   * Constructs a formatter for FormatTemplate, which computes the zero
+   * digit of its locale once.
+   */
+  private Formatter(Locale l, Appendable a, char zero) {
+    this.a = a;
+    this.l = l;
+    this.zero = zero;
+  }
+
+  static char zeroDigit(Locale l) {
+    return getZero(l);
+  }
+
+  /**
+   * Parses a format string for {@link FormatTemplate}, returning its parts
+   * in order, each either a {@code String} of fixed text or a {@link
+   * TemplateSpecifier}.
+   */
+  static Object[] parseTemplate(String format) {
+    FormatString[] fsa = new Formatter(null, null, '0').parse(format);
+    Object[] parts = new Object[fsa.length];
+    for (int i = 0; i < fsa.length; i++) {
+      FormatString fs = fsa[i];
+      parts[i] = (fs instanceof FormatSpecifier)
+          ? new TemplateSpecifier((FormatSpecifier) fs) : fs.toString();
+    }
+    return parts;
+  }
+
+  /**
+   * A format specifier parsed for a {@link FormatTemplate}.  The
+   * specifier, whose state does not change once it is parsed, belongs to
+   * the formatter that parsed it; printing copies it into a formatter for
+   * the destination, without parsing it again.
+   */
+  static final class TemplateSpecifier {
+
+    private final FormatSpecifier spec;
+
+    final int index;
+    final char conversion;
+    final boolean dateTime;
+    final int width;
+    final int precision;
+    final boolean leftJustify;
+    final boolean zeroPad;
+    final boolean upperCase;
+    // Whether flags other than '-', '0' and upper case are present
+    final boolean otherFlags;
+
+    TemplateSpecifier(FormatSpecifier spec) {
+      this.spec = spec;
+      Flags f = spec.flags();
+      index = spec.index();
+      conversion = spec.conversion();
+      dateTime = spec.dt;
+      width = spec.width();
+      precision = spec.precision();
+      leftJustify = f.contains(Flags.LEFT_JUSTIFY);
+      zeroPad = f.contains(Flags.ZERO_PAD);
+      upperCase = f.contains(Flags.UPPERCASE);
+      otherFlags = f.dup().remove(Flags.LEFT_JUSTIFY).remove(Flags.ZERO_PAD)
+          .remove(Flags.UPPERCASE).valueOf() != 0;
+    }
+
+    /**
+     * Returns a formatter writing to the given destination, for use with
+     * the print methods of this class.
+     */
+    static Formatter formatter(Locale l, Appendable a, char zero) {
+      return new Formatter(l, a, zero);
+    }
+
+    void print(Formatter fmt, Object arg, Locale l) throws IOException {
+      fmt.new FormatSpecifier(spec).print(arg, l);
+    }
+
+    /**
+     * Prints a {@code double} without boxing it; this specifier must have
+     * a floating-point conversion.
+     */
+    void print(Formatter fmt, double value, Locale l) throws IOException {
+      fmt.new FormatSpecifier(spec).print(value, l);
+    }
+
+    public String toString() {
+      return spec.toString();
+    }
+  }
+
   private static void checkText(String s, int start, int end) {
     for (int i = start; i < end; i++) {
       // Any '%' found in the region starts an invalid format specifier.
@@ -2629,6 +2722,18 @@ public final class Formatter implements Closeable, Flushable {
       }
     }
 
+    /*
+     * Copies a specifier parsed by another formatter.
+     */
+    FormatSpecifier(FormatSpecifier s) {
+      index = s.index;
+      f = s.f;
+      width = s.width;
+      precision = s.precision;
+      dt = s.dt;
+      c = s.c;
+    }
+
     public void print(Object arg, Locale l) throws IOException {
       if (dt) {
         printDateTime(arg, l);
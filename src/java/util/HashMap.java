@@ -78,7 +78,12 @@ import java.util.function.Function;
  * <p>If many mappings are to be stored in a <tt>HashMap</tt>
  * instance, creating it with a sufficiently large capacity will allow
  * the mappings to be stored more efficiently than letting it perform
- * automatic rehashing as needed to grow the table.  Note that using
+ * automatic rehashing as needed to grow the table.  Alternatively, a
+ * map constructed with {@link #HashMap(int, float, boolean)
+ * incremental resizing} enabled spreads the rehashing of large tables
+ * over subsequent operations instead of performing it in the single
+ * call that crosses the threshold, bounding the latency of every
+ * individual operation at some cost in throughput.  Note that using
  * many keys with the same {@code hashCode()} is a sure way to slow
  * down performance of any hash table. To ameliorate impact, when keys
  * are {@link Comparable}, this class may use comparison order among
@@ -242,6 +247,27 @@ public class HashMap<K, V> extends AbstractMap<K, V>
    * requires that a map instance be passed to some utility methods
    * that may create new nodes.)
    *
+   * In incremental resize mode (field incrementalResize), resizing a
+   * table of at least MIN_INCREMENTAL_RESIZE_CAPACITY bins only
+   * allocates the new table; the old one is kept in field oldTable
+   * and its bins are moved over a few at a time, much as
+   * ConcurrentHashMap.transfer spreads migration across threads.
+   * Each keyed operation (getNode, putVal, removeNode and the
+   * compute methods) first calls transferStep, which moves the old
+   * bin its hash maps to, if still populated, and then the next
+   * TRANSFER_STRIDE bins at transferIndex. An old bin is emptied as
+   * soon as it is moved, so a non-null old bin is exactly one that
+   * has not been migrated yet, and keyed operations never need to
+   * look at more than one table. Bins are moved with the same lo/hi
+   * splitting (and TreeNode.split for tree bins) as a full resize,
+   * so treeification is unaffected. Since a resize doubles the
+   * threshold, sweeping TRANSFER_STRIDE bins per operation finishes
+   * well before the next resize is due; resize() nonetheless
+   * completes any pending migration first. Operations that traverse
+   * the whole table (iterators, spliterators, bulk methods,
+   * serialization) call completeTransfer, which costs no more than
+   * the traversal itself.
+   *
    * The concurrent-programming-like SSA-based coding style helps
    * avoid aliasing errors amid all of the twisty pointer operations.
    */
@@ -319,6 +345,22 @@ public class HashMap<K, V> extends AbstractMap<K, V>
    */
   static final int MIN_TREEIFY_CAPACITY = 64;
 
+  /**
+   * The smallest table capacity whose resizing is performed
+   * incrementally in incremental resize mode. Smaller tables are
+   * cheap enough to rehash in one step. Must be at least
+   * MIN_TREEIFY_CAPACITY so that treeifyBin never needs to resize a
+   * table that is being migrated.
+   */
+  static final int MIN_INCREMENTAL_RESIZE_CAPACITY = 1 << 12;
+
+  /**
+   * The number of old bins swept by each keyed operation while an
+   * incremental resize is in progress, in addition to the bin the
+   * operation itself maps to.
+   */
+  static final int TRANSFER_STRIDE = 16;
+
   /**
    * Basic hash bin node, used for most entries.  (See below for
    * TreeNode subclass, and in LinkedHashMap for its Entry subclass.)
@@ -492,6 +534,17 @@ public class HashMap<K, V> extends AbstractMap<K, V>
    */
   transient Node<K, V>[] table;
 
+  /**
+   * The previous table while an incremental resize is in progress,
+   * else null. Bins are nulled out as they are moved to table.
+   */
+  transient Node<K, V>[] oldTable;
+
+  /**
+   * The next old bin index to be swept while oldTable is non-null.
+   */
+  transient int transferIndex;
+
   /**
    * Holds cached entrySet(). Note that AbstractMap fields are used
    * for keySet() and values().
@@ -550,6 +603,13 @@ public class HashMap<K, V> extends AbstractMap<K, V>
    */
   final float loadFactor;
 
+  /**
+   * Whether large tables are resized incrementally.
+   *
+   * @serial
+   */
+  final boolean incrementalResize;
+
     /* ---------------- Public operations -------------- */
 
   /**
@@ -569,6 +629,42 @@ public class HashMap<K, V> extends AbstractMap<K, V>
    * @throws IllegalArgumentException 如果指定的初始化容量为负数或者加载因子为非正数
    */
   public HashMap(int initialCapacity, float loadFactor) {
+    this(initialCapacity, loadFactor, false);
+  }
+
+  /**
+   * Constructs an empty <tt>HashMap</tt> with the specified initial
+   * capacity, load factor and resizing mode.
+   *
+   * <p>If <tt>incrementalResize</tt> is <tt>true</tt>, growing a large
+   * table does not rehash all mappings at once.  Instead, the old and
+   * the new table coexist for a while, and each subsequent operation
+   * on a key moves a small, bounded number of bins to the new table.
+   * This removes the latency spike otherwise suffered by the one
+   * <tt>put</tt> that triggers the resize.  Iteration over the
+   * collection views is unaffected, and any pending migration is
+   * completed when an iteration begins.
+   *
+   * <p><strong>Note that while a migration is pending, retrievals such
+   * as <tt>get</tt>, <tt>containsKey</tt> and <tt>getOrDefault</tt>, as
+   * well as the start of an iteration, move bins and so structurally
+   * modify the map.</strong> Such a map must therefore be synchronized
+   * externally whenever it is accessed by multiple threads, even if
+   * none of them adds or removes mappings.  In particular, a map that
+   * is filled by one thread and then only read by others, which is
+   * safe for an ordinary <tt>HashMap</tt> once it has been safely
+   * published, is subject to data races in this mode.
+   *
+   * @param initialCapacity   the initial capacity
+   * @param loadFactor        the load factor
+   * @param incrementalResize <tt>true</tt> to spread the rehashing of
+   *                          large tables over subsequent operations
+   * @throws IllegalArgumentException if the initial capacity is negative or the load factor is
+   *                                  nonpositive
+   * @since 1.8
+   */
+  public HashMap(int initialCapacity, float loadFactor,
+                 boolean incrementalResize) {
     //初始容量小于0，抛出非法数据异常
     if (initialCapacity < 0) {
       throw new IllegalArgumentException("Illegal initial capacity: " +
@@ -584,6 +680,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
           loadFactor);
     }
     this.loadFactor = loadFactor;
+    this.incrementalResize = incrementalResize;
     //将初始容量转成2次幂
     this.threshold = tableSizeFor(initialCapacity);
   }
@@ -614,6 +711,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
    */
   public HashMap() {
     this.loadFactor = DEFAULT_LOAD_FACTOR; // all other fields defaulted
+    this.incrementalResize = false;
   }
 
   /**
@@ -633,6 +731,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
    */
   public HashMap(Map<? extends K, ? extends V> m) {
     this.loadFactor = DEFAULT_LOAD_FACTOR;
+    this.incrementalResize = false;
     putMapEntries(m, false);
   }
 
@@ -767,6 +866,9 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     Node<K, V> first, e;
     int n;
     K k;
+    if (oldTable != null) {
+      transferStep(hash);
+    }
     //如果哈希表不为空，而且key对应的桶上不为空。
     // 注意：直接通过(n - 1) & hash算出下标
     if ((tab = table) != null && (n = tab.length) > 0 &&
@@ -884,6 +986,9 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     Node<K, V> p;
     int n, i;
 
+    if (oldTable != null) {
+      transferStep(hash);
+    }
     //如果哈希表为空，调用resize()创建一个哈希表，并用变量n记录哈希表长度
     if ((tab = table) == null || (n = tab.length) == 0) {
         /* 这里调用resize，其实就是第一次put时，对数组进行初始化。*/
@@ -1004,6 +1109,9 @@ public class HashMap<K, V> extends AbstractMap<K, V>
    * @return the table
    */
   final Node<K, V>[] resize() {
+    if (oldTable != null) {
+      completeTransfer();
+    }
     //新建oldTab数组保存扩容前的数组table
     Node<K, V>[] oldTab = table;
     int oldCap = (oldTab == null) ? 0 : oldTab.length;
@@ -1056,117 +1164,174 @@ public class HashMap<K, V> extends AbstractMap<K, V>
 
     //扩容后，对新扩容后的table赋值，重新计算元素新的位置。 原表不是空要把原表中数据移动到新表中
     if (oldTab != null) {   // oldCap 原数组
+      if (incrementalResize && oldCap >= MIN_INCREMENTAL_RESIZE_CAPACITY) {
+        // 渐进式扩容: 旧表保留在oldTable中，由后续操作分批迁移
+        oldTable = oldTab;
+        transferIndex = 0;
+        return newTab;
+      }
       //遍历原来的旧表
       for (int j = 0; j < oldCap; ++j) {
-        Node<K, V> e;
-
-        //判断当前遍历下的该node是否为空，将j位置上的节点保存到e, 然后将oldTab[j]置为空。
-        if ((e = oldTab[j]) != null) {
-          // 将旧桶置为null. 为什么要置为空，有什么好处？？ TODO
-          oldTab[j] = null;
-
-          ///普通节点, 位置是hash求余。 如果为null 说明这个node没有链表直接放在新表的e.hash & (newCap - 1)位置
-          if (e.next == null) {
-            newTab[e.hash & (newCap - 1)] = e;
-          } else if (e instanceof TreeNode) {
-            //  树形结构修剪. 当扩容时，
-            //  如果当前桶中元素结构是红黑树，并且元素个数小于链表还原阈值 UNTREEIFY_THRESHOLD （默认为 6），就会把桶中的树形结构缩小或者直接还原（切分）为链表结构
-            ((TreeNode<K, V>) e).split(this, newTab, j, oldCap);
-
-          // 如果e后边有链表,到这里表示e后面带着个单链表，需要遍历单链表，将每个结点重新计算在新表的位置，并进行搬运
-          } else { // preserve order 保证顺序
-              Node<K, V> loHead = null, loTail = null;
-              Node<K, V> hiHead = null, hiTail = null;
-              Node<K, V> next;
-
-              /*
-              这里如果判断成立，那么该元素的地址在新的数组中就不会改变。
-              因为oldCap的最高位的1，在e.hash对应的位上为0，所以扩容后得到的地址是一样的，位置不会改变 ，在后面的代码的执行中会放到loHead中去，最后赋值给newTab[j]；
-
-              如果判断不成立，那么该元素的地址变为 原下标位置+oldCap，也就是lodCap最高位的1，在e.hash对应的位置上也为1，所以扩容后的地址改变了，在后面的代码中会放到hiHead中，最后赋值给newTab[j + oldCap]
-
-              举个例子来说一下上面的两种情况：
-                设：oldCap=16 二进制为：0001 0000
-                   oldCap-1=15 二进制为：0000 1111
-                   e1.hash=10 二进制为：0000 1010
-                   e2.hash=26 二进制为：0101 1010
-                e1在扩容前的位置为：e1.hash & oldCap-1  结果为：0000 1010
-                e2在扩容前的位置为：e2.hash & oldCap-1  结果为：0000 1010
-                结果相同，所以e1和e2在扩容前在同一个链表上，这是扩容之前的状态。
-
-                现在扩容后，需要重新计算元素的位置，在扩容前的链表中计算地址的方式为e.hash & oldCap-1
-                那么在扩容后应该也这么计算，扩容后的容量为oldCap*2=32，2^5, 二进制为：0010 0000。 所以 newCap=32，
-                新的计算方式应该为
-                e1.hash & newCap-1
-                即：0000 1010 & 0001 1111
-                结果为0000 1010与扩容前的位置完全一样。
-                e2.hash & newCap-1 即：0101 1010 & 0001 1111
-                结果为0001 1010,为扩容前位置+oldCap。
-
-                而这里却没有e.hash & newCap-1 而是 e.hash & oldCap，其实这两个是等效的，都是判断倒数第五位是0，还是1。
-                如果是0，则位置不变，是1则位置改变为扩容前位置+oldCap。
-
-                再来分析下loTail, loHead这两个的执行过程（假设(e.hash & oldCap) == 0成立）：
-                第一次执行：
-                e指向oldTab[j]所指向的node对象，即e指向该位置上链表的第一个元素.
-                loTail为空,所以loHead指向与e相同的node对象（loHead = e;），然后loTail也指向了同一个node对象（loTail = e;）。
-                最后，在判断条件e指向next，就是指向oldTab链表中的第二个元素
-
-                第二次执行：
-                lotail不为null，所以lotail.next指向e，这里其实是lotail指向的node对象的next指向e，
-                也可以说是，loHead的next指向了e，就是指向了oldTab链表中第二个元素。此时loHead指向
-                的node变成了一个长度为2的链表。然后lotail=e也就是指向了链表中第二个元素的地址。
-
-                第三次执行：
-                与第二次执行类似，loHead上的链表长度变为3，又增加了一个node，loTail指向新增的node......
-
-                hiTail与hiHead的执行过程与以上相同。
-                由此可以看出，loHead是用来保存新链表上的头元素的，loTail是用来保存尾元素的，直到遍历完链表。
-                这是(e.hash & oldCap) == 0成立的时候。
-
-                (e.hash & oldCap) == 0不成立的情况也相同，其实就是把oldCap遍历成两个新的链表，
-                通过loHead和hiHead来保存链表的头结点，然后将两个头结点放到newTab[j]与newTab[j+oldCap]上面去。
-              */
-              do {
-                //记录下一个结点
-                next = e.next;
-
-                // 新表是旧表的两倍容量，实例上就把单链表拆分为两队, e.hash&oldCap==0为偶数一队，反之为奇数一对
-                if ((e.hash & oldCap) == 0) {
-                  if (loTail == null) {
-                    loHead = e;
-                  } else {
-                    loTail.next = e;
-                  }
-                  loTail = e;
-                } else {
-                  if (hiTail == null) {
-                    hiHead = e;
-                  } else {
-                    hiTail.next = e;
-                  }
-                  hiTail = e;
-                }
-              } while ((e = next) != null);
+        //判断当前遍历下的该node是否为空
+        if (oldTab[j] != null) {
+          transferBin(oldTab, newTab, j);
+        }
+      }
+    }
+    return newTab;
+  }
 
-              //lo队不为null，放在新表原位置
-              if (loTail != null) {
-                //尾节点的next设置为空
-                loTail.next = null;
-                newTab[j] = loHead;
-              }
+  /**
+   * 将旧表j位置上的桶迁移到新表中，并将oldTab[j]置为空。
+   */
+  final void transferBin(Node<K, V>[] oldTab, Node<K, V>[] newTab, int j) {
+    int oldCap = oldTab.length, newCap = newTab.length;
+    //将j位置上的节点保存到e, 然后将oldTab[j]置为空。
+    Node<K, V> e = oldTab[j];
+    // 将旧桶置为null. 为什么要置为空，有什么好处？？ TODO
+    oldTab[j] = null;
+
+    ///普通节点, 位置是hash求余。 如果为null 说明这个node没有链表直接放在新表的e.hash & (newCap - 1)位置
+    if (e.next == null) {
+      newTab[e.hash & (newCap - 1)] = e;
+    } else if (e instanceof TreeNode) {
+      //  树形结构修剪. 当扩容时，
+      //  如果当前桶中元素结构是红黑树，并且元素个数小于链表还原阈值 UNTREEIFY_THRESHOLD （默认为 6），就会把桶中的树形结构缩小或者直接还原（切分）为链表结构
+      ((TreeNode<K, V>) e).split(this, newTab, j, oldCap);
+
+    // 如果e后边有链表,到这里表示e后面带着个单链表，需要遍历单链表，将每个结点重新计算在新表的位置，并进行搬运
+    } else { // preserve order 保证顺序
+        Node<K, V> loHead = null, loTail = null;
+        Node<K, V> hiHead = null, hiTail = null;
+        Node<K, V> next;
+
+        /*
+        这里如果判断成立，那么该元素的地址在新的数组中就不会改变。
+        因为oldCap的最高位的1，在e.hash对应的位上为0，所以扩容后得到的地址是一样的，位置不会改变 ，在后面的代码的执行中会放到loHead中去，最后赋值给newTab[j]；
+
+        如果判断不成立，那么该元素的地址变为 原下标位置+oldCap，也就是lodCap最高位的1，在e.hash对应的位置上也为1，所以扩容后的地址改变了，在后面的代码中会放到hiHead中，最后赋值给newTab[j + oldCap]
+
+        举个例子来说一下上面的两种情况：
+          设：oldCap=16 二进制为：0001 0000
+             oldCap-1=15 二进制为：0000 1111
+             e1.hash=10 二进制为：0000 1010
+             e2.hash=26 二进制为：0101 1010
+          e1在扩容前的位置为：e1.hash & oldCap-1  结果为：0000 1010
+          e2在扩容前的位置为：e2.hash & oldCap-1  结果为：0000 1010
+          结果相同，所以e1和e2在扩容前在同一个链表上，这是扩容之前的状态。
+
+          现在扩容后，需要重新计算元素的位置，在扩容前的链表中计算地址的方式为e.hash & oldCap-1
+          那么在扩容后应该也这么计算，扩容后的容量为oldCap*2=32，2^5, 二进制为：0010 0000。 所以 newCap=32，
+          新的计算方式应该为
+          e1.hash & newCap-1
+          即：0000 1010 & 0001 1111
+          结果为0000 1010与扩容前的位置完全一样。
+          e2.hash & newCap-1 即：0101 1010 & 0001 1111
+          结果为0001 1010,为扩容前位置+oldCap。
+
+          而这里却没有e.hash & newCap-1 而是 e.hash & oldCap，其实这两个是等效的，都是判断倒数第五位是0，还是1。
+          如果是0，则位置不变，是1则位置改变为扩容前位置+oldCap。
+
+          再来分析下loTail, loHead这两个的执行过程（假设(e.hash & oldCap) == 0成立）：
+          第一次执行：
+          e指向oldTab[j]所指向的node对象，即e指向该位置上链表的第一个元素.
+          loTail为空,所以loHead指向与e相同的node对象（loHead = e;），然后loTail也指向了同一个node对象（loTail = e;）。
+          最后，在判断条件e指向next，就是指向oldTab链表中的第二个元素
+
+          第二次执行：
+          lotail不为null，所以lotail.next指向e，这里其实是lotail指向的node对象的next指向e，
+          也可以说是，loHead的next指向了e，就是指向了oldTab链表中第二个元素。此时loHead指向
+          的node变成了一个长度为2的链表。然后lotail=e也就是指向了链表中第二个元素的地址。
+
+          第三次执行：
+          与第二次执行类似，loHead上的链表长度变为3，又增加了一个node，loTail指向新增的node......
+
+          hiTail与hiHead的执行过程与以上相同。
+          由此可以看出，loHead是用来保存新链表上的头元素的，loTail是用来保存尾元素的，直到遍历完链表。
+          这是(e.hash & oldCap) == 0成立的时候。
+
+          (e.hash & oldCap) == 0不成立的情况也相同，其实就是把oldCap遍历成两个新的链表，
+          通过loHead和hiHead来保存链表的头结点，然后将两个头结点放到newTab[j]与newTab[j+oldCap]上面去。
+        */
+        do {
+          //记录下一个结点
+          next = e.next;
 
-              //hi队不为null，放在新表j+oldCap位置
-              if (hiTail != null) {
-                //尾节点的next设置为空
-                hiTail.next = null;
-                newTab[j + oldCap] = hiHead;
-              }
+          // 新表是旧表的两倍容量，实例上就把单链表拆分为两队, e.hash&oldCap==0为偶数一队，反之为奇数一对
+          if ((e.hash & oldCap) == 0) {
+            if (loTail == null) {
+              loHead = e;
+            } else {
+              loTail.next = e;
+            }
+            loTail = e;
+          } else {
+            if (hiTail == null) {
+              hiHead = e;
+            } else {
+              hiTail.next = e;
+            }
+            hiTail = e;
           }
+        } while ((e = next) != null);
+
+        //lo队不为null，放在新表原位置
+        if (loTail != null) {
+          //尾节点的next设置为空
+          loTail.next = null;
+          newTab[j] = loHead;
+        }
+
+        //hi队不为null，放在新表j+oldCap位置
+        if (hiTail != null) {
+          //尾节点的next设置为空
+          hiTail.next = null;
+          newTab[j + oldCap] = hiHead;
+        }
+    }
+  }
+
+  /**
+   * Performs one step of an incremental resize: moves the old bin
+   * that the given hash maps to, if not yet moved, followed by up to
+   * TRANSFER_STRIDE further bins in index order. Must be called only
+   * while oldTable is non-null.
+   *
+   * @return the (new) table
+   */
+  final Node<K, V>[] transferStep(int hash) {
+    Node<K, V>[] oldTab = oldTable, tab = table;
+    int oldCap = oldTab.length, j = hash & (oldCap - 1), i = transferIndex;
+    if (oldTab[j] != null) {
+      transferBin(oldTab, tab, j);
+    }
+    for (int bound = Math.min(i + TRANSFER_STRIDE, oldCap); i < bound; ++i) {
+      if (oldTab[i] != null) {
+        transferBin(oldTab, tab, i);
+      }
+    }
+    if ((transferIndex = i) >= oldCap) {
+      oldTable = null;
+      transferIndex = 0;
+    }
+    return tab;
+  }
+
+  /**
+   * Moves all remaining bins of an incremental resize, if any.
+   */
+  final void completeTransfer() {
+    Node<K, V>[] oldTab;
+    if ((oldTab = oldTable) != null) {
+      Node<K, V>[] tab = table;
+      for (int j = transferIndex; j < oldTab.length; ++j) {
+        if (oldTab[j] != null) {
+          transferBin(oldTab, tab, j);
         }
       }
+      oldTable = null;
+      transferIndex = 0;
     }
-    return newTab;
   }
 
   /**
@@ -1290,6 +1455,9 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     Node<K, V> p;
     int n, index;
 
+    if (oldTable != null) {
+      transferStep(hash);
+    }
     //如果数组table不为空且key映射到的桶不为空
     if ((tab = table) != null && (n = tab.length) > 0 &&
         (p = tab[index = (n - 1) & hash]) != null) {
@@ -1354,6 +1522,8 @@ public class HashMap<K, V> extends AbstractMap<K, V>
   public void clear() {
     Node<K, V>[] tab;
     modCount++;
+    oldTable = null;
+    transferIndex = 0;
     if ((tab = table) != null && size > 0) {
       size = 0;
       for (int i = 0; i < tab.length; ++i) {
@@ -1378,6 +1548,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
   public boolean containsValue(Object value) {
     Node<K, V>[] tab;
     V v;
+    completeTransfer();
     if ((tab = table) != null && size > 0) {
       //遍历数组table
       for (int i = 0; i < tab.length; ++i) {
@@ -1457,6 +1628,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
       if (action == null) {
         throw new NullPointerException();
       }
+      completeTransfer();
       if (size > 0 && (tab = table) != null) {
         int mc = modCount;
         for (int i = 0; i < tab.length; ++i) {
@@ -1530,6 +1702,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
       if (action == null) {
         throw new NullPointerException();
       }
+      completeTransfer();
       if (size > 0 && (tab = table) != null) {
         int mc = modCount;
         for (int i = 0; i < tab.length; ++i) {
@@ -1611,6 +1784,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
       if (action == null) {
         throw new NullPointerException();
       }
+      completeTransfer();
       if (size > 0 && (tab = table) != null) {
         int mc = modCount;
         for (int i = 0; i < tab.length; ++i) {
@@ -1722,6 +1896,9 @@ public class HashMap<K, V> extends AbstractMap<K, V>
         (n = tab.length) == 0) {
       n = (tab = resize()).length;
     }
+    if (oldTable != null) {
+      transferStep(hash);
+    }
     if ((first = tab[i = (n - 1) & hash]) != null) {
       if (first instanceof TreeNode) {
         old = (t = (TreeNode<K, V>) first).getTreeNode(hash, key);
@@ -1803,6 +1980,9 @@ public class HashMap<K, V> extends AbstractMap<K, V>
         (n = tab.length) == 0) {
       n = (tab = resize()).length;
     }
+    if (oldTable != null) {
+      transferStep(hash);
+    }
     if ((first = tab[i = (n - 1) & hash]) != null) {
       if (first instanceof TreeNode) {
         old = (t = (TreeNode<K, V>) first).getTreeNode(hash, key);
@@ -1864,6 +2044,9 @@ public class HashMap<K, V> extends AbstractMap<K, V>
         (n = tab.length) == 0) {
       n = (tab = resize()).length;
     }
+    if (oldTable != null) {
+      transferStep(hash);
+    }
     if ((first = tab[i = (n - 1) & hash]) != null) {
       if (first instanceof TreeNode) {
         old = (t = (TreeNode<K, V>) first).getTreeNode(hash, key);
@@ -1917,6 +2100,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     if (action == null) {
       throw new NullPointerException();
     }
+    completeTransfer();
     if (size > 0 && (tab = table) != null) {
       int mc = modCount;
       for (int i = 0; i < tab.length; ++i) {
@@ -1936,6 +2120,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     if (function == null) {
       throw new NullPointerException();
     }
+    completeTransfer();
     if (size > 0 && (tab = table) != null) {
       int mc = modCount;
       for (int i = 0; i < tab.length; ++i) {
@@ -2098,6 +2283,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
     int index;             // current slot
 
     HashIterator() {
+      completeTransfer();
       expectedModCount = modCount;
       Node<K, V>[] t = table;
       current = next = null;
@@ -2193,6 +2379,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
       int hi;
       if ((hi = fence) < 0) {
         HashMap<K, V> m = map;
+        m.completeTransfer();
         est = m.size;
         expectedModCount = m.modCount;
         Node<K, V>[] tab = m.table;
@@ -2231,6 +2418,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
       HashMap<K, V> m = map;
       Node<K, V>[] tab = m.table;
       if ((hi = fence) < 0) {
+        m.completeTransfer();
         mc = expectedModCount = m.modCount;
         hi = fence = (tab == null) ? 0 : tab.length;
       } else {
@@ -2308,6 +2496,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
       HashMap<K, V> m = map;
       Node<K, V>[] tab = m.table;
       if ((hi = fence) < 0) {
+        m.completeTransfer();
         mc = expectedModCount = m.modCount;
         hi = fence = (tab == null) ? 0 : tab.length;
       } else {
@@ -2384,6 +2573,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
       HashMap<K, V> m = map;
       Node<K, V>[] tab = m.table;
       if ((hi = fence) < 0) {
+        m.completeTransfer();
         mc = expectedModCount = m.modCount;
         hi = fence = (tab == null) ? 0 : tab.length;
       } else {
@@ -2479,6 +2669,8 @@ public class HashMap<K, V> extends AbstractMap<K, V>
    */
   void reinitialize() {
     table = null;
+    oldTable = null;
+    transferIndex = 0;
     entrySet = null;
     keySet = null;
     values = null;
@@ -2501,6 +2693,7 @@ public class HashMap<K, V> extends AbstractMap<K, V>
   // 写入hashMap键值对到ObjectOutputStream中
   void internalWriteEntries(java.io.ObjectOutputStream s) throws IOException {
     Node<K, V>[] tab;
+    completeTransfer();
     if (size > 0 && (tab = table) != null) {
       for (int i = 0; i < tab.length; ++i) {
         for (Node<K, V> e = tab[i]; e != null; e = e.next) {
@@ -0,0 +1,881 @@
+/*
+ * Copyright (c) 2003, 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.util.function.Consumer;
+
+/**
+ * An unbounded priority {@linkplain Queue queue} based on an indexed
+ * d-ary heap.  Like {@link PriorityQueue}, the elements are ordered
+ * according to their {@linkplain Comparable natural ordering}, or by a
+ * {@link Comparator} provided at queue construction time, and
+ * {@code null} elements are not permitted.
+ *
+ * <p>Unlike {@code PriorityQueue}, this queue keeps track of the heap
+ * position of each of its elements.  {@link #remove(Object) remove(Object)}
+ * therefore runs in O(log(n)) rather than linear time, {@link
+ * #contains contains} runs in constant time, and {@link #update update}
+ * restores the position of an element whose ordering has changed while
+ * it was queued, also in O(log(n)) time.  To make this possible, the
+ * queue does not admit duplicates: at most one element {@code e2} with
+ * {@code e.equals(e2)} may be present at any time, and the elements'
+ * {@code hashCode} must be consistent with {@code equals}.  Attempts to
+ * {@link #offer offer} an element that is already present leave the
+ * queue unchanged and return {@code false}.
+ *
+ * <p>The heap has a configurable <em>arity</em>, the number of children
+ * of each heap node, which must be a power of two between 2 and 64.  A
+ * higher arity makes the heap shallower, which speeds up insertions and
+ * priority decreases and groups the children scanned by each step of
+ * {@code poll} into adjacent array slots; the default arity of
+ * {@value #DEFAULT_ARITY} is usually a good compromise.  For elements
+ * whose priorities are primitive {@code long} values, {@link
+ * LongPriorityQueue} avoids comparator calls altogether.
+ *
+ * <p>The <em>head</em> of this queue is the <em>least</em> element
+ * with respect to the specified ordering.  If multiple elements are
+ * tied for least value, the head is one of those elements -- ties are
+ * broken arbitrarily.
+ *
+ * <p>This class and its iterator implement all of the
+ * <em>optional</em> methods of the {@link Collection} and {@link
+ * Iterator} interfaces.  The Iterator provided in method {@link
+ * #iterator()} is <em>not</em> guaranteed to traverse the elements of
+ * the priority queue in any particular order.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * Multiple threads should not access an {@code IndexedPriorityQueue}
+ * instance concurrently if any of the threads modifies the queue.
+ *
+ * <p>Implementation note: this implementation provides
+ * O(log(n)) time for the enqueuing and dequeuing methods
+ * ({@code offer}, {@code poll}, {@code remove()} and {@code add}) and for
+ * {@code remove(Object)} and {@code update}; and expected constant time
+ * for {@code contains(Object)} and for the retrieval methods
+ * ({@code peek}, {@code element}, and {@code size}).
+ *
+ * @param <E> the type of elements held in this collection
+ * @see PriorityQueue
+ * @see LongPriorityQueue
+ * @since 1.8
+ */
+public class IndexedPriorityQueue<E> extends AbstractQueue<E>
+    implements java.io.Serializable {
+
+  private static final long serialVersionUID = 2876461203718265834L;
+
+  private static final int DEFAULT_INITIAL_CAPACITY = 11;
+
+  /**
+   * The default heap arity.
+   */
+  static final int DEFAULT_ARITY = 4;
+
+  /**
+   * The largest supported heap arity.
+   */
+  static final int MAX_ARITY = 64;
+
+  /**
+   * Priority queue represented as a balanced d-ary heap of Nodes: the
+   * children of queue[n] are queue[(n << shift) + 1] through
+   * queue[(n << shift) + (1 << shift)], and the parent of queue[n] is
+   * queue[(n - 1) >>> shift].  The priority queue is ordered by
+   * comparator, or by the elements' natural ordering, if comparator is
+   * null: For each node n in the heap and each descendant d of n,
+   * n <= d.  Every node records its own position in field index, which
+   * is updated whenever the node is moved.
+   */
+  transient Node<E>[] queue; // non-private to simplify nested class access
+
+  /**
+   * Maps each element to its node.
+   */
+  private transient HashMap<Object, Node<E>> nodes;
+
+  /**
+   * The number of elements in the priority queue.
+   */
+  private int size = 0;
+
+  /**
+   * The base 2 logarithm of the heap arity.
+   *
+   * @serial
+   */
+  private final int shift;
+
+  /**
+   * The comparator, or null if priority queue uses elements'
+   * natural ordering.
+   */
+  private final Comparator<? super E> comparator;
+
+  /**
+   * The number of times this priority queue has been
+   * <i>structurally modified</i>.  See AbstractList for gory details.
+   */
+  transient int modCount = 0; // non-private to simplify nested class access
+
+  /**
+   * Heap slots, shared with LongPriorityQueue.
+   */
+  static final class Node<E> {
+
+    final E item;
+    int index;
+
+    Node(E item, int index) {
+      this.item = item;
+      this.index = index;
+    }
+  }
+
+  /**
+   * Creates an {@code IndexedPriorityQueue} with the default initial
+   * capacity and arity that orders its elements according to their
+   * {@linkplain Comparable natural ordering}.
+   */
+  public IndexedPriorityQueue() {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_ARITY, null);
+  }
+
+  /**
+   * Creates an {@code IndexedPriorityQueue} with the default initial
+   * capacity and arity whose elements are ordered according to the
+   * specified comparator.
+   *
+   * @param comparator the comparator that will be used to order this priority queue.  If {@code
+   * null}, the {@linkplain Comparable natural ordering} of the elements will be used.
+   */
+  public IndexedPriorityQueue(Comparator<? super E> comparator) {
+    this(DEFAULT_INITIAL_CAPACITY, DEFAULT_ARITY, comparator);
+  }
+
+  /**
+   * Creates an {@code IndexedPriorityQueue} with the specified initial
+   * capacity and heap arity that orders its elements according to the
+   * specified comparator.
+   *
+   * @param initialCapacity the initial capacity for this priority queue
+   * @param arity the number of children of each heap node
+   * @param comparator the comparator that will be used to order this priority queue.  If {@code
+   * null}, the {@linkplain Comparable natural ordering} of the elements will be used.
+   * @throws IllegalArgumentException if {@code initialCapacity} is less than 1, or {@code arity} is
+   * not a power of two between 2 and 64
+   */
+  @SuppressWarnings("unchecked")
+  public IndexedPriorityQueue(int initialCapacity, int arity,
+      Comparator<? super E> comparator) {
+    if (initialCapacity < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.shift = arityShift(arity);
+    this.queue = (Node<E>[]) new Node<?>[initialCapacity];
+    this.nodes = new HashMap<>();
+    this.comparator = comparator;
+  }
+
+  /**
+   * Returns log2(arity), checking that arity is valid.
+   */
+  static int arityShift(int arity) {
+    if (arity < 2 || arity > MAX_ARITY || (arity & (arity - 1)) != 0) {
+      throw new IllegalArgumentException("Illegal arity: " + arity);
+    }
+    return Integer.numberOfTrailingZeros(arity);
+  }
+
+  /**
+   * The maximum size of array to allocate.
+   * Some VMs reserve some header words in an array.
+   * Attempts to allocate larger arrays may result in
+   * OutOfMemoryError: Requested array size exceeds VM limit
+   */
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  /**
+   * Returns the new length for a heap array of the given length.
+   *
+   * @param oldCapacity the current length
+   * @param minCapacity the desired minimum capacity
+   */
+  static int newCapacity(int oldCapacity, int minCapacity) {
+    // Double size if small; else grow by 50%
+    int newCapacity = oldCapacity + ((oldCapacity < 64) ?
+        (oldCapacity + 2) :
+        (oldCapacity >> 1));
+    // overflow-conscious code
+    if (newCapacity - MAX_ARRAY_SIZE > 0) {
+      if (minCapacity < 0) { // overflow
+        throw new OutOfMemoryError();
+      }
+      newCapacity = (minCapacity > MAX_ARRAY_SIZE) ?
+          Integer.MAX_VALUE :
+          MAX_ARRAY_SIZE;
+    }
+    return newCapacity;
+  }
+
+  /**
+   * Inserts the specified element into this priority queue, unless it
+   * is already present.
+   *
+   * @return {@code true} if this queue did not already contain the specified element
+   * @throws ClassCastException if the specified element cannot be compared with elements currently
+   * in this priority queue according to the priority queue's ordering
+   * @throws NullPointerException if the specified element is null
+   */
+  public boolean add(E e) {
+    return offer(e);
+  }
+
+  /**
+   * Inserts the specified element into this priority queue, unless it
+   * is already present.
+   *
+   * @return {@code true} if this queue did not already contain the specified element
+   * @throws ClassCastException if the specified element cannot be compared with elements currently
+   * in this priority queue according to the priority queue's ordering
+   * @throws NullPointerException if the specified element is null
+   */
+  public boolean offer(E e) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    int i = size;
+    Node<E> node = new Node<>(e, i);
+    if (nodes.putIfAbsent(e, node) != null) {
+      return false;
+    }
+    modCount++;
+    if (i >= queue.length) {
+      queue = Arrays.copyOf(queue, newCapacity(queue.length, i + 1));
+    }
+    size = i + 1;
+    if (i == 0) {
+      queue[0] = node;
+    } else {
+      siftUp(i, node);
+    }
+    return true;
+  }
+
+  public E peek() {
+    return (size == 0) ? null : queue[0].item;
+  }
+
+  /**
+   * Removes the specified element from this queue, if it is present.
+   * More formally, removes the element {@code e} such that
+   * {@code o.equals(e)}, if this queue contains such an element.
+   * Returns {@code true} if and only if this queue contained the
+   * specified element (or equivalently, if this queue changed as a
+   * result of the call).
+   *
+   * @param o element to be removed from this queue, if present
+   * @return {@code true} if this queue changed as a result of the call
+   */
+  public boolean remove(Object o) {
+    Node<E> node;
+    if (o == null || (node = nodes.remove(o)) == null) {
+      return false;
+    }
+    removeAt(node.index);
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if this queue contains the specified element.
+   * More formally, returns {@code true} if and only if this queue contains
+   * an element {@code e} such that {@code o.equals(e)}.
+   *
+   * @param o object to be checked for containment in this queue
+   * @return {@code true} if this queue contains the specified element
+   */
+  public boolean contains(Object o) {
+    return o != null && nodes.containsKey(o);
+  }
+
+  /**
+   * Restores the position of the specified element after a change of
+   * its ordering with respect to the other elements, for example after
+   * mutating a field that the comparator reads.  The element is moved
+   * towards the head if it has become smaller, and away from it if it
+   * has become larger.  This method must be called after every such
+   * change, before any other operation on this queue.
+   *
+   * @param o the element whose ordering has changed
+   * @return {@code true} if this queue contains the specified element
+   * @throws ClassCastException if the specified element cannot be compared with elements currently
+   * in this priority queue according to the priority queue's ordering
+   */
+  public boolean update(Object o) {
+    Node<E> node;
+    if (o == null || (node = nodes.get(o)) == null) {
+      return false;
+    }
+    modCount++;
+    int i = node.index;
+    siftUp(i, node);
+    if (node.index == i) {
+      siftDown(i, node);
+    }
+    return true;
+  }
+
+  /**
+   * Returns an array containing all of the elements in this queue.
+   * The elements are in no particular order.
+   *
+   * <p>The returned array will be "safe" in that no references to it are
+   * maintained by this queue.  (In other words, this method must allocate
+   * a new array).  The caller is thus free to modify the returned array.
+   *
+   * @return an array containing all of the elements in this queue
+   */
+  public Object[] toArray() {
+    Object[] a = new Object[size];
+    for (int i = 0; i < a.length; i++) {
+      a[i] = queue[i].item;
+    }
+    return a;
+  }
+
+  /**
+   * Returns an array containing all of the elements in this queue; the
+   * runtime type of the returned array is that of the specified array.
+   * The returned array elements are in no particular order.
+   * If the queue fits in the specified array, it is returned therein.
+   * Otherwise, a new array is allocated with the runtime type of the
+   * specified array and the size of this queue.
+   *
+   * @param a the array into which the elements of the queue are to be stored, if it is big enough;
+   * otherwise, a new array of the same runtime type is allocated for this purpose.
+   * @return an array containing all of the elements in this queue
+   * @throws ArrayStoreException if the runtime type of the specified array is not a supertype of
+   * the runtime type of every element in this queue
+   * @throws NullPointerException if the specified array is null
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T[] toArray(T[] a) {
+    final int size = this.size;
+    if (a.length < size) {
+      a = (T[]) java.lang.reflect.Array.newInstance(
+          a.getClass().getComponentType(), size);
+    }
+    for (int i = 0; i < size; i++) {
+      a[i] = (T) queue[i].item;
+    }
+    if (a.length > size) {
+      a[size] = null;
+    }
+    return a;
+  }
+
+  /**
+   * Returns an iterator over the elements in this queue. The iterator
+   * does not return the elements in any particular order.
+   *
+   * @return an iterator over the elements in this queue
+   */
+  public Iterator<E> iterator() {
+    return new Itr();
+  }
+
+  private final class Itr implements Iterator<E> {
+
+    /**
+     * Index (into queue array) of element to be returned by
+     * subsequent call to next.
+     */
+    private int cursor = 0;
+
+    /**
+     * Index of element returned by most recent call to next,
+     * unless that element came from the forgetMeNot list.
+     * Set to -1 if element is deleted by a call to remove.
+     */
+    private int lastRet = -1;
+
+    /**
+     * A queue of elements that were moved from the unvisited portion of
+     * the heap into the visited portion as a result of "unlucky" element
+     * removals during the iteration, as in PriorityQueue.
+     */
+    private ArrayDeque<E> forgetMeNot = null;
+
+    /**
+     * Element returned by the most recent call to next iff that
+     * element was drawn from the forgetMeNot list.
+     */
+    private E lastRetElt = null;
+
+    /**
+     * The modCount value that the iterator believes that the backing
+     * Queue should have.  If this expectation is violated, the iterator
+     * has detected concurrent modification.
+     */
+    private int expectedModCount = modCount;
+
+    public boolean hasNext() {
+      return cursor < size ||
+          (forgetMeNot != null && !forgetMeNot.isEmpty());
+    }
+
+    public E next() {
+      if (expectedModCount != modCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (cursor < size) {
+        return queue[lastRet = cursor++].item;
+      }
+      if (forgetMeNot != null) {
+        lastRet = -1;
+        lastRetElt = forgetMeNot.poll();
+        if (lastRetElt != null) {
+          return lastRetElt;
+        }
+      }
+      throw new NoSuchElementException();
+    }
+
+    public void remove() {
+      if (expectedModCount != modCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (lastRet != -1) {
+        nodes.remove(queue[lastRet].item);
+        E moved = IndexedPriorityQueue.this.removeAt(lastRet);
+        lastRet = -1;
+        if (moved == null) {
+          cursor--;
+        } else {
+          if (forgetMeNot == null) {
+            forgetMeNot = new ArrayDeque<>();
+          }
+          forgetMeNot.add(moved);
+        }
+      } else if (lastRetElt != null) {
+        IndexedPriorityQueue.this.remove(lastRetElt);
+        lastRetElt = null;
+      } else {
+        throw new IllegalStateException();
+      }
+      expectedModCount = modCount;
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes all of the elements from this priority queue.
+   * The queue will be empty after this call returns.
+   */
+  public void clear() {
+    modCount++;
+    for (int i = 0; i < size; i++) {
+      queue[i] = null;
+    }
+    nodes.clear();
+    size = 0;
+  }
+
+  public E poll() {
+    if (size == 0) {
+      return null;
+    }
+    int s = --size;
+    modCount++;
+    E result = queue[0].item;
+    nodes.remove(result);
+    Node<E> x = queue[s];
+    queue[s] = null;
+    if (s != 0) {
+      siftDown(0, x);
+    }
+    return result;
+  }
+
+  /**
+   * Removes the ith element from queue, whose entry in nodes has
+   * already been removed.  As in PriorityQueue.removeAt, returns the
+   * element that was previously at the end of the list and is now at
+   * some position before i, if any, and otherwise null.
+   */
+  private E removeAt(int i) {
+    // assert i >= 0 && i < size;
+    modCount++;
+    int s = --size;
+    if (s == i) // removed last element
+    {
+      queue[i] = null;
+    } else {
+      Node<E> moved = queue[s];
+      queue[s] = null;
+      siftDown(i, moved);
+      if (queue[i] == moved) {
+        siftUp(i, moved);
+        if (queue[i] != moved) {
+          return moved.item;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Inserts node x at position k, maintaining heap invariant by
+   * promoting x up the tree until it is greater than or equal to
+   * its parent, or is the root.
+   *
+   * As in PriorityQueue, the Comparable and Comparator versions are
+   * separated into different methods that are otherwise identical.
+   * (Similarly for siftDown.)
+   *
+   * @param k the position to fill
+   * @param x the node to insert
+   */
+  private void siftUp(int k, Node<E> x) {
+    if (comparator != null) {
+      siftUpUsingComparator(k, x);
+    } else {
+      siftUpComparable(k, x);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void siftUpComparable(int k, Node<E> x) {
+    Node<E>[] q = queue;
+    int sh = shift;
+    Comparable<? super E> key = (Comparable<? super E>) x.item;
+    while (k > 0) {
+      int parent = (k - 1) >>> sh;
+      Node<E> e = q[parent];
+      if (key.compareTo(e.item) >= 0) {
+        break;
+      }
+      q[k] = e;
+      e.index = k;
+      k = parent;
+    }
+    q[k] = x;
+    x.index = k;
+  }
+
+  private void siftUpUsingComparator(int k, Node<E> x) {
+    Node<E>[] q = queue;
+    int sh = shift;
+    Comparator<? super E> cmp = comparator;
+    E key = x.item;
+    while (k > 0) {
+      int parent = (k - 1) >>> sh;
+      Node<E> e = q[parent];
+      if (cmp.compare(key, e.item) >= 0) {
+        break;
+      }
+      q[k] = e;
+      e.index = k;
+      k = parent;
+    }
+    q[k] = x;
+    x.index = k;
+  }
+
+  /**
+   * Inserts node x at position k, maintaining heap invariant by
+   * demoting x down the tree repeatedly until it is less than or
+   * equal to its children or is a leaf.
+   *
+   * @param k the position to fill
+   * @param x the node to insert
+   */
+  private void siftDown(int k, Node<E> x) {
+    if (comparator != null) {
+      siftDownUsingComparator(k, x);
+    } else {
+      siftDownComparable(k, x);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void siftDownComparable(int k, Node<E> x) {
+    Node<E>[] q = queue;
+    int n = size, sh = shift;
+    Comparable<? super E> key = (Comparable<? super E>) x.item;
+    int child;
+    while ((child = (k << sh) + 1) < n && child > 0) {
+      // find least of up to 1 << sh children
+      int end = Math.min(child + (1 << sh), n);
+      Node<E> c = q[child];
+      Comparable<? super E> least = (Comparable<? super E>) c.item;
+      for (int j = child + 1; j < end; j++) {
+        Node<E> d = q[j];
+        if (least.compareTo(d.item) > 0) {
+          least = (Comparable<? super E>) (c = d).item;
+          child = j;
+        }
+      }
+      if (key.compareTo(c.item) <= 0) {
+        break;
+      }
+      q[k] = c;
+      c.index = k;
+      k = child;
+    }
+    q[k] = x;
+    x.index = k;
+  }
+
+  private void siftDownUsingComparator(int k, Node<E> x) {
+    Node<E>[] q = queue;
+    int n = size, sh = shift;
+    Comparator<? super E> cmp = comparator;
+    E key = x.item;
+    int child;
+    while ((child = (k << sh) + 1) < n && child > 0) {
+      int end = Math.min(child + (1 << sh), n);
+      Node<E> c = q[child];
+      for (int j = child + 1; j < end; j++) {
+        Node<E> d = q[j];
+        if (cmp.compare(c.item, d.item) > 0) {
+          c = d;
+          child = j;
+        }
+      }
+      if (cmp.compare(key, c.item) <= 0) {
+        break;
+      }
+      q[k] = c;
+      c.index = k;
+      k = child;
+    }
+    q[k] = x;
+    x.index = k;
+  }
+
+  /**
+   * Establishes the heap invariant (described above) in the entire tree,
+   * assuming nothing about the order of the elements prior to the call.
+   */
+  private void heapify() {
+    if (size > 1) {
+      for (int i = (size - 2) >>> shift; i >= 0; i--) {
+        siftDown(i, queue[i]);
+      }
+    }
+  }
+
+  /**
+   * Returns the comparator used to order the elements in this
+   * queue, or {@code null} if this queue is sorted according to
+   * the {@linkplain Comparable natural ordering} of its elements.
+   *
+   * @return the comparator used to order this queue, or {@code null} if this queue is sorted
+   * according to the natural ordering of its elements
+   */
+  public Comparator<? super E> comparator() {
+    return comparator;
+  }
+
+  /**
+   * Returns the number of children of each node of the heap.
+   *
+   * @return the arity of the heap
+   */
+  public int arity() {
+    return 1 << shift;
+  }
+
+  /**
+   * Saves this queue to a stream (that is, serializes it).
+   *
+   * @param s the stream
+   * @serialData The size of the queue, the heap arity shift and the comparator, followed by all of
+   * its elements (each an {@code Object}) in the proper order.
+   */
+  private void writeObject(java.io.ObjectOutputStream s)
+      throws java.io.IOException {
+    // Write out element count, and any hidden stuff
+    s.defaultWriteObject();
+
+    // Write out all elements in the "proper order".
+    for (int i = 0; i < size; i++) {
+      s.writeObject(queue[i].item);
+    }
+  }
+
+  /**
+   * Reconstitutes the {@code IndexedPriorityQueue} instance from a stream
+   * (that is, deserializes it).
+   *
+   * @param s the stream
+   */
+  @SuppressWarnings("unchecked")
+  private void readObject(java.io.ObjectInputStream s)
+      throws java.io.IOException, ClassNotFoundException {
+    // Read in size, and any hidden stuff
+    s.defaultReadObject();
+    if (size < 0) {
+      throw new java.io.InvalidObjectException("Illegal size: " + size);
+    }
+    arityShift(1 << shift);
+
+    queue = (Node<E>[]) new Node<?>[Math.max(size, 1)];
+    nodes = new HashMap<>(Math.max((int) (size / .75f) + 1, 16));
+
+    // Read in all elements.
+    for (int i = 0; i < size; i++) {
+      E e = (E) s.readObject();
+      Node<E> node = new Node<>(e, i);
+      if (e == null || nodes.put(e, node) != null) {
+        throw new java.io.InvalidObjectException("Null or duplicate element");
+      }
+      queue[i] = node;
+    }
+
+    heapify();
+  }
+
+  /**
+   * Creates a <em><a href="Spliterator.html#binding">late-binding</a></em>
+   * and <em>fail-fast</em> {@link Spliterator} over the elements in this
+   * queue.
+   *
+   * <p>The {@code Spliterator} reports {@link Spliterator#SIZED},
+   * {@link Spliterator#SUBSIZED}, {@link Spliterator#DISTINCT} and
+   * {@link Spliterator#NONNULL}.  Overriding implementations should
+   * document the reporting of additional characteristic values.
+   *
+   * @return a {@code Spliterator} over the elements in this queue
+   */
+  public final Spliterator<E> spliterator() {
+    return new HeapSpliterator<E>(this, 0, -1, 0);
+  }
+
+  static final class HeapSpliterator<E> implements Spliterator<E> {
+
+    /*
+     * This is very similar to PriorityQueue's Spliterator, except
+     * for the indirection through nodes.
+     */
+    private final IndexedPriorityQueue<E> pq;
+    private int index;            // current index, modified on advance/split
+    private int fence;            // -1 until first use
+    private int expectedModCount; // initialized when fence set
+
+    /**
+     * Creates new spliterator covering the given range
+     */
+    HeapSpliterator(IndexedPriorityQueue<E> pq, int origin, int fence,
+        int expectedModCount) {
+      this.pq = pq;
+      this.index = origin;
+      this.fence = fence;
+      this.expectedModCount = expectedModCount;
+    }
+
+    private int getFence() { // initialize fence to size on first use
+      int hi;
+      if ((hi = fence) < 0) {
+        expectedModCount = pq.modCount;
+        hi = fence = pq.size;
+      }
+      return hi;
+    }
+
+    public HeapSpliterator<E> trySplit() {
+      int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+      return (lo >= mid) ? null :
+          new HeapSpliterator<E>(pq, lo, index = mid,
+              expectedModCount);
+    }
+
+    public void forEachRemaining(Consumer<? super E> action) {
+      int i, hi, mc; // hoist accesses and checks from loop
+      IndexedPriorityQueue<E> q;
+      Node<E>[] a;
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      if ((q = pq) != null && (a = q.queue) != null) {
+        if ((hi = fence) < 0) {
+          mc = q.modCount;
+          hi = q.size;
+        } else {
+          mc = expectedModCount;
+        }
+        if ((i = index) >= 0 && (index = hi) <= a.length) {
+          for (Node<E> e; ; ++i) {
+            if (i < hi) {
+              if ((e = a[i]) == null) // must be CME
+              {
+                break;
+              }
+              action.accept(e.item);
+            } else if (q.modCount != mc) {
+              break;
+            } else {
+              return;
+            }
+          }
+        }
+      }
+      throw new ConcurrentModificationException();
+    }
+
+    public boolean tryAdvance(Consumer<? super E> action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      int hi = getFence(), lo = index;
+      if (lo >= 0 && lo < hi) {
+        index = lo + 1;
+        Node<E> e = pq.queue[lo];
+        if (e == null) {
+          throw new ConcurrentModificationException();
+        }
+        action.accept(e.item);
+        if (pq.modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        return true;
+      }
+      return false;
+    }
+
+    public long estimateSize() {
+      return (long) (getFence() - index);
+    }
+
+    public int characteristics() {
+      return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL |
+          Spliterator.DISTINCT;
+    }
+  }
+}
@@ -0,0 +1,926 @@
+/*
+ * Copyright (c) 1997, 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.Serializable;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntObjConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Hash table based map from primitive {@code int} keys to object values.
+ * Unlike a {@code HashMap<Integer, V>}, this class stores its keys and
+ * values in two flat parallel arrays using open addressing with linear
+ * probing, so neither an entry object nor a boxed key is allocated per
+ * mapping, and no boxing takes place on {@link #get get} or
+ * {@link #put put}.  Values may be <tt>null</tt>.
+ *
+ * <p>This implementation provides constant-time performance for the basic
+ * operations (<tt>get</tt> and <tt>put</tt>), assuming the keys are
+ * reasonably distributed after mixing.  The table is doubled whenever the
+ * number of mappings exceeds the product of the load factor and the
+ * current capacity.  Because every probe sequence is a contiguous run of
+ * array slots, lookups typically touch a single cache line.  Removal
+ * shifts back the following entries of the run, so no deleted-entry
+ * markers accumulate over time.
+ *
+ * <p>Keys may be traversed without boxing using {@link #forEach forEach},
+ * {@link #keySpliterator} or {@link #keyStream}.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access the map concurrently, and at least one of
+ * the threads modifies the map structurally, it <i>must</i> be
+ * synchronized externally.
+ *
+ * <p>The spliterators returned by this class are <i>fail-fast</i> on a
+ * best-effort basis, in the same way as those of {@link HashMap}.
+ *
+ * @param <V> the type of mapped values
+ * @see HashMap
+ * @see LongHashMap
+ * @see IntIntHashMap
+ * @since 1.8
+ */
+public class IntHashMap<V> implements Cloneable, Serializable {
+
+  private static final long serialVersionUID = -6712397481920391753L;
+
+  /*
+   * Implementation notes.
+   *
+   * Keys live in keys[], values in the slot of the same index in
+   * vals[]. A key of zero marks an empty slot, so the (legal) key
+   * zero itself is kept out of line in fields hasZeroKey/zeroValue.
+   * Callers of the internal methods therefore always special-case
+   * key zero first.
+   *
+   * Keys are spread by multiplication with the golden ratio and an
+   * xor of the upper half into the lower half before masking, which
+   * breaks up the clustering that sequential ids would otherwise
+   * cause under linear probing.
+   *
+   * Removal uses backward-shift deletion: after clearing a slot, the
+   * remaining members of its run are moved up whenever their home
+   * slot does not lie cyclically between the freed slot and their
+   * current position. This keeps the invariant that every key is
+   * reachable from its home slot without crossing an empty slot.
+   */
+
+  /**
+   * The default initial capacity - MUST be a power of two.
+   */
+  static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+  /**
+   * The maximum capacity, MUST be a power of two <= 1<<30.
+   */
+  static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  /**
+   * The load factor used when none specified in constructor.
+   */
+  static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+  /**
+   * The key table. Length MUST always be a power of two.
+   */
+  transient int[] keys;
+
+  /**
+   * The value table, parallel to keys.
+   */
+  transient Object[] vals;
+
+  /**
+   * Whether the map contains a mapping for key zero.
+   */
+  transient boolean hasZeroKey;
+
+  /**
+   * The value mapped to key zero, if hasZeroKey.
+   */
+  transient V zeroValue;
+
+  /**
+   * The number of key-value mappings contained in this map.
+   */
+  transient int size;
+
+  /**
+   * The number of times this map has been structurally modified.
+   */
+  transient int modCount;
+
+  /**
+   * The maximum number of occupied table slots (excluding the zero
+   * key) before the table is resized.
+   */
+  transient int threshold;
+
+  /**
+   * The load factor for the hash table.
+   *
+   * @serial
+   */
+  final float loadFactor;
+
+  /**
+   * Constructs an empty <tt>IntHashMap</tt> with the specified initial
+   * capacity and load factor.
+   *
+   * @param initialCapacity the initial capacity
+   * @param loadFactor the load factor, strictly between 0 and 1
+   * @throws IllegalArgumentException if the initial capacity is negative
+   *         or the load factor is not strictly between 0 and 1
+   */
+  public IntHashMap(int initialCapacity, float loadFactor) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Illegal initial capacity: " +
+          initialCapacity);
+    }
+    if (!(loadFactor > 0.0f && loadFactor < 1.0f)) {
+      throw new IllegalArgumentException("Illegal load factor: " +
+          loadFactor);
+    }
+    this.loadFactor = loadFactor;
+    allocate(capacityFor(initialCapacity, loadFactor));
+  }
+
+  /**
+   * Constructs an empty <tt>IntHashMap</tt> able to hold the specified
+   * number of mappings without resizing, using the default load factor
+   * (0.75).
+   *
+   * @param initialCapacity the initial capacity
+   * @throws IllegalArgumentException if the initial capacity is negative
+   */
+  public IntHashMap(int initialCapacity) {
+    this(initialCapacity, DEFAULT_LOAD_FACTOR);
+  }
+
+  /**
+   * Constructs an empty <tt>IntHashMap</tt> with the default initial
+   * capacity (16) and the default load factor (0.75).
+   */
+  public IntHashMap() {
+    this.loadFactor = DEFAULT_LOAD_FACTOR;
+    allocate(DEFAULT_INITIAL_CAPACITY);
+  }
+
+  /**
+   * Constructs a new <tt>IntHashMap</tt> with the same mappings as the
+   * specified <tt>IntHashMap</tt>.
+   *
+   * @param m the map whose mappings are to be placed in this map
+   * @throws NullPointerException if the specified map is null
+   */
+  public IntHashMap(IntHashMap<? extends V> m) {
+    this.loadFactor = m.loadFactor;
+    allocate(capacityFor(m.size, loadFactor));
+    putAll(m);
+  }
+
+  /**
+   * Spreads the bits of a key over the lower bits used for indexing.
+   */
+  static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Returns the power of two table length able to hold the given number
+   * of mappings under the given load factor.
+   */
+  static int capacityFor(int expected, float loadFactor) {
+    long n = (long) Math.ceil(expected / (double) loadFactor);
+    if (n >= MAXIMUM_CAPACITY) {
+      return MAXIMUM_CAPACITY;
+    }
+    return Math.max(HashMap.tableSizeFor((int) n + 1), 2);
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    vals = new Object[capacity];
+    threshold = Math.min((int) (capacity * loadFactor), capacity - 1);
+  }
+
+  /**
+   * Returns the table index holding the given non-zero key, or -1.
+   */
+  final int indexOf(int key) {
+    int[] ks = keys;
+    int mask = ks.length - 1, k;
+    for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+      if ((k = ks[i]) == key) {
+        return i;
+      }
+      if (k == 0) {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of key-value mappings in this map.
+   *
+   * @return the number of key-value mappings in this map
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns <tt>true</tt> if this map contains no key-value mappings.
+   *
+   * @return <tt>true</tt> if this map contains no key-value mappings
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the value to which the specified key is mapped,
+   * or {@code null} if this map contains no mapping for the key.
+   *
+   * <p>A return value of {@code null} does not <i>necessarily</i>
+   * indicate that the map contains no mapping for the key; it's also
+   * possible that the map explicitly maps the key to {@code null}.
+   * The {@link #containsKey containsKey} operation may be used to
+   * distinguish these two cases.
+   *
+   * @param key the key whose associated value is to be returned
+   * @return the value to which the specified key is mapped, or
+   *         {@code null} if this map contains no mapping for the key
+   */
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    if (key == 0) {
+      return zeroValue;
+    }
+    int[] ks = keys;
+    int mask = ks.length - 1, k;
+    for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+      if ((k = ks[i]) == key) {
+        return (V) vals[i];
+      }
+      if (k == 0) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Returns the value to which the specified key is mapped, or
+   * {@code defaultValue} if this map contains no mapping for the key.
+   *
+   * @param key the key whose associated value is to be returned
+   * @param defaultValue the default mapping of the key
+   * @return the value to which the specified key is mapped, or
+   *         {@code defaultValue} if this map contains no mapping for the key
+   */
+  @SuppressWarnings("unchecked")
+  public V getOrDefault(int key, V defaultValue) {
+    if (key == 0) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int i = indexOf(key);
+    return (i < 0) ? defaultValue : (V) vals[i];
+  }
+
+  /**
+   * Returns <tt>true</tt> if this map contains a mapping for the
+   * specified key.
+   *
+   * @param key the key whose presence in this map is to be tested
+   * @return <tt>true</tt> if this map contains a mapping for the specified
+   *         key
+   */
+  public boolean containsKey(int key) {
+    return (key == 0) ? hasZeroKey : indexOf(key) >= 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if this map maps one or more keys to the
+   * specified value.
+   *
+   * @param value value whose presence in this map is to be tested
+   * @return <tt>true</tt> if this map maps one or more keys to the
+   *         specified value
+   */
+  public boolean containsValue(Object value) {
+    if (hasZeroKey && Objects.equals(zeroValue, value)) {
+      return true;
+    }
+    int[] ks = keys;
+    Object[] vs = vals;
+    for (int i = 0; i < ks.length; ++i) {
+      if (ks[i] != 0 && Objects.equals(vs[i], value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Associates the specified value with the specified key in this map.
+   * If the map previously contained a mapping for the key, the old
+   * value is replaced.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return the previous value associated with <tt>key</tt>, or
+   *         <tt>null</tt> if there was no mapping for <tt>key</tt>.
+   */
+  public V put(int key, V value) {
+    return putVal(key, value, false);
+  }
+
+  /**
+   * If the specified key is not already associated with a value (or is
+   * mapped to {@code null}) associates it with the given value and
+   * returns {@code null}, else returns the current value.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return the previous value associated with the specified key, or
+   *         {@code null} if there was no mapping for the key.
+   */
+  public V putIfAbsent(int key, V value) {
+    return putVal(key, value, true);
+  }
+
+  /**
+   * Implements put and putIfAbsent.
+   *
+   * @param onlyIfAbsent if true, don't change an existing non-null value
+   * @return previous value, or null if none
+   */
+  @SuppressWarnings("unchecked")
+  final V putVal(int key, V value, boolean onlyIfAbsent) {
+    if (key == 0) {
+      V old = zeroValue;
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        ++size;
+        ++modCount;
+      }
+      if (!onlyIfAbsent || old == null) {
+        zeroValue = value;
+      }
+      return old;
+    }
+    int[] ks = keys;
+    int mask = ks.length - 1, k, i;
+    for (i = hash(key) & mask; (k = ks[i]) != 0; i = (i + 1) & mask) {
+      if (k == key) {
+        V old = (V) vals[i];
+        if (!onlyIfAbsent || old == null) {
+          vals[i] = value;
+        }
+        return old;
+      }
+    }
+    if (size - (hasZeroKey ? 1 : 0) >= threshold) {
+      resize();
+      ks = keys;
+      mask = ks.length - 1;
+      i = hash(key) & mask;
+      while (ks[i] != 0) {
+        i = (i + 1) & mask;
+      }
+    }
+    ks[i] = key;
+    vals[i] = value;
+    ++size;
+    ++modCount;
+    return null;
+  }
+
+  /**
+   * If the specified key is not already associated with a value (or is
+   * mapped to {@code null}), attempts to compute its value using the
+   * given mapping function and enters it into this map unless
+   * {@code null}.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param mappingFunction the function to compute a value
+   * @return the current (existing or computed) value associated with
+   *         the specified key, or null if the computed value is null
+   * @throws NullPointerException if the mapping function is null
+   * @throws ConcurrentModificationException if it is detected that the
+   *         mapping function modified this map
+   */
+  @SuppressWarnings("unchecked")
+  public V computeIfAbsent(int key,
+                           IntFunction<? extends V> mappingFunction) {
+    if (mappingFunction == null) {
+      throw new NullPointerException();
+    }
+    V v;
+    if (key == 0) {
+      if ((v = zeroValue) == null) {
+        int mc = modCount;
+        v = mappingFunction.apply(key);
+        if (mc != modCount) {
+          throw new ConcurrentModificationException();
+        }
+        if (v != null) {
+          putVal(key, v, false);
+        }
+      }
+      return v;
+    }
+    int i = indexOf(key);
+    if (i >= 0 && (v = (V) vals[i]) != null) {
+      return v;
+    }
+    int mc = modCount;
+    v = mappingFunction.apply(key);
+    if (mc != modCount) {
+      throw new ConcurrentModificationException();
+    }
+    if (v != null) {
+      if (i >= 0) {
+        vals[i] = v;
+      } else {
+        putVal(key, v, false);
+      }
+    }
+    return v;
+  }
+
+  /**
+   * Copies all of the mappings from the specified map to this map.
+   *
+   * @param m mappings to be stored in this map
+   * @throws NullPointerException if the specified map is null
+   */
+  public void putAll(IntHashMap<? extends V> m) {
+    if (m.hasZeroKey) {
+      putVal(0, m.zeroValue, false);
+    }
+    int[] ks = m.keys;
+    Object[] vs = m.vals;
+    for (int i = 0; i < ks.length; ++i) {
+      int k;
+      if ((k = ks[i]) != 0) {
+        @SuppressWarnings("unchecked") V v = (V) vs[i];
+        putVal(k, v, false);
+      }
+    }
+  }
+
+  /**
+   * Removes the mapping for the specified key from this map if present.
+   *
+   * @param key key whose mapping is to be removed from the map
+   * @return the previous value associated with <tt>key</tt>, or
+   *         <tt>null</tt> if there was no mapping for <tt>key</tt>.
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(int key) {
+    if (key == 0) {
+      V old = zeroValue;
+      if (hasZeroKey) {
+        hasZeroKey = false;
+        zeroValue = null;
+        --size;
+        ++modCount;
+      }
+      return old;
+    }
+    int i = indexOf(key);
+    if (i < 0) {
+      return null;
+    }
+    V old = (V) vals[i];
+    shiftKeys(i);
+    --size;
+    ++modCount;
+    return old;
+  }
+
+  /**
+   * Clears the slot at pos and closes the gap by moving later members
+   * of the same probe run backwards.
+   */
+  final void shiftKeys(int pos) {
+    int[] ks = keys;
+    Object[] vs = vals;
+    int mask = ks.length - 1;
+    for (int last, k; ; ) {
+      pos = ((last = pos) + 1) & mask;
+      for (; ; ) {
+        if ((k = ks[pos]) == 0) {
+          ks[last] = 0;
+          vs[last] = null;
+          return;
+        }
+        int slot = hash(k) & mask;
+        if (last <= pos ? (last >= slot || slot > pos) :
+            (last >= slot && slot > pos)) {
+          break;
+        }
+        pos = (pos + 1) & mask;
+      }
+      ks[last] = k;
+      vs[last] = vs[pos];
+    }
+  }
+
+  /**
+   * Doubles the table and reinserts all entries. Called before an
+   * insertion that would exceed the threshold, so the table always
+   * keeps at least one empty slot to terminate probe sequences.
+   */
+  final void resize() {
+    int[] oldKeys = keys;
+    Object[] oldVals = vals;
+    int oldCap = oldKeys.length;
+    if (oldCap >= MAXIMUM_CAPACITY) {
+      throw new IllegalStateException("Maximum capacity exceeded");
+    }
+    allocate(oldCap << 1);
+    int[] ks = keys;
+    Object[] vs = vals;
+    int mask = ks.length - 1;
+    for (int j = 0; j < oldCap; ++j) {
+      int k;
+      if ((k = oldKeys[j]) != 0) {
+        int i = hash(k) & mask;
+        while (ks[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        ks[i] = k;
+        vs[i] = oldVals[j];
+      }
+    }
+  }
+
+  /**
+   * Removes all of the mappings from this map.
+   * The map will be empty after this call returns.
+   */
+  public void clear() {
+    ++modCount;
+    if (size > 0) {
+      size = 0;
+      hasZeroKey = false;
+      zeroValue = null;
+      Arrays.fill(keys, 0);
+      Arrays.fill(vals, null);
+    }
+  }
+
+  /**
+   * Performs the given action for each mapping in this map until all
+   * mappings have been processed or the action throws an exception.
+   * Mappings are visited in table order, which is unspecified.
+   *
+   * @param action the action to be performed for each mapping
+   * @throws NullPointerException if the specified action is null
+   * @throws ConcurrentModificationException if a mapping is found to be
+   *         added or removed during iteration
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(IntObjConsumer<? super V> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    int mc = modCount;
+    if (hasZeroKey) {
+      action.accept(0, zeroValue);
+    }
+    int[] ks = keys;
+    Object[] vs = vals;
+    for (int i = 0; i < ks.length && modCount == mc; ++i) {
+      int k;
+      if ((k = ks[i]) != 0) {
+        action.accept(k, (V) vs[i]);
+      }
+    }
+    if (modCount != mc) {
+      throw new ConcurrentModificationException();
+    }
+  }
+
+  /**
+   * Returns a copy of the keys contained in this map, in table order.
+   *
+   * @return an array containing all keys of this map
+   */
+  public int[] keys() {
+    int[] a = new int[size];
+    int n = 0;
+    if (hasZeroKey) {
+      a[n++] = 0;
+    }
+    for (int k : keys) {
+      if (k != 0) {
+        a[n++] = k;
+      }
+    }
+    return a;
+  }
+
+  /**
+   * Creates a <em><a href="Spliterator.html#binding">late-binding</a></em>
+   * and <em>fail-fast</em> {@link Spliterator.OfInt} over the keys of
+   * this map.  The spliterator reports {@link Spliterator#SIZED},
+   * {@link Spliterator#DISTINCT} and {@link Spliterator#NONNULL}, and
+   * splits by halving ranges of the underlying table.
+   *
+   * @return a {@code Spliterator.OfInt} over the keys of this map
+   */
+  public Spliterator.OfInt keySpliterator() {
+    return new KeySpliterator<>(this, 0, -1, 0, 0);
+  }
+
+  /**
+   * Returns a sequential {@code IntStream} over the keys of this map.
+   *
+   * @return an {@code IntStream} over the keys of this map
+   */
+  public IntStream keyStream() {
+    return StreamSupport.intStream(keySpliterator(), false);
+  }
+
+  /**
+   * Compares the specified object with this map for equality.  Returns
+   * <tt>true</tt> if the given object is also an <tt>IntHashMap</tt> and
+   * the two maps represent the same mappings.
+   *
+   * @param o object to be compared for equality with this map
+   * @return <tt>true</tt> if the specified object is equal to this map
+   */
+  @SuppressWarnings("unchecked")
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof IntHashMap)) {
+      return false;
+    }
+    IntHashMap<?> m = (IntHashMap<?>) o;
+    if (m.size != size || m.hasZeroKey != hasZeroKey ||
+        (hasZeroKey && !Objects.equals(zeroValue, m.zeroValue))) {
+      return false;
+    }
+    int[] ks = keys;
+    Object[] vs = vals;
+    for (int i = 0; i < ks.length; ++i) {
+      int k, j;
+      if ((k = ks[i]) != 0) {
+        if ((j = m.indexOf(k)) < 0 || !Objects.equals(vs[i], m.vals[j])) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the hash code value for this map, defined as in
+   * {@link Map#hashCode()} for the corresponding boxed mappings.
+   *
+   * @return the hash code value for this map
+   */
+  public int hashCode() {
+    int h = hasZeroKey ? Objects.hashCode(zeroValue) : 0;
+    int[] ks = keys;
+    Object[] vs = vals;
+    for (int i = 0; i < ks.length; ++i) {
+      int k;
+      if ((k = ks[i]) != 0) {
+        h += Integer.hashCode(k) ^ Objects.hashCode(vs[i]);
+      }
+    }
+    return h;
+  }
+
+  /**
+   * Returns a string representation of this map in the same form as
+   * {@link AbstractMap#toString()}.
+   *
+   * @return a string representation of this map
+   */
+  public String toString() {
+    if (size == 0) {
+      return "{}";
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append('{');
+    forEach((k, v) -> {
+      if (sb.length() > 1) {
+        sb.append(',').append(' ');
+      }
+      sb.append(k).append('=').append(v == this ? "(this Map)" : v);
+    });
+    return sb.append('}').toString();
+  }
+
+  /**
+   * Returns a shallow copy of this <tt>IntHashMap</tt> instance: the
+   * values themselves are not cloned.
+   *
+   * @return a shallow copy of this map
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public IntHashMap<V> clone() {
+    IntHashMap<V> result;
+    try {
+      result = (IntHashMap<V>) super.clone();
+    } catch (CloneNotSupportedException e) {
+      // this shouldn't happen, since we are Cloneable
+      throw new InternalError(e);
+    }
+    result.keys = keys.clone();
+    result.vals = vals.clone();
+    result.modCount = 0;
+    return result;
+  }
+
+  /**
+   * Save the state of the <tt>IntHashMap</tt> instance to a stream (i.e.,
+   * serialize it).
+   *
+   * @serialData The <i>size</i> of the map (the number of key-value
+   *             mappings) is emitted (int), followed by the key (int)
+   *             and value (Object) for each key-value mapping.
+   */
+  private void writeObject(java.io.ObjectOutputStream s)
+      throws IOException {
+    s.defaultWriteObject();
+    s.writeInt(size);
+    if (hasZeroKey) {
+      s.writeInt(0);
+      s.writeObject(zeroValue);
+    }
+    int[] ks = keys;
+    Object[] vs = vals;
+    for (int i = 0; i < ks.length; ++i) {
+      int k;
+      if ((k = ks[i]) != 0) {
+        s.writeInt(k);
+        s.writeObject(vs[i]);
+      }
+    }
+  }
+
+  /**
+   * Reconstitute the {@code IntHashMap} instance from a stream (i.e.,
+   * deserialize it).
+   */
+  @SuppressWarnings("unchecked")
+  private void readObject(java.io.ObjectInputStream s)
+      throws IOException, ClassNotFoundException {
+    s.defaultReadObject();
+    if (!(loadFactor > 0.0f && loadFactor < 1.0f)) {
+      throw new InvalidObjectException("Illegal load factor: " +
+          loadFactor);
+    }
+    int mappings = s.readInt();
+    if (mappings < 0) {
+      throw new InvalidObjectException("Illegal mappings count: " +
+          mappings);
+    }
+    allocate(capacityFor(mappings, loadFactor));
+    for (int i = 0; i < mappings; i++) {
+      int key = s.readInt();
+      V value = (V) s.readObject();
+      putVal(key, value, false);
+    }
+  }
+
+  /* ------------------------------------------------------------ */
+  // spliterators
+
+  static final class KeySpliterator<V> implements Spliterator.OfInt {
+
+    final IntHashMap<V> map;
+    int index;                  // current index, modified on advance/split
+    int fence;                  // one past last index; keys.length is the zero key
+    int est;                    // size estimate
+    int expectedModCount;       // for comodification checks
+
+    KeySpliterator(IntHashMap<V> m, int origin, int fence, int est,
+                   int expectedModCount) {
+      this.map = m;
+      this.index = origin;
+      this.fence = fence;
+      this.est = est;
+      this.expectedModCount = expectedModCount;
+    }
+
+    final int getFence() { // initialize fence and size on first use
+      int hi;
+      if ((hi = fence) < 0) {
+        IntHashMap<V> m = map;
+        est = m.size;
+        expectedModCount = m.modCount;
+        hi = fence = m.keys.length + 1;
+      }
+      return hi;
+    }
+
+    public KeySpliterator<V> trySplit() {
+      int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+      return (lo >= mid) ? null :
+          new KeySpliterator<>(map, lo, index = mid, est >>>= 1,
+              expectedModCount);
+    }
+
+    public void forEachRemaining(IntConsumer action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      IntHashMap<V> m = map;
+      int hi = getFence(), mc = expectedModCount, i = index;
+      int[] ks = m.keys;
+      int cap = ks.length;
+      if (cap >= hi - 1 && i >= 0 && i < (index = hi)) {
+        for (int k; i < hi; ++i) {
+          if (i == cap) {
+            if (m.hasZeroKey) {
+              action.accept(0);
+            }
+          } else if ((k = ks[i]) != 0) {
+            action.accept(k);
+          }
+        }
+      }
+      if (m.modCount != mc) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    public boolean tryAdvance(IntConsumer action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      IntHashMap<V> m = map;
+      int hi = getFence();
+      int[] ks = m.keys;
+      int cap = ks.length;
+      if (cap >= hi - 1 && index >= 0) {
+        while (index < hi) {
+          int i = index++, k;
+          if (i == cap) {
+            if (!m.hasZeroKey) {
+              continue;
+            }
+            k = 0;
+          } else if ((k = ks[i]) == 0) {
+            continue;
+          }
+          action.accept(k);
+          if (m.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+          }
+          return true;
+        }
+      }
+      return false;
+    }
+
+    public long estimateSize() {
+      getFence(); // force init
+      return (long) est;
+    }
+
+    public int characteristics() {
+      return (fence < 0 || est == map.size ? Spliterator.SIZED : 0) |
+          Spliterator.DISTINCT | Spliterator.NONNULL;
+    }
+  }
+}
@@ -0,0 +1,838 @@
+/*
+ * Copyright (c) 1997, 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.Serializable;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntIntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Hash table based map from primitive {@code int} keys to primitive
+ * {@code int} values.  This is the {@code (int, int)} specialization of
+ * {@link IntHashMap}: keys and values are held in two flat parallel
+ * {@code int} arrays using open addressing with linear probing, so a
+ * mapping costs eight bytes of table space (divided by the load factor)
+ * and no object at all.
+ *
+ * <p>Since values are primitive, there is no {@code null} to signal the
+ * absence of a mapping.  Methods that return a value for a key that is
+ * not present return {@code 0}; use {@link #containsKey containsKey} or
+ * {@link #getOrDefault getOrDefault} to distinguish these cases.  The
+ * {@link #merge merge} method is convenient for maintaining counters.
+ *
+ * <p>Keys and values may be traversed without boxing using
+ * {@link #forEach forEach}, or as {@code IntStream}s using
+ * {@link #keyStream} and {@link #valueStream}.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * If multiple threads access the map concurrently, and at least one of
+ * the threads modifies the map structurally, it <i>must</i> be
+ * synchronized externally.
+ *
+ * @see IntHashMap
+ * @see LongLongHashMap
+ * @since 1.8
+ */
+public class IntIntHashMap implements Cloneable, Serializable {
+
+  private static final long serialVersionUID = 4817263598162240791L;
+
+  /*
+   * See IntHashMap for implementation notes; the table layout,
+   * hashing, resizing and removal strategies are identical.
+   */
+
+  /**
+   * The key table. Length MUST always be a power of two.
+   */
+  transient int[] keys;
+
+  /**
+   * The value table, parallel to keys.
+   */
+  transient int[] vals;
+
+  /**
+   * Whether the map contains a mapping for key zero.
+   */
+  transient boolean hasZeroKey;
+
+  /**
+   * The value mapped to key zero, if hasZeroKey.
+   */
+  transient int zeroValue;
+
+  /**
+   * The number of key-value mappings contained in this map.
+   */
+  transient int size;
+
+  /**
+   * The number of times this map has been structurally modified.
+   */
+  transient int modCount;
+
+  /**
+   * The maximum number of occupied table slots (excluding the zero
+   * key) before the table is resized.
+   */
+  transient int threshold;
+
+  /**
+   * The load factor for the hash table.
+   *
+   * @serial
+   */
+  final float loadFactor;
+
+  /**
+   * Constructs an empty <tt>IntIntHashMap</tt> with the specified initial
+   * capacity and load factor.
+   *
+   * @param initialCapacity the initial capacity
+   * @param loadFactor the load factor, strictly between 0 and 1
+   * @throws IllegalArgumentException if the initial capacity is negative
+   *         or the load factor is not strictly between 0 and 1
+   */
+  public IntIntHashMap(int initialCapacity, float loadFactor) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Illegal initial capacity: " +
+          initialCapacity);
+    }
+    if (!(loadFactor > 0.0f && loadFactor < 1.0f)) {
+      throw new IllegalArgumentException("Illegal load factor: " +
+          loadFactor);
+    }
+    this.loadFactor = loadFactor;
+    allocate(IntHashMap.capacityFor(initialCapacity, loadFactor));
+  }
+
+  /**
+   * Constructs an empty <tt>IntIntHashMap</tt> able to hold the specified
+   * number of mappings without resizing, using the default load factor
+   * (0.75).
+   *
+   * @param initialCapacity the initial capacity
+   * @throws IllegalArgumentException if the initial capacity is negative
+   */
+  public IntIntHashMap(int initialCapacity) {
+    this(initialCapacity, IntHashMap.DEFAULT_LOAD_FACTOR);
+  }
+
+  /**
+   * Constructs an empty <tt>IntIntHashMap</tt> with the default initial
+   * capacity (16) and the default load factor (0.75).
+   */
+  public IntIntHashMap() {
+    this.loadFactor = IntHashMap.DEFAULT_LOAD_FACTOR;
+    allocate(IntHashMap.DEFAULT_INITIAL_CAPACITY);
+  }
+
+  /**
+   * Constructs a new <tt>IntIntHashMap</tt> with the same mappings as the
+   * specified <tt>IntIntHashMap</tt>.
+   *
+   * @param m the map whose mappings are to be placed in this map
+   * @throws NullPointerException if the specified map is null
+   */
+  public IntIntHashMap(IntIntHashMap m) {
+    this.loadFactor = m.loadFactor;
+    allocate(IntHashMap.capacityFor(m.size, loadFactor));
+    putAll(m);
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    vals = new int[capacity];
+    threshold = Math.min((int) (capacity * loadFactor), capacity - 1);
+  }
+
+  /**
+   * Returns the table index holding the given non-zero key, or -1.
+   */
+  final int indexOf(int key) {
+    int[] ks = keys;
+    int mask = ks.length - 1, k;
+    for (int i = IntHashMap.hash(key) & mask; ; i = (i + 1) & mask) {
+      if ((k = ks[i]) == key) {
+        return i;
+      }
+      if (k == 0) {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of key-value mappings in this map.
+   *
+   * @return the number of key-value mappings in this map
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns <tt>true</tt> if this map contains no key-value mappings.
+   *
+   * @return <tt>true</tt> if this map contains no key-value mappings
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the value to which the specified key is mapped, or
+   * {@code 0} if this map contains no mapping for the key.
+   *
+   * @param key the key whose associated value is to be returned
+   * @return the value to which the specified key is mapped, or
+   *         {@code 0} if this map contains no mapping for the key
+   */
+  public int get(int key) {
+    if (key == 0) {
+      return zeroValue;
+    }
+    int[] ks = keys;
+    int mask = ks.length - 1, k;
+    for (int i = IntHashMap.hash(key) & mask; ; i = (i + 1) & mask) {
+      if ((k = ks[i]) == key) {
+        return vals[i];
+      }
+      if (k == 0) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Returns the value to which the specified key is mapped, or
+   * {@code defaultValue} if this map contains no mapping for the key.
+   *
+   * @param key the key whose associated value is to be returned
+   * @param defaultValue the default mapping of the key
+   * @return the value to which the specified key is mapped, or
+   *         {@code defaultValue} if this map contains no mapping for the key
+   */
+  public int getOrDefault(int key, int defaultValue) {
+    if (key == 0) {
+      return hasZeroKey ? zeroValue : defaultValue;
+    }
+    int i = indexOf(key);
+    return (i < 0) ? defaultValue : vals[i];
+  }
+
+  /**
+   * Returns <tt>true</tt> if this map contains a mapping for the
+   * specified key.
+   *
+   * @param key the key whose presence in this map is to be tested
+   * @return <tt>true</tt> if this map contains a mapping for the specified
+   *         key
+   */
+  public boolean containsKey(int key) {
+    return (key == 0) ? hasZeroKey : indexOf(key) >= 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if this map maps one or more keys to the
+   * specified value.
+   *
+   * @param value value whose presence in this map is to be tested
+   * @return <tt>true</tt> if this map maps one or more keys to the
+   *         specified value
+   */
+  public boolean containsValue(int value) {
+    if (hasZeroKey && zeroValue == value) {
+      return true;
+    }
+    int[] ks = keys, vs = vals;
+    for (int i = 0; i < ks.length; ++i) {
+      if (ks[i] != 0 && vs[i] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Associates the specified value with the specified key in this map.
+   * If the map previously contained a mapping for the key, the old
+   * value is replaced.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return the previous value associated with <tt>key</tt>, or
+   *         <tt>0</tt> if there was no mapping for <tt>key</tt>.
+   */
+  public int put(int key, int value) {
+    if (key == 0) {
+      int old = zeroValue;
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        ++size;
+        ++modCount;
+      }
+      zeroValue = value;
+      return old;
+    }
+    int i = insertionIndex(key);
+    if (i >= 0) {
+      int old = vals[i];
+      vals[i] = value;
+      return old;
+    }
+    vals[~i] = value;
+    return 0;
+  }
+
+  /**
+   * If the specified key is not already associated with a value,
+   * associates it with the given value.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return <tt>true</tt> if a new mapping was added
+   */
+  public boolean putIfAbsent(int key, int value) {
+    if (key == 0) {
+      if (hasZeroKey) {
+        return false;
+      }
+      put(key, value);
+      return true;
+    }
+    int i = insertionIndex(key);
+    if (i >= 0) {
+      return false;
+    }
+    vals[~i] = value;
+    return true;
+  }
+
+  /**
+   * If the specified key is not already associated with a value,
+   * associates it with the given value.  Otherwise, replaces the
+   * associated value with the results of the given remapping function.
+   * For example, {@code map.merge(key, 1, Integer::sum)} maintains a
+   * count per key.
+   *
+   * @param key key with which the resulting value is to be associated
+   * @param value the value to be used if the key is absent, or combined
+   *        with the existing value otherwise
+   * @param remappingFunction the function to recompute a value if present
+   * @return the new value associated with the specified key
+   * @throws NullPointerException if the remapping function is null
+   */
+  public int merge(int key, int value, IntBinaryOperator remappingFunction) {
+    if (remappingFunction == null) {
+      throw new NullPointerException();
+    }
+    int v;
+    if (key == 0) {
+      v = hasZeroKey ? remappingFunction.applyAsInt(zeroValue, value) : value;
+      put(key, v);
+      return v;
+    }
+    int i = insertionIndex(key);
+    if (i >= 0) {
+      v = vals[i] = remappingFunction.applyAsInt(vals[i], value);
+    } else {
+      v = vals[~i] = value;
+    }
+    return v;
+  }
+
+  /**
+   * Locates the given non-zero key, inserting it if absent.  Returns
+   * the index of an existing mapping, or the one's complement of the
+   * index of the newly inserted key, whose value slot is still zero.
+   */
+  final int insertionIndex(int key) {
+    int[] ks = keys;
+    int mask = ks.length - 1, k, i;
+    for (i = IntHashMap.hash(key) & mask; (k = ks[i]) != 0;
+         i = (i + 1) & mask) {
+      if (k == key) {
+        return i;
+      }
+    }
+    if (size - (hasZeroKey ? 1 : 0) >= threshold) {
+      resize();
+      ks = keys;
+      mask = ks.length - 1;
+      i = IntHashMap.hash(key) & mask;
+      while (ks[i] != 0) {
+        i = (i + 1) & mask;
+      }
+    }
+    ks[i] = key;
+    ++size;
+    ++modCount;
+    return ~i;
+  }
+
+  /**
+   * Copies all of the mappings from the specified map to this map.
+   *
+   * @param m mappings to be stored in this map
+   * @throws NullPointerException if the specified map is null
+   */
+  public void putAll(IntIntHashMap m) {
+    if (m.hasZeroKey) {
+      put(0, m.zeroValue);
+    }
+    int[] ks = m.keys, vs = m.vals;
+    for (int i = 0; i < ks.length; ++i) {
+      int k;
+      if ((k = ks[i]) != 0) {
+        put(k, vs[i]);
+      }
+    }
+  }
+
+  /**
+   * Removes the mapping for the specified key from this map if present.
+   *
+   * @param key key whose mapping is to be removed from the map
+   * @return the previous value associated with <tt>key</tt>, or
+   *         <tt>0</tt> if there was no mapping for <tt>key</tt>.
+   */
+  public int remove(int key) {
+    if (key == 0) {
+      int old = zeroValue;
+      if (hasZeroKey) {
+        hasZeroKey = false;
+        zeroValue = 0;
+        --size;
+        ++modCount;
+      }
+      return old;
+    }
+    int i = indexOf(key);
+    if (i < 0) {
+      return 0;
+    }
+    int old = vals[i];
+    shiftKeys(i);
+    --size;
+    ++modCount;
+    return old;
+  }
+
+  /**
+   * Clears the slot at pos and closes the gap by moving later members
+   * of the same probe run backwards.
+   */
+  final void shiftKeys(int pos) {
+    int[] ks = keys, vs = vals;
+    int mask = ks.length - 1;
+    for (int last, k; ; ) {
+      pos = ((last = pos) + 1) & mask;
+      for (; ; ) {
+        if ((k = ks[pos]) == 0) {
+          ks[last] = 0;
+          vs[last] = 0;
+          return;
+        }
+        int slot = IntHashMap.hash(k) & mask;
+        if (last <= pos ? (last >= slot || slot > pos) :
+            (last >= slot && slot > pos)) {
+          break;
+        }
+        pos = (pos + 1) & mask;
+      }
+      ks[last] = k;
+      vs[last] = vs[pos];
+    }
+  }
+
+  /**
+   * Doubles the table and reinserts all entries. Called before an
+   * insertion that would exceed the threshold, so the table always
+   * keeps at least one empty slot to terminate probe sequences.
+   */
+  final void resize() {
+    int[] oldKeys = keys, oldVals = vals;
+    int oldCap = oldKeys.length;
+    if (oldCap >= IntHashMap.MAXIMUM_CAPACITY) {
+      throw new IllegalStateException("Maximum capacity exceeded");
+    }
+    allocate(oldCap << 1);
+    int[] ks = keys, vs = vals;
+    int mask = ks.length - 1;
+    for (int j = 0; j < oldCap; ++j) {
+      int k;
+      if ((k = oldKeys[j]) != 0) {
+        int i = IntHashMap.hash(k) & mask;
+        while (ks[i] != 0) {
+          i = (i + 1) & mask;
+        }
+        ks[i] = k;
+        vs[i] = oldVals[j];
+      }
+    }
+  }
+
+  /**
+   * Removes all of the mappings from this map.
+   * The map will be empty after this call returns.
+   */
+  public void clear() {
+    ++modCount;
+    if (size > 0) {
+      size = 0;
+      hasZeroKey = false;
+      zeroValue = 0;
+      Arrays.fill(keys, 0);
+      Arrays.fill(vals, 0);
+    }
+  }
+
+  /**
+   * Performs the given action for each mapping in this map until all
+   * mappings have been processed or the action throws an exception.
+   * Mappings are visited in table order, which is unspecified.
+   *
+   * @param action the action to be performed for each mapping
+   * @throws NullPointerException if the specified action is null
+   * @throws ConcurrentModificationException if a mapping is found to be
+   *         added or removed during iteration
+   */
+  public void forEach(IntIntConsumer action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    int mc = modCount;
+    if (hasZeroKey) {
+      action.accept(0, zeroValue);
+    }
+    int[] ks = keys, vs = vals;
+    for (int i = 0; i < ks.length && modCount == mc; ++i) {
+      int k;
+      if ((k = ks[i]) != 0) {
+        action.accept(k, vs[i]);
+      }
+    }
+    if (modCount != mc) {
+      throw new ConcurrentModificationException();
+    }
+  }
+
+  /**
+   * Creates a <em><a href="Spliterator.html#binding">late-binding</a></em>
+   * and <em>fail-fast</em> {@link Spliterator.OfInt} over the keys of
+   * this map.  The spliterator reports {@link Spliterator#SIZED},
+   * {@link Spliterator#DISTINCT} and {@link Spliterator#NONNULL}.
+   *
+   * @return a {@code Spliterator.OfInt} over the keys of this map
+   */
+  public Spliterator.OfInt keySpliterator() {
+    return new TableSpliterator(this, 0, -1, 0, 0, true);
+  }
+
+  /**
+   * Creates a <em><a href="Spliterator.html#binding">late-binding</a></em>
+   * and <em>fail-fast</em> {@link Spliterator.OfInt} over the values of
+   * this map, in the same order as the keys reported by
+   * {@link #keySpliterator}.  The spliterator reports
+   * {@link Spliterator#SIZED} and {@link Spliterator#NONNULL}.
+   *
+   * @return a {@code Spliterator.OfInt} over the values of this map
+   */
+  public Spliterator.OfInt valueSpliterator() {
+    return new TableSpliterator(this, 0, -1, 0, 0, false);
+  }
+
+  /**
+   * Returns a sequential {@code IntStream} over the keys of this map.
+   *
+   * @return an {@code IntStream} over the keys of this map
+   */
+  public IntStream keyStream() {
+    return StreamSupport.intStream(keySpliterator(), false);
+  }
+
+  /**
+   * Returns a sequential {@code IntStream} over the values of this map.
+   *
+   * @return an {@code IntStream} over the values of this map
+   */
+  public IntStream valueStream() {
+    return StreamSupport.intStream(valueSpliterator(), false);
+  }
+
+  /**
+   * Compares the specified object with this map for equality.  Returns
+   * <tt>true</tt> if the given object is also an <tt>IntIntHashMap</tt>
+   * and the two maps represent the same mappings.
+   *
+   * @param o object to be compared for equality with this map
+   * @return <tt>true</tt> if the specified object is equal to this map
+   */
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof IntIntHashMap)) {
+      return false;
+    }
+    IntIntHashMap m = (IntIntHashMap) o;
+    if (m.size != size || m.hasZeroKey != hasZeroKey ||
+        (hasZeroKey && zeroValue != m.zeroValue)) {
+      return false;
+    }
+    int[] ks = keys, vs = vals;
+    for (int i = 0; i < ks.length; ++i) {
+      int k, j;
+      if ((k = ks[i]) != 0) {
+        if ((j = m.indexOf(k)) < 0 || vs[i] != m.vals[j]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the hash code value for this map, defined as in
+   * {@link Map#hashCode()} for the corresponding boxed mappings.
+   *
+   * @return the hash code value for this map
+   */
+  public int hashCode() {
+    int h = hasZeroKey ? Integer.hashCode(zeroValue) : 0;
+    int[] ks = keys, vs = vals;
+    for (int i = 0; i < ks.length; ++i) {
+      int k;
+      if ((k = ks[i]) != 0) {
+        h += Integer.hashCode(k) ^ Integer.hashCode(vs[i]);
+      }
+    }
+    return h;
+  }
+
+  /**
+   * Returns a string representation of this map in the same form as
+   * {@link AbstractMap#toString()}.
+   *
+   * @return a string representation of this map
+   */
+  public String toString() {
+    if (size == 0) {
+      return "{}";
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append('{');
+    forEach((k, v) -> {
+      if (sb.length() > 1) {
+        sb.append(',').append(' ');
+      }
+      sb.append(k).append('=').append(v);
+    });
+    return sb.append('}').toString();
+  }
+
+  /**
+   * Returns a copy of this <tt>IntIntHashMap</tt> instance.
+   *
+   * @return a copy of this map
+   */
+  @Override
+  public IntIntHashMap clone() {
+    IntIntHashMap result;
+    try {
+      result = (IntIntHashMap) super.clone();
+    } catch (CloneNotSupportedException e) {
+      // this shouldn't happen, since we are Cloneable
+      throw new InternalError(e);
+    }
+    result.keys = keys.clone();
+    result.vals = vals.clone();
+    result.modCount = 0;
+    return result;
+  }
+
+  /**
+   * Save the state of the <tt>IntIntHashMap</tt> instance to a stream
+   * (i.e., serialize it).
+   *
+   * @serialData The <i>size</i> of the map (the number of key-value
+   *             mappings) is emitted (int), followed by the key (int)
+   *             and value (int) for each key-value mapping.
+   */
+  private void writeObject(java.io.ObjectOutputStream s)
+      throws IOException {
+    s.defaultWriteObject();
+    s.writeInt(size);
+    if (hasZeroKey) {
+      s.writeInt(0);
+      s.writeInt(zeroValue);
+    }
+    int[] ks = keys, vs = vals;
+    for (int i = 0; i < ks.length; ++i) {
+      int k;
+      if ((k = ks[i]) != 0) {
+        s.writeInt(k);
+        s.writeInt(vs[i]);
+      }
+    }
+  }
+
+  /**
+   * Reconstitute the {@code IntIntHashMap} instance from a stream (i.e.,
+   * deserialize it).
+   */
+  private void readObject(java.io.ObjectInputStream s)
+      throws IOException, ClassNotFoundException {
+    s.defaultReadObject();
+    if (!(loadFactor > 0.0f && loadFactor < 1.0f)) {
+      throw new InvalidObjectException("Illegal load factor: " +
+          loadFactor);
+    }
+    int mappings = s.readInt();
+    if (mappings < 0) {
+      throw new InvalidObjectException("Illegal mappings count: " +
+          mappings);
+    }
+    allocate(IntHashMap.capacityFor(mappings, loadFactor));
+    for (int i = 0; i < mappings; i++) {
+      int key = s.readInt();
+      put(key, s.readInt());
+    }
+  }
+
+  /* ------------------------------------------------------------ */
+  // spliterators
+
+  static final class TableSpliterator implements Spliterator.OfInt {
+
+    final IntIntHashMap map;
+    final boolean keys;         // true for keys, false for values
+    int index;                  // current index, modified on advance/split
+    int fence;                  // one past last index; keys.length is the zero key
+    int est;                    // size estimate
+    int expectedModCount;       // for comodification checks
+
+    TableSpliterator(IntIntHashMap m, int origin, int fence, int est,
+                     int expectedModCount, boolean keys) {
+      this.map = m;
+      this.index = origin;
+      this.fence = fence;
+      this.est = est;
+      this.expectedModCount = expectedModCount;
+      this.keys = keys;
+    }
+
+    final int getFence() { // initialize fence and size on first use
+      int hi;
+      if ((hi = fence) < 0) {
+        IntIntHashMap m = map;
+        est = m.size;
+        expectedModCount = m.modCount;
+        hi = fence = m.keys.length + 1;
+      }
+      return hi;
+    }
+
+    public TableSpliterator trySplit() {
+      int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+      return (lo >= mid) ? null :
+          new TableSpliterator(map, lo, index = mid, est >>>= 1,
+              expectedModCount, keys);
+    }
+
+    public void forEachRemaining(IntConsumer action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      IntIntHashMap m = map;
+      int hi = getFence(), mc = expectedModCount, i = index;
+      int[] ks = m.keys, vs = keys ? ks : m.vals;
+      int cap = ks.length;
+      if (cap >= hi - 1 && i >= 0 && i < (index = hi)) {
+        for (; i < hi; ++i) {
+          if (i == cap) {
+            if (m.hasZeroKey) {
+              action.accept(keys ? 0 : m.zeroValue);
+            }
+          } else if (ks[i] != 0) {
+            action.accept(vs[i]);
+          }
+        }
+      }
+      if (m.modCount != mc) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    public boolean tryAdvance(IntConsumer action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      IntIntHashMap m = map;
+      int hi = getFence();
+      int[] ks = m.keys, vs = keys ? ks : m.vals;
+      int cap = ks.length;
+      if (cap >= hi - 1 && index >= 0) {
+        while (index < hi) {
+          int i = index++, x;
+          if (i == cap) {
+            if (!m.hasZeroKey) {
+              continue;
+            }
+            x = keys ? 0 : m.zeroValue;
+          } else if (ks[i] == 0) {
+            continue;
+          } else {
+            x = vs[i];
+          }
+          action.accept(x);
+          if (m.modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+          }
+          return true;
+        }
+      }
+      return false;
+    }
+
+    public long estimateSize() {
+      getFence(); // force init
+      return (long) est;
+    }
+
+    public int characteristics() {
+      return (fence < 0 || est == map.size ? Spliterator.SIZED : 0) |
+          (keys ? Spliterator.DISTINCT : 0) | Spliterator.NONNULL;
+    }
+  }
+}
@@ -0,0 +1,990 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A generator of uniform pseudorandom values whose state can be advanced
+ * by a large fixed distance in a single step.  Such a <em>jump</em>
+ * divides the period of the generator into non-overlapping subsequences,
+ * so that generators obtained from a common one by successive jumps may be
+ * used by different threads or tasks without their values overlapping.
+ *
+ * <p>Class {@code JumpableRandom} supports methods for producing
+ * pseudorandom numbers of type {@code int}, {@code long}, and {@code
+ * double} with similar usages as for class {@link SplittableRandom}, but
+ * derives new generators from existing ones differently:
+ *
+ * <ul>
+ *
+ * <li>Method {@link #jump} advances this generator by the
+ * {@linkplain #jumpDistanceLog2 jump distance}, and method {@link #leap}
+ * by a much larger distance that is itself a multiple of the jump
+ * distance.  Method {@link #copyAndJump} returns a copy of this generator
+ * and then jumps this one, so that the copy may generate up to the jump
+ * distance of values without reaching any value this generator will
+ * subsequently generate.</li>
+ *
+ * <li>The streams returned by methods {@link #ints()}, {@link #longs()}
+ * and {@link #doubles()} and their variants draw from a copy of this
+ * generator, after which this generator leaps.  When such a stream is
+ * split for {@code stream.parallel()} evaluation, each part takes a
+ * generator a distinct whole number of jump distances from the stream's
+ * generator, where {@code SplittableRandom} would split its generator,
+ * so that the values used by the parts of a computation are guaranteed
+ * not to overlap rather than being merely unlikely to.</li>
+ *
+ * <li>Instances of {@code JumpableRandom} are <em>not</em>
+ * thread-safe. As with {@code SplittableRandom}, they are designed to be
+ * divided, not shared, across threads, for example with a construction of
+ * the form {@code new Subtask(aJumpableRandom.copyAndJump()).fork()}.</li>
+ *
+ * </ul>
+ *
+ * <p>Instances of {@code JumpableRandom} are not cryptographically
+ * secure.  Consider instead using {@link java.security.SecureRandom}
+ * in security-sensitive applications.
+ *
+ * @see Xoshiro256StarStarRandom
+ * @see L64X128MixRandom
+ * @since 1.8
+ */
+public abstract class JumpableRandom {
+
+    /*
+     * Subclasses provide the state transition (nextLong), the jumps and
+     * a copy operation; everything else is derived from nextLong here.
+     * The derived methods and the stream spliterators follow those of
+     * SplittableRandom, except for how spliterators split.  A
+     * spliterator at split depth d owns the generators whose offsets
+     * from the stream's generator, counted in jump distances, are
+     * congruent to its own offset modulo 2^d.  Splitting hands the
+     * prefix a copy at the current offset and advances this one by 2^d
+     * jumps, so both halves own disjoint residues modulo 2^(d+1) and no
+     * two parts of a stream ever share an offset.  Depth is bounded by
+     * the number of jumps per leap, so offsets stay below the leap that
+     * follows the stream's creation.
+     */
+
+  /**
+   * The least non-zero value returned by nextDouble(). This value
+   * is scaled by a random value of 53 bits to produce a result.
+   */
+  private static final double DOUBLE_UNIT = 0x1.0p-53; // 1.0 / (1L << 53);
+
+  /**
+   * The seed generator for default constructors of subclasses.
+   */
+  private static final AtomicLong defaultGen = new AtomicLong(
+      mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  // IllegalArgumentException messages
+  static final String BadBound = "bound must be positive";
+  static final String BadRange = "bound must be greater than origin";
+  static final String BadSize = "size must be non-negative";
+
+  /**
+   * Constructor for use by subclasses.
+   */
+  protected JumpableRandom() {
+  }
+
+  /**
+   * Computes Stafford variant 13 of 64bit mix function.
+   */
+  static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Returns a seed for a default-constructed generator that is likely to
+   * differ from those of all other such generators in the program.
+   */
+  static long defaultSeed() {
+    return mix64(defaultGen.getAndAdd(GOLDEN_GAMMA));
+  }
+
+  /**
+   * Expands a 64-bit seed into the given number of state words, using
+   * the SplitMix64 sequence that starts from it.  The words are never all
+   * zero.
+   */
+  static long[] expandSeed(long seed, int words) {
+    long[] s = new long[words];
+    long bits = 0;
+    for (int i = 0; i < words; i++) {
+      bits |= s[i] = mix64(seed += GOLDEN_GAMMA);
+    }
+    if (bits == 0) {
+      s[0] = GOLDEN_GAMMA;
+    }
+    return s;
+  }
+
+  // Methods provided by the algorithms
+
+  /**
+   * Returns a pseudorandom {@code long} value.  All other values are
+   * derived from the values of this method.
+   *
+   * @return a pseudorandom {@code long} value
+   */
+  public abstract long nextLong();
+
+  /**
+   * Returns a new generator with the same state as this one, which will
+   * generate the same sequence of values.
+   *
+   * @return a copy of this generator
+   */
+  public abstract JumpableRandom copy();
+
+  /**
+   * Advances the state of this generator by the jump distance, as if by
+   * 2<sup>{@link #jumpDistanceLog2}</sup> calls to {@link #nextLong}, but
+   * at the cost of only a few hundred of them.
+   */
+  public abstract void jump();
+
+  /**
+   * Advances the state of this generator by the leap distance, as if by
+   * 2<sup>{@link #leapDistanceLog2}</sup> calls to {@link #nextLong}.
+   * The leap distance is a multiple of the jump distance, so that the
+   * generators obtained by jumping between two leaps do not overlap those
+   * obtained after the second leap.
+   */
+  public abstract void leap();
+
+  /**
+   * Returns the base 2 logarithm of the distance advanced by {@link #jump}.
+   *
+   * @return the base 2 logarithm of the jump distance
+   */
+  public abstract int jumpDistanceLog2();
+
+  /**
+   * Returns the base 2 logarithm of the distance advanced by {@link #leap}.
+   *
+   * @return the base 2 logarithm of the leap distance
+   */
+  public abstract int leapDistanceLog2();
+
+  /**
+   * Returns a copy of this generator, then {@linkplain #jump jumps} this
+   * generator.  The copy generates the values that this generator would
+   * have generated next, up to the jump distance of them.
+   *
+   * @return a copy of this generator before the jump
+   */
+  public JumpableRandom copyAndJump() {
+    JumpableRandom r = copy();
+    jump();
+    return r;
+  }
+
+  /**
+   * Returns a copy of this generator, then {@linkplain #leap leaps} this
+   * generator.
+   *
+   * @return a copy of this generator before the leap
+   */
+  public JumpableRandom copyAndLeap() {
+    JumpableRandom r = copy();
+    leap();
+    return r;
+  }
+
+  /**
+   * Advances the state of this generator by 2<sup>n</sup> jump distances,
+   * for n less than the difference of the leap and jump distance
+   * logarithms.  Used when stream spliterators split.  This
+   * implementation jumps 2<sup>n</sup> times; the generators of this
+   * package override it to take a single jump by a precomputed
+   * polynomial.
+   */
+  void jumpPowerOfTwo(int n) {
+    for (long k = 1L << n; k != 0L; --k) {
+      jump();
+    }
+  }
+
+  /**
+   * Returns the jump polynomials for 2<sup>k</sup> jump distances, for k
+   * from 0 to count - 1, of a linear generator whose characteristic
+   * polynomial is x<sup>n</sup> plus the polynomial charPoly, where n is
+   * the number of bits of jumpPoly.  Bit b of word w of each polynomial
+   * is its coefficient of x<sup>64w+b</sup>, as in the published jump
+   * polynomials; each one is the square of the one before, modulo the
+   * characteristic polynomial.
+   */
+  static long[][] powerOfTwoJumps(long[] jumpPoly, long[] charPoly, int count) {
+    long[][] jumps = new long[count][];
+    long[] p = jumpPoly;
+    for (int k = 0; k < count; k++) {
+      jumps[k] = p;
+      p = squareMod(p, charPoly);
+    }
+    return jumps;
+  }
+
+  private static long[] squareMod(long[] p, long[] charPoly) {
+    int w = p.length, n = w << 6;
+    long[] r = new long[w << 1];
+    for (int i = 0; i < n; i++) {  // squaring over GF(2) spreads the bits
+      if ((p[i >>> 6] & (1L << i)) != 0L) {
+        r[i >>> 5] |= 1L << (i << 1);
+      }
+    }
+    for (int i = (n << 1) - 1; i >= n; i--) {  // x^i = x^(i-n) * charPoly
+      if ((r[i >>> 6] & (1L << i)) != 0L) {
+        r[i >>> 6] ^= 1L << i;
+        int s = i - n, ws = s >>> 6, bs = s & 63;
+        for (int j = 0; j < w; j++) {
+          r[j + ws] ^= charPoly[j] << bs;
+          if (bs != 0) {
+            r[j + ws + 1] ^= charPoly[j] >>> (64 - bs);
+          }
+        }
+      }
+    }
+    return Arrays.copyOf(r, w);
+  }
+
+  /**
+   * The form of nextLong used by LongStream Spliterators.  If
+   * origin is greater than bound, acts as unbounded form of
+   * nextLong, else as bounded form.
+   *
+   * @param origin the least value, unless greater than bound
+   * @param bound the upper bound (exclusive), must not equal origin
+   * @return a pseudorandom value
+   */
+  final long internalNextLong(long origin, long bound) {
+    long r = nextLong();
+    if (origin < bound) {
+      long n = bound - origin, m = n - 1;
+      if ((n & m) == 0L)  // power of two
+      {
+        r = (r & m) + origin;
+      } else if (n > 0L) {  // reject over-represented candidates
+        for (long u = r >>> 1;            // ensure nonnegative
+            u + m - (r = u % n) < 0L;    // rejection check
+            u = nextLong() >>> 1) // retry
+        {
+          ;
+        }
+        r += origin;
+      } else {              // range not representable as long
+        while (r < origin || r >= bound) {
+          r = nextLong();
+        }
+      }
+    }
+    return r;
+  }
+
+  /**
+   * The form of nextInt used by IntStream Spliterators.
+   * Exactly the same as long version, except for types.
+   *
+   * @param origin the least value, unless greater than bound
+   * @param bound the upper bound (exclusive), must not equal origin
+   * @return a pseudorandom value
+   */
+  final int internalNextInt(int origin, int bound) {
+    int r = (int) (nextLong() >>> 32);
+    if (origin < bound) {
+      int n = bound - origin, m = n - 1;
+      if ((n & m) == 0) {
+        r = (r & m) + origin;
+      } else if (n > 0) {
+        for (int u = r >>> 1;
+            u + m - (r = u % n) < 0;
+            u = (int) (nextLong() >>> 33)) {
+          ;
+        }
+        r += origin;
+      } else {
+        while (r < origin || r >= bound) {
+          r = (int) (nextLong() >>> 32);
+        }
+      }
+    }
+    return r;
+  }
+
+  /**
+   * The form of nextDouble used by DoubleStream Spliterators.
+   *
+   * @param origin the least value, unless greater than bound
+   * @param bound the upper bound (exclusive), must not equal origin
+   * @return a pseudorandom value
+   */
+  final double internalNextDouble(double origin, double bound) {
+    double r = (nextLong() >>> 11) * DOUBLE_UNIT;
+    if (origin < bound) {
+      r = r * (bound - origin) + origin;
+      if (r >= bound) // correct for rounding
+      {
+        r = Double.longBitsToDouble(Double.doubleToLongBits(bound) - 1);
+      }
+    }
+    return r;
+  }
+
+  /**
+   * Returns a pseudorandom {@code int} value, the 32 high bits of
+   * {@link #nextLong}.
+   *
+   * @return a pseudorandom {@code int} value
+   */
+  public int nextInt() {
+    return (int) (nextLong() >>> 32);
+  }
+
+  /**
+   * Returns a pseudorandom {@code int} value between zero (inclusive)
+   * and the specified bound (exclusive).
+   *
+   * @param bound the upper bound (exclusive).  Must be positive.
+   * @return a pseudorandom {@code int} value between zero (inclusive) and the bound (exclusive)
+   * @throws IllegalArgumentException if {@code bound} is not positive
+   */
+  public int nextInt(int bound) {
+    if (bound <= 0) {
+      throw new IllegalArgumentException(BadBound);
+    }
+    return internalNextInt(0, bound);
+  }
+
+  /**
+   * Returns a pseudorandom {@code int} value between the specified
+   * origin (inclusive) and the specified bound (exclusive).
+   *
+   * @param origin the least value returned
+   * @param bound the upper bound (exclusive)
+   * @return a pseudorandom {@code int} value between the origin (inclusive) and the bound
+   * (exclusive)
+   * @throws IllegalArgumentException if {@code origin} is greater than or equal to {@code bound}
+   */
+  public int nextInt(int origin, int bound) {
+    if (origin >= bound) {
+      throw new IllegalArgumentException(BadRange);
+    }
+    return internalNextInt(origin, bound);
+  }
+
+  /**
+   * Returns a pseudorandom {@code long} value between zero (inclusive)
+   * and the specified bound (exclusive).
+   *
+   * @param bound the upper bound (exclusive).  Must be positive.
+   * @return a pseudorandom {@code long} value between zero (inclusive) and the bound (exclusive)
+   * @throws IllegalArgumentException if {@code bound} is not positive
+   */
+  public long nextLong(long bound) {
+    if (bound <= 0) {
+      throw new IllegalArgumentException(BadBound);
+    }
+    return internalNextLong(0L, bound);
+  }
+
+  /**
+   * Returns a pseudorandom {@code long} value between the specified
+   * origin (inclusive) and the specified bound (exclusive).
+   *
+   * @param origin the least value returned
+   * @param bound the upper bound (exclusive)
+   * @return a pseudorandom {@code long} value between the origin (inclusive) and the bound
+   * (exclusive)
+   * @throws IllegalArgumentException if {@code origin} is greater than or equal to {@code bound}
+   */
+  public long nextLong(long origin, long bound) {
+    if (origin >= bound) {
+      throw new IllegalArgumentException(BadRange);
+    }
+    return internalNextLong(origin, bound);
+  }
+
+  /**
+   * Returns a pseudorandom {@code double} value between zero
+   * (inclusive) and one (exclusive).
+   *
+   * @return a pseudorandom {@code double} value between zero (inclusive) and one (exclusive)
+   */
+  public double nextDouble() {
+    return (nextLong() >>> 11) * DOUBLE_UNIT;
+  }
+
+  /**
+   * Returns a pseudorandom {@code double} value between 0.0
+   * (inclusive) and the specified bound (exclusive).
+   *
+   * @param bound the upper bound (exclusive).  Must be positive.
+   * @return a pseudorandom {@code double} value between zero (inclusive) and the bound (exclusive)
+   * @throws IllegalArgumentException if {@code bound} is not positive
+   */
+  public double nextDouble(double bound) {
+    if (!(bound > 0.0)) {
+      throw new IllegalArgumentException(BadBound);
+    }
+    double result = (nextLong() >>> 11) * DOUBLE_UNIT * bound;
+    return (result < bound) ? result : // correct for rounding
+        Double.longBitsToDouble(Double.doubleToLongBits(bound) - 1);
+  }
+
+  /**
+   * Returns a pseudorandom {@code double} value between the specified
+   * origin (inclusive) and bound (exclusive).
+   *
+   * @param origin the least value returned
+   * @param bound the upper bound (exclusive)
+   * @return a pseudorandom {@code double} value between the origin (inclusive) and the bound
+   * (exclusive)
+   * @throws IllegalArgumentException if {@code origin} is greater than or equal to {@code bound}
+   */
+  public double nextDouble(double origin, double bound) {
+    if (!(origin < bound)) {
+      throw new IllegalArgumentException(BadRange);
+    }
+    return internalNextDouble(origin, bound);
+  }
+
+  /**
+   * Returns a pseudorandom {@code boolean} value.
+   *
+   * @return a pseudorandom {@code boolean} value
+   */
+  public boolean nextBoolean() {
+    return nextLong() < 0L;
+  }
+
+  // stream methods, coded in a way intended to better isolate for
+  // maintenance purposes the small differences across forms.
+
+  /**
+   * Returns a stream producing the given {@code streamSize} number
+   * of pseudorandom {@code int} values from a copy of this generator
+   * and/or generators jumped from it; this generator then leaps.
+   *
+   * @param streamSize the number of values to generate
+   * @return a stream of pseudorandom {@code int} values
+   * @throws IllegalArgumentException if {@code streamSize} is less than zero
+   */
+  public IntStream ints(long streamSize) {
+    if (streamSize < 0L) {
+      throw new IllegalArgumentException(BadSize);
+    }
+    return StreamSupport.intStream
+        (new RandomIntsSpliterator
+                (copyAndLeap(), 0L, streamSize, Integer.MAX_VALUE, 0, 0),
+            false);
+  }
+
+  /**
+   * Returns an effectively unlimited stream of pseudorandom {@code int}
+   * values from a copy of this generator and/or generators jumped from it;
+   * this generator then leaps.
+   *
+   * @return a stream of pseudorandom {@code int} values
+   * @implNote This method is implemented to be equivalent to {@code ints(Long.MAX_VALUE)}.
+   */
+  public IntStream ints() {
+    return StreamSupport.intStream
+        (new RandomIntsSpliterator
+                (copyAndLeap(), 0L, Long.MAX_VALUE, Integer.MAX_VALUE, 0, 0),
+            false);
+  }
+
+  /**
+   * Returns a stream producing the given {@code streamSize} number
+   * of pseudorandom {@code int} values from a copy of this generator
+   * and/or generators jumped from it; this generator then leaps.  Each
+   * value conforms to the given origin (inclusive) and bound (exclusive).
+   *
+   * @param streamSize the number of values to generate
+   * @param randomNumberOrigin the origin (inclusive) of each random value
+   * @param randomNumberBound the bound (exclusive) of each random value
+   * @return a stream of pseudorandom {@code int} values, each with the given origin (inclusive) and
+   * bound (exclusive)
+   * @throws IllegalArgumentException if {@code streamSize} is less than zero, or {@code
+   * randomNumberOrigin} is greater than or equal to {@code randomNumberBound}
+   */
+  public IntStream ints(long streamSize, int randomNumberOrigin,
+      int randomNumberBound) {
+    if (streamSize < 0L) {
+      throw new IllegalArgumentException(BadSize);
+    }
+    if (randomNumberOrigin >= randomNumberBound) {
+      throw new IllegalArgumentException(BadRange);
+    }
+    return StreamSupport.intStream
+        (new RandomIntsSpliterator
+                (copyAndLeap(), 0L, streamSize, randomNumberOrigin, randomNumberBound, 0),
+            false);
+  }
+
+  /**
+   * Returns an effectively unlimited stream of pseudorandom {@code
+   * int} values from a copy of this generator and/or generators jumped
+   * from it; this generator then leaps.  Each value conforms to the given
+   * origin (inclusive) and bound (exclusive).
+   *
+   * @param randomNumberOrigin the origin (inclusive) of each random value
+   * @param randomNumberBound the bound (exclusive) of each random value
+   * @return a stream of pseudorandom {@code int} values, each with the given origin (inclusive) and
+   * bound (exclusive)
+   * @throws IllegalArgumentException if {@code randomNumberOrigin} is greater than or equal to
+   * {@code randomNumberBound}
+   * @implNote This method is implemented to be equivalent to {@code ints(Long.MAX_VALUE,
+   * randomNumberOrigin, randomNumberBound)}.
+   */
+  public IntStream ints(int randomNumberOrigin, int randomNumberBound) {
+    if (randomNumberOrigin >= randomNumberBound) {
+      throw new IllegalArgumentException(BadRange);
+    }
+    return StreamSupport.intStream
+        (new RandomIntsSpliterator
+                (copyAndLeap(), 0L, Long.MAX_VALUE, randomNumberOrigin, randomNumberBound, 0),
+            false);
+  }
+
+  /**
+   * Returns a stream producing the given {@code streamSize} number
+   * of pseudorandom {@code long} values from a copy of this generator
+   * and/or generators jumped from it; this generator then leaps.
+   *
+   * @param streamSize the number of values to generate
+   * @return a stream of pseudorandom {@code long} values
+   * @throws IllegalArgumentException if {@code streamSize} is less than zero
+   */
+  public LongStream longs(long streamSize) {
+    if (streamSize < 0L) {
+      throw new IllegalArgumentException(BadSize);
+    }
+    return StreamSupport.longStream
+        (new RandomLongsSpliterator
+                (copyAndLeap(), 0L, streamSize, Long.MAX_VALUE, 0L, 0),
+            false);
+  }
+
+  /**
+   * Returns an effectively unlimited stream of pseudorandom {@code
+   * long} values from a copy of this generator and/or generators jumped
+   * from it; this generator then leaps.
+   *
+   * @return a stream of pseudorandom {@code long} values
+   * @implNote This method is implemented to be equivalent to {@code longs(Long.MAX_VALUE)}.
+   */
+  public LongStream longs() {
+    return StreamSupport.longStream
+        (new RandomLongsSpliterator
+                (copyAndLeap(), 0L, Long.MAX_VALUE, Long.MAX_VALUE, 0L, 0),
+            false);
+  }
+
+  /**
+   * Returns a stream producing the given {@code streamSize} number of
+   * pseudorandom {@code long} values from a copy of this generator and/or
+   * generators jumped from it; this generator then leaps.  Each value
+   * conforms to the given origin (inclusive) and bound (exclusive).
+   *
+   * @param streamSize the number of values to generate
+   * @param randomNumberOrigin the origin (inclusive) of each random value
+   * @param randomNumberBound the bound (exclusive) of each random value
+   * @return a stream of pseudorandom {@code long} values, each with the given origin (inclusive)
+   * and bound (exclusive)
+   * @throws IllegalArgumentException if {@code streamSize} is less than zero, or {@code
+   * randomNumberOrigin} is greater than or equal to {@code randomNumberBound}
+   */
+  public LongStream longs(long streamSize, long randomNumberOrigin,
+      long randomNumberBound) {
+    if (streamSize < 0L) {
+      throw new IllegalArgumentException(BadSize);
+    }
+    if (randomNumberOrigin >= randomNumberBound) {
+      throw new IllegalArgumentException(BadRange);
+    }
+    return StreamSupport.longStream
+        (new RandomLongsSpliterator
+                (copyAndLeap(), 0L, streamSize, randomNumberOrigin, randomNumberBound, 0),
+            false);
+  }
+
+  /**
+   * Returns an effectively unlimited stream of pseudorandom {@code
+   * long} values from a copy of this generator and/or generators jumped
+   * from it; this generator then leaps.  Each value conforms to the given
+   * origin (inclusive) and bound (exclusive).
+   *
+   * @param randomNumberOrigin the origin (inclusive) of each random value
+   * @param randomNumberBound the bound (exclusive) of each random value
+   * @return a stream of pseudorandom {@code long} values, each with the given origin (inclusive)
+   * and bound (exclusive)
+   * @throws IllegalArgumentException if {@code randomNumberOrigin} is greater than or equal to
+   * {@code randomNumberBound}
+   * @implNote This method is implemented to be equivalent to {@code longs(Long.MAX_VALUE,
+   * randomNumberOrigin, randomNumberBound)}.
+   */
+  public LongStream longs(long randomNumberOrigin, long randomNumberBound) {
+    if (randomNumberOrigin >= randomNumberBound) {
+      throw new IllegalArgumentException(BadRange);
+    }
+    return StreamSupport.longStream
+        (new RandomLongsSpliterator
+                (copyAndLeap(), 0L, Long.MAX_VALUE, randomNumberOrigin, randomNumberBound, 0),
+            false);
+  }
+
+  /**
+   * Returns a stream producing the given {@code streamSize} number of
+   * pseudorandom {@code double} values from a copy of this generator
+   * and/or generators jumped from it; this generator then leaps.  Each
+   * value is between zero (inclusive) and one (exclusive).
+   *
+   * @param streamSize the number of values to generate
+   * @return a stream of {@code double} values
+   * @throws IllegalArgumentException if {@code streamSize} is less than zero
+   */
+  public DoubleStream doubles(long streamSize) {
+    if (streamSize < 0L) {
+      throw new IllegalArgumentException(BadSize);
+    }
+    return StreamSupport.doubleStream
+        (new RandomDoublesSpliterator
+                (copyAndLeap(), 0L, streamSize, Double.MAX_VALUE, 0.0, 0),
+            false);
+  }
+
+  /**
+   * Returns an effectively unlimited stream of pseudorandom {@code
+   * double} values from a copy of this generator and/or generators jumped
+   * from it; this generator then leaps.  Each value is between zero
+   * (inclusive) and one (exclusive).
+   *
+   * @return a stream of pseudorandom {@code double} values
+   * @implNote This method is implemented to be equivalent to {@code doubles(Long.MAX_VALUE)}.
+   */
+  public DoubleStream doubles() {
+    return StreamSupport.doubleStream
+        (new RandomDoublesSpliterator
+                (copyAndLeap(), 0L, Long.MAX_VALUE, Double.MAX_VALUE, 0.0, 0),
+            false);
+  }
+
+  /**
+   * Returns a stream producing the given {@code streamSize} number of
+   * pseudorandom {@code double} values from a copy of this generator
+   * and/or generators jumped from it; this generator then leaps.  Each
+   * value conforms to the given origin (inclusive) and bound (exclusive).
+   *
+   * @param streamSize the number of values to generate
+   * @param randomNumberOrigin the origin (inclusive) of each random value
+   * @param randomNumberBound the bound (exclusive) of each random value
+   * @return a stream of pseudorandom {@code double} values, each with the given origin (inclusive)
+   * and bound (exclusive)
+   * @throws IllegalArgumentException if {@code streamSize} is less than zero
+   * @throws IllegalArgumentException if {@code randomNumberOrigin} is greater than or equal to
+   * {@code randomNumberBound}
+   */
+  public DoubleStream doubles(long streamSize, double randomNumberOrigin,
+      double randomNumberBound) {
+    if (streamSize < 0L) {
+      throw new IllegalArgumentException(BadSize);
+    }
+    if (!(randomNumberOrigin < randomNumberBound)) {
+      throw new IllegalArgumentException(BadRange);
+    }
+    return StreamSupport.doubleStream
+        (new RandomDoublesSpliterator
+                (copyAndLeap(), 0L, streamSize, randomNumberOrigin, randomNumberBound, 0),
+            false);
+  }
+
+  /**
+   * Returns an effectively unlimited stream of pseudorandom {@code
+   * double} values from a copy of this generator and/or generators jumped
+   * from it; this generator then leaps.  Each value conforms to the given
+   * origin (inclusive) and bound (exclusive).
+   *
+   * @param randomNumberOrigin the origin (inclusive) of each random value
+   * @param randomNumberBound the bound (exclusive) of each random value
+   * @return a stream of pseudorandom {@code double} values, each with the given origin (inclusive)
+   * and bound (exclusive)
+   * @throws IllegalArgumentException if {@code randomNumberOrigin} is greater than or equal to
+   * {@code randomNumberBound}
+   * @implNote This method is implemented to be equivalent to {@code doubles(Long.MAX_VALUE,
+   * randomNumberOrigin, randomNumberBound)}.
+   */
+  public DoubleStream doubles(double randomNumberOrigin, double randomNumberBound) {
+    if (!(randomNumberOrigin < randomNumberBound)) {
+      throw new IllegalArgumentException(BadRange);
+    }
+    return StreamSupport.doubleStream
+        (new RandomDoublesSpliterator
+                (copyAndLeap(), 0L, Long.MAX_VALUE, randomNumberOrigin, randomNumberBound, 0),
+            false);
+  }
+
+  /**
+   * Spliterator for int streams.  We multiplex the four int
+   * versions into one class by treating a bound less than origin as
+   * unbounded, and also by treating "infinite" as equivalent to
+   * Long.MAX_VALUE. For splits, it uses the standard divide-by-two
+   * approach, giving the prefix a copy of the generator and jumping the
+   * generator by 2^depth jump distances, so that no two parts share a
+   * jump offset (see the class-level comment). The long and double
+   * versions of this class are identical except for types.
+   */
+  static final class RandomIntsSpliterator implements Spliterator.OfInt {
+
+    final JumpableRandom rng;
+    long index;
+    final long fence;
+    final int origin;
+    final int bound;
+    int depth;
+
+    RandomIntsSpliterator(JumpableRandom rng, long index, long fence,
+        int origin, int bound, int depth) {
+      this.rng = rng;
+      this.index = index;
+      this.fence = fence;
+      this.origin = origin;
+      this.bound = bound;
+      this.depth = depth;
+    }
+
+    public RandomIntsSpliterator trySplit() {
+      long i = index, m = (i + fence) >>> 1;
+      int d = depth;
+      if (m <= i || d >= rng.leapDistanceLog2() - rng.jumpDistanceLog2()) {
+        return null;
+      }
+      RandomIntsSpliterator prefix =
+          new RandomIntsSpliterator(rng.copy(), i, index = m, origin, bound, d + 1);
+      rng.jumpPowerOfTwo(d);
+      depth = d + 1;
+      return prefix;
+    }
+
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    public int characteristics() {
+      return (Spliterator.SIZED | Spliterator.SUBSIZED |
+          Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    public boolean tryAdvance(IntConsumer consumer) {
+      if (consumer == null) {
+        throw new NullPointerException();
+      }
+      long i = index, f = fence;
+      if (i < f) {
+        consumer.accept(rng.internalNextInt(origin, bound));
+        index = i + 1;
+        return true;
+      }
+      return false;
+    }
+
+    public void forEachRemaining(IntConsumer consumer) {
+      if (consumer == null) {
+        throw new NullPointerException();
+      }
+      long i = index, f = fence;
+      if (i < f) {
+        index = f;
+        JumpableRandom r = rng;
+        int o = origin, b = bound;
+        do {
+          consumer.accept(r.internalNextInt(o, b));
+        } while (++i < f);
+      }
+    }
+  }
+
+  /**
+   * Spliterator for long streams.
+   */
+  static final class RandomLongsSpliterator implements Spliterator.OfLong {
+
+    final JumpableRandom rng;
+    long index;
+    final long fence;
+    final long origin;
+    final long bound;
+    int depth;
+
+    RandomLongsSpliterator(JumpableRandom rng, long index, long fence,
+        long origin, long bound, int depth) {
+      this.rng = rng;
+      this.index = index;
+      this.fence = fence;
+      this.origin = origin;
+      this.bound = bound;
+      this.depth = depth;
+    }
+
+    public RandomLongsSpliterator trySplit() {
+      long i = index, m = (i + fence) >>> 1;
+      int d = depth;
+      if (m <= i || d >= rng.leapDistanceLog2() - rng.jumpDistanceLog2()) {
+        return null;
+      }
+      RandomLongsSpliterator prefix =
+          new RandomLongsSpliterator(rng.copy(), i, index = m, origin, bound, d + 1);
+      rng.jumpPowerOfTwo(d);
+      depth = d + 1;
+      return prefix;
+    }
+
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    public int characteristics() {
+      return (Spliterator.SIZED | Spliterator.SUBSIZED |
+          Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    public boolean tryAdvance(LongConsumer consumer) {
+      if (consumer == null) {
+        throw new NullPointerException();
+      }
+      long i = index, f = fence;
+      if (i < f) {
+        consumer.accept(rng.internalNextLong(origin, bound));
+        index = i + 1;
+        return true;
+      }
+      return false;
+    }
+
+    public void forEachRemaining(LongConsumer consumer) {
+      if (consumer == null) {
+        throw new NullPointerException();
+      }
+      long i = index, f = fence;
+      if (i < f) {
+        index = f;
+        JumpableRandom r = rng;
+        long o = origin, b = bound;
+        do {
+          consumer.accept(r.internalNextLong(o, b));
+        } while (++i < f);
+      }
+    }
+
+  }
+
+  /**
+   * Spliterator for double streams.
+   */
+  static final class RandomDoublesSpliterator implements Spliterator.OfDouble {
+
+    final JumpableRandom rng;
+    long index;
+    final long fence;
+    final double origin;
+    final double bound;
+    int depth;
+
+    RandomDoublesSpliterator(JumpableRandom rng, long index, long fence,
+        double origin, double bound, int depth) {
+      this.rng = rng;
+      this.index = index;
+      this.fence = fence;
+      this.origin = origin;
+      this.bound = bound;
+      this.depth = depth;
+    }
+
+    public RandomDoublesSpliterator trySplit() {
+      long i = index, m = (i + fence) >>> 1;
+      int d = depth;
+      if (m <= i || d >= rng.leapDistanceLog2() - rng.jumpDistanceLog2()) {
+        return null;
+      }
+      RandomDoublesSpliterator prefix =
+          new RandomDoublesSpliterator(rng.copy(), i, index = m, origin, bound, d + 1);
+      rng.jumpPowerOfTwo(d);
+      depth = d + 1;
+      return prefix;
+    }
+
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    public int characteristics() {
+      return (Spliterator.SIZED | Spliterator.SUBSIZED |
+          Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    public boolean tryAdvance(DoubleConsumer consumer) {
+      if (consumer == null) {
+        throw new NullPointerException();
+      }
+      long i = index, f = fence;
+      if (i < f) {
+        consumer.accept(rng.internalNextDouble(origin, bound));
+        index = i + 1;
+        return true;
+      }
+      return false;
+    }
+
+    public void forEachRemaining(DoubleConsumer consumer) {
+      if (consumer == null) {
+        throw new NullPointerException();
+      }
+      long i = index, f = fence;
+      if (i < f) {
+        index = f;
+        JumpableRandom r = rng;
+        double o = origin, b = bound;
+        do {
+          consumer.accept(r.internalNextDouble(o, b));
+        } while (++i < f);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+/**
+ * A {@link JumpableRandom} implementing the L64X128 member of the LXM
+ * family of Steele and Vigna, "LXM: Better Splittable Pseudorandom Number
+ * Generators (and Almost as Fast)", OOPSLA 2021, with the "Mix" output
+ * function.
+ *
+ * <p>Each value combines a 64-bit linear congruential generator with a
+ * xoroshiro128 generator by addition, then mixes the sum with a strong
+ * bit-mixing function, so that the statistical weaknesses of each
+ * component are masked by the other.  The generator has 256 bits of
+ * state, of which 64 select the additive constant of the congruential
+ * part, and each choice of that constant gives a period of
+ * 2<sup>64</sup>(2<sup>128</sup>&minus;1).
+ *
+ * <p>The congruential part returns to its start after 2<sup>64</sup>
+ * values, so method {@link #jump} advances the generator by
+ * 2<sup>64</sup> values, and method {@link #leap} by 2<sup>96</sup>,
+ * by jumping the xoroshiro128 part alone.  A generator can thus hand out
+ * 2<sup>32</sup> non-overlapping subsequences of 2<sup>64</sup> values
+ * between leaps.
+ *
+ * <p>Instances are not thread-safe and not cryptographically secure.
+ *
+ * @since 1.8
+ */
+public final class L64X128MixRandom extends JumpableRandom {
+
+  /**
+   * The multiplier of the congruential part.
+   */
+  private static final long M = 0xd1342543de82ef95L;
+
+  /*
+   * The jump polynomials of xoroshiro128 (rotations 24, 16 and 37) for
+   * 2^64 and 2^96 steps, as published with its reference implementation.
+   */
+  private static final long[] JUMP = {
+      0xdf900294d8f554a5L, 0x170865df4b3201fcL
+  };
+
+  private static final long[] LEAP = {
+      0xd2a98b26625eee7bL, 0xdddf9b1090aa7ac1L
+  };
+
+  /**
+   * The characteristic polynomial of the xoroshiro128 transition, less
+   * its x^128 term, from which the jumps by 2^k jump distances used by
+   * stream splitting are computed.
+   */
+  private static final long[] CHAR_POLY = {
+      0x095b8f76579aa001L, 0x0008828e513b43d5L
+  };
+
+  private static final long[][] JUMPS = powerOfTwoJumps(JUMP, CHAR_POLY, 32);
+
+  /**
+   * The additive constant of the congruential part; always odd.
+   */
+  private final long a;
+
+  /**
+   * The state of the congruential part.
+   */
+  private long s;
+
+  /**
+   * The state of the xoroshiro128 part, never both zero.
+   */
+  private long x0, x1;
+
+  private L64X128MixRandom(long a, long s, long x0, long x1) {
+    this.a = a;
+    this.s = s;
+    this.x0 = x0;
+    this.x1 = x1;
+  }
+
+  /**
+   * Creates a new instance using the specified initial seed.  Instances
+   * created with the same seed generate identical sequences of values.
+   *
+   * @param seed the initial seed
+   */
+  public L64X128MixRandom(long seed) {
+    long[] w = expandSeed(seed, 4);
+    a = w[0] | 1L;
+    s = w[1];
+    if ((w[2] | w[3]) == 0L) {
+      w[2] = M;
+    }
+    x0 = w[2];
+    x1 = w[3];
+  }
+
+  /**
+   * Creates a new instance that is likely to generate sequences of values
+   * that are statistically independent of those of any other instances in
+   * the current program; and may, and typically does, vary across program
+   * invocations.
+   */
+  public L64X128MixRandom() {
+    this(defaultSeed());
+  }
+
+  /**
+   * Computes Doug Lea's 64-bit mixing function.
+   */
+  private static long mixLea64(long z) {
+    z = (z ^ (z >>> 32)) * 0xdaba0b6eb09322e3L;
+    z = (z ^ (z >>> 32)) * 0xdaba0b6eb09322e3L;
+    return z ^ (z >>> 32);
+  }
+
+  public long nextLong() {
+    long q0 = x0, q1 = x1;
+    long z = mixLea64(s + q0);
+    s = M * s + a;
+    q1 ^= q0;
+    x0 = Long.rotateLeft(q0, 24) ^ q1 ^ (q1 << 16);
+    x1 = Long.rotateLeft(q1, 37);
+    return z;
+  }
+
+  public L64X128MixRandom copy() {
+    return new L64X128MixRandom(a, s, x0, x1);
+  }
+
+  /**
+   * Advances the state of this generator by 2<sup>64</sup> values.
+   */
+  public void jump() {
+    jump(JUMP);
+  }
+
+  /**
+   * Advances the state of this generator by 2<sup>96</sup> values.
+   */
+  public void leap() {
+    jump(LEAP);
+  }
+
+  void jumpPowerOfTwo(int n) {
+    jump(JUMPS[n]);
+  }
+
+  public int jumpDistanceLog2() {
+    return 64;
+  }
+
+  public int leapDistanceLog2() {
+    return 96;
+  }
+
+  /*
+   * Jumps the xoroshiro128 part only; the congruential part has period
+   * 2^64, which divides both distances, so it is left as it is.
+   */
+  private void jump(long[] poly) {
+    long s0 = 0, s1 = 0;
+    for (long p : poly) {
+      for (int b = 0; b < 64; b++) {
+        if ((p & (1L << b)) != 0) {
+          s0 ^= x0;
+          s1 ^= x1;
+        }
+        long q0 = x0, q1 = x1 ^ q0;
+        x0 = Long.rotateLeft(q0, 24) ^ q1 ^ (q1 << 16);
+        x1 = Long.rotateLeft(q1, 37);
+      }
+    }
+    x0 = s0;
+    x1 = s1;
+  }
+}
@@ -147,8 +147,9 @@ import java.io.IOException;
  * @param <V> the type of mapped values
  * @author Josh Bloch
  * @implNote The spliterators returned by the spliterator method of the collections returned by all
- * of this class's collection view methods are created from the iterators of the corresponding
- * collections.
+ * of this class's collection view methods additionally report {@link Spliterator#SIZED} and
+ * {@link Spliterator#SUBSIZED}, and split by walking ahead half of the remaining entries, so that
+ * parallel traversals divide the work evenly.
  * @see Object#hashCode()
  * @see Collection
  * @see Map
@@ -406,6 +407,39 @@ public class LinkedHashMap<K, V>
     this.accessOrder = accessOrder;
   }
 
+  /**
+   * Constructs an empty <tt>LinkedHashMap</tt> instance with the
+   * specified initial capacity, load factor, ordering mode and resizing
+   * mode.  If <tt>incrementalResize</tt> is <tt>true</tt>, the rehashing
+   * of large tables is spread over subsequent operations, as described
+   * in {@link HashMap#HashMap(int, float, boolean)}.  Since iteration
+   * follows the linked list rather than the table, iterating over such
+   * a map never waits for a pending migration.
+   *
+   * <p><strong>Note that while a migration is pending, retrievals such
+   * as <tt>get</tt> and <tt>containsKey</tt> move bins and so
+   * structurally modify the map,</strong> even in insertion-ordered
+   * mode.  Such a map must be synchronized externally whenever it is
+   * accessed by multiple threads, even if all of them only read it.
+   *
+   * @param initialCapacity the initial capacity
+   * @param loadFactor the load factor
+   * @param accessOrder the ordering mode - <tt>true</tt> for access-order, <tt>false</tt> for
+   * insertion-order
+   * @param incrementalResize <tt>true</tt> to spread the rehashing of large tables over subsequent
+   * operations
+   * @throws IllegalArgumentException if the initial capacity is negative or the load factor is
+   * nonpositive
+   * @since 1.8
+   */
+  public LinkedHashMap(int initialCapacity,
+      float loadFactor,
+      boolean accessOrder,
+      boolean incrementalResize) {
+    super(initialCapacity, loadFactor, incrementalResize);
+    this.accessOrder = accessOrder;
+  }
+
 
   /**
    * Returns <tt>true</tt> if this map maps one or more keys to the
@@ -527,8 +561,8 @@ public class LinkedHashMap<K, V>
    * operations.  It does not support the <tt>add</tt> or <tt>addAll</tt>
    * operations.
    * Its {@link Spliterator} typically provides faster sequential
-   * performance but much poorer parallel performance than that of
-   * {@code HashMap}.
+   * performance than that of {@code HashMap}, and splits into halves of
+   * the remaining entries for parallel traversal.
    *
    * @return a set view of the keys contained in this map
    */
@@ -560,9 +594,7 @@ public class LinkedHashMap<K, V>
     }
 
     public final Spliterator<K> spliterator() {
-      return Spliterators.spliterator(this, Spliterator.SIZED |
-          Spliterator.ORDERED |
-          Spliterator.DISTINCT);
+      return new LinkedKeySpliterator<>(LinkedHashMap.this, null, -1, 0);
     }
 
     public final void forEach(Consumer<? super K> action) {
@@ -592,8 +624,8 @@ public class LinkedHashMap<K, V>
    * <tt>retainAll</tt> and <tt>clear</tt> operations.  It does not
    * support the <tt>add</tt> or <tt>addAll</tt> operations.
    * Its {@link Spliterator} typically provides faster sequential
-   * performance but much poorer parallel performance than that of
-   * {@code HashMap}.
+   * performance than that of {@code HashMap}, and splits into halves of
+   * the remaining entries for parallel traversal.
    *
    * @return a view of the values contained in this map
    */
@@ -621,8 +653,7 @@ public class LinkedHashMap<K, V>
     }
 
     public final Spliterator<V> spliterator() {
-      return Spliterators.spliterator(this, Spliterator.SIZED |
-          Spliterator.ORDERED);
+      return new LinkedValueSpliterator<>(LinkedHashMap.this, null, -1, 0);
     }
 
     public final void forEach(Consumer<? super V> action) {
@@ -653,8 +684,8 @@ public class LinkedHashMap<K, V>
    * <tt>clear</tt> operations.  It does not support the
    * <tt>add</tt> or <tt>addAll</tt> operations.
    * Its {@link Spliterator} typically provides faster sequential
-   * performance but much poorer parallel performance than that of
-   * {@code HashMap}.
+   * performance than that of {@code HashMap}, and splits into halves of
+   * the remaining entries for parallel traversal.
    *
    * @return a set view of the mappings contained in this map
    */
@@ -698,9 +729,7 @@ public class LinkedHashMap<K, V>
     }
 
     public final Spliterator<Map.Entry<K, V>> spliterator() {
-      return Spliterators.spliterator(this, Spliterator.SIZED |
-          Spliterator.ORDERED |
-          Spliterator.DISTINCT);
+      return new LinkedEntrySpliterator<>(LinkedHashMap.this, null, -1, 0);
     }
 
     public final void forEach(Consumer<? super Map.Entry<K, V>> action) {
@@ -815,5 +844,231 @@ public class LinkedHashMap<K, V>
     }
   }
 
+  // Spliterators
+
+  /**
+   * Base class for the view spliterators. Each covers a run of est
+   * entries of the linked list starting at current. The top-level
+   * spliterator binds to the head and size of the map on first use;
+   * trySplit walks ahead half of the remaining entries and hands off the
+   * first half, so that splits stay balanced however large the map.
+   */
+  static class LinkedHashMapSpliterator<K, V> {
+
+    final LinkedHashMap<K, V> map;
+    LinkedHashMap.Entry<K, V> current; // next entry; null until initialized
+    int est;                           // remaining entries; -1 until first use
+    int expectedModCount;              // for CME checks
+
+    LinkedHashMapSpliterator(LinkedHashMap<K, V> map,
+        LinkedHashMap.Entry<K, V> origin, int est, int expectedModCount) {
+      this.map = map;
+      this.current = origin;
+      this.est = est;
+      this.expectedModCount = expectedModCount;
+    }
+
+    final int getEst() { // initialize on first use
+      int s;
+      if ((s = est) < 0) {
+        LinkedHashMap<K, V> m = map;
+        expectedModCount = m.modCount;
+        current = m.head;
+        s = est = m.size;
+      }
+      return s;
+    }
+
+    public final long estimateSize() {
+      return (long) getEst();
+    }
+
+    /**
+     * Returns the entry n links after p, or null if the list ends first.
+     */
+    static <K, V> LinkedHashMap.Entry<K, V> skip(LinkedHashMap.Entry<K, V> p, int n) {
+      while (p != null && n-- > 0) {
+        p = p.after;
+      }
+      return p;
+    }
+  }
+
+  static final class LinkedKeySpliterator<K, V>
+      extends LinkedHashMapSpliterator<K, V>
+      implements Spliterator<K> {
+
+    LinkedKeySpliterator(LinkedHashMap<K, V> map, LinkedHashMap.Entry<K, V> origin,
+        int est, int expectedModCount) {
+      super(map, origin, est, expectedModCount);
+    }
+
+    public LinkedKeySpliterator<K, V> trySplit() {
+      int s = getEst(), n = s >>> 1;
+      LinkedHashMap.Entry<K, V> p = current;
+      if (n == 0 || p == null) {
+        return null;
+      }
+      current = skip(p, n);
+      est = s - n;
+      return new LinkedKeySpliterator<>(map, p, n, expectedModCount);
+    }
+
+    public void forEachRemaining(Consumer<? super K> action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      int n = getEst();
+      LinkedHashMap.Entry<K, V> p = current;
+      current = null;
+      est = 0;
+      for (; p != null && n > 0; p = p.after, n--) {
+        action.accept(p.key);
+      }
+      if (map.modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    public boolean tryAdvance(Consumer<? super K> action) {
+      LinkedHashMap.Entry<K, V> p;
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      if (getEst() > 0 && (p = current) != null) {
+        --est;
+        current = p.after;
+        action.accept(p.key);
+        if (map.modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        return true;
+      }
+      return false;
+    }
+
+    public int characteristics() {
+      return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED |
+          Spliterator.DISTINCT;
+    }
+  }
+
+  static final class LinkedValueSpliterator<K, V>
+      extends LinkedHashMapSpliterator<K, V>
+      implements Spliterator<V> {
+
+    LinkedValueSpliterator(LinkedHashMap<K, V> map, LinkedHashMap.Entry<K, V> origin,
+        int est, int expectedModCount) {
+      super(map, origin, est, expectedModCount);
+    }
+
+    public LinkedValueSpliterator<K, V> trySplit() {
+      int s = getEst(), n = s >>> 1;
+      LinkedHashMap.Entry<K, V> p = current;
+      if (n == 0 || p == null) {
+        return null;
+      }
+      current = skip(p, n);
+      est = s - n;
+      return new LinkedValueSpliterator<>(map, p, n, expectedModCount);
+    }
+
+    public void forEachRemaining(Consumer<? super V> action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      int n = getEst();
+      LinkedHashMap.Entry<K, V> p = current;
+      current = null;
+      est = 0;
+      for (; p != null && n > 0; p = p.after, n--) {
+        action.accept(p.value);
+      }
+      if (map.modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    public boolean tryAdvance(Consumer<? super V> action) {
+      LinkedHashMap.Entry<K, V> p;
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      if (getEst() > 0 && (p = current) != null) {
+        --est;
+        current = p.after;
+        action.accept(p.value);
+        if (map.modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        return true;
+      }
+      return false;
+    }
+
+    public int characteristics() {
+      return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED;
+    }
+  }
+
+  static final class LinkedEntrySpliterator<K, V>
+      extends LinkedHashMapSpliterator<K, V>
+      implements Spliterator<Map.Entry<K, V>> {
+
+    LinkedEntrySpliterator(LinkedHashMap<K, V> map, LinkedHashMap.Entry<K, V> origin,
+        int est, int expectedModCount) {
+      super(map, origin, est, expectedModCount);
+    }
+
+    public LinkedEntrySpliterator<K, V> trySplit() {
+      int s = getEst(), n = s >>> 1;
+      LinkedHashMap.Entry<K, V> p = current;
+      if (n == 0 || p == null) {
+        return null;
+      }
+      current = skip(p, n);
+      est = s - n;
+      return new LinkedEntrySpliterator<>(map, p, n, expectedModCount);
+    }
+
+    public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      int n = getEst();
+      LinkedHashMap.Entry<K, V> p = current;
+      current = null;
+      est = 0;
+      for (; p != null && n > 0; p = p.after, n--) {
+        action.accept(p);
+      }
+      if (map.modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+      LinkedHashMap.Entry<K, V> p;
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      if (getEst() > 0 && (p = current) != null) {
+        --est;
+        current = p.after;
+        action.accept(p);
+        if (map.modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        return true;
+      }
+      return false;
+    }
+
+    public int characteristics() {
+      return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED |
+          Spliterator.DISTINCT;
+    }
+  }
+
 
 }
@@ -1203,7 +1203,8 @@ public class LinkedList<E>
    *
    * @return a {@code Spliterator} over the elements in this list
    * @implNote The {@code Spliterator} additionally reports {@link Spliterator#SUBSIZED} and
-   * implements {@code trySplit} to permit limited parallelism..
+   * implements {@code trySplit} by walking ahead half of the remaining elements, so that
+   * parallel traversals divide the work evenly.
    * @since 1.8
    */
   @Override
@@ -1212,17 +1213,17 @@ public class LinkedList<E>
   }
 
   /**
-   * A customized variant of Spliterators.IteratorSpliterator
+   * A spliterator over a run of est nodes starting at current. The
+   * top-level spliterator binds to the first node and size of the list
+   * on first use; trySplit walks ahead half of the remaining nodes and
+   * hands off the first half without copying, so splits stay balanced.
    */
   static final class LLSpliterator<E> implements Spliterator<E> {
 
-    static final int BATCH_UNIT = 1 << 10;  // batch array size increment
-    static final int MAX_BATCH = 1 << 25;  // max batch array size;
     final LinkedList<E> list; // null OK unless traversed
     Node<E> current;      // current node; null until initialized
     int est;              // size estimate; -1 until first needed
     int expectedModCount; // initialized when est set
-    int batch;            // batch size for splits
 
     LLSpliterator(LinkedList<E> list, int est, int expectedModCount) {
       this.list = list;
@@ -1250,25 +1251,18 @@ public class LinkedList<E>
     }
 
     public Spliterator<E> trySplit() {
-      Node<E> p;
-      int s = getEst();
-      if (s > 1 && (p = current) != null) {
-        int n = batch + BATCH_UNIT;
-        if (n > s) {
-          n = s;
-        }
-        if (n > MAX_BATCH) {
-          n = MAX_BATCH;
+      Node<E> p, q;
+      int s = getEst(), n = s >>> 1;
+      if (n > 0 && (p = current) != null) {
+        for (q = p; q != null && n > 0; q = q.next) {
+          n--;
         }
-        Object[] a = new Object[n];
-        int j = 0;
-        do {
-          a[j++] = p.item;
-        } while ((p = p.next) != null && j < n);
-        current = p;
-        batch = j;
-        est = s - j;
-        return Spliterators.spliterator(a, 0, j, Spliterator.ORDERED);
+        n = (s >>> 1) - n;
+        LLSpliterator<E> prefix = new LLSpliterator<E>(list, n, expectedModCount);
+        prefix.current = p;
+        current = q;
+        est = s - n;
+        return prefix;
       }
       return null;
     }
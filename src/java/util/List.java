@@ -87,6 +87,26 @@ import java.util.function.UnaryOperator;
  * Such exceptions are marked as "optional" in the specification for this
  * interface.
  *
+ * <h2><a name="immutable">Immutable List Static Factory Methods</a></h2>
+ * <p>The {@link List#of(Object...) List.of()} static factory methods
+ * provide a convenient way to create immutable lists. The {@code List}
+ * instances created by these methods have the following characteristics:
+ *
+ * <ul>
+ * <li>They cannot be modified. Attempting to modify them always causes
+ * {@code UnsupportedOperationException} to be thrown.
+ * <li>They disallow {@code null} elements. Attempts to create them with
+ * {@code null} elements result in {@code NullPointerException}.
+ * <li>They are serializable if all elements are serializable.
+ * <li>The order of elements in the list is the same as the order of the
+ * provided arguments.
+ * <li>Lists of one or two elements hold them in fields, and larger lists
+ * hold them in a single array, so they are considerably smaller than
+ * an unmodifiable wrapper around an {@code ArrayList}.
+ * <li>They are value-based: callers should make no assumptions about
+ * the identity of the returned instances.
+ * </ul>
+ *
  * <p>This interface is a member of the
  * <a href="{@docRoot}/../technotes/guides/collections/index.html">
  * Java Collections Framework</a>.
@@ -675,4 +695,127 @@ public interface List<E> extends Collection<E> {
   default Spliterator<E> spliterator() {
     return Spliterators.spliterator(this, Spliterator.ORDERED);
   }
+
+  /**
+   * Returns an immutable list containing zero elements.
+   *
+   * See <a href="#immutable">Immutable List Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code List}'s element type
+   * @return an empty {@code List}
+   * @since 1.8
+   */
+  static <E> List<E> of() {
+    return ImmutableCollections.emptyList();
+  }
+
+  /**
+   * Returns an immutable list containing one element.
+   *
+   * See <a href="#immutable">Immutable List Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code List}'s element type
+   * @param e1 the single element
+   * @return a {@code List} containing the specified element
+   * @throws NullPointerException if the element is {@code null}
+   * @since 1.8
+   */
+  static <E> List<E> of(E e1) {
+    return new ImmutableCollections.List12<>(e1);
+  }
+
+  /**
+   * Returns an immutable list containing two elements.
+   *
+   * See <a href="#immutable">Immutable List Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code List}'s element type
+   * @param e1 the first element
+   * @param e2 the second element
+   * @return a {@code List} containing the specified elements
+   * @throws NullPointerException if an element is {@code null}
+   * @since 1.8
+   */
+  static <E> List<E> of(E e1, E e2) {
+    return new ImmutableCollections.List12<>(e1, e2);
+  }
+
+  /**
+   * Returns an immutable list containing three elements.
+   *
+   * See <a href="#immutable">Immutable List Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code List}'s element type
+   * @param e1 the first element
+   * @param e2 the second element
+   * @param e3 the third element
+   * @return a {@code List} containing the specified elements
+   * @throws NullPointerException if an element is {@code null}
+   * @since 1.8
+   */
+  static <E> List<E> of(E e1, E e2, E e3) {
+    return new ImmutableCollections.ListN<E>(e1, e2, e3);
+  }
+
+  /**
+   * Returns an immutable list containing four elements.
+   *
+   * See <a href="#immutable">Immutable List Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code List}'s element type
+   * @param e1 the first element
+   * @param e2 the second element
+   * @param e3 the third element
+   * @param e4 the fourth element
+   * @return a {@code List} containing the specified elements
+   * @throws NullPointerException if an element is {@code null}
+   * @since 1.8
+   */
+  static <E> List<E> of(E e1, E e2, E e3, E e4) {
+    return new ImmutableCollections.ListN<E>(e1, e2, e3, e4);
+  }
+
+  /**
+   * Returns an immutable list containing five elements.
+   *
+   * See <a href="#immutable">Immutable List Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code List}'s element type
+   * @param e1 the first element
+   * @param e2 the second element
+   * @param e3 the third element
+   * @param e4 the fourth element
+   * @param e5 the fifth element
+   * @return a {@code List} containing the specified elements
+   * @throws NullPointerException if an element is {@code null}
+   * @since 1.8
+   */
+  static <E> List<E> of(E e1, E e2, E e3, E e4, E e5) {
+    return new ImmutableCollections.ListN<E>(e1, e2, e3, e4, e5);
+  }
+
+  /**
+   * Returns an immutable list containing an arbitrary number of elements.
+   * See <a href="#immutable">Immutable List Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code List}'s element type
+   * @param elements the elements to be contained in the list
+   * @return a {@code List} containing the specified elements
+   * @throws NullPointerException if an element is {@code null} or if the array is {@code null}
+   * @since 1.8
+   */
+  @SafeVarargs
+  @SuppressWarnings("varargs")
+  static <E> List<E> of(E... elements) {
+    switch (elements.length) { // implicit null check of elements
+      case 0:
+        return ImmutableCollections.emptyList();
+      case 1:
+        return new ImmutableCollections.List12<>(elements[0]);
+      case 2:
+        return new ImmutableCollections.List12<>(elements[0], elements[1]);
+      default:
+        return new ImmutableCollections.ListN<E>(elements);
+    }
+  }
 }
@@ -0,0 +1,680 @@
+/*
+ * Copyright (c) 2003, 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util;
+
+import java.util.IndexedPriorityQueue.Node;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * An unbounded priority queue of elements with primitive {@code long}
+ * priorities, based on an indexed d-ary heap.  Each element is queued
+ * together with its priority, and the <em>head</em> of the queue is an
+ * element with the least priority; ties are broken arbitrarily.
+ *
+ * <p>Priorities are stored in a {@code long[]} array parallel to the
+ * heap, so that the sift loops compare primitive values held in adjacent
+ * memory, without comparator calls, boxing or dereferencing elements.
+ * With an arity of 8, the children examined by each step of
+ * {@link #poll} typically occupy a single cache line.  Other primitive
+ * priorities can be mapped onto {@code long} values while preserving
+ * their order; for instance, non-negative {@code double} priorities are
+ * ordered the same way as their {@link Double#doubleToLongBits bit
+ * patterns}.
+ *
+ * <p>As in {@link IndexedPriorityQueue}, the queue keeps track of the
+ * heap position of each element, and does not admit duplicates: at most
+ * one element {@code e2} with {@code e.equals(e2)} may be present at any
+ * time.  This allows {@link #remove(Object) remove(Object)}, {@link
+ * #updatePriority updatePriority} and {@link #decreaseKey decreaseKey} to
+ * run in O(log(n)) time, as required by algorithms such as Dijkstra's
+ * shortest paths or deadline schedulers.
+ *
+ * <p>Since elements cannot be queued without a priority, this class is a
+ * {@link Collection} but not a {@link Queue}, and does not support
+ * {@link #add add}.  Its iterator, which is <em>not</em> guaranteed to
+ * traverse the elements in any particular order, supports {@code remove}.
+ * {@code null} elements are not permitted.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ * Multiple threads should not access a {@code LongPriorityQueue}
+ * instance concurrently if any of the threads modifies the queue.
+ *
+ * <p>Implementation note: this implementation provides O(log(n)) time
+ * for {@code offer}, {@code poll}, {@code remove(Object)},
+ * {@code updatePriority} and {@code decreaseKey}; and expected constant
+ * time for {@code contains(Object)}, {@code priorityOf} and the retrieval
+ * methods ({@code peek}, {@code peekPriority} and {@code size}).
+ *
+ * @param <E> the type of elements held in this collection
+ * @see IndexedPriorityQueue
+ * @since 1.8
+ */
+public class LongPriorityQueue<E> extends AbstractCollection<E>
+    implements java.io.Serializable {
+
+  private static final long serialVersionUID = -3213437207386011572L;
+
+  private static final int DEFAULT_INITIAL_CAPACITY = 11;
+
+  /**
+   * Priority queue represented as a balanced d-ary heap, as in
+   * IndexedPriorityQueue: the children of queue[n] are
+   * queue[(n << shift) + 1] through queue[(n << shift) + (1 << shift)].
+   * The priority of queue[n] is keys[n], and for each node n in the heap
+   * and each descendant d of n, keys[n] <= keys[d].
+   */
+  transient Node<E>[] queue; // non-private to simplify nested class access
+
+  /**
+   * The priorities of the nodes in queue, at the same indices.
+   */
+  private transient long[] keys;
+
+  /**
+   * Maps each element to its node.
+   */
+  private transient HashMap<Object, Node<E>> nodes;
+
+  /**
+   * The number of elements in the priority queue.
+   */
+  private int size = 0;
+
+  /**
+   * The base 2 logarithm of the heap arity.
+   *
+   * @serial
+   */
+  private final int shift;
+
+  /**
+   * The number of times this priority queue has been
+   * <i>structurally modified</i>.  See AbstractList for gory details.
+   */
+  transient int modCount = 0; // non-private to simplify nested class access
+
+  /**
+   * Creates a {@code LongPriorityQueue} with the default initial
+   * capacity and arity.
+   */
+  public LongPriorityQueue() {
+    this(DEFAULT_INITIAL_CAPACITY, IndexedPriorityQueue.DEFAULT_ARITY);
+  }
+
+  /**
+   * Creates a {@code LongPriorityQueue} with the specified initial
+   * capacity and heap arity.
+   *
+   * @param initialCapacity the initial capacity for this priority queue
+   * @param arity the number of children of each heap node
+   * @throws IllegalArgumentException if {@code initialCapacity} is less than 1, or {@code arity} is
+   * not a power of two between 2 and 64
+   */
+  @SuppressWarnings("unchecked")
+  public LongPriorityQueue(int initialCapacity, int arity) {
+    if (initialCapacity < 1) {
+      throw new IllegalArgumentException();
+    }
+    this.shift = IndexedPriorityQueue.arityShift(arity);
+    this.queue = (Node<E>[]) new Node<?>[initialCapacity];
+    this.keys = new long[initialCapacity];
+    this.nodes = new HashMap<>();
+  }
+
+  /**
+   * Inserts the specified element with the given priority, unless the
+   * element is already present.
+   *
+   * @param e the element to add
+   * @param priority the priority of the element
+   * @return {@code true} if this queue did not already contain the specified element
+   * @throws NullPointerException if the specified element is null
+   */
+  public boolean offer(E e, long priority) {
+    if (e == null) {
+      throw new NullPointerException();
+    }
+    int i = size;
+    Node<E> node = new Node<>(e, i);
+    if (nodes.putIfAbsent(e, node) != null) {
+      return false;
+    }
+    modCount++;
+    if (i >= queue.length) {
+      int newCapacity = IndexedPriorityQueue.newCapacity(queue.length, i + 1);
+      queue = Arrays.copyOf(queue, newCapacity);
+      keys = Arrays.copyOf(keys, newCapacity);
+    }
+    size = i + 1;
+    siftUp(i, node, priority);
+    return true;
+  }
+
+  /**
+   * Retrieves, but does not remove, the head of this queue, or returns
+   * {@code null} if this queue is empty.
+   *
+   * @return the element with the least priority, or {@code null} if this queue is empty
+   */
+  public E peek() {
+    return (size == 0) ? null : queue[0].item;
+  }
+
+  /**
+   * Returns the priority of the head of this queue.
+   *
+   * @return the least priority of any element of this queue
+   * @throws NoSuchElementException if this queue is empty
+   */
+  public long peekPriority() {
+    if (size == 0) {
+      throw new NoSuchElementException();
+    }
+    return keys[0];
+  }
+
+  /**
+   * Retrieves and removes the head of this queue, or returns
+   * {@code null} if this queue is empty.
+   *
+   * @return the element with the least priority, or {@code null} if this queue is empty
+   */
+  public E poll() {
+    if (size == 0) {
+      return null;
+    }
+    int s = --size;
+    modCount++;
+    E result = queue[0].item;
+    nodes.remove(result);
+    Node<E> x = queue[s];
+    queue[s] = null;
+    if (s != 0) {
+      siftDown(0, x, keys[s]);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the priority of the specified element.
+   *
+   * @param o the element
+   * @return the priority of the element
+   * @throws NoSuchElementException if this queue does not contain the specified element
+   */
+  public long priorityOf(Object o) {
+    Node<E> node;
+    if (o == null || (node = nodes.get(o)) == null) {
+      throw new NoSuchElementException();
+    }
+    return keys[node.index];
+  }
+
+  /**
+   * Changes the priority of the specified element, moving it towards
+   * or away from the head as needed.
+   *
+   * @param o the element
+   * @param priority the new priority of the element
+   * @return {@code true} if this queue contains the specified element
+   */
+  public boolean updatePriority(Object o, long priority) {
+    Node<E> node;
+    if (o == null || (node = nodes.get(o)) == null) {
+      return false;
+    }
+    modCount++;
+    int i = node.index;
+    if (priority < keys[i]) {
+      siftUp(i, node, priority);
+    } else {
+      siftDown(i, node, priority);
+    }
+    return true;
+  }
+
+  /**
+   * Lowers the priority of the specified element, moving it towards the
+   * head as needed.
+   *
+   * @param o the element
+   * @param priority the new priority of the element
+   * @return {@code true} if this queue contains the specified element
+   * @throws IllegalArgumentException if the element is present and {@code priority} is greater than
+   * its current priority
+   */
+  public boolean decreaseKey(Object o, long priority) {
+    Node<E> node;
+    if (o == null || (node = nodes.get(o)) == null) {
+      return false;
+    }
+    int i = node.index;
+    if (priority > keys[i]) {
+      throw new IllegalArgumentException("priority increased");
+    }
+    modCount++;
+    siftUp(i, node, priority);
+    return true;
+  }
+
+  /**
+   * Removes the specified element from this queue, if it is present.
+   *
+   * @param o element to be removed from this queue, if present
+   * @return {@code true} if this queue changed as a result of the call
+   */
+  public boolean remove(Object o) {
+    Node<E> node;
+    if (o == null || (node = nodes.remove(o)) == null) {
+      return false;
+    }
+    removeAt(node.index);
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if this queue contains the specified element.
+   *
+   * @param o object to be checked for containment in this queue
+   * @return {@code true} if this queue contains the specified element
+   */
+  public boolean contains(Object o) {
+    return o != null && nodes.containsKey(o);
+  }
+
+  /**
+   * Performs the given action for each element of this queue and its
+   * priority, in no particular order.
+   *
+   * @param action The action to be performed for each element
+   * @throws NullPointerException if the specified action is null
+   */
+  public void forEach(ObjLongConsumer<? super E> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    final int expectedModCount = modCount;
+    final Node<E>[] q = queue;
+    final long[] ks = keys;
+    for (int i = 0; modCount == expectedModCount && i < size; i++) {
+      action.accept(q[i].item, ks[i]);
+    }
+    if (modCount != expectedModCount) {
+      throw new ConcurrentModificationException();
+    }
+  }
+
+  public Object[] toArray() {
+    Object[] a = new Object[size];
+    for (int i = 0; i < a.length; i++) {
+      a[i] = queue[i].item;
+    }
+    return a;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes all of the elements from this priority queue.
+   * The queue will be empty after this call returns.
+   */
+  public void clear() {
+    modCount++;
+    for (int i = 0; i < size; i++) {
+      queue[i] = null;
+    }
+    nodes.clear();
+    size = 0;
+  }
+
+  /**
+   * Returns the number of children of each node of the heap.
+   *
+   * @return the arity of the heap
+   */
+  public int arity() {
+    return 1 << shift;
+  }
+
+  /**
+   * Returns an iterator over the elements in this queue. The iterator
+   * does not return the elements in any particular order.
+   *
+   * @return an iterator over the elements in this queue
+   */
+  public Iterator<E> iterator() {
+    return new Itr();
+  }
+
+  /**
+   * Iterator in heap order, with the same treatment of removals as
+   * PriorityQueue.Itr.
+   */
+  private final class Itr implements Iterator<E> {
+
+    private int cursor = 0;
+    private int lastRet = -1;
+    private ArrayDeque<E> forgetMeNot = null;
+    private E lastRetElt = null;
+    private int expectedModCount = modCount;
+
+    public boolean hasNext() {
+      return cursor < size ||
+          (forgetMeNot != null && !forgetMeNot.isEmpty());
+    }
+
+    public E next() {
+      if (expectedModCount != modCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (cursor < size) {
+        return queue[lastRet = cursor++].item;
+      }
+      if (forgetMeNot != null) {
+        lastRet = -1;
+        lastRetElt = forgetMeNot.poll();
+        if (lastRetElt != null) {
+          return lastRetElt;
+        }
+      }
+      throw new NoSuchElementException();
+    }
+
+    public void remove() {
+      if (expectedModCount != modCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (lastRet != -1) {
+        nodes.remove(queue[lastRet].item);
+        E moved = LongPriorityQueue.this.removeAt(lastRet);
+        lastRet = -1;
+        if (moved == null) {
+          cursor--;
+        } else {
+          if (forgetMeNot == null) {
+            forgetMeNot = new ArrayDeque<>();
+          }
+          forgetMeNot.add(moved);
+        }
+      } else if (lastRetElt != null) {
+        LongPriorityQueue.this.remove(lastRetElt);
+        lastRetElt = null;
+      } else {
+        throw new IllegalStateException();
+      }
+      expectedModCount = modCount;
+    }
+  }
+
+  /**
+   * Removes the ith element from queue, whose entry in nodes has
+   * already been removed.  As in PriorityQueue.removeAt, returns the
+   * element that was previously at the end of the list and is now at
+   * some position before i, if any, and otherwise null.
+   */
+  private E removeAt(int i) {
+    // assert i >= 0 && i < size;
+    modCount++;
+    int s = --size;
+    if (s == i) // removed last element
+    {
+      queue[i] = null;
+    } else {
+      Node<E> moved = queue[s];
+      long key = keys[s];
+      queue[s] = null;
+      siftDown(i, moved, key);
+      if (queue[i] == moved) {
+        siftUp(i, moved, key);
+        if (queue[i] != moved) {
+          return moved.item;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Inserts node x with priority key at position k, promoting it up
+   * the tree until its priority is greater than or equal to that of
+   * its parent, or it is the root.
+   *
+   * @param k the position to fill
+   * @param x the node to insert
+   * @param key the priority of x
+   */
+  private void siftUp(int k, Node<E> x, long key) {
+    Node<E>[] q = queue;
+    long[] ks = keys;
+    int sh = shift;
+    while (k > 0) {
+      int parent = (k - 1) >>> sh;
+      long pk = ks[parent];
+      if (key >= pk) {
+        break;
+      }
+      Node<E> e = q[parent];
+      q[k] = e;
+      ks[k] = pk;
+      e.index = k;
+      k = parent;
+    }
+    q[k] = x;
+    ks[k] = key;
+    x.index = k;
+  }
+
+  /**
+   * Inserts node x with priority key at position k, demoting it down
+   * the tree repeatedly until its priority is less than or equal to
+   * those of its children or it is a leaf.
+   *
+   * @param k the position to fill
+   * @param x the node to insert
+   * @param key the priority of x
+   */
+  private void siftDown(int k, Node<E> x, long key) {
+    Node<E>[] q = queue;
+    long[] ks = keys;
+    int n = size, sh = shift;
+    int child;
+    while ((child = (k << sh) + 1) < n && child > 0) {
+      // find least of up to 1 << sh adjacent priorities
+      int end = Math.min(child + (1 << sh), n);
+      long least = ks[child];
+      for (int j = child + 1; j < end; j++) {
+        long c = ks[j];
+        if (c < least) {
+          least = c;
+          child = j;
+        }
+      }
+      if (key <= least) {
+        break;
+      }
+      Node<E> c = q[child];
+      q[k] = c;
+      ks[k] = least;
+      c.index = k;
+      k = child;
+    }
+    q[k] = x;
+    ks[k] = key;
+    x.index = k;
+  }
+
+  /**
+   * Saves this queue to a stream (that is, serializes it).
+   *
+   * @param s the stream
+   * @serialData The size of the queue and the heap arity shift, followed by all of its elements
+   * (each an {@code Object}) and their priorities (each a {@code long}) in the proper order.
+   */
+  private void writeObject(java.io.ObjectOutputStream s)
+      throws java.io.IOException {
+    // Write out element count, and any hidden stuff
+    s.defaultWriteObject();
+
+    for (int i = 0; i < size; i++) {
+      s.writeObject(queue[i].item);
+      s.writeLong(keys[i]);
+    }
+  }
+
+  /**
+   * Reconstitutes the {@code LongPriorityQueue} instance from a stream
+   * (that is, deserializes it).
+   *
+   * @param s the stream
+   */
+  @SuppressWarnings("unchecked")
+  private void readObject(java.io.ObjectInputStream s)
+      throws java.io.IOException, ClassNotFoundException {
+    // Read in size, and any hidden stuff
+    s.defaultReadObject();
+    if (size < 0) {
+      throw new java.io.InvalidObjectException("Illegal size: " + size);
+    }
+    IndexedPriorityQueue.arityShift(1 << shift);
+
+    int n = size, capacity = Math.max(n, 1);
+    queue = (Node<E>[]) new Node<?>[capacity];
+    keys = new long[capacity];
+    nodes = new HashMap<>(Math.max((int) (n / .75f) + 1, 16));
+
+    // Elements were written in heap order, so re-inserting them in
+    // that order never needs to sift.
+    size = 0;
+    for (int i = 0; i < n; i++) {
+      E e = (E) s.readObject();
+      long priority = s.readLong();
+      if (e == null || !offer(e, priority)) {
+        throw new java.io.InvalidObjectException("Null or duplicate element");
+      }
+    }
+    modCount = 0;
+  }
+
+  /**
+   * Creates a <em><a href="Spliterator.html#binding">late-binding</a></em>
+   * and <em>fail-fast</em> {@link Spliterator} over the elements in this
+   * queue.
+   *
+   * <p>The {@code Spliterator} reports {@link Spliterator#SIZED},
+   * {@link Spliterator#SUBSIZED}, {@link Spliterator#DISTINCT} and
+   * {@link Spliterator#NONNULL}.
+   *
+   * @return a {@code Spliterator} over the elements in this queue
+   */
+  public Spliterator<E> spliterator() {
+    return new HeapSpliterator<>(this, 0, -1, 0);
+  }
+
+  static final class HeapSpliterator<E> implements Spliterator<E> {
+
+    private final LongPriorityQueue<E> pq;
+    private int index;            // current index, modified on advance/split
+    private int fence;            // -1 until first use
+    private int expectedModCount; // initialized when fence set
+
+    HeapSpliterator(LongPriorityQueue<E> pq, int origin, int fence,
+        int expectedModCount) {
+      this.pq = pq;
+      this.index = origin;
+      this.fence = fence;
+      this.expectedModCount = expectedModCount;
+    }
+
+    private int getFence() { // initialize fence to size on first use
+      int hi;
+      if ((hi = fence) < 0) {
+        expectedModCount = pq.modCount;
+        hi = fence = pq.size;
+      }
+      return hi;
+    }
+
+    public HeapSpliterator<E> trySplit() {
+      int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+      return (lo >= mid) ? null :
+          new HeapSpliterator<>(pq, lo, index = mid, expectedModCount);
+    }
+
+    public void forEachRemaining(Consumer<? super E> action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      int hi = getFence(), i = index;
+      Node<E>[] a = pq.queue;
+      index = hi;
+      if (i < 0 || hi > a.length) {
+        throw new ConcurrentModificationException();
+      }
+      for (; i < hi; ++i) {
+        Node<E> e = a[i];
+        if (e == null) {
+          throw new ConcurrentModificationException();
+        }
+        action.accept(e.item);
+      }
+      if (pq.modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+    }
+
+    public boolean tryAdvance(Consumer<? super E> action) {
+      if (action == null) {
+        throw new NullPointerException();
+      }
+      int hi = getFence(), lo = index;
+      if (lo >= 0 && lo < hi) {
+        index = lo + 1;
+        Node<E> e = pq.queue[lo];
+        if (e == null) {
+          throw new ConcurrentModificationException();
+        }
+        action.accept(e.item);
+        if (pq.modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        return true;
+      }
+      return false;
+    }
+
+    public long estimateSize() {
+      return (long) (getFence() - index);
+    }
+
+    public int characteristics() {
+      return Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL |
+          Spliterator.DISTINCT;
+    }
+  }
+}
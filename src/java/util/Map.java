@@ -110,6 +110,30 @@ import java.io.Serializable;
  * Implementations may optionally handle the self-referential scenario, however
  * most current implementations do not do so.
  *
+ * <h2><a name="immutable">Immutable Map Static Factory Methods</a></h2>
+ * <p>The {@link Map#of() Map.of()} and
+ * {@link Map#ofEntries(Map.Entry...) Map.ofEntries()}
+ * static factory methods provide a convenient way to create immutable maps.
+ * The {@code Map}
+ * instances created by these methods have the following characteristics:
+ *
+ * <ul>
+ * <li>They cannot be modified. Attempting to modify them always causes
+ * {@code UnsupportedOperationException} to be thrown.
+ * <li>They disallow {@code null} keys and values. Attempts to create them with
+ * {@code null} keys or values result in {@code NullPointerException}.
+ * <li>They reject duplicate keys at creation time. Duplicate keys
+ * passed to a static factory method result in {@code IllegalArgumentException}.
+ * <li>They are serializable if all keys and values are serializable.
+ * <li>The iteration order of mappings is unspecified and is subject to change.
+ * <li>A map of one mapping holds it in fields, and larger maps hold their
+ * keys and values interleaved in a single open-addressed array, with no
+ * entry objects, so they are considerably smaller than an unmodifiable
+ * wrapper around a {@code HashMap}.
+ * <li>They are value-based: callers should make no assumptions about
+ * the identity of the returned instances.
+ * </ul>
+ *
  * <p>This interface is a member of the
  * <a href="{@docRoot}/../technotes/guides/collections/index.html">
  * Java Collections Framework</a>.
@@ -1083,4 +1107,186 @@ public interface Map<K, V> {
     }
     return newValue;
   }
+
+  /**
+   * Returns an immutable map containing zero mappings.
+   * See <a href="#immutable">Immutable Map Static Factory Methods</a> for details.
+   *
+   * @param <K> the {@code Map}'s key type
+   * @param <V> the {@code Map}'s value type
+   * @return an empty {@code Map}
+   * @since 1.8
+   */
+  static <K, V> Map<K, V> of() {
+    return ImmutableCollections.emptyMap();
+  }
+
+  /**
+   * Returns an immutable map containing a single mapping.
+   * See <a href="#immutable">Immutable Map Static Factory Methods</a> for details.
+   *
+   * @param <K> the {@code Map}'s key type
+   * @param <V> the {@code Map}'s value type
+   * @param k1 the mapping's key
+   * @param v1 the mapping's value
+   * @return a {@code Map} containing the specified mapping
+   * @throws NullPointerException if any key or value is {@code null}
+   * @since 1.8
+   */
+  static <K, V> Map<K, V> of(K k1, V v1) {
+    return new ImmutableCollections.Map1<>(k1, v1);
+  }
+
+  /**
+   * Returns an immutable map containing two mappings.
+   * See <a href="#immutable">Immutable Map Static Factory Methods</a> for details.
+   *
+   * @param <K> the {@code Map}'s key type
+   * @param <V> the {@code Map}'s value type
+   * @param k1 the first mapping's key
+   * @param v1 the first mapping's value
+   * @param k2 the second mapping's key
+   * @param v2 the second mapping's value
+   * @return a {@code Map} containing the specified mappings
+   * @throws IllegalArgumentException if there are any duplicate keys
+   * @throws NullPointerException if any key or value is {@code null}
+   * @since 1.8
+   */
+  static <K, V> Map<K, V> of(K k1, V v1, K k2, V v2) {
+    return new ImmutableCollections.MapN<>(k1, v1, k2, v2);
+  }
+
+  /**
+   * Returns an immutable map containing three mappings.
+   * See <a href="#immutable">Immutable Map Static Factory Methods</a> for details.
+   *
+   * @param <K> the {@code Map}'s key type
+   * @param <V> the {@code Map}'s value type
+   * @param k1 the first mapping's key
+   * @param v1 the first mapping's value
+   * @param k2 the second mapping's key
+   * @param v2 the second mapping's value
+   * @param k3 the third mapping's key
+   * @param v3 the third mapping's value
+   * @return a {@code Map} containing the specified mappings
+   * @throws IllegalArgumentException if there are any duplicate keys
+   * @throws NullPointerException if any key or value is {@code null}
+   * @since 1.8
+   */
+  static <K, V> Map<K, V> of(K k1, V v1, K k2, V v2, K k3, V v3) {
+    return new ImmutableCollections.MapN<>(k1, v1, k2, v2, k3, v3);
+  }
+
+  /**
+   * Returns an immutable map containing four mappings.
+   * See <a href="#immutable">Immutable Map Static Factory Methods</a> for details.
+   *
+   * @param <K> the {@code Map}'s key type
+   * @param <V> the {@code Map}'s value type
+   * @param k1 the first mapping's key
+   * @param v1 the first mapping's value
+   * @param k2 the second mapping's key
+   * @param v2 the second mapping's value
+   * @param k3 the third mapping's key
+   * @param v3 the third mapping's value
+   * @param k4 the fourth mapping's key
+   * @param v4 the fourth mapping's value
+   * @return a {@code Map} containing the specified mappings
+   * @throws IllegalArgumentException if there are any duplicate keys
+   * @throws NullPointerException if any key or value is {@code null}
+   * @since 1.8
+   */
+  static <K, V> Map<K, V> of(K k1, V v1, K k2, V v2, K k3, V v3, K k4, V v4) {
+    return new ImmutableCollections.MapN<>(k1, v1, k2, v2, k3, v3, k4, v4);
+  }
+
+  /**
+   * Returns an immutable map containing five mappings.
+   * See <a href="#immutable">Immutable Map Static Factory Methods</a> for details.
+   *
+   * @param <K> the {@code Map}'s key type
+   * @param <V> the {@code Map}'s value type
+   * @param k1 the first mapping's key
+   * @param v1 the first mapping's value
+   * @param k2 the second mapping's key
+   * @param v2 the second mapping's value
+   * @param k3 the third mapping's key
+   * @param v3 the third mapping's value
+   * @param k4 the fourth mapping's key
+   * @param v4 the fourth mapping's value
+   * @param k5 the fifth mapping's key
+   * @param v5 the fifth mapping's value
+   * @return a {@code Map} containing the specified mappings
+   * @throws IllegalArgumentException if there are any duplicate keys
+   * @throws NullPointerException if any key or value is {@code null}
+   * @since 1.8
+   */
+  static <K, V> Map<K, V> of(K k1, V v1, K k2, V v2, K k3, V v3, K k4, V v4, K k5, V v5) {
+    return new ImmutableCollections.MapN<>(k1, v1, k2, v2, k3, v3, k4, v4, k5, v5);
+  }
+
+  /**
+   * Returns an immutable map containing keys and values extracted from the given entries.
+   * The entries themselves are not stored in the map.
+   * See <a href="#immutable">Immutable Map Static Factory Methods</a> for details.
+   *
+   * @param <K> the {@code Map}'s key type
+   * @param <V> the {@code Map}'s value type
+   * @param entries {@code Map.Entry}s containing the keys and values from which the map is
+   * populated
+   * @return a {@code Map} containing the specified mappings
+   * @throws IllegalArgumentException if there are any duplicate keys
+   * @throws NullPointerException if any entry, key, or value is {@code null}, or if the {@code
+   * entries} array is {@code null}
+   * @see Map#entry Map.entry()
+   * @since 1.8
+   */
+  @SafeVarargs
+  @SuppressWarnings("varargs")
+  static <K, V> Map<K, V> ofEntries(Entry<? extends K, ? extends V>... entries) {
+    if (entries.length == 0) { // implicit null check of entries
+      return ImmutableCollections.emptyMap();
+    } else if (entries.length == 1) {
+      return new ImmutableCollections.Map1<>(entries[0].getKey(),
+          entries[0].getValue());
+    } else {
+      Object[] kva = new Object[entries.length << 1];
+      int a = 0;
+      for (Entry<? extends K, ? extends V> entry : entries) {
+        kva[a++] = entry.getKey();
+        kva[a++] = entry.getValue();
+      }
+      return new ImmutableCollections.MapN<>(kva);
+    }
+  }
+
+  /**
+   * Returns an immutable {@link Entry} containing the given key and value.
+   * These entries are suitable for populating {@code Map} instances using the
+   * {@link Map#ofEntries Map.ofEntries()} method.
+   * The {@code Entry} instances created by this method have the following characteristics:
+   *
+   * <ul>
+   * <li>They disallow {@code null} keys and values. Attempts to create them using a {@code null}
+   * key or value result in {@code NullPointerException}.
+   * <li>They are immutable. Calls to {@link Entry#setValue Entry.setValue()}
+   * on a returned {@code Entry} result in {@code UnsupportedOperationException}.
+   * <li>They are not serializable.
+   * <li>They are value-based: callers should make no assumptions about
+   * the identity of the returned instances.
+   * </ul>
+   *
+   * @param <K> the key's type
+   * @param <V> the value's type
+   * @param k the key
+   * @param v the value
+   * @return an {@code Entry} containing the specified key and value
+   * @throws NullPointerException if the key or value is {@code null}
+   * @see Map#ofEntries Map.ofEntries()
+   * @since 1.8
+   */
+  static <K, V> Entry<K, V> entry(K k, V v) {
+    // KeyValueHolder checks for nulls
+    return new ImmutableCollections.KeyValueHolder<>(k, v);
+  }
 }
@@ -34,8 +34,15 @@ import java.io.Reader;
 import java.io.Writer;
 import java.io.OutputStreamWriter;
 import java.io.BufferedWriter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import sun.util.spi.XmlPropertiesProvider;
 
@@ -110,6 +117,13 @@ import sun.util.spi.XmlPropertiesProvider;
  * <p>This class is thread-safe: multiple threads can share a single
  * <tt>Properties</tt> object without the need for external synchronization.
  *
+ * @implNote The {@code Properties} class does not use the hash table
+ * inherited from {@code Hashtable}. Its entries are kept in a
+ * {@link ConcurrentHashMap}, so that {@link #getProperty}, {@code get} and
+ * other read operations do not lock the object. Operations that modify the
+ * property list remain {@code synchronized} on the {@code Properties} object,
+ * as do its collection views, whose iterators are weakly consistent.
+ *
  * @author Arthur van Hoff
  * @author Michael McCloskey
  * @author Xueming Shen
@@ -134,11 +148,19 @@ public class Properties extends Hashtable<Object, Object> {
    */
   protected Properties defaults;
 
+  /**
+   * Properties does not store values in its inherited Hashtable, but instead
+   * in an internal ConcurrentHashMap.  Synchronization is omitted from
+   * simple read operations.  Writes and bulk operations remain synchronized,
+   * as in Hashtable.
+   */
+  private transient volatile ConcurrentHashMap<Object, Object> map;
+
   /**
    * Creates an empty property list with no default values.
    */
   public Properties() {
-    this(null);
+    this(null, 8);
   }
 
   /**
@@ -147,6 +169,14 @@ public class Properties extends Hashtable<Object, Object> {
    * @param defaults the defaults.
    */
   public Properties(Properties defaults) {
+    this(defaults, 8);
+  }
+
+  private Properties(Properties defaults, int initialCapacity) {
+    // use package-private constructor to
+    // initialize unused fields with dummy values
+    super((Void) null);
+    map = new ConcurrentHashMap<>(initialCapacity);
     this.defaults = defaults;
   }
 
@@ -396,6 +426,10 @@ public class Properties extends Hashtable<Object, Object> {
    * (\u0020, \u0009 and \u000c) from the beginning of a "natural line".
    * Method returns the char length of the "logical line" and stores
    * the line in "lineBuf".
+   *
+   * The input buffer is scanned in bulk: runs of ordinary characters are
+   * copied into lineBuf at once, and comment lines are skipped by
+   * searching for the next line terminator.
    */
   class LineReader {
 
@@ -417,24 +451,57 @@ public class Properties extends Hashtable<Object, Object> {
     InputStream inStream;
     Reader reader;
 
+    /**
+     * Refills the input buffer, returning the new limit, which is not
+     * positive at the end of input.
+     */
+    private int fill() throws IOException {
+      inOff = 0;
+      return inLimit = (inStream == null) ? reader.read(inCharBuf)
+          : inStream.read(inByteBuf);
+    }
+
+    /**
+     * Grows lineBuf to hold at least the given number of chars.
+     */
+    private char[] growLineBuf(int len, int minLength) {
+      int newLength = lineBuf.length * 2;
+      if (newLength < minLength) {
+        newLength = minLength;
+      }
+      if (newLength < 0) {
+        newLength = Integer.MAX_VALUE;
+      }
+      char[] buf = new char[newLength];
+      System.arraycopy(lineBuf, 0, buf, 0, len);
+      return lineBuf = buf;
+    }
+
     int readLine() throws IOException {
+      // The input buffers, offset and limit are kept in locals, and
+      // written back to inOff whenever the buffer is refilled or a
+      // line is returned
+      final byte[] byteBuf = inByteBuf;
+      final char[] charBuf = inCharBuf;
+      final boolean fromStream = (inStream != null);
+      char[] line = lineBuf;
+      int off = inOff;
+      int limit = inLimit;
       int len = 0;
-      char c = 0;
+      char c;
 
       boolean skipWhiteSpace = true;
-      boolean isCommentLine = false;
       boolean isNewLine = true;
       boolean appendedLineBegin = false;
       boolean precedingBackslash = false;
       boolean skipLF = false;
 
       while (true) {
-        if (inOff >= inLimit) {
-          inLimit = (inStream == null) ? reader.read(inCharBuf)
-              : inStream.read(inByteBuf);
-          inOff = 0;
-          if (inLimit <= 0) {
-            if (len == 0 || isCommentLine) {
+        if (off >= limit) {
+          limit = fill();
+          off = 0;
+          if (limit <= 0) {
+            if (len == 0) {
               return -1;
             }
             if (precedingBackslash) {
@@ -443,13 +510,9 @@ public class Properties extends Hashtable<Object, Object> {
             return len;
           }
         }
-        if (inStream != null) {
-          //The line below is equivalent to calling a
-          //ISO8859-1 decoder.
-          c = (char) (0xff & inByteBuf[inOff++]);
-        } else {
-          c = inCharBuf[inOff++];
-        }
+        //The byte conversion below is equivalent to calling a
+        //ISO8859-1 decoder.
+        c = fromStream ? (char) (0xff & byteBuf[off++]) : charBuf[off++];
         if (skipLF) {
           skipLF = false;
           if (c == '\n') {
@@ -469,43 +532,97 @@ public class Properties extends Hashtable<Object, Object> {
         if (isNewLine) {
           isNewLine = false;
           if (c == '#' || c == '!') {
-            isCommentLine = true;
+            // Skip the comment up to the next line terminator, which
+            // is left for the blank line skipping above. The backslash
+            // flag is tracked through the comment as it always has been.
+            while (true) {
+              if (fromStream) {
+                while (off < limit) {
+                  byte b = byteBuf[off];
+                  if (b == '\n' || b == '\r') {
+                    break;
+                  }
+                  precedingBackslash = (b == '\\') && !precedingBackslash;
+                  off++;
+                }
+              } else {
+                while (off < limit) {
+                  char ch = charBuf[off];
+                  if (ch == '\n' || ch == '\r') {
+                    break;
+                  }
+                  precedingBackslash = (ch == '\\') && !precedingBackslash;
+                  off++;
+                }
+              }
+              if (off < limit) {
+                break;
+              }
+              limit = fill();
+              off = 0;
+              if (limit <= 0) {
+                return -1;
+              }
+            }
+            isNewLine = true;
+            skipWhiteSpace = true;
             continue;
           }
         }
 
         if (c != '\n' && c != '\r') {
-          lineBuf[len++] = c;
-          if (len == lineBuf.length) {
-            int newLength = lineBuf.length * 2;
-            if (newLength < 0) {
-              newLength = Integer.MAX_VALUE;
-            }
-            char[] buf = new char[newLength];
-            System.arraycopy(lineBuf, 0, buf, 0, lineBuf.length);
-            lineBuf = buf;
-          }
-          //flip the preceding backslash flag
           if (c == '\\') {
+            if (len == line.length) {
+              line = growLineBuf(len, len + 1);
+            }
+            line[len++] = c;
+            //flip the preceding backslash flag
             precedingBackslash = !precedingBackslash;
+            continue;
+          }
+          // Copy the run of ordinary characters starting at c
+          int start = off - 1;
+          if (fromStream) {
+            while (off < limit) {
+              byte b = byteBuf[off];
+              if (b == '\n' || b == '\r' || b == '\\') {
+                break;
+              }
+              off++;
+            }
           } else {
-            precedingBackslash = false;
+            while (off < limit) {
+              char ch = charBuf[off];
+              if (ch == '\n' || ch == '\r' || ch == '\\') {
+                break;
+              }
+              off++;
+            }
           }
+          int n = off - start;
+          if (len + n > line.length) {
+            line = growLineBuf(len, len + n);
+          }
+          if (fromStream) {
+            for (int i = start; i < off; i++) {
+              line[len++] = (char) (0xff & byteBuf[i]);
+            }
+          } else {
+            System.arraycopy(charBuf, start, line, len, n);
+            len += n;
+          }
+          precedingBackslash = false;
         } else {
           // reached EOL
-          if (isCommentLine || len == 0) {
-            isCommentLine = false;
+          if (len == 0) {
             isNewLine = true;
             skipWhiteSpace = true;
-            len = 0;
             continue;
           }
-          if (inOff >= inLimit) {
-            inLimit = (inStream == null)
-                ? reader.read(inCharBuf)
-                : inStream.read(inByteBuf);
-            inOff = 0;
-            if (inLimit <= 0) {
+          if (off >= limit) {
+            limit = fill();
+            off = 0;
+            if (limit <= 0) {
               if (precedingBackslash) {
                 len--;
               }
@@ -522,6 +639,7 @@ public class Properties extends Hashtable<Object, Object> {
               skipLF = true;
             }
           } else {
+            inOff = off;
             return len;
           }
         }
@@ -857,9 +975,9 @@ public class Properties extends Hashtable<Object, Object> {
     bw.write("#" + new Date().toString());
     bw.newLine();
     synchronized (this) {
-      for (Enumeration<?> e = keys(); e.hasMoreElements(); ) {
-        String key = (String) e.nextElement();
-        String val = (String) get(key);
+      for (Map.Entry<Object, Object> e : entrySet()) {
+        String key = (String) e.getKey();
+        String val = (String) e.getValue();
         key = saveConvert(key, true, escUnicode);
                 /* No need to escape embedded and trailing spaces for value, hence
                  * pass false to flag.
@@ -982,7 +1100,7 @@ public class Properties extends Hashtable<Object, Object> {
    * @see #defaults
    */
   public String getProperty(String key) {
-    Object oval = super.get(key);
+    Object oval = map.get(key);
     String sval = (oval instanceof String) ? (String) oval : null;
     return ((sval == null) && (defaults != null)) ? defaults.getProperty(key) : sval;
   }
@@ -1100,13 +1218,13 @@ public class Properties extends Hashtable<Object, Object> {
    * @param h the hashtable
    * @throws ClassCastException if any of the property keys is not of String type.
    */
-  private synchronized void enumerate(Hashtable<String, Object> h) {
+  private void enumerate(Hashtable<String, Object> h) {
     if (defaults != null) {
       defaults.enumerate(h);
     }
-    for (Enumeration<?> e = keys(); e.hasMoreElements(); ) {
-      String key = (String) e.nextElement();
-      h.put(key, get(key));
+    for (Map.Entry<Object, Object> e : entrySet()) {
+      String key = (String) e.getKey();
+      h.put(key, e.getValue());
     }
   }
 
@@ -1116,19 +1234,340 @@ public class Properties extends Hashtable<Object, Object> {
    *
    * @param h the hashtable
    */
-  private synchronized void enumerateStringProperties(Hashtable<String, String> h) {
+  private void enumerateStringProperties(Hashtable<String, String> h) {
     if (defaults != null) {
       defaults.enumerateStringProperties(h);
     }
-    for (Enumeration<?> e = keys(); e.hasMoreElements(); ) {
-      Object k = e.nextElement();
-      Object v = get(k);
+    for (Map.Entry<Object, Object> e : entrySet()) {
+      Object k = e.getKey();
+      Object v = e.getValue();
       if (k instanceof String && v instanceof String) {
         h.put((String) k, (String) v);
       }
     }
   }
 
+  //
+  // Hashtable methods overridden and delegated to a ConcurrentHashMap instance
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public Enumeration<Object> keys() {
+    // CHM.keys() returns Iterator w/ remove() - instead wrap keySet()
+    return Collections.enumeration(map.keySet());
+  }
+
+  @Override
+  public Enumeration<Object> elements() {
+    // CHM.elements() returns Iterator w/ remove() - instead wrap values()
+    return Collections.enumeration(map.values());
+  }
+
+  @Override
+  public boolean contains(Object value) {
+    return map.contains(value);
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    return map.containsValue(value);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return map.containsKey(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    return map.get(key);
+  }
+
+  @Override
+  public synchronized Object put(Object key, Object value) {
+    return map.put(key, value);
+  }
+
+  @Override
+  public synchronized Object remove(Object key) {
+    return map.remove(key);
+  }
+
+  @Override
+  public synchronized void putAll(Map<?, ?> t) {
+    map.putAll(t);
+  }
+
+  @Override
+  public synchronized void clear() {
+    map.clear();
+  }
+
+  @Override
+  public synchronized String toString() {
+    return map.toString();
+  }
+
+  @Override
+  public Set<Object> keySet() {
+    return Collections.synchronizedSet(map.keySet(), this);
+  }
+
+  @Override
+  public Collection<Object> values() {
+    return Collections.synchronizedCollection(map.values(), this);
+  }
+
+  @Override
+  public Set<Map.Entry<Object, Object>> entrySet() {
+    return Collections.synchronizedSet(new EntrySet(map.entrySet()), this);
+  }
+
+  /*
+   * Properties.entrySet() should not support add/addAll, however
+   * ConcurrentHashMap.entrySet() provides add/addAll.  This class wraps the
+   * Set returned from CHM, changing add/addAll to throw UOE.
+   */
+  private static class EntrySet implements Set<Map.Entry<Object, Object>> {
+
+    private Set<Map.Entry<Object, Object>> entrySet;
+
+    private EntrySet(Set<Map.Entry<Object, Object>> entrySet) {
+      this.entrySet = entrySet;
+    }
+
+    @Override
+    public int size() {
+      return entrySet.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return entrySet.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return entrySet.contains(o);
+    }
+
+    @Override
+    public Object[] toArray() {
+      return entrySet.toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+      return entrySet.toArray(a);
+    }
+
+    @Override
+    public void clear() {
+      entrySet.clear();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      return entrySet.remove(o);
+    }
+
+    @Override
+    public boolean add(Map.Entry<Object, Object> e) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Map.Entry<Object, Object>> c) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+      return entrySet.containsAll(c);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o == this || entrySet.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+      return entrySet.hashCode();
+    }
+
+    @Override
+    public String toString() {
+      return entrySet.toString();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+      return entrySet.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+      return entrySet.retainAll(c);
+    }
+
+    @Override
+    public Iterator<Map.Entry<Object, Object>> iterator() {
+      return entrySet.iterator();
+    }
+  }
+
+  @Override
+  public synchronized boolean equals(Object o) {
+    return map.equals(o);
+  }
+
+  @Override
+  public synchronized int hashCode() {
+    return map.hashCode();
+  }
+
+  @Override
+  public Object getOrDefault(Object key, Object defaultValue) {
+    return map.getOrDefault(key, defaultValue);
+  }
+
+  @Override
+  public synchronized void forEach(BiConsumer<? super Object, ? super Object> action) {
+    map.forEach(action);
+  }
+
+  @Override
+  public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+    map.replaceAll(function);
+  }
+
+  @Override
+  public synchronized Object putIfAbsent(Object key, Object value) {
+    return map.putIfAbsent(key, value);
+  }
+
+  @Override
+  public synchronized boolean remove(Object key, Object value) {
+    return map.remove(key, value);
+  }
+
+  @Override
+  public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+    return map.replace(key, oldValue, newValue);
+  }
+
+  @Override
+  public synchronized Object replace(Object key, Object value) {
+    return map.replace(key, value);
+  }
+
+  @Override
+  public synchronized Object computeIfAbsent(Object key,
+      Function<? super Object, ?> mappingFunction) {
+    return map.computeIfAbsent(key, mappingFunction);
+  }
+
+  @Override
+  public synchronized Object computeIfPresent(Object key,
+      BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    return map.computeIfPresent(key, remappingFunction);
+  }
+
+  @Override
+  public synchronized Object compute(Object key,
+      BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    return map.compute(key, remappingFunction);
+  }
+
+  @Override
+  public synchronized Object merge(Object key, Object value,
+      BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+    return map.merge(key, value, remappingFunction);
+  }
+
+  //
+  // Special Hashtable methods
+
+  @Override
+  protected void rehash() { /* no-op */ }
+
+  @Override
+  public synchronized Object clone() {
+    Properties clone = (Properties) cloneHashtable();
+    clone.map = new ConcurrentHashMap<>(map);
+    return clone;
+  }
+
+  //
+  // Hashtable serialization overrides
+  // (these should emit and consume Hashtable-compatible stream)
+
+  @Override
+  void writeHashtable(ObjectOutputStream s) throws IOException {
+    List<Object> entryStack = new ArrayList<>(map.size() * 2);  // an estimate
+
+    for (Map.Entry<Object, Object> entry : map.entrySet()) {
+      entryStack.add(entry.getValue());
+      entryStack.add(entry.getKey());
+    }
+
+    // Write out the simulated threshold, loadfactor
+    float loadFactor = 0.75f;
+    int count = entryStack.size() / 2;
+    int length = (int) (count / loadFactor) + (count / 20) + 3;
+    if (length > count && (length & 1) == 0) {
+      length--;
+    }
+    synchronized (map) { // in case of multiple concurrent serializations
+      defaultWriteHashtable(s, length, loadFactor);
+    }
+
+    // Write out simulated length and real count of elements
+    s.writeInt(length);
+    s.writeInt(count);
+
+    // Write out the key/value objects from the stacked entries
+    for (int i = entryStack.size() - 1; i >= 0; i--) {
+      s.writeObject(entryStack.get(i));
+    }
+  }
+
+  @Override
+  void readHashtable(ObjectInputStream s) throws IOException,
+      ClassNotFoundException {
+    // Read in the threshold and loadfactor
+    s.defaultReadObject();
+
+    // Read the original length of the array and number of elements
+    int origlength = s.readInt();
+    int elements = s.readInt();
+
+    // Validate # of elements
+    if (elements < 0) {
+      throw new StreamCorruptedException("Illegal # of Elements: " + elements);
+    }
+
+    // create CHM of appropriate capacity
+    map = new ConcurrentHashMap<>(elements);
+
+    // Read all the key/value objects
+    for (; elements > 0; elements--) {
+      Object key = s.readObject();
+      Object value = s.readObject();
+      map.put(key, value);
+    }
+  }
+
   /**
    * Convert a nibble to a hex character
    *
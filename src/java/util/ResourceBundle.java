@@ -40,8 +40,11 @@
 
 package java.util;
 
+import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
@@ -228,6 +231,34 @@ import sun.util.locale.LocaleObjectCache;
  * Control#needsReload(String, Locale, String, ClassLoader, ResourceBundle,
  * long) ResourceBundle.Control.needsReload} for details.
  *
+ * <p>When the default {@code Control}, or one returned by {@link
+ * Control#getControl(List) Control.getControl} or {@link
+ * Control#getNoFallbackControl(List) Control.getNoFallbackControl}, is
+ * used, the outcome of each lookup, including the failure to find any
+ * resource bundle, is also cached against the requested base name, locale
+ * and class loader, so that a later lookup for a locale that has no
+ * resource bundle of its own does not search the candidate locales again.
+ * The outcome is only reused while the default locale is unchanged, and
+ * is removed by {@link #clearCache(ClassLoader) clearCache}.
+ *
+ * <p><a name="index"></a>For the system class loader and such a {@code
+ * Control}, the class loader need not be searched for the resource bundles
+ * of a candidate locale that do not exist.  A <i>bundle index</i>, a UTF-8
+ * file prepared when an application is built and named by the system
+ * property {@code java.util.ResourceBundle.index}, lists the resource
+ * bundles that exist for some base names.  A line of the form
+ * <code>@base=<i>baseName</i></code> names a base name the index covers,
+ * and a line of the form <code><i>bundleName</i>=<i>format</i></code>,
+ * such as {@code com.example.Messages_fr=java.properties}, states that a
+ * resource bundle of the given {@linkplain Control#toBundleName bundle
+ * name} exists in the given format.  For a base name that the index
+ * covers, a resource bundle not listed is taken not to exist.  Blank lines
+ * and lines starting with {@code '#'} are ignored.  A line of the form
+ * <code>@classpath=<i>path</i></code> states the class path for which
+ * the index was prepared, and if it differs from the value of the {@code
+ * java.class.path} system property the index is not used; neither is an
+ * index that cannot be read or is not in this format.
+ *
  * <h3>Example</h3>
  *
  * The following is a very simple example of a <code>ResourceBundle</code>
@@ -323,6 +354,15 @@ public abstract class ResourceBundle {
   private static final ConcurrentMap<CacheKey, BundleReference> cacheList
       = new ConcurrentHashMap<>(INITIAL_CACHE_SIZE);
 
+  /**
+   * The outcomes of lookups with a known Control: a map from cache keys
+   * with the requested base name, locale and class loader to the bundle
+   * returned, or NONEXISTENT_BUNDLE if none was found, wrapped by a
+   * ResolvedReference.
+   */
+  private static final ConcurrentMap<CacheKey, ResolvedReference> resolvedCache
+      = new ConcurrentHashMap<>(INITIAL_CACHE_SIZE);
+
   /**
    * Queue for reference objects referring to class loaders or bundles.
    */
@@ -766,6 +806,135 @@ public abstract class ResourceBundle {
     }
   }
 
+  /**
+   * The outcome of a lookup, with the Control and default locale it
+   * depends on, and for a failed lookup the cause it reported.  Soft,
+   * like BundleReference, but not enqueued: its key is removed from
+   * resolvedCache with the key's class loader.
+   */
+  private static class ResolvedReference extends SoftReference<ResourceBundle> {
+
+    private final Control control;
+    private final Locale defaultLocale;
+    private final Throwable cause;
+
+    ResolvedReference(ResourceBundle referent, Control control, Locale defaultLocale,
+        Throwable cause) {
+      super(referent);
+      this.control = control;
+      this.defaultLocale = defaultLocale;
+      this.cause = cause;
+    }
+
+    Throwable getCause() {
+      return cause;
+    }
+
+    /**
+     * Returns the bundle if this outcome holds for the given Control and
+     * the current default locale, or null.
+     */
+    ResourceBundle get(Control control) {
+      if (this.control != control || !defaultLocale.equals(Locale.getDefault())) {
+        return null;
+      }
+      return get();
+    }
+  }
+
+  /**
+   * The bundle index named by the java.util.ResourceBundle.index system
+   * property, read on first use.
+   */
+  private static class BundleIndex {
+
+    /**
+     * The index, or null if there is no usable index.
+     */
+    private static final BundleIndex INDEX = AccessController.doPrivileged(
+        new PrivilegedAction<BundleIndex>() {
+          public BundleIndex run() {
+            String file = System.getProperty("java.util.ResourceBundle.index");
+            if (file == null || file.isEmpty()) {
+              return null;
+            }
+            try {
+              return read(file, System.getProperty("java.class.path", ""));
+            } catch (IOException | RuntimeException e) {
+              return null;
+            }
+          }
+        });
+
+    /**
+     * The base names covered.
+     */
+    private final Set<String> baseNames;
+
+    /**
+     * The existing bundles, each as bundleName=format.
+     */
+    private final Set<String> bundles;
+
+    private BundleIndex(Set<String> baseNames, Set<String> bundles) {
+      this.baseNames = baseNames;
+      this.bundles = bundles;
+    }
+
+    /**
+     * Reads an index, returning null if it is malformed or was prepared
+     * for another class path.
+     */
+    private static BundleIndex read(String file, String classPath)
+        throws IOException {
+      Set<String> baseNames = new HashSet<>();
+      Set<String> bundles = new HashSet<>();
+      try (BufferedReader r = new BufferedReader(
+          new InputStreamReader(new FileInputStream(file), "UTF-8"))) {
+        String line;
+        while ((line = r.readLine()) != null) {
+          line = line.trim();
+          if (line.isEmpty() || line.charAt(0) == '#') {
+            continue;
+          }
+          int eq = line.indexOf('=');
+          if (eq <= 0) {
+            return null;
+          }
+          String key = line.substring(0, eq).trim();
+          String value = line.substring(eq + 1).trim();
+          if (key.equals("@classpath")) {
+            if (!value.equals(classPath)) {
+              return null;
+            }
+          } else if (key.equals("@base")) {
+            baseNames.add(value);
+          } else if (value.equals("java.class") || value.equals("java.properties")) {
+            bundles.add(key + '=' + value);
+          } else {
+            return null;
+          }
+        }
+      }
+      return new BundleIndex(baseNames, bundles);
+    }
+
+    /**
+     * Returns true if the index states that the given bundle does not exist
+     * in the given format.
+     */
+    static boolean isAbsent(String baseName, Locale locale, String format,
+        ClassLoader loader, Control control) {
+      BundleIndex index = INDEX;
+      if (index == null || !index.baseNames.contains(baseName)
+          || loader != ClassLoader.getSystemClassLoader()
+          || !(control == Control.INSTANCE || control instanceof SingleFormatControl)) {
+        return false;
+      }
+      return !index.bundles.contains(control.toBundleName(baseName, locale) + '=' + format);
+    }
+  }
+
   /**
    * Gets a resource bundle using the specified base name, the default locale,
    * and the caller's class loader. Calling this method is equivalent to calling
@@ -1234,11 +1403,28 @@ public abstract class ResourceBundle {
       return bundle;
     }
 
+    // A known control arrives at the same outcome each time for the same
+    // default locale, which it falls back to, so a cached outcome can be
+    // used instead of searching the candidate locales again.
+    boolean isKnownControl = (control == Control.INSTANCE) ||
+        (control instanceof SingleFormatControl);
+    Locale defaultLocale = Locale.getDefault();
+    if (isKnownControl) {
+      ResolvedReference resolvedRef = resolvedCache.get(cacheKey);
+      if (resolvedRef != null) {
+        bundle = resolvedRef.get(control);
+        if (bundle == NONEXISTENT_BUNDLE) {
+          throwMissingResourceException(baseName, locale, resolvedRef.getCause());
+        }
+        if (bundle != null && hasValidParentChain(bundle)) {
+          return bundle;
+        }
+      }
+    }
+
     // No valid bundle was found in the cache, so we need to load the
     // resource bundle and its parents.
 
-    boolean isKnownControl = (control == Control.INSTANCE) ||
-        (control instanceof SingleFormatControl);
     List<String> formats = control.getFormats(baseName);
     if (!isKnownControl && !checkList(formats)) {
       throw new IllegalArgumentException("Invalid Control: getFormats");
@@ -1279,11 +1465,20 @@ public abstract class ResourceBundle {
 
     if (bundle == null) {
       if (baseBundle == null) {
+        if (isKnownControl) {
+          resolvedCache.put(new CacheKey(baseName, locale, loader),
+              new ResolvedReference(NONEXISTENT_BUNDLE, control, defaultLocale,
+                  cacheKey.getCause()));
+        }
         throwMissingResourceException(baseName, locale, cacheKey.getCause());
       }
       bundle = baseBundle;
     }
 
+    if (isKnownControl) {
+      resolvedCache.put(new CacheKey(baseName, locale, loader),
+          new ResolvedReference(bundle, control, defaultLocale, null));
+    }
     return bundle;
   }
 
@@ -1323,7 +1518,9 @@ public abstract class ResourceBundle {
     // information from the cache.
     Object ref;
     while ((ref = referenceQueue.poll()) != null) {
-      cacheList.remove(((CacheKeyReference) ref).getCacheKey());
+      CacheKey key = ((CacheKeyReference) ref).getCacheKey();
+      cacheList.remove(key);
+      resolvedCache.remove(key);
     }
 
     // flag indicating the resource bundle has expired in the cache
@@ -1392,6 +1589,10 @@ public abstract class ResourceBundle {
     int size = formats.size();
     for (int i = 0; i < size; i++) {
       String format = formats.get(i);
+      if (BundleIndex.isAbsent(cacheKey.getName(), targetLocale, format,
+          cacheKey.getLoader(), control)) {
+        continue;
+      }
       try {
         bundle = control.newBundle(cacheKey.getName(), targetLocale, format,
             cacheKey.getLoader(), reload);
@@ -1659,6 +1860,12 @@ public abstract class ResourceBundle {
         set.remove(key);
       }
     }
+    set = resolvedCache.keySet();
+    for (CacheKey key : set) {
+      if (key.getLoader() == loader) {
+        set.remove(key);
+      }
+    }
   }
 
   /**
@@ -26,6 +26,7 @@
 package java.util;
 
 import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -38,6 +39,7 @@ import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -95,6 +97,31 @@ import java.util.NoSuchElementException;
  * providers, adding each one to the cache in turn.  The cache can be cleared
  * via the {@link #reload reload} method.
  *
+ * <p><a name="index"></a>Locating the provider-configuration files of a
+ * service means searching every entry of a class path, which takes time
+ * when there are many entries.  The names of the providers found for each
+ * service and class loader are therefore cached when a search completes,
+ * and are used by service loaders created later instead of searching
+ * again.  The cached names are discarded by the {@link #reload reload}
+ * method, for the service and class loader of the service loader on which
+ * it is invoked, and by the {@link #clearCache(ClassLoader) clearCache}
+ * methods.
+ *
+ * <p> For the system class loader the search can also be avoided by a
+ * <i>service index</i>, a UTF-8 file prepared when an application is built
+ * that lists the providers of all services on its class path, named by the
+ * system property <tt>java.util.ServiceLoader.index</tt>.  Each line of an
+ * index has the form <tt><i>service</i>=<i>provider</i></tt>, giving the
+ * binary names of a service type and of one of its providers, in the order
+ * in which the provider-configuration files would list them; blank lines
+ * and lines starting with <tt>'#'</tt> are ignored.  An index is complete:
+ * a service it does not mention has no providers.  A line of the form
+ * <tt>@classpath=<i>path</i></tt> states the class path for which the
+ * index was prepared, and if it differs from the value of the
+ * <tt>java.class.path</tt> system property the index is not used.  An index
+ * that cannot be read or is not in this format is likewise ignored, and
+ * provider-configuration files are searched for as usual.
+ *
  * <p> Service loaders always execute in the security context of the caller.
  * Trusted system code should typically invoke the methods in this class, and
  * the methods of the iterators which they return, from within a privileged
@@ -212,15 +239,201 @@ public final class ServiceLoader<S>
    * can be installed into a running Java virtual machine.
    */
   public void reload() {
+    ProviderNames.remove(loader, service.getName());
     providers.clear();
     lookupIterator = new LazyIterator(service, loader);
   }
 
+  /**
+   * Removes the cached names of the providers of all services for the
+   * given class loader, so that service loaders created later search for
+   * provider-configuration files again.
+   *
+   * @param loader the class loader
+   * @since 1.8
+   */
+  public static void clearCache(ClassLoader loader) {
+    ProviderNames.clear(loader);
+  }
+
+  /**
+   * Removes the cached names of the providers of all services for all
+   * class loaders.
+   *
+   * @since 1.8
+   */
+  public static void clearCache() {
+    ProviderNames.clearAll();
+  }
+
+  /**
+   * The names of the providers of each service, by class loader, taken
+   * from the service index or from completed searches for
+   * provider-configuration files.
+   */
+  private static final class ProviderNames {
+
+    private ProviderNames() {
+    }
+
+    /**
+     * Names by service name, for each class loader.  The maps are created
+     * under the lock of this map; their own updates are concurrent.
+     */
+    private static final WeakHashMap<ClassLoader, ConcurrentHashMap<String, List<String>>>
+        cache = new WeakHashMap<>();
+
+    private static ConcurrentHashMap<String, List<String>> namesFor(
+        ClassLoader loader, boolean create) {
+      synchronized (cache) {
+        ConcurrentHashMap<String, List<String>> names = cache.get(loader);
+        if (names == null && create) {
+          names = new ConcurrentHashMap<>();
+          cache.put(loader, names);
+        }
+        return names;
+      }
+    }
+
+    /**
+     * Returns the names of the providers of a service for a class loader,
+     * or null if they are not known.
+     */
+    static List<String> get(ClassLoader loader, String service) {
+      ConcurrentHashMap<String, List<String>> names = namesFor(loader, false);
+      List<String> list = (names == null) ? null : names.get(service);
+      if (list == null && loader == ClassLoader.getSystemClassLoader()) {
+        Map<String, List<String>> index = Index.SERVICES;
+        if (index != null) {
+          list = index.get(service);
+          if (list == null) {
+            list = Collections.emptyList();
+          }
+        }
+      }
+      return list;
+    }
+
+    static void put(ClassLoader loader, String service, List<String> list) {
+      namesFor(loader, true).put(service,
+          Collections.unmodifiableList(new ArrayList<>(list)));
+    }
+
+    static void remove(ClassLoader loader, String service) {
+      ConcurrentHashMap<String, List<String>> names = namesFor(loader, false);
+      if (names != null) {
+        names.remove(service);
+      }
+    }
+
+    static void clear(ClassLoader loader) {
+      synchronized (cache) {
+        cache.remove(loader);
+      }
+    }
+
+    static void clearAll() {
+      synchronized (cache) {
+        cache.clear();
+      }
+    }
+  }
+
+  /**
+   * The service index named by the java.util.ServiceLoader.index system
+   * property, read on first use.
+   */
+  private static final class Index {
+
+    private Index() {
+    }
+
+    /**
+     * The providers by service name, or null if there is no usable index.
+     */
+    static final Map<String, List<String>> SERVICES =
+        AccessController.doPrivileged(
+            new PrivilegedAction<Map<String, List<String>>>() {
+              public Map<String, List<String>> run() {
+                String file = System.getProperty("java.util.ServiceLoader.index");
+                if (file == null || file.isEmpty()) {
+                  return null;
+                }
+                try {
+                  return read(file, System.getProperty("java.class.path", ""));
+                } catch (IOException | RuntimeException x) {
+                  return null;
+                }
+              }
+            });
+
+    /**
+     * Reads an index, returning null if it is malformed or was prepared for
+     * another class path.
+     */
+    static Map<String, List<String>> read(String file, String classPath)
+        throws IOException {
+      HashMap<String, List<String>> services = new HashMap<>();
+      try (BufferedReader r = new BufferedReader(
+          new InputStreamReader(new FileInputStream(file), "utf-8"))) {
+        String ln;
+        while ((ln = r.readLine()) != null) {
+          ln = ln.trim();
+          if (ln.isEmpty() || ln.charAt(0) == '#') {
+            continue;
+          }
+          int eq = ln.indexOf('=');
+          if (eq < 0) {
+            return null;
+          }
+          String key = ln.substring(0, eq).trim();
+          String value = ln.substring(eq + 1).trim();
+          if (key.equals("@classpath")) {
+            if (!value.equals(classPath)) {
+              return null;
+            }
+            continue;
+          }
+          if (!isBinaryName(key) || !isBinaryName(value)) {
+            return null;
+          }
+          List<String> names = services.get(key);
+          if (names == null) {
+            names = new ArrayList<>();
+            services.put(key, names);
+          }
+          if (!names.contains(value)) {
+            names.add(value);
+          }
+        }
+      }
+      for (Map.Entry<String, List<String>> e : services.entrySet()) {
+        e.setValue(Collections.unmodifiableList(e.getValue()));
+      }
+      return services;
+    }
+
+    private static boolean isBinaryName(String s) {
+      int n = s.length();
+      if (n == 0 || !Character.isJavaIdentifierStart(s.codePointAt(0))) {
+        return false;
+      }
+      for (int i = 0; i < n; ) {
+        int cp = s.codePointAt(i);
+        if (!Character.isJavaIdentifierPart(cp) && (cp != '.')) {
+          return false;
+        }
+        i += Character.charCount(cp);
+      }
+      return true;
+    }
+  }
+
   private ServiceLoader(Class<S> svc, ClassLoader cl) {
     service = Objects.requireNonNull(svc, "Service interface cannot be null");
     loader = (cl == null) ? ClassLoader.getSystemClassLoader() : cl;
     acc = (System.getSecurityManager() != null) ? AccessController.getContext() : null;
-    reload();
+    lookupIterator = new LazyIterator(service, loader);
   }
 
   private static void fail(Class<?> service, String msg, Throwable cause)
@@ -333,6 +546,11 @@ public final class ServiceLoader<S>
     Iterator<String> pending = null;
     String nextName = null;
 
+    // The names found by searching for provider-configuration files, in
+    // order, cached when the search completes; null when the names were
+    // taken from the cache
+    List<String> found = null;
+
     private LazyIterator(Class<S> service, ClassLoader loader) {
       this.service = service;
       this.loader = loader;
@@ -343,24 +561,44 @@ public final class ServiceLoader<S>
         return true;
       }
       if (configs == null) {
-        try {
-          String fullName = PREFIX + service.getName();
-          if (loader == null) {
-            configs = ClassLoader.getSystemResources(fullName);
-          } else {
-            configs = loader.getResources(fullName);
+        List<String> names = ProviderNames.get(loader, service.getName());
+        if (names != null) {
+          configs = Collections.emptyEnumeration();
+          pending = names.iterator();
+        } else {
+          try {
+            String fullName = PREFIX + service.getName();
+            if (loader == null) {
+              configs = ClassLoader.getSystemResources(fullName);
+            } else {
+              configs = loader.getResources(fullName);
+            }
+          } catch (IOException x) {
+            fail(service, "Error locating configuration files", x);
           }
-        } catch (IOException x) {
-          fail(service, "Error locating configuration files", x);
+          found = new ArrayList<>();
         }
       }
       while ((pending == null) || !pending.hasNext()) {
         if (!configs.hasMoreElements()) {
+          if (found != null) {
+            ProviderNames.put(loader, service.getName(), found);
+            found = null;
+          }
           return false;
         }
-        pending = parse(service, configs.nextElement());
+        try {
+          pending = parse(service, configs.nextElement());
+        } catch (ServiceConfigurationError e) {
+          // The names of a malformed file are not known, so none are cached
+          found = null;
+          throw e;
+        }
       }
       nextName = pending.next();
+      if (found != null) {
+        found.add(nextName);
+      }
       return true;
     }
 
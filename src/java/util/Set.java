@@ -63,6 +63,28 @@ package java.util;
  * Such exceptions are marked as "optional" in the specification for this
  * interface.
  *
+ * <h2><a name="immutable">Immutable Set Static Factory Methods</a></h2>
+ * <p>The {@link Set#of(Object...) Set.of()} static factory methods
+ * provide a convenient way to create immutable sets. The {@code Set}
+ * instances created by these methods have the following characteristics:
+ *
+ * <ul>
+ * <li>They cannot be modified. Attempting to modify them always causes
+ * {@code UnsupportedOperationException} to be thrown.
+ * <li>They disallow {@code null} elements. Attempts to create them with
+ * {@code null} elements result in {@code NullPointerException}.
+ * <li>They reject duplicate elements at creation time. Duplicate elements
+ * passed to a static factory method result in {@code IllegalArgumentException}.
+ * <li>They are serializable if all elements are serializable.
+ * <li>The iteration order of set elements is unspecified and is subject
+ * to change.
+ * <li>Sets of one or two elements hold them in fields, and larger sets
+ * hold them in a single open-addressed array, so they are considerably
+ * smaller than an unmodifiable wrapper around a {@code HashSet}.
+ * <li>They are value-based: callers should make no assumptions about
+ * the identity of the returned instances.
+ * </ul>
+ *
  * <p>This interface is a member of the
  * <a href="{@docRoot}/../technotes/guides/collections/index.html">
  * Java Collections Framework</a>.
@@ -380,4 +402,132 @@ public interface Set<E> extends Collection<E> {
   default Spliterator<E> spliterator() {
     return Spliterators.spliterator(this, Spliterator.DISTINCT);
   }
+
+  /**
+   * Returns an immutable set containing zero elements.
+   *
+   * See <a href="#immutable">Immutable Set Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code Set}'s element type
+   * @return an empty {@code Set}
+   * @since 1.8
+   */
+  static <E> Set<E> of() {
+    return ImmutableCollections.emptySet();
+  }
+
+  /**
+   * Returns an immutable set containing one element.
+   *
+   * See <a href="#immutable">Immutable Set Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code Set}'s element type
+   * @param e1 the single element
+   * @return a {@code Set} containing the specified element
+   * @throws NullPointerException if the element is {@code null}
+   * @since 1.8
+   */
+  static <E> Set<E> of(E e1) {
+    return new ImmutableCollections.Set12<>(e1);
+  }
+
+  /**
+   * Returns an immutable set containing two elements.
+   *
+   * See <a href="#immutable">Immutable Set Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code Set}'s element type
+   * @param e1 the first element
+   * @param e2 the second element
+   * @return a {@code Set} containing the specified elements
+   * @throws IllegalArgumentException if there are any duplicate elements
+   * @throws NullPointerException if an element is {@code null}
+   * @since 1.8
+   */
+  static <E> Set<E> of(E e1, E e2) {
+    return new ImmutableCollections.Set12<>(e1, e2);
+  }
+
+  /**
+   * Returns an immutable set containing three elements.
+   *
+   * See <a href="#immutable">Immutable Set Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code Set}'s element type
+   * @param e1 the first element
+   * @param e2 the second element
+   * @param e3 the third element
+   * @return a {@code Set} containing the specified elements
+   * @throws IllegalArgumentException if there are any duplicate elements
+   * @throws NullPointerException if an element is {@code null}
+   * @since 1.8
+   */
+  static <E> Set<E> of(E e1, E e2, E e3) {
+    return new ImmutableCollections.SetN<E>(e1, e2, e3);
+  }
+
+  /**
+   * Returns an immutable set containing four elements.
+   *
+   * See <a href="#immutable">Immutable Set Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code Set}'s element type
+   * @param e1 the first element
+   * @param e2 the second element
+   * @param e3 the third element
+   * @param e4 the fourth element
+   * @return a {@code Set} containing the specified elements
+   * @throws IllegalArgumentException if there are any duplicate elements
+   * @throws NullPointerException if an element is {@code null}
+   * @since 1.8
+   */
+  static <E> Set<E> of(E e1, E e2, E e3, E e4) {
+    return new ImmutableCollections.SetN<E>(e1, e2, e3, e4);
+  }
+
+  /**
+   * Returns an immutable set containing five elements.
+   *
+   * See <a href="#immutable">Immutable Set Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code Set}'s element type
+   * @param e1 the first element
+   * @param e2 the second element
+   * @param e3 the third element
+   * @param e4 the fourth element
+   * @param e5 the fifth element
+   * @return a {@code Set} containing the specified elements
+   * @throws IllegalArgumentException if there are any duplicate elements
+   * @throws NullPointerException if an element is {@code null}
+   * @since 1.8
+   */
+  static <E> Set<E> of(E e1, E e2, E e3, E e4, E e5) {
+    return new ImmutableCollections.SetN<E>(e1, e2, e3, e4, e5);
+  }
+
+  /**
+   * Returns an immutable set containing an arbitrary number of elements.
+   * See <a href="#immutable">Immutable Set Static Factory Methods</a> for details.
+   *
+   * @param <E> the {@code Set}'s element type
+   * @param elements the elements to be contained in the set
+   * @return a {@code Set} containing the specified elements
+   * @throws IllegalArgumentException if there are any duplicate elements
+   * @throws NullPointerException if an element is {@code null} or if the array is {@code null}
+   * @since 1.8
+   */
+  @SafeVarargs
+  @SuppressWarnings("varargs")
+  static <E> Set<E> of(E... elements) {
+    switch (elements.length) { // implicit null check of elements
+      case 0:
+        return ImmutableCollections.emptySet();
+      case 1:
+        return new ImmutableCollections.Set12<>(elements[0]);
+      case 2:
+        return new ImmutableCollections.Set12<>(elements[0], elements[1]);
+      default:
+        return new ImmutableCollections.SetN<E>(elements);
+    }
+  }
 }
@@ -0,0 +1,772 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.UnsupportedCharsetException;
+
+/**
+ * A text scanner for input made of tokens separated by plain delimiter
+ * characters, such as whitespace separated numbers.  Its methods follow
+ * those of {@link Scanner}, but it uses no regular expressions: a token is
+ * a maximal run of characters that are not delimiters, and integers are
+ * parsed directly from the scanner's buffer, without creating a {@code
+ * String} for the token.
+ *
+ * <p>By default the delimiters are the characters for which {@link
+ * Character#isWhitespace(char)} returns {@code true}, as for a {@code
+ * Scanner}; {@link #useDelimiterChars} sets another set of characters.
+ * Numbers are not localized: an integer is an optional {@code '+'} or
+ * {@code '-'} sign followed by one or more ASCII digits of the radix, with
+ * no group separators, and a floating-point number is a token in the
+ * syntax of {@link Double#parseDouble(String)} made only of ASCII digits,
+ * signs, {@code '.'}, {@code 'e'} and {@code 'E'}, or one of {@code "NaN"}
+ * and {@code "Infinity"} with an optional sign.
+ *
+ * <p>As with a {@code Scanner}, the {@code hasNext} methods do not
+ * advance past any input, and a token that does not match the type asked
+ * for by a {@code next} method is not consumed; that method throws an
+ * {@link InputMismatchException} so that the token may be retrieved in
+ * another way.  A {@code next} method does, however, skip the delimiters
+ * before the token.  An {@code IOException} thrown by the underlying source is
+ * taken as the end of the input, and is returned by {@link #ioException}.
+ *
+ * <p>A {@code TokenScanner} is not safe for use by multiple concurrent
+ * threads without external synchronization.
+ *
+ * @see Scanner
+ * @since 1.8
+ */
+public final class TokenScanner implements Iterator<String>, Closeable {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  // The value of each ASCII character as a digit, or -1
+  private static final byte[] DIGITS = new byte[128];
+
+  static {
+    Arrays.fill(DIGITS, (byte) -1);
+    for (int i = 0; i < 10; i++) {
+      DIGITS['0' + i] = (byte) i;
+    }
+    for (int i = 0; i < 26; i++) {
+      DIGITS['a' + i] = (byte) (10 + i);
+      DIGITS['A' + i] = (byte) (10 + i);
+    }
+  }
+
+  // The input source, and the same source if it is a Reader
+  private Readable source;
+  private Reader reader;
+
+  // The input read but not consumed is buf[pos, lim)
+  private char[] buf = new char[BUFFER_SIZE];
+  private int pos;
+  private int lim;
+
+  // Boolean indicating if the end of the input has been reached
+  private boolean sourceClosed;
+
+  // Boolean indicating if this scanner has been closed
+  private boolean closed;
+
+  // The last IOException thrown by the source
+  private IOException lastException;
+
+  // Delimiters: null for whitespace, else ASCII delimiters as a bitmap
+  // and any others as a string
+  private boolean[] asciiDelimiters;
+  private String otherDelimiters = "";
+
+  // The next token, at buf[tokenStart, tokenEnd), or tokenStart < 0 if it
+  // has not been found
+  private int tokenStart = -1;
+  private int tokenEnd;
+
+  // The integer value of the next token in cachedRadix, if it is nonzero
+  private long cachedLong;
+  private int cachedRadix;
+
+  // The floating-point value of the next token, if hasCachedDouble is true
+  private double cachedDouble;
+  private boolean hasCachedDouble;
+
+  private int defaultRadix = 10;
+
+  /**
+   * Constructs a new {@code TokenScanner} that produces values scanned from
+   * the specified source.
+   *
+   * @param source A character source implementing the {@link Readable}
+   * interface
+   */
+  public TokenScanner(Readable source) {
+    this.source = Objects.requireNonNull(source, "source");
+    if (source instanceof Reader) {
+      reader = (Reader) source;
+    }
+  }
+
+  /**
+   * Constructs a new {@code TokenScanner} that produces values scanned from
+   * the specified input stream. Bytes from the stream are converted into
+   * characters using the underlying platform's {@linkplain
+   * java.nio.charset.Charset#defaultCharset() default charset}.
+   *
+   * @param source An input stream to be scanned
+   */
+  public TokenScanner(InputStream source) {
+    this(new InputStreamReader(source));
+  }
+
+  /**
+   * Constructs a new {@code TokenScanner} that produces values scanned from
+   * the specified input stream. Bytes from the stream are converted into
+   * characters using the specified charset.
+   *
+   * @param source An input stream to be scanned
+   * @param charsetName The encoding type used to convert bytes from the
+   * stream into characters to be scanned
+   * @throws IllegalArgumentException if the specified character set does
+   * not exist
+   */
+  public TokenScanner(InputStream source, String charsetName) {
+    this(new InputStreamReader(Objects.requireNonNull(source, "source"),
+        toCharset(charsetName)));
+  }
+
+  /**
+   * Constructs a new {@code TokenScanner} that produces values scanned from
+   * the specified string.
+   *
+   * @param source A string to scan
+   */
+  public TokenScanner(String source) {
+    this(new StringReader(source));
+  }
+
+  /**
+   * Returns a charset object for the given charset name.
+   *
+   * @throws NullPointerException is csn is null
+   * @throws IllegalArgumentException if the charset is not supported
+   */
+  private static Charset toCharset(String csn) {
+    Objects.requireNonNull(csn, "charsetName");
+    try {
+      return Charset.forName(csn);
+    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+      // IllegalArgumentException should be thrown
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /**
+   * Sets the delimiters of this scanner: a token is ended by a run of one
+   * or more of the given characters.
+   *
+   * @param chars the delimiter characters, or {@code null} for the
+   * characters for which {@link Character#isWhitespace(char)} returns
+   * {@code true}
+   * @return this scanner
+   * @throws IllegalArgumentException if {@code chars} is empty
+   */
+  public TokenScanner useDelimiterChars(String chars) {
+    if (chars == null) {
+      asciiDelimiters = null;
+      otherDelimiters = "";
+    } else {
+      if (chars.isEmpty()) {
+        throw new IllegalArgumentException("No delimiters");
+      }
+      boolean[] ascii = new boolean[128];
+      StringBuilder other = new StringBuilder();
+      for (int i = 0; i < chars.length(); i++) {
+        char c = chars.charAt(i);
+        if (c < 128) {
+          ascii[c] = true;
+        } else {
+          other.append(c);
+        }
+      }
+      asciiDelimiters = ascii;
+      otherDelimiters = other.toString();
+    }
+    clearToken();
+    return this;
+  }
+
+  /**
+   * Sets the radix used by the integer methods without a radix argument.
+   *
+   * @param radix The radix to use when scanning numbers
+   * @return this scanner
+   * @throws IllegalArgumentException if radix is out of range
+   */
+  public TokenScanner useRadix(int radix) {
+    checkRadix(radix);
+    defaultRadix = radix;
+    return this;
+  }
+
+  /**
+   * Returns this scanner's default radix.
+   *
+   * @return the default radix of this scanner
+   */
+  public int radix() {
+    return defaultRadix;
+  }
+
+  private static void checkRadix(int radix) {
+    if ((radix < Character.MIN_RADIX) || (radix > Character.MAX_RADIX)) {
+      throw new IllegalArgumentException("radix:" + radix);
+    }
+  }
+
+  private boolean isDelimiter(char c) {
+    boolean[] ascii = asciiDelimiters;
+    if (ascii == null) {
+      return Character.isWhitespace(c);
+    }
+    return (c < 128) ? ascii[c] : otherDelimiters.indexOf(c) >= 0;
+  }
+
+  // Throws if the scanner is closed
+  private void ensureOpen() {
+    if (closed) {
+      throw new IllegalStateException("Scanner closed");
+    }
+  }
+
+  private void clearToken() {
+    tokenStart = -1;
+    cachedRadix = 0;
+    hasCachedDouble = false;
+  }
+
+  /*
+   * Tries to read more input, making room for it by moving the unconsumed
+   * input to the start of the buffer or by growing the buffer.  May block.
+   * Returns the distance the input was moved, or -1 at the end of the
+   * input.
+   */
+  private int readInput() {
+    if (sourceClosed) {
+      return -1;
+    }
+    int shift = 0;
+    if (lim == buf.length) {
+      if (pos > 0) {
+        shift = pos;
+        System.arraycopy(buf, pos, buf, 0, lim - pos);
+        lim -= pos;
+        pos = 0;
+        if (tokenStart >= 0) {
+          tokenStart -= shift;
+          tokenEnd -= shift;
+        }
+      } else {
+        buf = Arrays.copyOf(buf, buf.length * 2);
+      }
+    }
+    int n;
+    do {
+      try {
+        if (reader != null) {
+          n = reader.read(buf, lim, buf.length - lim);
+        } else {
+          n = source.read(CharBuffer.wrap(buf, lim, buf.length - lim));
+        }
+      } catch (IOException ioe) {
+        lastException = ioe;
+        n = -1;
+      }
+    } while (n == 0);
+    if (n < 0) {
+      sourceClosed = true;
+      return -1;
+    }
+    lim += n;
+    return shift;
+  }
+
+  /*
+   * Finds the next token, without consuming any input.  Returns false if
+   * there is none.
+   */
+  private boolean findToken() {
+    ensureOpen();
+    if (tokenStart >= 0) {
+      return true;
+    }
+    int i = pos;
+    for (;;) {
+      while (i < lim && isDelimiter(buf[i])) {
+        i++;
+      }
+      if (i < lim) {
+        break;
+      }
+      int shift = readInput();
+      if (shift < 0) {
+        return false;
+      }
+      i -= shift;
+    }
+    int start = i++;
+    for (;;) {
+      while (i < lim && !isDelimiter(buf[i])) {
+        i++;
+      }
+      if (i < lim) {
+        break;
+      }
+      int shift = readInput();
+      if (shift < 0) {
+        break;
+      }
+      start -= shift;
+      i -= shift;
+    }
+    tokenStart = start;
+    tokenEnd = i;
+    cachedRadix = 0;
+    hasCachedDouble = false;
+    return true;
+  }
+
+  /*
+   * Finds the next token for a next method, skipping the delimiters before
+   * it as a Scanner does, whether or not the token is then consumed.
+   */
+  private void skipToToken() {
+    if (!findToken()) {
+      pos = lim;
+      throw new NoSuchElementException();
+    }
+    pos = tokenStart;
+  }
+
+  private String token() {
+    return new String(buf, tokenStart, tokenEnd - tokenStart);
+  }
+
+  private void consumeToken() {
+    pos = tokenEnd;
+    clearToken();
+  }
+
+  /*
+   * Parses the next token as a long in the given radix, caching its value.
+   * Returns false if it is not one.
+   */
+  private boolean parseLong(int radix) {
+    if (cachedRadix == radix) {
+      return true;
+    }
+    checkRadix(radix);
+    int i = tokenStart;
+    int end = tokenEnd;
+    char first = buf[i];
+    boolean negative = first == '-';
+    if (negative || first == '+') {
+      if (++i == end) {
+        return false;
+      }
+    }
+    // Accumulate negatively, as does Long.parseLong
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long multmin = limit / radix;
+    long result = 0;
+    for (; i < end; i++) {
+      char c = buf[i];
+      int digit = (c < 128) ? DIGITS[c] : -1;
+      if (digit < 0 || digit >= radix || result < multmin) {
+        return false;
+      }
+      result *= radix;
+      if (result < limit + digit) {
+        return false;
+      }
+      result -= digit;
+    }
+    cachedLong = negative ? result : -result;
+    cachedRadix = radix;
+    return true;
+  }
+
+  /*
+   * Parses the next token as a double, caching its value.  Returns false if
+   * it is not one.
+   */
+  private boolean parseDouble() {
+    if (hasCachedDouble) {
+      return true;
+    }
+    int i = tokenStart;
+    int end = tokenEnd;
+    char first = buf[i];
+    if (first == '-' || first == '+') {
+      i++;
+    }
+    if (i == end) {
+      return false;
+    }
+    if (!isWord(i, end, "NaN") && !isWord(i, end, "Infinity")) {
+      for (int j = i; j < end; j++) {
+        char c = buf[j];
+        if (!((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E'
+            || c == '-' || c == '+')) {
+          return false;
+        }
+      }
+    }
+    try {
+      cachedDouble = Double.parseDouble(token());
+    } catch (NumberFormatException nfe) {
+      return false;
+    }
+    hasCachedDouble = true;
+    return true;
+  }
+
+  private boolean isWord(int start, int end, String word) {
+    if (end - start != word.length()) {
+      return false;
+    }
+    for (int i = 0; i < word.length(); i++) {
+      if (buf[start + i] != word.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Public methods
+
+  /**
+   * Closes this scanner.
+   *
+   * <p> If this scanner has not yet been closed then if its underlying
+   * {@linkplain java.lang.Readable readable} also implements the {@link
+   * java.io.Closeable} interface then the readable's <tt>close</tt> method
+   * will be invoked.  If this scanner is already closed then invoking this
+   * method will have no effect.
+   *
+   * <p>Attempting to perform search operations after a scanner has
+   * been closed will result in an {@link IllegalStateException}.
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    if (source instanceof Closeable) {
+      try {
+        ((Closeable) source).close();
+      } catch (IOException ioe) {
+        lastException = ioe;
+      }
+    }
+    sourceClosed = true;
+    source = null;
+    reader = null;
+    buf = null;
+    closed = true;
+  }
+
+  /**
+   * Returns the {@code IOException} last thrown by this scanner's
+   * underlying {@code Readable}. This method returns {@code null} if no
+   * such exception exists.
+   *
+   * @return the last exception thrown by this scanner's readable
+   */
+  public IOException ioException() {
+    return lastException;
+  }
+
+  /**
+   * Returns true if this scanner has another token in its input.
+   * This method may block while waiting for input to scan.
+   * The scanner does not advance past any input.
+   *
+   * @return true if and only if this scanner has another token
+   * @throws IllegalStateException if this scanner is closed
+   */
+  public boolean hasNext() {
+    return findToken();
+  }
+
+  /**
+   * Finds and returns the next complete token from this scanner.
+   * This method may block while waiting for input to scan.
+   *
+   * @return the next token
+   * @throws NoSuchElementException if no more tokens are available
+   * @throws IllegalStateException if this scanner is closed
+   */
+  public String next() {
+    skipToToken();
+    String s = token();
+    consumeToken();
+    return s;
+  }
+
+  /**
+   * Returns true if the next token in this scanner's input can be
+   * interpreted as an int value in the default radix using the {@link
+   * #nextInt} method. The scanner does not advance past any input.
+   *
+   * @return true if and only if this scanner's next token is a valid int
+   * value
+   * @throws IllegalStateException if this scanner is closed
+   */
+  public boolean hasNextInt() {
+    return hasNextInt(defaultRadix);
+  }
+
+  /**
+   * Returns true if the next token in this scanner's input can be
+   * interpreted as an int value in the specified radix using the {@link
+   * #nextInt} method. The scanner does not advance past any input.
+   *
+   * @param radix the radix used to interpret the token as an int value
+   * @return true if and only if this scanner's next token is a valid int
+   * value
+   * @throws IllegalStateException if this scanner is closed
+   * @throws IllegalArgumentException if radix is out of range
+   */
+  public boolean hasNextInt(int radix) {
+    return findToken() && parseLong(radix) && (int) cachedLong == cachedLong;
+  }
+
+  /**
+   * Scans the next token of the input as an {@code int} in the default
+   * radix.
+   *
+   * @return the {@code int} scanned from the input
+   * @throws InputMismatchException if the next token is not a valid int
+   * value or is out of range
+   * @throws NoSuchElementException if input is exhausted
+   * @throws IllegalStateException if this scanner is closed
+   */
+  public int nextInt() {
+    return nextInt(defaultRadix);
+  }
+
+  /**
+   * Scans the next token of the input as an {@code int} in the specified
+   * radix.
+   *
+   * @param radix the radix used to interpret the token as an int value
+   * @return the {@code int} scanned from the input
+   * @throws InputMismatchException if the next token is not a valid int
+   * value or is out of range
+   * @throws NoSuchElementException if input is exhausted
+   * @throws IllegalStateException if this scanner is closed
+   * @throws IllegalArgumentException if radix is out of range
+   */
+  public int nextInt(int radix) {
+    skipToToken();
+    if (!parseLong(radix) || (int) cachedLong != cachedLong) {
+      throw new InputMismatchException(token());
+    }
+    int value = (int) cachedLong;
+    consumeToken();
+    return value;
+  }
+
+  /**
+   * Returns true if the next token in this scanner's input can be
+   * interpreted as a long value in the default radix using the {@link
+   * #nextLong} method. The scanner does not advance past any input.
+   *
+   * @return true if and only if this scanner's next token is a valid long
+   * value
+   * @throws IllegalStateException if this scanner is closed
+   */
+  public boolean hasNextLong() {
+    return hasNextLong(defaultRadix);
+  }
+
+  /**
+   * Returns true if the next token in this scanner's input can be
+   * interpreted as a long value in the specified radix using the {@link
+   * #nextLong} method. The scanner does not advance past any input.
+   *
+   * @param radix the radix used to interpret the token as a long value
+   * @return true if and only if this scanner's next token is a valid long
+   * value
+   * @throws IllegalStateException if this scanner is closed
+   * @throws IllegalArgumentException if radix is out of range
+   */
+  public boolean hasNextLong(int radix) {
+    return findToken() && parseLong(radix);
+  }
+
+  /**
+   * Scans the next token of the input as a {@code long} in the default
+   * radix.
+   *
+   * @return the {@code long} scanned from the input
+   * @throws InputMismatchException if the next token is not a valid long
+   * value or is out of range
+   * @throws NoSuchElementException if input is exhausted
+   * @throws IllegalStateException if this scanner is closed
+   */
+  public long nextLong() {
+    return nextLong(defaultRadix);
+  }
+
+  /**
+   * Scans the next token of the input as a {@code long} in the specified
+   * radix.
+   *
+   * @param radix the radix used to interpret the token as a long value
+   * @return the {@code long} scanned from the input
+   * @throws InputMismatchException if the next token is not a valid long
+   * value or is out of range
+   * @throws NoSuchElementException if input is exhausted
+   * @throws IllegalStateException if this scanner is closed
+   * @throws IllegalArgumentException if radix is out of range
+   */
+  public long nextLong(int radix) {
+    skipToToken();
+    if (!parseLong(radix)) {
+      throw new InputMismatchException(token());
+    }
+    long value = cachedLong;
+    consumeToken();
+    return value;
+  }
+
+  /**
+   * Returns true if the next token in this scanner's input can be
+   * interpreted as a double value using the {@link #nextDouble} method.
+   * The scanner does not advance past any input.
+   *
+   * @return true if and only if this scanner's next token is a valid double
+   * value
+   * @throws IllegalStateException if this scanner is closed
+   */
+  public boolean hasNextDouble() {
+    return findToken() && parseDouble();
+  }
+
+  /**
+   * Scans the next token of the input as a {@code double}.
+   *
+   * @return the {@code double} scanned from the input
+   * @throws InputMismatchException if the next token is not a valid double
+   * value
+   * @throws NoSuchElementException if the input is exhausted
+   * @throws IllegalStateException if this scanner is closed
+   */
+  public double nextDouble() {
+    skipToToken();
+    if (!parseDouble()) {
+      throw new InputMismatchException(token());
+    }
+    double value = cachedDouble;
+    consumeToken();
+    return value;
+  }
+
+  /**
+   * Returns true if there is another line in the input of this scanner.
+   * This method may block while waiting for input. The scanner does not
+   * advance past any input.
+   *
+   * @return true if and only if this scanner has another line of input
+   * @throws IllegalStateException if this scanner is closed
+   */
+  public boolean hasNextLine() {
+    ensureOpen();
+    while (pos == lim) {
+      if (readInput() < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Advances this scanner past the current line and returns the input
+   * that was skipped, excluding any line separator at the end.  A line is
+   * ended by {@code "\n"}, {@code "\r\n"}, {@code "\r"}, {@code
+   * "\u0085"}, {@code "\u2028"} or {@code "\u2029"}.
+   *
+   * @return the line that was skipped
+   * @throws NoSuchElementException if no line was found
+   * @throws IllegalStateException if this scanner is closed
+   */
+  public String nextLine() {
+    if (!hasNextLine()) {
+      throw new NoSuchElementException("No line found");
+    }
+    clearToken();
+    int i = pos;
+    for (;;) {
+      while (i < lim) {
+        char c = buf[i];
+        if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028'
+            || c == '\u2029') {
+          String line = new String(buf, pos, i - pos);
+          if (c == '\r') {
+            // A "\r" at the end of the buffer may be followed by a "\n"
+            if (i + 1 == lim) {
+              int shift = readInput();
+              if (shift > 0) {
+                i -= shift;
+              }
+            }
+            if (i + 1 < lim && buf[i + 1] == '\n') {
+              i++;
+            }
+          }
+          pos = i + 1;
+          return line;
+        }
+        i++;
+      }
+      int shift = readInput();
+      if (shift < 0) {
+        String line = new String(buf, pos, lim - pos);
+        pos = lim;
+        return line;
+      }
+      i -= shift;
+    }
+  }
+}
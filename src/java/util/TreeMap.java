@@ -2030,7 +2030,10 @@ public class TreeMap<K, V>
     }
 
     Spliterator<K> keySpliterator() {
-      return new SubMapKeyIterator(absLowest(), absHighFence());
+      KeySpliterator<K, V> s = new KeySpliterator<>(m, absLowest(),
+          absHighFence(), 0, m.size, m.modCount);
+      s.ranged = true;
+      return s;
     }
 
     Iterator<K> descendingKeyIterator() {
@@ -2042,6 +2045,13 @@ public class TreeMap<K, V>
       public Iterator<Map.Entry<K, V>> iterator() {
         return new SubMapEntryIterator(absLowest(), absHighFence());
       }
+
+      public Spliterator<Map.Entry<K, V>> spliterator() {
+        EntrySpliterator<K, V> s = new EntrySpliterator<>(m, absLowest(),
+            absHighFence(), 0, m.size, m.modCount);
+        s.ranged = true;
+        return s;
+      }
     }
 
     public Set<Map.Entry<K, V>> entrySet() {
@@ -2139,7 +2149,10 @@ public class TreeMap<K, V>
     }
 
     Spliterator<K> keySpliterator() {
-      return new DescendingSubMapKeyIterator(absHighest(), absLowFence());
+      DescendingKeySpliterator<K, V> s = new DescendingKeySpliterator<>(m,
+          absHighest(), absLowFence(), 0, m.size, m.modCount);
+      s.ranged = true;
+      return s;
     }
 
     Iterator<K> descendingKeyIterator() {
@@ -2825,13 +2838,10 @@ public class TreeMap<K, V>
   }
 
   /**
-   * Currently, we support Spliterator-based versions only for the
-   * full map, in either plain of descending form, otherwise relying
-   * on defaults because size estimation for submaps would dominate
-   * costs. The type tests needed to check these for key views are
-   * not very nice but avoid disrupting existing class
-   * structures. Callers must use plain default spliterators if this
-   * returns null.
+   * Returns a key spliterator for the full map, in either plain or
+   * descending form, or for a submap. The type tests needed to check
+   * these for key views are not very nice but avoid disrupting
+   * existing class structures.
    */
   static <K> Spliterator<K> keySpliteratorFor(NavigableMap<K, ?> m) {
     if (m instanceof TreeMap) {
@@ -2877,12 +2887,13 @@ public class TreeMap<K, V>
    * trySplit methods are identical (except for return types), but
    * not nicely factorable.
    *
-   * Currently, subclass versions exist only for the full map
-   * (including descending keys via its descendingMap).  Others are
-   * possible but currently not worthwhile because submaps require
-   * O(n) computations to determine size, which substantially limits
-   * potential speed-ups of using custom Spliterators versus default
-   * mechanics.
+   * Submaps use the same classes over the range from their lowest
+   * node to their fence. Since finding the size of a submap takes
+   * O(n) time, their top-level spliterators are marked as ranged and
+   * use the size of the whole map as an estimate without reporting
+   * SIZED. Their first split takes the node of the range nearest the
+   * root, and every split candidate is narrowed by within() to a node
+   * strictly inside the current range.
    *
    * To boostrap initialization, external constructors use
    * negative size estimates: -1 for ascend, -2 for descend.
@@ -2895,6 +2906,7 @@ public class TreeMap<K, V>
     int side;                   // 0: top, -1: is a left split, +1: right
     int est;                    // size estimate (exact only for top-level)
     int expectedModCount;       // for CME checks
+    boolean ranged;             // top-level over a submap; est is a bound
 
     TreeMapSpliterator(TreeMap<K, V> tree,
         TreeMap.Entry<K, V> origin, TreeMap.Entry<K, V> fence,
@@ -2925,6 +2937,43 @@ public class TreeMap<K, V>
     public final long estimateSize() {
       return (long) getEstimate();
     }
+
+    /**
+     * Returns s, or the nearest node below it, whose key lies strictly
+     * between those of e and f in ascending order (f null meaning no
+     * upper bound), or null if there is none.
+     */
+    final TreeMap.Entry<K, V> within(TreeMap.Entry<K, V> s,
+        TreeMap.Entry<K, V> e, TreeMap.Entry<K, V> f) {
+      while (s != null) {
+        if (tree.compare(s.key, e.key) <= 0) {
+          s = s.right;
+        } else if (f != null && tree.compare(s.key, f.key) >= 0) {
+          s = s.left;
+        } else {
+          break;
+        }
+      }
+      return s;
+    }
+
+    /**
+     * Descending version of within: the key of the returned node lies
+     * strictly below that of e and above that of f, if any.
+     */
+    final TreeMap.Entry<K, V> withinDescending(TreeMap.Entry<K, V> s,
+        TreeMap.Entry<K, V> e, TreeMap.Entry<K, V> f) {
+      while (s != null) {
+        if (tree.compare(s.key, e.key) >= 0) {
+          s = s.left;
+        } else if (f != null && tree.compare(s.key, f.key) <= 0) {
+          s = s.right;
+        } else {
+          break;
+        }
+      }
+      return s;
+    }
   }
 
   static final class KeySpliterator<K, V>
@@ -2948,8 +2997,7 @@ public class TreeMap<K, V>
                   (d > 0) ? e.right :   // was right
                       (d < 0 && f != null) ? f.left :    // was left
                           null);
-      if (s != null && s != e && s != f &&
-          tree.compare(e.key, s.key) < 0) {        // e not already past s
+      if ((s = within(s, e, f)) != null) {        // s inside (e, f)
         side = 1;
         return new KeySpliterator<>
             (tree, e, current = s, -1, est >>>= 1, expectedModCount);
@@ -3005,7 +3053,7 @@ public class TreeMap<K, V>
     }
 
     public int characteristics() {
-      return (side == 0 ? Spliterator.SIZED : 0) |
+      return (side == 0 && !ranged ? Spliterator.SIZED : 0) |
           Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.ORDERED;
     }
 
@@ -3036,8 +3084,7 @@ public class TreeMap<K, V>
                   (d < 0) ? e.left :    // was left
                       (d > 0 && f != null) ? f.right :   // was right
                           null);
-      if (s != null && s != e && s != f &&
-          tree.compare(e.key, s.key) > 0) {       // e not already past s
+      if ((s = withinDescending(s, e, f)) != null) { // s inside (f, e)
         side = 1;
         return new DescendingKeySpliterator<>
             (tree, e, current = s, -1, est >>>= 1, expectedModCount);
@@ -3093,7 +3140,7 @@ public class TreeMap<K, V>
     }
 
     public int characteristics() {
-      return (side == 0 ? Spliterator.SIZED : 0) |
+      return (side == 0 && !ranged ? Spliterator.SIZED : 0) |
           Spliterator.DISTINCT | Spliterator.ORDERED;
     }
   }
@@ -3119,8 +3166,7 @@ public class TreeMap<K, V>
                   (d > 0) ? e.right :   // was right
                       (d < 0 && f != null) ? f.left :    // was left
                           null);
-      if (s != null && s != e && s != f &&
-          tree.compare(e.key, s.key) < 0) {        // e not already past s
+      if ((s = within(s, e, f)) != null) {        // s inside (e, f)
         side = 1;
         return new ValueSpliterator<>
             (tree, e, current = s, -1, est >>>= 1, expectedModCount);
@@ -3176,7 +3222,7 @@ public class TreeMap<K, V>
     }
 
     public int characteristics() {
-      return (side == 0 ? Spliterator.SIZED : 0) | Spliterator.ORDERED;
+      return (side == 0 && !ranged ? Spliterator.SIZED : 0) | Spliterator.ORDERED;
     }
   }
 
@@ -3201,8 +3247,7 @@ public class TreeMap<K, V>
                   (d > 0) ? e.right :   // was right
                       (d < 0 && f != null) ? f.left :    // was left
                           null);
-      if (s != null && s != e && s != f &&
-          tree.compare(e.key, s.key) < 0) {        // e not already past s
+      if ((s = within(s, e, f)) != null) {        // s inside (e, f)
         side = 1;
         return new EntrySpliterator<>
             (tree, e, current = s, -1, est >>>= 1, expectedModCount);
@@ -3258,7 +3303,7 @@ public class TreeMap<K, V>
     }
 
     public int characteristics() {
-      return (side == 0 ? Spliterator.SIZED : 0) |
+      return (side == 0 && !ranged ? Spliterator.SIZED : 0) |
           Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.ORDERED;
     }
 
@@ -25,6 +25,9 @@
 
 package java.util;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.security.*;
 
 /**
@@ -58,7 +61,18 @@ import java.security.*;
  * <p> The version field holds a value that describes the type of this {@code
  * UUID}.  There are four different basic types of UUIDs: time-based, DCE
  * security, name-based, and randomly generated UUIDs.  These types have a
- * version value of 1, 2, 3 and 4, respectively.
+ * version value of 1, 2, 3 and 4, respectively.  This class also creates
+ * Unix Epoch time-based UUIDs, which have version value 7 and whose 48 most
+ * significant bits hold the creation time in milliseconds, so that they
+ * sort, and cluster in an index, by creation time.
+ *
+ * <p> {@link #randomUUID} draws from a single generator shared by all
+ * threads.  Applications that create identifiers at high rates from many
+ * threads may use {@link #threadLocalRandomUUID} and {@link
+ * #timeOrderedUUID}, which draw from a generator confined to the calling
+ * thread.  {@link #formatTo(char[], int)} and {@link #parse(CharSequence,
+ * int)} and their {@code ByteBuffer} forms convert to and from the string
+ * representation without creating intermediate objects.
  *
  * <p> For more information including algorithms used to create {@code UUID}s,
  * see <a href="http://www.ietf.org/rfc/rfc4122.txt"> <i>RFC&nbsp;4122: A
@@ -97,6 +111,97 @@ public final class UUID implements java.io.Serializable, Comparable<UUID> {
     static final SecureRandom numberGenerator = new SecureRandom();
   }
 
+  /*
+   * The per-thread generators used by threadLocalRandomUUID and
+   * timeOrderedUUID. In a holder class to defer initialization until needed.
+   */
+  private static class ThreadHolder {
+
+    static final ThreadLocal<ThreadState> state =
+        ThreadLocal.withInitial(ThreadState::new);
+  }
+
+  /*
+   * A cryptographically strong generator confined to one thread, seeded
+   * from the shared generator, together with a buffer of random bytes so
+   * that the generator is called once per BUFFER_SIZE / 16 identifiers,
+   * and the clock state of the thread's time-ordered UUIDs.
+   */
+  private static final class ThreadState {
+
+    static final int BUFFER_SIZE = 256;
+
+    final SecureRandom random;
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    int next = BUFFER_SIZE;
+
+    // Timestamp and counter of the last time-ordered UUID
+    long lastMillis = Long.MIN_VALUE;
+    int sequence;
+
+    ThreadState() {
+      SecureRandom r;
+      try {
+        r = SecureRandom.getInstance("SHA1PRNG");
+      } catch (NoSuchAlgorithmException nsae) {
+        r = new SecureRandom();
+      }
+      byte[] seed = new byte[32];
+      Holder.numberGenerator.nextBytes(seed);
+      r.setSeed(seed);
+      random = r;
+    }
+
+    long nextLong() {
+      byte[] b = buffer;
+      int i = next;
+      if (i == BUFFER_SIZE) {
+        random.nextBytes(b);
+        i = 0;
+      }
+      long v = 0;
+      for (int end = i + 8; i < end; i++) {
+        v = (v << 8) | (b[i] & 0xff);
+      }
+      next = i;
+      return v;
+    }
+  }
+
+  /*
+   * The length of the string representation, and for each of its
+   * characters either the index of the hex digit it holds among the 32
+   * digits of the UUID, most significant first, or -1 for a hyphen.
+   */
+  private static final int STRING_LENGTH = 36;
+
+  private static final byte[] DIGIT_INDEX = new byte[STRING_LENGTH];
+
+  private static final char[] HEX_DIGITS = {
+      '0', '1', '2', '3', '4', '5', '6', '7',
+      '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+  };
+
+  /*
+   * The value of each ASCII hex digit, or -1.
+   */
+  private static final byte[] HEX_VALUES = new byte[128];
+
+  static {
+    for (int i = 0, d = 0; i < STRING_LENGTH; i++) {
+      DIGIT_INDEX[i] = (i == 8 || i == 13 || i == 18 || i == 23)
+          ? -1 : (byte) d++;
+    }
+    Arrays.fill(HEX_VALUES, (byte) -1);
+    for (int i = 0; i < 10; i++) {
+      HEX_VALUES['0' + i] = (byte) i;
+    }
+    for (int i = 0; i < 6; i++) {
+      HEX_VALUES['a' + i] = (byte) (10 + i);
+      HEX_VALUES['A' + i] = (byte) (10 + i);
+    }
+  }
+
   // Constructors and Factories
 
   /*
@@ -150,6 +255,69 @@ public final class UUID implements java.io.Serializable, Comparable<UUID> {
     return new UUID(randomBytes);
   }
 
+  /**
+   * Static factory to retrieve a type 4 (pseudo randomly generated) UUID
+   * from a generator confined to the calling thread.
+   *
+   * <p> The {@code UUID} is generated using a cryptographically strong
+   * pseudo random number generator that is created for each thread on first
+   * use and seeded from the generator used by {@link #randomUUID}.  Unlike
+   * {@link #randomUUID}, concurrent calls from different threads do not
+   * contend with each other.
+   *
+   * @return A randomly generated {@code UUID}
+   * @since 1.8
+   */
+  public static UUID threadLocalRandomUUID() {
+    ThreadState ts = ThreadHolder.state.get();
+    long msb = ts.nextLong();
+    long lsb = ts.nextLong();
+    msb = (msb & ~0xF000L) | 0x4000L;                              // version 4
+    lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;       // IETF variant
+    return new UUID(msb, lsb);
+  }
+
+  /**
+   * Static factory to retrieve a type 7 (Unix Epoch time-based) UUID.
+   *
+   * <p> The 48 most significant bits of the {@code UUID} hold the current
+   * time in milliseconds since midnight, January 1, 1970 UTC, as returned
+   * by {@link System#currentTimeMillis}, and the remaining bits, other than
+   * the version and variant, are random.  UUIDs created at different times
+   * are therefore ordered by {@link #compareTo} according to their creation
+   * time, and keep insertions into an index ordered by {@code UUID} close
+   * to each other.
+   *
+   * <p> The UUIDs returned to a single thread are strictly increasing: the
+   * 12 bits following the timestamp count the UUIDs created by the thread
+   * within the same millisecond, starting from a random value, and should
+   * they overflow, or the clock move backwards, the timestamp is advanced
+   * past the last one used.  No ordering holds between UUIDs created by
+   * different threads within the same millisecond.
+   *
+   * <p> The random bits are generated by the per-thread generator of
+   * {@link #threadLocalRandomUUID}.
+   *
+   * @return A time-ordered {@code UUID}
+   * @since 1.8
+   */
+  public static UUID timeOrderedUUID() {
+    ThreadState ts = ThreadHolder.state.get();
+    long millis = System.currentTimeMillis();
+    long lsb = ts.nextLong();
+    if (millis > ts.lastMillis) {
+      ts.lastMillis = millis;
+      // Start in the lower half of the counter, leaving room to count up
+      ts.sequence = (int) (ts.nextLong() >>> 53);
+    } else if (++ts.sequence > 0xFFF) {
+      ts.lastMillis++;
+      ts.sequence = 0;
+    }
+    long msb = (ts.lastMillis << 16) | 0x7000L | ts.sequence;       // version 7
+    lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;       // IETF variant
+    return new UUID(msb, lsb);
+  }
+
   /**
    * Static factory to retrieve a type 3 (name based) {@code UUID} based on
    * the specified byte array.
@@ -182,6 +350,12 @@ public final class UUID implements java.io.Serializable, Comparable<UUID> {
    * described in {@link #toString}
    */
   public static UUID fromString(String name) {
+    if (name.length() == STRING_LENGTH) {
+      UUID u = parse0(name, 0);
+      if (u != null) {
+        return u;
+      }
+    }
     String[] components = name.split("-");
     if (components.length != 5) {
       throw new IllegalArgumentException("Invalid UUID string: " + name);
@@ -203,6 +377,164 @@ public final class UUID implements java.io.Serializable, Comparable<UUID> {
     return new UUID(mostSigBits, leastSigBits);
   }
 
+  /**
+   * Creates a {@code UUID} from the 36 characters of its string
+   * representation, as described in the {@link #toString} method, starting
+   * at the specified index of a character sequence.  Unlike {@link
+   * #fromString}, each field must have exactly the number of hex digits
+   * given there.
+   *
+   * @param s A character sequence that contains the string representation
+   * @param index The index of the first character of the representation
+   * @return A {@code UUID} with the specified value
+   * @throws IndexOutOfBoundsException If {@code index} is negative or fewer
+   * than 36 characters follow it
+   * @throws IllegalArgumentException If the characters do not conform to
+   * the string representation
+   * @since 1.8
+   */
+  public static UUID parse(CharSequence s, int index) {
+    if (index < 0 || index > s.length() - STRING_LENGTH) {
+      throw new IndexOutOfBoundsException("index: " + index);
+    }
+    UUID u = parse0(s, index);
+    if (u == null) {
+      throw new IllegalArgumentException("Invalid UUID string: "
+          + s.subSequence(index, index + STRING_LENGTH));
+    }
+    return u;
+  }
+
+  /**
+   * Creates a {@code UUID} from the 36 characters of its string
+   * representation, as described in the {@link #toString} method, starting
+   * at the specified index of a character array.  Each field must have
+   * exactly the number of hex digits given there.
+   *
+   * @param src A character array that contains the string representation
+   * @param index The index of the first character of the representation
+   * @return A {@code UUID} with the specified value
+   * @throws IndexOutOfBoundsException If {@code index} is negative or fewer
+   * than 36 characters follow it
+   * @throws IllegalArgumentException If the characters do not conform to
+   * the string representation
+   * @since 1.8
+   */
+  public static UUID parse(char[] src, int index) {
+    if (index < 0 || index > src.length - STRING_LENGTH) {
+      throw new IndexOutOfBoundsException("index: " + index);
+    }
+    long msb = 0;
+    long lsb = 0;
+    for (int i = 0; i < STRING_LENGTH; i++) {
+      char c = src[index + i];
+      int d = DIGIT_INDEX[i];
+      if (d < 0) {
+        if (c != '-') {
+          return invalid(new String(src, index, STRING_LENGTH));
+        }
+        continue;
+      }
+      int v = c < 128 ? HEX_VALUES[c] : -1;
+      if (v < 0) {
+        return invalid(new String(src, index, STRING_LENGTH));
+      }
+      if (d < 16) {
+        msb = (msb << 4) | v;
+      } else {
+        lsb = (lsb << 4) | v;
+      }
+    }
+    return new UUID(msb, lsb);
+  }
+
+  /**
+   * Creates a {@code UUID} from the 36 ASCII characters of its string
+   * representation, as described in the {@link #toString} method, at the
+   * current position of a byte buffer.  Each field must have exactly the
+   * number of hex digits given there.  On success the position of the
+   * buffer is advanced by 36; otherwise it is unchanged.
+   *
+   * @param src A byte buffer whose next 36 bytes hold the string
+   * representation
+   * @return A {@code UUID} with the specified value
+   * @throws BufferUnderflowException If fewer than 36 bytes remain in the
+   * buffer
+   * @throws IllegalArgumentException If the bytes do not conform to the
+   * string representation
+   * @since 1.8
+   */
+  public static UUID parse(ByteBuffer src) {
+    if (src.remaining() < STRING_LENGTH) {
+      throw new BufferUnderflowException();
+    }
+    int p = src.position();
+    long msb = 0;
+    long lsb = 0;
+    for (int i = 0; i < STRING_LENGTH; i++) {
+      int c = src.get(p + i) & 0xff;
+      int d = DIGIT_INDEX[i];
+      if (d < 0) {
+        if (c != '-') {
+          return invalid(src, p);
+        }
+        continue;
+      }
+      int v = c < 128 ? HEX_VALUES[c] : -1;
+      if (v < 0) {
+        return invalid(src, p);
+      }
+      if (d < 16) {
+        msb = (msb << 4) | v;
+      } else {
+        lsb = (lsb << 4) | v;
+      }
+    }
+    src.position(p + STRING_LENGTH);
+    return new UUID(msb, lsb);
+  }
+
+  /*
+   * Parses the 36 characters starting at the given index, returning null
+   * if they are not in the canonical form.
+   */
+  private static UUID parse0(CharSequence s, int index) {
+    long msb = 0;
+    long lsb = 0;
+    for (int i = 0; i < STRING_LENGTH; i++) {
+      char c = s.charAt(index + i);
+      int d = DIGIT_INDEX[i];
+      if (d < 0) {
+        if (c != '-') {
+          return null;
+        }
+        continue;
+      }
+      int v = c < 128 ? HEX_VALUES[c] : -1;
+      if (v < 0) {
+        return null;
+      }
+      if (d < 16) {
+        msb = (msb << 4) | v;
+      } else {
+        lsb = (lsb << 4) | v;
+      }
+    }
+    return new UUID(msb, lsb);
+  }
+
+  private static UUID invalid(String s) {
+    throw new IllegalArgumentException("Invalid UUID string: " + s);
+  }
+
+  private static UUID invalid(ByteBuffer src, int p) {
+    char[] chars = new char[STRING_LENGTH];
+    for (int i = 0; i < STRING_LENGTH; i++) {
+      chars[i] = (char) (src.get(p + i) & 0xff);
+    }
+    return invalid(new String(chars));
+  }
+
   // Field Accessor Methods
 
   /**
@@ -233,6 +565,7 @@ public final class UUID implements java.io.Serializable, Comparable<UUID> {
    * <li>2    DCE security UUID
    * <li>3    Name-based UUID
    * <li>4    Randomly generated UUID
+   * <li>7    Unix Epoch time-based UUID
    * </ul>
    *
    * @return The version number of this {@code UUID}
@@ -363,19 +696,67 @@ public final class UUID implements java.io.Serializable, Comparable<UUID> {
    * @return A string representation of this {@code UUID}
    */
   public String toString() {
-    return (digits(mostSigBits >> 32, 8) + "-" +
-        digits(mostSigBits >> 16, 4) + "-" +
-        digits(mostSigBits, 4) + "-" +
-        digits(leastSigBits >> 48, 4) + "-" +
-        digits(leastSigBits, 12));
+    char[] chars = new char[STRING_LENGTH];
+    formatTo(chars, 0);
+    return new String(chars);
+  }
+
+  /**
+   * Writes the string representation of this {@code UUID}, as described in
+   * the {@link #toString} method, into a character array.
+   *
+   * @param dst The array into which the 36 characters are written
+   * @param index The index at which the first character is written
+   * @return The index following the last character written
+   * @throws IndexOutOfBoundsException If {@code index} is negative or fewer
+   * than 36 elements follow it
+   * @since 1.8
+   */
+  public int formatTo(char[] dst, int index) {
+    if (index < 0 || index > dst.length - STRING_LENGTH) {
+      throw new IndexOutOfBoundsException("index: " + index);
+    }
+    long msb = mostSigBits;
+    long lsb = leastSigBits;
+    for (int i = 0; i < STRING_LENGTH; i++) {
+      int d = DIGIT_INDEX[i];
+      dst[index + i] = d < 0 ? '-' : hexDigit(msb, lsb, d);
+    }
+    return index + STRING_LENGTH;
+  }
+
+  /**
+   * Writes the string representation of this {@code UUID}, as described in
+   * the {@link #toString} method, as 36 ASCII bytes at the current position
+   * of a byte buffer, and advances the position by 36.
+   *
+   * @param dst The buffer into which the bytes are written
+   * @throws BufferOverflowException If fewer than 36 bytes remain in the
+   * buffer
+   * @throws java.nio.ReadOnlyBufferException If the buffer is read-only
+   * @since 1.8
+   */
+  public void formatTo(ByteBuffer dst) {
+    if (dst.remaining() < STRING_LENGTH) {
+      throw new BufferOverflowException();
+    }
+    int p = dst.position();
+    long msb = mostSigBits;
+    long lsb = leastSigBits;
+    for (int i = 0; i < STRING_LENGTH; i++) {
+      int d = DIGIT_INDEX[i];
+      dst.put(p + i, (byte) (d < 0 ? '-' : hexDigit(msb, lsb, d)));
+    }
+    dst.position(p + STRING_LENGTH);
   }
 
   /**
-   * Returns val represented by the specified number of hex digits.
+   * Returns the lower case hex digit at index d, most significant first,
+   * of the 32 digits of msb and lsb.
    */
-  private static String digits(long val, int digits) {
-    long hi = 1L << (digits * 4);
-    return Long.toHexString(hi | (val & (hi - 1))).substring(1);
+  private static char hexDigit(long msb, long lsb, int d) {
+    long bits = d < 16 ? msb << (d << 2) : lsb << ((d - 16) << 2);
+    return HEX_DIGITS[(int) (bits >>> 60)];
   }
 
   /**
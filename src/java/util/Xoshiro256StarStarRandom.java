@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util;
+
+/**
+ * A {@link JumpableRandom} implementing the xoshiro256** algorithm of
+ * Blackman and Vigna, "Scrambled Linear Pseudorandom Number Generators",
+ * ACM Transactions on Mathematical Software, 2021.
+ *
+ * <p>The generator has 256 bits of state and a period of
+ * 2<sup>256</sup>&minus;1.  Its values are equidistributed in four
+ * dimensions, and each {@code nextLong} costs a few shifts, rotations and
+ * exclusive-ors and two multiplications.  Method {@link #jump} advances
+ * the state by 2<sup>128</sup> values and method {@link #leap} by
+ * 2<sup>192</sup>, so a generator can hand out 2<sup>64</sup>
+ * non-overlapping subsequences of 2<sup>128</sup> values between leaps.
+ *
+ * <p>Instances are not thread-safe and not cryptographically secure.
+ *
+ * @since 1.8
+ */
+public final class Xoshiro256StarStarRandom extends JumpableRandom {
+
+  /*
+   * The jump polynomials, as published with the reference
+   * implementation: each step of jump() exclusive-ors the states visited
+   * at the positions of the one bits of these words.
+   */
+  private static final long[] JUMP = {
+      0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL,
+      0xa9582618e03fc9aaL, 0x39abdc4529b1661cL
+  };
+
+  private static final long[] LEAP = {
+      0x76e15d3efefdcbbfL, 0xc5004e441c522fb3L,
+      0x77710069854ee241L, 0x39109bb02acbe635L
+  };
+
+  /**
+   * The characteristic polynomial of the state transition, less its
+   * x^256 term, from which the jumps by 2^k jump distances used by
+   * stream splitting are computed.
+   */
+  private static final long[] CHAR_POLY = {
+      0x9d116f2bb0f0f001L, 0x0280002bcefd1a5eL,
+      0x04b4edcf26259f85L, 0x0003c03c3f3ecb19L
+  };
+
+  private static final long[][] JUMPS = powerOfTwoJumps(JUMP, CHAR_POLY, 64);
+
+  /**
+   * The state, never all zero.
+   */
+  private long x0, x1, x2, x3;
+
+  private Xoshiro256StarStarRandom(long x0, long x1, long x2, long x3) {
+    this.x0 = x0;
+    this.x1 = x1;
+    this.x2 = x2;
+    this.x3 = x3;
+  }
+
+  /**
+   * Creates a new instance using the specified initial seed.  Instances
+   * created with the same seed generate identical sequences of values.
+   *
+   * @param seed the initial seed
+   */
+  public Xoshiro256StarStarRandom(long seed) {
+    long[] s = expandSeed(seed, 4);
+    x0 = s[0];
+    x1 = s[1];
+    x2 = s[2];
+    x3 = s[3];
+  }
+
+  /**
+   * Creates a new instance that is likely to generate sequences of values
+   * that are statistically independent of those of any other instances in
+   * the current program; and may, and typically does, vary across program
+   * invocations.
+   */
+  public Xoshiro256StarStarRandom() {
+    this(defaultSeed());
+  }
+
+  public long nextLong() {
+    long s0 = x0, s1 = x1, s2 = x2, s3 = x3;
+    long result = Long.rotateLeft(s1 * 5, 7) * 9;
+    long t = s1 << 17;
+    s2 ^= s0;
+    s3 ^= s1;
+    s1 ^= s2;
+    s0 ^= s3;
+    s2 ^= t;
+    s3 = Long.rotateLeft(s3, 45);
+    x0 = s0;
+    x1 = s1;
+    x2 = s2;
+    x3 = s3;
+    return result;
+  }
+
+  public Xoshiro256StarStarRandom copy() {
+    return new Xoshiro256StarStarRandom(x0, x1, x2, x3);
+  }
+
+  /**
+   * Advances the state of this generator by 2<sup>128</sup> values.
+   */
+  public void jump() {
+    jump(JUMP);
+  }
+
+  /**
+   * Advances the state of this generator by 2<sup>192</sup> values.
+   */
+  public void leap() {
+    jump(LEAP);
+  }
+
+  void jumpPowerOfTwo(int n) {
+    jump(JUMPS[n]);
+  }
+
+  public int jumpDistanceLog2() {
+    return 128;
+  }
+
+  public int leapDistanceLog2() {
+    return 192;
+  }
+
+  private void jump(long[] poly) {
+    long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    for (long p : poly) {
+      for (int b = 0; b < 64; b++) {
+        if ((p & (1L << b)) != 0) {
+          s0 ^= x0;
+          s1 ^= x1;
+          s2 ^= x2;
+          s3 ^= x3;
+        }
+        nextLong();
+      }
+    }
+    x0 = s0;
+    x1 = s1;
+    x2 = s2;
+    x3 = s3;
+  }
+}
@@ -0,0 +1,531 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+/**
+ * A controller that periodically adjusts the {@linkplain
+ * ThreadPoolExecutor#setCorePoolSize core pool size} of a {@link
+ * ThreadPoolExecutor} from the latency and throughput it observes.  At
+ * each run it takes a {@link Sample} of the pool over the interval since
+ * the previous run, asks its {@link Policy} for a new core pool size,
+ * and sets it, bounded by the given minimum and maximum and by the
+ * maximum pool size of the pool.  Two policies are supplied: {@link
+ * #littlesLaw} sizes the pool for the observed arrival rate and run
+ * time, and {@link #hillClimbing} moves the size one thread at a time
+ * in whichever direction improves throughput.
+ *
+ * <p>A sizer records the {@linkplain ThreadPoolExecutor#getMetrics
+ * metrics} of its pool, starting to record them if needed, without
+ * registering their MXBean.  Queue wait times are recorded only for
+ * the queues described in {@link ThreadPoolExecutor}; with other
+ * queues, policies see zero wait times and must rely on the queue
+ * size.
+ *
+ * <p>With an unbounded queue a pool never runs more than its core
+ * pool size of threads, so the core pool size is the size a policy
+ * controls.  Combined with {@linkplain
+ * ThreadPoolExecutor#allowEagerGrowth eager growth}, the core pool
+ * size instead sets how many threads are kept when idle, and bursts
+ * are met by threads up to the maximum pool size.
+ *
+ * <p>A sizer is typically run periodically by a {@link
+ * ScheduledExecutorService}:
+ * <pre> {@code
+ * ThreadPoolExecutor pool = new ThreadPoolExecutor(
+ *     4, 256, 30, TimeUnit.SECONDS, new LinkedTransferQueue<Runnable>());
+ * pool.allowEagerGrowth(true);
+ * AdaptivePoolSizer sizer = new AdaptivePoolSizer(pool,
+ *     AdaptivePoolSizer.littlesLaw(10, TimeUnit.MILLISECONDS, 0.75), 4, 256);
+ * sizer.start(scheduler, 1, TimeUnit.SECONDS);}</pre>
+ *
+ * <p>A sizer stops itself once its pool is shut down.
+ *
+ * @since 1.8
+ */
+public class AdaptivePoolSizer implements Runnable {
+
+  /**
+   * A policy choosing the core pool size of a pool from a sample of it.
+   * A policy may keep state between samples, and is used by one sizer
+   * only.
+   *
+   * @since 1.8
+   */
+  public interface Policy {
+
+    /**
+     * Returns the core pool size the pool should have.
+     *
+     * @param sample the sample of the pool over the last interval
+     * @return the core pool size
+     */
+    int corePoolSize(Sample sample);
+  }
+
+  /**
+   * A sample of a pool over an interval.  Times are in nanoseconds.
+   *
+   * @since 1.8
+   */
+  public static final class Sample {
+
+    private final long interval;
+    private final long completed;
+    private final long arrived;
+    private final long totalRunTime;
+    private final long totalQueueWait;
+    private final long queueWaits;
+    private final long[] runTimeCounts;
+    private final long[] queueWaitCounts;
+    private final int queueSize;
+    private final int activeCount;
+    private final int poolSize;
+    private final int corePoolSize;
+    private final int maximumPoolSize;
+
+    Sample(long interval, long completed, long arrived, long totalRunTime,
+        long totalQueueWait, long queueWaits, long[] runTimeCounts,
+        long[] queueWaitCounts, int queueSize, int activeCount, int poolSize,
+        int corePoolSize, int maximumPoolSize) {
+      this.interval = interval;
+      this.completed = completed;
+      this.arrived = arrived;
+      this.totalRunTime = totalRunTime;
+      this.totalQueueWait = totalQueueWait;
+      this.queueWaits = queueWaits;
+      this.runTimeCounts = runTimeCounts;
+      this.queueWaitCounts = queueWaitCounts;
+      this.queueSize = queueSize;
+      this.activeCount = activeCount;
+      this.poolSize = poolSize;
+      this.corePoolSize = corePoolSize;
+      this.maximumPoolSize = maximumPoolSize;
+    }
+
+    /**
+     * Returns the length of the interval.
+     *
+     * @return the length of the interval in nanoseconds
+     */
+    public long getInterval() {
+      return interval;
+    }
+
+    /**
+     * Returns the number of tasks that completed during the interval,
+     * normally or not.
+     *
+     * @return the number of tasks completed
+     */
+    public long getCompletedCount() {
+      return completed;
+    }
+
+    /**
+     * Returns an estimate of the number of tasks that arrived during
+     * the interval: those completed, plus the growth of the queue and
+     * of the number of active threads.
+     *
+     * @return the estimated number of tasks arrived
+     */
+    public long getArrivalCount() {
+      return arrived;
+    }
+
+    /**
+     * Returns the number of tasks completed per second.
+     *
+     * @return the throughput of the pool
+     */
+    public double getThroughput() {
+      return (interval <= 0L) ? 0.0 : completed * 1e9 / interval;
+    }
+
+    /**
+     * Returns the estimated number of tasks arrived per second.
+     *
+     * @return the arrival rate
+     */
+    public double getArrivalRate() {
+      return (interval <= 0L) ? 0.0 : arrived * 1e9 / interval;
+    }
+
+    /**
+     * Returns the mean run time of the tasks completed.
+     *
+     * @return the mean run time, or 0 if no tasks completed
+     */
+    public double getMeanRunTime() {
+      return (completed == 0L) ? 0.0 : (double) totalRunTime / completed;
+    }
+
+    /**
+     * Returns the mean queue wait time of the tasks started.
+     *
+     * @return the mean queue wait time, or 0 if none were recorded
+     */
+    public double getMeanQueueWaitTime() {
+      return (queueWaits == 0L) ? 0.0 : (double) totalQueueWait / queueWaits;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the run times
+     * of the tasks completed, as by {@link
+     * ThreadPoolExecutorMXBean#getRunTimePercentile}.
+     *
+     * @param percentile a percentile, from 0 to 100
+     * @return the bound, or 0 if no tasks completed
+     * @throws IllegalArgumentException if the percentile is not between
+     *         0 and 100
+     */
+    public long getRunTimePercentile(double percentile) {
+      return ThreadPoolMetrics.Histogram.percentile(runTimeCounts, percentile);
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the queue wait
+     * times of the tasks started, as by {@link
+     * ThreadPoolExecutorMXBean#getQueueWaitTimePercentile}.
+     *
+     * @param percentile a percentile, from 0 to 100
+     * @return the bound, or 0 if none were recorded
+     * @throws IllegalArgumentException if the percentile is not between
+     *         0 and 100
+     */
+    public long getQueueWaitTimePercentile(double percentile) {
+      return ThreadPoolMetrics.Histogram.percentile(queueWaitCounts, percentile);
+    }
+
+    /**
+     * Returns the number of tasks in the queue at the end of the
+     * interval.
+     *
+     * @return the queue size
+     */
+    public int getQueueSize() {
+      return queueSize;
+    }
+
+    /**
+     * Returns the approximate number of threads executing tasks at the
+     * end of the interval.
+     *
+     * @return the number of active threads
+     */
+    public int getActiveCount() {
+      return activeCount;
+    }
+
+    /**
+     * Returns the number of threads in the pool at the end of the
+     * interval.
+     *
+     * @return the pool size
+     */
+    public int getPoolSize() {
+      return poolSize;
+    }
+
+    /**
+     * Returns the core pool size during the interval.
+     *
+     * @return the core pool size
+     */
+    public int getCorePoolSize() {
+      return corePoolSize;
+    }
+
+    /**
+     * Returns the maximum pool size of the pool.
+     *
+     * @return the maximum pool size
+     */
+    public int getMaximumPoolSize() {
+      return maximumPoolSize;
+    }
+
+    public String toString() {
+      return "[interval = " + interval +
+          ", completed = " + completed +
+          ", arrived = " + arrived +
+          ", mean run time = " + (long) getMeanRunTime() +
+          ", mean queue wait = " + (long) getMeanQueueWaitTime() +
+          ", queued tasks = " + queueSize +
+          ", active threads = " + activeCount +
+          ", pool size = " + poolSize +
+          ", core pool size = " + corePoolSize + "]";
+    }
+  }
+
+  /**
+   * Returns a policy sizing the pool by Little's law: the number of
+   * tasks running at once is the arrival rate times the mean run
+   * time.  The policy asks for that number divided by the target
+   * utilization, plus the threads needed to drain the queued tasks
+   * within the target wait time, and for at least one more thread
+   * than the current core pool size while the 99th percentile of the
+   * queue wait time exceeds the target.  It shrinks the pool by at
+   * most a quarter of its core size per sample, so that a lull does
+   * not discard the threads the next burst needs, and never while
+   * tasks are queued.  Until a task has completed the run time is
+   * unknown, and the policy keeps the core pool size, adding one
+   * thread per sample while tasks are queued.
+   *
+   * @param targetWait the target queue wait time
+   * @param unit the time unit of the target wait time
+   * @param utilization the target fraction of time threads are busy,
+   *        greater than 0 and at most 1
+   * @return the policy
+   * @throws IllegalArgumentException if the target wait time is not
+   *         positive or the utilization is out of range
+   * @throws NullPointerException if unit is null
+   */
+  public static Policy littlesLaw(long targetWait, TimeUnit unit,
+      double utilization) {
+    final long target = unit.toNanos(targetWait);
+    if (target <= 0L || !(utilization > 0.0 && utilization <= 1.0)) {
+      throw new IllegalArgumentException();
+    }
+    final double u = utilization;
+    return new Policy() {
+      double runTime; // last known mean run time
+
+      public int corePoolSize(Sample s) {
+        int core = s.getCorePoolSize();
+        int queued = s.getQueueSize();
+        if (s.getCompletedCount() > 0L) {
+          runTime = s.getMeanRunTime();
+        }
+        if (runTime == 0.0) { // no task has completed yet
+          return (queued > 0) ? core + 1 : core;
+        }
+        double busy = s.getArrivalRate() * runTime / 1e9;
+        double backlog = queued * runTime / target;
+        int n = (int) Math.min(Integer.MAX_VALUE, Math.ceil(busy / u + backlog));
+        if (s.getQueueWaitTimePercentile(99.0) > target) {
+          n = Math.max(n, core + 1);
+        }
+        if (queued > 0) {
+          return Math.max(n, core);
+        }
+        return Math.max(n, core - Math.max(1, core >>> 2));
+      }
+    };
+  }
+
+  /**
+   * Returns a policy sizing the pool by hill climbing.  While tasks
+   * wait, either because some are queued or because the 99th
+   * percentile of the queue wait time exceeds the target, the policy
+   * changes the core pool size by one thread per sample, and reverses
+   * direction whenever the throughput after a change is not at least
+   * five percent higher than before it.  This finds the size beyond
+   * which more threads only add contention, as when tasks share a
+   * limited resource.  Once tasks no longer wait, the policy removes one
+   * idle thread per sample.
+   *
+   * @param targetWait the target queue wait time
+   * @param unit the time unit of the target wait time
+   * @return the policy
+   * @throws IllegalArgumentException if the target wait time is not
+   *         positive
+   * @throws NullPointerException if unit is null
+   */
+  public static Policy hillClimbing(long targetWait, TimeUnit unit) {
+    final long target = unit.toNanos(targetWait);
+    if (target <= 0L) {
+      throw new IllegalArgumentException();
+    }
+    return new Policy() {
+      double throughput = -1.0; // at lastSize; negative if none
+      int lastSize;
+      int direction = 1;
+
+      public int corePoolSize(Sample s) {
+        int core = s.getCorePoolSize();
+        if (s.getQueueSize() == 0 &&
+            s.getQueueWaitTimePercentile(99.0) <= target) {
+          throughput = -1.0;
+          direction = 1;
+          return (s.getActiveCount() < core) ? core - 1 : core;
+        }
+        double t = s.getThroughput();
+        if (throughput >= 0.0 && core != lastSize &&
+            !(t > throughput * 1.05)) {
+          direction = -direction;
+        }
+        throughput = t;
+        lastSize = core;
+        return core + direction;
+      }
+    };
+  }
+
+  private final ThreadPoolExecutor pool;
+  private final Policy policy;
+  private final int minCorePoolSize;
+  private final int maxCorePoolSize;
+
+  // The previous snapshot, guarded by this
+  private boolean sampled;
+  private long lastTime;
+  private long lastCompleted;
+  private long lastRunTime;
+  private long lastQueueWaits;
+  private long lastQueueWait;
+  private long[] lastRunTimeCounts;
+  private long[] lastQueueWaitCounts;
+  private int lastQueueSize;
+  private int lastActiveCount;
+
+  private volatile ScheduledFuture<?> future;
+
+  /**
+   * Creates a sizer of the given pool.
+   *
+   * @param pool the pool to size
+   * @param policy the policy choosing its core pool size
+   * @param minCorePoolSize the least core pool size to set
+   * @param maxCorePoolSize the greatest core pool size to set; the
+   *        maximum pool size of the pool also bounds it
+   * @throws IllegalArgumentException if {@code minCorePoolSize < 0} or
+   *         {@code maxCorePoolSize < minCorePoolSize}
+   * @throws NullPointerException if pool or policy is null
+   */
+  public AdaptivePoolSizer(ThreadPoolExecutor pool, Policy policy,
+      int minCorePoolSize, int maxCorePoolSize) {
+    if (pool == null || policy == null) {
+      throw new NullPointerException();
+    }
+    if (minCorePoolSize < 0 || maxCorePoolSize < minCorePoolSize) {
+      throw new IllegalArgumentException();
+    }
+    this.pool = pool;
+    this.policy = policy;
+    this.minCorePoolSize = minCorePoolSize;
+    this.maxCorePoolSize = maxCorePoolSize;
+  }
+
+  /**
+   * Runs this sizer with the given scheduler every period.
+   *
+   * @param scheduler the scheduler
+   * @param period the period between runs
+   * @param unit the time unit of the period
+   * @return the future of the periodic runs
+   * @throws IllegalStateException if this sizer is already started
+   * @throws RejectedExecutionException if the runs cannot be scheduled
+   * @throws NullPointerException if scheduler or unit is null
+   * @throws IllegalArgumentException if period is not positive
+   */
+  public synchronized ScheduledFuture<?> start(
+      ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+    ScheduledFuture<?> f = future;
+    if (f != null && !f.isDone()) {
+      throw new IllegalStateException("Already started");
+    }
+    sampled = false;
+    return future = scheduler.scheduleWithFixedDelay(this, period, period, unit);
+  }
+
+  /**
+   * Stops the periodic runs of this sizer, if started.  The core pool
+   * size of the pool is left as last set.
+   */
+  public void stop() {
+    ScheduledFuture<?> f = future;
+    if (f != null) {
+      f.cancel(false);
+    }
+  }
+
+  /**
+   * Samples the pool over the interval since the previous run and
+   * sets the core pool size chosen by the policy.  The first run only
+   * takes the initial snapshot.
+   */
+  public synchronized void run() {
+    if (pool.isShutdown()) {
+      stop();
+      return;
+    }
+    ThreadPoolMetrics m = pool.recordMetrics();
+    long now = System.nanoTime();
+    long[] runTimeCounts = m.runTimes.counts();
+    long[] queueWaitCounts = m.queueWaits.counts();
+    long completed = sum(runTimeCounts);
+    long queueWaits = sum(queueWaitCounts);
+    long runTime = m.runTimes.total();
+    long queueWait = m.queueWaits.total();
+    int queueSize = pool.getQueue().size();
+    int activeCount = pool.getActiveCount();
+    if (sampled && completed >= lastCompleted && queueWaits >= lastQueueWaits) {
+      long dc = completed - lastCompleted;
+      long arrived = Math.max(0L, dc + (queueSize - lastQueueSize) +
+          (activeCount - lastActiveCount));
+      Sample s = new Sample(now - lastTime, dc, arrived,
+          runTime - lastRunTime, queueWait - lastQueueWait,
+          queueWaits - lastQueueWaits,
+          difference(runTimeCounts, lastRunTimeCounts),
+          difference(queueWaitCounts, lastQueueWaitCounts),
+          queueSize, activeCount, pool.getPoolSize(),
+          pool.getCorePoolSize(), pool.getMaximumPoolSize());
+      int n = policy.corePoolSize(s);
+      n = Math.min(n, Math.min(maxCorePoolSize, pool.getMaximumPoolSize()));
+      n = Math.max(n, minCorePoolSize);
+      if (n != pool.getCorePoolSize()) {
+        pool.setCorePoolSize(n);
+      }
+    }
+    // else first run, or statistics were reset: take a new snapshot
+    sampled = true;
+    lastTime = now;
+    lastCompleted = completed;
+    lastRunTime = runTime;
+    lastQueueWaits = queueWaits;
+    lastQueueWait = queueWait;
+    lastRunTimeCounts = runTimeCounts;
+    lastQueueWaitCounts = queueWaitCounts;
+    lastQueueSize = queueSize;
+    lastActiveCount = activeCount;
+  }
+
+  private static long sum(long[] a) {
+    long n = 0L;
+    for (long c : a) {
+      n += c;
+    }
+    return n;
+  }
+
+  private static long[] difference(long[] a, long[] b) {
+    long[] d = new long[a.length];
+    for (int i = 0; i < a.length; i++) {
+      d[i] = Math.max(0L, a[i] - b[i]);
+    }
+    return d;
+  }
+}
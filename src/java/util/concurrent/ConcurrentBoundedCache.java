@@ -0,0 +1,1208 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A concurrent cache holding at most a given number of mappings,
+ * optionally expiring them a fixed time after they were last read or
+ * written.  Mappings are held in a {@link ConcurrentHashMap}, so
+ * retrievals never block and updates contend only as much as in that
+ * class; the bookkeeping needed to choose eviction victims is done in
+ * batches, by whichever thread finds work pending and an internal
+ * lock free.
+ *
+ * <p>When the cache is full, the entry to evict is chosen by the
+ * <em>W-TinyLFU</em> policy: new entries first enter a small
+ * least-recently-used "window", and an entry leaving the window is
+ * admitted to the main space only if a compact frequency sketch
+ * estimates it to have been used more often than the entry it would
+ * displace.  The main space is a segmented LRU in which entries used
+ * again while on probation are promoted to a protected segment.  Unlike
+ * plain LRU, this retains frequently used entries when a scan of
+ * one-time keys passes through the cache.
+ *
+ * <p>Reads are recorded in striped, lossy buffers that are drained in
+ * batches: under heavy contention some reads are dropped rather than
+ * making readers wait, which affects only the precision of the policy.
+ * Consequently the cache may briefly hold more than its maximum size
+ * of mappings, and an expired mapping may remain in the cache, although
+ * it is never returned, until the next maintenance cycle.  Maintenance
+ * is performed during writes and occasionally during reads; it may
+ * also be performed explicitly by {@link #cleanUp}.
+ *
+ * <p>The {@link #computeIfAbsent computeIfAbsent} method loads values
+ * atomically: concurrent calls for the same absent key wait for a
+ * single invocation of the mapping function and share its result.
+ * Hit, miss, load and eviction counts are available from
+ * {@link #stats}.
+ *
+ * <p>Like {@link ConcurrentHashMap}, this class does not allow
+ * {@code null} to be used as a key or value.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ * @since 1.8
+ */
+public class ConcurrentBoundedCache<K, V> {
+
+  /*
+   * Overview:
+   *
+   * The cache maps keys to Nodes in a ConcurrentHashMap. Each live
+   * Node is also linked into one of three access-ordered lists -- the
+   * window, probation and protected segments of W-TinyLFU -- and, if
+   * expireAfterWrite is used, into a write-ordered list. The lists and
+   * the frequency sketch are guarded by evictionLock and are never
+   * touched by readers.
+   *
+   * Instead, a read appends the node to one of several ring buffers,
+   * selected by the thread's ThreadLocalRandom probe. A buffer accepts
+   * an element only if it has room and the writer wins a CAS on the
+   * tail, so readers never spin. A write performs its map operation
+   * and then queues a task (add, update or removal of a node) on the
+   * unbounded writeBuffer, which unlike the read buffers must not lose
+   * elements.
+   *
+   * Both buffers are replayed against the policy by maintenance(),
+   * which runs under evictionLock when drainStatus is REQUIRED. Writers
+   * always set REQUIRED; readers set it when their buffer is full. A
+   * thread that fails to tryLock leaves the work to the holder, which
+   * rechecks drainStatus after unlocking, so no request is lost.
+   *
+   * Map operations are the only source of truth for membership: a
+   * task links a node only if it is still mapped, and only linked
+   * nodes are counted toward the maximum or considered for eviction.
+   * This makes the buffered tasks insensitive to the order in which
+   * they are replayed relative to each other's map operations.
+   * Evictions and expirations remove the node from the map with a
+   * conditional computeIfPresent, which also serializes them with
+   * in-place updates of the same node.
+   */
+
+  /** Number of CPUS, to size the read buffers */
+  static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+  /** The number of read buffers, a power of two. */
+  static final int NUM_READ_BUFFERS =
+      Math.min(64, Integer.highestOneBit(Math.max(NCPU, 1) * 4 - 1) << 1);
+
+  /** The capacity of each read buffer, a power of two. */
+  static final int READ_BUFFER_SIZE = 16;
+
+  /** The largest maximum size whose sketch is sized to match. */
+  static final int MAXIMUM_SKETCH_SIZE = 1 << 26;
+
+  /* Drain status */
+  static final int IDLE = 0;
+  static final int REQUIRED = 1;
+
+  /* Queue membership of nodes */
+  static final byte NONE = 0;
+  static final byte WINDOW = 1;
+  static final byte PROBATION = 2;
+  static final byte PROTECTED = 3;
+
+  /* Outcomes of computeIfAbsent */
+  static final int HIT = 0;
+  static final int ADDED = 1;
+  static final int UPDATED = 2;
+  static final int REMOVED = 3;
+  static final int ABSENT = 4;
+
+  final ConcurrentHashMap<K, Node<K, V>> data;
+  final long maximumSize;
+  final long expireAfterAccessNanos;
+  final long expireAfterWriteNanos;
+
+  final ReadBuffer[] readBuffers;
+  final ConcurrentLinkedQueue<Runnable> writeBuffer;
+  final ReentrantLock evictionLock;
+  volatile int drainStatus;
+
+  /* Policy state, guarded by evictionLock */
+  final NodeList<K, V> window;
+  final NodeList<K, V> probation;
+  final NodeList<K, V> protectedList;
+  final NodeList<K, V> writeOrder;
+  final FrequencySketch sketch;
+  final long windowMaximum;
+  final long protectedMaximum;
+  long weightedSize;
+  long windowSize;
+  long protectedSize;
+
+  /* Statistics */
+  final LongAdder hitCount;
+  final LongAdder missCount;
+  final LongAdder loadSuccessCount;
+  final LongAdder loadFailureCount;
+  final LongAdder totalLoadTime;
+  final LongAdder evictionCount;
+
+  /**
+   * Creates a new, empty cache holding at most the given number of
+   * mappings, without expiration.
+   *
+   * @param maximumSize the maximum number of mappings
+   * @throws IllegalArgumentException if {@code maximumSize} is negative
+   */
+  public ConcurrentBoundedCache(long maximumSize) {
+    this(maximumSize, 0L, 0L, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Creates a new, empty cache holding at most the given number of
+   * mappings, in which each mapping expires once the given time has
+   * elapsed since it was last read or written, or since it was last
+   * written.  A nonpositive duration disables the corresponding kind of
+   * expiration.
+   *
+   * @param maximumSize the maximum number of mappings
+   * @param expireAfterAccess the time after the last read or write of
+   * a mapping at which it expires, or nonpositive for none
+   * @param expireAfterWrite the time after the last write of a mapping
+   * at which it expires, or nonpositive for none
+   * @param unit the time unit of the durations
+   * @throws IllegalArgumentException if {@code maximumSize} is negative
+   * @throws NullPointerException if {@code unit} is null
+   */
+  public ConcurrentBoundedCache(long maximumSize, long expireAfterAccess,
+      long expireAfterWrite, TimeUnit unit) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException();
+    }
+    if (unit == null) {
+      throw new NullPointerException();
+    }
+    this.maximumSize = maximumSize;
+    this.expireAfterAccessNanos = Math.max(0L, unit.toNanos(expireAfterAccess));
+    this.expireAfterWriteNanos = Math.max(0L, unit.toNanos(expireAfterWrite));
+    int initialCapacity = (int) Math.min(maximumSize, 1 << 12);
+    this.data = new ConcurrentHashMap<K, Node<K, V>>(Math.max(initialCapacity, 16));
+    this.readBuffers = new ReadBuffer[NUM_READ_BUFFERS];
+    for (int i = 0; i < readBuffers.length; i++) {
+      readBuffers[i] = new ReadBuffer();
+    }
+    this.writeBuffer = new ConcurrentLinkedQueue<Runnable>();
+    this.evictionLock = new ReentrantLock();
+    this.window = new NodeList<K, V>(false);
+    this.probation = new NodeList<K, V>(false);
+    this.protectedList = new NodeList<K, V>(false);
+    this.writeOrder = new NodeList<K, V>(true);
+    this.sketch = new FrequencySketch(
+        (int) Math.min(Math.max(maximumSize, 16L), MAXIMUM_SKETCH_SIZE));
+    this.windowMaximum = Math.max(1L, maximumSize / 100);
+    this.protectedMaximum = (long) ((maximumSize - windowMaximum) * 0.8);
+    this.hitCount = new LongAdder();
+    this.missCount = new LongAdder();
+    this.loadSuccessCount = new LongAdder();
+    this.loadFailureCount = new LongAdder();
+    this.totalLoadTime = new LongAdder();
+    this.evictionCount = new LongAdder();
+  }
+
+  /* ---------------- Nodes -------------- */
+
+  /**
+   * A cache entry. The value and timestamps are written under the
+   * map's bin lock for the key and read without locking; the links
+   * and queue are guarded by evictionLock.
+   */
+  static final class Node<K, V> {
+
+    final K key;
+    volatile V value;
+    volatile long accessTime;
+    volatile long writeTime;
+
+    Node<K, V> prevAccess;
+    Node<K, V> nextAccess;
+    Node<K, V> prevWrite;
+    Node<K, V> nextWrite;
+    byte queue;
+
+    Node(K key, V value, long now) {
+      this.key = key;
+      this.value = value;
+      this.accessTime = now;
+      this.writeTime = now;
+    }
+  }
+
+  /**
+   * An intrusive doubly-linked list of nodes, using either their
+   * access or their write links.
+   */
+  static final class NodeList<K, V> {
+
+    final boolean writeLinks;
+    Node<K, V> first;
+    Node<K, V> last;
+
+    NodeList(boolean writeLinks) {
+      this.writeLinks = writeLinks;
+    }
+
+    private Node<K, V> prev(Node<K, V> n) {
+      return writeLinks ? n.prevWrite : n.prevAccess;
+    }
+
+    private Node<K, V> next(Node<K, V> n) {
+      return writeLinks ? n.nextWrite : n.nextAccess;
+    }
+
+    private void setPrev(Node<K, V> n, Node<K, V> p) {
+      if (writeLinks) {
+        n.prevWrite = p;
+      } else {
+        n.prevAccess = p;
+      }
+    }
+
+    private void setNext(Node<K, V> n, Node<K, V> s) {
+      if (writeLinks) {
+        n.nextWrite = s;
+      } else {
+        n.nextAccess = s;
+      }
+    }
+
+    void addLast(Node<K, V> n) {
+      Node<K, V> l = last;
+      setPrev(n, l);
+      setNext(n, null);
+      last = n;
+      if (l == null) {
+        first = n;
+      } else {
+        setNext(l, n);
+      }
+    }
+
+    void remove(Node<K, V> n) {
+      Node<K, V> p = prev(n), s = next(n);
+      if (p == null) {
+        first = s;
+      } else {
+        setNext(p, s);
+      }
+      if (s == null) {
+        last = p;
+      } else {
+        setPrev(s, p);
+      }
+      setPrev(n, null);
+      setNext(n, null);
+    }
+
+    void moveToBack(Node<K, V> n) {
+      if (n != last) {
+        remove(n);
+        addLast(n);
+      }
+    }
+
+    /** Returns the successor of n in this list. */
+    Node<K, V> successor(Node<K, V> n) {
+      return next(n);
+    }
+
+    void clear() {
+      first = last = null;
+    }
+  }
+
+  /* ---------------- Time and expiry -------------- */
+
+  final boolean expires() {
+    return (expireAfterAccessNanos | expireAfterWriteNanos) != 0L;
+  }
+
+  final long now() {
+    return expires() ? System.nanoTime() : 0L;
+  }
+
+  final boolean hasExpired(Node<K, V> n, long now) {
+    return (expireAfterAccessNanos != 0L &&
+        now - n.accessTime >= expireAfterAccessNanos) ||
+        (expireAfterWriteNanos != 0L &&
+            now - n.writeTime >= expireAfterWriteNanos);
+  }
+
+  /* ---------------- Public operations -------------- */
+
+  /**
+   * Returns the value to which the specified key is mapped, or
+   * {@code null} if this cache contains no unexpired mapping for the
+   * key.  A non-null result counts as a hit and a null result as a
+   * miss.
+   *
+   * @param key the key whose associated value is to be returned
+   * @return the cached value, or {@code null} if none
+   * @throws NullPointerException if the specified key is null
+   */
+  public V get(Object key) {
+    Node<K, V> n = data.get(key);
+    if (n != null) {
+      long now = now();
+      V v = n.value;
+      if (!hasExpired(n, now)) {
+        if (expireAfterAccessNanos != 0L) {
+          n.accessTime = now;
+        }
+        hitCount.increment();
+        afterRead(n);
+        return v;
+      }
+      scheduleDrain();
+    }
+    missCount.increment();
+    return null;
+  }
+
+  /**
+   * Returns the value to which the specified key is mapped, computing
+   * and caching it with the given mapping function if there is no
+   * unexpired mapping for the key.  The entire method invocation is
+   * performed atomically, so the function is applied at most once per
+   * key, and concurrent callers for the same key wait for its result.
+   * If the function returns {@code null} no mapping is recorded.  If the
+   * function itself throws an (unchecked) exception, the exception is
+   * rethrown, and no mapping is recorded.  Loads are counted as misses
+   * and timed; other results as hits.
+   *
+   * <p>The mapping function should be short and must not attempt to
+   * update any other mappings of this cache.
+   *
+   * @param key the key whose value is to be returned
+   * @param mappingFunction the function to compute a value
+   * @return the current (existing or computed) value associated with
+   * the specified key, or null if the computed value is null
+   * @throws NullPointerException if the specified key or mappingFunction is null
+   * @throws RuntimeException or Error if the mappingFunction does so,
+   * in which case the mapping is left unestablished
+   */
+  public V computeIfAbsent(K key,
+      Function<? super K, ? extends V> mappingFunction) {
+    if (key == null || mappingFunction == null) {
+      throw new NullPointerException();
+    }
+    Node<K, V> n = data.get(key);
+    long now = now();
+    if (n != null && !hasExpired(n, now)) {
+      V v = n.value;
+      if (expireAfterAccessNanos != 0L) {
+        n.accessTime = now;
+      }
+      hitCount.increment();
+      afterRead(n);
+      return v;
+    }
+    Object[] result = new Object[1];  // the node found or loaded
+    int[] outcome = new int[1];
+    data.compute(key, (k, prior) -> {
+      long t = now();
+      if (prior != null && !hasExpired(prior, t)) {
+        if (expireAfterAccessNanos != 0L) {
+          prior.accessTime = t;
+        }
+        result[0] = prior;
+        outcome[0] = HIT;
+        return prior;
+      }
+      long start = System.nanoTime();
+      V value;
+      try {
+        value = mappingFunction.apply(k);
+      } catch (RuntimeException | Error ex) {
+        loadFailureCount.increment();
+        totalLoadTime.add(System.nanoTime() - start);
+        throw ex;
+      } finally {
+        missCount.increment();
+      }
+      totalLoadTime.add(System.nanoTime() - start);
+      result[0] = prior;
+      if (value == null) {
+        loadFailureCount.increment();
+        outcome[0] = (prior != null) ? REMOVED : ABSENT;
+        return null;
+      }
+      loadSuccessCount.increment();
+      t = now();
+      if (prior != null) {
+        // refresh the expired node in place
+        prior.value = value;
+        prior.accessTime = prior.writeTime = t;
+        outcome[0] = UPDATED;
+        return prior;
+      }
+      Node<K, V> node = new Node<K, V>(k, value, t);
+      result[0] = node;
+      outcome[0] = ADDED;
+      return node;
+    });
+    @SuppressWarnings("unchecked")
+    Node<K, V> node = (Node<K, V>) result[0];
+    switch (outcome[0]) {
+      case HIT:
+        hitCount.increment();
+        afterRead(node);
+        return node.value;
+      case ADDED:
+        afterWrite(new AddTask(node));
+        return node.value;
+      case UPDATED:
+        afterWrite(new UpdateTask(node));
+        return node.value;
+      case REMOVED:
+        afterWrite(new RemovalTask(node));
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Maps the specified key to the specified value in this cache,
+   * evicting other mappings if it becomes too large.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return the previous unexpired value associated with {@code key},
+   * or {@code null} if there was none
+   * @throws NullPointerException if the specified key or value is null
+   */
+  public V put(K key, V value) {
+    return put(key, value, false);
+  }
+
+  /**
+   * If the specified key has no unexpired mapping in this cache, maps
+   * it to the given value.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return the current unexpired value associated with {@code key},
+   * or {@code null} if there was none
+   * @throws NullPointerException if the specified key or value is null
+   */
+  public V putIfAbsent(K key, V value) {
+    return put(key, value, true);
+  }
+
+  private V put(K key, V value, boolean onlyIfAbsent) {
+    if (key == null || value == null) {
+      throw new NullPointerException();
+    }
+    Object[] result = new Object[3];  // {old value, node, new node}
+    data.compute(key, (k, prior) -> {
+      long now = now();
+      if (prior != null) {
+        if (!hasExpired(prior, now)) {
+          result[0] = prior.value;
+          if (onlyIfAbsent) {
+            return prior;
+          }
+        }
+        prior.value = value;
+        prior.accessTime = prior.writeTime = now;
+        result[1] = prior;
+        return prior;
+      }
+      Node<K, V> node = new Node<K, V>(k, value, now);
+      result[1] = node;
+      result[2] = node;
+      return node;
+    });
+    @SuppressWarnings("unchecked")
+    Node<K, V> node = (Node<K, V>) result[1];
+    if (result[2] != null) {
+      afterWrite(new AddTask(node));
+    } else if (node != null) {
+      afterWrite(new UpdateTask(node));
+    }
+    @SuppressWarnings("unchecked")
+    V old = (V) result[0];
+    return old;
+  }
+
+  /**
+   * Removes the mapping for a key from this cache if it is present.
+   *
+   * @param key key whose mapping is to be removed from the cache
+   * @return the previous unexpired value associated with {@code key},
+   * or {@code null} if there was none
+   * @throws NullPointerException if the specified key is null
+   */
+  public V remove(Object key) {
+    Node<K, V> n = data.remove(key);
+    if (n == null) {
+      return null;
+    }
+    afterWrite(new RemovalTask(n));
+    return hasExpired(n, now()) ? null : n.value;
+  }
+
+  /**
+   * Removes all of the mappings from this cache.
+   */
+  public void clear() {
+    evictionLock.lock();
+    try {
+      for (K key : data.keySet()) {
+        Node<K, V> n = data.remove(key);
+        if (n != null) {
+          unlink(n);
+        }
+      }
+      // replay pending tasks, which can now only unlink nodes
+      Runnable task;
+      while ((task = writeBuffer.poll()) != null) {
+        task.run();
+      }
+      for (ReadBuffer b : readBuffers) {
+        b.drainTo(null);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the approximate number of mappings in this cache, which
+   * may include expired mappings and, transiently, mappings beyond
+   * the maximum size that have not yet been evicted.
+   *
+   * @return the number of mappings
+   */
+  public long estimatedSize() {
+    return data.mappingCount();
+  }
+
+  /**
+   * Returns the maximum number of mappings in this cache.
+   *
+   * @return the maximum size
+   */
+  public long maximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Performs any pending maintenance: replays buffered reads and
+   * writes against the eviction policy, then removes expired mappings
+   * and evicts mappings beyond the maximum size.  This happens
+   * automatically during other operations, but a cache that is read
+   * rarely may call this method periodically to release expired
+   * mappings.
+   */
+  public void cleanUp() {
+    evictionLock.lock();
+    try {
+      drainStatus = IDLE;
+      maintenance();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns a snapshot of this cache's cumulative statistics.
+   *
+   * @return the current statistics
+   */
+  public Stats stats() {
+    return new Stats(hitCount.sum(), missCount.sum(),
+        loadSuccessCount.sum(), loadFailureCount.sum(),
+        totalLoadTime.sum(), evictionCount.sum());
+  }
+
+  /**
+   * Returns a string representation of this cache's configuration and
+   * statistics.
+   *
+   * @return a string representation of this cache
+   */
+  public String toString() {
+    return getClass().getSimpleName() + "[size=" + estimatedSize() +
+        ", maximumSize=" + maximumSize + ", " + stats() + "]";
+  }
+
+  /* ---------------- Buffering -------------- */
+
+  final void afterRead(Node<K, V> n) {
+    int h = ThreadLocalRandom.getProbe();
+    if (h == 0) {
+      ThreadLocalRandom.localInit();
+      h = ThreadLocalRandom.getProbe();
+    }
+    ReadBuffer b = readBuffers[h & (readBuffers.length - 1)];
+    if (!b.offer(n)) {
+      ThreadLocalRandom.advanceProbe(h);
+      if (b.isFull()) {
+        scheduleDrain();
+        return;
+      }
+    }
+    if (drainStatus == REQUIRED) {
+      tryToDrain();
+    }
+  }
+
+  final void afterWrite(Runnable task) {
+    writeBuffer.add(task);
+    scheduleDrain();
+  }
+
+  final void scheduleDrain() {
+    drainStatus = REQUIRED;
+    tryToDrain();
+  }
+
+  /**
+   * Performs maintenance while it is requested and the lock is free.
+   * A thread that requests maintenance but fails to acquire the lock
+   * relies on the holder rechecking drainStatus after unlocking.
+   */
+  final void tryToDrain() {
+    while (drainStatus == REQUIRED && evictionLock.tryLock()) {
+      try {
+        drainStatus = IDLE;
+        maintenance();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * A bounded ring buffer of nodes read, accepting an element only if
+   * it has room and the writer wins the race for the tail.
+   */
+  @sun.misc.Contended
+  static final class ReadBuffer {
+
+    final Object[] buffer = new Object[READ_BUFFER_SIZE];
+    volatile long head;
+    volatile long tail;
+
+    boolean isFull() {
+      return tail - head >= READ_BUFFER_SIZE;
+    }
+
+    boolean offer(Object e) {
+      long t = tail;
+      if (t - head >= READ_BUFFER_SIZE) {
+        return false;
+      }
+      if (U.compareAndSwapLong(this, TAIL, t, t + 1)) {
+        long offset = ((t & (READ_BUFFER_SIZE - 1)) << ASHIFT) + ABASE;
+        U.putOrderedObject(buffer, offset, e);
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Replays buffered reads to the cache, or discards them if it is
+     * null; called only under evictionLock. A slot whose writer has
+     * claimed but not yet filled it ends the drain.
+     */
+    @SuppressWarnings("unchecked")
+    <K, V> void drainTo(ConcurrentBoundedCache<K, V> cache) {
+      long h = head, t = tail;
+      for (; h != t; h++) {
+        long offset = ((h & (READ_BUFFER_SIZE - 1)) << ASHIFT) + ABASE;
+        Object e = U.getObjectVolatile(buffer, offset);
+        if (e == null) {
+          break;
+        }
+        U.putOrderedObject(buffer, offset, null);
+        if (cache != null) {
+          cache.onAccess((Node<K, V>) e);
+        }
+      }
+      U.putOrderedLong(this, HEAD, h);
+    }
+  }
+
+  /**
+   * Links a newly mapped node into the window.
+   */
+  final class AddTask implements Runnable {
+
+    final Node<K, V> node;
+
+    AddTask(Node<K, V> node) {
+      this.node = node;
+    }
+
+    public void run() {
+      Node<K, V> n = node;
+      if (n.queue == NONE && data.get(n.key) == n) {
+        n.queue = WINDOW;
+        window.addLast(n);
+        if (expireAfterWriteNanos != 0L) {
+          writeOrder.addLast(n);
+        }
+        weightedSize++;
+        windowSize++;
+        sketch.increment(n.key);
+      }
+    }
+  }
+
+  /**
+   * Treats an in-place update of a node as an access.
+   */
+  final class UpdateTask implements Runnable {
+
+    final Node<K, V> node;
+
+    UpdateTask(Node<K, V> node) {
+      this.node = node;
+    }
+
+    public void run() {
+      Node<K, V> n = node;
+      if (n.queue != NONE) {
+        if (expireAfterWriteNanos != 0L) {
+          writeOrder.moveToBack(n);
+        }
+        onAccess(n);
+      }
+    }
+  }
+
+  /**
+   * Unlinks a node removed from the map.
+   */
+  final class RemovalTask implements Runnable {
+
+    final Node<K, V> node;
+
+    RemovalTask(Node<K, V> node) {
+      this.node = node;
+    }
+
+    public void run() {
+      unlink(node);
+    }
+  }
+
+  /* ---------------- Policy -------------- */
+
+  /**
+   * Replays buffers, then expires and evicts; called under
+   * evictionLock.
+   */
+  final void maintenance() {
+    for (ReadBuffer b : readBuffers) {
+      b.drainTo(this);
+    }
+    Runnable task;
+    while ((task = writeBuffer.poll()) != null) {
+      task.run();
+    }
+    if (expires()) {
+      expireEntries(System.nanoTime());
+    }
+    evictEntries();
+  }
+
+  /**
+   * Records an access to a linked node: bumps its frequency and moves
+   * it to the back of its segment, promoting it from probation to the
+   * protected segment.
+   */
+  final void onAccess(Node<K, V> n) {
+    switch (n.queue) {
+      case WINDOW:
+        window.moveToBack(n);
+        break;
+      case PROBATION:
+        probation.remove(n);
+        n.queue = PROTECTED;
+        protectedList.addLast(n);
+        protectedSize++;
+        while (protectedSize > protectedMaximum && protectedList.first != null) {
+          Node<K, V> demoted = protectedList.first;
+          protectedList.remove(demoted);
+          demoted.queue = PROBATION;
+          probation.addLast(demoted);
+          protectedSize--;
+        }
+        break;
+      case PROTECTED:
+        protectedList.moveToBack(n);
+        break;
+      default:
+        return;
+    }
+    sketch.increment(n.key);
+  }
+
+  /**
+   * Unlinks a node from the policy if it is linked.
+   */
+  final void unlink(Node<K, V> n) {
+    switch (n.queue) {
+      case WINDOW:
+        window.remove(n);
+        windowSize--;
+        break;
+      case PROBATION:
+        probation.remove(n);
+        break;
+      case PROTECTED:
+        protectedList.remove(n);
+        protectedSize--;
+        break;
+      default:
+        return;
+    }
+    if (expireAfterWriteNanos != 0L) {
+      writeOrder.remove(n);
+    }
+    n.queue = NONE;
+    weightedSize--;
+  }
+
+  /**
+   * Removes a linked node from the map, if it is still mapped and, when
+   * expiring, still expired, and unlinks it.
+   *
+   * @return false if the node was refreshed and so remains
+   */
+  final boolean evict(Node<K, V> node, boolean expiring, long now) {
+    boolean[] refreshed = new boolean[1];
+    data.computeIfPresent(node.key, (k, n) -> {
+      if (n != node) {
+        return n;
+      }
+      if (expiring && !hasExpired(n, now)) {
+        refreshed[0] = true;
+        return n;
+      }
+      return null;
+    });
+    if (refreshed[0]) {
+      return false;
+    }
+    unlink(node);
+    evictionCount.increment();
+    return true;
+  }
+
+  final void expireEntries(long now) {
+    if (expireAfterAccessNanos != 0L) {
+      expireAccessOrder(window, now);
+      expireAccessOrder(probation, now);
+      expireAccessOrder(protectedList, now);
+    }
+    if (expireAfterWriteNanos != 0L) {
+      Node<K, V> n;
+      while ((n = writeOrder.first) != null &&
+          now - n.writeTime >= expireAfterWriteNanos) {
+        if (!evict(n, true, now)) {
+          break;
+        }
+      }
+    }
+  }
+
+  private void expireAccessOrder(NodeList<K, V> list, long now) {
+    Node<K, V> n;
+    while ((n = list.first) != null &&
+        now - n.accessTime >= expireAfterAccessNanos) {
+      if (!evict(n, true, now)) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Moves overflow from the window to probation, then evicts until the
+   * cache is within its maximum, letting each candidate that left the
+   * window compete with the probation victim on frequency.
+   */
+  final void evictEntries() {
+    Node<K, V> candidate = null;
+    while (windowSize > windowMaximum) {
+      Node<K, V> n = window.first;
+      window.remove(n);
+      windowSize--;
+      n.queue = PROBATION;
+      probation.addLast(n);
+      if (candidate == null) {
+        candidate = n;
+      }
+    }
+    while (weightedSize > maximumSize) {
+      Node<K, V> victim = probation.first;
+      if (candidate == null || candidate == victim) {
+        if (candidate != null) {
+          candidate = probation.successor(candidate);
+        }
+        if (victim == null) {
+          victim = (protectedList.first != null) ? protectedList.first : window.first;
+        }
+        evict(victim, false, 0L);
+      } else if (admit(candidate.key, victim.key)) {
+        evict(victim, false, 0L);
+      } else {
+        Node<K, V> rejected = candidate;
+        candidate = probation.successor(candidate);
+        evict(rejected, false, 0L);
+      }
+    }
+  }
+
+  /**
+   * Returns whether the candidate is estimated to be used more often
+   * than the victim.
+   */
+  final boolean admit(K candidate, K victim) {
+    return sketch.frequency(candidate) > sketch.frequency(victim);
+  }
+
+  /**
+   * A count-min sketch of 4-bit counters estimating how often each key
+   * was used, periodically halved so that old popularity fades. Each
+   * long holds sixteen counters; a key maps to four counters, one in
+   * each of four words, and its estimate is their minimum.
+   */
+  static final class FrequencySketch {
+
+    static final long[] SEED = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+        0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    static final long RESET_MASK = 0x7777777777777777L;
+    static final long ONE_MASK = 0x1111111111111111L;
+
+    final long[] table;
+    final int tableMask;
+    final int sampleSize;
+    int size;
+
+    FrequencySketch(int maximumSize) {
+      int n = Integer.highestOneBit(Math.max(maximumSize - 1, 1)) << 1;
+      table = new long[n];
+      tableMask = n - 1;
+      sampleSize = 10 * n;
+    }
+
+    static int spread(int x) {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+    }
+
+    int indexOf(int hash, int i) {
+      long h = (hash + SEED[i]) * SEED[i];
+      h += h >>> 32;
+      return ((int) h) & tableMask;
+    }
+
+    int frequency(Object e) {
+      int hash = spread(e.hashCode()), start = (hash & 3) << 2, freq = 15;
+      for (int i = 0; i < 4; i++) {
+        int count = (int) ((table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xfL);
+        freq = Math.min(freq, count);
+      }
+      return freq;
+    }
+
+    void increment(Object e) {
+      int hash = spread(e.hashCode()), start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; i++) {
+        int index = indexOf(hash, i);
+        long mask = 0xfL << ((start + i) << 2);
+        if ((table[index] & mask) != mask) {
+          table[index] += 1L << ((start + i) << 2);
+          added = true;
+        }
+      }
+      if (added && ++size >= sampleSize) {
+        reset();
+      }
+    }
+
+    void reset() {
+      int odd = 0;
+      for (int i = 0; i < table.length; i++) {
+        odd += Long.bitCount(table[i] & ONE_MASK);
+        table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      size = (size >>> 1) - (odd >>> 2);
+    }
+  }
+
+  /* ---------------- Statistics -------------- */
+
+  /**
+   * An immutable snapshot of the statistics of a
+   * {@link ConcurrentBoundedCache}.  Counts are maintained with
+   * {@link LongAdder}s, so a snapshot taken during concurrent updates
+   * need not correspond to any single instant.
+   *
+   * @since 1.8
+   */
+  public static final class Stats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long evictionCount;
+
+    Stats(long hitCount, long missCount, long loadSuccessCount,
+        long loadFailureCount, long totalLoadTime, long evictionCount) {
+      this.hitCount = hitCount;
+      this.missCount = missCount;
+      this.loadSuccessCount = loadSuccessCount;
+      this.loadFailureCount = loadFailureCount;
+      this.totalLoadTime = totalLoadTime;
+      this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Returns the number of lookups that found an unexpired mapping.
+     *
+     * @return the hit count
+     */
+    public long hitCount() {
+      return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that found no unexpired mapping,
+     * including those that then loaded a value.
+     *
+     * @return the miss count
+     */
+    public long missCount() {
+      return missCount;
+    }
+
+    /**
+     * Returns the ratio of hits to lookups, or {@code 1.0} if there
+     * were no lookups.
+     *
+     * @return the hit rate
+     */
+    public double hitRate() {
+      long requests = hitCount + missCount;
+      return (requests == 0) ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Returns the number of values loaded by
+     * {@link ConcurrentBoundedCache#computeIfAbsent computeIfAbsent}.
+     *
+     * @return the load success count
+     */
+    public long loadSuccessCount() {
+      return loadSuccessCount;
+    }
+
+    /**
+     * Returns the number of loads that threw an exception or returned
+     * {@code null}.
+     *
+     * @return the load failure count
+     */
+    public long loadFailureCount() {
+      return loadFailureCount;
+    }
+
+    /**
+     * Returns the total time spent loading values, in nanoseconds.
+     *
+     * @return the total load time
+     */
+    public long totalLoadTime() {
+      return totalLoadTime;
+    }
+
+    /**
+     * Returns the number of mappings removed because the cache was
+     * full or they expired.
+     *
+     * @return the eviction count
+     */
+    public long evictionCount() {
+      return evictionCount;
+    }
+
+    /**
+     * Returns a string representation of these statistics.
+     *
+     * @return a string representation of these statistics
+     */
+    public String toString() {
+      return "hitCount=" + hitCount + ", missCount=" + missCount +
+          ", loadSuccessCount=" + loadSuccessCount +
+          ", loadFailureCount=" + loadFailureCount +
+          ", totalLoadTime=" + totalLoadTime +
+          ", evictionCount=" + evictionCount;
+    }
+  }
+
+  // Unsafe mechanics
+  private static final sun.misc.Unsafe U;
+  private static final long HEAD;
+  private static final long TAIL;
+  private static final long ABASE;
+  private static final int ASHIFT;
+
+  static {
+    try {
+      U = sun.misc.Unsafe.getUnsafe();
+      Class<?> k = ReadBuffer.class;
+      HEAD = U.objectFieldOffset
+          (k.getDeclaredField("head"));
+      TAIL = U.objectFieldOffset
+          (k.getDeclaredField("tail"));
+      Class<?> ak = Object[].class;
+      ABASE = U.arrayBaseOffset(ak);
+      int scale = U.arrayIndexScale(ak);
+      if ((scale & (scale - 1)) != 0) {
+        throw new Error("data type scale not a power of two");
+      }
+      ASHIFT = 31 - Integer.numberOfLeadingZeros(scale);
+    } catch (Exception e) {
+      throw new Error(e);
+    }
+  }
+}
@@ -1057,7 +1057,12 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
         tab = helpTransfer(tab, f);
       } else {
         V oldVal = null;
+        boolean stats = ConcurrentHashMapStatistics.enabled();
+        long lockStart = stats ? System.nanoTime() : 0L;
         synchronized (f) {
+          if (stats) {
+            ConcurrentHashMapStatistics.binLocked(lockStart, tabAt(tab, i) != f);
+          }
           if (tabAt(tab, i) == f) {
             if (fh >= 0) {
               binCount = 1;
@@ -1152,7 +1157,12 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
       } else {
         V oldVal = null;
         boolean validated = false;
+        boolean stats = ConcurrentHashMapStatistics.enabled();
+        long lockStart = stats ? System.nanoTime() : 0L;
         synchronized (f) {
+          if (stats) {
+            ConcurrentHashMapStatistics.binLocked(lockStart, tabAt(tab, i) != f);
+          }
           if (tabAt(tab, i) == f) {
             if (fh >= 0) {
               validated = true;
@@ -1230,7 +1240,12 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
         tab = helpTransfer(tab, f);
         i = 0; // restart
       } else {
+        boolean stats = ConcurrentHashMapStatistics.enabled();
+        long lockStart = stats ? System.nanoTime() : 0L;
         synchronized (f) {
+          if (stats) {
+            ConcurrentHashMapStatistics.binLocked(lockStart, tabAt(tab, i) != f);
+          }
           if (tabAt(tab, i) == f) {
             Node<K, V> p = (fh >= 0 ? f :
                 (f instanceof TreeBin) ?
@@ -1732,7 +1747,12 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
         tab = helpTransfer(tab, f);
       } else {
         boolean added = false;
+        boolean stats = ConcurrentHashMapStatistics.enabled();
+        long lockStart = stats ? System.nanoTime() : 0L;
         synchronized (f) {
+          if (stats) {
+            ConcurrentHashMapStatistics.binLocked(lockStart, tabAt(tab, i) != f);
+          }
           if (tabAt(tab, i) == f) {
             if (fh >= 0) {
               binCount = 1;
@@ -1822,7 +1842,12 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
       } else if ((fh = f.hash) == MOVED) {
         tab = helpTransfer(tab, f);
       } else {
+        boolean stats = ConcurrentHashMapStatistics.enabled();
+        long lockStart = stats ? System.nanoTime() : 0L;
         synchronized (f) {
+          if (stats) {
+            ConcurrentHashMapStatistics.binLocked(lockStart, tabAt(tab, i) != f);
+          }
           if (tabAt(tab, i) == f) {
             if (fh >= 0) {
               binCount = 1;
@@ -1934,7 +1959,12 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
       } else if ((fh = f.hash) == MOVED) {
         tab = helpTransfer(tab, f);
       } else {
+        boolean stats = ConcurrentHashMapStatistics.enabled();
+        long lockStart = stats ? System.nanoTime() : 0L;
         synchronized (f) {
+          if (stats) {
+            ConcurrentHashMapStatistics.binLocked(lockStart, tabAt(tab, i) != f);
+          }
           if (tabAt(tab, i) == f) {
             if (fh >= 0) {
               binCount = 1;
@@ -2050,7 +2080,12 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
       } else if ((fh = f.hash) == MOVED) {
         tab = helpTransfer(tab, f);
       } else {
+        boolean stats = ConcurrentHashMapStatistics.enabled();
+        long lockStart = stats ? System.nanoTime() : 0L;
         synchronized (f) {
+          if (stats) {
+            ConcurrentHashMapStatistics.binLocked(lockStart, tabAt(tab, i) != f);
+          }
           if (tabAt(tab, i) == f) {
             if (fh >= 0) {
               binCount = 1;
@@ -2180,6 +2215,21 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
     return (n < 0L) ? 0L : n; // ignore transient negative values
   }
 
+  /**
+   * Returns the management interface for statistics of resizing and
+   * contention in all ConcurrentHashMaps, which are gathered only if
+   * the system property {@code
+   * java.util.concurrent.ConcurrentHashMap.statistics} is {@code
+   * "true"}.  The same object is registered with the platform
+   * MBeanServer, as described for {@link ConcurrentHashMapMXBean}.
+   *
+   * @return the statistics MXBean
+   * @since 1.8
+   */
+  public static ConcurrentHashMapMXBean getStatisticsMXBean() {
+    return ConcurrentHashMapStatistics.INSTANCE;
+  }
+
   /**
    * Creates a new {@link Set} backed by a ConcurrentHashMap
    * from the given type to {@code Boolean.TRUE}.
@@ -2388,6 +2438,8 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
     int sc;
     if (tab != null && (f instanceof ForwardingNode) &&
         (nextTab = ((ForwardingNode<K, V>) f).nextTable) != null) {
+      boolean stats = ConcurrentHashMapStatistics.enabled();
+      long start = stats ? System.nanoTime() : 0L;
       int rs = resizeStamp(tab.length);
       while (nextTab == nextTable && table == tab &&
           (sc = sizeCtl) < 0) {
@@ -2400,6 +2452,9 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
           break;
         }
       }
+      if (stats) {
+        ConcurrentHashMapStatistics.stalled(start);
+      }
       return nextTab;
     }
     return table;
@@ -2453,11 +2508,28 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
     }
   }
 
+  /**
+   * Moves and/or copies the nodes in each bin to new table, timing
+   * the work if statistics are enabled.
+   */
+  private final void transfer(Node<K, V>[] tab, Node<K, V>[] nextTab) {
+    if (ConcurrentHashMapStatistics.enabled()) {
+      long start = System.nanoTime();
+      try {
+        transferBins(tab, nextTab);
+      } finally {
+        ConcurrentHashMapStatistics.transferred(nextTab == null, start);
+      }
+    } else {
+      transferBins(tab, nextTab);
+    }
+  }
+
   /**
    * Moves and/or copies the nodes in each bin to new table. See
    * above for explanation.
    */
-  private final void transfer(Node<K, V>[] tab, Node<K, V>[] nextTab) {
+  private final void transferBins(Node<K, V>[] tab, Node<K, V>[] nextTab) {
     int n = tab.length, stride;
     if ((stride = (NCPU > 1) ? (n >>> 3) / NCPU : n) < MIN_TRANSFER_STRIDE) {
       stride = MIN_TRANSFER_STRIDE; // subdivide range
@@ -2517,7 +2589,12 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
       } else if ((fh = f.hash) == MOVED) {
         advance = true; // already processed
       } else {
+        boolean stats = ConcurrentHashMapStatistics.enabled();
+        long lockStart = stats ? System.nanoTime() : 0L;
         synchronized (f) {
+          if (stats) {
+            ConcurrentHashMapStatistics.binLocked(lockStart, tabAt(tab, i) != f);
+          }
           if (tabAt(tab, i) == f) {
             Node<K, V> ln, hn;
             if (fh >= 0) {
@@ -2625,6 +2702,9 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
 
   // See LongAdder version for explanation
   private final void fullAddCount(long x, boolean wasUncontended) {
+    if (ConcurrentHashMapStatistics.enabled()) {
+      ConcurrentHashMapStatistics.counterContended();
+    }
     int h;
     if ((h = ThreadLocalRandom.getProbe()) == 0) {
       ThreadLocalRandom.localInit();      // force initialization
@@ -2681,6 +2761,9 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
                 rs[i] = as[i];
               }
               counterCells = rs;
+              if (ConcurrentHashMapStatistics.enabled()) {
+                ConcurrentHashMapStatistics.counterCellsExpanded();
+              }
             }
           } finally {
             cellsBusy = 0;
@@ -2698,6 +2781,9 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
             rs[h & 1] = new CounterCell(x);
             counterCells = rs;
             init = true;
+            if (ConcurrentHashMapStatistics.enabled()) {
+              ConcurrentHashMapStatistics.counterCellsExpanded();
+            }
           }
         } finally {
           cellsBusy = 0;
@@ -2739,6 +2825,9 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
               tl = p;
             }
             setTabAt(tab, index, new TreeBin<K, V>(hd));
+            if (ConcurrentHashMapStatistics.enabled()) {
+              ConcurrentHashMapStatistics.treeified();
+            }
           }
         }
       }
@@ -2749,6 +2838,9 @@ public class ConcurrentHashMap<K, V> extends AbstractMap<K, V>
    * Returns a list on non-TreeNodes replacing those in given list.
    */
   static <K, V> Node<K, V> untreeify(Node<K, V> b) {
+    if (ConcurrentHashMapStatistics.enabled()) {
+      ConcurrentHashMapStatistics.untreeified();
+    }
     Node<K, V> hd = null, tl = null;
     for (Node<K, V> q = b; q != null; q = q.next) {
       Node<K, V> p = new Node<K, V>(q.hash, q.key, q.val, null);
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.lang.management.PlatformManagedObject;
+
+/**
+ * The management interface for statistics of resizing and contention in
+ * all {@link ConcurrentHashMap} instances of the Java virtual machine.
+ *
+ * <p>Statistics are gathered only if the system property {@code
+ * java.util.concurrent.ConcurrentHashMap.statistics} is {@code "true"}
+ * at startup, for example through a {@code -D} option on the command
+ * line; otherwise every count is zero, and the checks compiled into the
+ * map operations cost next to nothing.  Updates made while the virtual
+ * machine is starting up are not counted.  There is a single global
+ * instance of the {@code ConcurrentHashMapMXBean}, which can be obtained
+ * by calling the {@link
+ * java.lang.management.ManagementFactory#getPlatformMXBean(Class)
+ * ManagementFactory.getPlatformMXBean} method, and is registered with
+ * the platform {@linkplain
+ * java.lang.management.ManagementFactory#getPlatformMBeanServer
+ * MBeanServer} under the {@link javax.management.ObjectName ObjectName}
+ * <pre>
+ *      java.util.concurrent:type=ConcurrentHashMap
+ * </pre>
+ *
+ * <p>Times are in nanoseconds.  A resize moves the bins of a table to a
+ * table twice its size; threads that update a map while it is resized
+ * help to move bins rather than wait, and the time they spend doing so is
+ * counted as both resize time and writer stall time.
+ *
+ * @see ConcurrentHashMap#getStatisticsMXBean
+ * @since 1.8
+ */
+public interface ConcurrentHashMapMXBean extends PlatformManagedObject {
+
+  /**
+   * Returns {@code true} if statistics are being gathered.
+   *
+   * @return {@code true} if statistics are being gathered
+   */
+  boolean isStatisticsEnabled();
+
+  /**
+   * Returns the number of resizes started.
+   *
+   * @return the number of resizes started
+   */
+  long getResizeCount();
+
+  /**
+   * Returns the number of times a thread joined a resize that another
+   * thread had started.
+   *
+   * @return the number of times a thread helped to resize
+   */
+  long getResizeHelpCount();
+
+  /**
+   * Returns the total time threads have spent moving bins, summed over
+   * all threads taking part in each resize.
+   *
+   * @return the total resize time in nanoseconds
+   */
+  long getResizeTime();
+
+  /**
+   * Returns the longest time a single thread has spent moving bins in
+   * one resize.
+   *
+   * @return the longest resize time in nanoseconds
+   */
+  long getMaxResizeTime();
+
+  /**
+   * Returns the number of times an update found a bin already moved by a
+   * resize in progress, and helped to complete the resize before
+   * proceeding.
+   *
+   * @return the number of writer stalls
+   */
+  long getWriterStallCount();
+
+  /**
+   * Returns the total time updates have spent stalled by resizes.
+   *
+   * @return the total writer stall time in nanoseconds
+   */
+  long getWriterStallTime();
+
+  /**
+   * Returns the number of times the lock of a non-empty bin was acquired
+   * by an update or a resize.
+   *
+   * @return the number of bin lock acquisitions
+   */
+  long getBinLockCount();
+
+  /**
+   * Returns the total time spent acquiring bin locks, including the
+   * time spent waiting for other threads to release them.
+   *
+   * @return the total bin lock acquisition time in nanoseconds
+   */
+  long getBinLockWaitTime();
+
+  /**
+   * Returns the number of times a bin lock was acquired only to find
+   * that the bin had been changed by another thread meanwhile, so that
+   * the operation had to be retried.
+   *
+   * @return the number of bin lock retries
+   */
+  long getBinLockRetryCount();
+
+  /**
+   * Returns the number of bins converted from lists to trees because
+   * they held too many keys with colliding hashes.
+   *
+   * @return the number of treeifications
+   */
+  long getTreeifyCount();
+
+  /**
+   * Returns the number of bins converted from trees back to lists.
+   *
+   * @return the number of untreeifications
+   */
+  long getUntreeifyCount();
+
+  /**
+   * Returns the number of times an update of the element count found
+   * its base count or counter cell contended.
+   *
+   * @return the number of contended count updates
+   */
+  long getCounterCellContentionCount();
+
+  /**
+   * Returns the number of times a table of counter cells was created or
+   * doubled in size because of contention.
+   *
+   * @return the number of counter cell expansions
+   */
+  long getCounterCellExpansionCount();
+
+  /**
+   * Resets all counts and times to zero.
+   *
+   * @throws SecurityException if a security manager exists and the
+   *         caller does not have ManagementPermission("control").
+   */
+  void resetStatistics();
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.lang.management.ManagementPermission;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import sun.misc.VM;
+
+/**
+ * The counters behind {@link ConcurrentHashMapMXBean}.  ConcurrentHashMap
+ * tests {@link #enabled} before each call, which costs a static field
+ * read once the setting is known.
+ */
+final class ConcurrentHashMapStatistics implements ConcurrentHashMapMXBean {
+
+  /** The system property that enables statistics. */
+  private static final String PROPERTY =
+      "java.util.concurrent.ConcurrentHashMap.statistics";
+
+  // Values of state
+  private static final int UNKNOWN = 0;
+  private static final int OFF = 1;
+  private static final int ON = 2;
+
+  /**
+   * Whether statistics are gathered, or UNKNOWN until the VM has booted.
+   * Maps are resized while System.initProperties is still filling in the
+   * system properties, before the -D options are visible, so the setting
+   * cannot be read when this class is initialized.  It is instead read
+   * from the saved properties the first time it is needed after boot.
+   * Racing threads compute the same value, so the field needs no
+   * synchronization.
+   */
+  private static int state;
+
+  /**
+   * Returns whether statistics are gathered.  Before the VM has booted
+   * this is false, without settling the state.
+   */
+  static boolean enabled() {
+    int s = state;
+    if (s == UNKNOWN) {
+      if (!VM.isBooted()) {
+        return false;
+      }
+      state = s = Boolean.parseBoolean(VM.getSavedProperty(PROPERTY)) ? ON : OFF;
+    }
+    return s == ON;
+  }
+
+  /** The single instance. */
+  static final ConcurrentHashMapStatistics INSTANCE =
+      new ConcurrentHashMapStatistics();
+
+  private final LongAdder resizes = new LongAdder();
+  private final LongAdder resizeHelps = new LongAdder();
+  private final LongAdder resizeNanos = new LongAdder();
+  private final AtomicLong maxResizeNanos = new AtomicLong();
+  private final LongAdder stalls = new LongAdder();
+  private final LongAdder stallNanos = new LongAdder();
+  private final LongAdder binLocks = new LongAdder();
+  private final LongAdder binLockNanos = new LongAdder();
+  private final LongAdder binLockRetries = new LongAdder();
+  private final LongAdder treeifications = new LongAdder();
+  private final LongAdder untreeifications = new LongAdder();
+  private final LongAdder cellContentions = new LongAdder();
+  private final LongAdder cellExpansions = new LongAdder();
+
+  private ConcurrentHashMapStatistics() {
+  }
+
+  /* ---------------- Recording -------------- */
+
+  /**
+   * Records a thread's part in a resize, started or joined depending on
+   * whether it brought the next table.
+   */
+  static void transferred(boolean started, long startNanos) {
+    ConcurrentHashMapStatistics s = INSTANCE;
+    long nanos = System.nanoTime() - startNanos;
+    (started ? s.resizes : s.resizeHelps).increment();
+    s.resizeNanos.add(nanos);
+    AtomicLong max = s.maxResizeNanos;
+    for (long m; nanos > (m = max.get()) && !max.compareAndSet(m, nanos); ) {
+    }
+  }
+
+  /**
+   * Records an update that helped a resize before proceeding.
+   */
+  static void stalled(long startNanos) {
+    INSTANCE.stalls.increment();
+    INSTANCE.stallNanos.add(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Records the acquisition of a bin lock, and whether the bin was found
+   * changed.
+   */
+  static void binLocked(long startNanos, boolean stale) {
+    ConcurrentHashMapStatistics s = INSTANCE;
+    s.binLockNanos.add(System.nanoTime() - startNanos);
+    s.binLocks.increment();
+    if (stale) {
+      s.binLockRetries.increment();
+    }
+  }
+
+  static void treeified() {
+    INSTANCE.treeifications.increment();
+  }
+
+  static void untreeified() {
+    INSTANCE.untreeifications.increment();
+  }
+
+  static void counterContended() {
+    INSTANCE.cellContentions.increment();
+  }
+
+  static void counterCellsExpanded() {
+    INSTANCE.cellExpansions.increment();
+  }
+
+  /* ---------------- ConcurrentHashMapMXBean -------------- */
+
+  public boolean isStatisticsEnabled() {
+    return enabled();
+  }
+
+  public long getResizeCount() {
+    return resizes.sum();
+  }
+
+  public long getResizeHelpCount() {
+    return resizeHelps.sum();
+  }
+
+  public long getResizeTime() {
+    return resizeNanos.sum();
+  }
+
+  public long getMaxResizeTime() {
+    return maxResizeNanos.get();
+  }
+
+  public long getWriterStallCount() {
+    return stalls.sum();
+  }
+
+  public long getWriterStallTime() {
+    return stallNanos.sum();
+  }
+
+  public long getBinLockCount() {
+    return binLocks.sum();
+  }
+
+  public long getBinLockWaitTime() {
+    return binLockNanos.sum();
+  }
+
+  public long getBinLockRetryCount() {
+    return binLockRetries.sum();
+  }
+
+  public long getTreeifyCount() {
+    return treeifications.sum();
+  }
+
+  public long getUntreeifyCount() {
+    return untreeifications.sum();
+  }
+
+  public long getCounterCellContentionCount() {
+    return cellContentions.sum();
+  }
+
+  public long getCounterCellExpansionCount() {
+    return cellExpansions.sum();
+  }
+
+  public void resetStatistics() {
+    SecurityManager sm = System.getSecurityManager();
+    if (sm != null) {
+      sm.checkPermission(new ManagementPermission("control"));
+    }
+    resizes.reset();
+    resizeHelps.reset();
+    resizeNanos.reset();
+    maxResizeNanos.set(0L);
+    stalls.reset();
+    stallNanos.reset();
+    binLocks.reset();
+    binLockNanos.reset();
+    binLockRetries.reset();
+    treeifications.reset();
+    untreeifications.reset();
+    cellContentions.reset();
+    cellExpansions.reset();
+  }
+
+  public ObjectName getObjectName() {
+    try {
+      return ObjectName.getInstance("java.util.concurrent:type=ConcurrentHashMap");
+    } catch (MalformedObjectNameException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+}
@@ -0,0 +1,2166 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A hash table with primitive {@code long} keys supporting full
+ * concurrency of retrievals and high expected concurrency for updates.
+ * This class follows the design of {@link ConcurrentHashMap}, and its
+ * methods behave like the methods of that class of the same names, but
+ * it stores keys unboxed in its nodes, and hashes and compares them
+ * without calls to {@code hashCode} or {@code equals}.  It does not
+ * implement {@link java.util.Map}.
+ *
+ * <p>Retrieval operations (including {@code get}) generally do not
+ * block, so may overlap with update operations (including {@code put}
+ * and {@code remove}).  Retrievals reflect the results of the most
+ * recently <em>completed</em> update operations holding upon their
+ * onset.  Bulk operations such as {@link #forEach(long, ObjLongConsumer)
+ * forEach} are weakly consistent, and may be performed in parallel in
+ * the {@link ForkJoinPool#commonPool()} when the map holds at least the
+ * given parallelism threshold of mappings, as described for {@code
+ * ConcurrentHashMap}.  Like {@link ConcurrentHashMap}, this class does
+ * not allow {@code null} to be used as a value.
+ *
+ * @param <V> the type of mapped values
+ * @since 1.8
+ */
+public class ConcurrentLongHashMap<V> {
+
+  /*
+   * Overview:
+   *
+   * This is ConcurrentHashMap without serialization or collection
+   * views: see that class for the explanation of the table, the CAS
+   * insertion into empty bins, the locking of first nodes of bins for
+   * other updates, the cooperative transfer used in resizing, the
+   * TreeBins used for overpopulated bins, and the CounterCells used in
+   * counting. Keys are longs, and the hash of a key is that of
+   * ConcurrentHashMap for a Long key, so bins are laid out as they would
+   * be for boxed keys. That hash folds the two halves of the key
+   * together, so many keys share each hash (every multiple of
+   * 0x100000001L hashes to 0), and a caller choosing keys can fill a
+   * single bin however the hash is mixed. TreeBins keep such bins
+   * O(log n). Since keys are totally ordered, TreeBins order their
+   * nodes by key alone and need none of the hash, Comparable and
+   * tie-breaking comparisons of ConcurrentHashMap's.
+   */
+
+    /* ---------------- Constants -------------- */
+
+  /**
+   * The largest possible table capacity.
+   */
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  /**
+   * The default initial table capacity.
+   */
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * The bin count threshold for using a tree rather than list for a
+   * bin, as in ConcurrentHashMap.
+   */
+  static final int TREEIFY_THRESHOLD = 8;
+
+  /**
+   * The bin count threshold for untreeifying a (split) bin during a
+   * resize operation.
+   */
+  static final int UNTREEIFY_THRESHOLD = 6;
+
+  /**
+   * The smallest table capacity for which bins may be treeified.
+   * (Otherwise the table is resized if too many nodes in a bin.)
+   */
+  static final int MIN_TREEIFY_CAPACITY = 64;
+
+  /**
+   * Minimum number of rebinnings per transfer step.
+   */
+  private static final int MIN_TRANSFER_STRIDE = 16;
+
+  /**
+   * The number of bits used for generation stamp in sizeCtl.
+   */
+  private static int RESIZE_STAMP_BITS = 16;
+
+  /**
+   * The maximum number of threads that can help resize.
+   */
+  private static final int MAX_RESIZERS = (1 << (32 - RESIZE_STAMP_BITS)) - 1;
+
+  /**
+   * The bit shift for recording size stamp in sizeCtl.
+   */
+  private static final int RESIZE_STAMP_SHIFT = 32 - RESIZE_STAMP_BITS;
+
+  /*
+   * Encodings for Node hash fields.
+   */
+  static final int MOVED = -1; // hash for forwarding nodes
+  static final int TREEBIN = -2; // hash for roots of trees
+  static final int RESERVED = -3; // hash for transient reservations
+  static final int HASH_BITS = 0x7fffffff; // usable bits of normal node hash
+
+  /**
+   * Number of CPUS, to place bounds on some sizings
+   */
+  static final int NCPU = Runtime.getRuntime().availableProcessors();
+
+    /* ---------------- Nodes -------------- */
+
+  /**
+   * Key-value entry.  Subclasses of Node with a negative hash field
+   * are special, and contain null values.
+   */
+  static class Node<V> {
+
+    final int hash;
+    final long key;
+    volatile V val;
+    volatile Node<V> next;
+
+    Node(int hash, long key, V val, Node<V> next) {
+      this.hash = hash;
+      this.key = key;
+      this.val = val;
+      this.next = next;
+    }
+
+    /**
+     * Virtualized support for map.get(); overridden in subclasses.
+     */
+    Node<V> find(int h, long k) {
+      Node<V> e = this;
+      do {
+        if (e.hash == h && e.key == k) {
+          return e;
+        }
+      } while ((e = e.next) != null);
+      return null;
+    }
+  }
+
+    /* ---------------- Static utilities -------------- */
+
+  /**
+   * Spreads the hash of a key as ConcurrentHashMap.spread does that of
+   * a Long, and forces the top bit to 0.
+   */
+  static final int spread(long key) {
+    int h = (int) (key ^ (key >>> 32));
+    return (h ^ (h >>> 16)) & HASH_BITS;
+  }
+
+  /**
+   * Returns a power of two table size for the given desired capacity.
+   * See Hackers Delight, sec 3.2
+   */
+  private static final int tableSizeFor(int c) {
+    int n = c - 1;
+    n |= n >>> 1;
+    n |= n >>> 2;
+    n |= n >>> 4;
+    n |= n >>> 8;
+    n |= n >>> 16;
+    return (n < 0) ? 1 : (n >= MAXIMUM_CAPACITY) ? MAXIMUM_CAPACITY : n + 1;
+  }
+
+    /* ---------------- Table element access -------------- */
+
+  @SuppressWarnings("unchecked")
+  static final <V> Node<V> tabAt(Node<V>[] tab, int i) {
+    return (Node<V>) U.getObjectVolatile(tab, ((long) i << ASHIFT) + ABASE);
+  }
+
+  static final <V> boolean casTabAt(Node<V>[] tab, int i,
+      Node<V> c, Node<V> v) {
+    return U.compareAndSwapObject(tab, ((long) i << ASHIFT) + ABASE, c, v);
+  }
+
+  static final <V> void setTabAt(Node<V>[] tab, int i, Node<V> v) {
+    U.putObjectVolatile(tab, ((long) i << ASHIFT) + ABASE, v);
+  }
+
+    /* ---------------- Fields -------------- */
+
+  /**
+   * The array of bins. Lazily initialized upon first insertion.
+   * Size is always a power of two.
+   */
+  transient volatile Node<V>[] table;
+
+  /**
+   * The next table to use; non-null only while resizing.
+   */
+  private transient volatile Node<V>[] nextTable;
+
+  /**
+   * Base counter value, used mainly when there is no contention,
+   * but also as a fallback during table initialization
+   * races. Updated via CAS.
+   */
+  private transient volatile long baseCount;
+
+  /**
+   * Table initialization and resizing control, as in ConcurrentHashMap.
+   */
+  private transient volatile int sizeCtl;
+
+  /**
+   * The next table index (plus one) to split while resizing.
+   */
+  private transient volatile int transferIndex;
+
+  /**
+   * Spinlock (locked via CAS) used when resizing and/or creating CounterCells.
+   */
+  private transient volatile int cellsBusy;
+
+  /**
+   * Table of counter cells. When non-null, size is a power of 2.
+   */
+  private transient volatile CounterCell[] counterCells;
+
+    /* ---------------- Public operations -------------- */
+
+  /**
+   * Creates a new, empty map with the default initial table size (16).
+   */
+  public ConcurrentLongHashMap() {
+  }
+
+  /**
+   * Creates a new, empty map with an initial table size
+   * accommodating the specified number of elements without the need
+   * to dynamically resize.
+   *
+   * @param initialCapacity The implementation performs internal
+   *        sizing to accommodate this many elements.
+   * @throws IllegalArgumentException if the initial capacity of
+   *         elements is negative
+   */
+  public ConcurrentLongHashMap(int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException();
+    }
+    this.sizeCtl = ((initialCapacity >= (MAXIMUM_CAPACITY >>> 1)) ?
+        MAXIMUM_CAPACITY :
+        tableSizeFor(initialCapacity + (initialCapacity >>> 1) + 1));
+  }
+
+  /**
+   * Returns the number of key-value mappings in this map.  If the map
+   * contains more than {@code Integer.MAX_VALUE} elements, returns
+   * {@code Integer.MAX_VALUE}.
+   *
+   * @return the number of key-value mappings in this map
+   */
+  public int size() {
+    long n = sumCount();
+    return ((n < 0L) ? 0 :
+        (n > (long) Integer.MAX_VALUE) ? Integer.MAX_VALUE :
+            (int) n);
+  }
+
+  /**
+   * Returns the number of mappings.  The value returned is an estimate;
+   * the actual count may differ if there are concurrent insertions or
+   * removals.
+   *
+   * @return the number of mappings
+   */
+  public long mappingCount() {
+    long n = sumCount();
+    return (n < 0L) ? 0L : n; // ignore transient negative values
+  }
+
+  /**
+   * Returns {@code true} if this map contains no key-value mappings.
+   *
+   * @return {@code true} if this map contains no key-value mappings
+   */
+  public boolean isEmpty() {
+    return sumCount() <= 0L; // ignore transient negative values
+  }
+
+  /**
+   * Returns the value to which the specified key is mapped,
+   * or {@code null} if this map contains no mapping for the key.
+   *
+   * @param key the key whose associated value is to be returned
+   * @return the value to which the specified key is mapped, or
+   *         {@code null} if this map contains no mapping for the key
+   */
+  public V get(long key) {
+    Node<V>[] tab;
+    Node<V> e, p;
+    int n, eh;
+    int h = spread(key);
+    if ((tab = table) != null && (n = tab.length) > 0 &&
+        (e = tabAt(tab, (n - 1) & h)) != null) {
+      if ((eh = e.hash) == h) {
+        if (e.key == key) {
+          return e.val;
+        }
+      } else if (eh < 0) {
+        return (p = e.find(h, key)) != null ? p.val : null;
+      }
+      while ((e = e.next) != null) {
+        if (e.hash == h && e.key == key) {
+          return e.val;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the value to which the specified key is mapped, or the
+   * given default value if this map contains no mapping for the key.
+   *
+   * @param key the key whose associated value is to be returned
+   * @param defaultValue the value to return if this map contains
+   *        no mapping for the given key
+   * @return the mapping for the key, if present; else the default value
+   */
+  public V getOrDefault(long key, V defaultValue) {
+    V v;
+    return (v = get(key)) == null ? defaultValue : v;
+  }
+
+  /**
+   * Tests if the specified key is a key in this map.
+   *
+   * @param key possible key
+   * @return {@code true} if and only if the specified key is a key in
+   *         this map
+   */
+  public boolean containsKey(long key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Maps the specified key to the specified value in this map.
+   * The value cannot be null.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return the previous value associated with {@code key}, or
+   *         {@code null} if there was no mapping for {@code key}
+   * @throws NullPointerException if the specified value is null
+   */
+  public V put(long key, V value) {
+    return putVal(key, value, false);
+  }
+
+  /**
+   * If the specified key is not already associated with a value,
+   * associates it with the given value.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return the previous value associated with the specified key,
+   *         or {@code null} if there was no mapping for the key
+   * @throws NullPointerException if the specified value is null
+   */
+  public V putIfAbsent(long key, V value) {
+    return putVal(key, value, true);
+  }
+
+  /**
+   * Implementation for put and putIfAbsent
+   */
+  final V putVal(long key, V value, boolean onlyIfAbsent) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    int hash = spread(key);
+    int binCount = 0;
+    for (Node<V>[] tab = table; ; ) {
+      Node<V> f;
+      int n, i, fh;
+      if (tab == null || (n = tab.length) == 0) {
+        tab = initTable();
+      } else if ((f = tabAt(tab, i = (n - 1) & hash)) == null) {
+        if (casTabAt(tab, i, null,
+            new Node<V>(hash, key, value, null))) {
+          break;                   // no lock when adding to empty bin
+        }
+      } else if ((fh = f.hash) == MOVED) {
+        tab = helpTransfer(tab, f);
+      } else {
+        V oldVal = null;
+        synchronized (f) {
+          if (tabAt(tab, i) == f) {
+            if (fh >= 0) {
+              binCount = 1;
+              for (Node<V> e = f; ; ++binCount) {
+                if (e.hash == hash && e.key == key) {
+                  oldVal = e.val;
+                  if (!onlyIfAbsent) {
+                    e.val = value;
+                  }
+                  break;
+                }
+                Node<V> pred = e;
+                if ((e = e.next) == null) {
+                  pred.next = new Node<V>(hash, key, value, null);
+                  break;
+                }
+              }
+            } else if (f instanceof TreeBin) {
+              Node<V> p;
+              binCount = 2;
+              if ((p = ((TreeBin<V>) f).putTreeVal(hash, key, value)) != null) {
+                oldVal = p.val;
+                if (!onlyIfAbsent) {
+                  p.val = value;
+                }
+              }
+            }
+          }
+        }
+        if (binCount != 0) {
+          if (binCount >= TREEIFY_THRESHOLD) {
+            treeifyBin(tab, i);
+          }
+          if (oldVal != null) {
+            return oldVal;
+          }
+          break;
+        }
+      }
+    }
+    addCount(1L, binCount);
+    return null;
+  }
+
+  /**
+   * Removes the key (and its corresponding value) from this map.
+   * This method does nothing if the key is not in the map.
+   *
+   * @param key the key that needs to be removed
+   * @return the previous value associated with {@code key}, or
+   *         {@code null} if there was no mapping for {@code key}
+   */
+  public V remove(long key) {
+    return replaceNode(key, null, null);
+  }
+
+  /**
+   * Removes the entry for a key only if currently mapped to a given
+   * value.
+   *
+   * @param key key with which the specified value is associated
+   * @param value value expected to be associated with the specified key
+   * @return {@code true} if the value was removed
+   */
+  public boolean remove(long key, Object value) {
+    return value != null && replaceNode(key, null, value) != null;
+  }
+
+  /**
+   * Replaces the entry for a key only if currently mapped to a given
+   * value.
+   *
+   * @param key key with which the specified value is associated
+   * @param oldValue value expected to be associated with the specified key
+   * @param newValue value to be associated with the specified key
+   * @return {@code true} if the value was replaced
+   * @throws NullPointerException if either value is null
+   */
+  public boolean replace(long key, V oldValue, V newValue) {
+    if (oldValue == null || newValue == null) {
+      throw new NullPointerException();
+    }
+    return replaceNode(key, newValue, oldValue) != null;
+  }
+
+  /**
+   * Replaces the entry for a key only if currently mapped to some value.
+   *
+   * @param key key with which the specified value is associated
+   * @param value value to be associated with the specified key
+   * @return the previous value associated with the specified key,
+   *         or {@code null} if there was no mapping for the key
+   * @throws NullPointerException if the specified value is null
+   */
+  public V replace(long key, V value) {
+    if (value == null) {
+      throw new NullPointerException();
+    }
+    return replaceNode(key, value, null);
+  }
+
+  /**
+   * Implementation for the four public remove/replace methods:
+   * Replaces node value with v, conditional upon match of cv if
+   * non-null.  If resulting value is null, delete.
+   */
+  final V replaceNode(long key, V value, Object cv) {
+    int hash = spread(key);
+    for (Node<V>[] tab = table; ; ) {
+      Node<V> f;
+      int n, i, fh;
+      if (tab == null || (n = tab.length) == 0 ||
+          (f = tabAt(tab, i = (n - 1) & hash)) == null) {
+        break;
+      } else if ((fh = f.hash) == MOVED) {
+        tab = helpTransfer(tab, f);
+      } else {
+        V oldVal = null;
+        boolean validated = false;
+        synchronized (f) {
+          if (tabAt(tab, i) == f) {
+            if (fh >= 0) {
+              validated = true;
+              for (Node<V> e = f, pred = null; ; ) {
+                if (e.hash == hash && e.key == key) {
+                  V ev = e.val;
+                  if (cv == null || cv == ev ||
+                      (ev != null && cv.equals(ev))) {
+                    oldVal = ev;
+                    if (value != null) {
+                      e.val = value;
+                    } else if (pred != null) {
+                      pred.next = e.next;
+                    } else {
+                      setTabAt(tab, i, e.next);
+                    }
+                  }
+                  break;
+                }
+                pred = e;
+                if ((e = e.next) == null) {
+                  break;
+                }
+              }
+            } else if (f instanceof TreeBin) {
+              validated = true;
+              TreeBin<V> t = (TreeBin<V>) f;
+              TreeNode<V> r, p;
+              if ((r = t.root) != null &&
+                  (p = r.findTreeNode(key)) != null) {
+                V pv = p.val;
+                if (cv == null || cv == pv ||
+                    (pv != null && cv.equals(pv))) {
+                  oldVal = pv;
+                  if (value != null) {
+                    p.val = value;
+                  } else if (t.removeTreeNode(p)) {
+                    setTabAt(tab, i, untreeify(t.first));
+                  }
+                }
+              }
+            }
+          }
+        }
+        if (validated) {
+          if (oldVal != null) {
+            if (value == null) {
+              addCount(-1L, -1);
+            }
+            return oldVal;
+          }
+          break;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * If the specified key is not already associated with a value,
+   * attempts to compute its value using the given mapping function
+   * and enters it into this map unless {@code null}.  The entire
+   * method invocation is performed atomically, so the function is
+   * applied at most once per key.  Some attempted update operations
+   * on this map by other threads may be blocked while computation
+   * is in progress, so the computation should be short and simple,
+   * and must not attempt to update any other mappings of this map.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param mappingFunction the function to compute a value
+   * @return the current (existing or computed) value associated with
+   *         the specified key, or null if the computed value is null
+   * @throws NullPointerException if the mappingFunction is null
+   * @throws RuntimeException or Error if the mappingFunction does so,
+   *         in which case the mapping is left unestablished
+   */
+  public V computeIfAbsent(long key, LongFunction<? extends V> mappingFunction) {
+    if (mappingFunction == null) {
+      throw new NullPointerException();
+    }
+    int h = spread(key);
+    V val = null;
+    int binCount = 0;
+    for (Node<V>[] tab = table; ; ) {
+      Node<V> f;
+      int n, i, fh;
+      if (tab == null || (n = tab.length) == 0) {
+        tab = initTable();
+      } else if ((f = tabAt(tab, i = (n - 1) & h)) == null) {
+        Node<V> r = new ReservationNode<V>();
+        synchronized (r) {
+          if (casTabAt(tab, i, null, r)) {
+            binCount = 1;
+            Node<V> node = null;
+            try {
+              if ((val = mappingFunction.apply(key)) != null) {
+                node = new Node<V>(h, key, val, null);
+              }
+            } finally {
+              setTabAt(tab, i, node);
+            }
+          }
+        }
+        if (binCount != 0) {
+          break;
+        }
+      } else if ((fh = f.hash) == MOVED) {
+        tab = helpTransfer(tab, f);
+      } else {
+        boolean added = false;
+        synchronized (f) {
+          if (tabAt(tab, i) == f) {
+            if (fh >= 0) {
+              binCount = 1;
+              for (Node<V> e = f; ; ++binCount) {
+                if (e.hash == h && e.key == key) {
+                  val = e.val;
+                  break;
+                }
+                Node<V> pred = e;
+                if ((e = e.next) == null) {
+                  if ((val = mappingFunction.apply(key)) != null) {
+                    added = true;
+                    pred.next = new Node<V>(h, key, val, null);
+                  }
+                  break;
+                }
+              }
+            } else if (f instanceof TreeBin) {
+              binCount = 2;
+              TreeBin<V> t = (TreeBin<V>) f;
+              TreeNode<V> r, p;
+              if ((r = t.root) != null &&
+                  (p = r.findTreeNode(key)) != null) {
+                val = p.val;
+              } else if ((val = mappingFunction.apply(key)) != null) {
+                added = true;
+                t.putTreeVal(h, key, val);
+              }
+            }
+          }
+        }
+        if (binCount != 0) {
+          if (binCount >= TREEIFY_THRESHOLD) {
+            treeifyBin(tab, i);
+          }
+          if (!added) {
+            return val;
+          }
+          break;
+        }
+      }
+    }
+    if (val != null) {
+      addCount(1L, binCount);
+    }
+    return val;
+  }
+
+  /**
+   * Removes all of the mappings from this map.
+   */
+  public void clear() {
+    long delta = 0L; // negative number of deletions
+    int i = 0;
+    Node<V>[] tab = table;
+    while (tab != null && i < tab.length) {
+      int fh;
+      Node<V> f = tabAt(tab, i);
+      if (f == null) {
+        ++i;
+      } else if ((fh = f.hash) == MOVED) {
+        tab = helpTransfer(tab, f);
+        i = 0; // restart
+      } else {
+        synchronized (f) {
+          if (tabAt(tab, i) == f) {
+            Node<V> p = (fh >= 0 ? f :
+                (f instanceof TreeBin) ?
+                    ((TreeBin<V>) f).first : null);
+            while (p != null) {
+              --delta;
+              p = p.next;
+            }
+            setTabAt(tab, i++, null);
+          }
+        }
+      }
+    }
+    if (delta != 0L) {
+      addCount(delta, -1);
+    }
+  }
+
+  /**
+   * Performs the given action for each (key, value), sequentially.
+   *
+   * @param action the action, accepting a value and its key
+   * @throws NullPointerException if the action is null
+   */
+  public void forEach(ObjLongConsumer<? super V> action) {
+    forEach(Long.MAX_VALUE, action);
+  }
+
+    /* ---------------- Special Nodes -------------- */
+
+  /**
+   * A node inserted at head of bins during transfer operations.
+   */
+  static final class ForwardingNode<V> extends Node<V> {
+
+    final Node<V>[] nextTable;
+
+    ForwardingNode(Node<V>[] tab) {
+      super(MOVED, 0L, null, null);
+      this.nextTable = tab;
+    }
+
+    Node<V> find(int h, long k) {
+      // loop to avoid arbitrarily deep recursion on forwarding nodes
+      outer:
+      for (Node<V>[] tab = nextTable; ; ) {
+        Node<V> e;
+        int n;
+        if (tab == null || (n = tab.length) == 0 ||
+            (e = tabAt(tab, (n - 1) & h)) == null) {
+          return null;
+        }
+        for (; ; ) {
+          int eh;
+          if ((eh = e.hash) == h && e.key == k) {
+            return e;
+          }
+          if (eh < 0) {
+            if (e instanceof ForwardingNode) {
+              tab = ((ForwardingNode<V>) e).nextTable;
+              continue outer;
+            } else {
+              return e.find(h, k);
+            }
+          }
+          if ((e = e.next) == null) {
+            return null;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * A place-holder node used in computeIfAbsent
+   */
+  static final class ReservationNode<V> extends Node<V> {
+
+    ReservationNode() {
+      super(RESERVED, 0L, null, null);
+    }
+
+    Node<V> find(int h, long k) {
+      return null;
+    }
+  }
+
+    /* ---------------- Table Initialization and Resizing -------------- */
+
+  /**
+   * Returns the stamp bits for resizing a table of size n.
+   * Must be negative when shifted left by RESIZE_STAMP_SHIFT.
+   */
+  static final int resizeStamp(int n) {
+    return Integer.numberOfLeadingZeros(n) | (1 << (RESIZE_STAMP_BITS - 1));
+  }
+
+  /**
+   * Initializes table, using the size recorded in sizeCtl.
+   */
+  private final Node<V>[] initTable() {
+    Node<V>[] tab;
+    int sc;
+    while ((tab = table) == null || tab.length == 0) {
+      if ((sc = sizeCtl) < 0) {
+        Thread.yield(); // lost initialization race; just spin
+      } else if (U.compareAndSwapInt(this, SIZECTL, sc, -1)) {
+        try {
+          if ((tab = table) == null || tab.length == 0) {
+            int n = (sc > 0) ? sc : DEFAULT_CAPACITY;
+            @SuppressWarnings("unchecked")
+            Node<V>[] nt = (Node<V>[]) new Node<?>[n];
+            table = tab = nt;
+            sc = n - (n >>> 2);
+          }
+        } finally {
+          sizeCtl = sc;
+        }
+        break;
+      }
+    }
+    return tab;
+  }
+
+  /**
+   * Adds to count, and if table is too small and not already
+   * resizing, initiates transfer. If already resizing, helps
+   * perform transfer if work is available.  Rechecks occupancy
+   * after a transfer to see if another resize is already needed
+   * because resizings are lagging additions.
+   *
+   * @param x the count to add
+   * @param check if <0, don't check resize, if <= 1 only check if uncontended
+   */
+  private final void addCount(long x, int check) {
+    CounterCell[] as;
+    long b, s;
+    if ((as = counterCells) != null ||
+        !U.compareAndSwapLong(this, BASECOUNT, b = baseCount, s = b + x)) {
+      CounterCell a;
+      long v;
+      int m;
+      boolean uncontended = true;
+      if (as == null || (m = as.length - 1) < 0 ||
+          (a = as[ThreadLocalRandom.getProbe() & m]) == null ||
+          !(uncontended =
+              U.compareAndSwapLong(a, CELLVALUE, v = a.value, v + x))) {
+        fullAddCount(x, uncontended);
+        return;
+      }
+      if (check <= 1) {
+        return;
+      }
+      s = sumCount();
+    }
+    if (check >= 0) {
+      Node<V>[] tab, nt;
+      int n, sc;
+      while (s >= (long) (sc = sizeCtl) && (tab = table) != null &&
+          (n = tab.length) < MAXIMUM_CAPACITY) {
+        int rs = resizeStamp(n);
+        if (sc < 0) {
+          if ((sc >>> RESIZE_STAMP_SHIFT) != rs || sc == rs + 1 ||
+              sc == rs + MAX_RESIZERS || (nt = nextTable) == null ||
+              transferIndex <= 0) {
+            break;
+          }
+          if (U.compareAndSwapInt(this, SIZECTL, sc, sc + 1)) {
+            transfer(tab, nt);
+          }
+        } else if (U.compareAndSwapInt(this, SIZECTL, sc,
+            (rs << RESIZE_STAMP_SHIFT) + 2)) {
+          transfer(tab, null);
+        }
+        s = sumCount();
+      }
+    }
+  }
+
+  /**
+   * Helps transfer if a resize is in progress.
+   */
+  final Node<V>[] helpTransfer(Node<V>[] tab, Node<V> f) {
+    Node<V>[] nextTab;
+    int sc;
+    if (tab != null && (f instanceof ForwardingNode) &&
+        (nextTab = ((ForwardingNode<V>) f).nextTable) != null) {
+      int rs = resizeStamp(tab.length);
+      while (nextTab == nextTable && table == tab &&
+          (sc = sizeCtl) < 0) {
+        if ((sc >>> RESIZE_STAMP_SHIFT) != rs || sc == rs + 1 ||
+            sc == rs + MAX_RESIZERS || transferIndex <= 0) {
+          break;
+        }
+        if (U.compareAndSwapInt(this, SIZECTL, sc, sc + 1)) {
+          transfer(tab, nextTab);
+          break;
+        }
+      }
+      return nextTab;
+    }
+    return table;
+  }
+
+  /**
+   * Tries to presize table to accommodate the given number of elements.
+   *
+   * @param size number of elements (doesn't need to be perfectly accurate)
+   */
+  private final void tryPresize(int size) {
+    int c = (size >= (MAXIMUM_CAPACITY >>> 1)) ? MAXIMUM_CAPACITY :
+        tableSizeFor(size + (size >>> 1) + 1);
+    int sc;
+    while ((sc = sizeCtl) >= 0) {
+      Node<V>[] tab = table;
+      int n;
+      if (tab == null || (n = tab.length) == 0) {
+        n = (sc > c) ? sc : c;
+        if (U.compareAndSwapInt(this, SIZECTL, sc, -1)) {
+          try {
+            if (table == tab) {
+              @SuppressWarnings("unchecked")
+              Node<V>[] nt = (Node<V>[]) new Node<?>[n];
+              table = nt;
+              sc = n - (n >>> 2);
+            }
+          } finally {
+            sizeCtl = sc;
+          }
+        }
+      } else if (c <= sc || n >= MAXIMUM_CAPACITY) {
+        break;
+      } else if (tab == table) {
+        int rs = resizeStamp(n);
+        if (sc < 0) {
+          Node<V>[] nt;
+          if ((sc >>> RESIZE_STAMP_SHIFT) != rs || sc == rs + 1 ||
+              sc == rs + MAX_RESIZERS || (nt = nextTable) == null ||
+              transferIndex <= 0) {
+            break;
+          }
+          if (U.compareAndSwapInt(this, SIZECTL, sc, sc + 1)) {
+            transfer(tab, nt);
+          }
+        } else if (U.compareAndSwapInt(this, SIZECTL, sc,
+            (rs << RESIZE_STAMP_SHIFT) + 2)) {
+          transfer(tab, null);
+        }
+      }
+    }
+  }
+
+  /**
+   * Moves and/or copies the nodes in each bin to new table. See
+   * ConcurrentHashMap for explanation.
+   */
+  private final void transfer(Node<V>[] tab, Node<V>[] nextTab) {
+    int n = tab.length, stride;
+    if ((stride = (NCPU > 1) ? (n >>> 3) / NCPU : n) < MIN_TRANSFER_STRIDE) {
+      stride = MIN_TRANSFER_STRIDE; // subdivide range
+    }
+    if (nextTab == null) {            // initiating
+      try {
+        @SuppressWarnings("unchecked")
+        Node<V>[] nt = (Node<V>[]) new Node<?>[n << 1];
+        nextTab = nt;
+      } catch (Throwable ex) {      // try to cope with OOME
+        sizeCtl = Integer.MAX_VALUE;
+        return;
+      }
+      nextTable = nextTab;
+      transferIndex = n;
+    }
+    int nextn = nextTab.length;
+    ForwardingNode<V> fwd = new ForwardingNode<V>(nextTab);
+    boolean advance = true;
+    boolean finishing = false; // to ensure sweep before committing nextTab
+    for (int i = 0, bound = 0; ; ) {
+      Node<V> f;
+      int fh;
+      while (advance) {
+        int nextIndex, nextBound;
+        if (--i >= bound || finishing) {
+          advance = false;
+        } else if ((nextIndex = transferIndex) <= 0) {
+          i = -1;
+          advance = false;
+        } else if (U.compareAndSwapInt
+            (this, TRANSFERINDEX, nextIndex,
+                nextBound = (nextIndex > stride ?
+                    nextIndex - stride : 0))) {
+          bound = nextBound;
+          i = nextIndex - 1;
+          advance = false;
+        }
+      }
+      if (i < 0 || i >= n || i + n >= nextn) {
+        int sc;
+        if (finishing) {
+          nextTable = null;
+          table = nextTab;
+          sizeCtl = (n << 1) - (n >>> 1);
+          return;
+        }
+        if (U.compareAndSwapInt(this, SIZECTL, sc = sizeCtl, sc - 1)) {
+          if ((sc - 2) != resizeStamp(n) << RESIZE_STAMP_SHIFT) {
+            return;
+          }
+          finishing = advance = true;
+          i = n; // recheck before commit
+        }
+      } else if ((f = tabAt(tab, i)) == null) {
+        advance = casTabAt(tab, i, null, fwd);
+      } else if ((fh = f.hash) == MOVED) {
+        advance = true; // already processed
+      } else {
+        synchronized (f) {
+          if (tabAt(tab, i) == f) {
+            Node<V> ln, hn;
+            if (fh >= 0) {
+              int runBit = fh & n;
+              Node<V> lastRun = f;
+              for (Node<V> p = f.next; p != null; p = p.next) {
+                int b = p.hash & n;
+                if (b != runBit) {
+                  runBit = b;
+                  lastRun = p;
+                }
+              }
+              if (runBit == 0) {
+                ln = lastRun;
+                hn = null;
+              } else {
+                hn = lastRun;
+                ln = null;
+              }
+              for (Node<V> p = f; p != lastRun; p = p.next) {
+                int ph = p.hash;
+                long pk = p.key;
+                V pv = p.val;
+                if ((ph & n) == 0) {
+                  ln = new Node<V>(ph, pk, pv, ln);
+                } else {
+                  hn = new Node<V>(ph, pk, pv, hn);
+                }
+              }
+              setTabAt(nextTab, i, ln);
+              setTabAt(nextTab, i + n, hn);
+              setTabAt(tab, i, fwd);
+              advance = true;
+            } else if (f instanceof TreeBin) {
+              TreeBin<V> t = (TreeBin<V>) f;
+              TreeNode<V> lo = null, loTail = null;
+              TreeNode<V> hi = null, hiTail = null;
+              int lc = 0, hc = 0;
+              for (Node<V> e = t.first; e != null; e = e.next) {
+                int h = e.hash;
+                TreeNode<V> p = new TreeNode<V>
+                    (h, e.key, e.val, null, null);
+                if ((h & n) == 0) {
+                  if ((p.prev = loTail) == null) {
+                    lo = p;
+                  } else {
+                    loTail.next = p;
+                  }
+                  loTail = p;
+                  ++lc;
+                } else {
+                  if ((p.prev = hiTail) == null) {
+                    hi = p;
+                  } else {
+                    hiTail.next = p;
+                  }
+                  hiTail = p;
+                  ++hc;
+                }
+              }
+              ln = (lc <= UNTREEIFY_THRESHOLD) ? untreeify(lo) :
+                  (hc != 0) ? new TreeBin<V>(lo) : t;
+              hn = (hc <= UNTREEIFY_THRESHOLD) ? untreeify(hi) :
+                  (lc != 0) ? new TreeBin<V>(hi) : t;
+              setTabAt(nextTab, i, ln);
+              setTabAt(nextTab, i + n, hn);
+              setTabAt(tab, i, fwd);
+              advance = true;
+            }
+          }
+        }
+      }
+    }
+  }
+
+    /* ---------------- Conversion from/to TreeBins -------------- */
+
+  /**
+   * Replaces all linked nodes in bin at given index unless table is
+   * too small, in which case resizes instead.
+   */
+  private final void treeifyBin(Node<V>[] tab, int index) {
+    Node<V> b;
+    int n;
+    if (tab != null) {
+      if ((n = tab.length) < MIN_TREEIFY_CAPACITY) {
+        tryPresize(n << 1);
+      } else if ((b = tabAt(tab, index)) != null && b.hash >= 0) {
+        synchronized (b) {
+          if (tabAt(tab, index) == b) {
+            TreeNode<V> hd = null, tl = null;
+            for (Node<V> e = b; e != null; e = e.next) {
+              TreeNode<V> p =
+                  new TreeNode<V>(e.hash, e.key, e.val, null, null);
+              if ((p.prev = tl) == null) {
+                hd = p;
+              } else {
+                tl.next = p;
+              }
+              tl = p;
+            }
+            setTabAt(tab, index, new TreeBin<V>(hd));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a list on non-TreeNodes replacing those in given list.
+   */
+  static <V> Node<V> untreeify(Node<V> b) {
+    Node<V> hd = null, tl = null;
+    for (Node<V> q = b; q != null; q = q.next) {
+      Node<V> p = new Node<V>(q.hash, q.key, q.val, null);
+      if (tl == null) {
+        hd = p;
+      } else {
+        tl.next = p;
+      }
+      tl = p;
+    }
+    return hd;
+  }
+
+    /* ---------------- TreeNodes -------------- */
+
+  /**
+   * Nodes for use in TreeBins, ordered by key.
+   */
+  static final class TreeNode<V> extends Node<V> {
+
+    TreeNode<V> parent;  // red-black tree links
+    TreeNode<V> left;
+    TreeNode<V> right;
+    TreeNode<V> prev;    // needed to unlink next upon deletion
+    boolean red;
+
+    TreeNode(int hash, long key, V val, Node<V> next, TreeNode<V> parent) {
+      super(hash, key, val, next);
+      this.parent = parent;
+    }
+
+    Node<V> find(int h, long k) {
+      return findTreeNode(k);
+    }
+
+    /**
+     * Returns the TreeNode (or null if not found) for the given key
+     * starting at given root.
+     */
+    final TreeNode<V> findTreeNode(long k) {
+      TreeNode<V> p = this;
+      do {
+        long pk = p.key;
+        if (k < pk) {
+          p = p.left;
+        } else if (k > pk) {
+          p = p.right;
+        } else {
+          return p;
+        }
+      } while (p != null);
+      return null;
+    }
+  }
+
+    /* ---------------- TreeBins -------------- */
+
+  /**
+   * TreeNodes used at the heads of bins, as in ConcurrentHashMap,
+   * including the parasitic read-write lock forcing writers (who hold
+   * the bin lock) to wait for readers (who do not) to complete before
+   * tree restructuring operations.  Keys are totally ordered, so the
+   * tree is ordered by key alone, with no tie-breaking.
+   */
+  static final class TreeBin<V> extends Node<V> {
+
+    TreeNode<V> root;
+    volatile TreeNode<V> first;
+    volatile Thread waiter;
+    volatile int lockState;
+    // values for lockState
+    static final int WRITER = 1; // set while holding write lock
+    static final int WAITER = 2; // set when waiting for write lock
+    static final int READER = 4; // increment value for setting read lock
+
+    /**
+     * Creates bin with initial set of nodes headed by b.
+     */
+    TreeBin(TreeNode<V> b) {
+      super(TREEBIN, 0L, null, null);
+      this.first = b;
+      TreeNode<V> r = null;
+      for (TreeNode<V> x = b, next; x != null; x = next) {
+        next = (TreeNode<V>) x.next;
+        x.left = x.right = null;
+        if (r == null) {
+          x.parent = null;
+          x.red = false;
+          r = x;
+        } else {
+          long k = x.key;
+          for (TreeNode<V> p = r; ; ) {
+            boolean left = k < p.key;
+            TreeNode<V> xp = p;
+            if ((p = left ? p.left : p.right) == null) {
+              x.parent = xp;
+              if (left) {
+                xp.left = x;
+              } else {
+                xp.right = x;
+              }
+              r = balanceInsertion(r, x);
+              break;
+            }
+          }
+        }
+      }
+      this.root = r;
+      assert checkInvariants(root);
+    }
+
+    /**
+     * Acquires write lock for tree restructuring.
+     */
+    private final void lockRoot() {
+      if (!U.compareAndSwapInt(this, LOCKSTATE, 0, WRITER)) {
+        contendedLock(); // offload to separate method
+      }
+    }
+
+    /**
+     * Releases write lock for tree restructuring.
+     */
+    private final void unlockRoot() {
+      lockState = 0;
+    }
+
+    /**
+     * Possibly blocks awaiting root lock.
+     */
+    private final void contendedLock() {
+      boolean waiting = false;
+      for (int s; ; ) {
+        if (((s = lockState) & ~WAITER) == 0) {
+          if (U.compareAndSwapInt(this, LOCKSTATE, s, WRITER)) {
+            if (waiting) {
+              waiter = null;
+            }
+            return;
+          }
+        } else if ((s & WAITER) == 0) {
+          if (U.compareAndSwapInt(this, LOCKSTATE, s, s | WAITER)) {
+            waiting = true;
+            waiter = Thread.currentThread();
+          }
+        } else if (waiting) {
+          LockSupport.park(this);
+        }
+      }
+    }
+
+    /**
+     * Returns matching node or null if none. Tries to search
+     * using tree comparisons from root, but continues linear
+     * search when lock not available.
+     */
+    final Node<V> find(int h, long k) {
+      for (Node<V> e = first; e != null; ) {
+        int s;
+        if (((s = lockState) & (WAITER | WRITER)) != 0) {
+          if (e.hash == h && e.key == k) {
+            return e;
+          }
+          e = e.next;
+        } else if (U.compareAndSwapInt(this, LOCKSTATE, s,
+            s + READER)) {
+          TreeNode<V> r, p;
+          try {
+            p = ((r = root) == null ? null : r.findTreeNode(k));
+          } finally {
+            Thread w;
+            if (U.getAndAddInt(this, LOCKSTATE, -READER) ==
+                (READER | WAITER) && (w = waiter) != null) {
+              LockSupport.unpark(w);
+            }
+          }
+          return p;
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Finds or adds a node.
+     *
+     * @return null if added
+     */
+    final TreeNode<V> putTreeVal(int h, long k, V v) {
+      for (TreeNode<V> p = root; ; ) {
+        boolean left;
+        long pk;
+        if (p == null) {
+          first = root = new TreeNode<V>(h, k, v, null, null);
+          break;
+        } else if (k < (pk = p.key)) {
+          left = true;
+        } else if (k > pk) {
+          left = false;
+        } else {
+          return p;
+        }
+        TreeNode<V> xp = p;
+        if ((p = left ? p.left : p.right) == null) {
+          TreeNode<V> x, f = first;
+          first = x = new TreeNode<V>(h, k, v, f, xp);
+          if (f != null) {
+            f.prev = x;
+          }
+          if (left) {
+            xp.left = x;
+          } else {
+            xp.right = x;
+          }
+          if (!xp.red) {
+            x.red = true;
+          } else {
+            lockRoot();
+            try {
+              root = balanceInsertion(root, x);
+            } finally {
+              unlockRoot();
+            }
+          }
+          break;
+        }
+      }
+      assert checkInvariants(root);
+      return null;
+    }
+
+    /**
+     * Removes the given node, that must be present before this
+     * call.  This is messier than typical red-black deletion code
+     * because we cannot swap the contents of an interior node
+     * with a leaf successor that is pinned by "next" pointers
+     * that are accessible independently of lock. So instead we
+     * swap the tree linkages.
+     *
+     * @return true if now too small, so should be untreeified
+     */
+    final boolean removeTreeNode(TreeNode<V> p) {
+      TreeNode<V> next = (TreeNode<V>) p.next;
+      TreeNode<V> pred = p.prev;  // unlink traversal pointers
+      TreeNode<V> r, rl;
+      if (pred == null) {
+        first = next;
+      } else {
+        pred.next = next;
+      }
+      if (next != null) {
+        next.prev = pred;
+      }
+      if (first == null) {
+        root = null;
+        return true;
+      }
+      if ((r = root) == null || r.right == null || // too small
+          (rl = r.left) == null || rl.left == null) {
+        return true;
+      }
+      lockRoot();
+      try {
+        TreeNode<V> replacement;
+        TreeNode<V> pl = p.left;
+        TreeNode<V> pr = p.right;
+        if (pl != null && pr != null) {
+          TreeNode<V> s = pr, sl;
+          while ((sl = s.left) != null) // find successor
+          {
+            s = sl;
+          }
+          boolean c = s.red;
+          s.red = p.red;
+          p.red = c; // swap colors
+          TreeNode<V> sr = s.right;
+          TreeNode<V> pp = p.parent;
+          if (s == pr) { // p was s's direct parent
+            p.parent = s;
+            s.right = p;
+          } else {
+            TreeNode<V> sp = s.parent;
+            if ((p.parent = sp) != null) {
+              if (s == sp.left) {
+                sp.left = p;
+              } else {
+                sp.right = p;
+              }
+            }
+            if ((s.right = pr) != null) {
+              pr.parent = s;
+            }
+          }
+          p.left = null;
+          if ((p.right = sr) != null) {
+            sr.parent = p;
+          }
+          if ((s.left = pl) != null) {
+            pl.parent = s;
+          }
+          if ((s.parent = pp) == null) {
+            r = s;
+          } else if (p == pp.left) {
+            pp.left = s;
+          } else {
+            pp.right = s;
+          }
+          if (sr != null) {
+            replacement = sr;
+          } else {
+            replacement = p;
+          }
+        } else if (pl != null) {
+          replacement = pl;
+        } else if (pr != null) {
+          replacement = pr;
+        } else {
+          replacement = p;
+        }
+        if (replacement != p) {
+          TreeNode<V> pp = replacement.parent = p.parent;
+          if (pp == null) {
+            r = replacement;
+          } else if (p == pp.left) {
+            pp.left = replacement;
+          } else {
+            pp.right = replacement;
+          }
+          p.left = p.right = p.parent = null;
+        }
+
+        root = (p.red) ? r : balanceDeletion(r, replacement);
+
+        if (p == replacement) {  // detach pointers
+          TreeNode<V> pp;
+          if ((pp = p.parent) != null) {
+            if (p == pp.left) {
+              pp.left = null;
+            } else if (p == pp.right) {
+              pp.right = null;
+            }
+            p.parent = null;
+          }
+        }
+      } finally {
+        unlockRoot();
+      }
+      assert checkInvariants(root);
+      return false;
+    }
+
+        /* ------------------------------------------------------------ */
+    // Red-black tree methods, all adapted from CLR
+
+    static <V> TreeNode<V> rotateLeft(TreeNode<V> root,
+        TreeNode<V> p) {
+      TreeNode<V> r, pp, rl;
+      if (p != null && (r = p.right) != null) {
+        if ((rl = p.right = r.left) != null) {
+          rl.parent = p;
+        }
+        if ((pp = r.parent = p.parent) == null) {
+          (root = r).red = false;
+        } else if (pp.left == p) {
+          pp.left = r;
+        } else {
+          pp.right = r;
+        }
+        r.left = p;
+        p.parent = r;
+      }
+      return root;
+    }
+
+    static <V> TreeNode<V> rotateRight(TreeNode<V> root,
+        TreeNode<V> p) {
+      TreeNode<V> l, pp, lr;
+      if (p != null && (l = p.left) != null) {
+        if ((lr = p.left = l.right) != null) {
+          lr.parent = p;
+        }
+        if ((pp = l.parent = p.parent) == null) {
+          (root = l).red = false;
+        } else if (pp.right == p) {
+          pp.right = l;
+        } else {
+          pp.left = l;
+        }
+        l.right = p;
+        p.parent = l;
+      }
+      return root;
+    }
+
+    static <V> TreeNode<V> balanceInsertion(TreeNode<V> root,
+        TreeNode<V> x) {
+      x.red = true;
+      for (TreeNode<V> xp, xpp, xppl, xppr; ; ) {
+        if ((xp = x.parent) == null) {
+          x.red = false;
+          return x;
+        } else if (!xp.red || (xpp = xp.parent) == null) {
+          return root;
+        }
+        if (xp == (xppl = xpp.left)) {
+          if ((xppr = xpp.right) != null && xppr.red) {
+            xppr.red = false;
+            xp.red = false;
+            xpp.red = true;
+            x = xpp;
+          } else {
+            if (x == xp.right) {
+              root = rotateLeft(root, x = xp);
+              xpp = (xp = x.parent) == null ? null : xp.parent;
+            }
+            if (xp != null) {
+              xp.red = false;
+              if (xpp != null) {
+                xpp.red = true;
+                root = rotateRight(root, xpp);
+              }
+            }
+          }
+        } else {
+          if (xppl != null && xppl.red) {
+            xppl.red = false;
+            xp.red = false;
+            xpp.red = true;
+            x = xpp;
+          } else {
+            if (x == xp.left) {
+              root = rotateRight(root, x = xp);
+              xpp = (xp = x.parent) == null ? null : xp.parent;
+            }
+            if (xp != null) {
+              xp.red = false;
+              if (xpp != null) {
+                xpp.red = true;
+                root = rotateLeft(root, xpp);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    static <V> TreeNode<V> balanceDeletion(TreeNode<V> root,
+        TreeNode<V> x) {
+      for (TreeNode<V> xp, xpl, xpr; ; ) {
+        if (x == null || x == root) {
+          return root;
+        } else if ((xp = x.parent) == null) {
+          x.red = false;
+          return x;
+        } else if (x.red) {
+          x.red = false;
+          return root;
+        } else if ((xpl = xp.left) == x) {
+          if ((xpr = xp.right) != null && xpr.red) {
+            xpr.red = false;
+            xp.red = true;
+            root = rotateLeft(root, xp);
+            xpr = (xp = x.parent) == null ? null : xp.right;
+          }
+          if (xpr == null) {
+            x = xp;
+          } else {
+            TreeNode<V> sl = xpr.left, sr = xpr.right;
+            if ((sr == null || !sr.red) &&
+                (sl == null || !sl.red)) {
+              xpr.red = true;
+              x = xp;
+            } else {
+              if (sr == null || !sr.red) {
+                if (sl != null) {
+                  sl.red = false;
+                }
+                xpr.red = true;
+                root = rotateRight(root, xpr);
+                xpr = (xp = x.parent) == null ?
+                    null : xp.right;
+              }
+              if (xpr != null) {
+                xpr.red = (xp == null) ? false : xp.red;
+                if ((sr = xpr.right) != null) {
+                  sr.red = false;
+                }
+              }
+              if (xp != null) {
+                xp.red = false;
+                root = rotateLeft(root, xp);
+              }
+              x = root;
+            }
+          }
+        } else { // symmetric
+          if (xpl != null && xpl.red) {
+            xpl.red = false;
+            xp.red = true;
+            root = rotateRight(root, xp);
+            xpl = (xp = x.parent) == null ? null : xp.left;
+          }
+          if (xpl == null) {
+            x = xp;
+          } else {
+            TreeNode<V> sl = xpl.left, sr = xpl.right;
+            if ((sl == null || !sl.red) &&
+                (sr == null || !sr.red)) {
+              xpl.red = true;
+              x = xp;
+            } else {
+              if (sl == null || !sl.red) {
+                if (sr != null) {
+                  sr.red = false;
+                }
+                xpl.red = true;
+                root = rotateLeft(root, xpl);
+                xpl = (xp = x.parent) == null ?
+                    null : xp.left;
+              }
+              if (xpl != null) {
+                xpl.red = (xp == null) ? false : xp.red;
+                if ((sl = xpl.left) != null) {
+                  sl.red = false;
+                }
+              }
+              if (xp != null) {
+                xp.red = false;
+                root = rotateRight(root, xp);
+              }
+              x = root;
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Recursive invariant check
+     */
+    static <V> boolean checkInvariants(TreeNode<V> t) {
+      TreeNode<V> tp = t.parent, tl = t.left, tr = t.right,
+          tb = t.prev, tn = (TreeNode<V>) t.next;
+      if (tb != null && tb.next != t) {
+        return false;
+      }
+      if (tn != null && tn.prev != t) {
+        return false;
+      }
+      if (tp != null && t != tp.left && t != tp.right) {
+        return false;
+      }
+      if (tl != null && (tl.parent != t || tl.key > t.key)) {
+        return false;
+      }
+      if (tr != null && (tr.parent != t || tr.key < t.key)) {
+        return false;
+      }
+      if (t.red && tl != null && tl.red && tr != null && tr.red) {
+        return false;
+      }
+      if (tl != null && !checkInvariants(tl)) {
+        return false;
+      }
+      if (tr != null && !checkInvariants(tr)) {
+        return false;
+      }
+      return true;
+    }
+
+    private static final sun.misc.Unsafe U;
+    private static final long LOCKSTATE;
+
+    static {
+      try {
+        U = sun.misc.Unsafe.getUnsafe();
+        Class<?> k = TreeBin.class;
+        LOCKSTATE = U.objectFieldOffset
+            (k.getDeclaredField("lockState"));
+      } catch (Exception e) {
+        throw new Error(e);
+      }
+    }
+  }
+
+    /* ---------------- Counter support -------------- */
+
+  /**
+   * A padded cell for distributing counts.  Adapted from LongAdder
+   * and Striped64.  See their internal docs for explanation.
+   */
+  @sun.misc.Contended
+  static final class CounterCell {
+
+    volatile long value;
+
+    CounterCell(long x) {
+      value = x;
+    }
+  }
+
+  final long sumCount() {
+    CounterCell[] as = counterCells;
+    CounterCell a;
+    long sum = baseCount;
+    if (as != null) {
+      for (int i = 0; i < as.length; ++i) {
+        if ((a = as[i]) != null) {
+          sum += a.value;
+        }
+      }
+    }
+    return sum;
+  }
+
+  // See LongAdder version for explanation
+  private final void fullAddCount(long x, boolean wasUncontended) {
+    int h;
+    if ((h = ThreadLocalRandom.getProbe()) == 0) {
+      ThreadLocalRandom.localInit();      // force initialization
+      h = ThreadLocalRandom.getProbe();
+      wasUncontended = true;
+    }
+    boolean collide = false;                // True if last slot nonempty
+    for (; ; ) {
+      CounterCell[] as;
+      CounterCell a;
+      int n;
+      long v;
+      if ((as = counterCells) != null && (n = as.length) > 0) {
+        if ((a = as[(n - 1) & h]) == null) {
+          if (cellsBusy == 0) {            // Try to attach new Cell
+            CounterCell r = new CounterCell(x); // Optimistic create
+            if (cellsBusy == 0 &&
+                U.compareAndSwapInt(this, CELLSBUSY, 0, 1)) {
+              boolean created = false;
+              try {               // Recheck under lock
+                CounterCell[] rs;
+                int m, j;
+                if ((rs = counterCells) != null &&
+                    (m = rs.length) > 0 &&
+                    rs[j = (m - 1) & h] == null) {
+                  rs[j] = r;
+                  created = true;
+                }
+              } finally {
+                cellsBusy = 0;
+              }
+              if (created) {
+                break;
+              }
+              continue;           // Slot is now non-empty
+            }
+          }
+          collide = false;
+        } else if (!wasUncontended)       // CAS already known to fail
+        {
+          wasUncontended = true;      // Continue after rehash
+        } else if (U.compareAndSwapLong(a, CELLVALUE, v = a.value, v + x)) {
+          break;
+        } else if (counterCells != as || n >= NCPU) {
+          collide = false;            // At max size or stale
+        } else if (!collide) {
+          collide = true;
+        } else if (cellsBusy == 0 &&
+            U.compareAndSwapInt(this, CELLSBUSY, 0, 1)) {
+          try {
+            if (counterCells == as) {// Expand table unless stale
+              CounterCell[] rs = new CounterCell[n << 1];
+              for (int i = 0; i < n; ++i) {
+                rs[i] = as[i];
+              }
+              counterCells = rs;
+            }
+          } finally {
+            cellsBusy = 0;
+          }
+          collide = false;
+          continue;                   // Retry with expanded table
+        }
+        h = ThreadLocalRandom.advanceProbe(h);
+      } else if (cellsBusy == 0 && counterCells == as &&
+          U.compareAndSwapInt(this, CELLSBUSY, 0, 1)) {
+        boolean init = false;
+        try {                           // Initialize table
+          if (counterCells == as) {
+            CounterCell[] rs = new CounterCell[2];
+            rs[h & 1] = new CounterCell(x);
+            counterCells = rs;
+            init = true;
+          }
+        } finally {
+          cellsBusy = 0;
+        }
+        if (init) {
+          break;
+        }
+      } else if (U.compareAndSwapLong(this, BASECOUNT, v = baseCount, v + x)) {
+        break;                          // Fall back on using base
+      }
+    }
+  }
+
+    /* ---------------- Parallel bulk operations -------------- */
+
+  /**
+   * Computes initial batch value for bulk tasks. The returned value
+   * is approximately exp2 of the number of times (minus one) to
+   * split task by two before executing leaf action.
+   */
+  final int batchFor(long b) {
+    long n;
+    if (b == Long.MAX_VALUE || (n = sumCount()) <= 1L || n < b) {
+      return 0;
+    }
+    int sp = ForkJoinPool.getCommonPoolParallelism() << 2; // slack of 4
+    return (b <= 0L || (n /= b) >= sp) ? sp : (int) n;
+  }
+
+  /**
+   * Performs the given action for each (key, value).
+   *
+   * @param parallelismThreshold the (estimated) number of elements
+   *        needed for this operation to be executed in parallel
+   * @param action the action, accepting a value and its key
+   * @throws NullPointerException if the action is null
+   */
+  public void forEach(long parallelismThreshold,
+      ObjLongConsumer<? super V> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    new ForEachMappingTask<V>
+        (null, batchFor(parallelismThreshold), 0, 0, table,
+            action).invoke();
+  }
+
+  /**
+   * Performs the given action for each key.
+   *
+   * @param parallelismThreshold the (estimated) number of elements
+   *        needed for this operation to be executed in parallel
+   * @param action the action
+   * @throws NullPointerException if the action is null
+   */
+  public void forEachKey(long parallelismThreshold,
+      LongConsumer action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    new ForEachKeyTask<V>
+        (null, batchFor(parallelismThreshold), 0, 0, table,
+            action).invoke();
+  }
+
+  /**
+   * Performs the given action for each value.
+   *
+   * @param parallelismThreshold the (estimated) number of elements
+   *        needed for this operation to be executed in parallel
+   * @param action the action
+   * @throws NullPointerException if the action is null
+   */
+  public void forEachValue(long parallelismThreshold,
+      Consumer<? super V> action) {
+    if (action == null) {
+      throw new NullPointerException();
+    }
+    new ForEachValueTask<V>
+        (null, batchFor(parallelismThreshold), 0, 0, table,
+            action).invoke();
+  }
+
+  /**
+   * Records the table, its length, and current traversal index for a
+   * traversal that must process a region of a forwarded table before
+   * proceeding with current table.
+   */
+  static final class TableStack<V> {
+
+    int length;
+    int index;
+    Node<V>[] tab;
+    TableStack<V> next;
+  }
+
+  /**
+   * Base class for bulk tasks, traversing the table as
+   * ConcurrentHashMap.BulkTask does.
+   */
+  @SuppressWarnings("serial")
+  abstract static class BulkTask<V, R> extends CountedCompleter<R> {
+
+    Node<V>[] tab;        // current table; updated if resized
+    Node<V> next;         // the next entry to use
+    TableStack<V> stack, spare; // to save/restore on ForwardingNodes
+    int index;            // index of bin to use next
+    int baseIndex;        // current index of initial table
+    int baseLimit;        // index bound for initial table
+    final int baseSize;   // initial table size
+    int batch;            // split control
+
+    BulkTask(BulkTask<V, ?> par, int b, int i, int f, Node<V>[] t) {
+      super(par);
+      this.batch = b;
+      this.index = this.baseIndex = i;
+      if ((this.tab = t) == null) {
+        this.baseSize = this.baseLimit = 0;
+      } else if (par == null) {
+        this.baseSize = this.baseLimit = t.length;
+      } else {
+        this.baseLimit = f;
+        this.baseSize = par.baseSize;
+      }
+    }
+
+    /**
+     * Advances if possible, returning next valid node, or null if none.
+     */
+    final Node<V> advance() {
+      Node<V> e;
+      if ((e = next) != null) {
+        e = e.next;
+      }
+      for (; ; ) {
+        Node<V>[] t;
+        int i, n;
+        if (e != null) {
+          return next = e;
+        }
+        if (baseIndex >= baseLimit || (t = tab) == null ||
+            (n = t.length) <= (i = index) || i < 0) {
+          return next = null;
+        }
+        if ((e = tabAt(t, i)) != null && e.hash < 0) {
+          if (e instanceof ForwardingNode) {
+            tab = ((ForwardingNode<V>) e).nextTable;
+            e = null;
+            pushState(t, i, n);
+            continue;
+          } else if (e instanceof TreeBin) {
+            e = ((TreeBin<V>) e).first;
+          } else {
+            e = null;
+          }
+        }
+        if (stack != null) {
+          recoverState(n);
+        } else if ((index = i + baseSize) >= n) {
+          index = ++baseIndex;
+        }
+      }
+    }
+
+    private void pushState(Node<V>[] t, int i, int n) {
+      TableStack<V> s = spare;
+      if (s != null) {
+        spare = s.next;
+      } else {
+        s = new TableStack<V>();
+      }
+      s.tab = t;
+      s.length = n;
+      s.index = i;
+      s.next = stack;
+      stack = s;
+    }
+
+    private void recoverState(int n) {
+      TableStack<V> s;
+      int len;
+      while ((s = stack) != null && (index += (len = s.length)) >= n) {
+        n = len;
+        index = s.index;
+        tab = s.tab;
+        s.tab = null;
+        TableStack<V> next = s.next;
+        s.next = spare; // save for reuse
+        stack = next;
+        spare = s;
+      }
+      if (s == null && (index += baseSize) >= n) {
+        index = ++baseIndex;
+      }
+    }
+  }
+
+  @SuppressWarnings("serial")
+  static final class ForEachMappingTask<V>
+      extends BulkTask<V, Void> {
+
+    final ObjLongConsumer<? super V> action;
+
+    ForEachMappingTask
+        (BulkTask<V, ?> p, int b, int i, int f, Node<V>[] t,
+            ObjLongConsumer<? super V> action) {
+      super(p, b, i, f, t);
+      this.action = action;
+    }
+
+    public final void compute() {
+      final ObjLongConsumer<? super V> action;
+      if ((action = this.action) != null) {
+        for (int i = baseIndex, f, h; batch > 0 &&
+            (h = ((f = baseLimit) + i) >>> 1) > i; ) {
+          addToPendingCount(1);
+          new ForEachMappingTask<V>
+              (this, batch >>>= 1, baseLimit = h, f, tab,
+                  action).fork();
+        }
+        for (Node<V> p; (p = advance()) != null; ) {
+          action.accept(p.val, p.key);
+        }
+        propagateCompletion();
+      }
+    }
+  }
+
+  @SuppressWarnings("serial")
+  static final class ForEachKeyTask<V>
+      extends BulkTask<V, Void> {
+
+    final LongConsumer action;
+
+    ForEachKeyTask
+        (BulkTask<V, ?> p, int b, int i, int f, Node<V>[] t,
+            LongConsumer action) {
+      super(p, b, i, f, t);
+      this.action = action;
+    }
+
+    public final void compute() {
+      final LongConsumer action;
+      if ((action = this.action) != null) {
+        for (int i = baseIndex, f, h; batch > 0 &&
+            (h = ((f = baseLimit) + i) >>> 1) > i; ) {
+          addToPendingCount(1);
+          new ForEachKeyTask<V>
+              (this, batch >>>= 1, baseLimit = h, f, tab,
+                  action).fork();
+        }
+        for (Node<V> p; (p = advance()) != null; ) {
+          action.accept(p.key);
+        }
+        propagateCompletion();
+      }
+    }
+  }
+
+  @SuppressWarnings("serial")
+  static final class ForEachValueTask<V>
+      extends BulkTask<V, Void> {
+
+    final Consumer<? super V> action;
+
+    ForEachValueTask
+        (BulkTask<V, ?> p, int b, int i, int f, Node<V>[] t,
+            Consumer<? super V> action) {
+      super(p, b, i, f, t);
+      this.action = action;
+    }
+
+    public final void compute() {
+      final Consumer<? super V> action;
+      if ((action = this.action) != null) {
+        for (int i = baseIndex, f, h; batch > 0 &&
+            (h = ((f = baseLimit) + i) >>> 1) > i; ) {
+          addToPendingCount(1);
+          new ForEachValueTask<V>
+              (this, batch >>>= 1, baseLimit = h, f, tab,
+                  action).fork();
+        }
+        for (Node<V> p; (p = advance()) != null; ) {
+          action.accept(p.val);
+        }
+        propagateCompletion();
+      }
+    }
+  }
+
+  // Unsafe mechanics
+  private static final sun.misc.Unsafe U;
+  private static final long SIZECTL;
+  private static final long TRANSFERINDEX;
+  private static final long BASECOUNT;
+  private static final long CELLSBUSY;
+  private static final long CELLVALUE;
+  private static final long ABASE;
+  private static final int ASHIFT;
+
+  static {
+    try {
+      U = sun.misc.Unsafe.getUnsafe();
+      Class<?> k = ConcurrentLongHashMap.class;
+      SIZECTL = U.objectFieldOffset
+          (k.getDeclaredField("sizeCtl"));
+      TRANSFERINDEX = U.objectFieldOffset
+          (k.getDeclaredField("transferIndex"));
+      BASECOUNT = U.objectFieldOffset
+          (k.getDeclaredField("baseCount"));
+      CELLSBUSY = U.objectFieldOffset
+          (k.getDeclaredField("cellsBusy"));
+      Class<?> ck = CounterCell.class;
+      CELLVALUE = U.objectFieldOffset
+          (ck.getDeclaredField("value"));
+      Class<?> ak = Node[].class;
+      ABASE = U.arrayBaseOffset(ak);
+      int scale = U.arrayIndexScale(ak);
+      if ((scale & (scale - 1)) != 0) {
+        throw new Error("data type scale not a power of two");
+      }
+      ASHIFT = 31 - Integer.numberOfLeadingZeros(scale);
+    } catch (Exception e) {
+      throw new Error(e);
+    }
+  }
+}
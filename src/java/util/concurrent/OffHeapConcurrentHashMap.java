@@ -0,0 +1,1047 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A {@link ConcurrentMap} that keeps its keys and values outside the Java
+ * heap, for caches too large to be held as objects without long garbage
+ * collection pauses.  Each key and value is serialized by a {@link Codec}
+ * into direct memory allocated in large <em>slabs</em>; the heap holds
+ * only, for each mapping, an int hash and a long reference into a slab,
+ * kept in arrays of primitives that the garbage collector need not scan.
+ * Every retrieval decodes a new copy of the value, so changes to a value
+ * object after it was put or returned are not reflected in the map.
+ *
+ * <p>As in {@link ConcurrentHashMap}, retrievals do not block: the map is
+ * divided into a number of segments, determined by the {@code
+ * concurrencyLevel} argument of the constructor, and each segment is an
+ * open-addressed table guarded by a {@link StampedLock}.  Retrievals first
+ * search the table under an optimistic read and take the read lock only
+ * if an update to the same segment intervened; updates to different
+ * segments proceed in parallel.  Codecs are invoked for encoding before
+ * an update locks its segment, and for decoding after a retrieval has
+ * released or validated it.  Removing or replacing a mapping leaves its
+ * record in place until the garbage in a segment exceeds its live records,
+ * when the live records are copied to new slabs and the old slabs
+ * released; the direct memory in use may therefore temporarily be about
+ * twice that needed by the live records of a segment, and is reported by
+ * {@link #offHeapSize}.
+ *
+ * <p>Keys are hashed and compared in their encoded form, so a key codec
+ * must encode equal keys to equal bytes, and unequal keys to different
+ * bytes.  Values are compared, by {@link #remove(Object, Object) remove}
+ * and {@link #replace(Object, Object, Object) replace}, by decoding them
+ * and using {@code equals}.
+ *
+ * <p>Iterators and spliterators of the collection views are weakly
+ * consistent.  An iterator copies the table of one segment at a time,
+ * and so reflects each segment as of the time the iterator reached it.
+ * Like {@link ConcurrentHashMap}, this class does not allow {@code null}
+ * to be used as a key or value.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ * @since 1.8
+ */
+public class OffHeapConcurrentHashMap<K, V> extends AbstractMap<K, V>
+    implements ConcurrentMap<K, V> {
+
+  /*
+   * Overview:
+   *
+   * Each record is an 8-byte header, holding the int lengths of the
+   * encoded key and value, followed by the key and value bytes, padded
+   * to a multiple of 8 bytes. A record is written once, into memory that
+   * is never reused while the slab holding it is referenced, so the bytes
+   * of any record a reader has found stay valid after the reader leaves
+   * the lock: a replacement writes a new record, and compaction copies
+   * records to new slabs rather than moving them within a slab.
+   *
+   * A reference is ((slab index + 1) << 32) | offset, so that 0 marks an
+   * empty slot. The tables use linear probing, and removal shifts later
+   * entries of a cluster back instead of leaving tombstones. Under an
+   * optimistic read a reader may see the tables and slab array in any
+   * intermediate state; it is then possible to index out of bounds or
+   * find a null slab, so any RuntimeException during an optimistic
+   * search, as well as a failed validation, sends the reader to the read
+   * lock. The arrays are replaced rather than cleared by resizing,
+   * compaction and clear, so a slab array once read never loses a slab.
+   */
+
+  /**
+   * Encodes and decodes the keys or values of a map.  A codec must
+   * decode what it has encoded to an equal object, and may be used by
+   * several threads at once.
+   *
+   * @param <T> the type of the objects encoded
+   * @since 1.8
+   */
+  public interface Codec<T> {
+
+    /**
+     * Returns the number of bytes {@link #encode encode} will write for
+     * the given object.
+     *
+     * @param value the object
+     * @return the length of the encoding
+     */
+    int encodedSize(T value);
+
+    /**
+     * Writes the encoding of the given object, {@link #encodedSize
+     * encodedSize(value)} bytes, at the position of the given buffer.
+     *
+     * @param value the object
+     * @param dst the buffer, with exactly {@code encodedSize(value)}
+     *        bytes remaining
+     */
+    void encode(T value, ByteBuffer dst);
+
+    /**
+     * Reads an object from the remaining bytes of the given buffer.  The
+     * buffer is read-only in effect and must not be retained.
+     *
+     * @param src the buffer, whose remaining bytes are one encoding
+     * @return the object decoded
+     */
+    T decode(ByteBuffer src);
+  }
+
+  /** The default size of a slab, 1 MiB. */
+  static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+  /** The default number of segments. */
+  static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+  /** The largest number of segments. */
+  static final int MAX_SEGMENTS = 1 << 16;
+
+  /** The smallest table capacity of a segment. */
+  static final int MIN_CAPACITY = 16;
+
+  /** The largest table capacity of a segment. */
+  static final int MAX_CAPACITY = 1 << 30;
+
+  /** The length of a record header. */
+  static final int HEADER = 8;
+
+  final Codec<K> keyCodec;
+  final Codec<V> valueCodec;
+  final Segment[] segments;
+
+  /** The shift selecting a segment from the high bits of a hash. */
+  final int segmentShift;
+
+  /* ---------------- Segments -------------- */
+
+  /**
+   * An open-addressed table and the slabs holding its records.  All
+   * fields other than lock and count are accessed with the lock held,
+   * or read under an optimistic read that is validated before use.
+   */
+  static final class Segment {
+
+    final StampedLock lock = new StampedLock();
+    final int slabSize;
+    final int initialCapacity;
+
+    int[] hashes;
+    long[] refs;
+    ByteBuffer[] slabs;
+
+    /** The number of slabs in use. */
+    int slabCount;
+
+    /** The index of the slab being filled, or -1. */
+    int current;
+
+    /** The offset of the free space of the current slab. */
+    int top;
+
+    /** The number of mappings. */
+    volatile int count;
+
+    /** The bytes of live records, of dead records and of all slabs. */
+    long liveBytes, garbageBytes, allocatedBytes;
+
+    Segment(int initialCapacity, int slabSize) {
+      this.initialCapacity = initialCapacity;
+      this.slabSize = slabSize;
+      reset();
+    }
+
+    void reset() {
+      hashes = new int[initialCapacity];
+      refs = new long[initialCapacity];
+      slabs = new ByteBuffer[4];
+      slabCount = 0;
+      current = -1;
+      top = 0;
+      count = 0;
+      liveBytes = garbageBytes = allocatedBytes = 0L;
+    }
+
+    /**
+     * Returns the slot holding the given key, or, if absent, -1 minus
+     * the empty slot at which it would be inserted.
+     */
+    int probe(int h, ByteBuffer key) {
+      int[] hs = hashes;
+      long[] rs = refs;
+      ByteBuffer[] ss = slabs;
+      int mask = rs.length - 1;
+      for (int i = h & mask, n = 0; n <= mask; i = (i + 1) & mask, n++) {
+        long r = rs[i];
+        if (r == 0L) {
+          return -1 - i;
+        }
+        if (hs[i] == h && keyEquals(ss[(int) (r >>> 32) - 1], (int) r, key)) {
+          return i;
+        }
+      }
+      return -1 - (h & mask); // only seen by an inconsistent optimistic read
+    }
+
+    /**
+     * Returns a view of the record in the given slot, positioned at its
+     * header.
+     */
+    ByteBuffer record(int slot) {
+      long r = refs[slot];
+      ByteBuffer b = slabs[(int) (r >>> 32) - 1].duplicate();
+      b.position((int) r);
+      return b;
+    }
+
+    /**
+     * Returns a view of the record of the given key, or null, without
+     * blocking unless the segment is being updated.
+     */
+    ByteBuffer find(int h, ByteBuffer key) {
+      long stamp = lock.tryOptimisticRead();
+      if (stamp != 0L) {
+        try {
+          int i = probe(h, key);
+          ByteBuffer b = (i < 0) ? null : record(i);
+          if (lock.validate(stamp)) {
+            return b;
+          }
+        } catch (RuntimeException ex) {
+          // an inconsistent snapshot; search again under the read lock
+        }
+      }
+      stamp = lock.readLock();
+      try {
+        int i = probe(h, key);
+        return (i < 0) ? null : record(i);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    /**
+     * Inserts a mapping for an absent key at the given empty slot.
+     */
+    void insert(int slot, int h, ByteBuffer key, byte[] value) {
+      int n = count;
+      if (n >= refs.length - (refs.length >>> 2)) {
+        resize();
+        slot = -1 - probe(h, key);
+      }
+      long r = write(key, value);
+      hashes[slot] = h;
+      refs[slot] = r;
+      count = n + 1;
+    }
+
+    /**
+     * Replaces the value of the mapping in the given slot.
+     */
+    void replace(int slot, ByteBuffer key, byte[] value) {
+      long r = write(key, value);
+      free(refs[slot]);
+      refs[slot] = r;
+      compactIfNeeded();
+    }
+
+    /**
+     * Removes the mapping in the given slot, shifting back the entries
+     * after it whose probe sequences pass through it.
+     */
+    void remove(int slot) {
+      int[] hs = hashes;
+      long[] rs = refs;
+      int mask = rs.length - 1;
+      free(rs[slot]);
+      int i = slot;
+      for (int j = (i + 1) & mask; rs[j] != 0L; j = (j + 1) & mask) {
+        int home = hs[j] & mask;
+        if ((j > i) ? (home <= i || home > j) : (home <= i && home > j)) {
+          rs[i] = rs[j];
+          hs[i] = hs[j];
+          i = j;
+        }
+      }
+      rs[i] = 0L;
+      hs[i] = 0;
+      count = count - 1;
+      compactIfNeeded();
+    }
+
+    /**
+     * Doubles the table capacity.
+     */
+    void resize() {
+      int[] oldHashes = hashes;
+      long[] oldRefs = refs;
+      int n = oldRefs.length;
+      if (n >= MAX_CAPACITY) {
+        throw new IllegalStateException("Segment capacity exceeded");
+      }
+      int[] hs = new int[n << 1];
+      long[] rs = new long[n << 1];
+      int mask = rs.length - 1;
+      for (int j = 0; j < n; j++) {
+        long r = oldRefs[j];
+        if (r != 0L) {
+          int h = oldHashes[j];
+          int i = h & mask;
+          while (rs[i] != 0L) {
+            i = (i + 1) & mask;
+          }
+          hs[i] = h;
+          rs[i] = r;
+        }
+      }
+      hashes = hs;
+      refs = rs;
+    }
+
+    /**
+     * Writes a record and returns its reference.
+     */
+    long write(ByteBuffer key, byte[] value) {
+      byte[] k = key.array();
+      long length = (long) HEADER + k.length + value.length;
+      if (length > Integer.MAX_VALUE - 7) {
+        throw new IllegalArgumentException("Mapping too large: " + length + " bytes");
+      }
+      int size = align((int) length);
+      long r = allocate(size);
+      ByteBuffer b = slabs[(int) (r >>> 32) - 1].duplicate();
+      b.position((int) r);
+      b.putInt(k.length).putInt(value.length).put(k).put(value);
+      liveBytes += size;
+      return r;
+    }
+
+    /**
+     * Allocates space for a record of the given aligned size.
+     */
+    long allocate(int size) {
+      if (size > slabSize) {
+        return ref(addSlab(ByteBuffer.allocateDirect(size)), 0);
+      }
+      if (current < 0 || size > slabSize - top) {
+        current = addSlab(ByteBuffer.allocateDirect(slabSize));
+        top = 0;
+      }
+      int offset = top;
+      top += size;
+      return ref(current, offset);
+    }
+
+    int addSlab(ByteBuffer slab) {
+      if (slabCount == slabs.length) {
+        slabs = Arrays.copyOf(slabs, slabCount << 1);
+      }
+      slabs[slabCount] = slab;
+      allocatedBytes += slab.capacity();
+      return slabCount++;
+    }
+
+    /**
+     * Accounts for a record that is no longer referenced.
+     */
+    void free(long r) {
+      int size = recordSize(slabs[(int) (r >>> 32) - 1], (int) r);
+      liveBytes -= size;
+      garbageBytes += size;
+    }
+
+    /**
+     * Copies the live records to new slabs if more than half of the
+     * bytes of records are garbage.
+     */
+    void compactIfNeeded() {
+      if (garbageBytes <= liveBytes || garbageBytes < slabSize) {
+        return;
+      }
+      ByteBuffer[] old = slabs;
+      long[] rs = refs;
+      slabs = new ByteBuffer[4];
+      slabCount = 0;
+      current = -1;
+      top = 0;
+      liveBytes = garbageBytes = allocatedBytes = 0L;
+      for (int i = 0; i < rs.length; i++) {
+        long r = rs[i];
+        if (r != 0L) {
+          ByteBuffer src = old[(int) (r >>> 32) - 1].duplicate();
+          int offset = (int) r;
+          int size = recordSize(src, offset);
+          long nr = allocate(size);
+          ByteBuffer dst = slabs[(int) (nr >>> 32) - 1].duplicate();
+          dst.position((int) nr);
+          src.limit(offset + size);
+          src.position(offset);
+          dst.put(src);
+          liveBytes += size;
+          rs[i] = nr;
+        }
+      }
+    }
+
+    static long ref(int slab, int offset) {
+      return ((long) (slab + 1) << 32) | offset;
+    }
+
+    static int align(int length) {
+      return (length + 7) & ~7;
+    }
+
+    static int recordSize(ByteBuffer slab, int offset) {
+      return align(HEADER + slab.getInt(offset) + slab.getInt(offset + 4));
+    }
+
+    /**
+     * Returns true if the record at the given offset has the given key.
+     */
+    static boolean keyEquals(ByteBuffer slab, int offset, ByteBuffer key) {
+      int n = key.limit();
+      if (slab.getInt(offset) != n) {
+        return false;
+      }
+      int p = offset + HEADER;
+      int i = 0;
+      for (; i <= n - 8; i += 8) {
+        if (slab.getLong(p + i) != key.getLong(i)) {
+          return false;
+        }
+      }
+      for (; i < n; i++) {
+        if (slab.get(p + i) != key.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /* ---------------- Public operations -------------- */
+
+  /**
+   * Creates a new, empty map with the default initial capacity, slab size
+   * (1 MiB) and concurrency level (16).
+   *
+   * @param keyCodec the codec for keys
+   * @param valueCodec the codec for values
+   * @throws NullPointerException if either codec is null
+   */
+  public OffHeapConcurrentHashMap(Codec<K> keyCodec, Codec<V> valueCodec) {
+    this(keyCodec, valueCodec, 0, DEFAULT_SLAB_SIZE, DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  /**
+   * Creates a new, empty map with an initial table size accommodating the
+   * specified number of elements without resizing, and the default slab
+   * size and concurrency level.
+   *
+   * @param keyCodec the codec for keys
+   * @param valueCodec the codec for values
+   * @param initialCapacity the number of elements to accommodate
+   * @throws IllegalArgumentException if the initial capacity is negative
+   * @throws NullPointerException if either codec is null
+   */
+  public OffHeapConcurrentHashMap(Codec<K> keyCodec, Codec<V> valueCodec,
+      int initialCapacity) {
+    this(keyCodec, valueCodec, initialCapacity, DEFAULT_SLAB_SIZE,
+        DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  /**
+   * Creates a new, empty map with an initial table size accommodating the
+   * specified number of elements without resizing, the given size of the
+   * slabs of direct memory holding the records, and the given number of
+   * concurrently updating threads to allow for.  Mappings larger than a
+   * slab are given slabs of their own.
+   *
+   * @param keyCodec the codec for keys
+   * @param valueCodec the codec for values
+   * @param initialCapacity the number of elements to accommodate
+   * @param slabSize the size in bytes of a slab
+   * @param concurrencyLevel the estimated number of concurrently updating
+   *        threads, used as a hint for the number of segments
+   * @throws IllegalArgumentException if the initial capacity is negative,
+   *         or the slab size or concurrency level is not positive
+   * @throws NullPointerException if either codec is null
+   */
+  public OffHeapConcurrentHashMap(Codec<K> keyCodec, Codec<V> valueCodec,
+      int initialCapacity, int slabSize, int concurrencyLevel) {
+    if (keyCodec == null || valueCodec == null) {
+      throw new NullPointerException();
+    }
+    if (initialCapacity < 0 || slabSize <= 0 || concurrencyLevel <= 0) {
+      throw new IllegalArgumentException();
+    }
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    int n = 1;
+    int shift = 32;
+    while (n < concurrencyLevel && n < MAX_SEGMENTS) {
+      n <<= 1;
+      shift--;
+    }
+    this.segmentShift = shift;
+    long perSegment = (initialCapacity + n - 1) / n;
+    long needed = perSegment + (perSegment >>> 1) + 1;
+    int capacity = MIN_CAPACITY;
+    while (capacity < needed && capacity < MAX_CAPACITY) {
+      capacity <<= 1;
+    }
+    this.segments = new Segment[n];
+    for (int i = 0; i < n; i++) {
+      segments[i] = new Segment(capacity, slabSize);
+    }
+  }
+
+  /**
+   * Returns the number of key-value mappings in this map.  If the map
+   * contains more than {@code Integer.MAX_VALUE} elements, returns
+   * {@code Integer.MAX_VALUE}.
+   *
+   * @return the number of key-value mappings in this map
+   */
+  public int size() {
+    long n = mappingCount();
+    return (n > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) n;
+  }
+
+  /**
+   * Returns the number of mappings, which may exceed
+   * {@code Integer.MAX_VALUE}.  The value returned is an estimate if
+   * there are concurrent insertions or removals.
+   *
+   * @return the number of mappings
+   */
+  public long mappingCount() {
+    long n = 0L;
+    for (Segment s : segments) {
+      n += s.count;
+    }
+    return n;
+  }
+
+  /**
+   * Returns the number of bytes of direct memory held by this map,
+   * including space not yet reclaimed from removed and replaced
+   * mappings.
+   *
+   * @return the number of bytes of direct memory held
+   */
+  public long offHeapSize() {
+    long n = 0L;
+    for (Segment s : segments) {
+      long stamp = s.lock.readLock();
+      try {
+        n += s.allocatedBytes;
+      } finally {
+        s.lock.unlockRead(stamp);
+      }
+    }
+    return n;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public boolean isEmpty() {
+    for (Segment s : segments) {
+      if (s.count != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a copy of the value to which the specified key is mapped,
+   * or {@code null} if this map contains no mapping for the key.
+   *
+   * @throws NullPointerException if the specified key is null
+   * @throws ClassCastException if the key codec cannot encode the key
+   */
+  public V get(Object key) {
+    ByteBuffer k = encodeKey(key);
+    int h = hash(k);
+    ByteBuffer b = segmentFor(h).find(h, k);
+    return (b == null) ? null : decodeValue(b);
+  }
+
+  /**
+   * Tests if the specified object is a key in this map.
+   *
+   * @param key possible key
+   * @return {@code true} if the specified object is a key in this map
+   * @throws NullPointerException if the specified key is null
+   * @throws ClassCastException if the key codec cannot encode the key
+   */
+  public boolean containsKey(Object key) {
+    ByteBuffer k = encodeKey(key);
+    int h = hash(k);
+    return segmentFor(h).find(h, k) != null;
+  }
+
+  /**
+   * Maps the specified key to the specified value in this map.
+   * Neither the key nor the value can be null.
+   *
+   * @param key key with which the specified value is to be associated
+   * @param value value to be associated with the specified key
+   * @return the previous value associated with {@code key}, or
+   *         {@code null} if there was no mapping for {@code key}
+   * @throws NullPointerException if the specified key or value is null
+   */
+  public V put(K key, V value) {
+    return putVal(key, value, false);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return the previous value associated with the specified key,
+   *         or {@code null} if there was no mapping for the key
+   * @throws NullPointerException if the specified key or value is null
+   */
+  public V putIfAbsent(K key, V value) {
+    return putVal(key, value, true);
+  }
+
+  final V putVal(K key, V value, boolean onlyIfAbsent) {
+    if (key == null || value == null) {
+      throw new NullPointerException();
+    }
+    ByteBuffer k = encode(keyCodec, key);
+    byte[] v = encode(valueCodec, value).array();
+    int h = hash(k);
+    Segment s = segmentFor(h);
+    ByteBuffer old = null;
+    long stamp = s.lock.writeLock();
+    try {
+      int i = s.probe(h, k);
+      if (i < 0) {
+        s.insert(-1 - i, h, k, v);
+      } else {
+        old = s.record(i);
+        if (!onlyIfAbsent) {
+          s.replace(i, k, v);
+        }
+      }
+    } finally {
+      s.lock.unlockWrite(stamp);
+    }
+    return (old == null) ? null : decodeValue(old);
+  }
+
+  /**
+   * Removes the key (and its corresponding value) from this map.
+   * This method does nothing if the key is not in the map.
+   *
+   * @param key the key that needs to be removed
+   * @return the previous value associated with {@code key}, or
+   *         {@code null} if there was no mapping for {@code key}
+   * @throws NullPointerException if the specified key is null
+   * @throws ClassCastException if the key codec cannot encode the key
+   */
+  public V remove(Object key) {
+    ByteBuffer k = encodeKey(key);
+    int h = hash(k);
+    Segment s = segmentFor(h);
+    ByteBuffer old = null;
+    long stamp = s.lock.writeLock();
+    try {
+      int i = s.probe(h, k);
+      if (i >= 0) {
+        old = s.record(i);
+        s.remove(i);
+      }
+    } finally {
+      s.lock.unlockWrite(stamp);
+    }
+    return (old == null) ? null : decodeValue(old);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws NullPointerException if the specified key is null
+   */
+  public boolean remove(Object key, Object value) {
+    if (value == null) {
+      return false;
+    }
+    ByteBuffer k = encodeKey(key);
+    int h = hash(k);
+    Segment s = segmentFor(h);
+    long stamp = s.lock.writeLock();
+    try {
+      int i = s.probe(h, k);
+      if (i >= 0 && value.equals(decodeValue(s.record(i)))) {
+        s.remove(i);
+        return true;
+      }
+      return false;
+    } finally {
+      s.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws NullPointerException if any of the arguments are null
+   */
+  public boolean replace(K key, V oldValue, V newValue) {
+    if (key == null || oldValue == null || newValue == null) {
+      throw new NullPointerException();
+    }
+    ByteBuffer k = encode(keyCodec, key);
+    byte[] v = encode(valueCodec, newValue).array();
+    int h = hash(k);
+    Segment s = segmentFor(h);
+    long stamp = s.lock.writeLock();
+    try {
+      int i = s.probe(h, k);
+      if (i >= 0 && oldValue.equals(decodeValue(s.record(i)))) {
+        s.replace(i, k, v);
+        return true;
+      }
+      return false;
+    } finally {
+      s.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return the previous value associated with the specified key,
+   *         or {@code null} if there was no mapping for the key
+   * @throws NullPointerException if the specified key or value is null
+   */
+  public V replace(K key, V value) {
+    if (key == null || value == null) {
+      throw new NullPointerException();
+    }
+    ByteBuffer k = encode(keyCodec, key);
+    byte[] v = encode(valueCodec, value).array();
+    int h = hash(k);
+    Segment s = segmentFor(h);
+    ByteBuffer old = null;
+    long stamp = s.lock.writeLock();
+    try {
+      int i = s.probe(h, k);
+      if (i >= 0) {
+        old = s.record(i);
+        s.replace(i, k, v);
+      }
+    } finally {
+      s.lock.unlockWrite(stamp);
+    }
+    return (old == null) ? null : decodeValue(old);
+  }
+
+  /**
+   * Removes all of the mappings from this map, releasing the direct
+   * memory they occupied once no iterator refers to it.
+   */
+  public void clear() {
+    for (Segment s : segments) {
+      long stamp = s.lock.writeLock();
+      try {
+        s.reset();
+      } finally {
+        s.lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /**
+   * Returns a {@link Set} view of the mappings contained in this map.
+   * The set is backed by the map, and supports element removal, but not
+   * addition.  The {@code setValue} method of an entry writes through to
+   * the map.  Its iterators are weakly consistent.
+   *
+   * @return the set view
+   */
+  public Set<Map.Entry<K, V>> entrySet() {
+    EntrySet es;
+    return ((es = entrySet) != null) ? es : (entrySet = new EntrySet());
+  }
+
+  transient EntrySet entrySet;
+
+  /* ---------------- Encoding -------------- */
+
+  /**
+   * Encodes an object into a heap buffer of exactly its encoded size.
+   */
+  static <T> ByteBuffer encode(Codec<T> codec, T value) {
+    int n = codec.encodedSize(value);
+    ByteBuffer b = ByteBuffer.allocate(n);
+    codec.encode(value, b);
+    if (b.hasRemaining()) {
+      throw new IllegalStateException("Codec wrote " + b.position() + " of "
+          + n + " bytes");
+    }
+    b.clear();
+    return b;
+  }
+
+  @SuppressWarnings("unchecked")
+  final ByteBuffer encodeKey(Object key) {
+    if (key == null) {
+      throw new NullPointerException();
+    }
+    return encode(keyCodec, (K) key);
+  }
+
+  final K decodeKey(ByteBuffer record) {
+    int p = record.position();
+    record.limit(p + HEADER + record.getInt(p));
+    record.position(p + HEADER);
+    return keyCodec.decode(record.slice());
+  }
+
+  final V decodeValue(ByteBuffer record) {
+    int p = record.position() + HEADER + record.getInt(record.position());
+    record.limit(p + record.getInt(record.position() + 4));
+    record.position(p);
+    return valueCodec.decode(record.slice());
+  }
+
+  /**
+   * Hashes the bytes of an encoded key, spreading them over all bits:
+   * the high bits select a segment and the low bits a slot.
+   */
+  static int hash(ByteBuffer key) {
+    byte[] a = key.array();
+    int h = a.length;
+    for (byte b : a) {
+      h = 31 * h + b;
+    }
+    h *= 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+
+  final Segment segmentFor(int h) {
+    return segments[(segmentShift == 32) ? 0 : h >>> segmentShift];
+  }
+
+  /* ---------------- Views -------------- */
+
+  final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+    public Iterator<Map.Entry<K, V>> iterator() {
+      return new EntryIterator();
+    }
+
+    public int size() {
+      return OffHeapConcurrentHashMap.this.size();
+    }
+
+    public boolean isEmpty() {
+      return OffHeapConcurrentHashMap.this.isEmpty();
+    }
+
+    public void clear() {
+      OffHeapConcurrentHashMap.this.clear();
+    }
+
+    public boolean contains(Object o) {
+      Object k, v, r;
+      Map.Entry<?, ?> e;
+      return ((o instanceof Map.Entry) &&
+          (k = (e = (Map.Entry<?, ?>) o).getKey()) != null &&
+          (r = get(k)) != null &&
+          (v = e.getValue()) != null &&
+          (v == r || v.equals(r)));
+    }
+
+    public boolean remove(Object o) {
+      Object k, v;
+      Map.Entry<?, ?> e;
+      return ((o instanceof Map.Entry) &&
+          (k = (e = (Map.Entry<?, ?>) o).getKey()) != null &&
+          (v = e.getValue()) != null &&
+          OffHeapConcurrentHashMap.this.remove(k, v));
+    }
+  }
+
+  /**
+   * Iterates over the mappings of one segment at a time, from a copy of
+   * its table taken under the read lock.  The records it refers to stay
+   * valid, as the slab array read with it keeps their slabs.
+   */
+  final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+    int segmentIndex;
+    long[] refs = new long[0];
+    ByteBuffer[] slabs;
+    int slot;
+    MapEntry next;
+    MapEntry lastReturned;
+
+    EntryIterator() {
+      advance();
+    }
+
+    void advance() {
+      for (;;) {
+        while (slot < refs.length) {
+          long r = refs[slot++];
+          if (r != 0L) {
+            ByteBuffer b = slabs[(int) (r >>> 32) - 1].duplicate();
+            b.position((int) r);
+            K k = decodeKey(b.duplicate());
+            next = new MapEntry(k, decodeValue(b));
+            return;
+          }
+        }
+        if (segmentIndex == segments.length) {
+          next = null;
+          return;
+        }
+        Segment s = segments[segmentIndex++];
+        long stamp = s.lock.readLock();
+        try {
+          refs = s.refs.clone();
+          slabs = s.slabs;
+        } finally {
+          s.lock.unlockRead(stamp);
+        }
+        slot = 0;
+      }
+    }
+
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    public Map.Entry<K, V> next() {
+      MapEntry e = next;
+      if (e == null) {
+        throw new NoSuchElementException();
+      }
+      lastReturned = e;
+      advance();
+      return e;
+    }
+
+    public void remove() {
+      MapEntry e = lastReturned;
+      if (e == null) {
+        throw new IllegalStateException();
+      }
+      lastReturned = null;
+      OffHeapConcurrentHashMap.this.remove(e.key);
+    }
+  }
+
+  /**
+   * Exported Entry for iterators.
+   */
+  final class MapEntry implements Map.Entry<K, V> {
+
+    final K key; // non-null
+    V val;       // non-null
+
+    MapEntry(K key, V val) {
+      this.key = key;
+      this.val = val;
+    }
+
+    public K getKey() {
+      return key;
+    }
+
+    public V getValue() {
+      return val;
+    }
+
+    public int hashCode() {
+      return key.hashCode() ^ val.hashCode();
+    }
+
+    public String toString() {
+      return key + "=" + val;
+    }
+
+    public boolean equals(Object o) {
+      Object k, v;
+      Map.Entry<?, ?> e;
+      return ((o instanceof Map.Entry) &&
+          (k = (e = (Map.Entry<?, ?>) o).getKey()) != null &&
+          (v = e.getValue()) != null &&
+          (k == key || k.equals(key)) &&
+          (v == val || v.equals(val)));
+    }
+
+    /**
+     * Sets our entry's value and writes through to the map, as in
+     * ConcurrentHashMap.MapEntry.
+     */
+    public V setValue(V value) {
+      if (value == null) {
+        throw new NullPointerException();
+      }
+      V v = val;
+      val = value;
+      put(key, value);
+      return v;
+    }
+  }
+}
@@ -39,6 +39,7 @@ import java.util.concurrent.locks.AbstractQueuedSynchronizer;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.lang.management.ManagementPermission;
 import java.util.*;
 
 /**
@@ -195,6 +196,16 @@ import java.util.*;
  *
  * </ol>
  *
+ * A pool whose queue is a {@link TransferQueue} (for example a
+ * {@link LinkedTransferQueue}) may also {@linkplain
+ * #allowEagerGrowth(boolean) grow eagerly}: once corePoolSize threads
+ * are running, a new task is handed to an idle thread if there is one,
+ * and otherwise a new thread is created unless this would exceed
+ * maximumPoolSize, in which case the task is queued.  This combines the
+ * growth of direct handoffs with the smoothing of unbounded queues.
+ * The core pool size of a pool may be adjusted from its observed
+ * latency and throughput by an {@link AdaptivePoolSizer}.
+ *
  * </dd>
  *
  * <dt>Rejected tasks</dt>
@@ -258,6 +269,22 @@ import java.util.*;
  * assist in storage reclamation when large numbers of queued tasks
  * become cancelled.</dd>
  *
+ * <dt>Metrics</dt>
+ *
+ * <dd>Method {@link #enableMetrics(String)} starts gathering the
+ * times tasks wait in the queue and take to run, the numbers of tasks
+ * rejected and of worker threads started and died, and registers a
+ * {@link ThreadPoolExecutorMXBean} exposing them with the platform
+ * MBeanServer.  Gathering them costs two reads of {@link
+ * System#nanoTime} and a few {@link
+ * java.util.concurrent.atomic.LongAdder LongAdder} updates per task.
+ * To time the wait of a queued task, {@code execute} wraps it before
+ * offering it to a {@link LinkedBlockingQueue}, {@link
+ * ArrayBlockingQueue}, {@link LinkedBlockingDeque}, {@link
+ * SynchronousQueue} or {@link LinkedTransferQueue}; with other queues,
+ * which may order their elements by the tasks themselves, wait times
+ * are recorded only for tasks run without being queued.</dd>
+ *
  * <dt>Finalization</dt>
  *
  * <dd>A pool that is no longer referenced in a program <em>AND</em>
@@ -538,6 +565,15 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
    */
   private volatile boolean allowCoreThreadTimeOut;
 
+  /**
+   * If false (default), tasks are queued whenever corePoolSize or
+   * more threads are running.  If true, such tasks are first handed
+   * to an idle thread, or else to a new thread if fewer than
+   * maximumPoolSize are running, and queued only if neither is
+   * possible.  Set only if workQueue is a TransferQueue.
+   */
+  private volatile boolean eagerGrowth;
+
   /**
    * Core pool size is the minimum number of workers to keep alive
    * (and not allow to time out etc) unless allowCoreThreadTimeOut
@@ -557,6 +593,59 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
   private static final RejectedExecutionHandler defaultHandler =
       new AbortPolicy();
 
+  /**
+   * The metrics of this pool, created on the first call to
+   * enableMetrics and kept after disableMetrics so that the counts
+   * survive.  Accessed only under mainLock.
+   */
+  private ThreadPoolMetrics metrics;
+
+  /**
+   * The metrics to record into: the metrics while enabled, otherwise
+   * null, so that a disabled pool does no more than read this field.
+   */
+  private volatile ThreadPoolMetrics recorder;
+
+  /**
+   * True if the work queue is one of the known FIFO queues, which
+   * cannot tell a QueuedTask from the task it wraps and so may be
+   * given QueuedTasks while metrics are recorded.
+   */
+  private final boolean timeQueuedTasks;
+
+  /**
+   * True once metrics have been recorded with such a queue.  The queue
+   * may hold QueuedTasks from then on, even after metrics are disabled,
+   * so remove(Runnable) must look for them; until then it need not.
+   */
+  private volatile boolean queuedTasksWrapped;
+
+  /**
+   * A task queued while metrics are recorded, with the time it was
+   * submitted to execute.
+   */
+  static final class QueuedTask implements Runnable {
+
+    final Runnable task;
+    final long enqueued;
+
+    QueuedTask(Runnable task, long enqueued) {
+      this.task = task;
+      this.enqueued = enqueued;
+    }
+
+    public void run() {
+      task.run();
+    }
+  }
+
+  /**
+   * Returns the task the given queue element was submitted as.
+   */
+  static Runnable unwrap(Runnable r) {
+    return (r instanceof QueuedTask) ? ((QueuedTask) r).task : r;
+  }
+
   /**
    * Permission required for callers of shutdown and shutdownNow.
    * We additionally require (see checkShutdownAccess) that callers
@@ -740,6 +829,11 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
           } finally {
             ctl.set(ctlOf(TERMINATED, 0));
             termination.signalAll();
+            if (metrics != null) {
+              recorder = null;
+              metrics.enabled = false;
+              metrics.unregister();
+            }
           }
           return;
         }
@@ -852,7 +946,12 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
    * Package-protected for use by ScheduledThreadPoolExecutor.
    */
   final void reject(Runnable command) {
-    handler.rejectedExecution(command, this);
+    RejectedExecutionHandler h = handler;
+    ThreadPoolMetrics m = recorder;
+    if (m != null) {
+      m.rejected(h);
+    }
+    h.rejectedExecution(command, this);
   }
 
   /**
@@ -891,6 +990,11 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
         }
       }
     }
+    if (timeQueuedTasks) {
+      for (int i = 0; i < taskList.size(); i++) {
+        taskList.set(i, unwrap(taskList.get(i)));
+      }
+    }
     return taskList;
   }
 
@@ -985,6 +1089,10 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
         if (workerAdded) {
           t.start();
           workerStarted = true;
+          ThreadPoolMetrics m = recorder;
+          if (m != null) {
+            m.workerStarted();
+          }
         }
       }
     } finally {
@@ -1043,6 +1151,10 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
     } finally {
       mainLock.unlock();
     }
+    ThreadPoolMetrics m = recorder;
+    if (m != null) {
+      m.workerExited(completedAbruptly);
+    }
 
     tryTerminate();
 
@@ -1179,10 +1291,22 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             !wt.isInterrupted()) {
           wt.interrupt();
         }
+        ThreadPoolMetrics m = recorder;
+        long start = 0L;
+        if (m != null) {
+          start = System.nanoTime();
+          if (task instanceof QueuedTask) {
+            m.queued(((QueuedTask) task).enqueued, start);
+          }
+        }
+        task = unwrap(task);
         try {
           beforeExecute(wt, task);
           Throwable thrown = null;
           try {
+            if (m != null) {
+              start = System.nanoTime();
+            }
             task.run();
           } catch (RuntimeException x) {
             thrown = x;
@@ -1194,6 +1318,9 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
             thrown = x;
             throw new Error(x);
           } finally {
+            if (m != null) {
+              m.ran(System.nanoTime() - start, thrown != null);
+            }
             afterExecute(task, thrown);
           }
         } finally {
@@ -1338,6 +1465,12 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
     this.keepAliveTime = unit.toNanos(keepAliveTime);
     this.threadFactory = threadFactory;
     this.handler = handler;
+    Class<?> qc = workQueue.getClass();
+    this.timeQueuedTasks = qc == LinkedBlockingQueue.class ||
+        qc == ArrayBlockingQueue.class ||
+        qc == LinkedBlockingDeque.class ||
+        qc == SynchronousQueue.class ||
+        qc == LinkedTransferQueue.class;
   }
 
   /**
@@ -1377,21 +1510,33 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
          * thread.  If it fails, we know we are shut down or saturated
          * and so reject the task.
          */
+    Runnable task = command;
+    if (timeQueuedTasks && recorder != null) {
+      task = new QueuedTask(command, System.nanoTime());
+    }
     int c = ctl.get();
     if (workerCountOf(c) < corePoolSize) {
-      if (addWorker(command, true)) {
+      if (addWorker(task, true)) {
+        return;
+      }
+      c = ctl.get();
+    }
+    if (eagerGrowth && isRunning(c)) {
+      // Prefer an idle thread, then a new one, to queuing
+      if (((TransferQueue<Runnable>) workQueue).tryTransfer(task) ||
+          addWorker(task, false)) {
         return;
       }
       c = ctl.get();
     }
-    if (isRunning(c) && workQueue.offer(command)) {
+    if (isRunning(c) && workQueue.offer(task)) {
       int recheck = ctl.get();
-      if (!isRunning(recheck) && remove(command)) {
+      if (!isRunning(recheck) && remove(task)) {
         reject(command);
       } else if (workerCountOf(recheck) == 0) {
         addWorker(null, false);
       }
-    } else if (!addWorker(command, false)) {
+    } else if (!addWorker(task, false)) {
       reject(command);
     }
   }
@@ -1681,6 +1826,42 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
     }
   }
 
+  /**
+   * Returns true if this pool creates new threads, up to the maximum
+   * pool size, for tasks that no idle thread is waiting for, in
+   * preference to queuing them.
+   *
+   * @return {@code true} if this pool grows eagerly
+   * @see #allowEagerGrowth(boolean)
+   * @since 1.8
+   */
+  public boolean allowsEagerGrowth() {
+    return eagerGrowth;
+  }
+
+  /**
+   * Sets the policy governing whether tasks submitted while
+   * corePoolSize or more threads are running are queued (when false,
+   * the default) or, when true, handed to an idle thread if one is
+   * waiting, or else run by a new thread if fewer than maximumPoolSize
+   * threads are running, and queued only when neither is possible.
+   * Threads beyond the core pool size so created time out after the
+   * keep-alive time as usual.  Eager growth requires a work queue that
+   * can tell whether a thread is waiting to receive a task, which is to
+   * say a {@link TransferQueue}.
+   *
+   * @param value {@code true} if should grow eagerly, else {@code false}
+   * @throws IllegalArgumentException if value is {@code true} and the
+   *         work queue is not a {@link TransferQueue}
+   * @since 1.8
+   */
+  public void allowEagerGrowth(boolean value) {
+    if (value && !(workQueue instanceof TransferQueue)) {
+      throw new IllegalArgumentException("Eager growth requires a TransferQueue");
+    }
+    eagerGrowth = value;
+  }
+
   /**
    * Sets the maximum allowed number of threads. This overrides any
    * value set in the constructor. If the new value is smaller than
@@ -1762,6 +1943,10 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
    * This queue may be in active use.  Retrieving the task queue
    * does not prevent queued tasks from executing.
    *
+   * <p>While {@linkplain #enableMetrics metrics} are recorded, tasks
+   * queued by {@link #execute execute} may be held in the queue
+   * wrapped in other {@code Runnable}s.
+   *
    * @return the task queue
    */
   public BlockingQueue<Runnable> getQueue() {
@@ -1785,7 +1970,18 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
    * @return {@code true} if the task was removed
    */
   public boolean remove(Runnable task) {
-    boolean removed = workQueue.remove(task);
+    BlockingQueue<Runnable> q = workQueue;
+    boolean removed = q.remove(task);
+    if (!removed && queuedTasksWrapped && task != null &&
+        !(task instanceof QueuedTask)) {
+      for (Object r : q.toArray()) {
+        if (r instanceof QueuedTask && ((QueuedTask) r).task.equals(task) &&
+            q.remove(r)) {
+          removed = true;
+          break;
+        }
+      }
+    }
     tryTerminate(); // In case SHUTDOWN and now empty
     return removed;
   }
@@ -1805,7 +2001,7 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
     try {
       Iterator<Runnable> it = q.iterator();
       while (it.hasNext()) {
-        Runnable r = it.next();
+        Runnable r = unwrap(it.next());
         if (r instanceof Future<?> && ((Future<?>) r).isCancelled()) {
           it.remove();
         }
@@ -1815,7 +2011,8 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
       // Make copy for traversal and call remove for cancelled entries.
       // The slow path is more likely to be O(N*N).
       for (Object r : q.toArray()) {
-        if (r instanceof Future<?> && ((Future<?>) r).isCancelled()) {
+        Runnable t = unwrap((Runnable) r);
+        if (t instanceof Future<?> && ((Future<?>) t).isCancelled()) {
           q.remove(r);
         }
       }
@@ -1930,6 +2127,124 @@ public class ThreadPoolExecutor extends AbstractExecutorService {
     }
   }
 
+  /**
+   * Starts gathering the metrics of this pool and registers its
+   * {@link ThreadPoolExecutorMXBean} with the platform MBeanServer
+   * under the given name.  If metrics are already enabled, the MXBean
+   * is registered again under the given name.  Counts gathered before
+   * an earlier {@link #disableMetrics} are kept.  The MXBean is
+   * unregistered when metrics are disabled or the pool terminates.
+   *
+   * @param name the name of the pool
+   * @throws NullPointerException if name is null
+   * @throws IllegalArgumentException if an MXBean of a pool of the same
+   *         name is registered
+   * @throws IllegalStateException if this pool has terminated
+   * @throws SecurityException if a security manager exists and the
+   *         caller does not have ManagementPermission("control")
+   * @since 1.8
+   */
+  public void enableMetrics(String name) {
+    if (name == null) {
+      throw new NullPointerException();
+    }
+    checkMetricsAccess();
+    final ReentrantLock mainLock = this.mainLock;
+    mainLock.lock();
+    try {
+      if (runStateAtLeast(ctl.get(), TIDYING)) {
+        throw new IllegalStateException("Terminated");
+      }
+      ThreadPoolMetrics m = metrics;
+      if (m == null) {
+        metrics = m = new ThreadPoolMetrics(this);
+      }
+      m.register(name);
+      m.enabled = true;
+      if (timeQueuedTasks) {
+        queuedTasksWrapped = true;
+      }
+      recorder = m;
+    } finally {
+      mainLock.unlock();
+    }
+  }
+
+  /**
+   * Stops gathering the metrics of this pool and unregisters its
+   * {@link ThreadPoolExecutorMXBean}.  The metrics gathered remain
+   * available from {@link #getMetrics}.
+   *
+   * @throws SecurityException if a security manager exists and the
+   *         caller does not have ManagementPermission("control")
+   * @since 1.8
+   */
+  public void disableMetrics() {
+    checkMetricsAccess();
+    final ReentrantLock mainLock = this.mainLock;
+    mainLock.lock();
+    try {
+      ThreadPoolMetrics m = metrics;
+      if (m != null) {
+        recorder = null;
+        m.enabled = false;
+        m.unregister();
+      }
+    } finally {
+      mainLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the metrics of this pool, or {@code null} if they have
+   * never been {@linkplain #enableMetrics enabled}.
+   *
+   * @return the metrics of this pool, or {@code null}
+   * @since 1.8
+   */
+  public ThreadPoolExecutorMXBean getMetrics() {
+    final ReentrantLock mainLock = this.mainLock;
+    mainLock.lock();
+    try {
+      return metrics;
+    } finally {
+      mainLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the metrics of this pool, first starting to record them,
+   * without registering the MXBean, if they are not being recorded.
+   * Used by AdaptivePoolSizer.
+   */
+  ThreadPoolMetrics recordMetrics() {
+    final ReentrantLock mainLock = this.mainLock;
+    mainLock.lock();
+    try {
+      ThreadPoolMetrics m = metrics;
+      if (m == null) {
+        metrics = m = new ThreadPoolMetrics(this);
+      }
+      if (!m.enabled && !runStateAtLeast(ctl.get(), TIDYING)) {
+        m.enabled = true;
+        if (timeQueuedTasks) {
+          queuedTasksWrapped = true;
+        }
+        recorder = m;
+      }
+      return m;
+    } finally {
+      mainLock.unlock();
+    }
+  }
+
+  private static void checkMetricsAccess() {
+    SecurityManager sm = System.getSecurityManager();
+    if (sm != null) {
+      sm.checkPermission(new ManagementPermission("control"));
+    }
+  }
+
   /**
    * Returns a string identifying this pool, as well as its state,
    * including indications of run state and estimated worker and
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.util.Map;
+
+/**
+ * The management interface for the metrics of a {@link ThreadPoolExecutor}.
+ * A pool gathers metrics while they are {@linkplain
+ * ThreadPoolExecutor#enableMetrics enabled}, and during that time its
+ * MXBean is registered with the platform {@linkplain
+ * java.lang.management.ManagementFactory#getPlatformMBeanServer
+ * MBeanServer} under the {@link javax.management.ObjectName ObjectName}
+ * <pre>
+ *      java.util.concurrent:type=ThreadPoolExecutor,name=<i>pool name</i>
+ * </pre>
+ * with the pool name quoted as by {@link javax.management.ObjectName#quote
+ * ObjectName.quote}.
+ *
+ * <p>Times are in nanoseconds.  The queue wait time of a task is the time
+ * from its submission to {@link ThreadPoolExecutor#execute execute} to the
+ * start of its execution, and its run time is the time taken by its {@code
+ * run} method, excluding {@code beforeExecute} and {@code afterExecute}.
+ * Each is recorded in a histogram whose bucket {@code i} counts the times
+ * less than {@code 2^i} nanoseconds and, for {@code i > 0}, at least {@code
+ * 2^(i-1)}, except that the last bucket also counts all longer times; see
+ * {@link #getHistogramBounds}.
+ *
+ * @see ThreadPoolExecutor#getMetrics
+ * @since 1.8
+ */
+public interface ThreadPoolExecutorMXBean {
+
+  /**
+   * Returns the name the pool was given when its metrics were enabled.
+   *
+   * @return the name of the pool
+   */
+  String getName();
+
+  /**
+   * Returns {@code true} if metrics are being gathered.
+   *
+   * @return {@code true} if metrics are being gathered
+   */
+  boolean isMetricsEnabled();
+
+  /**
+   * Returns the core number of threads.
+   *
+   * @return the core number of threads
+   * @see ThreadPoolExecutor#getCorePoolSize
+   */
+  int getCorePoolSize();
+
+  /**
+   * Returns the maximum allowed number of threads.
+   *
+   * @return the maximum allowed number of threads
+   * @see ThreadPoolExecutor#getMaximumPoolSize
+   */
+  int getMaximumPoolSize();
+
+  /**
+   * Returns the current number of threads in the pool.
+   *
+   * @return the number of threads
+   * @see ThreadPoolExecutor#getPoolSize
+   */
+  int getPoolSize();
+
+  /**
+   * Returns the largest number of threads that have ever simultaneously
+   * been in the pool.
+   *
+   * @return the number of threads
+   * @see ThreadPoolExecutor#getLargestPoolSize
+   */
+  int getLargestPoolSize();
+
+  /**
+   * Returns the approximate number of threads that are actively
+   * executing tasks.
+   *
+   * @return the number of threads
+   * @see ThreadPoolExecutor#getActiveCount
+   */
+  int getActiveCount();
+
+  /**
+   * Returns the number of tasks in the queue.
+   *
+   * @return the number of queued tasks
+   */
+  int getQueueSize();
+
+  /**
+   * Returns the approximate total number of tasks that have completed
+   * execution.
+   *
+   * @return the number of tasks
+   * @see ThreadPoolExecutor#getCompletedTaskCount
+   */
+  long getCompletedTaskCount();
+
+  /**
+   * Returns the number of worker threads started while metrics were
+   * enabled.
+   *
+   * @return the number of workers started
+   */
+  long getWorkerStartCount();
+
+  /**
+   * Returns the number of worker threads that exited while metrics were
+   * enabled, including those that died.
+   *
+   * @return the number of workers exited
+   */
+  long getWorkerExitCount();
+
+  /**
+   * Returns the number of worker threads that died because a task or an
+   * extension hook threw an exception while metrics were enabled.
+   *
+   * @return the number of workers died
+   */
+  long getWorkerDeathCount();
+
+  /**
+   * Returns the number of tasks rejected while metrics were enabled.
+   *
+   * @return the number of tasks rejected
+   */
+  long getRejectedCount();
+
+  /**
+   * Returns the number of tasks rejected while metrics were enabled, for
+   * each class of {@link RejectedExecutionHandler} they were passed to.
+   *
+   * @return a map from handler class names to numbers of tasks rejected
+   */
+  Map<String, Long> getRejectedCountByHandler();
+
+  /**
+   * Returns the number of tasks whose queue wait time was recorded.
+   *
+   * @return the number of queue wait times recorded
+   */
+  long getQueueWaitCount();
+
+  /**
+   * Returns the sum of the queue wait times recorded.
+   *
+   * @return the total queue wait time in nanoseconds
+   */
+  long getTotalQueueWaitTime();
+
+  /**
+   * Returns the histogram of the queue wait times recorded.
+   *
+   * @return the number of queue wait times in each bucket
+   */
+  long[] getQueueWaitTimeHistogram();
+
+  /**
+   * Returns an upper bound of the given percentile of the queue wait
+   * times recorded: the upper bound of the bucket holding it.
+   *
+   * @param percentile a percentile, from 0 to 100
+   * @return the bound in nanoseconds, or 0 if no times were recorded
+   * @throws IllegalArgumentException if the percentile is not between
+   *         0 and 100
+   */
+  long getQueueWaitTimePercentile(double percentile);
+
+  /**
+   * Returns the number of task executions whose run time was recorded,
+   * including those that threw exceptions.
+   *
+   * @return the number of run times recorded
+   */
+  long getRunCount();
+
+  /**
+   * Returns the number of task executions recorded that threw exceptions.
+   *
+   * @return the number of failed task executions
+   */
+  long getFailedRunCount();
+
+  /**
+   * Returns the sum of the run times recorded.
+   *
+   * @return the total run time in nanoseconds
+   */
+  long getTotalRunTime();
+
+  /**
+   * Returns the histogram of the run times recorded.
+   *
+   * @return the number of run times in each bucket
+   */
+  long[] getRunTimeHistogram();
+
+  /**
+   * Returns an upper bound of the given percentile of the run times
+   * recorded: the upper bound of the bucket holding it.
+   *
+   * @param percentile a percentile, from 0 to 100
+   * @return the bound in nanoseconds, or 0 if no times were recorded
+   * @throws IllegalArgumentException if the percentile is not between
+   *         0 and 100
+   */
+  long getRunTimePercentile(double percentile);
+
+  /**
+   * Returns the exclusive upper bounds, in nanoseconds, of the buckets
+   * of the histograms; the last is {@code Long.MAX_VALUE}.
+   *
+   * @return the upper bounds of the buckets
+   */
+  long[] getHistogramBounds();
+
+  /**
+   * Resets all counts, times and histograms to zero.
+   *
+   * @throws SecurityException if a security manager exists and the
+   *         caller does not have ManagementPermission("control").
+   */
+  void resetStatistics();
+}
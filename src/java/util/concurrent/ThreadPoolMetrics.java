@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ManagementPermission;
+import java.lang.ref.WeakReference;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The metrics of a ThreadPoolExecutor, and its MXBean.  Recording is
+ * done with LongAdders, so that workers finishing tasks at the same
+ * time contend no more than the cells of an adder.  The pool is
+ * referenced weakly so that the registration of the MXBean does not
+ * keep an abandoned pool reachable.
+ */
+final class ThreadPoolMetrics implements ThreadPoolExecutorMXBean {
+
+  /**
+   * A histogram of times with a bucket for each power of two
+   * nanoseconds.
+   */
+  static final class Histogram {
+
+    /** The number of buckets; the last collects times of 2^46 ns or more. */
+    static final int BUCKETS = 48;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+
+    Histogram() {
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] = new LongAdder();
+      }
+    }
+
+    void record(long nanos) {
+      if (nanos < 0L) {
+        nanos = 0L;
+      }
+      counts[Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKETS - 1)].increment();
+      total.add(nanos);
+    }
+
+    long[] counts() {
+      long[] a = new long[BUCKETS];
+      for (int i = 0; i < BUCKETS; i++) {
+        a[i] = counts[i].sum();
+      }
+      return a;
+    }
+
+    long count() {
+      long n = 0L;
+      for (LongAdder c : counts) {
+        n += c.sum();
+      }
+      return n;
+    }
+
+    long total() {
+      return total.sum();
+    }
+
+    long percentile(double percentile) {
+      return percentile(counts(), percentile);
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given
+     * percentile of the given bucket counts.
+     */
+    static long percentile(long[] a, double percentile) {
+      if (!(percentile >= 0.0 && percentile <= 100.0)) {
+        throw new IllegalArgumentException();
+      }
+      long n = 0L;
+      for (long c : a) {
+        n += c;
+      }
+      if (n == 0L) {
+        return 0L;
+      }
+      long rank = Math.max(1L, (long) Math.ceil(n * percentile / 100.0));
+      for (int i = 0; ; i++) {
+        if ((rank -= a[i]) <= 0L) {
+          return bound(i);
+        }
+      }
+    }
+
+    void reset() {
+      for (LongAdder c : counts) {
+        c.reset();
+      }
+      total.reset();
+    }
+
+    static long bound(int bucket) {
+      return (bucket == BUCKETS - 1) ? Long.MAX_VALUE : 1L << bucket;
+    }
+  }
+
+  private final WeakReference<ThreadPoolExecutor> pool;
+  private volatile String name;
+  private volatile ObjectName objectName;
+  volatile boolean enabled;
+
+  final Histogram queueWaits = new Histogram();
+  final Histogram runTimes = new Histogram();
+  private final LongAdder failedRuns = new LongAdder();
+  private final LongAdder workersStarted = new LongAdder();
+  private final LongAdder workersExited = new LongAdder();
+  private final LongAdder workersDied = new LongAdder();
+  private final ConcurrentHashMap<String, LongAdder> rejections =
+      new ConcurrentHashMap<String, LongAdder>();
+
+  ThreadPoolMetrics(ThreadPoolExecutor pool) {
+    this.pool = new WeakReference<ThreadPoolExecutor>(pool);
+  }
+
+  /* ---------------- Recording -------------- */
+
+  void queued(long enqueueNanos, long startNanos) {
+    queueWaits.record(startNanos - enqueueNanos);
+  }
+
+  void ran(long nanos, boolean failed) {
+    runTimes.record(nanos);
+    if (failed) {
+      failedRuns.increment();
+    }
+  }
+
+  void workerStarted() {
+    workersStarted.increment();
+  }
+
+  void workerExited(boolean died) {
+    workersExited.increment();
+    if (died) {
+      workersDied.increment();
+    }
+  }
+
+  void rejected(RejectedExecutionHandler handler) {
+    String key = handler.getClass().getName();
+    LongAdder a = rejections.get(key);
+    if (a == null) {
+      LongAdder b = rejections.putIfAbsent(key, a = new LongAdder());
+      if (b != null) {
+        a = b;
+      }
+    }
+    a.increment();
+  }
+
+  /* ---------------- Registration -------------- */
+
+  /**
+   * Registers this MXBean with the platform MBeanServer under the given
+   * pool name, replacing any earlier registration of it.  If the name is
+   * in use, the earlier registration is kept.
+   */
+  void register(String name) {
+    final ObjectName on;
+    try {
+      on = new ObjectName("java.util.concurrent:type=ThreadPoolExecutor,name="
+          + ObjectName.quote(name));
+    } catch (JMException e) {
+      throw new IllegalArgumentException(e);
+    }
+    final ObjectName old = objectName;
+    if (on.equals(old)) {
+      return;
+    }
+    // An MXBean can be registered under one name only, so the old name
+    // is released just before the new one is taken, and taken back if
+    // registering the new one fails.
+    objectName = AccessController.doPrivileged(
+        new PrivilegedAction<ObjectName>() {
+          public ObjectName run() {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            if (mbs.isRegistered(on)) {
+              throw new IllegalArgumentException("Pool name in use: " + name);
+            }
+            if (old != null) {
+              try {
+                mbs.unregisterMBean(old);
+              } catch (JMException ignore) {
+              }
+            }
+            try {
+              mbs.registerMBean(ThreadPoolMetrics.this, on);
+              return on;
+            } catch (JMException e) {
+              objectName = restore(mbs, old);
+              if (e instanceof InstanceAlreadyExistsException) {
+                throw new IllegalArgumentException("Pool name in use: " + name, e);
+              }
+              throw new IllegalStateException(e);
+            }
+          }
+        });
+    this.name = name;
+  }
+
+  /**
+   * Registers this MXBean again under the given earlier name, returning
+   * that name, or null if it is null or cannot be registered again.
+   */
+  private ObjectName restore(MBeanServer mbs, ObjectName old) {
+    if (old != null) {
+      try {
+        mbs.registerMBean(this, old);
+        return old;
+      } catch (JMException ignore) {
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Unregisters this MXBean, if registered.
+   */
+  void unregister() {
+    final ObjectName on = objectName;
+    if (on != null) {
+      objectName = null;
+      AccessController.doPrivileged(new PrivilegedAction<Void>() {
+        public Void run() {
+          MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+          try {
+            mbs.unregisterMBean(on);
+          } catch (JMException ignore) {
+          }
+          return null;
+        }
+      });
+    }
+  }
+
+  /* ---------------- ThreadPoolExecutorMXBean -------------- */
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isMetricsEnabled() {
+    return enabled;
+  }
+
+  public int getCorePoolSize() {
+    ThreadPoolExecutor p = pool.get();
+    return (p == null) ? 0 : p.getCorePoolSize();
+  }
+
+  public int getMaximumPoolSize() {
+    ThreadPoolExecutor p = pool.get();
+    return (p == null) ? 0 : p.getMaximumPoolSize();
+  }
+
+  public int getPoolSize() {
+    ThreadPoolExecutor p = pool.get();
+    return (p == null) ? 0 : p.getPoolSize();
+  }
+
+  public int getLargestPoolSize() {
+    ThreadPoolExecutor p = pool.get();
+    return (p == null) ? 0 : p.getLargestPoolSize();
+  }
+
+  public int getActiveCount() {
+    ThreadPoolExecutor p = pool.get();
+    return (p == null) ? 0 : p.getActiveCount();
+  }
+
+  public int getQueueSize() {
+    ThreadPoolExecutor p = pool.get();
+    return (p == null) ? 0 : p.getQueue().size();
+  }
+
+  public long getCompletedTaskCount() {
+    ThreadPoolExecutor p = pool.get();
+    return (p == null) ? 0L : p.getCompletedTaskCount();
+  }
+
+  public long getWorkerStartCount() {
+    return workersStarted.sum();
+  }
+
+  public long getWorkerExitCount() {
+    return workersExited.sum();
+  }
+
+  public long getWorkerDeathCount() {
+    return workersDied.sum();
+  }
+
+  public long getRejectedCount() {
+    long n = 0L;
+    for (LongAdder a : rejections.values()) {
+      n += a.sum();
+    }
+    return n;
+  }
+
+  public Map<String, Long> getRejectedCountByHandler() {
+    Map<String, Long> m = new TreeMap<String, Long>();
+    for (Map.Entry<String, LongAdder> e : rejections.entrySet()) {
+      m.put(e.getKey(), e.getValue().sum());
+    }
+    return m;
+  }
+
+  public long getQueueWaitCount() {
+    return queueWaits.count();
+  }
+
+  public long getTotalQueueWaitTime() {
+    return queueWaits.total();
+  }
+
+  public long[] getQueueWaitTimeHistogram() {
+    return queueWaits.counts();
+  }
+
+  public long getQueueWaitTimePercentile(double percentile) {
+    return queueWaits.percentile(percentile);
+  }
+
+  public long getRunCount() {
+    return runTimes.count();
+  }
+
+  public long getFailedRunCount() {
+    return failedRuns.sum();
+  }
+
+  public long getTotalRunTime() {
+    return runTimes.total();
+  }
+
+  public long[] getRunTimeHistogram() {
+    return runTimes.counts();
+  }
+
+  public long getRunTimePercentile(double percentile) {
+    return runTimes.percentile(percentile);
+  }
+
+  public long[] getHistogramBounds() {
+    long[] a = new long[Histogram.BUCKETS];
+    for (int i = 0; i < a.length; i++) {
+      a[i] = Histogram.bound(i);
+    }
+    return a;
+  }
+
+  public void resetStatistics() {
+    SecurityManager sm = System.getSecurityManager();
+    if (sm != null) {
+      sm.checkPermission(new ManagementPermission("control"));
+    }
+    queueWaits.reset();
+    runTimes.reset();
+    failedRuns.reset();
+    workersStarted.reset();
+    workersExited.reset();
+    workersDied.reset();
+    rejections.clear();
+  }
+}
@@ -0,0 +1,917 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+
+package java.util.concurrent;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link ScheduledExecutorService} that keeps its delayed tasks in a
+ * hashed hierarchical timing wheel rather than a priority queue, so that
+ * scheduling and cancelling a task take constant time however many tasks
+ * are pending.  It suits large numbers of short timeouts that are mostly
+ * cancelled before they expire, such as per-request deadlines, for which
+ * the heap and lock of a {@link ScheduledThreadPoolExecutor} become a
+ * bottleneck.
+ *
+ * <p>Time is divided into <em>ticks</em> of a fixed duration, the
+ * resolution of the executor.  A timer thread advances the wheel once per
+ * tick and hands each task whose delay has elapsed to a fixed-size pool of
+ * worker threads, which run it.  A task therefore executes no sooner than
+ * it is enabled, but may be enabled up to one tick late, and tasks enabled
+ * in the same tick are not ordered.  Tasks submitted with no delay, through
+ * {@code execute} and {@code submit} or with a non-positive delay, are
+ * handed to the workers directly.
+ *
+ * <p>Threads submitting and cancelling tasks never contend on a lock:
+ * new and cancelled tasks are passed to the timer thread through
+ * lock-free stacks, and the timer thread alone updates the wheel.  A
+ * cancelled task is unlinked from the wheel within one tick.  While there
+ * are no pending tasks, the timer thread waits without waking each tick.
+ *
+ * <p>After {@link #shutdown}, periodic tasks are cancelled and delayed
+ * tasks already scheduled are still run, as with the default policies of
+ * {@code ScheduledThreadPoolExecutor}.
+ *
+ * <h3>Implementation notes</h3>
+ *
+ * The wheel has several levels of {@link #getWheelSize} slots each.  A
+ * slot of level {@code i} spans {@code getWheelSize()}<sup>{@code
+ * i}</sup> ticks, and a task is placed in the lowest level that reaches
+ * its deadline.  When the current tick enters the span of a slot of a
+ * higher level, the tasks of that slot are placed again, into lower
+ * levels, so that a task is moved at most once per level.  There are
+ * enough levels to hold any delay.
+ *
+ * @since 1.8
+ */
+public class TimingWheelScheduledExecutor extends AbstractExecutorService
+    implements ScheduledExecutorService {
+
+  /**
+   * The default tick duration, one millisecond.
+   */
+  private static final long DEFAULT_TICK_NANOS = 1000L * 1000L;
+
+  /**
+   * The default number of slots in each level of the wheel.
+   */
+  private static final int DEFAULT_WHEEL_SIZE = 256;
+
+  /**
+   * The largest number of slots in each level of the wheel.
+   */
+  private static final int MAXIMUM_WHEEL_SIZE = 1 << 16;
+
+  // Run states
+  private static final int RUNNING = 0;
+  private static final int SHUTDOWN = 1;
+  private static final int STOP = 2;
+
+  /**
+   * Sequence number to break ties in compareTo.  The wheel itself does
+   * not order tasks enabled in the same tick.
+   */
+  private static final AtomicLong sequencer = new AtomicLong();
+
+  /**
+   * The tick duration in nanoseconds.
+   */
+  private final long tickNanos;
+
+  /**
+   * The base 2 logarithm of the number of slots per level.
+   */
+  private final int wheelBits;
+
+  /**
+   * The number of levels.
+   */
+  private final int levels;
+
+  /**
+   * The slots of all levels; slot {@code s} of level {@code i} is at index
+   * {@code (i << wheelBits) | s}.
+   */
+  private final Bucket[] buckets;
+
+  /**
+   * The nanoTime origin of tick 0.
+   */
+  private final long startTime;
+
+  /**
+   * The next tick to process.  Accessed only by the timer thread.
+   */
+  private long currentTick;
+
+  /**
+   * The number of tasks in the wheel.  Accessed only by the timer thread.
+   */
+  private int wheelCount;
+
+  /**
+   * Tasks scheduled but not yet placed in the wheel, as a stack linked
+   * through WheelTask.nextNew.
+   */
+  private final AtomicReference<WheelTask<?>> newTasks =
+      new AtomicReference<WheelTask<?>>();
+
+  /**
+   * Tasks cancelled, possibly while in the wheel, as a stack linked
+   * through WheelTask.nextCancelled.
+   */
+  private final AtomicReference<WheelTask<?>> cancelledTasks =
+      new AtomicReference<WheelTask<?>>();
+
+  /**
+   * The workers that run enabled tasks.
+   */
+  private final ThreadPoolExecutor pool;
+
+  private final Thread timer;
+
+  /**
+   * True while the timer thread waits for a task to be scheduled.
+   */
+  private volatile boolean idle;
+
+  private final AtomicInteger runState = new AtomicInteger(RUNNING);
+
+  /**
+   * Released when the timer thread exits.
+   */
+  private final CountDownLatch timerDone = new CountDownLatch(1);
+
+  /**
+   * The tasks that were pending when the timer thread stopped, published
+   * by timerDone.
+   */
+  private List<Runnable> drainedTasks;
+
+  /**
+   * Creates a new {@code TimingWheelScheduledExecutor} with the given
+   * number of worker threads, a tick duration of one millisecond and 256
+   * slots per level.
+   *
+   * @param poolSize the number of threads that run tasks
+   * @throws IllegalArgumentException if {@code poolSize <= 0}
+   */
+  public TimingWheelScheduledExecutor(int poolSize) {
+    this(poolSize, DEFAULT_TICK_NANOS, NANOSECONDS, DEFAULT_WHEEL_SIZE,
+        Executors.defaultThreadFactory());
+  }
+
+  /**
+   * Creates a new {@code TimingWheelScheduledExecutor} with the given
+   * number of worker threads and thread factory, a tick duration of one
+   * millisecond and 256 slots per level.
+   *
+   * @param poolSize the number of threads that run tasks
+   * @param threadFactory the factory to use when the executor creates its
+   * timer thread and its workers
+   * @throws IllegalArgumentException if {@code poolSize <= 0}
+   * @throws NullPointerException if {@code threadFactory} is null
+   */
+  public TimingWheelScheduledExecutor(int poolSize,
+      ThreadFactory threadFactory) {
+    this(poolSize, DEFAULT_TICK_NANOS, NANOSECONDS, DEFAULT_WHEEL_SIZE,
+        threadFactory);
+  }
+
+  /**
+   * Creates a new {@code TimingWheelScheduledExecutor} with the given
+   * parameters.
+   *
+   * @param poolSize the number of threads that run tasks
+   * @param tickDuration the resolution of the executor
+   * @param unit the time unit of the {@code tickDuration} argument
+   * @param wheelSize the number of slots in each level of the wheel,
+   * rounded up to a power of two
+   * @param threadFactory the factory to use when the executor creates its
+   * timer thread and its workers
+   * @throws IllegalArgumentException if {@code poolSize <= 0}, {@code
+   * tickDuration <= 0}, or {@code wheelSize} is less than 2 or greater
+   * than 65536
+   * @throws NullPointerException if {@code unit} or {@code threadFactory}
+   * is null
+   */
+  public TimingWheelScheduledExecutor(int poolSize, long tickDuration,
+      TimeUnit unit, int wheelSize, ThreadFactory threadFactory) {
+    if (unit == null || threadFactory == null) {
+      throw new NullPointerException();
+    }
+    long tick = unit.toNanos(tickDuration);
+    if (poolSize <= 0 || tickDuration <= 0 || wheelSize < 2
+        || wheelSize > MAXIMUM_WHEEL_SIZE) {
+      throw new IllegalArgumentException();
+    }
+    this.tickNanos = tick;
+    this.wheelBits = 32 - Integer.numberOfLeadingZeros(wheelSize - 1);
+    // Enough levels for the largest delay in ticks, which fits in
+    // neededBits bits
+    int neededBits = 64 - Long.numberOfLeadingZeros((Long.MAX_VALUE >> 1) / tick);
+    this.levels = Math.max(1, (neededBits + wheelBits - 1) / wheelBits);
+    this.buckets = new Bucket[levels << wheelBits];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new Bucket();
+    }
+    this.pool = new ThreadPoolExecutor(poolSize, poolSize,
+        0L, NANOSECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+    this.startTime = System.nanoTime();
+    this.timer = threadFactory.newThread(new Runnable() {
+      public void run() {
+        runTimer();
+      }
+    });
+    if (timer == null) {
+      throw new IllegalStateException("Thread factory returned null");
+    }
+    timer.start();
+  }
+
+  /**
+   * Returns the tick duration, the resolution of this executor.
+   *
+   * @param unit the time unit of the result
+   * @return the tick duration
+   */
+  public long getTickDuration(TimeUnit unit) {
+    return unit.convert(tickNanos, NANOSECONDS);
+  }
+
+  /**
+   * Returns the number of slots in each level of the wheel.
+   *
+   * @return the number of slots per level
+   */
+  public int getWheelSize() {
+    return 1 << wheelBits;
+  }
+
+  /**
+   * Returns the number of threads that run tasks.
+   *
+   * @return the number of worker threads
+   */
+  public int getPoolSize() {
+    return pool.getCorePoolSize();
+  }
+
+  /**
+   * Returns current nanosecond time.
+   */
+  final long now() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Returns the trigger time of a delayed action.
+   */
+  private long triggerTime(long delay, TimeUnit unit) {
+    long d = unit.toNanos((delay < 0) ? 0 : delay);
+    return now() + ((d < (Long.MAX_VALUE >> 1)) ? d : (Long.MAX_VALUE >> 1));
+  }
+
+  /**
+   * A doubly-linked list of the tasks in one slot of the wheel.
+   */
+  static final class Bucket {
+    WheelTask<?> head;
+
+    void add(WheelTask<?> t) {
+      WheelTask<?> h = head;
+      t.bucket = this;
+      t.prev = null;
+      t.next = h;
+      if (h != null) {
+        h.prev = t;
+      }
+      head = t;
+    }
+
+    void remove(WheelTask<?> t) {
+      WheelTask<?> p = t.prev;
+      WheelTask<?> n = t.next;
+      if (p == null) {
+        head = n;
+      } else {
+        p.next = n;
+      }
+      if (n != null) {
+        n.prev = p;
+      }
+      t.bucket = null;
+      t.prev = t.next = null;
+    }
+
+    /**
+     * Removes all tasks, returning the first of the list they still form.
+     */
+    WheelTask<?> clear() {
+      WheelTask<?> h = head;
+      head = null;
+      return h;
+    }
+  }
+
+  private class WheelTask<V>
+      extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+    /**
+     * Sequence number to break ties in compareTo
+     */
+    private final long sequenceNumber;
+
+    /**
+     * The time the task is enabled to execute in nanoTime units
+     */
+    private long time;
+
+    /**
+     * Period in nanoseconds for repeating tasks.  A positive
+     * value indicates fixed-rate execution.  A negative value
+     * indicates fixed-delay execution.  A value of 0 indicates a
+     * non-repeating task.
+     */
+    private final long period;
+
+    /**
+     * True once the task has been handed to the workers, after which
+     * cancelling it need not tell the timer thread.
+     */
+    volatile boolean dispatched;
+
+    // Links of the stacks of new and cancelled tasks, published by the
+    // updates of their heads
+    WheelTask<?> nextNew;
+    WheelTask<?> nextCancelled;
+
+    // Links of the slot holding the task; accessed only by the timer
+    // thread
+    Bucket bucket;
+    WheelTask<?> prev;
+    WheelTask<?> next;
+
+    /**
+     * Creates a one-shot action with given nanoTime-based trigger time.
+     */
+    WheelTask(Runnable r, V result, long ns) {
+      super(r, result);
+      this.time = ns;
+      this.period = 0;
+      this.sequenceNumber = sequencer.getAndIncrement();
+    }
+
+    /**
+     * Creates a periodic action with given nano time and period.
+     */
+    WheelTask(Runnable r, V result, long ns, long period) {
+      super(r, result);
+      this.time = ns;
+      this.period = period;
+      this.sequenceNumber = sequencer.getAndIncrement();
+    }
+
+    /**
+     * Creates a one-shot action with given nanoTime-based trigger time.
+     */
+    WheelTask(Callable<V> callable, long ns) {
+      super(callable);
+      this.time = ns;
+      this.period = 0;
+      this.sequenceNumber = sequencer.getAndIncrement();
+    }
+
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(time - now(), NANOSECONDS);
+    }
+
+    public int compareTo(Delayed other) {
+      if (other == this) {
+        return 0;
+      }
+      if (other instanceof WheelTask) {
+        WheelTask<?> x = (WheelTask<?>) other;
+        long diff = time - x.time;
+        if (diff < 0) {
+          return -1;
+        } else if (diff > 0) {
+          return 1;
+        } else if (sequenceNumber < x.sequenceNumber) {
+          return -1;
+        } else {
+          return 1;
+        }
+      }
+      long diff = getDelay(NANOSECONDS) - other.getDelay(NANOSECONDS);
+      return (diff < 0) ? -1 : (diff > 0) ? 1 : 0;
+    }
+
+    /**
+     * Returns {@code true} if this is a periodic (not a one-shot) action.
+     *
+     * @return {@code true} if periodic
+     */
+    public boolean isPeriodic() {
+      return period != 0;
+    }
+
+    /**
+     * Returns the tick in which this task is enabled.
+     */
+    long deadlineTick() {
+      long elapsed = time - startTime;
+      return (elapsed <= 0) ? 0 : (elapsed + tickNanos - 1) / tickNanos;
+    }
+
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled && !dispatched) {
+        WheelTask<?> h;
+        do {
+          nextCancelled = h = cancelledTasks.get();
+        } while (!cancelledTasks.compareAndSet(h, this));
+      }
+      return cancelled;
+    }
+
+    /**
+     * Overrides FutureTask version so as to reschedule if periodic.
+     */
+    public void run() {
+      if (!isPeriodic()) {
+        super.run();
+      } else if (super.runAndReset()) {
+        if (period > 0) {
+          time += period;
+        } else {
+          time = triggerTime(-period, NANOSECONDS);
+        }
+        if (runState.get() == RUNNING) {
+          dispatched = false;
+          enqueue(this);
+          if (runState.get() != RUNNING) {
+            cancel(false);
+          }
+        } else {
+          cancel(false);
+        }
+      }
+    }
+  }
+
+  /**
+   * Passes a task to the timer thread, or to the workers if it is already
+   * enabled.
+   */
+  private void delayedExecute(WheelTask<?> task) {
+    if (runState.get() != RUNNING) {
+      throw new RejectedExecutionException("Executor has been shut down");
+    }
+    if (task.getDelay(NANOSECONDS) <= 0) {
+      task.dispatched = true;
+      pool.execute(task);
+    } else {
+      enqueue(task);
+      // The timer thread may have seen the shutdown and exited before the
+      // task was pushed, in which case nothing would ever run it, so
+      // withdraw and reject the task unless it has already run
+      if (runState.get() != RUNNING && task.cancel(false)) {
+        throw new RejectedExecutionException("Executor has been shut down");
+      }
+    }
+  }
+
+  private void enqueue(WheelTask<?> task) {
+    WheelTask<?> h;
+    do {
+      task.nextNew = h = newTasks.get();
+    } while (!newTasks.compareAndSet(h, task));
+    if (idle) {
+      LockSupport.unpark(timer);
+    }
+  }
+
+  // Methods run by the timer thread
+
+  private void runTimer() {
+    boolean periodicCancelled = false;
+    try {
+      for (;;) {
+        int rs = runState.get();
+        if (rs == STOP) {
+          drainedTasks = drain();
+          break;
+        }
+        long nowTick = (now() - startTime) / tickNanos;
+        // An empty wheel has nothing in the ticks that passed while the
+        // timer was idle, so skip them rather than replaying them once
+        // the new tasks are placed
+        if (wheelCount == 0 && currentTick < nowTick) {
+          currentTick = nowTick;
+        }
+        placeNewTasks();
+        if (rs == SHUTDOWN && !periodicCancelled) {
+          cancelPeriodicTasks();
+          periodicCancelled = true;
+        }
+        removeCancelledTasks();
+        nowTick = (now() - startTime) / tickNanos;
+        if (wheelCount == 0) {
+          if (rs != RUNNING && newTasks.get() == null) {
+            break;
+          }
+          // Nothing can be due before the next task is placed
+          if (currentTick < nowTick) {
+            currentTick = nowTick;
+          }
+        }
+        while (currentTick <= nowTick) {
+          expireTick();
+        }
+        if (wheelCount == 0) {
+          if (rs != RUNNING) {
+            continue;
+          }
+          idle = true;
+          if (newTasks.get() == null && runState.get() == RUNNING) {
+            LockSupport.park(this);
+          }
+          idle = false;
+        } else {
+          long wait = startTime + currentTick * tickNanos - now();
+          if (wait > 0) {
+            LockSupport.parkNanos(this, wait);
+          }
+        }
+      }
+    } finally {
+      pool.shutdown();
+      timerDone.countDown();
+    }
+  }
+
+  private void placeNewTasks() {
+    WheelTask<?> t = newTasks.getAndSet(null);
+    while (t != null) {
+      WheelTask<?> next = t.nextNew;
+      t.nextNew = null;
+      if (!t.isCancelled()) {
+        place(t);
+      }
+      t = next;
+    }
+  }
+
+  private void removeCancelledTasks() {
+    WheelTask<?> t = cancelledTasks.getAndSet(null);
+    while (t != null) {
+      WheelTask<?> next = t.nextCancelled;
+      t.nextCancelled = null;
+      Bucket b = t.bucket;
+      if (b != null) {
+        b.remove(t);
+        wheelCount--;
+      }
+      t = next;
+    }
+  }
+
+  /**
+   * Puts a task into the slot of the lowest level that reaches its
+   * deadline, or hands it to the workers if it is due.
+   */
+  private void place(WheelTask<?> t) {
+    long deadline = t.deadlineTick();
+    long delta = deadline - currentTick;
+    if (delta < 0) {
+      dispatch(t);
+      return;
+    }
+    int level = 0;
+    while (level < levels - 1 && (delta >>> (wheelBits * (level + 1))) != 0) {
+      level++;
+    }
+    int slot = (int) (deadline >>> (wheelBits * level)) & ((1 << wheelBits) - 1);
+    buckets[(level << wheelBits) | slot].add(t);
+    wheelCount++;
+  }
+
+  /**
+   * Processes the current tick: the slots of higher levels whose span it
+   * begins are placed again, and the tasks of the slot of level 0 are
+   * handed to the workers.
+   */
+  private void expireTick() {
+    long tick = currentTick;
+    int mask = (1 << wheelBits) - 1;
+    for (int i = levels - 1; i > 0; i--) {
+      int shift = wheelBits * i;
+      if ((tick & ((1L << shift) - 1)) == 0) {
+        WheelTask<?> t = buckets[(i << wheelBits) | ((int) (tick >>> shift) & mask)].clear();
+        while (t != null) {
+          WheelTask<?> next = t.next;
+          t.bucket = null;
+          t.prev = t.next = null;
+          wheelCount--;
+          place(t);
+          t = next;
+        }
+      }
+    }
+    WheelTask<?> t = buckets[(int) tick & mask].clear();
+    while (t != null) {
+      WheelTask<?> next = t.next;
+      t.bucket = null;
+      t.prev = t.next = null;
+      wheelCount--;
+      dispatch(t);
+      t = next;
+    }
+    currentTick = tick + 1;
+  }
+
+  private void dispatch(WheelTask<?> t) {
+    if (t.isCancelled()) {
+      return;
+    }
+    if (t.isPeriodic() && runState.get() != RUNNING) {
+      t.cancel(false);
+      return;
+    }
+    t.dispatched = true;
+    try {
+      pool.execute(t);
+    } catch (RejectedExecutionException ignore) {
+      // The workers were stopped by shutdownNow
+      t.cancel(false);
+    }
+  }
+
+  /**
+   * Cancels and removes the periodic tasks in the wheel, on shutdown.
+   */
+  private void cancelPeriodicTasks() {
+    for (Bucket b : buckets) {
+      for (WheelTask<?> t = b.head; t != null; ) {
+        WheelTask<?> next = t.next;
+        if (t.isPeriodic()) {
+          b.remove(t);
+          wheelCount--;
+          t.cancel(false);
+        }
+        t = next;
+      }
+    }
+  }
+
+  /**
+   * Removes and returns all tasks not yet handed to the workers.
+   */
+  private List<Runnable> drain() {
+    List<Runnable> list = new ArrayList<Runnable>();
+    placeNewTasks();
+    for (Bucket b : buckets) {
+      for (WheelTask<?> t = b.clear(); t != null; ) {
+        WheelTask<?> next = t.next;
+        t.bucket = null;
+        t.prev = t.next = null;
+        if (!t.isCancelled()) {
+          list.add(t);
+        }
+        t = next;
+      }
+    }
+    wheelCount = 0;
+    cancelledTasks.set(null);
+    return list;
+  }
+
+  // Scheduling methods
+
+  /**
+   * @throws RejectedExecutionException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   */
+  public ScheduledFuture<?> schedule(Runnable command,
+      long delay,
+      TimeUnit unit) {
+    if (command == null || unit == null) {
+      throw new NullPointerException();
+    }
+    WheelTask<Void> t = new WheelTask<Void>(command, null,
+        triggerTime(delay, unit));
+    delayedExecute(t);
+    return t;
+  }
+
+  /**
+   * @throws RejectedExecutionException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   */
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable,
+      long delay,
+      TimeUnit unit) {
+    if (callable == null || unit == null) {
+      throw new NullPointerException();
+    }
+    WheelTask<V> t = new WheelTask<V>(callable, triggerTime(delay, unit));
+    delayedExecute(t);
+    return t;
+  }
+
+  /**
+   * @throws RejectedExecutionException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command,
+      long initialDelay,
+      long period,
+      TimeUnit unit) {
+    if (command == null || unit == null) {
+      throw new NullPointerException();
+    }
+    if (period <= 0) {
+      throw new IllegalArgumentException();
+    }
+    WheelTask<Void> t = new WheelTask<Void>(command, null,
+        triggerTime(initialDelay, unit), unit.toNanos(period));
+    delayedExecute(t);
+    return t;
+  }
+
+  /**
+   * @throws RejectedExecutionException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   * @throws IllegalArgumentException {@inheritDoc}
+   */
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command,
+      long initialDelay,
+      long delay,
+      TimeUnit unit) {
+    if (command == null || unit == null) {
+      throw new NullPointerException();
+    }
+    if (delay <= 0) {
+      throw new IllegalArgumentException();
+    }
+    WheelTask<Void> t = new WheelTask<Void>(command, null,
+        triggerTime(initialDelay, unit), unit.toNanos(-delay));
+    delayedExecute(t);
+    return t;
+  }
+
+  /**
+   * Executes {@code command} with zero required delay.
+   * This has effect equivalent to
+   * {@link #schedule(Runnable, long, TimeUnit) schedule(command, 0, anyUnit)}.
+   *
+   * @throws RejectedExecutionException at discretion of {@code
+   * RejectedExecutionHandler}, if the task cannot be accepted for execution
+   * because the executor has been shut down
+   * @throws NullPointerException {@inheritDoc}
+   */
+  public void execute(Runnable command) {
+    schedule(command, 0, NANOSECONDS);
+  }
+
+  // Override AbstractExecutorService methods
+
+  /**
+   * @throws RejectedExecutionException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   */
+  public Future<?> submit(Runnable task) {
+    return schedule(task, 0, NANOSECONDS);
+  }
+
+  /**
+   * @throws RejectedExecutionException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   */
+  public <T> Future<T> submit(Runnable task, T result) {
+    return schedule(Executors.callable(task, result), 0, NANOSECONDS);
+  }
+
+  /**
+   * @throws RejectedExecutionException {@inheritDoc}
+   * @throws NullPointerException {@inheritDoc}
+   */
+  public <T> Future<T> submit(Callable<T> task) {
+    return schedule(task, 0, NANOSECONDS);
+  }
+
+  // Lifecycle methods
+
+  /**
+   * Initiates an orderly shutdown in which previously submitted
+   * tasks are executed, but no new tasks will be accepted.
+   * Periodic tasks are cancelled, and delayed tasks are run when
+   * their delays elapse.
+   *
+   * <p>This method does not wait for previously submitted
+   * tasks to complete execution.  Use {@link #awaitTermination
+   * awaitTermination} to do that.
+   */
+  public void shutdown() {
+    if (runState.compareAndSet(RUNNING, SHUTDOWN)) {
+      LockSupport.unpark(timer);
+    }
+  }
+
+  /**
+   * Attempts to stop all actively executing tasks, halts the
+   * processing of waiting tasks, and returns a list of the tasks
+   * that were awaiting execution.
+   *
+   * <p>This method waits for the timer thread to remove the tasks
+   * from the wheel, but does not wait for actively executing tasks
+   * to terminate.  Use {@link #awaitTermination awaitTermination} to
+   * do that.
+   *
+   * <p>There are no guarantees beyond best-effort attempts to stop
+   * processing actively executing tasks.  This implementation
+   * cancels tasks via {@link Thread#interrupt}, so any task that
+   * fails to respond to interrupts may never terminate.
+   *
+   * @return list of tasks that never commenced execution.
+   * Each element of this list is a {@link ScheduledFuture}.
+   */
+  public List<Runnable> shutdownNow() {
+    int rs;
+    while ((rs = runState.get()) != STOP) {
+      if (runState.compareAndSet(rs, STOP)) {
+        break;
+      }
+    }
+    LockSupport.unpark(timer);
+    boolean interrupted = false;
+    for (;;) {
+      try {
+        timerDone.await();
+        break;
+      } catch (InterruptedException ie) {
+        interrupted = true;
+      }
+    }
+    List<Runnable> list = new ArrayList<Runnable>();
+    if (drainedTasks != null) {
+      list.addAll(drainedTasks);
+      drainedTasks = null;
+    }
+    list.addAll(pool.shutdownNow());
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    return list;
+  }
+
+  public boolean isShutdown() {
+    return runState.get() != RUNNING;
+  }
+
+  public boolean isTerminated() {
+    return timerDone.getCount() == 0 && pool.isTerminated();
+  }
+
+  public boolean awaitTermination(long timeout, TimeUnit unit)
+      throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    long deadline = System.nanoTime() + nanos;
+    if (!timerDone.await(nanos, NANOSECONDS)) {
+      return false;
+    }
+    return pool.awaitTermination(deadline - System.nanoTime(), NANOSECONDS);
+  }
+}
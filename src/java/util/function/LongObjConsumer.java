@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2012, 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ *
+ */
+package java.util.function;
+
+/**
+ * Represents an operation that accepts a {@code long}-valued and an
+ * object-valued argument, and returns no result.  This is the {@code
+ * (long, reference)} specialization of {@link BiConsumer}. Unlike
+ * most other functional interfaces, {@code LongObjConsumer} is
+ * expected to operate via side-effects.
+ *
+ * <p>This is a <a href="package-summary.html">functional interface</a>
+ * whose functional method is {@link #accept(long, Object)}.
+ *
+ * @param <T> the type of the object argument to the operation
+ * @see BiConsumer
+ * @since 1.8
+ */
+@FunctionalInterface
+public interface LongObjConsumer<T> {
+
+  /**
+   * Performs this operation on the given arguments.
+   *
+   * @param value the first input argument
+   * @param t the second input argument
+   */
+  void accept(long value, T t);
+}
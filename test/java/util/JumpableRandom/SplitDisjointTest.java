@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+/*
+ * @test
+ * @summary Parallel streams of JumpableRandom generators draw from
+ *          disjoint subsequences
+ * @run main/othervm -Djava.util.concurrent.ForkJoinPool.common.parallelism=8 SplitDisjointTest
+ */
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.JumpableRandom;
+import java.util.L64X128MixRandom;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Xoshiro256StarStarRandom;
+
+public class SplitDisjointTest {
+
+    static final int SIZE = 1 << 16;
+
+    public static void main(String[] args) {
+        check(new Xoshiro256StarStarRandom(42));
+        check(new L64X128MixRandom(42));
+    }
+
+    static void check(JumpableRandom rng) {
+        String name = rng.getClass().getSimpleName();
+        long sequential = rng.copy().longs(SIZE).distinct().count();
+        long parallel = rng.copy().longs(SIZE).parallel().distinct().count();
+        if (sequential != SIZE || parallel != sequential) {
+            throw new AssertionError(name + ": " + sequential
+                + " distinct values sequentially, " + parallel + " in parallel");
+        }
+        long dSequential = rng.copy().doubles(SIZE).distinct().count();
+        long dParallel = rng.copy().doubles(SIZE).parallel().distinct().count();
+        if (dParallel != dSequential) {
+            throw new AssertionError(name + ": " + dSequential
+                + " distinct doubles sequentially, " + dParallel + " in parallel");
+        }
+
+        // Split a spliterator repeatedly on both sides and check that the
+        // first values of all the parts differ.
+        List<Spliterator.OfLong> parts = new ArrayList<>();
+        parts.add(rng.copy().longs(SIZE).spliterator());
+        for (int round = 0; round < 8; round++) {
+            int n = parts.size();
+            for (int i = 0; i < n; i++) {
+                Spliterator.OfLong prefix = parts.get(i).trySplit();
+                if (prefix != null) {
+                    parts.add(prefix);
+                }
+            }
+        }
+        Set<Long> firsts = new HashSet<>();
+        for (Spliterator.OfLong part : parts) {
+            part.tryAdvance((long v) -> {
+                if (!firsts.add(v)) {
+                    throw new AssertionError(name + ": parts overlap at " + v);
+                }
+            });
+        }
+        if (firsts.size() != 256) {
+            throw new AssertionError(name + ": " + firsts.size() + " parts");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2013, Oracle and/or its affiliates. All rights reserved.
+ * ORACLE PROPRIETARY/CONFIDENTIAL. Use is subject to license terms.
+ */
+
+/*
+ * @test
+ * @summary ConcurrentHashMap statistics follow the system property given
+ *          on the command line, although maps resize before it is set
+ * @run main/othervm -Djava.util.concurrent.ConcurrentHashMap.statistics=true StatisticsEnabled true
+ * @run main/othervm StatisticsEnabled false
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentHashMapMXBean;
+
+public class StatisticsEnabled {
+
+    public static void main(String[] args) {
+        boolean expected = Boolean.parseBoolean(args[0]);
+        ConcurrentHashMapMXBean stats = ConcurrentHashMap.getStatisticsMXBean();
+        if (stats.isStatisticsEnabled() != expected) {
+            throw new AssertionError("statistics enabled: "
+                + stats.isStatisticsEnabled() + ", expected " + expected);
+        }
+        long resizes = stats.getResizeCount();
+        long binLocks = stats.getBinLockCount();
+        ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            map.put(i, i);
+            map.put(i, i + 1);  // locks the bin
+        }
+        boolean recorded = stats.getResizeCount() > resizes
+            && stats.getBinLockCount() > binLocks;
+        if (recorded != expected) {
+            throw new AssertionError("resizes " + resizes + " -> "
+                + stats.getResizeCount() + ", bin locks " + binLocks + " -> "
+                + stats.getBinLockCount() + ", expected recorded: " + expected);
+        }
+    }
+}